@@ -0,0 +1,210 @@
+package ca.pfv.spmf.benchmarks;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import ca.pfv.spmf.tools.dataset_generator.SequenceDatabaseGenerator;
+import ca.pfv.spmf.tools.dataset_generator.TransactionDatabaseGenerator;
+import ca.pfv.spmf.tools.dataset_generator.TransactionDatasetUtilityGenerator;
+
+/**
+ * This class generates the datasets used by the benchmarks. Each dataset is generated
+ * with a fixed seed, so that all executions of a benchmark use exactly the same data. <br/><br/>
+ *
+ * Datasets are written in the working directory (the "jmh" task of the Gradle build
+ * uses build/jmh-datasets, which is also in the classpath). A file is generated only if it does not
+ * exist yet, and its name contains all the parameters used to generate it. The file name
+ * is returned, so that it can be given to algorithms that read their input from the classpath
+ * as well as to algorithms that read it from the working directory.
+ *
+ * @author Philippe Fournier-Viger
+ */
+final class BenchmarkDatasets {
+
+	/** the seed used for generating all datasets */
+	static final long SEED = 20170224L;
+
+	/** the file where benchmarks write their output */
+	static final String OUTPUT = "benchmark_output.txt";
+
+	private BenchmarkDatasets() {
+	}
+
+	/**
+	 * Get a transaction database generated by TransactionDatabaseGenerator.
+	 * @param transactionCount the number of transactions
+	 * @param maxDistinctItems the maximum number of distinct items
+	 * @param maxItemCountPerTransaction the maximum number of items per transaction
+	 * @return the file name
+	 * @throws IOException if error while writing the file
+	 */
+	static synchronized String transactionDatabase(int transactionCount, int maxDistinctItems,
+			int maxItemCountPerTransaction) throws IOException {
+		String name = "transactions_" + transactionCount + "_" + maxDistinctItems + "_"
+				+ maxItemCountPerTransaction + "_" + SEED + ".txt";
+		if(!new File(name).exists()) {
+			TransactionDatabaseGenerator generator = new TransactionDatabaseGenerator();
+			generator.setSeed(SEED);
+			generateAtomically(name, new Generation() {
+				public void generate(String path) throws IOException {
+					generator.generateDatabase(transactionCount, maxDistinctItems, maxItemCountPerTransaction, path);
+				}
+			});
+		}
+		return name;
+	}
+
+	/**
+	 * Get a transaction database with utility values, obtained by adding utilities to
+	 * a database generated by TransactionDatabaseGenerator.
+	 * @param transactionCount the number of transactions
+	 * @param maxDistinctItems the maximum number of distinct items
+	 * @param maxItemCountPerTransaction the maximum number of items per transaction
+	 * @return the file name
+	 * @throws IOException if error while writing the file
+	 */
+	static synchronized String utilityDatabase(int transactionCount, int maxDistinctItems,
+			int maxItemCountPerTransaction) throws IOException {
+		final String transactions = transactionDatabase(transactionCount, maxDistinctItems, maxItemCountPerTransaction);
+		String name = "utility_" + transactions;
+		if(!new File(name).exists()) {
+			TransactionDatasetUtilityGenerator generator = new TransactionDatasetUtilityGenerator();
+			generator.setSeed(SEED);
+			generateAtomically(name, new Generation() {
+				public void generate(String path) throws IOException {
+					generator.convert(transactions, path, 10, 1d);
+				}
+			});
+		}
+		return name;
+	}
+
+	/**
+	 * Get a sequence database generated by SequenceDatabaseGenerator.
+	 * @param sequenceCount the number of sequences
+	 * @param maxDistinctItems the maximum number of distinct items
+	 * @param itemCountByItemset the number of items by itemset
+	 * @param itemsetCountBySequence the number of itemsets by sequence
+	 * @return the file name
+	 * @throws IOException if error while writing the file
+	 */
+	static synchronized String sequenceDatabase(int sequenceCount, int maxDistinctItems,
+			int itemCountByItemset, int itemsetCountBySequence) throws IOException {
+		String name = "sequences_" + sequenceCount + "_" + maxDistinctItems + "_" + itemCountByItemset
+				+ "_" + itemsetCountBySequence + "_" + SEED + ".txt";
+		if(!new File(name).exists()) {
+			SequenceDatabaseGenerator generator = new SequenceDatabaseGenerator();
+			generator.setSeed(SEED);
+			generateAtomically(name, new Generation() {
+				public void generate(String path) throws IOException {
+					generator.generateDatabase(sequenceCount, maxDistinctItems, itemCountByItemset,
+							itemsetCountBySequence, path, false);
+				}
+			});
+		}
+		return name;
+	}
+
+	/**
+	 * Get a file of vectors of double values made of some gaussian clusters, in
+	 * the format read by AlgoInstanceFileReader.
+	 * @param vectorCount the number of vectors
+	 * @param dimensionCount the number of dimensions of each vector
+	 * @param clusterCount the number of clusters
+	 * @return the file name
+	 * @throws IOException if error while writing the file
+	 */
+	static synchronized String vectorDatabase(int vectorCount, int dimensionCount, int clusterCount)
+			throws IOException {
+		String name = "vectors_" + vectorCount + "_" + dimensionCount + "_" + clusterCount + "_" + SEED + ".txt";
+		if(!new File(name).exists()) {
+			generateAtomically(name, new Generation() {
+				public void generate(String path) throws IOException {
+					writeVectors(path, vectorCount, dimensionCount, clusterCount);
+				}
+			});
+		}
+		return name;
+	}
+
+	/**
+	 * Write a file of vectors where each vector is drawn from a gaussian distribution
+	 * around one of several randomly chosen centers.
+	 * @param path the output file
+	 * @param vectorCount the number of vectors
+	 * @param dimensionCount the number of dimensions
+	 * @param clusterCount the number of centers
+	 * @throws IOException if error while writing the file
+	 */
+	private static void writeVectors(String path, int vectorCount, int dimensionCount, int clusterCount)
+			throws IOException {
+		Random random = new Random(SEED);
+		double[][] centers = new double[clusterCount][dimensionCount];
+		for(double[] center : centers) {
+			for(int j = 0; j < dimensionCount; j++) {
+				center[j] = random.nextDouble() * 100;
+			}
+		}
+		BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+		try {
+			for(int j = 0; j < dimensionCount; j++) {
+				writer.write("@ATTRIBUTEDEF=X" + j);
+				writer.newLine();
+			}
+			for(int i = 0; i < vectorCount; i++) {
+				double[] center = centers[random.nextInt(clusterCount)];
+				for(int j = 0; j < dimensionCount; j++) {
+					if(j != 0) {
+						writer.write(" ");
+					}
+					writer.write(Double.toString(center[j] + random.nextGaussian() * 2));
+				}
+				writer.newLine();
+			}
+		}finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Generate a file in a temporary file and then rename it, so that a benchmark
+	 * running in another JVM never reads a file that is only partially written.
+	 * @param name the name of the file
+	 * @param generation the code generating the file
+	 * @throws IOException if error while writing the file
+	 */
+	private static void generateAtomically(String name, Generation generation) throws IOException {
+		File temporary = new File(name + ".tmp");
+		generation.generate(temporary.getPath());
+		if(!temporary.renameTo(new File(name)) && !new File(name).exists()) {
+			throw new IOException("Cannot create the dataset " + name);
+		}
+	}
+
+	/**
+	 * The code that writes a dataset to a file.
+	 */
+	private interface Generation {
+		void generate(String path) throws IOException;
+	}
+}
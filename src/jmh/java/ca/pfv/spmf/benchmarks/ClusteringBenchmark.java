@@ -0,0 +1,106 @@
+package ca.pfv.spmf.benchmarks;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.pfv.spmf.algorithms.clustering.dbscan.AlgoDBSCAN;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.kmeans.AlgoKMeans;
+import ca.pfv.spmf.patterns.cluster.Cluster;
+import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
+
+/**
+ * Benchmarks of the clustering algorithms K-Means and DBSCAN on vectors drawn from
+ * gaussian clusters. <br/><br/>
+ *
+ * Profiles: "low" (2 dimensions) and "high" (10 dimensions).
+ *
+ * @see BenchmarkDatasets
+ * @author Philippe Fournier-Viger
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClusteringBenchmark {
+
+	/** the dataset profile */
+	@Param({"low", "high"})
+	public String profile;
+
+	/** the input file */
+	private String input;
+	/** the number of clusters for K-Means */
+	private int k;
+	/** the epsilon parameter of DBSCAN */
+	private double epsilon;
+
+	/**
+	 * Generate the dataset of the profile.
+	 * @throws IOException if error while writing the dataset
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		switch (profile) {
+		case "low":
+			input = BenchmarkDatasets.vectorDatabase(5000, 2, 10);
+			k = 10;
+			epsilon = 1d;
+			break;
+		case "high":
+			input = BenchmarkDatasets.vectorDatabase(5000, 10, 10);
+			k = 10;
+			epsilon = 5d;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown profile: " + profile);
+		}
+	}
+
+	/** Run K-Means (the initial centers are chosen with a fixed seed) */
+	@Benchmark
+	public List<ClusterWithMean> kMeans() throws IOException {
+		AlgoKMeans algo = new AlgoKMeans();
+		algo.setSeed(BenchmarkDatasets.SEED);
+		return algo.runAlgorithm(input, k, new DistanceEuclidian(), " ");
+	}
+
+	/** Run DBSCAN */
+	@Benchmark
+	public List<Cluster> dbscan() throws IOException {
+		return new AlgoDBSCAN().runAlgorithm(input, 5, epsilon, " ");
+	}
+}
@@ -0,0 +1,107 @@
+package ca.pfv.spmf.benchmarks;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.pfv.spmf.algorithms.frequentpatterns.eclat.AlgoEclat;
+import ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth.AlgoFPGrowth;
+import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
+import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
+
+/**
+ * Benchmarks of the frequent itemset mining algorithms FPGrowth and Eclat on transaction
+ * databases generated by TransactionDatabaseGenerator. <br/><br/>
+ *
+ * Profiles: "sparse" (many items, short transactions), "dense" (few items, long transactions)
+ * and "large" (a larger sparse database).
+ *
+ * @see BenchmarkDatasets
+ * @author Philippe Fournier-Viger
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FrequentItemsetBenchmark {
+
+	/** the dataset profile */
+	@Param({"sparse", "dense", "large"})
+	public String profile;
+
+	/** the input file */
+	private String input;
+	/** the minimum support threshold */
+	private double minsup;
+	/** the database used by Eclat (loaded only once) */
+	private TransactionDatabase database;
+
+	/**
+	 * Generate the dataset of the profile.
+	 * @throws IOException if error while writing the dataset
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		switch (profile) {
+		case "sparse":
+			input = BenchmarkDatasets.transactionDatabase(10000, 1000, 20);
+			minsup = 0.001;
+			break;
+		case "dense":
+			input = BenchmarkDatasets.transactionDatabase(5000, 50, 40);
+			minsup = 0.2;
+			break;
+		case "large":
+			input = BenchmarkDatasets.transactionDatabase(100000, 2000, 20);
+			minsup = 0.0005;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown profile: " + profile);
+		}
+		database = new TransactionDatabase();
+		database.loadFile(input);
+	}
+
+	/** Run FPGrowth (including the reading of the database) */
+	@Benchmark
+	public Itemsets fpGrowth() throws IOException {
+		return new AlgoFPGrowth().runAlgorithm(input, BenchmarkDatasets.OUTPUT, minsup);
+	}
+
+	/** Run Eclat on the database already loaded in memory */
+	@Benchmark
+	public Itemsets eclat() throws IOException {
+		return new AlgoEclat().runAlgorithm(BenchmarkDatasets.OUTPUT, database, minsup, true);
+	}
+}
@@ -0,0 +1,100 @@
+package ca.pfv.spmf.benchmarks;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.pfv.spmf.algorithms.frequentpatterns.efim.AlgoEFIM;
+import ca.pfv.spmf.algorithms.frequentpatterns.efim.Itemsets;
+import ca.pfv.spmf.algorithms.frequentpatterns.hui_miner.AlgoFHM;
+
+/**
+ * Benchmarks of the high utility itemset mining algorithms EFIM and FHM on transaction
+ * databases generated by TransactionDatabaseGenerator, with utilities added by
+ * TransactionDatasetUtilityGenerator. <br/><br/>
+ *
+ * Profiles: "sparse" (many items, short transactions) and "dense" (few items, long transactions).
+ *
+ * @see BenchmarkDatasets
+ * @author Philippe Fournier-Viger
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HighUtilityItemsetBenchmark {
+
+	/** the dataset profile */
+	@Param({"sparse", "dense"})
+	public String profile;
+
+	/** the input file */
+	private String input;
+	/** the minimum utility threshold */
+	private int minUtility;
+
+	/**
+	 * Generate the dataset of the profile.
+	 * @throws IOException if error while writing the dataset
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		switch (profile) {
+		case "sparse":
+			input = BenchmarkDatasets.utilityDatabase(10000, 1000, 20);
+			minUtility = 5000;
+			break;
+		case "dense":
+			input = BenchmarkDatasets.utilityDatabase(2000, 50, 30);
+			minUtility = 60000;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown profile: " + profile);
+		}
+	}
+
+	/** Run EFIM */
+	@Benchmark
+	public Itemsets efim() throws IOException {
+		return new AlgoEFIM().runAlgorithm(minUtility, input, BenchmarkDatasets.OUTPUT, true, Integer.MAX_VALUE, true);
+	}
+
+	/** Run FHM */
+	@Benchmark
+	public AlgoFHM fhm() throws IOException {
+		AlgoFHM algorithm = new AlgoFHM();
+		algorithm.runAlgorithm(input, BenchmarkDatasets.OUTPUT, minUtility);
+		return algorithm;
+	}
+}
@@ -0,0 +1,117 @@
+package ca.pfv.spmf.benchmarks;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.AlgoPrefixSpan;
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.SequentialPatterns;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.AlgoCMSPADE;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.candidatePatternsGeneration.CandidateGenerator_Qualitative;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.dataStructures.creators.AbstractionCreator;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.dataStructures.creators.AbstractionCreator_Qualitative;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.dataStructures.database.SequenceDatabase;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.idLists.creators.IdListCreator_FatBitmap;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spam.AlgoSPAM;
+
+/**
+ * Benchmarks of the sequential pattern mining algorithms PrefixSpan, SPAM and CM-SPADE on
+ * sequence databases generated by SequenceDatabaseGenerator. <br/><br/>
+ *
+ * Profiles: "short" (many short sequences) and "long" (fewer but longer sequences).
+ *
+ * @see BenchmarkDatasets
+ * @author Philippe Fournier-Viger
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SequentialPatternBenchmark {
+
+	/** the dataset profile */
+	@Param({"short", "long"})
+	public String profile;
+
+	/** the input file */
+	private String input;
+	/** the minimum support threshold */
+	private double minsup;
+
+	/**
+	 * Generate the dataset of the profile.
+	 * @throws IOException if error while writing the dataset
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		switch (profile) {
+		case "short":
+			input = BenchmarkDatasets.sequenceDatabase(10000, 100, 2, 5);
+			minsup = 0.01;
+			break;
+		case "long":
+			input = BenchmarkDatasets.sequenceDatabase(2000, 50, 3, 10);
+			minsup = 0.1;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown profile: " + profile);
+		}
+	}
+
+	/** Run PrefixSpan */
+	@Benchmark
+	public SequentialPatterns prefixSpan() throws IOException {
+		return new AlgoPrefixSpan().runAlgorithm(input, minsup, BenchmarkDatasets.OUTPUT);
+	}
+
+	/** Run SPAM */
+	@Benchmark
+	public AlgoSPAM spam() throws IOException {
+		AlgoSPAM algorithm = new AlgoSPAM();
+		algorithm.runAlgorithm(input, BenchmarkDatasets.OUTPUT, minsup);
+		return algorithm;
+	}
+
+	/** Run CM-SPADE (including the reading of the database, like the other algorithms) */
+	@Benchmark
+	public AlgoCMSPADE cmSpade() throws IOException {
+		AbstractionCreator abstractionCreator = AbstractionCreator_Qualitative.getInstance();
+		SequenceDatabase database = new SequenceDatabase(abstractionCreator, IdListCreator_FatBitmap.getInstance());
+		database.loadFile(input, minsup);
+		AlgoCMSPADE algorithm = new AlgoCMSPADE(minsup, true, abstractionCreator);
+		algorithm.runAlgorithm(database, CandidateGenerator_Qualitative.getInstance(), true, false,
+				BenchmarkDatasets.OUTPUT, false);
+		return algorithm;
+	}
+}
@@ -28,6 +28,8 @@ import ca.pfv.spmf.algorithms.frequentpatterns.zart.TZTableClosed;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.rule_itemset_array_integer_with_count.Rule;
 import ca.pfv.spmf.patterns.rule_itemset_array_integer_with_count.Rules;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the GEN-IGB-FERMES algorithm for mining
@@ -63,6 +65,7 @@ public class AlgoIGB {
 	// for statistics
     private long startTimestamp = 0; // last execution start time
 	private long endTimeStamp = 0;   // last execution end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int ruleCount; // the number of rules found
 	
 	// object to write the output file if the user wish to write to a file
@@ -95,6 +98,7 @@ public class AlgoIGB {
 		}
 		
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// parameters
 		this.minconf = minconf;
@@ -119,6 +123,7 @@ public class AlgoIGB {
 		
 		// record the end time
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// if the user chose to save to a file, we close the file.
 		if(writer != null){
@@ -287,8 +292,18 @@ public class AlgoIGB {
 				+ ruleCount);
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp)
 				+ " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
-	
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
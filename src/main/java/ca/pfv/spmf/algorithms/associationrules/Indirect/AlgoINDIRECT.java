@@ -18,6 +18,8 @@ package ca.pfv.spmf.algorithms.associationrules.Indirect;
 */
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -73,6 +75,7 @@ public class AlgoINDIRECT {
 	// for statistics
     private long startTimestamp = 0; // start time of the last algorithm execution
 	private long endTimeStamp = 0; // end time of the last algorithm execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// object to write the result to disk
     private BufferedWriter writer = null;
@@ -100,6 +103,7 @@ public class AlgoINDIRECT {
 	public void runAlgorithm(String input, String output, double minsup, double ts, double minconf) throws NumberFormatException, IOException {
 		// record the algorithm start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// create an object to write the output file
 		writer = new BufferedWriter(new FileWriter(output)); 
 		this.minconf = minconf; // save minconf
@@ -192,6 +196,7 @@ public class AlgoINDIRECT {
 		// close the file
 		writer.close();
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -429,7 +434,18 @@ loop2:		for(int j=i+1; j< levelK_1.size(); j++){
 		System.out.println(" Transactions count from database : " + tidcount);
 		System.out.println(" Indirect rule count : " + ruleCount);
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp)+ " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
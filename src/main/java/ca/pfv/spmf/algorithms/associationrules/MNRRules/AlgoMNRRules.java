@@ -31,6 +31,8 @@ import ca.pfv.spmf.algorithms.frequentpatterns.zart.TZTableClosed;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.rule_itemset_array_integer_with_count.Rule;
 import ca.pfv.spmf.patterns.rule_itemset_array_integer_with_count.Rules;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 /**
  * This is an implementation of an algorithm for finding the set of Minimum Non Redundant rules (MNR)
  * from a transaction database.  
@@ -71,6 +73,7 @@ public class AlgoMNRRules {
 	// for statistics
     private long startTimestamp = 0; // last execution start time
 	private long endTimeStamp = 0;   // last execution end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int ruleCount;  // number of rule found
 	
 	// the rules found (if we save to memory)
@@ -119,6 +122,7 @@ public class AlgoMNRRules {
 		ruleCount = 0;
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 
 		
@@ -157,6 +161,7 @@ public class AlgoMNRRules {
 			}
 		}
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// if we saved to a file, we need to close it.
 		if(writer != null){
@@ -270,7 +275,18 @@ public class AlgoMNRRules {
 				+ ruleCount);
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp)
 				+ " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -20,6 +20,7 @@ package ca.pfv.spmf.algorithms.associationrules.TopKRules_and_TNR;
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.datastructures.redblacktree.RedBlackTree;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.net.URISyntaxException;
@@ -41,6 +42,7 @@ public class AlgoTNR {
     // for statistics
     private long timeStart = 0;  // start time of last execution
     private long timeEnd = 0;   // end time of last execution
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 
     // the maximum number of candidates at the same time during the last execution
     private int maxCandidateCount = 0;
@@ -122,6 +124,7 @@ public class AlgoTNR {
 
         // record the end time
         timeEnd = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
 
         // if more than k rules because several of them have the same support,
         // we remove some to only return k to the user
@@ -678,6 +681,17 @@ public class AlgoTNR {
         System.out.println("Rules eliminated by strategy 1: " + notAdded);
         System.out.println("Rules eliminated by strategy 2: " + totalremovedCount);
         System.out.println("--------------------------------");
+        if(runMetrics != null) {
+        	System.out.print(runMetrics);
+        }
         System.out.println("===================================================");
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
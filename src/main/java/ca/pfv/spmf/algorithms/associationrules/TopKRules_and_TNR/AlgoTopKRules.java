@@ -31,6 +31,7 @@ import java.util.PriorityQueue;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * TopKRules is an algorithm for mining the TOP-K  association rules from a 
@@ -48,6 +49,7 @@ public class AlgoTopKRules {
 	// for statistics
 	private long timeStart = 0;  // start time of last execution
 	private long timeEnd = 0;  // end time of last execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	// parameters
 	private double minConfidence; // minconf threshold
@@ -113,6 +115,7 @@ public class AlgoTopKRules {
 		
 		// record the end time
 		timeEnd = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -522,6 +525,9 @@ public class AlgoTopKRules {
 	 * Print statistics about the last algorithm execution.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  TOP-K RULES SPMF v.2.10 - STATS =============");
 		System.out.println("Minsup : " + minsuppRelative);
 		System.out.println("Rules count: " + kRules.size());
@@ -568,4 +574,12 @@ public class AlgoTopKRules {
 		// close the file
 		writer.close();
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
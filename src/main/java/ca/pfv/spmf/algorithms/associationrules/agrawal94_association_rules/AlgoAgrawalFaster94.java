@@ -19,6 +19,8 @@ package ca.pfv.spmf.algorithms.associationrules.agrawal94_association_rules;
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -58,6 +60,7 @@ public class AlgoAgrawalFaster94{
 	// for statistics
 	protected long startTimestamp = 0; // last execution start time
 	protected long endTimeStamp = 0;   // last execution end time
+	protected RunMetrics runMetrics = null; // the resources used by the latest execution
 	protected int ruleCount = 0;  // number of rules generated
 	protected int databaseSize = 0; // number of transactions in database
 	
@@ -138,6 +141,7 @@ public class AlgoAgrawalFaster94{
 		
 		// record the time when the algorithm starts
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// initialize variable to count the number of rules found
 		ruleCount = 0;
 		// save itemsets in a member variable
@@ -234,6 +238,7 @@ public class AlgoAgrawalFaster94{
 		}
 		// record the end time of the algorithm execution
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return the rules found if the user chose to save the result to memory rather than a file.
 		// Otherwise, null will be returned
@@ -433,6 +438,9 @@ public class AlgoAgrawalFaster94{
 		System.out.println("=============  ASSOCIATION RULE GENERATION v0.96f- STATS =============");
 		System.out.println(" Number of association rules generated : " + ruleCount);
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -506,4 +514,11 @@ public class AlgoAgrawalFaster94{
 //		return format.format(value);
 //	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
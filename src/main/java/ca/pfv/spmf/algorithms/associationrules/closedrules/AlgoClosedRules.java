@@ -30,6 +30,7 @@ import ca.pfv.spmf.algorithms.associationrules.agrawal94_association_rules.Assoc
 import ca.pfv.spmf.algorithms.associationrules.agrawal94_association_rules.AssocRules;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemsets;
+import ca.pfv.spmf.tools.MemoryLogger;
 
 /**
  * This is an implementation of the "faster algorithm" for generating association rules,
@@ -131,6 +132,7 @@ public class AlgoClosedRules extends AlgoAgrawalFaster94{
 		
 		// record the time when the algorithm starts
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// initialize variable to count the number of rules found
 		ruleCount = 0;
 		// save itemsets in a member variable
@@ -227,6 +229,7 @@ public class AlgoClosedRules extends AlgoAgrawalFaster94{
 		}
 		// record the end time of the algorithm execution
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return the rules found if the user chose to save the result to memory rather than a file.
 		// Otherwise, null will be returned
@@ -31,6 +31,7 @@ import ca.pfv.spmf.algorithms.associationrules.agrawal94_association_rules.Assoc
 import ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth.CFITree;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
+import ca.pfv.spmf.tools.MemoryLogger;
 
 /**
  * This is an implementation of the "faster algorithm" for generating association rules,
@@ -140,6 +141,7 @@ public class AlgoClosedRules_UsingFPClose extends AlgoAgrawalFaster94{
 		
 		// record the time when the algorithm starts
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// initialize variable to count the number of rules found
 		ruleCount = 0;
 		// save itemsets in a member variable
@@ -234,6 +236,7 @@ public class AlgoClosedRules_UsingFPClose extends AlgoAgrawalFaster94{
 		}
 		// record the end time of the algorithm execution
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return the rules found if the user chose to save the result to memory rather than a file.
 		// Otherwise, null will be returned
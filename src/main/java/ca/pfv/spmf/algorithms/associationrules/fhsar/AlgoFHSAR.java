@@ -19,6 +19,8 @@ package ca.pfv.spmf.algorithms.associationrules.fhsar;
 import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * An implementation of the FHSAR algorithm for hiding sensitive association rules in a
@@ -34,6 +36,7 @@ public class AlgoFHSAR {
 	private int tidcount = 0; // the number of transactions in the last database read
 	private long startTimestamp = 0; // the start time of the last execution
 	private long endTimeStamp = 0; // the end time of the last execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// the relative minimum suport (integer) chosen by the user
 	private int minSuppRelative;
@@ -51,6 +54,7 @@ public class AlgoFHSAR {
 			double minsup, double minconf) throws IOException {
 		// record the start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// the sensitive rules
 		List<Rule> sensitiveRules = new ArrayList<Rule>();  
@@ -300,6 +304,7 @@ public class AlgoFHSAR {
 		
 		// save the end time.
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -353,6 +358,17 @@ public class AlgoFHSAR {
 		System.out.println(" Transactions count from original database : " + tidcount);
 		System.out.println(" minsup : " + minSuppRelative + " transactions");
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp)+ " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("============================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
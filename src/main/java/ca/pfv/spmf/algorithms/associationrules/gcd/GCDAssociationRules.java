@@ -19,6 +19,7 @@
 package ca.pfv.spmf.algorithms.associationrules.gcd;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.text.DateFormat;
@@ -35,6 +36,7 @@ public class GCDAssociationRules {
 	private int itemsetCount;
 	private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	public GCDAssociationRules(String inputFilePath, String outputFilePath, double inputFreqThreshold,
 			double inputConfThreshold, int combinationsElementsLimit) {
@@ -113,6 +115,7 @@ public class GCDAssociationRules {
 		endTimestamp = Calendar.getInstance().getTimeInMillis();
 		System.gc();
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	private List<String> constructCSVLines(List<AssociationRule> associationRules) {
@@ -234,6 +237,9 @@ public class GCDAssociationRules {
 		System.out.println(" Pattern count : " + itemsetCount);
 		System.out.println(" Maximum memory usage : " + MemoryLogger.getInstance().getMaxMemory() + " mb");
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -244,4 +250,12 @@ public class GCDAssociationRules {
 	public int getPatternCount() {
 		return itemsetCount;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
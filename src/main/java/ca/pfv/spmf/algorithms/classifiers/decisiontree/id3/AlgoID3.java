@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
 import java.util.Map.Entry;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the ID3 algorithm for creating a decision tree.
@@ -42,6 +44,7 @@ public class AlgoID3 {
 	// for statistics
 	private long startTime; // start time of the latest execution
 	private long endTime;   // end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	/**
 	 * Create a decision tree from a set of training instances.
@@ -55,6 +58,7 @@ public class AlgoID3 {
 			String separator) throws IOException {
 		// record the start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// create an empty decision tree
 		DecisionTree tree = new DecisionTree();
@@ -111,6 +115,7 @@ public class AlgoID3 {
 		tree.allAttributes = allAttributes;
 		
 		endTime = System.currentTimeMillis();  // record end time
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		return tree; // return the tree
 	}
@@ -387,5 +392,16 @@ public class AlgoID3 {
 			}
 		}
 		System.out.println();
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
+	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
 	}
 }
@@ -1,6 +1,7 @@
 package ca.pfv.spmf.algorithms.classifiers.naive_bayes_text_classifier;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 import ca.pfv.spmf.tools.textprocessing.PorterStemmer;
 import ca.pfv.spmf.tools.textprocessing.StopWordAnalyzer;
 
@@ -44,6 +45,7 @@ public class AlgoNaiveBayesClassifier {
     private ArrayList<MemoryFile> mMemFiles = new ArrayList<MemoryFile>();
     private long mStartTimestamp = 0; // last execution start time
     private long mEndTimeStamp = 0; // last execution end time
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     private HashMap<String, Integer> classProb;
 
     /**
@@ -66,6 +68,7 @@ public class AlgoNaiveBayesClassifier {
 
     private void runAlgorithm() throws Exception {
         this.mStartTimestamp = System.currentTimeMillis();
+        MemoryLogger.getInstance().reset();
         mAnalyzer = new StopWordAnalyzer();
         mStemmer = new PorterStemmer();
         classProb = new HashMap<String, Integer>();
@@ -132,6 +135,7 @@ public class AlgoNaiveBayesClassifier {
         }
         writer.close();
         this.mEndTimeStamp = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
     }
 
     /**
@@ -289,6 +293,17 @@ public class AlgoNaiveBayesClassifier {
         System.out.println(" Total time ~: " + (mEndTimeStamp - mStartTimestamp)
                 + " ms");
         System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory() + " mb ");
+        if(runMetrics != null) {
+        	System.out.print(runMetrics);
+        }
         System.out.println("=====================================");
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
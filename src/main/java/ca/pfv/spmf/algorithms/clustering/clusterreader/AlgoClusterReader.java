@@ -22,6 +22,7 @@ import ca.pfv.spmf.patterns.cluster.Cluster;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.patterns.cluster.DoubleArrayInstance;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -43,6 +44,7 @@ public class AlgoClusterReader {
 	
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -295,6 +297,7 @@ public class AlgoClusterReader {
 		MemoryLogger.getInstance().checkMemory();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the clusters
 		return clusters;
@@ -308,6 +311,9 @@ public class AlgoClusterReader {
 		System.out.println(" Number of clusters processed: " + clusterCount);
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================================================");
 	}
 
@@ -325,4 +331,12 @@ public class AlgoClusterReader {
 	public List<String> getAttributeNames() {
 		return attributeNames;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
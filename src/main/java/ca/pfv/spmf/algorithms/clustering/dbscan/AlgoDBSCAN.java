@@ -18,15 +18,20 @@ package ca.pfv.spmf.algorithms.clustering.dbscan;
 
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
-import ca.pfv.spmf.datastructures.kdtree.KDTree;
+import ca.pfv.spmf.datastructures.grid.UniformGrid;
+import ca.pfv.spmf.datastructures.kdtree.ArrayKDTree;
 import ca.pfv.spmf.patterns.cluster.Cluster;
 import ca.pfv.spmf.patterns.cluster.ClustersEvaluation;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
 * 
@@ -54,6 +59,26 @@ import java.util.List;
  * Han, Jiawei; Fayyad, Usama M., eds. A density-based algorithm for discovering clusters in 
  * large spatial databases with noise. Proceedings of the Second International Conference on Knowledge
  *  Discovery and Data Mining (KDD-96). AAAI Press. pp. 226�231.
+ * <br/><br/>
+ * 
+ * The points can also be indexed with a uniform grid rather than a KD-Tree (see setUseGrid()),
+ * which is faster for data having few dimensions.
+ * <br/><br/>
+ * 
+ * The KD-Tree (ArrayKDTree) does not reorder the list of points. Thus, the points are processed
+ * in the order of the input file, and the clusters and their points are output in the same order
+ * from run to run. Previous versions used KDTree, which reordered the points randomly when building the
+ * tree, so the order of the clusters and of their points could change between runs (the clusters
+ * themselves are the same, except that a border point may be in another cluster).
+ * <br/><br/>
+ * 
+ * A parallel mode is used when setThreadCount() is called with more than one thread. In that mode,
+ * the neighbors of the points are found by several threads: (1) the core points are found,
+ * then (2) the core points that are neighbors are merged in the same cluster using a union-find
+ * structure, and each border point is added to the cluster of the core neighbor having the
+ * smallest position in the list of points. The core points and the noise points are
+ * the same as in the sequential mode, but a border point that can be reached from several
+ * clusters may be added to a different cluster.
  * 
  * @author Philippe Fournier-Viger
  */
@@ -66,13 +91,14 @@ public class AlgoDBSCAN {
 	// For statistics
     private long startTimestamp; // the start time of the latest execution
 	private long endTimestamp;  // the end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private long numberOfNoisePoints; // the number of iterations that was performed
 	
 	/* The distance function to be used for clustering */
     private DistanceFunction distanceFunction = new DistanceEuclidian();
 	
 	/* This KD-Tree is used to index the data points for fast access to points in the epsilon radius*/
-    private KDTree kdtree;
+    private ArrayKDTree kdtree;
 	
 	/* Buffers for storing points **/
     private List<DoubleArray> bufferNeighboors1 = null;
@@ -81,6 +107,22 @@ public class AlgoDBSCAN {
 	/** The names of the attributes **/
 	private List<String> attributeNames = null;
 	
+	/** the number of threads used to find the neighbors of the points */
+	private int threadCount = 1;
+	
+	/** if true, the points are indexed with a uniform grid rather than with a KD-Tree */
+	private boolean useGrid = false;
+	
+	/* This grid is used instead of the KD-Tree if useGrid is true */
+	private UniformGrid grid;
+	
+	/* An object adding the neighbors found with the grid to a list */
+	private NeighborCollector neighborCollector;
+	
+	/* Structures used by the parallel mode: the core points and a union-find structure of the clusters */
+	private boolean[] core;
+	private AtomicIntegerArray parents;
+	
 	/**
 	 * Default constructor
 	 */
@@ -88,6 +130,28 @@ public class AlgoDBSCAN {
 		
 	}
 	
+	/**
+	 * Set the number of threads used to find the neighbors of the points.
+	 * If it is greater than 1, the parallel mode is used.
+	 * @param threadCount the number of threads
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Index the points with a uniform grid having cells of size epsilon, rather than with
+	 * a KD-Tree. This is faster for data having few dimensions, such as geographical
+	 * coordinates.
+	 * @param useGrid true to use a grid
+	 */
+	public void setUseGrid(boolean useGrid) {
+		this.useGrid = useGrid;
+	}
+	
 	/**
 	 * Run the DBSCAN algorithm
 	 * @param inputFile an input file path containing a list of vectors of double values
@@ -100,6 +164,9 @@ public class AlgoDBSCAN {
 		
 		// record the start time   
 		startTimestamp =  System.currentTimeMillis();
+		// reset the memory usage statistics
+		MemoryLogger.getInstance().reset();
+		MemoryLogger.getInstance().startPhase("database loading");
 		// reset the number of noise points to 0
 		numberOfNoisePoints =0;
 		
@@ -168,12 +235,15 @@ public class AlgoDBSCAN {
 			}
 		}
 		
-		// build kd-tree
-		kdtree = new KDTree();
-		kdtree.buildtree(points);
-		
-		// For debugging, you can print the KD-Tree by uncommenting the following line:
-//		System.out.println(kdtree.toString());
+		// build the grid
+		if(useGrid) {
+			MemoryLogger.getInstance().startPhase("grid construction");
+			grid = new UniformGrid(points, epsilon);
+		}else {
+			// build kd-tree
+			MemoryLogger.getInstance().startPhase("kd-tree construction");
+			kdtree = new ArrayKDTree(points);
+		}
 		
 		// Create a single cluster and return it 
 		clusters = new ArrayList<Cluster>();
@@ -183,6 +253,54 @@ public class AlgoDBSCAN {
 		bufferNeighboors1 = new ArrayList<DoubleArray>();
 		bufferNeighboors2 = new ArrayList<DoubleArray>();
 		
+		MemoryLogger.getInstance().startPhase("clustering");
+		// remember the position of each point in the list
+		for(int i = 0; i < points.size(); i++) {
+			((DoubleArrayDBS) points.get(i)).index = i;
+		}
+		
+		if(threadCount > 1) {
+			// use the parallel mode
+			applyParallelDBSCAN(points, minPts, epsilon);
+		}else {
+			applyDBSCAN(points, minPts, epsilon);
+		}
+		
+		// it is noise
+		for(DoubleArray point: points) {
+			if(((DoubleArrayDBS)point).cluster == null){
+				numberOfNoisePoints++;
+			}
+		}
+		
+		// check memory usage
+		MemoryLogger.getInstance().checkMemory();
+		
+		// record end time
+		endTimestamp =  System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
+		
+		// set free some memory
+		bufferNeighboors1 = null;
+		bufferNeighboors2 = null;
+		kdtree = null;
+		grid = null;
+		neighborCollector = null;
+		core = null;
+		parents = null;
+		
+		// return the clusters
+		return clusters;
+	}
+	
+	/**
+	 * Apply the DBSCAN algorithm to the points, in the sequential mode
+	 * @param points the points
+	 * @param minPts the minPts parameter
+	 * @param epsilon the epsilon parameter
+	 */
+	private void applyDBSCAN(List<DoubleArray> points, int minPts, double epsilon) {
+		neighborCollector = new NeighborCollector(points);
 		// For each point in the dataset
 		for(DoubleArray point : points) {
 			// if the node has not been visited yet
@@ -195,7 +313,7 @@ public class AlgoDBSCAN {
 				
 				// find the neighboors of this point within the radius
 				bufferNeighboors1.clear();
-				kdtree.pointsWithinRadiusOf(pointDBS, epsilon, bufferNeighboors1);
+				findNeighbors(pointDBS, epsilon, bufferNeighboors1);
 				
 				// if it is not noise
 				if(bufferNeighboors1.size() >= minPts -1) { // - 1 because we don't count the point itself in its neighborood
@@ -204,27 +322,240 @@ public class AlgoDBSCAN {
 				}
 			}
 		}
+	}
+	
+	/**
+	 * Find the neighbors of a point within a radius
+	 * @param point the point
+	 * @param epsilon the radius
+	 * @param result the list where the neighbors are added
+	 */
+	private void findNeighbors(DoubleArrayDBS point, double epsilon, List<DoubleArray> result) {
+		neighborCollector.result = result;
+		visitNeighbors(point.index, point.data, epsilon, neighborCollector);
+	}
+	
+	/**
+	 * Give the neighbors of a point within a radius to a visitor, using the grid or the KD-Tree
+	 * @param point the position of the point in the list of points
+	 * @param values the values of the point
+	 * @param epsilon the radius
+	 * @param visitor the visitor
+	 */
+	private void visitNeighbors(int point, double[] values, double epsilon, UniformGrid.NeighborVisitor visitor) {
+		if(grid != null) {
+			grid.visitPointsWithinRadiusOf(point, values, epsilon, visitor);
+		}else {
+			kdtree.visitPointsWithinRadiusOf(point, values, epsilon, visitor);
+		}
+	}
+	
+	/**
+	 * An object adding the neighbors found with the grid or the KD-Tree to a list
+	 */
+	private static class NeighborCollector implements UniformGrid.NeighborVisitor {
+		// the points
+		private final List<DoubleArray> points;
+		// the list where the neighbors are added
+		List<DoubleArray> result;
 		
-		// it is noise
-		for(DoubleArray point: points) {
-			if(((DoubleArrayDBS)point).cluster == null){
-				numberOfNoisePoints++;
+		NeighborCollector(List<DoubleArray> points) {
+			this.points = points;
+		}
+		
+		@Override
+		public boolean visit(int point, double distance) {
+			result.add(points.get(point));
+			return true;
+		}
+	}
+	
+	/**
+	 * Apply the DBSCAN algorithm to the points, in the parallel mode
+	 * @param points the points
+	 * @param minPts the minPts parameter
+	 * @param epsilon the epsilon parameter
+	 */
+	private void applyParallelDBSCAN(List<DoubleArray> points, int minPts, double epsilon) {
+		int n = points.size();
+		core = new boolean[n];
+		parents = new AtomicIntegerArray(n);
+		// for each border point, its core neighbor having the smallest position (-1 for core and noise points)
+		int[] coreNeighbors = new int[n];
+		for(int i = 0; i < n; i++) {
+			parents.set(i, i);
+		}
+		
+		// the order in which the points are processed (by cell or by leaf of the KD-Tree)
+		int[] order = grid != null ? grid.getPointsSortedByCell() : kdtree.getPointsInTreeOrder();
+		
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// (1) find the core points, then (2) merge the clusters of neighbor core points
+			// and find a core neighbor of each border point
+			for(int phase = NeighborTask.CORE; phase <= NeighborTask.CLUSTER; phase++) {
+				// split the points in a few ranges per thread so that the threads stay busy
+				int taskCount = Math.min(n, threadCount * 4);
+				NeighborTask[] tasks = new NeighborTask[taskCount];
+				for(int t = 0; t < taskCount; t++) {
+					tasks[t] = new NeighborTask(phase, points, order, (int) ((long) n * t / taskCount),
+							(int) ((long) n * (t + 1) / taskCount), minPts, epsilon, coreNeighbors);
+					pool.execute(tasks[t]);
+				}
+				for(NeighborTask task : tasks) {
+					task.join();
+				}
+				// check memory usage
+				MemoryLogger.getInstance().checkMemory();
 			}
+		} finally {
+			pool.shutdown();
 		}
 		
-		// check memory usage
-		MemoryLogger.getInstance().checkMemory();
+		// create the clusters, in the order of their first point
+		Cluster[] clusterOfRoot = new Cluster[n];
+		for(int i = 0; i < n; i++) {
+			int coreNeighbor = core[i] ? i : coreNeighbors[i];
+			// if it is noise
+			if(coreNeighbor < 0) {
+				continue;
+			}
+			int root = find(coreNeighbor);
+			Cluster cluster = clusterOfRoot[root];
+			if(cluster == null) {
+				cluster = new Cluster();
+				clusterOfRoot[root] = cluster;
+				clusters.add(cluster);
+			}
+			DoubleArrayDBS point = (DoubleArrayDBS) points.get(i);
+			cluster.addVector(point);
+			point.cluster = cluster;
+		}
+	}
+	
+	/**
+	 * Find the representative point of the cluster of a core point (union-find structure),
+	 * and shorten the path to it (path halving).
+	 * @param point the point
+	 * @return the representative point
+	 */
+	private int find(int point) {
+		while(true) {
+			int parent = parents.get(point);
+			if(parent == point) {
+				return point;
+			}
+			int grandParent = parents.get(parent);
+			if(parent != grandParent) {
+				parents.compareAndSet(point, parent, grandParent);
+			}
+			point = grandParent;
+		}
+	}
+	
+	/**
+	 * Merge the clusters of two core points (union-find structure). The representative
+	 * point of the merged cluster is the one having the smallest position in the list of points.
+	 * @param point1 the first point
+	 * @param point2 the second point
+	 */
+	private void union(int point1, int point2) {
+		while(true) {
+			int root1 = find(point1);
+			int root2 = find(point2);
+			if(root1 == root2) {
+				return;
+			}
+			if(root1 < root2) {
+				if(parents.compareAndSet(root2, root2, root1)) {
+					return;
+				}
+			}else if(parents.compareAndSet(root1, root1, root2)) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * A task that finds the neighbors of a range of points during one of the
+	 * phases of the parallel mode.
+	 */
+	private class NeighborTask extends RecursiveAction implements UniformGrid.NeighborVisitor {
+		private static final long serialVersionUID = 1L;
 		
-		// record end time
-		endTimestamp =  System.currentTimeMillis();
+		// the phases
+		static final int CORE = 0;
+		static final int CLUSTER = 1;
 		
-		// set free some memory
-		bufferNeighboors1 = null;
-		bufferNeighboors2 = null;
-		kdtree = null;
+		private final int phase;
+		private final List<DoubleArray> points;
+		// the order of the points
+		private final int[] order;
+		private final int start;
+		private final int end;
+		private final int minPts;
+		private final double epsilon;
+		private final int[] coreNeighbors;
 		
-		// return the clusters
-		return clusters;
+		// the current point, and the number of neighbors or the first core neighbor found
+		private int point;
+		private int count;
+		private int coreNeighbor;
+		
+		NeighborTask(int phase, List<DoubleArray> points, int[] order, int start, int end, int minPts,
+				double epsilon, int[] coreNeighbors) {
+			this.phase = phase;
+			this.points = points;
+			this.order = order;
+			this.start = start;
+			this.end = end;
+			this.minPts = minPts;
+			this.epsilon = epsilon;
+			this.coreNeighbors = coreNeighbors;
+		}
+		
+		@Override
+		protected void compute() {
+			for(int position = start; position < end; position++) {
+				point = order[position];
+				if(phase == CORE) {
+					// - 1 because we don't count the point itself in its neighborood
+					count = 0;
+					if(minPts - 1 > 0) {
+						visitNeighbors();
+					}
+					core[point] = count >= minPts - 1;
+				}else {
+					coreNeighbor = -1;
+					visitNeighbors();
+					coreNeighbors[point] = coreNeighbor;
+				}
+			}
+		}
+		
+		/**
+		 * Give the neighbors of the current point to the method visit()
+		 */
+		private void visitNeighbors() {
+			AlgoDBSCAN.this.visitNeighbors(point, points.get(point).data, epsilon, this);
+		}
+		
+		@Override
+		public boolean visit(int neighbor, double distance) {
+			if(phase == CORE) {
+				// stop when the point is known to be a core point
+				count++;
+				return count < minPts - 1;
+			}else if(core[point]) {
+				// each pair of core points is merged once
+				if(neighbor < point && core[neighbor]) {
+					union(point, neighbor);
+				}
+			}else if(core[neighbor] && (coreNeighbor < 0 || neighbor < coreNeighbor)) {
+				coreNeighbor = neighbor;
+			}
+			return true;
+		}
 	}
 
 	/**
@@ -259,7 +590,7 @@ public class AlgoDBSCAN {
 				
 				// find the neighboors of this point
 				bufferNeighboors2.clear();
-				kdtree.pointsWithinRadiusOf(newPointDBS, epsilon, bufferNeighboors2);
+				findNeighbors(newPointDBS, epsilon, bufferNeighboors2);
 				
 				// if this point is not noise
 				if(bufferNeighboors2.size() >= minPts - 1) { // - 1 because we don't count the point itself in its neighborood
@@ -308,6 +639,14 @@ public class AlgoDBSCAN {
 		writer.close();
 	}
 	
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+	
 	/**
 	 * Print statistics of the latest execution to System.out.
 	 */
@@ -315,10 +654,13 @@ public class AlgoDBSCAN {
 		System.out.println("========== DBSCAN - SPMF 2.09 - STATS ============");
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
-		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory() + " mb ");
+		System.out.println(" Max memory:" + (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()) + " mb ");
 		System.out.println(" SSE (Sum of Squared Errors) (lower is better) : " + ClustersEvaluation.getSSE(clusters, distanceFunction));
 		System.out.println(" Number of noise points: " + numberOfNoisePoints);
 		System.out.println(" Number of clusters: " + clusters.size());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
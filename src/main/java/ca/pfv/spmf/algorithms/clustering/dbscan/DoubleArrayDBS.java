@@ -29,6 +29,8 @@ class DoubleArrayDBS extends DoubleArrayInstance{
 	
 	boolean visited = false;
 	Cluster cluster = null;
+	// the position of the point in the list of points (used by the parallel mode)
+	int index;
 
 	/**
 	 * Constructor
@@ -101,11 +101,63 @@ public class DistanceCorrelation extends DistanceFunction {
 	private static double calculateStdDeviation(DoubleArray vector, double mean) {
 		double deviation = 0;
 		for (double val : vector.data) {
-			deviation += Math.pow(mean - val, 2);
+			deviation += (mean - val) * (mean - val);
 		}
 		return Math.sqrt(deviation / (vector.data.length - 1));
 	}
 	
+	/**
+	 * Calculate the distances with the means and standard deviations of the vectors of the block,
+	 * which are calculated only once.
+	 */
+	@Override
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] centered = new double[vector.length];
+		double standardDeviation = VectorBlock.center(vector, 0, vector.length, centered, 0);
+		calculateDistances(centered, standardDeviation, block, from, to, result, resultOffset);
+	}
+	
+	@Override
+	public void calculateDistances(VectorBlock block1, VectorBlock block2, double[] result) {
+		int dimensionCount = block1.getDimensionCount();
+		double[] centered1 = block1.getCenteredValues();
+		double[] standardDeviations1 = block1.getStandardDeviations();
+		double[] centered = new double[dimensionCount];
+		for(int i = 0; i < block1.size(); i++) {
+			System.arraycopy(centered1, i * dimensionCount, centered, 0, dimensionCount);
+			calculateDistances(centered, standardDeviations1[i], block2, 0, block2.size(), result, i * block2.size());
+		}
+	}
+	
+	/**
+	 * Calculate the distances between a vector (minus its mean) having a given standard deviation
+	 * and the vectors of a block (see calculateDistances()).
+	 */
+	private void calculateDistances(double[] centered, double standardDeviation1, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] centeredValues = block.getCenteredValues();
+		double[] standardDeviations = block.getStandardDeviations();
+		int dimensionCount = block.getDimensionCount();
+		// protection to avoid dividing by 0
+		if(standardDeviation1 == 0) {
+			standardDeviation1 = 0.0001;
+		}
+		int offset = from * dimensionCount;
+		for(int i = from; i < to; i++) {
+			double correlation = 0;
+			for(int j = 0; j < dimensionCount; j++) {
+				correlation -= centered[j] * centeredValues[offset++];
+			}
+			double standardDeviation2 = standardDeviations[i];
+			// protection to avoid dividing by 0
+			if(standardDeviation2 == 0) {
+				standardDeviation2 = 0.0001;
+			}
+			double bottom = (standardDeviation1 * standardDeviation2 * (dimensionCount - 1));
+			correlation = correlation / (bottom );
+			result[resultOffset + i - from] = (1.0 + correlation) / 2.0;
+		}
+	}
+	
 	public static void main(String[] args) {
 		DoubleArray array1 = new DoubleArray(new double[] {2, 3, 1, 1, 1});
 		DoubleArray array2 = new DoubleArray(new double[] {2, 1, 1, 1, 1});
@@ -42,8 +42,8 @@ public class DistanceCosine extends DistanceFunction {
 		double norm2 = 0;
 		for(int i=0; i< vector1.data.length; i++){
 			dotproduct += vector1.data[i] * vector2.data[i];
-			norm1 += Math.pow(vector1.data[i],2);
-			norm2 += Math.pow(vector2.data[i],2);
+			norm1 += vector1.data[i] * vector1.data[i];
+			norm2 += vector2.data[i] * vector2.data[i];
 		}
 		if(norm1 == 0 || norm2 == 0) {
 			return 0;
@@ -51,6 +51,43 @@ public class DistanceCosine extends DistanceFunction {
 		return 1d - (dotproduct / (Math.sqrt(norm1) * Math.sqrt(norm2)));
 	}
 	
+	/**
+	 * Calculate the distances with the norms of the vectors of the block, which are calculated only once.
+	 */
+	@Override
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		calculateDistances(vector, VectorBlock.calculateNorm(vector, 0, vector.length), block, from, to, result, resultOffset);
+	}
+	
+	@Override
+	public void calculateDistances(VectorBlock block1, VectorBlock block2, double[] result) {
+		int dimensionCount = block1.getDimensionCount();
+		double[] norms1 = block1.getNorms();
+		double[] vector = new double[dimensionCount];
+		for(int i = 0; i < block1.size(); i++) {
+			System.arraycopy(block1.getValues(), i * dimensionCount, vector, 0, dimensionCount);
+			calculateDistances(vector, norms1[i], block2, 0, block2.size(), result, i * block2.size());
+		}
+	}
+	
+	/**
+	 * Calculate the distances between a vector having a given norm and the vectors of a block
+	 * (see calculateDistances()).
+	 */
+	private void calculateDistances(double[] vector, double norm, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] values = block.getValues();
+		double[] norms = block.getNorms();
+		int dimensionCount = block.getDimensionCount();
+		int offset = from * dimensionCount;
+		for(int i = from; i < to; i++) {
+			double dotproduct = 0;
+			for(int j = 0; j < dimensionCount; j++) {
+				dotproduct += vector[j] * values[offset++];
+			}
+			result[resultOffset + i - from] = (norm == 0 || norms[i] == 0) ? 0 : 1d - (dotproduct / (norm * norms[i]));
+		}
+	}
+	
 	public static void main(String[] args) {
 		DoubleArray array1 = new DoubleArray(new double[] {3, 2, 0,5, 0, 0, 0, 2, 0, 0});
 		DoubleArray array2 = new DoubleArray(new double[] {1, 0, 0, 0, 0, 0, 0, 1, 0, 2});
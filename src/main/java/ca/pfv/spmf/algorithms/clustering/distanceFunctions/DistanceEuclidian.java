@@ -37,11 +37,72 @@ public class DistanceEuclidian extends DistanceFunction {
 	 * @return the distance
 	 */
 	public double calculateDistance(DoubleArray vector1, DoubleArray vector2) {
+		return Math.sqrt(calculateSquaredDistance(vector1, vector2));
+	}
+	
+	/**
+	 * Calculate the squared eucledian distance between two vectors of doubles. It is faster
+	 * than the distance (no square root), and compares vectors in the same way.
+	 * @param vector1 the first vector
+	 * @param vector2 the second vector
+	 * @return the squared distance
+	 */
+	public double calculateSquaredDistance(DoubleArray vector1, DoubleArray vector2) {
 		double sum =0;	
 		for(int i=0; i< vector1.data.length; i++){
-			sum += Math.pow(vector1.data[i] - vector2.data[i], 2);
+			double difference = vector1.data[i] - vector2.data[i];
+			sum += difference * difference;
+		}
+		return sum;
+	}
+	
+	@Override
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		calculateSquaredDistances(vector, block, from, to, result, resultOffset);
+		for(int i = resultOffset; i < resultOffset + to - from; i++) {
+			result[i] = Math.sqrt(result[i]);
+		}
+	}
+	
+	/**
+	 * Calculate the squared distances between a vector and the vectors of a block having a position
+	 * from "from" to "to"-1 (see calculateDistances()).
+	 * @param vector the vector
+	 * @param block the block of vectors
+	 * @param from the position of the first vector of the block
+	 * @param to the position after the last vector of the block
+	 * @param result the array where the squared distances are written
+	 * @param resultOffset the position where the first squared distance is written
+	 */
+	public void calculateSquaredDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] values = block.getValues();
+		int dimensionCount = block.getDimensionCount();
+		int offset = from * dimensionCount;
+		for(int i = resultOffset; i < resultOffset + to - from; i++) {
+			double sum = 0;
+			for(int j = 0; j < dimensionCount; j++) {
+				double difference = vector[j] - values[offset++];
+				sum += difference * difference;
+			}
+			result[i] = sum;
+		}
+	}
+	
+	/**
+	 * Calculate the squared distances between all the vectors of a block and all the vectors of another
+	 * block (see calculateDistances()).
+	 * @param block1 the first block of vectors
+	 * @param block2 the second block of vectors
+	 * @param result the array where the squared distance between the vector i of the first block and the
+	 *    vector j of the second block is written at position i * block2.size() + j
+	 */
+	public void calculateSquaredDistances(VectorBlock block1, VectorBlock block2, double[] result) {
+		int dimensionCount = block1.getDimensionCount();
+		double[] vector = new double[dimensionCount];
+		for(int i = 0; i < block1.size(); i++) {
+			System.arraycopy(block1.getValues(), i * dimensionCount, vector, 0, dimensionCount);
+			calculateSquaredDistances(vector, block2, 0, block2.size(), result, i * block2.size());
 		}
-		return Math.sqrt(sum);
 	}
 
 	@Override
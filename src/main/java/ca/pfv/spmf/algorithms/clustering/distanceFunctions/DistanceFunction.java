@@ -38,6 +38,56 @@ public abstract class DistanceFunction {
 	 */
 	public abstract double calculateDistance(DoubleArray vector1, DoubleArray vector2);
 	
+	/**
+	 * Calculate the distances between a vector and the vectors of a block having a position
+	 * from "from" to "to"-1. The distance to the vector at position i is written at the position
+	 * resultOffset + i - from of the result array. This gives the same distances as
+	 * calculateDistance(), but the distance functions of SPMF calculate them with loops over
+	 * the values of the block, and calculate the norms or means of the vectors of the block only once.
+	 * @param vector the vector
+	 * @param block the block of vectors
+	 * @param from the position of the first vector of the block
+	 * @param to the position after the last vector of the block
+	 * @param result the array where the distances are written
+	 * @param resultOffset the position where the first distance is written
+	 */
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		// by default, calculate the distances one at a time
+		int dimensionCount = block.getDimensionCount();
+		DoubleArray vector1 = new DoubleArray(vector);
+		DoubleArray vector2 = new DoubleArray(new double[dimensionCount]);
+		for(int i = from; i < to; i++) {
+			System.arraycopy(block.getValues(), i * dimensionCount, vector2.data, 0, dimensionCount);
+			result[resultOffset + i - from] = calculateDistance(vector1, vector2);
+		}
+	}
+	
+	/**
+	 * Calculate the distances between a vector and all the vectors of a block.
+	 * @param vector the vector
+	 * @param block the block of vectors
+	 * @param result the array where the distance to the vector at position i of the block is written at position i
+	 */
+	public void calculateDistances(double[] vector, VectorBlock block, double[] result) {
+		calculateDistances(vector, block, 0, block.size(), result, 0);
+	}
+	
+	/**
+	 * Calculate the distances between all the vectors of a block and all the vectors of another block.
+	 * @param block1 the first block of vectors
+	 * @param block2 the second block of vectors
+	 * @param result the array where the distance between the vector i of the first block and the
+	 *    vector j of the second block is written at position i * block2.size() + j
+	 */
+	public void calculateDistances(VectorBlock block1, VectorBlock block2, double[] result) {
+		int dimensionCount = block1.getDimensionCount();
+		double[] vector = new double[dimensionCount];
+		for(int i = 0; i < block1.size(); i++) {
+			System.arraycopy(block1.getValues(), i * dimensionCount, vector, 0, dimensionCount);
+			calculateDistances(vector, block2, 0, block2.size(), result, i * block2.size());
+		}
+	}
+	
 	/**
 	 * Get the nam of this distance function
 	 * @return a string
@@ -60,6 +60,30 @@ public class DistanceJaccard extends DistanceFunction {
 		return count11 / count10or01or11;
 	}
 	
+	@Override
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] values = block.getValues();
+		int dimensionCount = block.getDimensionCount();
+		int offset = from * dimensionCount;
+		for(int i = resultOffset; i < resultOffset + to - from; i++) {
+			double count11 = 0;	  // count of M11
+			double count10or01or11 = 0; // count of M01, M10 and M11
+			for(int j = 0; j < dimensionCount; j++) {
+				double value = values[offset++];
+				// if it is not  two 0s
+				if(vector[j] != 0  || value != 0) {
+					// if it is two 1s
+					if(vector[j] == 1  && value == 1) {
+						count11++;
+					}
+					// increase the count of not two 0s
+					count10or01or11++;
+				}
+			}
+			result[i] = count11 / count10or01or11;
+		}
+	}
+	
 	@Override
 	public String getName() {
 		return NAME;
@@ -44,6 +44,20 @@ public class DistanceManathan extends DistanceFunction {
 		return sum;
 	}
 	
+	@Override
+	public void calculateDistances(double[] vector, VectorBlock block, int from, int to, double[] result, int resultOffset) {
+		double[] values = block.getValues();
+		int dimensionCount = block.getDimensionCount();
+		int offset = from * dimensionCount;
+		for(int i = resultOffset; i < resultOffset + to - from; i++) {
+			double sum = 0;
+			for(int j = 0; j < dimensionCount; j++) {
+				sum += Math.abs(vector[j] - values[offset++]);
+			}
+			result[i] = sum;
+		}
+	}
+	
 	@Override
 	public String getName() {
 		return NAME;
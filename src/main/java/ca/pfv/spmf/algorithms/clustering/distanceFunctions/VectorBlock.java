@@ -0,0 +1,208 @@
+package ca.pfv.spmf.algorithms.clustering.distanceFunctions;
+/* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.List;
+
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+
+/**
+ * A block of vectors of doubles having the same size, stored row by row in a single array,
+ * for calculating many distances at once with a DistanceFunction (see
+ * DistanceFunction.calculateDistances()). <br/><br/>
+ *
+ * The values that some distance functions calculate for each vector (the norms for the
+ * cosine distance, the means and standard deviations for the correlation distance) are
+ * calculated the first time that they are needed and then kept, so that they are not
+ * calculated again for each pair of vectors. They are updated when a vector is modified with
+ * setVector(). A block can be used by several threads at the same time, if it is not modified.
+ *
+ * @see DistanceFunction
+ * @author Philippe Fournier-Viger
+ */
+public class VectorBlock {
+
+	/** the values of the vectors, row by row */
+	private final double[] values;
+	/** the number of vectors */
+	private final int size;
+	/** the number of values of each vector */
+	private final int dimensionCount;
+
+	/** the norm of each vector (null if not calculated yet) */
+	private volatile double[] norms;
+	/** the values of each vector minus its mean, row by row (null if not calculated yet) */
+	private volatile double[] centeredValues;
+	/** the standard deviation of each vector (calculated with centeredValues) */
+	private volatile double[] standardDeviations;
+
+	/**
+	 * Create a block from an array containing the vectors row by row. The array is not copied.
+	 * @param values the values
+	 * @param size the number of vectors
+	 * @param dimensionCount the number of values of each vector
+	 */
+	public VectorBlock(double[] values, int size, int dimensionCount) {
+		if((long) size * dimensionCount > values.length) {
+			throw new IllegalArgumentException("The array does not contain " + size + " vectors of size " + dimensionCount);
+		}
+		this.values = values;
+		this.size = size;
+		this.dimensionCount = dimensionCount;
+	}
+
+	/**
+	 * Create a block containing a copy of a list of vectors.
+	 * @param vectors the vectors
+	 * @param dimensionCount the number of values of each vector
+	 */
+	public VectorBlock(List<? extends DoubleArray> vectors, int dimensionCount) {
+		this(new double[vectors.size() * dimensionCount], vectors.size(), dimensionCount);
+		for(int i = 0; i < size; i++) {
+			System.arraycopy(vectors.get(i).data, 0, values, i * dimensionCount, dimensionCount);
+		}
+	}
+
+	/**
+	 * Get the values of the vectors, row by row. They should be modified only with setVector().
+	 * @return the array of values
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Get the number of vectors
+	 * @return the number of vectors
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of values of each vector
+	 * @return the number of values
+	 */
+	public int getDimensionCount() {
+		return dimensionCount;
+	}
+
+	/**
+	 * Replace a vector of this block, and update the values kept for that vector.
+	 * @param row the position of the vector in the block
+	 * @param vector the new values of the vector
+	 */
+	public void setVector(int row, double[] vector) {
+		System.arraycopy(vector, 0, values, row * dimensionCount, dimensionCount);
+		if(norms != null) {
+			norms[row] = calculateNorm(values, row * dimensionCount, dimensionCount);
+		}
+		if(centeredValues != null) {
+			standardDeviations[row] = center(values, row * dimensionCount, dimensionCount, centeredValues, row * dimensionCount);
+		}
+	}
+
+	/**
+	 * Get the norm of each vector (the square root of the sum of the squared values).
+	 * @return the norms
+	 */
+	double[] getNorms() {
+		double[] result = norms;
+		if(result == null) {
+			result = new double[size];
+			for(int row = 0; row < size; row++) {
+				result[row] = calculateNorm(values, row * dimensionCount, dimensionCount);
+			}
+			norms = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Get the values of each vector minus the mean of the vector, row by row
+	 * @return the centered values
+	 */
+	double[] getCenteredValues() {
+		calculateCenteredValues();
+		return centeredValues;
+	}
+
+	/**
+	 * Get the standard deviation of each vector
+	 * @return the standard deviations
+	 */
+	double[] getStandardDeviations() {
+		calculateCenteredValues();
+		return standardDeviations;
+	}
+
+	/**
+	 * Calculate the centered values and the standard deviations, if they were not calculated before
+	 */
+	private void calculateCenteredValues() {
+		if(standardDeviations == null) {
+			double[] centered = new double[size * dimensionCount];
+			double[] deviations = new double[size];
+			for(int row = 0; row < size; row++) {
+				deviations[row] = center(values, row * dimensionCount, dimensionCount, centered, row * dimensionCount);
+			}
+			centeredValues = centered;
+			standardDeviations = deviations;
+		}
+	}
+
+	/**
+	 * Calculate the norm of a vector (the square root of the sum of the squared values).
+	 * @param vector an array containing the vector
+	 * @param offset the position of the vector in the array
+	 * @param dimensionCount the number of values of the vector
+	 * @return the norm
+	 */
+	static double calculateNorm(double[] vector, int offset, int dimensionCount) {
+		double sum = 0;
+		for(int i = offset; i < offset + dimensionCount; i++) {
+			sum += vector[i] * vector[i];
+		}
+		return Math.sqrt(sum);
+	}
+
+	/**
+	 * Subtract its mean from a vector, and calculate its standard deviation. Note that
+	 * it divides by n-1 instead of n, assuming that it is the standard deviation of a
+	 * sample rather than a population.
+	 * @param vector an array containing the vector
+	 * @param offset the position of the vector in the array
+	 * @param dimensionCount the number of values of the vector
+	 * @param result an array where the centered vector is written
+	 * @param resultOffset the position where the centered vector is written
+	 * @return the standard deviation
+	 */
+	static double center(double[] vector, int offset, int dimensionCount, double[] result, int resultOffset) {
+		double sum = 0;
+		for(int i = offset; i < offset + dimensionCount; i++) {
+			sum += vector[i];
+		}
+		double mean = sum / dimensionCount;
+		double deviation = 0;
+		for(int i = 0; i < dimensionCount; i++) {
+			double difference = vector[offset + i] - mean;
+			result[resultOffset + i] = difference;
+			deviation += difference * difference;
+		}
+		return Math.sqrt(deviation / (dimensionCount - 1));
+	}
+}
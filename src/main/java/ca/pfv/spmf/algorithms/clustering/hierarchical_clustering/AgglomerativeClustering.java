@@ -0,0 +1,460 @@
+package ca.pfv.spmf.algorithms.clustering.hierarchical_clustering;
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.VectorBlock;
+import ca.pfv.spmf.algorithms.clustering.hierarchical_clustering.AlgoHierarchicalClustering.Linkage;
+import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrixDouble;
+import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+import ca.pfv.spmf.tools.MemoryLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The agglomerative clustering engine used by AlgoHierarchicalClustering.
+ * The distances between all pairs of clusters are calculated once (by several threads)
+ * and stored in a triangular matrix, which is then updated after each merge rather than
+ * recalculated. <br/><br/>
+ *
+ * For the single, complete and average linkages, the merges are found with the
+ * nearest-neighbor chain algorithm, and the distances to a merged cluster are obtained by the
+ * Lance-Williams formula. This takes O(n^2) time. Because these linkages never merge
+ * two clusters at a smaller distance than a previous merge, the clusters obtained with a maximum
+ * distance are those made of the merges having a distance not greater than that maximum. <br/><br/>
+ *
+ * For the centroid linkage (the distance between the means of two clusters), the distances to a
+ * merged cluster are calculated with its new mean, so that any distance function can be used.
+ * The closest other cluster of each cluster is kept, and the two closest clusters are
+ * merged as long as their distance is not greater than the maximum distance.
+ * This gives the same clusters as comparing all pairs of clusters before each merge. <br/><br/>
+ *
+ * The matrix contains n(n-1)/2 distances for n vectors.
+ *
+ * @see AlgoHierarchicalClustering
+ * @see TriangularMatrixDouble
+ * @author Philippe Fournier-Viger
+ */
+class AgglomerativeClustering {
+
+	// the distance function
+	private final DistanceFunction distanceFunction;
+	// the linkage
+	private final Linkage linkage;
+	// the maximum distance allowed for merging two clusters
+	private final double maxDistance;
+	// the number of threads used to calculate the initial distances
+	private final int threadCount;
+
+	// the distances between clusters. A cluster is identified by the position of one of its vectors
+	private TriangularMatrixDouble distances;
+	// the means of the clusters, at the position of the clusters
+	private VectorBlock means;
+	// the number of merges performed
+	private int mergeCount;
+
+	/**
+	 * Constructor
+	 * @param distanceFunction the distance function
+	 * @param linkage the linkage
+	 * @param maxDistance the maximum distance allowed for merging two clusters
+	 * @param threadCount the number of threads used to calculate the initial distances
+	 */
+	AgglomerativeClustering(DistanceFunction distanceFunction, Linkage linkage, double maxDistance, int threadCount) {
+		this.distanceFunction = distanceFunction;
+		this.linkage = linkage;
+		this.maxDistance = maxDistance;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Apply the hierarchical clustering to a list of vectors
+	 * @param vectors the vectors
+	 * @param vectorsSize the size of the vectors
+	 * @return the clusters, ordered by the position of their first vector
+	 */
+	List<ClusterWithMean> run(List<DoubleArray> vectors, int vectorsSize) {
+		int n = vectors.size();
+		// Initiallly we create a cluster for each vector
+		ClusterWithMean[] clusters = new ClusterWithMean[n];
+		for (int i = 0; i < n; i++) {
+			ClusterWithMean cluster = new ClusterWithMean(vectorsSize);
+			cluster.addVector(vectors.get(i));
+			cluster.setMean(vectors.get(i).clone());
+			clusters[i] = cluster;
+		}
+
+		// calculate the distances between all pairs of vectors
+		means = new VectorBlock(vectors, vectorsSize);
+		calculateDistances();
+		MemoryLogger.getInstance().checkMemory();
+
+		if (linkage == Linkage.CENTROID) {
+			mergeClosestClusters(clusters);
+		} else {
+			mergeNearestNeighborChains(clusters);
+		}
+		distances = null;
+		means = null;
+
+		// keep the clusters that were not merged into another one
+		List<ClusterWithMean> result = new ArrayList<ClusterWithMean>();
+		for (ClusterWithMean cluster : clusters) {
+			if (cluster != null) {
+				result.add(cluster);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the number of merges performed by the latest execution.
+	 * @return the number of merges
+	 */
+	int getMergeCount() {
+		return mergeCount;
+	}
+
+	/**
+	 * Calculate the distances between the means of all pairs of clusters.
+	 */
+	private void calculateDistances() {
+		int n = means.size();
+		distances = new TriangularMatrixDouble(n);
+		if (threadCount == 1 || n < 2) {
+			new DistanceTask(0, n).compute();
+			return;
+		}
+		// line i has i distances, so the lines are split in ranges having
+		// about the same number of distances, a few per thread
+		int taskCount = Math.min(n, threadCount * 4);
+		DistanceTask[] tasks = new DistanceTask[taskCount];
+		int start = 0;
+		for (int t = 0; t < taskCount; t++) {
+			int end = (t == taskCount - 1) ? n : (int) Math.round(n * Math.sqrt((t + 1) / (double) taskCount));
+			end = Math.max(start, Math.min(n, end));
+			tasks[t] = new DistanceTask(start, end);
+			start = end;
+		}
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			for (DistanceTask task : tasks) {
+				pool.execute(task);
+			}
+			for (DistanceTask task : tasks) {
+				task.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Calculate the distances between the mean of a cluster i and the means of the clusters
+	 * from 0 to end-1, with the batch distance API of the distance function.
+	 * Undefined distances are replaced by the infinity so that these clusters are never merged.
+	 * @param i the cluster i
+	 * @param end the position after the last cluster
+	 * @param result the array where the distance to the cluster j is written at position j
+	 */
+	private void calculateDistances(int i, int end, double[] result) {
+		int dimensionCount = means.getDimensionCount();
+		double[] mean = Arrays.copyOfRange(means.getValues(), i * dimensionCount, (i + 1) * dimensionCount);
+		distanceFunction.calculateDistances(mean, means, 0, end, result, 0);
+		for (int j = 0; j < end; j++) {
+			if (Double.isNaN(result[j])) {
+				result[j] = Double.POSITIVE_INFINITY;
+			}
+		}
+	}
+
+	/**
+	 * Merge the two closest clusters until no two clusters are closer than the maximum distance
+	 * (centroid linkage). For each cluster i, the closest cluster j > i is kept so that
+	 * finding the two closest clusters only requires to check each cluster once.
+	 * @param clusters the clusters (a merged cluster is replaced by null)
+	 */
+	private void mergeClosestClusters(ClusterWithMean[] clusters) {
+		int n = clusters.length;
+		// for each cluster i, the closest cluster j > i and the distance
+		int[] nearest = new int[n];
+		double[] nearestDistance = new double[n];
+		// the distances to the merged cluster
+		double[] mergedDistances = new double[n];
+		for (int i = 0; i < n; i++) {
+			findNearestAfter(clusters, i, nearest, nearestDistance);
+		}
+
+		while (true) {
+			// find the two closest clusters
+			int a = -1;
+			double minClusterDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				if (clusters[i] != null && nearest[i] != -1 && nearestDistance[i] < minClusterDistance) {
+					minClusterDistance = nearestDistance[i];
+					a = i;
+				}
+			}
+			// if no close clusters were found, stop
+			if (a == -1 || minClusterDistance > maxDistance) {
+				break;
+			}
+			int b = nearest[a];
+
+			// merge cluster b into cluster a and recompute the mean
+			for (DoubleArray vector : clusters[b].getVectors()) {
+				clusters[a].addVector(vector);
+			}
+			clusters[a].recomputeClusterMean();
+			means.setVector(a, clusters[a].getmean().data);
+			clusters[b] = null;
+			mergeCount++;
+
+			// update the distances to the merged cluster
+			calculateDistances(a, n, mergedDistances);
+			for (int j = 0; j < n; j++) {
+				if (j != a && clusters[j] != null) {
+					distances.set(a, j, mergedDistances[j]);
+				}
+			}
+
+			// update the closest clusters that may have changed
+			findNearestAfter(clusters, a, nearest, nearestDistance);
+			for (int i = 0; i < b; i++) {
+				if (i == a || clusters[i] == null) {
+					continue;
+				}
+				if (nearest[i] == a || nearest[i] == b) {
+					findNearestAfter(clusters, i, nearest, nearestDistance);
+				} else if (i < a) {
+					double distance = distances.get(i, a);
+					if (distance < nearestDistance[i] || (distance == nearestDistance[i] && a < nearest[i])) {
+						nearest[i] = a;
+						nearestDistance[i] = distance;
+					}
+				}
+			}
+			MemoryLogger.getInstance().checkMemory();
+		}
+	}
+
+	/**
+	 * Find the closest cluster j > i of a cluster i (the first one if several are equally close).
+	 * @param clusters the clusters
+	 * @param i the cluster i
+	 * @param nearest the closest cluster of each cluster (-1 if none)
+	 * @param nearestDistance the distance to the closest cluster of each cluster
+	 */
+	private void findNearestAfter(ClusterWithMean[] clusters, int i, int[] nearest, double[] nearestDistance) {
+		int best = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		for (int j = i + 1; j < clusters.length; j++) {
+			if (clusters[j] != null) {
+				double distance = distances.get(j, i);
+				if (best == -1 || distance < bestDistance) {
+					best = j;
+					bestDistance = distance;
+				}
+			}
+		}
+		nearest[i] = best;
+		nearestDistance[i] = bestDistance;
+	}
+
+	/**
+	 * Build the whole dendrogram with the nearest-neighbor chain algorithm, then merge the
+	 * clusters for the merges that have a distance not greater than the maximum distance
+	 * (single, complete and average linkages).
+	 * @param clusters the clusters (a merged cluster is replaced by null)
+	 */
+	private void mergeNearestNeighborChains(ClusterWithMean[] clusters) {
+		int n = clusters.length;
+		if (n < 2) {
+			return;
+		}
+		boolean[] merged = new boolean[n];
+		int[] sizes = new int[n];
+		Arrays.fill(sizes, 1);
+		// the merges: the two clusters and their distance
+		final int[] mergeFirst = new int[n - 1];
+		final int[] mergeSecond = new int[n - 1];
+		final double[] mergeDistance = new double[n - 1];
+		int merges = 0;
+
+		// the chain of clusters, where each cluster is the nearest neighbor of the previous one
+		int[] chain = new int[n];
+		int chainLength = 0;
+		int firstRemaining = 0;
+
+		while (merges < n - 1) {
+			// start a new chain with any remaining cluster
+			if (chainLength == 0) {
+				while (merged[firstRemaining]) {
+					firstRemaining++;
+				}
+				chain[chainLength++] = firstRemaining;
+			}
+			int x = chain[chainLength - 1];
+			int previous = chainLength > 1 ? chain[chainLength - 2] : -1;
+
+			// find the nearest neighbor of x, preferring the previous cluster of the chain
+			// in case of ties so that the chain always ends
+			int y = previous;
+			double bestDistance = previous == -1 ? Double.POSITIVE_INFINITY : distances.get(x, previous);
+			for (int j = 0; j < n; j++) {
+				if (j != x && !merged[j]) {
+					double distance = distances.get(x, j);
+					if (y == -1 || distance < bestDistance) {
+						y = j;
+						bestDistance = distance;
+					}
+				}
+			}
+
+			// if x and y are reciprocal nearest neighbors, merge them
+			if (y == previous) {
+				chainLength -= 2;
+				int kept = Math.min(x, y);
+				int removed = Math.max(x, y);
+				// update the distances with the Lance-Williams formula
+				for (int j = 0; j < n; j++) {
+					if (j != x && j != y && !merged[j]) {
+						distances.set(kept, j, linkageDistance(distances.get(x, j), distances.get(y, j), sizes[x], sizes[y]));
+					}
+				}
+				sizes[kept] += sizes[removed];
+				merged[removed] = true;
+				mergeFirst[merges] = kept;
+				mergeSecond[merges] = removed;
+				mergeDistance[merges] = bestDistance;
+				merges++;
+			} else {
+				chain[chainLength++] = y;
+			}
+		}
+		MemoryLogger.getInstance().checkMemory();
+
+		// sort the merges by distance
+		Integer[] order = new Integer[merges];
+		for (int m = 0; m < merges; m++) {
+			order[m] = m;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer m1, Integer m2) {
+				return Double.compare(mergeDistance[m1], mergeDistance[m2]);
+			}
+		});
+
+		// apply the merges that have a distance not greater than the maximum distance
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		for (Integer m : order) {
+			if (mergeDistance[m] > maxDistance) {
+				break;
+			}
+			// the cluster with the smallest vector position represents the merged cluster
+			int root1 = findRoot(parent, mergeFirst[m]);
+			int root2 = findRoot(parent, mergeSecond[m]);
+			parent[Math.max(root1, root2)] = Math.min(root1, root2);
+			mergeCount++;
+		}
+
+		// move the vectors to the clusters that represent them
+		for (int i = 0; i < n; i++) {
+			int root = findRoot(parent, i);
+			if (root != i) {
+				clusters[root].addVector(clusters[i].getVectors().get(0));
+				clusters[i] = null;
+			}
+		}
+		for (ClusterWithMean cluster : clusters) {
+			if (cluster != null && cluster.getVectors().size() > 1) {
+				cluster.recomputeClusterMean();
+			}
+		}
+	}
+
+	/**
+	 * Calculate the distance between a cluster and the cluster obtained by merging two clusters x and y
+	 * with the Lance-Williams formula of the linkage.
+	 * @param distanceX the distance to x
+	 * @param distanceY the distance to y
+	 * @param sizeX the number of vectors of x
+	 * @param sizeY the number of vectors of y
+	 * @return the distance to the merged cluster
+	 */
+	private double linkageDistance(double distanceX, double distanceY, int sizeX, int sizeY) {
+		switch (linkage) {
+		case SINGLE:
+			return Math.min(distanceX, distanceY);
+		case COMPLETE:
+			return Math.max(distanceX, distanceY);
+		default:
+			return (sizeX * distanceX + sizeY * distanceY) / (sizeX + sizeY);
+		}
+	}
+
+	/**
+	 * Find the representative of the cluster containing a vector, compressing the path to it.
+	 * @param parent the parent of each vector
+	 * @param i the vector
+	 * @return the representative
+	 */
+	private static int findRoot(int[] parent, int i) {
+		int root = i;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		while (parent[i] != root) {
+			int next = parent[i];
+			parent[i] = root;
+			i = next;
+		}
+		return root;
+	}
+
+	/**
+	 * A task that calculates the distances for a range of lines of the matrix.
+	 */
+	private class DistanceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		// the range of lines
+		private final int start;
+		private final int end;
+
+		DistanceTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			for (int i = start; i < end; i++) {
+				calculateDistances(i, i, distances.getLine(i));
+			}
+		}
+	}
+}
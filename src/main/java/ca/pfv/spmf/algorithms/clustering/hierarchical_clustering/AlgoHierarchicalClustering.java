@@ -19,7 +19,6 @@ package ca.pfv.spmf.algorithms.clustering.hierarchical_clustering;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
@@ -28,6 +27,7 @@ import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
 import ca.pfv.spmf.patterns.cluster.ClustersEvaluation;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of generic Hierarchical Clustering Algorithm as described
@@ -40,14 +40,35 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * when no cluster can be merged.
  * <br/><br/>
  * 
- * The distance between two clusters is calculated as the distance between the
- * medians of the two clusters.
+ * By default, the distance between two clusters is calculated as the distance between the
+ * means of the two clusters (centroid linkage). The single linkage (closest vectors),
+ * complete linkage (farthest vectors) and average linkage (average distance between
+ * vectors) can also be used (see setLinkage()).
+ * <br/><br/>
+ * 
+ * The distances between clusters are calculated once by several threads, stored in a
+ * triangular matrix, and updated after each merge (see AgglomerativeClustering).
  * 
+ * @see AgglomerativeClustering
  * @author Philippe Fournier-Viger
  */
 
 public class AlgoHierarchicalClustering {
 	
+	/**
+	 * The ways of calculating the distance between two clusters.
+	 */
+	public enum Linkage {
+		/** the distance between the closest vectors of the two clusters */
+		SINGLE,
+		/** the distance between the farthest vectors of the two clusters */
+		COMPLETE,
+		/** the average distance between the vectors of the two clusters */
+		AVERAGE,
+		/** the distance between the means of the two clusters */
+		CENTROID
+	}
+	
 	// parameter
 	private double maxDistance =0;  // maximum distance allowed for merging two clusters
 	
@@ -57,6 +78,7 @@ public class AlgoHierarchicalClustering {
 	// for statistics
 	private long startTimestamp;  // start time of latest execution
 	private long endTimestamp;    // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private long iterationCount; // number of iterations performed
 	
 	
@@ -65,12 +87,37 @@ public class AlgoHierarchicalClustering {
 	
 	/** The names of the attributes **/
 	private List<String> attributeNames = null;
+	
+	/** the linkage used to calculate the distance between two clusters */
+	private Linkage linkage = Linkage.CENTROID;
+	
+	/** the number of threads used to calculate the initial distances */
+	private int threadCount = 1;
 
 	/**
 	 * Default constructor
 	 */
 	public AlgoHierarchicalClustering() {
 	}
+	
+	/**
+	 * Set the linkage used to calculate the distance between two clusters (by default, CENTROID).
+	 * @param linkage the linkage
+	 */
+	public void setLinkage(Linkage linkage) {
+		this.linkage = linkage;
+	}
+	
+	/**
+	 * Set the number of threads used to calculate the distances between all pairs of vectors.
+	 * @param threadCount the number of threads
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
 
 	/**
 	 * Run the algorithm.
@@ -84,6 +131,7 @@ public class AlgoHierarchicalClustering {
 	public List<ClusterWithMean> runAlgorithm(String inputFile, double maxDistance, DistanceFunction distanceFunction, String separator) throws NumberFormatException, IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// save the parameter
 		this.maxDistance = maxDistance;
@@ -91,88 +139,28 @@ public class AlgoHierarchicalClustering {
 		// save the distance function
 		this.distanceFunction = distanceFunction;
 		
-		// create an empty list of clusters
-		clusters = new ArrayList<ClusterWithMean>();
-		
 		// Read the input file
 		AlgoInstanceFileReader reader = new AlgoInstanceFileReader();
 		List<DoubleArray> instances = reader.runAlgorithm(inputFile, separator);
 		int dimensionCount = reader.getAttributeNames().size();
 		attributeNames = reader.getAttributeNames();
 		
-		// Initiallly we create a cluster for each vector
-		for(DoubleArray instance : instances){
-			ClusterWithMean cluster = new ClusterWithMean(dimensionCount);
-			cluster.addVector(instance);
-			cluster.setMean(instance.clone());
-			clusters.add(cluster);
-		}
-
-		// (2) Loop to combine the two closest clusters into a bigger cluster
-		// until no clusters can be combined.
-		boolean changed = false;
-		do {
-			// merge the two closest clusters
-			changed = mergeTheClosestCluster();
-			// record memory usage
-			MemoryLogger.getInstance().checkMemory();
-		} while (changed);
+		// Create a cluster for each vector, and combine the two closest clusters
+		// into a bigger cluster until no clusters can be combined.
+		AgglomerativeClustering engine = new AgglomerativeClustering(distanceFunction, linkage, maxDistance, threadCount);
+		clusters = engine.run(instances, dimensionCount);
+		iterationCount = engine.getMergeCount();
+		// record memory usage
+		MemoryLogger.getInstance().checkMemory();
 
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the clusters
 		return clusters;
 	}
 
-	/**
-	 * Merge the two closest clusters in terms of distance.
-	 * @return true if a merge was done, otherwise false.
-	 */
-	private boolean mergeTheClosestCluster() {
-		// These variables will contain the two closest clusters that
-		// can be merged
-		ClusterWithMean clusterToMerge1 = null;
-		ClusterWithMean clusterToMerge2 = null;
-		double minClusterDistance = Integer.MAX_VALUE;
-
-		// find the two closest clusters with distance > threshold
-		// by comparing all pairs of clusters i and j
-		for (int i = 0; i < clusters.size(); i++) {
-			for (int j = i + 1; j < clusters.size(); j++) {
-				// calculate the distance between i and j
-				double distance = distanceFunction.calculateDistance(clusters.get(i).getmean(), clusters.get(j).getmean());
-				// if the distance is less than the max distance allowed
-				// and if it is the smallest distance until now
-				if (distance < minClusterDistance && distance <= maxDistance) {
-					// record this pair of clusters
-					minClusterDistance = distance;
-					clusterToMerge1 = clusters.get(i);
-					clusterToMerge2 = clusters.get(j);
-				}
-			}
-		}
-
-		// if no close clusters were found, return false
-		if (clusterToMerge1 == null) {
-			return false;
-		}
-
-		// else, merge the two closest clusters
-		for(DoubleArray vector : clusterToMerge2.getVectors()){
-			clusterToMerge1.addVector(vector);
-		}
-		// after mergint, we need to recompute the mean of the resulting cluster
-		clusterToMerge1.recomputeClusterMean();
-		// we delete the cluster that was merged
-		clusters.remove(clusterToMerge2);
-
-		// increase iteration count for statistics
-		iterationCount++;
-		return true;
-	}
-
-	
 	/**
 	 * Save the clusters to an output file
 	 * @param output the output file path
@@ -211,12 +199,23 @@ public class AlgoHierarchicalClustering {
 	public void printStatistics() {
 		System.out.println("========== HIERARCHICAL CLUSTERING SPMF 2.09 - STATS ============");
 		System.out.println(" Distance function: " + distanceFunction.getName());
+		System.out.println(" Linkage: " + linkage);
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" SSE (Sum of Squared Errors) (lower is better) : " + ClustersEvaluation.calculateSSE(clusters, distanceFunction));
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory() + " mb ");
 		System.out.println(" Iteration count: " + iterationCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -21,6 +21,7 @@ import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.patterns.cluster.DoubleArrayInstance;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -44,6 +45,7 @@ public class AlgoInstanceFileReader {
 	
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -161,6 +163,7 @@ public class AlgoInstanceFileReader {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the instance
 		return instances;
@@ -175,6 +178,9 @@ public class AlgoInstanceFileReader {
 		System.out.println(" Number of attributes: " + attributeNames.size());
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================================================");
 	}
 
@@ -185,4 +191,12 @@ public class AlgoInstanceFileReader {
 	public List<String> getAttributeNames() {
 		return attributeNames;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
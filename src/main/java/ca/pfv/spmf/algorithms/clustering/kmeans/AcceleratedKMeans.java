@@ -0,0 +1,517 @@
+package ca.pfv.spmf.algorithms.clustering.kmeans;
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+import ca.pfv.spmf.tools.MemoryLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The accelerated mode of K-Means, used by AlgoKMeans and AlgoBisectingKMeans with
+ * the Euclidian distance. It gives the same clusters as the regular algorithm for
+ * the same initial cluster centers, but: <br/>
+ * (1) the initial centers are chosen with the k-means++ seeding (Arthur and Vassilvitskii, 2007),<br/>
+ * (2) the distances that cannot change the assignment of a vector are not calculated,
+ * using an upper bound on the distance to the center of its cluster and a lower bound on the
+ * distance to the other centers (G. Hamerly, "Making k-means even faster", SDM 2010),<br/>
+ * (3) the vectors are stored in a single array (row by row) and are assigned by several threads.
+ * <br/><br/>
+ *
+ * @see AlgoKMeans
+ * @author Philippe Fournier-Viger
+ */
+class AcceleratedKMeans {
+
+	// the random number generator
+	private final Random random;
+	// the number of threads
+	private final int threadCount;
+	// the maximum number of iterations (0 = no limit)
+	private final int maxIterations;
+
+	// the number of vectors, their size and the number of clusters
+	private int n;
+	private int d;
+	private int k;
+	// the vectors, row by row
+	private double[] data;
+	// the cluster centers, row by row
+	private double[] centers;
+	// the cluster of each vector
+	private int[] assignment;
+	// for each vector, an upper bound on the distance to the center of its cluster
+	private double[] upper;
+	// for each vector, a lower bound on the distance to the other centers
+	private double[] lower;
+	// the number of vectors and the sum of the vectors of each cluster
+	private int[] counts;
+	private double[] sums;
+	// the distance moved by each center during the latest iteration
+	private double[] drifts;
+	// for each center, half the distance to the closest other center
+	private double[] halfDistances;
+	// the largest drift, the cluster having that drift, and the second largest drift
+	private double maxDrift;
+	private int maxDriftCluster;
+	private double secondMaxDrift;
+
+	// the ranges of vectors processed by each task
+	private Chunk[] chunks;
+	// the number of iterations performed
+	private int iterationCount;
+
+	/**
+	 * Constructor
+	 * @param random the random number generator
+	 * @param threadCount the number of threads
+	 * @param maxIterations the maximum number of iterations (0 = no limit)
+	 */
+	AcceleratedKMeans(Random random, int threadCount, int maxIterations) {
+		this.random = random;
+		this.threadCount = threadCount;
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Apply K-Means to a list of vectors
+	 * @param vectors the vectors
+	 * @param k the number of clusters
+	 * @param vectorsSize the size of the vectors
+	 * @return the k clusters (some of them may be empty)
+	 */
+	List<ClusterWithMean> run(List<DoubleArray> vectors, int k, int vectorsSize) {
+		this.n = vectors.size();
+		this.d = vectorsSize;
+		this.k = k;
+		if ((long) n * d > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many values to be stored in the accelerated mode of K-Means");
+		}
+
+		// copy the vectors to a single array
+		data = new double[n * d];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(vectors.get(i).data, 0, data, i * d, d);
+		}
+		centers = new double[k * d];
+		assignment = new int[n];
+		upper = new double[n];
+		lower = new double[n];
+		counts = new int[k];
+		sums = new double[k * d];
+		drifts = new double[k];
+		halfDistances = new double[k];
+
+		// split the vectors in ranges, a few per thread so that the threads stay busy
+		int chunkCount = Math.min(n, threadCount * 4);
+		chunks = new Chunk[chunkCount];
+		for (int c = 0; c < chunkCount; c++) {
+			chunks[c] = new Chunk((int) ((long) n * c / chunkCount), (int) ((long) n * (c + 1) / chunkCount));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// (1) choose the initial centers and assign each vector to the closest one
+			chooseInitialCenters(pool);
+
+			// (2) Repeat the two next steps until the assignment hasn't changed
+			while (true) {
+				iterationCount++;
+				// (2.1) Move the centers to the means of their vectors
+				moveCenters();
+				// (2.2) Assign each vector to the nearest center
+				for (Chunk chunk : chunks) {
+					chunk.resetDeltas();
+				}
+				AssignTask[] tasks = new AssignTask[chunks.length];
+				for (int c = 0; c < chunks.length; c++) {
+					tasks[c] = new AssignTask(chunks[c]);
+				}
+				runTasks(pool, tasks);
+				int changed = mergeDeltas();
+
+				// check the memory usage
+				MemoryLogger.getInstance().checkMemory();
+
+				// exit condition for main loop
+				if (changed == 0 || (maxIterations > 0 && iterationCount >= maxIterations)) {
+					break;
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		// create the clusters
+		List<ClusterWithMean> clusters = new ArrayList<ClusterWithMean>(k);
+		for (int j = 0; j < k; j++) {
+			ClusterWithMean cluster = new ClusterWithMean(d);
+			cluster.setMean(new DoubleArray(Arrays.copyOfRange(centers, j * d, (j + 1) * d)));
+			clusters.add(cluster);
+		}
+		for (int i = 0; i < n; i++) {
+			clusters.get(assignment[i]).addVector(vectors.get(i));
+		}
+		for (ClusterWithMean cluster : clusters) {
+			if (cluster.getVectors().size() > 0) {
+				cluster.recomputeClusterMean();
+			}
+		}
+		// release the arrays
+		data = null;
+		sums = null;
+		return clusters;
+	}
+
+	/**
+	 * Get the number of iterations performed by the latest execution
+	 * @return the number of iterations
+	 */
+	int getIterationCount() {
+		return iterationCount;
+	}
+
+	/**
+	 * Choose the initial centers with the k-means++ seeding: each center is a vector
+	 * chosen with a probability proportional to the square of its distance to the closest
+	 * center chosen before. At the same time, each vector is assigned to the closest center,
+	 * and the bounds are initialized.
+	 * @param pool the pool of threads
+	 */
+	private void chooseInitialCenters(ForkJoinPool pool) {
+		Arrays.fill(upper, Double.MAX_VALUE);
+		Arrays.fill(lower, Double.MAX_VALUE);
+		// the distance of the new center to each previous center
+		double[] centerDistances = new double[k];
+		int vector = random.nextInt(n);
+		for (int j = 0; j < k; j++) {
+			System.arraycopy(data, vector * d, centers, j * d, d);
+			for (int other = 0; other < j; other++) {
+				centerDistances[other] = Math.sqrt(squaredDistance(centers, j * d, centers, other * d, d));
+			}
+			SeedTask[] tasks = new SeedTask[chunks.length];
+			for (int c = 0; c < chunks.length; c++) {
+				tasks[c] = new SeedTask(chunks[c], j, centerDistances);
+			}
+			runTasks(pool, tasks);
+
+			// choose the next center
+			double total = 0;
+			for (Chunk chunk : chunks) {
+				total += chunk.weight;
+			}
+			if (total == 0) {
+				// all the vectors are centers
+				vector = random.nextInt(n);
+				continue;
+			}
+			double r = random.nextDouble() * total;
+			int c = 0;
+			while (c < chunks.length - 1 && r >= chunks[c].weight) {
+				r -= chunks[c].weight;
+				c++;
+			}
+			vector = chunks[c].end - 1;
+			for (int i = chunks[c].start; i < chunks[c].end; i++) {
+				r -= upper[i] * upper[i];
+				if (r < 0) {
+					vector = i;
+					break;
+				}
+			}
+		}
+		// add the vectors to their clusters
+		for (Chunk chunk : chunks) {
+			for (int i = chunk.start; i < chunk.end; i++) {
+				chunk.add(assignment[i], i);
+			}
+		}
+		mergeDeltas();
+	}
+
+	/**
+	 * Move each center to the mean of its vectors and update the distances
+	 * between the centers.
+	 */
+	private void moveCenters() {
+		maxDrift = 0;
+		secondMaxDrift = 0;
+		maxDriftCluster = -1;
+		for (int j = 0; j < k; j++) {
+			drifts[j] = 0;
+			// a center without vectors does not move
+			if (counts[j] == 0) {
+				continue;
+			}
+			double drift = 0;
+			for (int x = 0; x < d; x++) {
+				double mean = sums[j * d + x] / counts[j];
+				double diff = mean - centers[j * d + x];
+				drift += diff * diff;
+				centers[j * d + x] = mean;
+			}
+			drifts[j] = Math.sqrt(drift);
+			if (drifts[j] > maxDrift) {
+				secondMaxDrift = maxDrift;
+				maxDrift = drifts[j];
+				maxDriftCluster = j;
+			} else if (drifts[j] > secondMaxDrift) {
+				secondMaxDrift = drifts[j];
+			}
+		}
+		// half the distance of each center to the closest other center
+		Arrays.fill(halfDistances, Double.MAX_VALUE);
+		for (int j = 0; j < k; j++) {
+			for (int other = j + 1; other < k; other++) {
+				double half = Math.sqrt(squaredDistance(centers, j * d, centers, other * d, d)) / 2;
+				if (half < halfDistances[j]) {
+					halfDistances[j] = half;
+				}
+				if (half < halfDistances[other]) {
+					halfDistances[other] = half;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the changes made by each task to the number of vectors and the sum of
+	 * the vectors of each cluster.
+	 * @return the number of vectors that changed of cluster
+	 */
+	private int mergeDeltas() {
+		int changed = 0;
+		for (Chunk chunk : chunks) {
+			for (int j = 0; j < k; j++) {
+				counts[j] += chunk.countDeltas[j];
+			}
+			for (int x = 0; x < sums.length; x++) {
+				sums[x] += chunk.sumDeltas[x];
+			}
+			changed += chunk.changed;
+		}
+		return changed;
+	}
+
+	/**
+	 * Run some tasks with a pool of threads and wait until they are finished.
+	 * @param pool the pool
+	 * @param tasks the tasks
+	 */
+	private static void runTasks(ForkJoinPool pool, ForkJoinTask<?>[] tasks) {
+		for (ForkJoinTask<?> task : tasks) {
+			pool.execute(task);
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Calculate the square of the Euclidian distance between two vectors
+	 * @param a an array containing the first vector
+	 * @param aStart the position of the first vector
+	 * @param b an array containing the second vector
+	 * @param bStart the position of the second vector
+	 * @param d the size of the vectors
+	 * @return the square of the distance
+	 */
+	private static double squaredDistance(double[] a, int aStart, double[] b, int bStart, int d) {
+		double sum = 0;
+		for (int x = 0; x < d; x++) {
+			double diff = a[aStart + x] - b[bStart + x];
+			sum += diff * diff;
+		}
+		return sum;
+	}
+
+	/**
+	 * A range of vectors processed by a task, with the changes made by the task to
+	 * the clusters.
+	 */
+	private class Chunk {
+		// the first vector and the vector after the last one
+		final int start;
+		final int end;
+		// the changes to the number of vectors and the sum of the vectors of each cluster
+		final int[] countDeltas;
+		final double[] sumDeltas;
+		// the number of vectors that changed of cluster
+		int changed;
+		// the sum of the squares of the distances of the vectors to their centers
+		double weight;
+
+		Chunk(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.countDeltas = new int[k];
+			this.sumDeltas = new double[k * d];
+		}
+
+		/**
+		 * Reset the changes to 0.
+		 */
+		void resetDeltas() {
+			Arrays.fill(countDeltas, 0);
+			Arrays.fill(sumDeltas, 0);
+			changed = 0;
+		}
+
+		/**
+		 * Add a vector to a cluster
+		 * @param cluster the cluster
+		 * @param vector the vector
+		 */
+		void add(int cluster, int vector) {
+			countDeltas[cluster]++;
+			int offset = cluster * d;
+			int position = vector * d;
+			for (int x = 0; x < d; x++) {
+				sumDeltas[offset + x] += data[position + x];
+			}
+		}
+
+		/**
+		 * Remove a vector from a cluster
+		 * @param cluster the cluster
+		 * @param vector the vector
+		 */
+		void remove(int cluster, int vector) {
+			countDeltas[cluster]--;
+			int offset = cluster * d;
+			int position = vector * d;
+			for (int x = 0; x < d; x++) {
+				sumDeltas[offset + x] -= data[position + x];
+			}
+		}
+	}
+
+	/**
+	 * A task that updates the closest center of the vectors of a chunk after a new
+	 * center was chosen by the k-means++ seeding.
+	 */
+	private class SeedTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Chunk chunk;
+		// the new center
+		private final int center;
+		// the distance of the new center to each previous center
+		private final double[] centerDistances;
+
+		SeedTask(Chunk chunk, int center, double[] centerDistances) {
+			this.chunk = chunk;
+			this.center = center;
+			this.centerDistances = centerDistances;
+		}
+
+		@Override
+		protected void compute() {
+			double weight = 0;
+			for (int i = chunk.start; i < chunk.end; i++) {
+				if (center > 0) {
+					// if the new center is far from the closest center, the distance
+					// of the vector to the new center is at least the difference
+					double bound = centerDistances[assignment[i]] - upper[i];
+					if (bound >= upper[i]) {
+						if (bound < lower[i]) {
+							lower[i] = bound;
+						}
+						weight += upper[i] * upper[i];
+						continue;
+					}
+				}
+				double distance = Math.sqrt(squaredDistance(data, i * d, centers, center * d, d));
+				if (distance < upper[i]) {
+					lower[i] = upper[i];
+					upper[i] = distance;
+					assignment[i] = center;
+				} else if (distance < lower[i]) {
+					lower[i] = distance;
+				}
+				weight += upper[i] * upper[i];
+			}
+			chunk.weight = weight;
+		}
+	}
+
+	/**
+	 * A task that assigns the vectors of a chunk to the nearest center, using the bounds
+	 * to skip the vectors that cannot change of cluster.
+	 */
+	private class AssignTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Chunk chunk;
+
+		AssignTask(Chunk chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			for (int i = chunk.start; i < chunk.end; i++) {
+				int cluster = assignment[i];
+				// update the bounds according to the movement of the centers
+				upper[i] += drifts[cluster];
+				lower[i] -= cluster == maxDriftCluster ? secondMaxDrift : maxDrift;
+
+				// the vector cannot change of cluster if its center is closer than
+				// the other centers and than half the distance to the closest center
+				double bound = Math.max(halfDistances[cluster], lower[i]);
+				if (upper[i] <= bound) {
+					continue;
+				}
+				// calculate the exact distance to the center and check again
+				upper[i] = Math.sqrt(squaredDistance(data, i * d, centers, cluster * d, d));
+				if (upper[i] <= bound) {
+					continue;
+				}
+				// otherwise, find the two closest centers
+				int nearest = -1;
+				double nearestDistance = Double.MAX_VALUE;
+				double secondDistance = Double.MAX_VALUE;
+				for (int j = 0; j < k; j++) {
+					double distance = squaredDistance(data, i * d, centers, j * d, d);
+					if (distance < nearestDistance) {
+						secondDistance = nearestDistance;
+						nearestDistance = distance;
+						nearest = j;
+					} else if (distance < secondDistance) {
+						secondDistance = distance;
+					}
+				}
+				upper[i] = Math.sqrt(nearestDistance);
+				lower[i] = Math.sqrt(secondDistance);
+				// move the vector to the nearest cluster
+				if (nearest != cluster) {
+					assignment[i] = nearest;
+					chunk.remove(cluster, i);
+					chunk.add(nearest, i);
+					chunk.changed++;
+				}
+			}
+		}
+	}
+}
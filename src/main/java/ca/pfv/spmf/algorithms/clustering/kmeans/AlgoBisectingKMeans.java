@@ -148,6 +148,9 @@ public class AlgoBisectingKMeans extends AlgoKMeans{
 				+ " ms");
 		System.out.println(" SSE (Sum of Squared Errors) (lower is better) : " + ClustersEvaluation.calculateSSE(clusters, distanceFunction));
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory() + " mb ");
+		if(getRunMetrics() != null) {
+			System.out.print(getRunMetrics());
+		}
 		System.out.println("=====================================");
 	}
 
@@ -16,17 +16,21 @@ package ca.pfv.spmf.algorithms.clustering.kmeans;
 * SPMF. If not, see <http://www.gnu.org/licenses/>.
 */
 
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.VectorBlock;
 import ca.pfv.spmf.algorithms.clustering.instancereader.AlgoInstanceFileReader;
 import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
 import ca.pfv.spmf.patterns.cluster.ClustersEvaluation;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -40,7 +44,14 @@ import java.util.Random;
  * nearest cluster center. 4) Recompute the new cluster centers. 5) Repeat the two
  * previous steps until some convergence criterion is met (usually that the
  * assignment hasn't changed).
+ * <br/><br/>
+ * 
+ * With the Euclidian distance, an accelerated mode can be used (see setAccelerated()).
+ * It chooses the initial centers with the k-means++ seeding, avoids calculating the
+ * distances that cannot change the cluster of a vector (Hamerly's bounds), and assigns
+ * the vectors with several threads.
  * 
+ * @see AcceleratedKMeans
  * @author Philippe Fournier-Viger
  */
 
@@ -50,11 +61,12 @@ public class AlgoKMeans {
     List<ClusterWithMean> clusters = null;
 	
 	// A random number generator because K-Means is a randomized algorithm
-	private final static Random random = new Random(System.currentTimeMillis());
+	private final Random random = new Random(System.currentTimeMillis());
 	
 	// For statistics
     long startTimestamp; // the start time of the latest execution
 	long endTimestamp;  // the end time of the latest execution
+	RunMetrics runMetrics = null; // the resources used by the latest execution
 	private long iterationCount; // the number of iterations that was performed
 	
 	/* The distance function to be used for clustering */
@@ -62,6 +74,15 @@ public class AlgoKMeans {
 	
 	/** The names of the attributes **/
 	private List<String> attributeNames = null;
+	
+	/** if true, the accelerated mode is used with the Euclidian distance */
+	private boolean accelerated = false;
+	
+	/** the number of threads used by the accelerated mode */
+	private int threadCount = 1;
+	
+	/** the maximum number of iterations of K-Means (0 = no limit) */
+	private int maxIterations = 0;
 
 	/**
 	 * Default constructor
@@ -70,6 +91,46 @@ public class AlgoKMeans {
 		
 	}
 	
+	/**
+	 * Use the accelerated mode when the distance function is the Euclidian distance.
+	 * The initial centers are then chosen with the k-means++ seeding rather than randomly,
+	 * and the distances that cannot change the cluster of a vector are not calculated.
+	 * With other distance functions, the regular algorithm is used.
+	 * @param accelerated true to use the accelerated mode
+	 */
+	public void setAccelerated(boolean accelerated) {
+		this.accelerated = accelerated;
+	}
+	
+	/**
+	 * Set the number of threads used to assign the vectors to clusters in the accelerated mode.
+	 * @param threadCount the number of threads
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Set the seed of the random number generator, so that the same initial
+	 * cluster centers are chosen each time that the algorithm is applied to the same data.
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+	
+	/**
+	 * Set the maximum number of iterations. K-Means stops when the assignment
+	 * of the vectors has not changed or when this number of iterations is reached.
+	 * @param maxIterations the maximum number of iterations (0 = no limit)
+	 */
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+	
 	/**
 	 * Run the K-Means algorithm
 	 * @param inputFile an input file path containing a list of vectors of double values
@@ -82,6 +143,8 @@ public class AlgoKMeans {
 	public List<ClusterWithMean> runAlgorithm(String inputFile, int k, DistanceFunction distanceFunction, String separator) throws NumberFormatException, IOException {
 		// record the start time
 		startTimestamp =  System.currentTimeMillis();
+		// reset the utility for recording the resources used
+		MemoryLogger.getInstance().reset();
 		// reset the number of iterations
 		iterationCount =0;
 		
@@ -94,9 +157,11 @@ public class AlgoKMeans {
 		double minValue = Integer.MAX_VALUE;
 		double maxValue = 0;
 		
-		// Read the input file
+		// Read the input file (the reader records its resources in a run nested
+		// in the run of this execution)
 		AlgoInstanceFileReader reader = new AlgoInstanceFileReader();
 		instances = reader.runAlgorithm(inputFile, separator);
+		MemoryLogger.getInstance().startPhase("clustering");
 		int dimensionCount = reader.getAttributeNames().size();
 		attributeNames = reader.getAttributeNames();
 		
@@ -132,6 +197,7 @@ public class AlgoKMeans {
 			
 			// record end time
 			endTimestamp =  System.currentTimeMillis();
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return clusters;
 		}
 		
@@ -151,6 +217,7 @@ public class AlgoKMeans {
 			
 			// record end time
 			endTimestamp =  System.currentTimeMillis();
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return clusters;
 		}
 		
@@ -168,6 +235,7 @@ public class AlgoKMeans {
 		
 		// record end time
 		endTimestamp =  System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the clusters
 		return clusters;
@@ -213,6 +281,14 @@ public class AlgoKMeans {
 			return newClusters;
 		}
 		
+		// Use the accelerated mode if possible
+		if(accelerated && distanceFunction instanceof DistanceEuclidian) {
+			AcceleratedKMeans acceleratedKMeans = new AcceleratedKMeans(random, threadCount, maxIterations);
+			newClusters = acceleratedKMeans.run(vectors, k, vectorsSize);
+			iterationCount += acceleratedKMeans.getIterationCount();
+			return newClusters;
+		}
+		
 		// (1) Randomly generate k empty clusters with a random mean (cluster
 		// center)
 		for(int i=0; i< k; i++){
@@ -222,46 +298,57 @@ public class AlgoKMeans {
 			newClusters.add(cluster);
 		}
 
+		// the position of the cluster containing each vector (-1 if none)
+		int[] assignment = new int[vectors.size()];
+		Arrays.fill(assignment, -1);
+		// the distances between a vector and the cluster means
+		double[] distances = new double[k];
+
 		// (2) Repeat the two next steps until the assignment hasn't changed
 		boolean changed;
+		int iteration = 0;
 		while(true) {
 			iterationCount++;
+			iteration++;
 			changed = false;
 			// (2.1) Assign each point to the nearest cluster center.
+			
+			// put the cluster means in a block, to calculate the distances
+			// between a vector and all the means at once
+			VectorBlock means = new VectorBlock(new double[k * vectorsSize], k, vectorsSize);
+			for (int i = 0; i < k; i++) {
+				means.setVector(i, newClusters.get(i).getmean().data);
+			}
 
 			// / for each vector
-			for (DoubleArray vector : vectors) {
-				// find the nearest cluster and the cluster containing the item
-				ClusterWithMean nearestCluster = null;
-				ClusterWithMean containingCluster = null;
+			for (int v = 0; v < vectors.size(); v++) {
+				DoubleArray vector = vectors.get(v);
+				// calculate the distance of each cluster mean to the vector
+				distanceFunction.calculateDistances(vector.data, means, distances);
+				
+				// find the nearest cluster
+				int nearestCluster = -1;
 				double distanceToNearestCluster = Double.MAX_VALUE;
-
-				// for each cluster
-				for (ClusterWithMean cluster : newClusters) {
-					// calculate the distance of the cluster mean to the vector
-					double distance = distanceFunction.calculateDistance(cluster.getmean(), vector);
+				for (int i = 0; i < k; i++) {
 					// if it is the smallest distance until now, record this cluster
 					// and the distance
-					if (distance < distanceToNearestCluster) {
-						nearestCluster = cluster;
-						distanceToNearestCluster = distance;
-					}
-					// if the cluster contain the vector already,
-					// remember that too!
-					if (cluster.contains(vector)) {
-						containingCluster = cluster;
+					if (distances[i] < distanceToNearestCluster) {
+						nearestCluster = i;
+						distanceToNearestCluster = distances[i];
 					}
 				}
 
 				// if the nearest cluster is not the cluster containing
 				// the vector
+				int containingCluster = assignment[v];
 				if (containingCluster != nearestCluster) {
 					// remove the vector from the containing cluster
-					if (containingCluster != null) {
-						containingCluster.remove(vector);
+					if (containingCluster != -1) {
+						newClusters.get(containingCluster).remove(vector);
 					}
 					// add the vector to the nearest cluster
-					nearestCluster.addVector(vector);
+					newClusters.get(nearestCluster).addVector(vector);
+					assignment[v] = nearestCluster;
 					changed = true;
 				}
 			}
@@ -277,6 +364,11 @@ public class AlgoKMeans {
 			for (ClusterWithMean cluster : newClusters) {
 				cluster.recomputeClusterMean();
 			}
+			
+			// stop if the maximum number of iterations is reached
+			if(maxIterations > 0 && iteration >= maxIterations){
+				break;
+			}
 		}
 		
 		return newClusters;
@@ -332,6 +424,14 @@ public class AlgoKMeans {
 		writer.close();
 	}
 	
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+	
 	/**
 	 * Print statistics of the latest execution to System.out.
 	 */
@@ -341,8 +441,11 @@ public class AlgoKMeans {
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" SSE (Sum of Squared Errors) (lower is better) : " + ClustersEvaluation.calculateSSE(clusters, distanceFunction));
-		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory() + " mb ");
+		System.out.println(" Max memory:" + (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()) + " mb ");
 		System.out.println(" Iteration count: " + iterationCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
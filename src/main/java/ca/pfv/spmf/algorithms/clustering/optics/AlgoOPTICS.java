@@ -19,16 +19,20 @@ package ca.pfv.spmf.algorithms.clustering.optics;
 
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
 import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
-import ca.pfv.spmf.datastructures.kdtree.KDTree;
-import ca.pfv.spmf.datastructures.kdtree.KNNPoint;
+import ca.pfv.spmf.datastructures.grid.UniformGrid;
+import ca.pfv.spmf.datastructures.kdtree.ArrayKDTree;
 import ca.pfv.spmf.patterns.cluster.Cluster;
 import ca.pfv.spmf.patterns.cluster.DoubleArray;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
  * 
@@ -58,6 +62,21 @@ import java.util.PriorityQueue;
  * OPTICS: Ordering Points To Identify the Clustering Structure. ACM SIGMOD
  * international conference on Management of data. ACM Press. pp. 49�60.
  * 
+ * <br/><br/>
+ * 
+ * The points can also be indexed with a uniform grid rather than a KD-Tree (see setUseGrid()),
+ * which is faster for data having few dimensions. If several threads are used (see setThreadCount()),
+ * the core distances of all the points are first calculated in parallel, and the cluster
+ * ordering is then extracted using these core distances. With the KD-Tree, the core distances
+ * are then obtained with a batch of k-nearest neighbor queries (k = minPts - 1).
+ * 
+ * <br/><br/>
+ * 
+ * The KD-Tree (ArrayKDTree) does not reorder the list of points. Thus, the points are processed
+ * in the order of the input file, and the cluster ordering and the reachability distances are the
+ * same from run to run. Previous versions used KDTree, which reordered the points randomly when building
+ * the tree, so the cluster ordering and the reachability distances could change between runs.
+ * 
  * @author Philippe Fournier-Viger, 2015
  */
 
@@ -73,7 +92,7 @@ public class AlgoOPTICS {
 	 * This KD-Tree is used to index the data points for fast access to points
 	 * in the epsilon radius
 	 */
-    private KDTree kdtree;
+    private ArrayKDTree kdtree;
 
 	/** Variable to store the cluster-ordering found by OPTICS */
     private List<DoubleArrayOPTICS> clusterOrdering = null;
@@ -81,14 +100,31 @@ public class AlgoOPTICS {
 	/** The clusters found by the OPTICS algorithm */
     private List<Cluster> clusters = null;
 	
-	/** Array-list buffer for storing neighbor points to a given point.
-	 * There is two buffers because the algorithm need to use two at the same time. */
-    private List<KNNPoint> neighboorsBuffer1 = new ArrayList<KNNPoint>();
-	private List<KNNPoint> neighboorsBuffer2 = new ArrayList<KNNPoint>();
+	/** Buffer for storing the neighbor points of a given point and their distances */
+    private NeighborBuffer neighboorsBuffer = new NeighborBuffer();
 	
 
 	/** The names of the attributes **/
 	private List<String> attributeNames = null;
+	
+	/** the number of threads used to calculate the core distances */
+	private int threadCount = 1;
+	
+	/** if true, the points are indexed with a uniform grid rather than with a KD-Tree */
+	private boolean useGrid = false;
+	
+	/* This grid is used instead of the KD-Tree if useGrid is true */
+	private UniformGrid grid;
+	
+	/* The points, in the order used by the grid */
+	private List<DoubleArray> points;
+	
+	/* true if the core distances have been calculated before extracting the cluster ordering */
+	private boolean coreDistancesCalculated;
+	
+	/* the resources used by the latest calculation of the cluster ordering */
+	private RunMetrics runMetrics = null;
+	
 
 	/**
 	 * Default constructor
@@ -97,6 +133,27 @@ public class AlgoOPTICS {
 
 	}
 
+	/**
+	 * Set the number of threads used to calculate the core distances of the points.
+	 * @param threadCount the number of threads
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1){
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Index the points with a uniform grid having cells of size epsilon, rather than with
+	 * a KD-Tree. This is faster for data having few dimensions, such as geographical
+	 * coordinates.
+	 * @param useGrid true to use a grid
+	 */
+	public void setUseGrid(boolean useGrid) {
+		this.useGrid = useGrid;
+	}
+	
 	/**
 	 * Run the OPTICS algorithm
 	 * 
@@ -118,9 +175,10 @@ public class AlgoOPTICS {
 		// record the start time
 		timeExtractClusterOrdering = 0;
 		long startTimestampClusterOrdering = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 
 		// Structure to store the vectors from the file
-		List<DoubleArray> points = new ArrayList<DoubleArray>();
+		points = new ArrayList<DoubleArray>();
 		
 		// The list of attribute names
 		attributeNames = new ArrayList<String>();
@@ -181,13 +239,24 @@ public class AlgoOPTICS {
 			}
 		}
 
-		// build kd-tree
-		kdtree = new KDTree();
-		kdtree.buildtree(points);
-
-		// For debugging, you can print the KD-Tree by uncommenting the
-		// following line:
-		// System.out.println(kdtree.toString());
+		if(useGrid) {
+			// build the grid
+			grid = new UniformGrid(points, epsilon);
+		}else {
+			// build kd-tree
+			kdtree = new ArrayKDTree(points);
+		}
+		// remember the position of each point in the list
+		for (int i = 0; i < points.size(); i++) {
+			((DoubleArrayOPTICS) points.get(i)).index = i;
+		}
+		
+		// calculate the core distances with several threads
+		coreDistancesCalculated = false;
+		if(threadCount > 1) {
+			calculateCoreDistances(minPts, epsilon);
+			coreDistancesCalculated = true;
+		}
 
 		// Variable to store the order of points generated by OPTICS
 		clusterOrdering = new ArrayList<DoubleArrayOPTICS>();
@@ -208,11 +277,13 @@ public class AlgoOPTICS {
 
 		// record end time
 		timeExtractClusterOrdering = System.currentTimeMillis() - startTimestampClusterOrdering;
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// free some memory
-		neighboorsBuffer1.clear();
-		neighboorsBuffer2.clear();
+		neighboorsBuffer = new NeighborBuffer();
 		kdtree = null;
+		grid = null;
+		points = null;
 
 		// return the clusters
 		return clusterOrdering;
@@ -233,16 +304,13 @@ public class AlgoOPTICS {
 	private void expandClusterOrder(DoubleArrayOPTICS pointDBS,	List<DoubleArrayOPTICS> orderedFile, double epsilon, int minPts) {
 
 		// find the neighboors of this point with their distance
-		neighboorsBuffer1.clear();
-		kdtree.pointsWithinRadiusOfWithDistance(pointDBS, epsilon, neighboorsBuffer1);
+		setCoreDistance(pointDBS, neighboorsBuffer, epsilon, minPts);
 
 		// mark the point as visited
 		pointDBS.visited = true;
 
 		// ********** NEXT LINE, WE USE EPSILON AS MAX DISTANCE******* ///
 		pointDBS.reachabilityDistance = Double.POSITIVE_INFINITY; // / /// &&*&*&*
-																	
-		pointDBS.setCoreDistance(neighboorsBuffer1, epsilon, minPts); /// &&*&*&*
 
 		// add the current point to the order
 		orderedFile.add(pointDBS);
@@ -251,24 +319,21 @@ public class AlgoOPTICS {
 			// Create the orderSeeds structure to store points ordered by
 			// increasing reachability-distances
 			PriorityQueue<DoubleArrayOPTICS> orderSeeds = new PriorityQueue<DoubleArrayOPTICS>();
-			update(neighboorsBuffer1, pointDBS, orderSeeds, minPts, epsilon);
+			updateSeeds(neighboorsBuffer, pointDBS, orderSeeds, minPts, epsilon);
 			while (!orderSeeds.isEmpty()) {
 				DoubleArrayOPTICS currentObject = (DoubleArrayOPTICS) orderSeeds.poll();
 
 				// Find the neighboors of the current object using a buffer 
-				neighboorsBuffer2.clear();
-				kdtree.pointsWithinRadiusOfWithDistance(currentObject, epsilon, neighboorsBuffer2);  /// &$&$ CurrentObject
+				setCoreDistance(currentObject, neighboorsBuffer, epsilon, minPts);  /// &$&$ CurrentObject
 
 				// mark the point as visited
 				currentObject.visited = true;
 
-				currentObject.setCoreDistance(neighboorsBuffer2, epsilon, minPts);
-
 				// add the current point to the order
 				orderedFile.add(currentObject);
 
 				if (currentObject.core_distance != Double.POSITIVE_INFINITY) {
-					update(neighboorsBuffer2, currentObject, orderSeeds, minPts, epsilon);
+					updateSeeds(neighboorsBuffer, currentObject, orderSeeds, minPts, epsilon);
 				}
 			}
 		}
@@ -277,6 +342,96 @@ public class AlgoOPTICS {
 		MemoryLogger.getInstance().checkMemory();
 	}
 
+	/**
+	 * Set the core distance of a point, unless it was calculated before. The neighbors
+	 * of the point are added to a buffer, so that they can be used to update the orderSeeds.
+	 * @param point the point
+	 * @param neighbors a buffer for the neighbors of the point
+	 * @param epsilon the epsilon parameter
+	 * @param minPts  the minPts parameter
+	 */
+	private void setCoreDistance(DoubleArrayOPTICS point, NeighborBuffer neighbors, double epsilon, int minPts) {
+		if(coreDistancesCalculated) {
+			return;
+		}
+		point.core_distance = calculateCoreDistance(point, neighbors, epsilon, minPts);
+	}
+	
+	/**
+	 * Calculate the core distance of a point
+	 * @param point the point
+	 * @param neighbors a buffer where the neighbors of the point are added
+	 * @param epsilon the epsilon parameter
+	 * @param minPts  the minPts parameter
+	 * @return the core distance
+	 */
+	private double calculateCoreDistance(DoubleArrayOPTICS point, NeighborBuffer neighbors, double epsilon, int minPts) {
+		findNeighbors(point, neighbors, epsilon);
+		// if not enough neighbors, then undefined
+		if(neighbors.count < minPts - 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		// the core distance is the distance of the minPts-1-th neighbor
+		double[] sortedDistances = neighbors.getSortedDistances();
+		return sortedDistances[minPts - 2];
+	}
+	
+	/**
+	 * Find the neighbors of a point within a radius, using the grid or the KD-Tree
+	 * @param point the point
+	 * @param neighbors a buffer where the neighbors are added (after removing its content)
+	 * @param epsilon the radius
+	 */
+	private void findNeighbors(DoubleArrayOPTICS point, NeighborBuffer neighbors, double epsilon) {
+		neighbors.count = 0;
+		if(grid != null) {
+			grid.visitPointsWithinRadiusOf(point.index, point.data, epsilon, neighbors);
+		}else {
+			kdtree.visitPointsWithinRadiusOf(point.index, point.data, epsilon, neighbors);
+		}
+	}
+	
+	/**
+	 * Calculate the core distances of all the points with several threads
+	 * @param minPts the minPts parameter
+	 * @param epsilon the epsilon parameter
+	 */
+	private void calculateCoreDistances(int minPts, double epsilon) {
+		int n = points.size();
+		if(kdtree != null && minPts >= 2) {
+			// the core distance is the distance of the minPts-1-th nearest neighbor, if it is within epsilon
+			int k = minPts - 1;
+			int[] nearestPoints = new int[n * k];
+			double[] nearestDistances = new double[n * k];
+			kdtree.nearestNeighborsOfAllPoints(k, nearestPoints, nearestDistances, threadCount);
+			for(int i = 0; i < n; i++) {
+				double distance = nearestDistances[i * k + k - 1];
+				((DoubleArrayOPTICS) points.get(i)).core_distance = distance <= epsilon ? distance : Double.POSITIVE_INFINITY;
+			}
+			// check memory usage
+			MemoryLogger.getInstance().checkMemory();
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// split the points in a few ranges per thread so that the threads stay busy
+			int taskCount = Math.min(n, threadCount * 4);
+			CoreDistanceTask[] tasks = new CoreDistanceTask[taskCount];
+			for(int t = 0; t < taskCount; t++) {
+				tasks[t] = new CoreDistanceTask((int) ((long) n * t / taskCount),
+						(int) ((long) n * (t + 1) / taskCount), minPts, epsilon);
+				pool.execute(tasks[t]);
+			}
+			for(CoreDistanceTask task : tasks) {
+				task.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		// check memory usage
+		MemoryLogger.getInstance().checkMemory();
+	}
+	
 	/**
 	 * Update the orderSeeds w.r.t to the current object
 	 * 
@@ -289,37 +444,117 @@ public class AlgoOPTICS {
 	 * @param epsilon the epsilon parameter
 	 * @param minPts  the minPts parameter
 	 */
-	private void update(List<KNNPoint> neighbors,
-			DoubleArrayOPTICS centerObject, PriorityQueue<DoubleArrayOPTICS> orderSeeds, int minPts, double epsilon) {
+	private void updateSeeds(NeighborBuffer neighbors, DoubleArrayOPTICS centerObject,
+			PriorityQueue<DoubleArrayOPTICS> orderSeeds, int minPts, double epsilon) {
+		// if the core distance was calculated before, the neighbors were not searched yet
+		if(coreDistancesCalculated) {
+			findNeighbors(centerObject, neighbors, epsilon);
+		}
 		double cDist = centerObject.core_distance;
 
 		// FOR all object from neighbors DO:
-		for (KNNPoint object : neighbors) {
-			// if the object has not been visited yet
-			DoubleArrayOPTICS objectOP = (DoubleArrayOPTICS) object.values;
-			if (!objectOP.visited) {
-				double newRDistance = Math.max(cDist, distanceFunction
-						.calculateDistance(objectOP, centerObject));
-
-				// if not already in orderSeeds
-				if (objectOP.reachabilityDistance == Double.POSITIVE_INFINITY) {
+		for (int i = 0; i < neighbors.count; i++) {
+			DoubleArrayOPTICS objectOP = (DoubleArrayOPTICS) points.get(neighbors.points[i]);
+			updateSeed(objectOP, cDist, neighbors.distances[i], orderSeeds);
+		}
+		// check memory usage
+		MemoryLogger.getInstance().checkMemory();
+	}
+	
+	/**
+	 * Update the reachability distance of a neighbor of the current object in the orderSeeds
+	 * @param objectOP the neighbor
+	 * @param cDist the core distance of the current object
+	 * @param distance the distance between the neighbor and the current object
+	 * @param orderSeeds the orderSeeds structure
+	 */
+	private void updateSeed(DoubleArrayOPTICS objectOP, double cDist, double distance,
+			PriorityQueue<DoubleArrayOPTICS> orderSeeds) {
+		// if the object has not been visited yet
+		if (!objectOP.visited) {
+			double newRDistance = Math.max(cDist, distance);
+
+			// if not already in orderSeeds
+			if (objectOP.reachabilityDistance == Double.POSITIVE_INFINITY) {
+				objectOP.reachabilityDistance = newRDistance;
+				orderSeeds.add(objectOP);
+			} else {
+				// the object was already in orderSeeds
+				if (newRDistance < objectOP.reachabilityDistance) {
 					objectOP.reachabilityDistance = newRDistance;
+					// ******** THE FOLLOWING CODE MIGHT BE OPTIMIZED IN A
+					// BETTER WAY.... *****\\\\\
+					// Currently, we just remove and insert again...
+					orderSeeds.remove(objectOP);
 					orderSeeds.add(objectOP);
-				} else {
-					// the object was already in orderSeeds
-					if (newRDistance < objectOP.reachabilityDistance) {
-						objectOP.reachabilityDistance = newRDistance;
-						// ******** THE FOLLOWING CODE MIGHT BE OPTIMIZED IN A
-						// BETTER WAY.... *****\\\\\
-						// Currently, we just remove and insert again...
-						orderSeeds.remove(objectOP);
-						orderSeeds.add(objectOP);
-					}
 				}
 			}
 		}
-		// check memory usage
-		MemoryLogger.getInstance().checkMemory();
+	}
+	
+	/**
+	 * A buffer storing the neighbors found with the grid or the KD-Tree, and their distances
+	 */
+	private static class NeighborBuffer implements UniformGrid.NeighborVisitor {
+		// the neighbors and their distances
+		int[] points = new int[16];
+		double[] distances = new double[16];
+		// the number of neighbors
+		int count;
+		// a copy of the distances, used to sort them
+		private double[] sortedDistances = new double[16];
+		
+		@Override
+		public boolean visit(int point, double distance) {
+			if(count == distances.length) {
+				points = Arrays.copyOf(points, count * 2);
+				distances = Arrays.copyOf(distances, count * 2);
+			}
+			points[count] = point;
+			distances[count++] = distance;
+			return true;
+		}
+		
+		/**
+		 * Get the distances sorted by increasing order
+		 * @return an array whose first "count" values are the sorted distances
+		 */
+		double[] getSortedDistances() {
+			if(sortedDistances.length < count) {
+				sortedDistances = new double[distances.length];
+			}
+			System.arraycopy(distances, 0, sortedDistances, 0, count);
+			Arrays.sort(sortedDistances, 0, count);
+			return sortedDistances;
+		}
+	}
+	
+	/**
+	 * A task that calculates the core distances of a range of points
+	 */
+	private class CoreDistanceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int start;
+		private final int end;
+		private final int minPts;
+		private final double epsilon;
+		
+		CoreDistanceTask(int start, int end, int minPts, double epsilon) {
+			this.start = start;
+			this.end = end;
+			this.minPts = minPts;
+			this.epsilon = epsilon;
+		}
+		
+		@Override
+		protected void compute() {
+			NeighborBuffer neighbors = new NeighborBuffer();
+			for(int i = start; i < end; i++) {
+				DoubleArrayOPTICS point = (DoubleArrayOPTICS) points.get(i);
+				point.core_distance = calculateCoreDistance(point, neighbors, epsilon, minPts);
+			}
+		}
 	}
 	
 
@@ -432,6 +667,9 @@ public class AlgoOPTICS {
 		if(clusters != null){
 			System.out.println(" Number of clusters: " + clusters.size());
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -727,4 +965,13 @@ public class AlgoOPTICS {
 //			this.endIndex = endIndex;
 //		}
 //	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest
+	 * calculation of the cluster ordering.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
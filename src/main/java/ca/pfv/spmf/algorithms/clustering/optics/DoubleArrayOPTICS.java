@@ -33,6 +33,7 @@ public class DoubleArrayOPTICS extends DoubleArrayInstance implements Comparable
 	boolean visited = false;
 	public double reachabilityDistance = Double.POSITIVE_INFINITY; // undefined
 	double core_distance = Double.POSITIVE_INFINITY;  // undefined
+	int index; // the position of the point in the list of points (used with a grid)
 
 	/**
 	 * Constructor
@@ -12,6 +12,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * * * * This is an implementation of the high utility itemset mining algorithm
@@ -44,6 +46,7 @@ public class AlgoHUIM_BPSO_tree {
     private double maxMemory = 0; // the maximum memory usage
 	private long startTimestamp = 0; // the time the algorithm started
 	private long endTimestamp = 0; // the time the algorithm terminated
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private final int pop_size = 5;// the size of populations
 	private final int iterations = 20;// the iterations of algorithms
 	final int c1 = 2, c2 = 2;// the parameter used in BPSO algorithm
@@ -127,6 +130,7 @@ public class AlgoHUIM_BPSO_tree {
 		maxMemory = 0;
 
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 
 		writer = new BufferedWriter(new FileWriter(output));
 
@@ -261,6 +265,7 @@ public class AlgoHUIM_BPSO_tree {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -708,7 +713,18 @@ public class AlgoHUIM_BPSO_tree {
 				+ " ms");
 		System.out.println(" Memory ~ " + maxMemory + " MB");
 		System.out.println(" High-utility itemsets count : " + huiSets.size());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -18,6 +18,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.MSApriori;
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -45,6 +46,7 @@ public class AlgoMSApriori {
 	// for statistics
     private long startTimestamp;  // start time of latest execution
 	private long endTimestamp;   // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int itemsetCount;  // number of frequent itemsets generated
 
 	// the LS value as an integer
@@ -187,6 +189,7 @@ public class AlgoMSApriori {
 
 		// if no frequent item was found, we stop there!
 		if (itemsetCount == 0) {
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return;
 		}
 
@@ -297,6 +300,7 @@ public class AlgoMSApriori {
 		endTimestamp = System.currentTimeMillis();
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the output file
 		writer.close();
@@ -492,6 +496,9 @@ public class AlgoMSApriori {
 	 */
 	public void printStats() {
 	 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  MSAPRIORI - STATS =============");
 		System.out.println(" The algorithm stopped at level " + (k - 1)
 				+ ", because there is no candidate");
@@ -502,4 +509,12 @@ public class AlgoMSApriori {
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -13,6 +13,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /** * * * This is an implementation of the skyline frequent-utility patterns mining algorithm using uemax array. 
 * 
@@ -35,6 +37,7 @@ public class AlgoSFUPMinerUemax {
 	private double maxMemory = 0;     // the maximum memory usage
 	private long startTimestamp = 0;  // the time the algorithm started
 	private long endTimestamp = 0;   // the time the algorithm terminated
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int psfupCount =0;  //the number of PSFUP
 	private int sfupCount =0;  // the number of SFUP generated
 	private int searchCount =0;  //the number of search patterns
@@ -58,6 +61,7 @@ public class AlgoSFUPMinerUemax {
 		maxMemory =0;
 		
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		writer = new BufferedWriter(new FileWriter(output));
 
@@ -236,6 +240,7 @@ public class AlgoSFUPMinerUemax {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	private int compareItems(int item1, int item2) {
@@ -520,6 +525,17 @@ public class AlgoSFUPMinerUemax {
 		System.out.println(" Skyline itemsets count : " + sfupCount);
 		System.out.println(" Search itemsets count : " + searchCount);
 		System.out.println(" Candidate itemsets count : " + psfupCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
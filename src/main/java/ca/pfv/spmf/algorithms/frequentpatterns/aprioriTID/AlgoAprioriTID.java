@@ -20,6 +20,7 @@ import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -66,6 +67,7 @@ public class AlgoAprioriTID {
 	
 	/** end time of latest execution */
     private long endTimeStamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** object for writing to file if the user choose to write to a file */
     private BufferedWriter writer = null;
@@ -128,6 +130,7 @@ public class AlgoAprioriTID {
 			throws NumberFormatException, IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// reset number of itemsets found
 		itemsetCount = 0;
@@ -264,6 +267,7 @@ public class AlgoAprioriTID {
 		}
 		// save the end time
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// return frequent itemsets
 		return patterns;
 	}
@@ -393,6 +397,9 @@ public class AlgoAprioriTID {
 	 * Print statistics about the algorithm execution to System.out.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  APRIORI TID v2.12 - STATS =============");
 		System.out.println(" Transactions count from database : " + databaseSize);
 		System.out.println(" Frequent itemsets count : " + itemsetCount);
@@ -411,4 +418,12 @@ public class AlgoAprioriTID {
 	public int getDatabaseSize() {
 		return databaseSize;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
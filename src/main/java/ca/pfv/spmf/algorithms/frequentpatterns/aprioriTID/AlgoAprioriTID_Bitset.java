@@ -18,6 +18,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.aprioriTID;
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -58,6 +59,7 @@ public class AlgoAprioriTID_Bitset {
 	
 	/** end time of latest execution */
     private long endTimeStamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/**  object to write the output file */
     private BufferedWriter writer = null;
@@ -79,6 +81,7 @@ public class AlgoAprioriTID_Bitset {
 			throws NumberFormatException, IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// reset number of itemsets found
 		itemsetCount = 0;
 		
@@ -183,6 +186,7 @@ public class AlgoAprioriTID_Bitset {
 		
 		// save end time
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -294,6 +298,17 @@ public class AlgoAprioriTID_Bitset {
 		System.out.println(" Maximum memory usage : " + 
 				MemoryLogger.getInstance().getMaxMemory() + " mb");
 		System.out.println(" Total time ~ " + (endTimeStamp - startTimestamp)	+ " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -34,6 +34,7 @@ import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the AprioriTID algorithm transformed to mine
@@ -86,6 +87,7 @@ public class AlgoAprioriTIDClose {
 	
 	/** end time of latest execution */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/**  number of closed itemset found */
     private int itemsetCount = 0;
@@ -111,6 +113,7 @@ public class AlgoAprioriTIDClose {
 	public Itemsets runAlgorithm(TransactionDatabase database, double minsupp, String outputFile) throws IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// reset number of itemsets found
 		itemsetCount = 0;
@@ -203,6 +206,7 @@ public class AlgoAprioriTIDClose {
 
 		// save end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the output file if the result was saved to a file
 		if(writer != null){
@@ -425,7 +429,18 @@ public class AlgoAprioriTIDClose {
 		System.out.println(" Maximum memory usage : " + 
 				MemoryLogger.getInstance().getMaxMemory() + " mb");
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -19,6 +19,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.apriori_HT;
 import ca.pfv.spmf.algorithms.frequentpatterns.apriori_HT.ItemsetHashTree.LeafNode;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -61,6 +62,7 @@ public class AlgoAprioriHT {
     private int totalCandidateCount = 0; // total number of candidates generated
 	private long startTimestamp;  // start time
 	private long endTimestamp;   // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int itemsetCount;   // number of itemsets found
 	private int hash_tree_branch_count;  // the number of branches in the hash tree
 	
@@ -186,6 +188,7 @@ public class AlgoAprioriHT {
 		
 		// if no frequent item, we stop there!
 		if(frequent1.size() == 0){
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return;
 		}
 		
@@ -268,6 +271,7 @@ public class AlgoAprioriHT {
 		
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the file
 		writer.close();
@@ -449,6 +453,9 @@ public class AlgoAprioriHT {
 		System.out.println(" Frequent itemsets count : " + itemsetCount);
 		System.out.println(" Maximum memory usage : " + MemoryLogger.getInstance().getMaxMemory() + " mb");
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -461,4 +468,12 @@ public class AlgoAprioriHT {
 //		}
 //		return temp.toString();
 //	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -20,6 +20,7 @@ import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -56,6 +57,7 @@ public class AlgoAprioriClose {
     private int totalCandidateCount = 0; // number of candidate generated during last execution
 	private long startTimestamp; // start time of last execution
 	private long endTimestamp; // end time of last execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int itemsetCount;  // itemset found during last execution
 	private int databaseSize;
 	
@@ -189,6 +191,7 @@ public class AlgoAprioriClose {
 			if(writer != null){
 				writer.close();
 			}
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return patterns; 
 		}
 		
@@ -288,6 +291,7 @@ public class AlgoAprioriClose {
 		endTimestamp = System.currentTimeMillis();
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the output file if the result was saved to a file.
 		if(writer != null){
@@ -527,6 +531,17 @@ private void saveItemset(Itemset itemset) throws IOException {
 		System.out.println(" Frequent closed itemsets count : " + itemsetCount);
 		System.out.println(" Maximum memory usage : " + MemoryLogger.getInstance().getMaxMemory() + " mb");
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
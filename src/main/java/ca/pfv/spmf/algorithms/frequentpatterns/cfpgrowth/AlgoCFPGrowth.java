@@ -19,6 +19,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.cfpgrowth;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -54,6 +55,7 @@ public class AlgoCFPGrowth {
 	// for statistics
 	private long startTimestamp; // start time of the latest execution
 	private long endTime; // end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
 	
@@ -107,6 +109,7 @@ public class AlgoCFPGrowth {
 			throws IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		//initialize tool to record memory usage
 		memoryLogger = new MemoryLogger();
@@ -230,6 +233,7 @@ public class AlgoCFPGrowth {
 		}
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		return patterns;
 	}
@@ -547,6 +551,9 @@ public class AlgoCFPGrowth {
 	 * Print statistics about the algorithm execution to System.out.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  CFP-GROWTH++ - STATS =============");
 		long temps = endTime - startTimestamp;
 		System.out.println(" Transactions count from database : "
@@ -565,4 +572,12 @@ public class AlgoCFPGrowth {
 	public int getDatabaseSize() {
 		return transactionCount;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -20,6 +20,8 @@ import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemsets;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -58,6 +60,7 @@ public class AlgoCharmMFI {
 	private long startTimestamp;
 	/** end  time of the last execution */
 	private long endTimestamp; 
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	/** 
 	 The  patterns that are found 
@@ -98,6 +101,7 @@ public class AlgoCharmMFI {
 		
 		// record the start time of the algorithm
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 
 		// get the size of the largest closed itemset.
 		int maxItemsetLength = frequentClosed.getLevels().size();
@@ -147,6 +151,7 @@ public class AlgoCharmMFI {
 		}
 
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// Return all frequent maximal itemsets found!
 		return maximalItemsets; 
 	}
@@ -201,6 +206,9 @@ public class AlgoCharmMFI {
 		System.out.println(" Frequent maximal itemsets count : "
 				+ maximalItemsets.getItemsetsCount());
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -211,4 +219,12 @@ public class AlgoCharmMFI {
 	public Itemsets getItemsets() {
 		return maximalItemsets;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
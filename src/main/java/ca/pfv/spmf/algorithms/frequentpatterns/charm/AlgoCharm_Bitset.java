@@ -30,15 +30,18 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
  
 /**
  * This is a new implementation of the CHARM algorithm (2014) that relies on bitsets to implement
- * tidsets.
+ * tidsets. If setUseCompressedTidsets(true) is called, CompressedTidsets are used instead of
+ * bitsets, which requires much less memory for sparse databases containing many transactions.
  *  
  * Charm was proposed by ZAKI (2001).
  * <br/><br/>
@@ -70,6 +73,7 @@ public class AlgoCharm_Bitset {
 	long startTimestamp;
 	/** end  time of the last execution */
 	long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** 
 	 The  patterns that are found 
@@ -98,6 +102,9 @@ public class AlgoCharm_Bitset {
 	
 	/** if true, transaction identifiers of each pattern will be shown*/
 	boolean showTransactionIdentifiers = false;
+	
+	/** if true, tidsets are represented as CompressedTidsets instead of bitsets */
+	boolean useCompressedTidsets = false;
 
 	
 	/**
@@ -351,6 +358,7 @@ public class AlgoCharm_Bitset {
 		
 		// record the end time for statistics
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return all frequent itemsets found!
 		return closedItemsets; 
@@ -370,7 +378,7 @@ public class AlgoCharm_Bitset {
 				BitSetSupport tids = mapItemTIDS.get(item);
 				// If no tidset, then we create one
 				if(tids == null){
-					tids = new BitSetSupport();
+					tids = useCompressedTidsets ? new BitSetSupport(new CompressedTidset(), 0) : new BitSetSupport();
 					mapItemTIDS.put(item, tids);
 					// we remember the largest item seen until now
 					if (item > maxItemId) {
@@ -378,11 +386,22 @@ public class AlgoCharm_Bitset {
 					}
 				}
 				// we add the current transaction id to the tidset of the item
-				tids.bitset.set(i);
+				if(useCompressedTidsets) {
+					tids.compressedTidset.add(i);
+				}else {
+					tids.bitset.set(i);
+				}
 				// we increase the support of that item
 				tids.support++;
 			}
 		}
+		// the compressed tidsets will not be modified anymore, so we choose the smallest
+		// representation for each of their chunks
+		if(useCompressedTidsets) {
+			for(BitSetSupport tids : mapItemTIDS.values()) {
+				tids.compressedTidset.runOptimize();
+			}
+		}
 		return maxItemId;
 	}
 
@@ -396,6 +415,10 @@ public class AlgoCharm_Bitset {
 	 */
 	BitSetSupport performANDFirstTime(BitSetSupport tidsetI,
 			BitSetSupport tidsetJ, int supportIJ) {
+		// if the tidsets are compressed, we intersect the compressed tidsets
+		if(tidsetI.compressedTidset != null) {
+			return new BitSetSupport(tidsetI.compressedTidset.and(tidsetJ.compressedTidset), supportIJ);
+		}
 		// Create the new tidset and perform the logical AND to intersect the tidset
 		BitSetSupport bitsetSupportIJ = new BitSetSupport();
 		bitsetSupportIJ.bitset = (BitSet)tidsetI.bitset.clone();
@@ -413,6 +436,11 @@ public class AlgoCharm_Bitset {
 	 * @return the resulting tidset and its support
 	 */
 	BitSetSupport performAND(BitSetSupport tidsetI,	BitSetSupport tidsetJ) {
+		// if the tidsets are compressed, we intersect the compressed tidsets
+		if(tidsetI.compressedTidset != null) {
+			CompressedTidset tidsetIJ = tidsetI.compressedTidset.and(tidsetJ.compressedTidset);
+			return new BitSetSupport(tidsetIJ, tidsetIJ.cardinality());
+		}
 		// Create the new tidset and perform the logical AND to intersect the tidset
 		BitSetSupport bitsetSupportIJ = new BitSetSupport();
 		bitsetSupportIJ.bitset = (BitSet)tidsetI.bitset.clone();
@@ -577,6 +605,15 @@ public class AlgoCharm_Bitset {
 		MemoryLogger.getInstance().checkMemory();
 	}
 	
+	/**
+	 * Set that tidsets should be represented as CompressedTidsets (true) or as bitsets (false).
+	 * Compressed tidsets use much less memory on large sparse databases. The result is the same.
+	 * @param useCompressedTidsets true or false (false by default)
+	 */
+	public void setUseCompressedTidsets(boolean useCompressedTidsets) {
+		this.useCompressedTidsets = useCompressedTidsets;
+	}
+
 	/**
 	 * Set that the transaction identifiers should be shown (true) or not (false) for each
 	 * pattern found, when writing the result to an output file.
@@ -590,6 +627,9 @@ public class AlgoCharm_Bitset {
 	 * Print statistics about the algorithm execution to System.out.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  CHARM v96r6 Bitset - STATS =============");
 		long temps = endTime - startTimestamp;
 		System.out.println(" Transactions count from database : "
@@ -614,11 +654,48 @@ public class AlgoCharm_Bitset {
 	/**
 	 * Anonymous inner class to store a bitset and its cardinality.
 	 * Storing the cardinality is useful because the cardinality() method
-	 * of a bitset in Java is very expensive.
+	 * of a bitset in Java is very expensive. If compressed tidsets are used,
+	 * the tidset is a CompressedTidset and the bitset is null.
 	 */
 	public class BitSetSupport{
-		BitSet bitset = new BitSet();
+		BitSet bitset;
+		CompressedTidset compressedTidset;
 		int support;
+
+		/**
+		 * Constructor of an empty bitset
+		 */
+		BitSetSupport() {
+			bitset = new BitSet();
+		}
+
+		/**
+		 * Constructor
+		 * @param compressedTidset a compressed tidset
+		 * @param support its cardinality
+		 */
+		BitSetSupport(CompressedTidset compressedTidset, int support) {
+			this.compressedTidset = compressedTidset;
+			this.support = support;
+		}
+
+		/**
+		 * Get the smallest tid that is not smaller than a given tid.
+		 * @param from the given tid
+		 * @return the tid or -1 if there is none
+		 */
+		int nextTid(int from) {
+			return bitset != null ? bitset.nextSetBit(from) : compressedTidset.nextTid(from);
+		}
+
+		/**
+		 * Calculate the hash code of this tidset in a hash table.
+		 * @param hash the hash table
+		 * @return the hash code
+		 */
+		int hashCode(HashTable hash) {
+			return bitset != null ? hash.hashCode(bitset) : hash.hashCode(compressedTidset);
+		}
 	}
 	
 	/**
@@ -644,7 +721,7 @@ public class AlgoCharm_Bitset {
 		itemset.setAbsoluteSupport(tidset.support);
 
 		// Calculate the hash code of that itemset 
-		int hashcode = hash.hashCode(tidset.bitset);
+		int hashcode = tidset.hashCode(hash);
 		
 		// Check in the hash table to see if the itemset has 
 		// a superset already in the hash table. If not, then it is
@@ -655,17 +732,18 @@ public class AlgoCharm_Bitset {
 			itemsetCount++;
 			// if the result should be saved to memory
 			if (writer == null) {
-				// save it to memory with its tidset
-				Itemset itemsetWithTidset = new Itemset(prefixSuffix, tidset.bitset, tidset.support);
+				// save it to memory with its tidset (a compressed tidset is kept as it is)
+				Itemset itemsetWithTidset = tidset.bitset != null
+						? new Itemset(prefixSuffix, tidset.bitset, tidset.support)
+						: new Itemset(prefixSuffix, tidset.compressedTidset, tidset.support);
 				closedItemsets.addItemset(itemsetWithTidset, itemset.size());
 			} else {
 				// otherwise if the result should be saved to a file,
 				// then write it to the output file
 				writer.write(itemset.toString() + " #SUP: " + itemset.support);
 				if(showTransactionIdentifiers) {
-					BitSet bitset = tidset.bitset;
 		        	writer.append(" #TID:");
-		        	for (int tid = bitset.nextSetBit(0); tid != -1; tid = bitset.nextSetBit(tid + 1)) {
+		        	for (int tid = tidset.nextTid(0); tid != -1; tid = tidset.nextTid(tid + 1)) {
 		        		writer.append(" " + tid); 
 		        	}
 				}
@@ -676,4 +754,11 @@ public class AlgoCharm_Bitset {
 		}
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
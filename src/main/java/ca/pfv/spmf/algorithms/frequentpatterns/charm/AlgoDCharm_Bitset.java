@@ -22,6 +22,7 @@ import java.util.BitSet;
 import java.util.Map;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
@@ -74,6 +75,9 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(getRunMetrics() != null) {
+			System.out.print(getRunMetrics());
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -99,9 +103,15 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 				BitSetSupport tids = mapItemTIDS.get(item);
 				// If none, then we create one
 				if(tids == null){
-					tids = new BitSetSupport();
-					// For a new item, we sets all the bits of its diffset to true
-					tids.bitset.set(0, database.size(), true);
+					if(useCompressedTidsets) {
+						// if compressed tidsets are used, the tidset of the item is created
+						// and it is replaced by its diffset after the database pass
+						tids = new BitSetSupport(new CompressedTidset(), 0);
+					}else {
+						tids = new BitSetSupport();
+						// For a new item, we sets all the bits of its diffset to true
+						tids.bitset.set(0, database.size(), true);
+					}
 					mapItemTIDS.put(item, tids);
 					// we remember the largest item seen until now
 					if (item > maxItemId) {
@@ -110,11 +120,21 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 				}
 				//We set to false the bit corresponding to this transaction
 				// in the diffset of that item
-				tids.bitset.set(i, false);
+				if(useCompressedTidsets) {
+					tids.compressedTidset.add(i);
+				}else {
+					tids.bitset.set(i, false);
+				}
 				// we increase the support of that item
 				tids.support++;
 			}
 		}	
+		// the diffset of each item is the complement of its tidset
+		if(useCompressedTidsets) {
+			for(BitSetSupport tids : mapItemTIDS.values()) {
+				tids.compressedTidset = tids.compressedTidset.complement(database.size());
+			}
+		}
 		return maxItemId;
 	}
 
@@ -126,6 +146,11 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 	 * @return the resulting diffset and its support
 	 */
 	 BitSetSupport performAND(BitSetSupport tidsetI, BitSetSupport tidsetJ) {
+		// if the diffsets are compressed, we calculate the difference of the compressed diffsets
+		if(tidsetI.compressedTidset != null) {
+			CompressedTidset diffsetIJ = tidsetJ.compressedTidset.andNot(tidsetI.compressedTidset);
+			return new BitSetSupport(diffsetIJ, tidsetI.support - diffsetIJ.cardinality());
+		}
 		// Create the new diffset 
 		BitSetSupport bitsetSupportIJ = new BitSetSupport();
 		// Calculate the diffset 
@@ -147,6 +172,11 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 	 */
 	BitSetSupport performANDFirstTime(BitSetSupport tidsetI,
 			BitSetSupport tidsetJ, int supportIJ) {
+		// if the diffsets are compressed, we calculate the difference of the compressed diffsets
+		if(tidsetI.compressedTidset != null) {
+			CompressedTidset diffsetIJ = tidsetJ.compressedTidset.andNot(tidsetI.compressedTidset);
+			return new BitSetSupport(diffsetIJ, tidsetI.support - diffsetIJ.cardinality());
+		}
 		// Create the new diffset and perform the logical AND to intersect the diffsets
 		BitSetSupport bitsetSupportIJ = new BitSetSupport();
 		//Calculate the diffset
@@ -181,7 +211,7 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 		itemset.setAbsoluteSupport(tidset.support);
 
 		// Calculate the hash code of that itemset 
-		int hashcode = hash.hashCode(tidset.bitset);
+		int hashcode = tidset.hashCode(hash);
 		
 		// Check in the hash table to see if the itemset has 
 		// a superset already in the hash table. If not, then it is
@@ -193,7 +223,7 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 			// if the result should be saved to memory
 			if (writer == null) { 
 				// save it to memory with its tidset
-				Itemset itemsetWithTidset = new Itemset(prefixSuffix, null, tidset.support);
+				Itemset itemsetWithTidset = new Itemset(prefixSuffix, (BitSet) null, tidset.support);
 				//  ^^  NOTE: IN THE LINE ABOVE WE SET THE "TIDSET" TO NULL FOR DCHARM BECAUSE
 				// IT IS NOT MEANINGFUL TO KEEP THE DIFFSET.
 				closedItemsets.addItemset(itemsetWithTidset, itemset.size()); 
@@ -202,9 +232,8 @@ public class AlgoDCharm_Bitset extends AlgoCharm_Bitset{
 				// then write it to the output file
 				writer.write(itemset.toString() + " #SUP: " + itemset.support);
 				if(showTransactionIdentifiers) {
-					BitSet bitset = tidset.bitset;
 		        	writer.append(" #TID:");
-		        	for (int tid = bitset.nextSetBit(0); tid != -1; tid = bitset.nextSetBit(tid + 1)) {
+		        	for (int tid = tidset.nextTid(0); tid != -1; tid = tidset.nextTid(tid + 1)) {
 		        		writer.append(" " + tid); 
 		        	}
 				}
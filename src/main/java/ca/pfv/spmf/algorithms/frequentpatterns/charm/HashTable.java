@@ -21,6 +21,7 @@ import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
@@ -117,6 +118,26 @@ class HashTable {
 		return (hashcode % table.length);
 	}
 	
+	/**
+	 * Calculate the hashcode of an itemset as the sum of the tids of its compressed tidset,
+	 * modulo the internal array length.
+	 * @param tidset the tidset of the itemset
+	 * @return the hashcode (an integer)
+	 */
+	public int hashCode(CompressedTidset tidset) {
+		// make the sum of the tids (truncated to an integer, as if the tids were
+		// added one by one as integers)
+		int hashcode = (int) tidset.sum();
+		// If an integer overflow occurs and the hashcode is negative,
+		// then we make it positive.
+		if(hashcode < 0){
+			hashcode = 0 - hashcode;
+		}
+		// Finally the hashcode is obtained by performing the modulo 
+		// operation using the size of the internal array.
+		return (hashcode % table.length);
+	}
+	
 	/**
 	 * Calculate the hashcode of an itemset as the sum of the tids of its tidset,
 	 * modulo the internal array length.
@@ -16,14 +16,16 @@ package ca.pfv.spmf.algorithms.frequentpatterns.clostream;
 * SPMF. If not, see <http://www.gnu.org/licenses/>.
 */
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the CloStream algorithm for mining
@@ -34,17 +36,44 @@ import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
  * 
  * It is a very simple algorithm that do not use a minimum support threshold.
  * It thus finds all closed itemsets.
+ * <br/><br/>
+ * 
+ * The closed itemsets containing each item are stored in an inverted index
+ * (lists of closed itemset identifiers, or "cids"). The intersections of a new
+ * transaction with the closed itemsets are computed from the lists of the items of
+ * the transaction, so that the cost of processing a transaction depends on these lists
+ * rather than on the total number of closed itemsets. Optionally, only the most recent
+ * transactions of the stream are kept (sliding window).
  *
  *@see Itemset
  *@author Philippe Fournier-Viger
  */
 public class AlgoCloSteam {
 	
-	// a table to store the closed itemsets
+	// a table to store the closed itemsets (the position of an itemset is its cid).
+	// The cid 0 is the empty set, and the cids of removed itemsets are null.
     private List<Itemset> tableClosed = new ArrayList<Itemset>();
 	
-	//
-    private Map<Integer, List<Integer>> cidListMap = new HashMap<Integer, List<Integer>>();
+	// for each item, the list of cids of the closed itemsets containing that item
+    private Map<Integer, CidList> cidListMap = new HashMap<Integer, CidList>();
+
+	// the cids of removed closed itemsets, that can be reused
+    private CidList freeCids = new CidList();
+
+	// for each cid, the number of items of the current transaction in the closed itemset
+    private int[] counts = new int[64];
+	// the cids of the closed itemsets sharing items with the current transaction
+    private CidList candidates = new CidList();
+	// for each cid, its position in the list of candidates
+    private int[] candidatePositions = new int[64];
+
+	// the maximum number of transactions in the sliding window (0 = no window)
+    private int windowSize = 0;
+	// the transactions of the sliding window, from the oldest to the most recent
+    private ArrayDeque<int[]> window = new ArrayDeque<int[]>();
+
+	// the resources used since the algorithm was created
+    private final RunMetrics runMetrics;
 
 	/**
 	 * Constructor that also initialize the algorithm
@@ -55,6 +84,22 @@ public class AlgoCloSteam {
 		emptySet.setAbsoluteSupport(0);
 		// add the empty set in the list of closed sets
 		tableClosed.add(emptySet); 
+		// start recording the resources used
+		runMetrics = RunMetrics.start();
+	}
+
+	/**
+	 * Set the number of transactions of the sliding window. If it is greater than 0,
+	 * the oldest transaction is removed when a new transaction makes the window too
+	 * large, so that the closed itemsets are those of the last transactions.
+	 * It should be called before processing the first transaction.
+	 * @param windowSize the number of transactions (0 = all transactions are kept)
+	 */
+	public void setWindowSize(int windowSize) {
+		if(windowSize < 0){
+			throw new IllegalArgumentException("The window size must be positive");
+		}
+		this.windowSize = windowSize;
 	}
 	
 	/**
@@ -63,109 +108,301 @@ public class AlgoCloSteam {
 	 * @param transaction a transaction (Itemset)
 	 */
 	public void processNewTransaction(Itemset transaction){
-		// a temporary table (as described in the paper) to 
-		// associate itemsets with cids.
-		Map<Itemset, Integer> tableTemp = new HashMap<Itemset, Integer>();
-		
-		// Line 02 of the pseudocode in the article
-		// We add the transaction in a temporary table
-		tableTemp.put(transaction, 0); 
+		int[] items = transaction.getItems();
 		
 		// Line 03  of the pseudocode in the article
-		// Create a set to store the combined cidlist of items in the transaction
-		Set<Integer> cidset = new HashSet<Integer>();
-		// For each item in the transaction
-		for(Integer item : transaction.getItems()){
-			// get the cid list of that item
-			List<Integer> cidlist = cidListMap.get(item);
+		// Find the cids of the closed itemsets sharing items with the transaction
+		// and compute the intersection of each of them with the transaction.
+		// The intersection of the closed itemset "cid" with the transaction contains
+		// the items of the transaction whose cid list contains "cid".
+		countCandidates(items);
+		int[][] intersections = new int[candidates.size][];
+		for(int i = 0; i < candidates.size; i++){
+			int cid = candidates.cids[i];
+			intersections[i] = new int[counts[cid]];
+			// the count is used as the position where the next item is inserted
+			counts[cid] = 0;
+		}
+		for(int item : items){
+			CidList cidlist = cidListMap.get(item);
 			if(cidlist != null){
-				// add the cid list to the combined cid list
-				cidset.addAll(cidlist);
+				for(int j = 0; j < cidlist.size; j++){
+					int cid = cidlist.cids[j];
+					intersections[candidatePositions[cid]][counts[cid]++] = item;
+				}
 			}
 		}
 		
+		// Line 02 of the pseudocode in the article
+		// A temporary table (as described in the paper) to 
+		// associate itemsets with cids. The itemsets are found by
+		// their content, so that each intersection is compared only once.
+		Map<ItemsetKey, Integer> tableTemp = new HashMap<ItemsetKey, Integer>();
+		// We add the transaction in the temporary table
+		tableTemp.put(new ItemsetKey(items), 0);
+
 		// Line 04  of the pseudocode in the article
 		// For each cid in the combined set of cids
-		for(Integer cid : cidset){
-			
-			// Get the closed itemset corresponding to this cid
-			Itemset cti = tableClosed.get(cid);
-			// create the intersection of this closed itemset
-			// and the transaction.
-			Itemset intersectionS = (Itemset) transaction.intersection(cti);
-
-			// Check if the intersection calculated in the previous step is in Temp
-			boolean found = false;
-			// for each entry in temp
-			for(Map.Entry<Itemset, Integer> entry : tableTemp.entrySet()){
-				// if it is equal to the intersection
-				if(entry.getKey().isEqualTo(intersectionS)){
-					// we found it 
-					found = true;
-					// Get the corresponding closed itemsetitemset  
-					Itemset ctt = tableClosed.get(entry.getValue());
-					// if the support of cti is higher than ctt
-					if(cti.getAbsoluteSupport() > ctt.getAbsoluteSupport()){  
-						// set the value as "cid".
-						entry.setValue(cid);
-					}
-					break;
-				}
-			}
-			// If the search was unsuccessful
-			if(!found){
-				// add the instersection to the temporary table with "cid".
+		for(int i = 0; i < candidates.size; i++){
+			int cid = candidates.cids[i];
+			ItemsetKey intersectionS = new ItemsetKey(intersections[i]);
+			// Check if the intersection is in Temp
+			Integer c = tableTemp.get(intersectionS);
+			// if not found, or if the support of cid is higher than the support of the
+			// closed itemset associated to the intersection, associate it to cid
+			if(c == null || tableClosed.get(cid).getAbsoluteSupport() > tableClosed.get(c).getAbsoluteSupport()){
 				tableTemp.put(intersectionS, cid);
 			}
 		}
+		resetCounts();
 		
 		// For each entry in the temporary table
-		for(Map.Entry<Itemset, Integer> xc : tableTemp.entrySet()){
+		for(Map.Entry<ItemsetKey, Integer> xc : tableTemp.entrySet()){
 			// get the itemset
-			Itemset x = xc.getKey();
-			// get the cid
-			Integer c = xc.getValue();
+			int[] x = xc.getKey().items;
 			// get the closed itemset for that cid
-			Itemset ctc = tableClosed.get(c);
+			Itemset ctc = tableClosed.get(xc.getValue());
 			
 			// if the itemset is the same as the closed itemset
-			if(x.isEqualTo(ctc)){
+			if(Arrays.equals(x, ctc.getItems())){
 				// we have to increase its support
 				ctc.increaseTransactionCount();
 			}else{ 
 				// otherwise the itemset "x" is added to the table of closed itemsets
-				tableClosed.add(x);
-				// its support count is set to the support of ctc + 1.
-				x.setAbsoluteSupport(ctc.getAbsoluteSupport()+1);
-				// Finally, we loop over each item in the transaction again
-				for(Integer item : transaction.getItems()){
-					// we get the cidlist of the current item
-					List<Integer> cidlist = cidListMap.get(item);
-					// if null
-					if(cidlist == null){
-						cidlist = new ArrayList<Integer>();
-						// we  create one
-						cidListMap.put(item, cidlist);
+				// with the support of ctc + 1. The transaction itself is copied,
+				// since it belongs to the caller.
+				addClosedItemset(x == items ? items.clone() : x, ctc.getAbsoluteSupport()+1);
+			}
+		}
+
+		// remove the oldest transaction if the window is too large
+		if(windowSize > 0){
+			window.addLast(items.clone());
+			if(window.size() > windowSize){
+				removeTransaction(window.pollFirst());
+			}
+		}
+	}
+
+	/**
+	 * Remove a transaction of the window. The closed itemsets included in the
+	 * transaction lose one transaction. No itemset becomes closed when a transaction
+	 * is removed, but an itemset is not closed anymore if its support becomes 0 or
+	 * the same as the support of one of its closed supersets.
+	 * @param items the items of the transaction
+	 */
+	private void removeTransaction(int[] items) {
+		// find the closed itemsets included in the transaction
+		countCandidates(items);
+		List<Integer> decreased = new ArrayList<Integer>();
+		for(int i = 0; i < candidates.size; i++){
+			int cid = candidates.cids[i];
+			Itemset closed = tableClosed.get(cid);
+			if(counts[cid] == closed.size()){
+				closed.setAbsoluteSupport(closed.getAbsoluteSupport() - 1);
+				decreased.add(cid);
+			}
+		}
+		resetCounts();
+		// remove those that are not closed anymore
+		for(int cid : decreased){
+			Itemset closed = tableClosed.get(cid);
+			if(closed.getAbsoluteSupport() == 0 || hasSupersetWithSameSupport(cid)){
+				removeClosedItemset(cid);
+			}
+		}
+	}
+
+	/**
+	 * Check if a closed itemset has a closed superset with the same support.
+	 * @param cid the cid of the closed itemset
+	 * @return true if there is such superset, otherwise false
+	 */
+	private boolean hasSupersetWithSameSupport(int cid) {
+		Itemset closed = tableClosed.get(cid);
+		// the supersets are in the cid list of each item, so we use the shortest list
+		CidList shortest = null;
+		for(int item : closed.getItems()){
+			CidList cidlist = cidListMap.get(item);
+			if(shortest == null || cidlist.size < shortest.size){
+				shortest = cidlist;
+			}
+		}
+		for(int j = 0; j < shortest.size; j++){
+			Itemset other = tableClosed.get(shortest.cids[j]);
+			if(other.getAbsoluteSupport() == closed.getAbsoluteSupport()
+					&& other.size() > closed.size()
+					&& ArraysAlgos.includedIn(closed.getItems(), other.getItems())){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Count the number of items of a transaction in each closed itemset, using the
+	 * cid lists of the items. The closed itemsets containing at least one item are
+	 * stored in "candidates" and their counts in "counts".
+	 * @param items the items of the transaction
+	 */
+	private void countCandidates(int[] items) {
+		candidates.size = 0;
+		for(int item : items){
+			CidList cidlist = cidListMap.get(item);
+			if(cidlist != null){
+				for(int j = 0; j < cidlist.size; j++){
+					int cid = cidlist.cids[j];
+					if(counts[cid]++ == 0){
+						candidatePositions[cid] = candidates.size;
+						candidates.add(cid);
 					}
-					// then we add x to the cidlist
-					cidlist.add(tableClosed.size()-1);
 				}
 			}
-		
 		}
 	}
 
+	/**
+	 * Reset the counts of the candidates to 0.
+	 */
+	private void resetCounts() {
+		for(int i = 0; i < candidates.size; i++){
+			counts[candidates.cids[i]] = 0;
+		}
+		candidates.size = 0;
+	}
+
+	/**
+	 * Add a closed itemset to the table and to the cid lists of its items.
+	 * @param itemset the items
+	 * @param support the support
+	 */
+	private void addClosedItemset(int[] itemset, int support) {
+		Itemset closed = new Itemset(itemset);
+		closed.setAbsoluteSupport(support);
+		// reuse the cid of a removed itemset if possible
+		int cid;
+		if(freeCids.size > 0){
+			cid = freeCids.cids[--freeCids.size];
+			tableClosed.set(cid, closed);
+		}else{
+			cid = tableClosed.size();
+			tableClosed.add(closed);
+			if(cid >= counts.length){
+				counts = Arrays.copyOf(counts, counts.length * 2);
+				candidatePositions = Arrays.copyOf(candidatePositions, counts.length);
+			}
+		}
+		// Finally, we add the cid to the cid list of each item of the itemset
+		for(int item : itemset){
+			CidList cidlist = cidListMap.get(item);
+			if(cidlist == null){
+				cidlist = new CidList();
+				cidListMap.put(item, cidlist);
+			}
+			cidlist.add(cid);
+		}
+	}
+
+	/**
+	 * Remove a closed itemset from the table and from the cid lists of its items.
+	 * @param cid the cid of the itemset
+	 */
+	private void removeClosedItemset(int cid) {
+		Itemset closed = tableClosed.get(cid);
+		for(int item : closed.getItems()){
+			CidList cidlist = cidListMap.get(item);
+			cidlist.remove(cid);
+			if(cidlist.size == 0){
+				cidListMap.remove(item);
+			}
+		}
+		tableClosed.set(cid, null);
+		freeCids.add(cid);
+	}
+
 	/**
 	 * Get the current list of closed itemsets without the empty set.
 	 * @return a List of closed itemsets
 	 */
 	public List<Itemset> getClosedItemsets() {
-		// if the empty set is here
-		if(tableClosed.get(0).size() ==0){
-			// remove it
-			tableClosed.remove(0); 
+		List<Itemset> closedItemsets = new ArrayList<Itemset>();
+		// for each closed itemset except the empty set (cid 0)
+		for(int cid = 1; cid < tableClosed.size(); cid++){
+			Itemset closed = tableClosed.get(cid);
+			if(closed != null){
+				closedItemsets.add(closed);
+			}
+		}
+		return closedItemsets;
+	}
+
+	/**
+	 * A list of cids stored in an array of integers.
+	 */
+	private static class CidList {
+		// the cids
+		int[] cids = new int[4];
+		// the number of cids
+		int size = 0;
+
+		/**
+		 * Add a cid at the end of the list.
+		 * @param cid the cid
+		 */
+		void add(int cid) {
+			if(size == cids.length){
+				cids = Arrays.copyOf(cids, size * 2);
+			}
+			cids[size++] = cid;
+		}
+
+		/**
+		 * Remove a cid from the list.
+		 * @param cid the cid
+		 */
+		void remove(int cid) {
+			for(int i = 0; i < size; i++){
+				if(cids[i] == cid){
+					System.arraycopy(cids, i + 1, cids, i, size - i - 1);
+					size--;
+					return;
+				}
+			}
 		}
-		// return the remaining closed itemsets
-		return tableClosed;
+	}
+
+	/**
+	 * An itemset used as a key of the temporary table, so that
+	 * itemsets are compared by their items.
+	 */
+	private static class ItemsetKey {
+		// the items
+		final int[] items;
+		// the hash code of the items
+		private final int hash;
+
+		ItemsetKey(int[] items) {
+			this.items = items;
+			this.hash = Arrays.hashCode(items);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ItemsetKey && Arrays.equals(items, ((ItemsetKey) o).items);
+		}
+	}
+
+	/**
+	 * Get the resources (memory, garbage collection) used since the algorithm was created.
+	 * Because transactions can be added at any time, the run is never stopped.
+	 * @return the statistics of the algorithm
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
 	}
 }
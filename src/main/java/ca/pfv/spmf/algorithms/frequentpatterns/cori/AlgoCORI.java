@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
  
 /**
  * This is an implementation of the CORI algorithm to mine 
@@ -73,6 +74,7 @@ public class AlgoCORI {
     private long startTimestamp;
 	/** end  time of the last execution */
     private long endTime;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** 
 	 The  patterns that are found 
@@ -304,6 +306,7 @@ public class AlgoCORI {
 		
 		// record the end time for statistics
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// Return all frequent itemsets found!
 		return frequentItemsets; 
@@ -670,6 +673,9 @@ public class AlgoCORI {
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -701,4 +707,12 @@ public class AlgoCORI {
 		BitSet bitset = new BitSet();
 		int support;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -36,6 +36,7 @@ import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.ItemNameConverter;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "D2HUP Algorithm" for High-Utility Itemsets Mining
@@ -53,6 +54,7 @@ public class AlgoD2HUP {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/** the number of HUI generated */
     private int huiCount =0;
 	/** the number of times case 1 is applied (for statistics)*/
@@ -374,6 +376,7 @@ public class AlgoD2HUP {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -636,6 +639,17 @@ public class AlgoD2HUP {
 		System.out.println(" Max Memory ~ " + 
 				MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" High-utility itemsets count : " + huiCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
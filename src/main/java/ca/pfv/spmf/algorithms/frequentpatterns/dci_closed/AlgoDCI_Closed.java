@@ -18,6 +18,8 @@ package ca.pfv.spmf.algorithms.frequentpatterns.dci_closed;
 
 import java.io.*;
 import java.util.*;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is a basic implementation of the "DCI_Closed" algorithm (see AlgoDCI_Closed_Optimized 
@@ -66,6 +68,9 @@ public class AlgoDCI_Closed {
 	// Map to store the database as a verticabl database
 	// Key: item   value :  Set of Ids of transactions containing the item
     private Map<Integer, Set<Integer>> database = null;
+
+	// the resources used by the latest execution
+	private RunMetrics runMetrics = null;
 	
 	/**
 	 * Default constructor
@@ -83,6 +88,7 @@ public class AlgoDCI_Closed {
 	public void runAlgorithm(String input, String output, int minsup) throws IOException {
 		// record start time
 		long startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// reset number of itemsets found
 		closedCount=0;
 		
@@ -136,12 +142,14 @@ public class AlgoDCI_Closed {
 		
 		// (3) CALL THE "DCI_CLOSED" RECURSIVE PROCEDURE
 		dci_closed(true, closedset, closedsetTIDs, postset, preset);
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// print statistics
 		System.out.println("========== DCI_CLOSED - STATS ============");
 		System.out.println(" Number of transactions: " + tidCount );
 		System.out.println(" Number of frequent closed itemsets: " + closedCount );
 		System.out.println(" Total time ~: " + (System.currentTimeMillis() - startTimestamp) + " ms");
+		System.out.print(runMetrics);
 		// close the file
 		writer.close();
 	}
@@ -389,4 +397,12 @@ public class AlgoDCI_Closed {
 		// close the input file
 		reader.close();
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
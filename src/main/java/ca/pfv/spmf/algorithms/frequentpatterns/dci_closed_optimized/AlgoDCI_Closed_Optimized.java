@@ -18,6 +18,8 @@ package ca.pfv.spmf.algorithms.frequentpatterns.dci_closed_optimized;
 
 import java.io.*;
 import java.util.*;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the optimized implementation of the "DCI_Closed" algorithm.  
@@ -77,6 +79,9 @@ public class AlgoDCI_Closed_Optimized {
 	/** if true, transaction identifiers of each pattern will be shown*/
     private boolean showTransactionIdentifiers = false;
 
+	// the resources used by the latest execution
+	private RunMetrics runMetrics = null;
+
 	/**
 	 * Default constructor
 	 */
@@ -94,6 +99,7 @@ public class AlgoDCI_Closed_Optimized {
 	public void runAlgorithm(String input, String output, int minsup) throws IOException {
 		// record start time
 		long startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// reset number of itemsets found
 		closedCount=0;
 		
@@ -148,12 +154,14 @@ public class AlgoDCI_Closed_Optimized {
 		
 		// (3) CALL THE "DCI_CLOSED" RECURSIVE PROCEDURE
 		dci_closed(true, closedset, closedsetTIDs, postset, preset, matrix, matrix);
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// print statistics
 		System.out.println("========== DCI_CLOSED - STATS ============");
 		System.out.println(" Number of transactions: " + tidsCount );
 		System.out.println(" Number of frequent closed itemsets: " + closedCount );
 		System.out.println(" Total time ~: " + (System.currentTimeMillis() - startTimestamp) + " ms");
+		System.out.print(runMetrics);
 		// close the file
 		writer.close();
 	}
@@ -449,4 +457,11 @@ public class AlgoDCI_Closed_Optimized {
 		return true;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -32,6 +32,7 @@ import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
  
 /**
  * This is a recent implementation of the DefMe algorithm that uses bitsets to represent
@@ -66,6 +67,7 @@ public class AlgoDefMe {
 	private long startTimestamp;
 	/** end  time of the last execution */
 	private long endTime; 
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** 
 	 The  patterns that are found 
@@ -195,6 +197,7 @@ public class AlgoDefMe {
 		
 		// record the end time for statistics
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// Return all frequent itemsets found!
 		return generators; 
@@ -320,6 +323,9 @@ public class AlgoDefMe {
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -342,4 +348,12 @@ public class AlgoDefMe {
 		BitSet bitset = new BitSet();
 		int support;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -19,6 +19,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.eclat;
 import java.util.HashSet;
 import java.util.Set;
 
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
@@ -66,6 +67,9 @@ public class AlgoDEclat extends AlgoEclat{
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(getRunMetrics() != null) {
+			System.out.print(getRunMetrics());
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -80,6 +84,10 @@ public class AlgoDEclat extends AlgoEclat{
 	 */
 	 Set<Integer> performANDFirstTime(Set<Integer> tidsetI, int supportI,
 			Set<Integer> tidsetJ, int supportJ) {
+		// if the tidsets are compressed, the diffset is the difference of the compressed tidsets
+		if(tidsetI instanceof CompressedTidset) {
+			return ((CompressedTidset) tidsetI).andNot((CompressedTidset) tidsetJ);
+		}
 		// Create the new tidset that will store the difference
 		Set<Integer> diffsetIJ = new HashSet<Integer>();
 		// for each tid containing j
@@ -104,6 +112,10 @@ public class AlgoDEclat extends AlgoEclat{
 	 */
 	 Set<Integer> performAND(Set<Integer> tidsetI, int supportI,
 			Set<Integer> tidsetJ, int supportJ) {
+		// if the diffsets are compressed, the diffset is the difference of the compressed diffsets
+		if(tidsetJ instanceof CompressedTidset) {
+			return ((CompressedTidset) tidsetJ).andNot((CompressedTidset) tidsetI);
+		}
 		// Create the new tidset that will store the difference
 		Set<Integer> diffsetIJ = new HashSet<Integer>();
 		// for each tid containing j
@@ -75,6 +75,9 @@ public class AlgoDEclat_Bitset extends AlgoEclat_Bitset{
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(getRunMetrics() != null) {
+			System.out.print(getRunMetrics());
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -29,15 +29,22 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.datastructures.triangularmatrix.TriangularMatrix;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
+import ca.pfv.spmf.patterns.MemoryPatternSink;
+import ca.pfv.spmf.patterns.PatternSink;
+import ca.pfv.spmf.patterns.TextPatternSink;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
  
 
 /**
  * This is a recent version of the ECLAT algorithm. It uses sets of integers to represent tidsets.
+ * By default, these sets are HashSets. If setUseCompressedTidsets(true) is called, they are
+ * CompressedTidsets, which use much less memory on sparse databases.
  *  
  * Eclat was proposed by ZAKI (2000).
  * <br/><br/>
@@ -50,7 +57,8 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * 
  * This  version  saves the result to a file
  * or keep it into memory if no output path is provided
- * by the user to the runAlgorithm method().
+ * by the user to the runAlgorithm method(). The patterns can also be given
+ * to any other PatternSink (see setPatternSink()).
  * 
  * @see TriangularMatrix
  * @see TransactionDatabase
@@ -71,12 +79,22 @@ public class AlgoEclat {
 	/** end  time of the last execution */
 	long endTime;
 	
+	/** the resources used by the latest execution */
+	private RunMetrics runMetrics = null;
+	
 	/** 
 	 The  patterns that are found 
 	 (if the user want to keep them into memory) */
 	private Itemsets frequentItemsets;
 	
-	/** object to write the output file */
+	/** object where the patterns are written */
+	private PatternSink sink = null;
+	
+	/** the sink chosen by the user for the next execution */
+	private PatternSink nextSink = null;
+	
+	/** object to write the output file, used instead of a sink when
+	 * the transaction identifiers are shown */
 	private BufferedWriter writer = null;
 	
 	/** the number of patterns found */
@@ -93,8 +111,14 @@ public class AlgoEclat {
 	/** size of the buffer*/
 	private int[] itemsetBuffer = null;
 	
+	/** buffer where an itemset is copied before it is written to the sink */
+	private int[] itemsetOutputBuffer = null;
+	
 	/** if true, transaction identifiers of each pattern will be shown*/
 	private boolean showTransactionIdentifiers = false;
+	
+	/** if true, tidsets are represented as CompressedTidsets instead of HashSets */
+	private boolean useCompressedTidsets = false;
 
 	/**
 	 * Default constructor
@@ -104,6 +128,17 @@ public class AlgoEclat {
 	}
 
 
+	/**
+	 * Set the PatternSink where the patterns found by the next execution will be written,
+	 * instead of the output file or memory. The sink is closed at the end of the execution.
+	 * For example, a CountingPatternSink can be used to count the patterns without writing them.
+	 * Transaction identifiers are never written to a sink.
+	 * @param sink the sink
+	 */
+	public void setPatternSink(PatternSink sink) {
+		this.nextSink = sink;
+	}
+
 	/**
 	 * Run the algorithm.
 	 * @param database a transaction database
@@ -120,14 +155,25 @@ public class AlgoEclat {
 
 		// initialize the buffer for storing the current itemset
 		itemsetBuffer = new int[BUFFERS_SIZE];
+		itemsetOutputBuffer = new int[BUFFERS_SIZE];
 		
-		// if the user want to keep the result into memory
-		if(output == null){
-			writer = null;
-			frequentItemsets =  new Itemsets("FREQUENT ITEMSETS");
-	    }else{ // if the user want to save the result to a file
-	    	frequentItemsets = null;
+		writer = null;
+		frequentItemsets = null;
+		// if the user has chosen a sink, the patterns are written to that sink
+		if(nextSink != null){
+			sink = nextSink;
+			nextSink = null;
+		}else if(output == null){
+			// if the user want to keep the result into memory
+			MemoryPatternSink memorySink = new MemoryPatternSink("FREQUENT ITEMSETS");
+			frequentItemsets = memorySink.getItemsets();
+			sink = memorySink;
+	    }else if(showTransactionIdentifiers){
+	    	// if the user want to save the result with the transaction identifiers to a file
+	    	sink = null;
 			writer = new BufferedWriter(new FileWriter(output)); 
+		}else{ // if the user want to save the result to a file
+			sink = new TextPatternSink(output, TextPatternSink.SUPPORT_LABEL);
 		}
 
 		// reset the number of itemset found to 0
@@ -143,6 +189,7 @@ public class AlgoEclat {
 		this.minsupRelative = (int) Math.ceil(minsupp * database.size());
 
 		// (1) First database pass : calculate tidsets of each item.
+		MemoryLogger.getInstance().startPhase("database scan");
 		// This map will contain the tidset of each item
 		// Key: item   Value :  tidset
 		final Map<Integer, Set<Integer>> mapItemCount = new HashMap<Integer, Set<Integer>>();
@@ -173,6 +220,7 @@ public class AlgoEclat {
 		}
 
 		// (2) create the list of single items
+		MemoryLogger.getInstance().startPhase("mining");
 		List<Integer> frequentItems = new ArrayList<Integer>();
 		
 		// for each item
@@ -273,13 +321,17 @@ public class AlgoEclat {
 		MemoryLogger.getInstance().checkMemory();
 			
 		// We have finish the search.
-		// Therefore, we close the output file writer if the result was saved to a file
+		// Therefore, we close the sink or the output file writer
+		if(sink != null){
+			sink.close();
+		}
 		if(writer != null){
 			writer.close();
 		}
 		
 		// record the end time for statistics
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// Return all frequent itemsets found or null if the result was saved to a file.
 		return frequentItemsets; 
@@ -300,7 +352,7 @@ public class AlgoEclat {
 				Set<Integer> set = mapItemCount.get(item);
 				// if no tidset, then we create one
 				if (set == null) {
-					set = new HashSet<Integer>();
+					set = useCompressedTidsets ? new CompressedTidset() : new HashSet<Integer>();
 					mapItemCount.put(item, set);
 					// if the current item is larger than all items until
 					// now, remember that!
@@ -312,6 +364,13 @@ public class AlgoEclat {
 				set.add(i); 
 			}
 		}
+		// the tidsets will not be modified anymore, so we choose the smallest
+		// representation for each chunk of the compressed tidsets
+		if(useCompressedTidsets) {
+			for(Set<Integer> tidset : mapItemCount.values()) {
+				((CompressedTidset) tidset).runOptimize();
+			}
+		}
 		return maxItemId;
 	}
 
@@ -496,6 +555,10 @@ public class AlgoEclat {
 	 */
 	 Set<Integer> performAND(Set<Integer> tidsetI, int supportI,
 			Set<Integer> tidsetJ, int supportJ) {
+		// if the tidsets are compressed, we use the intersection of compressed tidsets
+		if(tidsetI instanceof CompressedTidset) {
+			return ((CompressedTidset) tidsetI).and((CompressedTidset) tidsetJ);
+		}
 		// Create the new tidset that will store the intersection
 		Set<Integer> tidsetIJ = new HashSet<Integer>();
 		// To reduce the number of comparisons of the two tidsets,
@@ -550,16 +613,12 @@ public class AlgoEclat {
 	private void save(int[] prefix, int prefixLength, int suffixItem, Set<Integer> tidset, int support) throws IOException {
 		// increase the itemset count
 		itemsetCount++;
-		// if the result should be saved to memory
-		if(writer == null){
+		// if the result should be written to a sink
+		if(sink != null){
 			// append the prefix with the suffix
-			int[] itemsetArray = new int[prefixLength+1];
-			System.arraycopy(prefix, 0, itemsetArray, 0, prefixLength);
-			itemsetArray[prefixLength] = suffixItem;
-			// Create an object "Itemset" and add it to the set of frequent itemsets
-			Itemset itemset = new Itemset(itemsetArray);
-			itemset.setAbsoluteSupport(support);
-			frequentItemsets.addItemset(itemset, itemset.size());
+			System.arraycopy(prefix, 0, itemsetOutputBuffer, 0, prefixLength);
+			itemsetOutputBuffer[prefixLength] = suffixItem;
+			sink.write(itemsetOutputBuffer, prefixLength + 1, support);
 		}else{
 			// if the result should be saved to a file
 			// write it to the output file
@@ -593,12 +652,10 @@ public class AlgoEclat {
 	private void saveSingleItem(int item, Set<Integer> tidset, int support) throws IOException {
 		// increase the itemset count
 		itemsetCount++;
-		// if the result should be saved to memory
-		if(writer == null){
-			// add it to the set of frequent itemsets
-			Itemset itemset = new Itemset(new int[] {item});
-			itemset.setAbsoluteSupport(support);
-			frequentItemsets.addItemset(itemset, itemset.size());
+		// if the result should be written to a sink
+		if(sink != null){
+			itemsetOutputBuffer[0] = item;
+			sink.write(itemsetOutputBuffer, 1, support);
 		}else{
 			// if the result should be saved to a file
 			// write it to the output file
@@ -617,6 +674,15 @@ public class AlgoEclat {
 		}
 	}
 	
+	/**
+	 * Set that tidsets should be represented as CompressedTidsets (true) or as HashSets (false).
+	 * Compressed tidsets use much less memory and are intersected faster on large sparse databases.
+	 * @param useCompressedTidsets true or false (false by default)
+	 */
+	public void setUseCompressedTidsets(boolean useCompressedTidsets) {
+		this.useCompressedTidsets = useCompressedTidsets;
+	}
+
 	/**
 	 * Set that the transaction identifiers should be shown (true) or not (false) for each
 	 * pattern found, when writing the result to an output file.
@@ -638,10 +704,21 @@ public class AlgoEclat {
 				+ itemsetCount);
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
-				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+				+ (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()) + " mb");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+
 	/**
 	 * Get the set of frequent itemsets found by the algorithm.
 	 * @return the frequent itemsets (Itemsets).
@@ -33,6 +33,7 @@ import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
  
 /**
  * This is a recent implementation of the ECLAT algorithm that uses bitsets to represent
@@ -68,6 +69,7 @@ public class AlgoEclat_Bitset {
 	long startTimestamp;
 	/** end  time of the last execution */
 	long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** 
 	 The  patterns that are found 
@@ -283,6 +285,7 @@ public class AlgoEclat_Bitset {
 		
 		// record the end time for statistics
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// Return all frequent itemsets found!
 		return frequentItemsets; 
@@ -612,6 +615,9 @@ public class AlgoEclat_Bitset {
 		System.out.println(" Total time ~ " + temps + " ms");
 		System.out.println(" Maximum memory usage : "
 				+ MemoryLogger.getInstance().getMaxMemory() + " mb");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -634,4 +640,12 @@ public class AlgoEclat_Bitset {
 		BitSet bitset = new BitSet();
 		int support;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -1,15 +1,23 @@
 package   ca.pfv.spmf.algorithms.frequentpatterns.efim;
 
-import java.io.BufferedWriter;
 import java.io.FileWriter;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+import ca.pfv.spmf.patterns.PatternSink;
+import ca.pfv.spmf.patterns.TextPatternSink;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /* This file is copyright (c) 2012-2015 Souleymane Zida & Philippe Fournier-Viger
@@ -40,8 +48,18 @@ public class AlgoEFIM {
 	/** the set of high-utility itemsets */
     private Itemsets highUtilityItemsets;
     
-	/** object to write the output file */
-    private BufferedWriter writer = null;
+	/** object where the high-utility itemsets are written */
+    private PatternSink sink = null;
+    
+	/** the sink chosen by the user for the next execution */
+    private PatternSink nextSink = null;
+
+	/** the output file, if the result is saved to a file (in parallel mode, each task
+	 * formats its itemsets in its own TextPatternSink and appends complete lines to this file) */
+    private Writer outputWriter = null;
+
+	/** the size of the buffer of characters of each task in parallel mode */
+    private static final int TASK_BUFFER_SIZE = 1 << 12;
 	
 	/** the number of high-utility itemsets found (for statistics) */
 	private int patternCount; 
@@ -50,6 +68,9 @@ public class AlgoEFIM {
     private long startTimestamp;
 	private long endTimestamp;
 	
+	/** the resources used by the latest execution */
+	private RunMetrics runMetrics = null;
+	
 	/** the minutil threshold */
     private int minUtil;
 	
@@ -101,6 +122,13 @@ public class AlgoEFIM {
 
 	/** If true, sub-tree utility pruning will be performed */
 	private boolean activateSubtreeUtilityPruning;
+
+	/** the number of threads used to explore the search space (1 = sequential search) */
+	private int threadCount = 1;
+
+	/** The minimum size of a projected database for exploring its sub-branches
+	 * as separate tasks in parallel mode (smaller branches are explored by the current task) */
+	private final int MINIMUM_SIZE_FORKING = 1000;
     
 	/** 
 	 * Constructor
@@ -109,6 +137,31 @@ public class AlgoEFIM {
          
     }
 
+    /**
+     * Set the number of threads to be used for exploring the search space.
+     * If it is greater than 1, the first-level branches of the search space (and large
+     * sub-branches) are explored in parallel, each with its own utility-bin arrays.
+     * The set of high-utility itemsets found is the same as for a sequential run, but they may
+     * be output in a different order.
+     * @param threadCount the number of threads (1 by default)
+     */
+    public void setThreadCount(int threadCount) {
+    	if(threadCount < 1) {
+    		throw new IllegalArgumentException("The number of threads must be at least 1");
+    	}
+    	this.threadCount = threadCount;
+    }
+
+    /**
+     * Set the PatternSink where the high-utility itemsets found by the next execution will be written,
+     * instead of the output file or memory. The sink is closed at the end of the execution.
+     * For example, a CountingPatternSink can be used to count the itemsets without writing them.
+     * @param sink the sink
+     */
+    public void setPatternSink(PatternSink sink) {
+    	this.nextSink = sink;
+    }
+
     /**
      * Run the algorithm
      * @param minUtil  the minimum utility threshold (a positive integer)
@@ -121,41 +174,95 @@ public class AlgoEFIM {
      * @throws IOException if exception while reading/writing to file
      */
     public Itemsets runAlgorithm(int minUtil, String inputPath, String outputPath, boolean activateTransactionMerging, int maximumTransactionCount, boolean activateSubtreeUtilityPruning) throws IOException {
+		// record the start time
+		startTimestamp = System.currentTimeMillis();
+		
+		// reset the memory usage checking utility
+		MemoryLogger.getInstance().reset();
+		MemoryLogger.getInstance().startPhase("database loading");
+		
+		// read the input file
+		Dataset dataset = new Dataset(inputPath, maximumTransactionCount);
+		
+		return runAlgorithm(minUtil, dataset, outputPath, activateTransactionMerging, activateSubtreeUtilityPruning);
+    }
+
+    /**
+     * Run the algorithm on a database in the SPMF binary format
+     * @param minUtil  the minimum utility threshold (a positive integer)
+     * @param database  a transaction database in binary format containing utilities
+     * @param outputPath  the output file path to save the result or null if to be kept in memory
+     * @param activateTransactionMerging 
+     * @param activateSubtreeUtilityPruning 
+     * @param maximumTransactionCount
+       * @return the itemsets or null if the user choose to save to file
+     * @throws IOException if exception while reading/writing to file
+     */
+    public Itemsets runAlgorithm(int minUtil, BinaryTransactionDatabase database, String outputPath, boolean activateTransactionMerging, int maximumTransactionCount, boolean activateSubtreeUtilityPruning) throws IOException {
+		// record the start time
+		startTimestamp = System.currentTimeMillis();
+		
+		// reset the memory usage checking utility
+		MemoryLogger.getInstance().reset();
+		MemoryLogger.getInstance().startPhase("database loading");
+		
+		// read the transactions
+		Dataset dataset = new Dataset(database, maximumTransactionCount);
+		
+		return runAlgorithm(minUtil, dataset, outputPath, activateTransactionMerging, activateSubtreeUtilityPruning);
+    }
+
+    /**
+     * Run the algorithm on a dataset
+     * @param minUtil  the minimum utility threshold (a positive integer)
+     * @param dataset  the dataset
+     * @param outputPath  the output file path to save the result or null if to be kept in memory
+     * @param activateTransactionMerging 
+     * @param activateSubtreeUtilityPruning 
+       * @return the itemsets or null if the user choose to save to file
+     * @throws IOException if exception while reading/writing to file
+     */
+    private Itemsets runAlgorithm(int minUtil, Dataset dataset, String outputPath, boolean activateTransactionMerging, boolean activateSubtreeUtilityPruning) throws IOException {
     	
     	// reset variables for statistics
     	mergeCount=0;
     	transactionReadingCount=0;
+    	candidateCount = 0;
 		timeIntersections = 0;
 		timeDatabaseReduction = 0;
+		timeIdentifyPromisingItems = 0;
+		timeBinarySearch = 0;
     	
     	// save parameters about activating or not the optimizations
     	this.activateTransactionMerging = activateTransactionMerging;
     	this.activateSubtreeUtilityPruning = activateSubtreeUtilityPruning;
-    	
-		// record the start time
-		startTimestamp = System.currentTimeMillis();
-		
-		// read the input file
-		Dataset dataset = new Dataset(inputPath, maximumTransactionCount);
 
 		// save minUtil value selected by the user
 		this.minUtil = minUtil;
 
-		// if the user choose to save to file
-		// create object for writing the output file
-		if(outputPath != null) {
-			writer = new BufferedWriter(new FileWriter(outputPath));
+		// if the user has chosen a sink, the itemsets are written to that sink
+		if(nextSink != null) {
+			sink = nextSink;
+			nextSink = null;
+			highUtilityItemsets = null;
+			outputWriter = null;
+		}else if(outputPath != null) {
+			// if the user choose to save to file
+			// create object for writing the output file
+			outputWriter = new FileWriter(outputPath);
+			sink = new TextPatternSink(outputWriter, TextPatternSink.UTILITY_LABEL);
+			highUtilityItemsets = null;
 		}else {
 			// if the user choose to save to memory
-			writer = null;
+			outputWriter = null;
 	        this.highUtilityItemsets = new Itemsets("Itemsets");
+	        sink = new ItemsetsSink(highUtilityItemsets);
 		}
 		
 		// reset the number of itemset found
 		patternCount = 0;
 		
-		// reset the memory usage checking utility
-		MemoryLogger.getInstance().reset();
+		MemoryLogger.getInstance().startPhase("preprocessing");
 		
 		// if in debug mode, show the initial database in the console
 		if(DEBUG)
@@ -358,25 +465,39 @@ public class AlgoEFIM {
 
 //    	//======
         // Recursive call to the algorithm
+		MemoryLogger.getInstance().startPhase("mining");
        	// If subtree utility pruning is activated
     	if(activateSubtreeUtilityPruning){
     		// We call the recursive algorithm with the database, secondary items and primary items
-    		backtrackingEFIM(dataset.getTransactions(), itemsToKeep, itemsToExplore, 0);
+    		if(threadCount > 1){
+    			// (in parallel if several threads are used)
+    			backtrackingEFIMParallel(dataset.getTransactions(), itemsToKeep, itemsToExplore);
+    		}else{
+    			SearchBuffers buffers = new SearchBuffers(utilityBinArraySU, utilityBinArrayLU, true);
+    			backtrackingEFIM(dataset.getTransactions(), itemsToKeep, itemsToExplore, 0, buffers);
+    			mergeStatistics(buffers);
+    		}
     	}else{
     		// We call the recursive algorithm with the database and secondary items
-    		backtrackingEFIM(dataset.getTransactions(), itemsToKeep, itemsToKeep, 0);
+    		if(threadCount > 1){
+    			// (in parallel if several threads are used)
+    			backtrackingEFIMParallel(dataset.getTransactions(), itemsToKeep, itemsToKeep);
+    		}else{
+    			SearchBuffers buffers = new SearchBuffers(utilityBinArraySU, utilityBinArrayLU, true);
+    			backtrackingEFIM(dataset.getTransactions(), itemsToKeep, itemsToKeep, 0, buffers);
+    			mergeStatistics(buffers);
+    		}
     	}
 
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
 		
-		//close the output file
-		if(writer != null) {
-			writer.close();
-		}
+		//close the sink (and the output file if the result was saved to a file)
+		sink.close();
 		
 		// check the maximum memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
         
 		// return the set of high-utility itemsets
         return highUtilityItemsets;
@@ -428,181 +549,22 @@ public class AlgoEFIM {
      * Recursive method to find all high-utility itemsets
      * @param itemsToKeep the list of secondary items in the p-projected database
 	 * @param itemsToExplore the list of primary items in the p-projected database
+	 * @param buffers the utility-bin arrays and counters of the search
 	 * @throws IOException if error writing to output file
      */
     private void backtrackingEFIM( List<Transaction> transactionsOfP,
-    		List<Integer> itemsToKeep, List<Integer> itemsToExplore, int prefixLength) throws IOException {
+    		List<Integer> itemsToKeep, List<Integer> itemsToExplore, int prefixLength, SearchBuffers buffers) throws IOException {
 
     	// update the number of candidates explored so far
-		candidateCount += itemsToExplore.size();
+		buffers.candidateCount += itemsToExplore.size();
     	
         // ========  for each frequent item  e  =============
 		for (int j = 0; j < itemsToExplore.size(); j++) {
 			Integer e = itemsToExplore.get(j);
 
-			// ========== PERFORM INTERSECTION =====================
-			// Calculate transactions containing P U {e} 
-			// At the same time project transactions to keep what appears after "e"
+			// Calculate transactions containing P U {e} and the utility of P U {e}
 	        List<Transaction> transactionsPe = new ArrayList<Transaction>();
-	        
-	        // variable to calculate the utility of P U {e}
-			int utilityPe = 0;		
-
-			// For merging transactions, we will keep track of the last transaction read
-			// and the number of identical consecutive transactions
-			Transaction previousTransaction = null;
-			int consecutiveMergeCount = 0;
-			
-	        // this variable is to record the time for performing intersection
-			long timeFirstIntersection = System.currentTimeMillis();
-			
-			// For each transaction
-	        for(Transaction transaction : transactionsOfP) {
-	        	// Increase the number of transaction read
-	        	transactionReadingCount++;
-	        	
-	        	// To record the time for performing binary searh
-	        	long timeBinaryLocal = System.currentTimeMillis();
-	        	
-	        	// we remember the position where e appears.
-	        	// we will call this position an "offset"
-	        	int positionE = -1;
-	        	// Variables low and high for binary search
-	    		int low = transaction.offset;
-	    		int high = transaction.items.length - 1;
-
-	    		// perform binary search to find e in the transaction
-	    		while (high >= low ) {
-	    			int middle = (low + high) >>> 1; // divide by 2
-	    			if (transaction.items[middle] < e) {
-	    				low = middle + 1;
-	    			}else if (transaction.items[middle] == e) {
-	    				positionE =  middle;
-	    				break;
-	    			}  else{
-	    				high = middle - 1;
-	    			}
-	    		}
-	    		// record the time spent for performing the binary search
-	        	timeBinarySearch +=  System.currentTimeMillis() - timeBinaryLocal;
-	        	
-//	        	if(prefixLength == 0 && newNamesToOldNames[e] == 385) {
-//		        	for(int i=0; i < transaction.getItems().length; i++) {
-//		        		if(transaction.getItems()[i] == e) {
-//		        			innerSum += transaction.getUtilities()[i];
-//		        		}
-//		        	}
-//		        }
-	        	
-	        	// if 'e' was found in the transaction
-	            if (positionE > -1  ) { 
-	 
-	            	// optimization: if the 'e' is the last one in this transaction,
-	            	// we don't keep the transaction
-					if(transaction.getLastPosition() == positionE){
-						// but we still update the sum of the utility of P U {e}
-						utilityPe  += transaction.utilities[positionE] + transaction.prefixUtility;
-					}else{
-						// otherwise
-		            	if(activateTransactionMerging && MAXIMUM_SIZE_MERGING >= (transaction.items.length - positionE)){
-			            	// we cut the transaction starting from position 'e'
-							Transaction projectedTransaction = new Transaction(transaction, positionE);
-							utilityPe  += projectedTransaction.prefixUtility;
-							
-							// if it is the first transaction that we read
-							if(previousTransaction == null){
-								// we keep the transaction in memory 
-								previousTransaction = projectedTransaction;
-							}else if (isEqualTo(projectedTransaction, previousTransaction)){
-								// If it is not the first transaction of the database and 
-								// if the transaction is equal to the previously read transaction,
-								// we will merge the transaction with the previous one
-								
-								// increase the number of consecutive transactions merged
-								mergeCount++;
-								
-								// if the first consecutive merge
-								if(consecutiveMergeCount == 0){
-									// copy items and their profit from the previous transaction
-									int itemsCount = previousTransaction.items.length - previousTransaction.offset;
-									int[] items = new int[itemsCount];
-									System.arraycopy(previousTransaction.items, previousTransaction.offset, items, 0, itemsCount);
-									int[] utilities = new int[itemsCount];
-									System.arraycopy(previousTransaction.utilities, previousTransaction.offset, utilities, 0, itemsCount);
-									
-									// make the sum of utilities from the previous transaction
-							    	int positionPrevious = 0;
-									int positionProjection = projectedTransaction.offset;
-									while(positionPrevious < itemsCount){
-										utilities[positionPrevious] += projectedTransaction.utilities[positionProjection];
-										positionPrevious++;
-										positionProjection++;
-									}
-									
-									// make the sum of prefix utilities
-									int sumUtilities = previousTransaction.prefixUtility += projectedTransaction.prefixUtility;
-									
-									// create the new transaction replacing the two merged transactions
-									previousTransaction = new Transaction(items, utilities, previousTransaction.transactionUtility + projectedTransaction.transactionUtility);
-									previousTransaction.prefixUtility = sumUtilities;	
-	
-								}else{
-									// if not the first consecutive merge
-	
-									// add the utilities in the projected transaction to the previously
-									// merged transaction
-							    	int positionPrevious = 0;
-									int positionProjected = projectedTransaction.offset;
-									int itemsCount = previousTransaction.items.length;
-									while(positionPrevious < itemsCount){
-										previousTransaction.utilities[positionPrevious] += projectedTransaction.utilities[positionProjected];
-										positionPrevious++;
-										positionProjected++;
-									}
-									
-									// make also the sum of transaction utility and prefix utility
-									previousTransaction.transactionUtility += projectedTransaction.transactionUtility;
-									previousTransaction.prefixUtility += projectedTransaction.prefixUtility;	
-								}
-								// increment the number of consecutive transaction merged
-								consecutiveMergeCount++;
-							}else{
-								// if the transaction is not equal to the preceding transaction
-								// we cannot merge it so we just add it to the database
-								transactionsPe.add(previousTransaction);
-								// the transaction becomes the previous transaction
-								previousTransaction = projectedTransaction;
-								// and we reset the number of consecutive transactions merged
-								consecutiveMergeCount = 0;
-							}
-						}else{
-			            	// Otherwise, if merging has been deactivated
-							// then we just create the projected transaction
-							Transaction projectedTransaction = new Transaction(transaction, positionE);
-							// we add the utility of Pe in that transaction to the total utility of Pe
-							utilityPe  += projectedTransaction.prefixUtility;
-							// we put the projected transaction in the projected database of Pe
-							transactionsPe.add(projectedTransaction);
-						}
-					}
-					// This is an optimization for binary search:
-					// we remember the position of E so that for the next item, we will not search
-					// before "e" in the transaction since items are visited in lexicographical order
-		            transaction.offset = positionE;   
-	            }else{
-					// This is an optimization for binary search:
-					// we remember the position of E so that for the next item, we will not search
-					// before "e" in the transaction since items are visited in lexicographical order
-	            	transaction.offset = low;
-	            }
-	        }
-	        // remember the total time for peforming the database projection
-	        timeIntersections += (System.currentTimeMillis() - timeFirstIntersection);
-
-	        // Add the last read transaction to the database if there is one
-	        if(previousTransaction != null){
-	        	transactionsPe.add(previousTransaction);
-	        }
+	        int utilityPe = projectDatabase(transactionsOfP, e, transactionsPe, buffers);
 	        
 	        // Append item "e" to P to obtain P U {e}
 	        // but at the same time translate from new name of "e"  to its old name
@@ -615,49 +577,19 @@ public class AlgoEFIM {
 	        	output(prefixLength, utilityPe );
 	        }
 
-			//==== Next, we will calculate the Local Utility and Sub-tree utility of
-	        // all items that could be appended to PU{e} ====
-	        useUtilityBinArraysToCalculateUpperBounds(transactionsPe, j, itemsToKeep);  
-			
-	        // we now record time for identifying promising items
-			long initialTime = System.currentTimeMillis();
-			
-			// We will create the new list of secondary items
+			// We will create the new list of secondary items and primary items
 			List<Integer> newItemsToKeep = new ArrayList<Integer>();
-			// We will create the new list of primary items
 			List<Integer> newItemsToExplore = new ArrayList<Integer>();
-			
-			// for each item
-	    	for (int k = j+1; k < itemsToKeep.size(); k++) {
-	        	Integer itemk =  itemsToKeep.get(k);
-	        	
-	        	// if the sub-tree utility is no less than min util
-	            if(utilityBinArraySU[itemk] >= minUtil) {
-	            	// and if sub-tree utility pruning is activated
-	            	if(activateSubtreeUtilityPruning){
-	            		// consider that item as a primary item
-	            		newItemsToExplore.add(itemk);
-	            	}
-	            	// consider that item as a secondary item
-	            	newItemsToKeep.add(itemk);
-	            }else if(utilityBinArrayLU[itemk] >= minUtil)
-	            {
-	            	// otherwise, if local utility is no less than minutil,
-	            	// consider this itemt to be a secondary item
-	            	newItemsToKeep.add(itemk);
-	            }
-	        }
-	    	// update the total time  for identifying promising items
-	    	timeIdentifyPromisingItems +=  (System.currentTimeMillis() -  initialTime);
+			identifyPromisingItems(transactionsPe, j, itemsToKeep, newItemsToKeep, newItemsToExplore, buffers);
 			
 			// === recursive call to explore larger itemsets
 	    	if(activateSubtreeUtilityPruning){
 	    		// if sub-tree utility pruning is activated, we consider primary and secondary items
-	    		backtrackingEFIM(transactionsPe, newItemsToKeep, newItemsToExplore,prefixLength+1);
+	    		backtrackingEFIM(transactionsPe, newItemsToKeep, newItemsToExplore,prefixLength+1, buffers);
 	    	}else{
 	    		// if sub-tree utility pruning is deactivated, we consider secondary items also
 	    		// as primary items
-	    		backtrackingEFIM(transactionsPe, newItemsToKeep, newItemsToKeep,prefixLength+1);
+	    		backtrackingEFIM(transactionsPe, newItemsToKeep, newItemsToKeep,prefixLength+1, buffers);
 	    	}
 		}
 
@@ -665,6 +597,434 @@ public class AlgoEFIM {
 		MemoryLogger.getInstance().checkMemory();
     }
 
+    /**
+     * Calculate the projected database of P U {e}, that is the transactions of P containing e,
+     * cut after e. Identical projected transactions are merged if transaction merging is activated.
+     * @param transactionsOfP the transactions of the projected database of P
+     * @param e the item e
+     * @param transactionsPe the list where the transactions of P U {e} are added
+     * @param buffers the utility-bin arrays and counters of the search
+     * @return the utility of P U {e}
+     */
+    private int projectDatabase(List<Transaction> transactionsOfP, int e,
+    		List<Transaction> transactionsPe, SearchBuffers buffers) {
+        // variable to calculate the utility of P U {e}
+		int utilityPe = 0;		
+
+		// For merging transactions, we will keep track of the last transaction read
+		// and the number of identical consecutive transactions
+		Transaction previousTransaction = null;
+		int consecutiveMergeCount = 0;
+		
+        // this variable is to record the time for performing intersection
+		long timeFirstIntersection = buffers.sequential ? System.currentTimeMillis() : 0;
+		
+		// For each transaction
+        for(Transaction transaction : transactionsOfP) {
+        	// Increase the number of transaction read
+        	buffers.transactionReadingCount++;
+        	
+        	// To record the time for performing binary searh
+        	long timeBinaryLocal = buffers.sequential ? System.currentTimeMillis() : 0;
+        	
+        	// we remember the position where e appears.
+        	// we will call this position an "offset"
+        	int positionE = -1;
+        	// Variables low and high for binary search
+    		int low = transaction.offset;
+    		int high = transaction.items.length - 1;
+
+    		// perform binary search to find e in the transaction
+    		while (high >= low ) {
+    			int middle = (low + high) >>> 1; // divide by 2
+    			if (transaction.items[middle] < e) {
+    				low = middle + 1;
+    			}else if (transaction.items[middle] == e) {
+    				positionE =  middle;
+    				break;
+    			}  else{
+    				high = middle - 1;
+    			}
+    		}
+    		if(buffers.sequential){
+	    		// record the time spent for performing the binary search
+	        	timeBinarySearch +=  System.currentTimeMillis() - timeBinaryLocal;
+	        	
+				// This is an optimization for binary search:
+				// we remember the position of E so that for the next item, we will not search
+				// before "e" in the transaction since items are visited in lexicographical order
+	        	transaction.offset = positionE > -1 ? positionE : low;
+    		}
+        	
+        	// if 'e' was not found in the transaction, go to the next one
+            if (positionE == -1) {
+            	continue;
+            }
+ 
+        	// optimization: if the 'e' is the last one in this transaction,
+        	// we don't keep the transaction
+			if(transaction.getLastPosition() == positionE){
+				// but we still update the sum of the utility of P U {e}
+				utilityPe  += transaction.utilities[positionE] + transaction.prefixUtility;
+				continue;
+			}
+			
+        	// we cut the transaction starting from position 'e'
+			Transaction projectedTransaction = new Transaction(transaction, positionE);
+			// we add the utility of Pe in that transaction to the total utility of Pe
+			utilityPe  += projectedTransaction.prefixUtility;
+			
+			if(activateTransactionMerging && MAXIMUM_SIZE_MERGING >= (transaction.items.length - positionE)){
+				// if it is the first transaction that we read
+				if(previousTransaction == null){
+					// we keep the transaction in memory 
+					previousTransaction = projectedTransaction;
+				}else if (isEqualTo(projectedTransaction, previousTransaction)){
+					// If it is not the first transaction of the database and 
+					// if the transaction is equal to the previously read transaction,
+					// we will merge the transaction with the previous one
+					
+					// increase the number of consecutive transactions merged
+					buffers.mergeCount++;
+					
+					// if the first consecutive merge
+					if(consecutiveMergeCount == 0){
+						// copy items and their profit from the previous transaction
+						int itemsCount = previousTransaction.items.length - previousTransaction.offset;
+						int[] items = new int[itemsCount];
+						System.arraycopy(previousTransaction.items, previousTransaction.offset, items, 0, itemsCount);
+						int[] utilities = new int[itemsCount];
+						System.arraycopy(previousTransaction.utilities, previousTransaction.offset, utilities, 0, itemsCount);
+						
+						// make the sum of utilities from the previous transaction
+				    	int positionPrevious = 0;
+						int positionProjection = projectedTransaction.offset;
+						while(positionPrevious < itemsCount){
+							utilities[positionPrevious] += projectedTransaction.utilities[positionProjection];
+							positionPrevious++;
+							positionProjection++;
+						}
+						
+						// make the sum of prefix utilities
+						int sumUtilities = previousTransaction.prefixUtility + projectedTransaction.prefixUtility;
+						
+						// create the new transaction replacing the two merged transactions
+						previousTransaction = new Transaction(items, utilities, previousTransaction.transactionUtility + projectedTransaction.transactionUtility);
+						previousTransaction.prefixUtility = sumUtilities;	
+
+					}else{
+						// if not the first consecutive merge
+
+						// add the utilities in the projected transaction to the previously
+						// merged transaction
+				    	int positionPrevious = 0;
+						int positionProjected = projectedTransaction.offset;
+						int itemsCount = previousTransaction.items.length;
+						while(positionPrevious < itemsCount){
+							previousTransaction.utilities[positionPrevious] += projectedTransaction.utilities[positionProjected];
+							positionPrevious++;
+							positionProjected++;
+						}
+						
+						// make also the sum of transaction utility and prefix utility
+						previousTransaction.transactionUtility += projectedTransaction.transactionUtility;
+						previousTransaction.prefixUtility += projectedTransaction.prefixUtility;	
+					}
+					// increment the number of consecutive transaction merged
+					consecutiveMergeCount++;
+				}else{
+					// if the transaction is not equal to the preceding transaction
+					// we cannot merge it so we just add it to the database
+					transactionsPe.add(previousTransaction);
+					// the transaction becomes the previous transaction
+					previousTransaction = projectedTransaction;
+					// and we reset the number of consecutive transactions merged
+					consecutiveMergeCount = 0;
+				}
+			}else{
+            	// Otherwise, if merging has been deactivated
+				// we put the projected transaction in the projected database of Pe
+				transactionsPe.add(projectedTransaction);
+			}
+        }
+        if(buffers.sequential){
+	        // remember the total time for peforming the database projection
+	        timeIntersections += (System.currentTimeMillis() - timeFirstIntersection);
+        }
+
+        // Add the last read transaction to the database if there is one
+        if(previousTransaction != null){
+        	transactionsPe.add(previousTransaction);
+        }
+        return utilityPe;
+    }
+
+    /**
+     * Calculate the local utility and sub-tree utility of the items that could be appended to P U {e},
+     * and find the secondary items and primary items of P U {e}.
+     * @param transactionsPe the transactions of the projected database of P U {e}
+     * @param j the position of e in the list of primary items of P
+     * @param itemsToKeep the list of secondary items of P
+     * @param newItemsToKeep the list where the secondary items of P U {e} are added
+     * @param newItemsToExplore the list where the primary items of P U {e} are added (if sub-tree
+     *   utility pruning is activated)
+     * @param buffers the utility-bin arrays and counters of the search
+     */
+    private void identifyPromisingItems(List<Transaction> transactionsPe, int j, List<Integer> itemsToKeep,
+    		List<Integer> newItemsToKeep, List<Integer> newItemsToExplore, SearchBuffers buffers) {
+		//==== Next, we will calculate the Local Utility and Sub-tree utility of
+        // all items that could be appended to PU{e} ====
+        useUtilityBinArraysToCalculateUpperBounds(transactionsPe, j, itemsToKeep, buffers);  
+		
+        // we now record time for identifying promising items
+		long initialTime = System.currentTimeMillis();
+		
+		// for each item
+    	for (int k = j+1; k < itemsToKeep.size(); k++) {
+        	Integer itemk =  itemsToKeep.get(k);
+        	
+        	// if the sub-tree utility is no less than min util
+            if(buffers.utilityBinArraySU[itemk] >= minUtil) {
+            	// and if sub-tree utility pruning is activated
+            	if(activateSubtreeUtilityPruning){
+            		// consider that item as a primary item
+            		newItemsToExplore.add(itemk);
+            	}
+            	// consider that item as a secondary item
+            	newItemsToKeep.add(itemk);
+            }else if(buffers.utilityBinArrayLU[itemk] >= minUtil)
+            {
+            	// otherwise, if local utility is no less than minutil,
+            	// consider this itemt to be a secondary item
+            	newItemsToKeep.add(itemk);
+            }
+        }
+    	if(buffers.sequential){
+	    	// update the total time  for identifying promising items
+	    	timeIdentifyPromisingItems +=  (System.currentTimeMillis() -  initialTime);
+    	}
+    }
+
+    /**
+     * Explore the search space in parallel. Each first-level branch (an item of the list of primary items)
+     * is explored by a separate task of a fork-join pool. Large sub-branches are also explored as separate tasks.
+     * @param transactions the database
+     * @param itemsToKeep the list of secondary items
+     * @param itemsToExplore the list of primary items
+     * @throws IOException if error writing to output file
+     */
+    private void backtrackingEFIMParallel(List<Transaction> transactions,
+    		List<Integer> itemsToKeep, List<Integer> itemsToExplore) throws IOException {
+    	// update the number of candidates explored so far
+    	candidateCount += itemsToExplore.size();
+
+    	// create a task for each first-level branch
+    	List<BranchTask> tasks = new ArrayList<BranchTask>();
+    	for (int j = 0; j < itemsToExplore.size(); j++) {
+    		tasks.add(new BranchTask(transactions, itemsToKeep, itemsToExplore, j, new int[newItemCount + 1], 0));
+    	}
+
+    	// run the tasks and wait until they are all finished
+    	ForkJoinPool pool = new ForkJoinPool(threadCount);
+    	try {
+    		for(BranchTask task : tasks){
+    			pool.execute(task);
+    		}
+    		for(BranchTask task : tasks){
+    			task.join();
+    		}
+    	}catch(UncheckedIOException e){
+    		// an error occurred while writing the output file in one of the tasks
+    		throw e.getCause();
+    	}finally{
+    		pool.shutdown();
+    	}
+    }
+
+    /**
+     * The buffers used to explore the search space: the utility-bin arrays used to calculate the
+     * upper bounds of the items that can extend an itemset, and counters for statistics.
+     * The sequential search uses a single SearchBuffers while in parallel mode, each task has its own,
+     * so that the tasks do not share any mutable state except the output.
+     */
+    private class SearchBuffers {
+    	/** utility bin array for sub-tree utility */
+    	final int[] utilityBinArraySU;
+    	/** utility bin array for local utility */
+    	final int[] utilityBinArrayLU;
+    	/** true for the sequential search. Then, the offsets of the transactions of P are updated to
+    	 * speed up the next binary searches and the time spent in each step is recorded. This is not done
+    	 * in parallel mode because the same transactions are read by several tasks. */
+    	final boolean sequential;
+
+    	/** statistics about the search */
+    	long transactionReadingCount;
+    	long mergeCount;
+    	long candidateCount;
+    	/** the number of high-utility itemsets found in parallel mode */
+    	long patternCount;
+
+    	/**
+    	 * Constructor
+    	 * @param utilityBinArraySU the utility bin array for sub-tree utility
+    	 * @param utilityBinArrayLU the utility bin array for local utility
+    	 * @param sequential true for the sequential search
+    	 */
+    	SearchBuffers(int[] utilityBinArraySU, int[] utilityBinArrayLU, boolean sequential) {
+    		this.utilityBinArraySU = utilityBinArraySU;
+    		this.utilityBinArrayLU = utilityBinArrayLU;
+    		this.sequential = sequential;
+    	}
+    }
+
+    /**
+     * A task exploring a branch P U {e} of the search space in parallel mode.
+     * Each task has its own SearchBuffers and buffer for the prefix.
+     * Contrarily to the sequential search, the offsets of the transactions of P are not updated
+     * because the same transactions are read by several tasks.
+     */
+    private class BranchTask extends RecursiveAction {
+    	private static final long serialVersionUID = 1L;
+
+    	/** the transactions of the projected database of P */
+    	private final List<Transaction> transactionsOfP;
+    	/** the list of secondary items in the projected database of P */
+    	private final List<Integer> itemsToKeep;
+    	/** the list of primary items in the projected database of P */
+    	private final List<Integer> itemsToExplore;
+    	/** the position of e in the list of primary items */
+    	private final int position;
+    	/** the items of P (old names) */
+    	private final int[] prefix;
+    	/** the length of P */
+    	private final int prefixLength;
+
+    	/** the utility-bin arrays and statistics of this task */
+    	private SearchBuffers buffers;
+    	/** the sink where this task writes its itemsets (null if the writes must be synchronized) */
+    	private PatternSink output;
+    	/** the run of the algorithm, where the memory usage is recorded */
+    	private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+
+    	/**
+    	 * Constructor
+    	 * @param transactionsOfP the transactions of the projected database of P
+    	 * @param itemsToKeep the list of secondary items in the projected database of P
+    	 * @param itemsToExplore the list of primary items in the projected database of P
+    	 * @param position the position of the item e to be appended to P in the list of primary items
+    	 * @param prefix a buffer containing the items of P (it will be modified by this task)
+    	 * @param prefixLength the length of P
+    	 */
+    	BranchTask(List<Transaction> transactionsOfP, List<Integer> itemsToKeep,
+    			List<Integer> itemsToExplore, int position, int[] prefix, int prefixLength) {
+    		this.transactionsOfP = transactionsOfP;
+    		this.itemsToKeep = itemsToKeep;
+    		this.itemsToExplore = itemsToExplore;
+    		this.position = position;
+    		this.prefix = prefix;
+    		this.prefixLength = prefixLength;
+    	}
+
+    	@Override
+    	protected void compute() {
+    		// initialize the utility-bin arrays of this task
+    		buffers = new SearchBuffers(new int[newItemCount + 1], new int[newItemCount + 1], false);
+    		output = createTaskSink();
+
+    		// the sub-branches that will be explored by other tasks
+    		List<BranchTask> forkedTasks = new ArrayList<BranchTask>();
+    		// record the memory usage of this thread in the run of the algorithm
+    		RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+    		try {
+    			explore(transactionsOfP, itemsToKeep, itemsToExplore, position, prefixLength, forkedTasks);
+    			// write the last itemsets of this task
+    			if(output instanceof Flushable){
+    				((Flushable) output).flush();
+    			}
+    		} catch (IOException e) {
+    			throw new UncheckedIOException(e);
+    		} finally {
+    			MemoryLogger.getInstance().setCurrentRun(previousRun);
+    		}
+    		// wait for the sub-branches
+    		for(BranchTask task : forkedTasks){
+    			task.join();
+    		}
+    		// update the statistics of the algorithm
+    		mergeStatistics(buffers);
+    	}
+
+    	/**
+    	 * Explore the branch P U {e} of the search space.
+    	 * @param transactionsOfP the transactions of the projected database of P
+    	 * @param itemsToKeep the list of secondary items in the p-projected database
+    	 * @param itemsToExplore the list of primary items in the p-projected database
+    	 * @param j the position of e in the list of primary items
+    	 * @param prefixLength the length of P
+    	 * @param forkedTasks a list to store the tasks created for exploring large sub-branches
+    	 * @throws IOException if error writing to output file
+    	 */
+    	private void explore(List<Transaction> transactionsOfP, List<Integer> itemsToKeep,
+    			List<Integer> itemsToExplore, int j, int prefixLength, List<BranchTask> forkedTasks) throws IOException {
+    		Integer e = itemsToExplore.get(j);
+
+    		// Calculate transactions containing P U {e} and the utility of P U {e}
+    		List<Transaction> transactionsPe = new ArrayList<Transaction>();
+    		int utilityPe = projectDatabase(transactionsOfP, e, transactionsPe, buffers);
+
+    		// Append item "e" to P to obtain P U {e}
+    		// but at the same time translate from new name of "e"  to its old name
+    		prefix[prefixLength] = newNamesToOldNames[e];
+
+    		// if the utility of PU{e} is enough to be a high utility itemset
+    		if(utilityPe  >= minUtil){
+    			// output PU{e}
+    			outputParallel(output, buffers, prefix, prefixLength, utilityPe);
+    		}
+
+    		// We will create the new list of secondary and primary items
+    		List<Integer> newItemsToKeep = new ArrayList<Integer>();
+    		List<Integer> newItemsToExplore = new ArrayList<Integer>();
+    		identifyPromisingItems(transactionsPe, j, itemsToKeep, newItemsToKeep, newItemsToExplore, buffers);
+    		// if sub-tree utility pruning is deactivated, we consider secondary items also
+    		// as primary items
+    		if(!activateSubtreeUtilityPruning){
+    			newItemsToExplore = newItemsToKeep;
+    		}
+
+    		// update the number of candidates explored so far
+    		buffers.candidateCount += newItemsToExplore.size();
+
+    		// === explore larger itemsets
+    		// If the projected database is large, each sub-branch is explored by a new task
+    		boolean fork = transactionsPe.size() >= MINIMUM_SIZE_FORKING;
+    		for (int k = 0; k < newItemsToExplore.size(); k++) {
+    			if(fork){
+    				int[] prefixCopy = Arrays.copyOf(prefix, prefix.length);
+    				BranchTask task = new BranchTask(transactionsPe, newItemsToKeep, newItemsToExplore, k, prefixCopy, prefixLength+1);
+    				task.fork();
+    				forkedTasks.add(task);
+    			}else{
+    				explore(transactionsPe, newItemsToKeep, newItemsToExplore, k, prefixLength+1, forkedTasks);
+    			}
+    		}
+
+    		// check the maximum memory usage for statistics purpose
+    		MemoryLogger.getInstance().checkMemory();
+    	}
+    }
+
+    /**
+     * Add the statistics of a search to the statistics of the algorithm. In parallel mode,
+     * this is called by each task when it is finished.
+     * @param buffers the buffers of the search
+     */
+    private synchronized void mergeStatistics(SearchBuffers buffers) {
+    	transactionReadingCount += buffers.transactionReadingCount;
+    	mergeCount += buffers.mergeCount;
+    	candidateCount += buffers.candidateCount;
+    	patternCount += buffers.patternCount;
+    }
 
     /**
      * Check if two transaction are identical
@@ -755,13 +1115,35 @@ public class AlgoEFIM {
      * items that can extend itemset P U {e}
      * @param j the position of j in the list of promising items
      * @param itemsToKeep the list of promising items
+     * @param buffers the utility-bin arrays and counters of the search
      */
     private void useUtilityBinArraysToCalculateUpperBounds(List<Transaction> transactionsPe, 
-    		int j, List<Integer> itemsToKeep) {
+    		int j, List<Integer> itemsToKeep, SearchBuffers buffers) {
 
     	// we will record the time used by this method for statistics purpose
 		long initialTime = System.currentTimeMillis();
-		
+
+		useUtilityBinArraysToCalculateUpperBounds(transactionsPe, j, itemsToKeep, buffers.utilityBinArraySU, buffers.utilityBinArrayLU);
+		// count the number of transactions read
+		buffers.transactionReadingCount += transactionsPe.size();
+
+		if(buffers.sequential){
+			// we update the time for database reduction for statistics purpose
+			timeDatabaseReduction += (System.currentTimeMillis() - initialTime);
+		}
+    }
+
+    /**
+     * Utilize the given utility-bin arrays to calculate the sub-tree utility and local utility of all
+     * items that can extend itemset P U {e}
+     * @param j the position of j in the list of promising items
+     * @param itemsToKeep the list of promising items
+     * @param utilityBinArraySU the utility-bin array for sub-tree utility
+     * @param utilityBinArrayLU the utility-bin array for local utility
+     */
+    private static void useUtilityBinArraysToCalculateUpperBounds(List<Transaction> transactionsPe, 
+    		int j, List<Integer> itemsToKeep, int[] utilityBinArraySU, int[] utilityBinArrayLU) {
+
 		// For each promising item > e according to the total order
 		for (int i = j + 1; i < itemsToKeep.size(); i++) {
 			Integer item = itemsToKeep.get(i);
@@ -774,9 +1156,6 @@ public class AlgoEFIM {
 		int sumRemainingUtility;
 		// for each transaction
 		for (Transaction transaction : transactionsPe) {
-			// count the number of transactions read
-			transactionReadingCount++;
-			
 			// We reset the sum of reamining utility to 0;
 			sumRemainingUtility = 0;
 			// we set high to the last promising item for doing the binary search
@@ -820,52 +1199,109 @@ public class AlgoEFIM {
 				}
 			}
 		}
-		// we update the time for database reduction for statistics purpose
-		timeDatabaseReduction += (System.currentTimeMillis() - initialTime);
     }
 
 
 
     /**
-     * Save a high-utility itemset to file or memory depending on what the user chose.
+     * Save a high-utility itemset to file, memory or the sink chosen by the user.
      * @throws IOException if error while writting to output file
      */
     private void output(int tempPosition, int utility) throws IOException {
         patternCount++;
-            
-        	// if user wants to save the results to memory
-		if (writer == null) {
-			// we copy the temporary buffer into a new int array
-			int[] copy = new int[tempPosition+1];
-			System.arraycopy(temp, 0, copy, 0, tempPosition+1);
+        sink.write(temp, tempPosition + 1, utility);
+    }
+
+
+ 
+ 
+    /**
+     * Create the sink where a task writes the itemsets that it finds in parallel mode.
+     * If the result is saved to a file, each task formats its itemsets in its own buffer and
+     * only appends complete lines to the file. If it is saved to memory, the itemsets are
+     * created by the task and only the insertion in the list of itemsets is synchronized.
+     * A sink chosen by the user may not be thread-safe, so all writes to it are synchronized.
+     * @return the sink of the task or null if the writes to the sink of the algorithm must be synchronized
+     */
+    private PatternSink createTaskSink() {
+    	if(outputWriter != null){
+    		return new TextPatternSink(outputWriter, TextPatternSink.UTILITY_LABEL, TASK_BUFFER_SIZE);
+    	}
+    	if(highUtilityItemsets != null){
+    		return sink;
+    	}
+    	return null;
+    }
+
+    /**
+     * Save a high-utility itemset found in parallel mode to file or memory depending on what the user chose.
+     * @param output the sink of the task, or null to write to the sink of the algorithm
+     * @param buffers the buffers of the task
+     * @param prefix a buffer containing the items of the itemset
+     * @param tempPosition the position of the last item of the itemset in the buffer
+     * @param utility the utility of the itemset
+     * @throws IOException if error while writting to output file
+     */
+    private void outputParallel(PatternSink output, SearchBuffers buffers, int[] prefix, int tempPosition, int utility) throws IOException {
+    	buffers.patternCount++;
+    	if(output != null){
+    		output.write(prefix, tempPosition + 1, utility);
+    	}else{
+    		synchronized (sink) {
+    			sink.write(prefix, tempPosition + 1, utility);
+    		}
+    	}
+    }
+
+    /**
+     * A PatternSink that keeps the high-utility itemsets in memory, in an Itemsets object.
+     * It can be used by several tasks at the same time, since only the insertion of an itemset
+     * in the Itemsets object is synchronized.
+     */
+    private static class ItemsetsSink implements PatternSink {
+    	/** the itemsets */
+    	private final Itemsets itemsets;
+    	/** the number of itemsets */
+    	private long patternCount = 0;
+
+    	/**
+    	 * Constructor
+    	 * @param itemsets the object where the itemsets are stored
+    	 */
+    	ItemsetsSink(Itemsets itemsets) {
+    		this.itemsets = itemsets;
+    	}
+
+    	public void write(int[] items, int length, long value) {
+			// we copy the buffer into a new int array
+			int[] copy = new int[length];
+			System.arraycopy(items, 0, copy, 0, length);
 			// we create the itemset using this array and add it to the list of itemsets
 			// found until now
-			highUtilityItemsets.addItemset(new Itemset(copy, utility),copy.length); 
-		} else {
-			// if user wants to save the results to file
-			// create a stringuffer
-			StringBuffer buffer = new StringBuffer();
-			// append each item from the itemset to the stringbuffer, separated by spaces
-			for (int i = 0; i <= tempPosition; i++) {
-				buffer.append(temp[i]);
-				if (i != tempPosition) {
-					buffer.append(' ');
-				}
+			Itemset itemset = new Itemset(copy, value);
+			synchronized (itemsets) {
+				patternCount++;
+				itemsets.addItemset(itemset, length);
 			}
-			// append the utility of the itemset
-			buffer.append(" #UTIL: ");
-			buffer.append(utility);
-			
-			// write the stringbuffer to file and create a new line
-			// so that we are ready for writing the next itemset.
-			writer.write(buffer.toString());
-			writer.newLine();
-		}
+    	}
+
+    	public long getPatternCount() {
+    		return patternCount;
+    	}
+
+    	public void close() {
+    		// nothing to close
+    	}
     }
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 
- 
- 
     /**
      * Print statistics about the latest execution of the EFIM algorithm.
      */
@@ -891,8 +1327,14 @@ public class AlgoEFIM {
 					+ " ms");
 			System.out.println(" Time sort ~: " + timeSort	+ " ms");
 		}
-		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory());
+		System.out.println(" Max memory:" + (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()));
 		System.out.println(" Candidate count : "             + candidateCount);
+		if(threadCount > 1) {
+			System.out.println(" Thread count : " + threadCount);
+		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 }
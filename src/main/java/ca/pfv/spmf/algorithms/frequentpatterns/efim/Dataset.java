@@ -5,6 +5,9 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+
+import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+
 /* This file is copyright (c) 2012-2015 Souleymane Zida, Philippe Fournier-Viger, Alan Souza
 * 
 * This file is part of the SPMF DATA MINING SOFTWARE
@@ -70,6 +73,27 @@ class Dataset {
         br.close();
     }
 
+    /**
+     * Constructor for reading a dataset in the SPMF binary format
+     * @param database a transaction database in binary format containing utilities
+     * @param maximumTransactionCount the number of transaction to be read from the database
+     */
+    public Dataset(BinaryTransactionDatabase database, int maximumTransactionCount) {
+    	int transactionCount = Math.min(database.size(), maximumTransactionCount);
+        transactions = new ArrayList<Transaction>(transactionCount);
+        maxItem = database.getMaxItem();
+        for(int i = 0; i < transactionCount; i++) {
+        	int length = database.getTransactionLength(i);
+        	int[] items = new int[length];
+        	int[] utilities = new int[length];
+        	database.getItems(i, items);
+        	database.getUtilities(i, utilities);
+        	transactions.add(new Transaction(items, utilities, database.getTransactionUtility(i)));
+        }
+        //****** Show the number of transactions in this dataset**************************//
+        System.out.println("Transaction count :" +  transactions.size());
+    }
+
     /**
      * Create a transaction object from a line from the input file
      * @param line a line from input file
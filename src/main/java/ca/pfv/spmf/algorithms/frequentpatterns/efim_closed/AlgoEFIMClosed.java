@@ -10,6 +10,7 @@ import java.util.Comparator;
 import java.util.List;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /* This file is copyright (c) 2012-2015 Souleymane Zida & Philippe Fournier-Viger
  * 
@@ -53,6 +54,7 @@ public class AlgoEFIMClosed {
 	/** the start time and end time of the last algorithm execution */
     private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	/** the minutil threshold */
     private int minUtil;
@@ -400,6 +402,7 @@ public class AlgoEFIMClosed {
 
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the output file
 		if (writer != null) {
@@ -1164,6 +1167,17 @@ public class AlgoEFIMClosed {
 		}
 		System.out.println(" Max memory:"+ MemoryLogger.getInstance().getMaxMemory());
 		System.out.println(" Visited node count : " + candidateCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
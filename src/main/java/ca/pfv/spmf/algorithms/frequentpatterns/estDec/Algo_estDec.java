@@ -5,11 +5,20 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Hashtable;
+import java.util.List;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the estDec algorithm (J. Chang, W.S. Lee 2006).
  * <br/><br/>
  * 
+ * Transactions can be processed in batches, with the input file parsed by another thread
+ * (see processTransactionBatchesFromFile()). The tree itself is updated by a single thread:
+ * the first-level subtrees are not updated in parallel, because the delayed-insertion phase
+ * of a transaction reads the counts of other subtrees, so splitting the updates between threads
+ * would not give the same result as processing the transactions one by one.
+ * <br/><br/>
+ * 
  * This implementation was made by Azadeh Soltani
  * <br/><br/>
  * 
@@ -46,6 +55,8 @@ public class Algo_estDec {
 	private double sumTransactionInsertionTime = 0; // sum of time for inserting transactions
 	
 	private double maxMemory = 0;
+	// the resources used since the algorithm was created
+	private final RunMetrics runMetrics;
 
 	/**
 	 * Constructor
@@ -55,6 +66,8 @@ public class Algo_estDec {
 	public Algo_estDec(double mins, double minSigValue) {
 		// create the "Monitoring Lattice" tree
 		tree = new estTree(mins, minSigValue);
+		// start recording the resources used
+		runMetrics = RunMetrics.start();
 	}
 
 	
@@ -123,6 +136,53 @@ public class Algo_estDec {
 	}
 
 
+	/**
+	 * Run the algorithm by loading the transactions from an input file in batches.
+	 * The file is read and parsed by another thread while the previous batch is processed.
+	 * The result is the same as for processTransactionFromFile().
+	 * @param input   the input file path
+	 * @param batchSize the number of transactions per batch
+	 * @throws IOException if error reading the input file
+	 */
+	public void processTransactionBatchesFromFile(String input, int batchSize)
+			throws IOException {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		TransactionBatchReader reader = new TransactionBatchReader(input, batchSize);
+		reader.start();
+		try {
+			List<int[]> batch;
+			while ((batch = reader.nextBatch()) != null) {
+				processTransactions(batch);
+			}
+		} finally {
+			// stop reading if an error occurred
+			reader.interrupt();
+		}
+	}
+
+	/**
+	 * Process a batch of transactions (add them to the tree and update itemsets).
+	 * The result is the same as calling processTransaction() for each transaction (up to rounding
+	 * errors), but the count of each node of the tree is only decayed once per batch.
+	 * @param transactions the transactions (arrays of integers)
+	 */
+	public void processTransactions(List<int[]> transactions) {
+		double startCTimestamp = System.currentTimeMillis();
+		tree.startBatch();
+		for (int[] transaction : transactions) {
+			// process the transaction
+			tree.updateParams(transaction);
+			tree.insertItemset(transaction);
+
+			// force pruning every 10000 transactions
+			if (tree.getK() % 10000 == 0)
+				tree.forcePruning(tree.root);
+		}
+		sumTransactionInsertionTime += (System.currentTimeMillis() - startCTimestamp);
+	}
+
 	/**
 	 * Mine recent frequent itemsets from the current tree and 
 	 * save the result to a file
@@ -185,6 +245,7 @@ public class Algo_estDec {
 		if (currentMemory > maxMemory) {
 			maxMemory = currentMemory;
 		}
+		runMetrics.checkMemory();
 	}
 	
 	/**
@@ -208,6 +269,16 @@ public class Algo_estDec {
 		System.out.println(" Total insertion time ~ " + sumTransactionInsertionTime + " ms");
 		System.out.println(" Insertion time per transaction ~ "  + sumTransactionInsertionTime / tree.getK() + " ms");
 		System.out.println(" Mining time ~ " + miningTime + " ms");
+		System.out.print(runMetrics);
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection) used since the algorithm was created.
+	 * Because transactions can be added at any time, the run is never stopped.
+	 * @return the statistics of the algorithm
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
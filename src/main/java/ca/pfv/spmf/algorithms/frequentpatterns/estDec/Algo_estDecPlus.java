@@ -1,12 +1,13 @@
 package ca.pfv.spmf.algorithms.frequentpatterns.estDec;
 
-import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Hashtable;
+import java.util.List;
 
 /**
  * This is an implementation of the estDecPlus algorithm 
@@ -57,6 +58,9 @@ public class Algo_estDecPlus {
 	
 	// the total time for transaction insertion (for stats)
     private double sumTransactionInsertionTime = 0;
+
+	// the resources used since the algorithm was created
+	private final RunMetrics runMetrics;
 	
 	/**
 	 * Constructor
@@ -69,8 +73,8 @@ public class Algo_estDecPlus {
 	 */
 	public Algo_estDecPlus(double mins, double d, double minSigValue,
 			double deltaValue, double minMergeValue) {
-		// Reset memory logger
-		MemoryLogger.getInstance().reset();
+		// start recording the resources used
+		runMetrics = RunMetrics.start();
 
 		// create the "Monitoring Lattice" tree
 		tree = new CPTree(d, mins, minSigValue, deltaValue, minMergeValue);
@@ -163,6 +167,59 @@ public class Algo_estDecPlus {
 		reader.close();
 	}
 
+	/**
+	 * Run the algorithm by loading the transactions from an input file in batches.
+	 * The file is read and parsed by another thread while the previous batch is
+	 * processed (see processTransactions()).
+	 * 
+	 * @param input   the input file path
+	 * @param batchSize the number of transactions per batch
+	 * @throws IOException if error reading the input file
+	 */
+	public void processTransactionBatchesFromFile(String input, int batchSize)
+			throws IOException {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		TransactionBatchReader reader = new TransactionBatchReader(input, batchSize);
+		reader.start();
+		try {
+			List<int[]> batch;
+			while ((batch = reader.nextBatch()) != null) {
+				processTransactions(batch);
+			}
+		} finally {
+			// stop reading if an error occurred
+			reader.interrupt();
+		}
+	}
+
+	/**
+	 * Process a batch of transactions (add them to the tree and update itemsets).
+	 * This is the same as calling processTransaction() for each transaction, except
+	 * that the nodes having a support lower than minsig are pruned once at the end of
+	 * the batch, rather than after each transaction. Until then, their counts are
+	 * updated as the counts of the other nodes.
+	 * 
+	 * @param transactions the transactions (sorted arrays of integers)
+	 */
+	public void processTransactions(List<int[]> transactions) {
+		double startCTimestamp = System.currentTimeMillis();
+		for (int[] transaction : transactions) {
+			// phase 1) Parameter updating
+			tree.updateParams();
+			// phase 2) Node restructuring
+			for (int i = 0; i < tree.root.children.size(); ++i)
+				tree.traverse(tree.root.children.get(i), tree.root, (short) -1,	transaction);
+			// phase 3) Itemset Insertion
+			tree.insertItemset(transaction);
+			transactionCount++;
+		}
+		// prune the tree once for the whole batch
+		tree.forcePruning(tree.root);
+		sumTransactionInsertionTime += (System.currentTimeMillis() - startCTimestamp);
+	}
+
 	/**
 	 * Mine recent frequent itemsets from the current tree and save the result
 	 * to a file.
@@ -180,7 +237,7 @@ public class Algo_estDecPlus {
 
 		// Record memory usage and end time
 		System.gc();
-		MemoryLogger.getInstance().checkMemory();
+		runMetrics.checkMemory();
 		miningTime = System.currentTimeMillis() - startMiningTimeStamp;
 	}
 
@@ -195,7 +252,7 @@ public class Algo_estDecPlus {
 			throws IOException {
 		// Check memory usage
 		System.gc();
-		MemoryLogger.getInstance().checkMemory();
+		runMetrics.checkMemory();
 		// Record start time
 		long startMiningTimeStamp = System.currentTimeMillis();
 		
@@ -207,7 +264,7 @@ public class Algo_estDecPlus {
 		
 		// Record memory usage
 		System.gc();
-		MemoryLogger.getInstance().checkMemory();
+		runMetrics.checkMemory();
 
 		return patterns;
 	}
@@ -255,12 +312,22 @@ public class Algo_estDecPlus {
 		System.out.println("===========  estDecPlus - STATS ===========");
 		System.out.println(" Number of nodes : " + tree.nodeCount(tree.root));
 		System.out.println(" Frequent itemsets count : " + tree.patternCount);
-		System.out.println(" Maximum memory usage : " + MemoryLogger.getInstance().getMaxMemory() + " mb");
+		System.out.println(" Maximum memory usage : " + runMetrics.getPeakHeapMemory() + " mb");
 		System.out.println(" Number of transactions: " + transactionCount);
 		System.out.println(" Total insertion time ~ " + sumTransactionInsertionTime);
 		System.out.println(" Insertion time per transaction ~ " + sumTransactionInsertionTime
 				/ (double)transactionCount + " ms");
 		System.out.println(" Mining time ~ " + miningTime + " ms");
+		System.out.print(runMetrics);
 		System.out.println("============================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection) used since the algorithm was created.
+	 * Because transactions can be added at any time, the run is never stopped.
+	 * @return the statistics of the algorithm
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
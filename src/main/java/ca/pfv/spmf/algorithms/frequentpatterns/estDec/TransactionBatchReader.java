@@ -0,0 +1,132 @@
+package ca.pfv.spmf.algorithms.frequentpatterns.estDec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A thread that reads the transactions of an input file and gives them in batches
+ * to the thread running estDec or estDec+, so that the input file is parsed
+ * while the previous batch is processed.
+ * <br/><br/>
+ *
+ * Copyright (c) 2008-2014 Azadeh Soltani, Philippe Fournier-Viger
+ * <br/><br/>
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ * <br/><br/>
+ *
+ * SPMF is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * <br/><br/>
+ *
+ * SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * <br/><br/>
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * SPMF. If not, see <http://www.gnu.org/licenses/>.
+ * @see Algo_estDec
+ * @see Algo_estDecPlus
+ */
+class TransactionBatchReader extends Thread {
+
+	// the number of batches that can be read in advance
+	private static final int QUEUE_CAPACITY = 4;
+
+	// an empty batch indicating the end of the file
+	private static final List<int[]> END = new ArrayList<int[]>();
+
+	// the input file path
+	private final String input;
+	// the number of transactions per batch
+	private final int batchSize;
+	// the batches that were read and not yet processed
+	private final BlockingQueue<List<int[]>> batches = new ArrayBlockingQueue<List<int[]>>(QUEUE_CAPACITY);
+
+	// the error that occurred while reading the file (if any)
+	private volatile IOException error;
+
+	/**
+	 * Constructor
+	 * @param input the input file path
+	 * @param batchSize the number of transactions per batch
+	 */
+	TransactionBatchReader(String input, int batchSize) {
+		this.input = input;
+		this.batchSize = batchSize;
+		setDaemon(true);
+	}
+
+	@Override
+	public void run() {
+		try {
+			try {
+				// read the input file
+				BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
+				try {
+					List<int[]> batch = new ArrayList<int[]>(batchSize);
+					String line;
+					// for each line (transaction)
+					while (((line = reader.readLine()) != null)) {
+						String[] lineSplited = line.split(" ");
+
+						// convert the array of strings to an array of integers (items)
+						int[] transaction = new int[lineSplited.length];
+						for (int i = 0; i < lineSplited.length; i++) {
+							transaction[i] = Integer.parseInt(lineSplited[i]);
+						}
+						batch.add(transaction);
+						// give the batch to the other thread when it is full
+						if (batch.size() == batchSize) {
+							batches.put(batch);
+							batch = new ArrayList<int[]>(batchSize);
+						}
+					}
+					if (batch.size() > 0) {
+						batches.put(batch);
+					}
+				} finally {
+					reader.close();
+				}
+			} catch (IOException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = new IOException("Error while reading the input file", e);
+			}
+			// indicate that there is no more batch
+			batches.put(END);
+		} catch (InterruptedException e) {
+			// the other thread has stopped processing the batches
+		}
+	}
+
+	/**
+	 * Get the next batch of transactions, waiting until it is read.
+	 * @return the batch, or null if the end of the file was reached
+	 * @throws IOException if an error occurred while reading the file
+	 */
+	List<int[]> nextBatch() throws IOException {
+		try {
+			List<int[]> batch = batches.take();
+			if (batch == END) {
+				if (error != null) {
+					throw error;
+				}
+				return null;
+			}
+			return batch;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading the input file", e);
+		}
+	}
+}
@@ -33,21 +33,24 @@ import java.util.List;
  */
 public class estNode {
 	Integer itemID; // item id
-	double counter; // frequency counter
-	private int tid; // last tid
+	double counter; // frequency counter, relatively to the start of the batch of the last update (see estTree)
+	int tid; // last tid
+	int batchStart; // tid of the start of the batch of the last update
 
 	List<estNode> children; // children nodes
 
 	/**
 	 * constructor
 	 * @param item  the item
-	 * @param count the count 
+	 * @param count the count, relatively to the start of the batch
 	 * @param k  the last transaction id
+	 * @param batchStart the tid of the start of the current batch
 	 */
-	estNode(Integer item, double count, int k) {
+	estNode(Integer item, double count, int k, int batchStart) {
 		itemID = item;
 		counter = count;
 		tid = k;
+		this.batchStart = batchStart;
 		children = new ArrayList<estNode>();
 	}
 
@@ -58,6 +61,7 @@ public class estNode {
 		itemID = -1;
 		counter = 0;
 		tid = 0;
+		batchStart = 0;
 		children = new ArrayList<estNode>();
 	}
 
@@ -97,25 +101,4 @@ public class estNode {
 		}
 		return -1;
 	}
-
-	/**
-	 * Update the count of a node
-	 * 
-	 * @param k the current transaction id
-	 * @param value the value to be added to the count
-	 * @param d  the decay rate
-	 */
-	public void update(int k, int value, double d) {
-		counter = counter * Math.pow(d, k - tid) + value;
-		tid = k;
-	}
-
-	/**
-	 * Compute the support of this node as a percentage.
-	 * 
-	 * @param N an integer representing a transaction count.
-	 */
-	public double computeSupport(double N) {
-		return counter / N;
-	}
 }
@@ -10,6 +10,14 @@ import java.util.List;
  * This is an implementation of a estTree. <br/>
  * <br/>
  *
+ * The counts of the nodes are decayed lazily. The count of a node is stored relatively
+ * to the start of the batch of its last update, so that it is decayed once
+ * per batch (when it is first updated in a batch) rather than each time that it is updated.
+ * A new batch is started by startBatch(), or automatically when the decay since the
+ * start of the batch would make the counts of the nodes too large (after at most
+ * DECAY_POWER_COUNT transactions, and sooner for short decay-base lives). <br/>
+ * <br/>
+ *
  * This implementation was made by Azadeh Soltani <br/>
  * <br/>
  *
@@ -39,7 +47,18 @@ class estTree {
 
 	private double N;  // |Dk|
 	private double d; // decay rate
+	// the values of d^i for the most frequent gaps i between two updates of a node
+	private double[] decayPowers;
+	// number of precomputed powers of the decay rate
+	private static final int DECAY_POWER_COUNT = 4096;
+	// smallest decay allowed since the start of a batch, so that the counts relative to the batch stay finite
+	private static final double MIN_BATCH_DECAY = 1e-100;
+	// maximum number of transactions in a batch, such that d^maxBatchLength >= MIN_BATCH_DECAY
+	private int maxBatchLength;
 	private int k; // current tid
+	private int batchStart; // tid of the start of the current batch (the last transaction before the batch)
+	private double increment; // the value 1 relatively to the start of the batch: d^(batchStart - k)
+	private double scaledN; // |Dk| relatively to the start of the batch: |Dk| x increment
 
 	// itemset count
 	int patternCount =0;
@@ -67,6 +86,8 @@ class estTree {
 
 		N = 0;
 		k = 0;
+		batchStart = 0;
+		increment = 1;
 		minsup = mins;
 		minsig = minSigValue;
 		System.out.println(" " + minsup + " " + minsig);
@@ -81,6 +102,58 @@ class estTree {
 	 */
 	void setDecayRate(double b, double h) {
 		d = Math.pow(b, -1.0 / h);
+		// precompute the decay of a count for the most frequent gaps,
+		// rather than calling Math.pow() each time that a node is visited
+		decayPowers = new double[DECAY_POWER_COUNT];
+		for (int i = 0; i < DECAY_POWER_COUNT; i++) {
+			decayPowers[i] = Math.pow(d, i);
+		}
+		// a count is multiplied by up to d^-maxBatchLength relatively to the start of its batch
+		double length = d < 1 ? Math.floor(Math.log(MIN_BATCH_DECAY) / Math.log(d)) : DECAY_POWER_COUNT;
+		maxBatchLength = (int) Math.max(1, Math.min(DECAY_POWER_COUNT - 1, length));
+	}
+
+	/**
+	 * Get the decay of a count after some transactions
+	 * @param gap the number of transactions
+	 * @return d^gap
+	 */
+	private double decay(int gap) {
+		return gap < decayPowers.length ? decayPowers[gap] : Math.pow(d, gap);
+	}
+
+	/**
+	 * Start a new batch of transactions. The counts of the nodes will be decayed
+	 * to the start of this batch (the last transaction processed) when they are updated.
+	 */
+	void startBatch() {
+		batchStart = k;
+		increment = 1;
+		scaledN = N;
+	}
+
+	/**
+	 * Update the count of a node for the current transaction
+	 * @param node the node
+	 * @param value the value to be added to the count, relatively to the start of the batch
+	 */
+	private void update(estNode node, double value) {
+		// if the node was last updated in a previous batch, decay its count to this batch
+		if (node.batchStart != batchStart) {
+			node.counter *= decay(batchStart - node.batchStart);
+			node.batchStart = batchStart;
+		}
+		node.counter += value;
+		node.tid = k;
+	}
+
+	/**
+	 * Get the count of a node at the time of its last update
+	 * @param node the node
+	 * @return the count
+	 */
+	private double count(estNode node) {
+		return node.counter * decay(node.tid - node.batchStart);
 	}
 
 	/**
@@ -91,6 +164,11 @@ class estTree {
 		// |Dk| = |Dk| x d + 1
 		N = N * d + 1;
 		k++;
+		// start a new batch if the counts would become too large relatively to the start of the batch
+		if (k - batchStart > maxBatchLength)
+			batchStart = k;
+		increment = 1 / decay(k - batchStart);
+		scaledN = N * increment;
 		updateNodes(root, transaction, 0);
 	}
 
@@ -114,9 +192,9 @@ class estTree {
 		estNode child = currentNode.getChildWithID(item);
 		if (child != null) {
 			// update count of the node
-			child.update(k, 1, d);
+			update(child, increment);
 			// if the support is enough
-			if (child.computeSupport(N) >= minsig)
+			if (child.counter / scaledN >= minsig)
 				updateNodes(child, transaction, ind + 1);
 			else {
 				/*  PFV:  WHY NOT REMOVE?
@@ -136,7 +214,7 @@ class estTree {
     private void insertItem(Integer it) {
 		// create the node with a count of 0
 		double c = 0;// (getN(k-1)*minsig)*d+1;
-		root.children.add(new estNode(it, c, k));
+		root.children.add(new estNode(it, c, k, batchStart));
 	}
 
 	/********************************************************************
@@ -154,7 +232,7 @@ class estTree {
 			estNode child = root.getChildWithID(it);
 			if (child == null)
 				insertItem(it);
-			else if (child.computeSupport(N) >= minsig)
+			else if (count(child) / N >= minsig)
 				transaction2.add(it);
 		}
 		// insert the new transaction
@@ -203,7 +281,7 @@ class estTree {
 				currentNode = child;
 			}
 		}
-		return currentNode.counter;
+		return count(currentNode);
 	}
 
 	/********************************************************************
@@ -253,12 +331,12 @@ class estTree {
 			// if its estimated support is greater than minsig insert a new node
 			// with itemId=item counter=c, tid=k
 			if (c / N >= minsig) {
-				child = new estNode(item, c, k);
+				child = new estNode(item, c * increment, k, batchStart);
 				currentNode.children.add(child);
 			}
 		}// if child
 		else {
-			if (child.counter / N < minsig) {
+			if (count(child) / N < minsig) {
 				// if its support is less than minsig delete the node
 				if (currentNode.itemID != -1)
 					currentNode.children.remove(currentNode
@@ -301,12 +379,12 @@ class estTree {
 				// if its estimated support is greater than minsig insert a new node
 				// with itemId=item counter=c, tid=k
 				if (c / N >= minsig) {
-					child = new estNode(item, c, k);
+					child = new estNode(item, c * increment, k, batchStart);
 					currentNode.children.add(child);
 				}
 			}// if child
 			else
-				if (child.counter / N < minsig) {
+				if (count(child) / N < minsig) {
 					// if its support is less than minsig delete the node
 					if (currentNode.itemID != -1)
 						currentNode.children.remove(currentNode
@@ -335,12 +413,12 @@ private void insert_n_itemsets3(estNode currentNode,
 				// if its estimated support is greater than minsig insert a new node
 				// with itemId=item counter=c, tid=k
 				if (c / N >= minsig) {
-					child = new estNode(item, c, k);
+					child = new estNode(item, c * increment, k, batchStart);
 					currentNode.children.add(child);
 				}
 			}// if child
 			else
-				if (child.counter / N < minsig) {
+				if (count(child) / N < minsig) {
 					// if its support is less than minsig delete the node
 					if (currentNode.itemID != -1)
 						currentNode.children.remove(currentNode
@@ -363,8 +441,8 @@ private void insert_n_itemsets3(estNode currentNode,
 	void forcePruning(estNode root) {
 		for (int i = 0; i < root.children.size(); ++i) {
 			estNode node = root.children.get(i);
-			node.update(k, 0, d);
-			if (node.computeSupport(N) < minsig && root.itemID != -1)
+			update(node, 0);
+			if (node.counter / scaledN < minsig && root.itemID != -1)
 				root.children.remove(i--);
 			else
 				forcePruning(node);
@@ -385,9 +463,9 @@ private void insert_n_itemsets3(estNode currentNode,
 		// For each children
 		for (estNode node : root.children) {
 		
-			node.update(k, 0, d);
+			update(node, 0);
 			// if the estimated support is enough
-			double s = node.computeSupport(N);
+			double s = node.counter / scaledN;
 			if (s > minsup) {
 				
 				// Create a new pattern by concatening
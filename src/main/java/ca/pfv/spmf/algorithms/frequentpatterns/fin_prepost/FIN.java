@@ -2,6 +2,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.fin_prepost;
 
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.Arrays;
@@ -43,6 +44,7 @@ public class FIN {
 	// the start time and end time of the last algorithm execution
     private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	// number of itemsets found
     private int outputCount = 0;
@@ -170,6 +172,7 @@ public class FIN {
 
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -684,6 +687,9 @@ public class FIN {
 				+ " ms");
 		System.out.println(" Max memory:"
 				+ MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -716,4 +722,12 @@ public class FIN {
 		public int count;
 		public int foreIndex;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -1,6 +1,7 @@
 package ca.pfv.spmf.algorithms.frequentpatterns.fin_prepost;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.Arrays;
@@ -40,6 +41,7 @@ public class PrePost {
 	// the start time and end time of the last algorithm execution
     private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	// number of itemsets found
     private int outputCount;
@@ -177,6 +179,7 @@ public class PrePost {
 
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -662,6 +665,9 @@ public class PrePost {
 				+ " ms");
 		System.out.println(" Max memory:"
 				+ MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -697,4 +703,12 @@ public class PrePost {
 		public int foreIndex;
 		public int backIndex;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -37,6 +37,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "FHN" algorithm for High-Utility Itemsets 
@@ -57,6 +59,7 @@ public class AlgoFOSHU {
     private double maxMemory = 0;     // the maximum memory usage
 	private long startTimestamp = 0;  // the time the algorithm started
 	private long endTimestamp = 0;   // the time the algorithm terminated
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int huiCount =0;  // the number of HUI generated
 	
 	// the number of join operations performed by the algorithm
@@ -140,6 +143,7 @@ public class AlgoFOSHU {
 		
 		// record the start time (to calculate the total runtime of the algorithm)
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		//===================== FOSU ===========================
 		// Create a set for storing negative items (items having a negative unit profit
@@ -431,6 +435,7 @@ public class AlgoFOSHU {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -673,7 +678,17 @@ public class AlgoFOSHU {
 		System.out.println(" Memory ~ "                      + maxMemory+ " MB");
 		System.out.println(" HOU count : " + huiCount); 
 		System.out.println(" Join count : "             + joinCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
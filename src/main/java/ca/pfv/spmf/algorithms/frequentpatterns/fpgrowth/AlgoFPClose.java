@@ -21,6 +21,7 @@
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
  import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
  import java.io.*;
  import java.util.*;
@@ -41,7 +42,8 @@
  * I have tried to follow the paper as much as possible. However, I did not
  * use the FPArray optimization
  *
- * @see FPTree
+ * @see CompactFPTree
+ * @see CFITree
  * @see Itemset
  * @see Itemsets
  * @author Philippe Fournier-Viger, 2015
@@ -51,6 +53,7 @@ public class AlgoFPClose {
 	// for statistics
 	private long startTimestamp; // start time of the latest execution
 	private long endTime; // end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
 	
@@ -72,30 +75,20 @@ public class AlgoFPClose {
 	private int[] itemsetBuffer = null;
 	// Buffer for storing the counts of the current itemset that is mined 
 	private int[] countBuffer = null;
+	// another buffer for storing fpnodes in a single path of the tree
+	private int[] fpNodeTempBuffer = null;
+	// a buffer for storing a prefix path when building a conditional tree
+	private int[] prefixPathBuffer = null;
 	
+	// The items of the fp-tree are renamed 0, 1, 2... by decreasing order of support
+	// in the original database. This array indicates the original name of each item.
+	private int[] itemsByDenseId = null;
 	
-	// This is the CFI tree for storing closed itemsets
+	// This is the CFI tree for storing closed itemsets (using the original names of items)
 	public CFITree cfiTree = null;
 	
-	// Map to store the support of single items in the original databse
-	private Map<Integer, Integer> originalMapSupport = null;
-	
 	// If set to true, the algorithm will show  information for debugging in the console
 	private final boolean DEBUG = false;
-	
-	// Comparator to compare the items based on the order of decreasing support in the original DB.
-    private Comparator<Integer> comparatorOriginalOrder = new Comparator<Integer>(){
-		public int compare(Integer item1, Integer item2){
-			// compare the frequency
-			int compare = originalMapSupport.get(item2) - originalMapSupport.get(item1);
-			// if the same frequency, we check the lexical ordering!
-			if(compare == 0){ 
-				compare = (item1 - item2);
-				return compare;
-			}
-			return compare;
-		}
-	};
 
 	/**
 	 * Constructor
@@ -135,21 +128,25 @@ public class AlgoFPClose {
 		// (1) PREPROCESSING: Initial database scan to determine the frequency of each item
 		// The frequency is stored in a map:
 		//    key: item   value: support
-		originalMapSupport = scanDatabaseToDetermineFrequencyOfSingleItems(input); 
+		Map<Integer, Integer> mapSupport = scanDatabaseToDetermineFrequencyOfSingleItems(input); 
 
 		// convert the minimum support as percentage to a
 		// relative minimum support
 		this.minSupportRelative = (int) Math.ceil(minsupp * transactionCount);
 		
+		// (2) Rename frequent items 0, 1, 2... by decreasing order of support,
+		// so that the FP-tree can store items as array positions.
+		int[] denseIdOfItem = renameFrequentItems(mapSupport);
 
 		// Create the CFI Tree
 		cfiTree = new CFITree();	
 		
-		// (2) Scan the database again to build the initial FP-Tree
+		// (3) Scan the database again to build the initial FP-Tree
 		// Before inserting a transaction in the FPTree, we sort the items
 		// by descending order of support.  We ignore items that
 		// do not have the minimum support.
-		FPTree tree = new FPTree();
+		CompactFPTree tree = new CompactFPTree(itemsByDenseId.length, 1024);
+		int[] transaction = new int[Math.max(itemsByDenseId.length, 1)];
 		
 		// read the file
 		BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
@@ -164,39 +161,38 @@ public class AlgoFPClose {
 			}
 			
 			String[] lineSplited = line.split(" ");
-			List<Integer> transaction = new ArrayList<Integer>();
+			int length = 0;
 			
 			// for each item in the transaction
 			for(String itemString : lineSplited){  
-				Integer item = Integer.parseInt(itemString);
+				int denseId = denseIdOfItem[Integer.parseInt(itemString)];
 				// only add items that have the minimum support
-				if(originalMapSupport.get(item) >= minSupportRelative){
-					transaction.add(item);	
+				if(denseId != -1){
+					transaction[length++] = denseId;
 				}
 			}
 			// sort item in the transaction by descending order of support
-			Collections.sort(transaction, comparatorOriginalOrder);
+			Arrays.sort(transaction, 0, length);
 			// add the sorted transaction to the fptree.
-			tree.addTransaction(transaction);
+			tree.addTransaction(transaction, length, 1);
 		}
 		// close the input file
 		reader.close();
-		
-		// We create the header table for the tree using the calculated support of single items
-		tree.createHeaderList(originalMapSupport);
-		
 
 //		System.out.println(tree);
 		
-		// (5) We start to mine the FP-Tree by calling the recursive method.
+		// (4) We start to mine the FP-Tree by calling the recursive method.
 		// Initially, the prefix alpha is empty.
 		// if at least an item is frequent
-		if(tree.headerList.size() > 0) {
+		if(!tree.isEmpty()) {
 			// initialize the buffer for storing the current itemset
 			itemsetBuffer = new int[BUFFERS_SIZE];
 			countBuffer = new int[BUFFERS_SIZE];
+			// and other buffers
+			fpNodeTempBuffer = new int[itemsByDenseId.length];
+			prefixPathBuffer = new int[itemsByDenseId.length];
 			// Next we will recursively generate frequent itemsets using the fp-tree
-			fpclose(tree, itemsetBuffer, 0, transactionCount, originalMapSupport);
+			fpclose(tree, itemsetBuffer, 0, transactionCount);
 		}
 		
 		// close the output file if the result was saved to a file
@@ -208,66 +204,76 @@ public class AlgoFPClose {
 		
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the result (if saved to memory)
 		return patterns;
 	}
 
+	/**
+	 * Rename frequent items 0, 1, 2... by decreasing order of support (items having the same
+	 * support are sorted by lexical order). The original name of each item is stored
+	 * in the array itemsByDenseId.
+	 * @param mapSupport the support of each item (key: item, value: support)
+	 * @return an array indicating the new name of each item, or -1 if the item is not frequent.
+	 */
+	private int[] renameFrequentItems(Map<Integer, Integer> mapSupport) {
+		int maxItem = 0;
+		for(Integer item : mapSupport.keySet()){
+			if(item > maxItem){
+				maxItem = item;
+			}
+		}
+		int[] supports = new int[maxItem + 1];
+		for(Map.Entry<Integer, Integer> entry : mapSupport.entrySet()){
+			supports[entry.getKey()] = entry.getValue();
+		}
+		itemsByDenseId = CompactFPTree.sortFrequentItems(supports, minSupportRelative);
+		int[] denseIdOfItem = new int[supports.length];
+		Arrays.fill(denseIdOfItem, -1);
+		for(int i = 0; i < itemsByDenseId.length; i++){
+			denseIdOfItem[itemsByDenseId[i]] = i;
+		}
+		return denseIdOfItem;
+	}
 	
 	/**
 	 * Mine an FP-Tree having more than one path.
 	 * @param tree  the FP-tree
-	 * @param prefix  the current prefix, named "alpha"
-	 * @param mapSupport the frequency of items in the FP-Tree
+	 * @param prefix  the current prefix, named "alpha" (using the new names of items)
+	 * @param prefixLength the length of the prefix
+	 * @param prefixSupport the support of the prefix
 	 * @throws IOException  exception if error writing the output file
 	 */
-	private void fpclose(FPTree tree, int [] prefix, int prefixLength, int prefixSupport, Map<Integer, Integer> mapSupport) throws IOException {
+	private void fpclose(CompactFPTree tree, int [] prefix, int prefixLength, int prefixSupport) throws IOException {
 //		======= DEBUG ========
 		if(DEBUG) {
 			System.out.print("###### Prefix: ");
 			for(int k=0; k< prefixLength; k++) {
-				System.out.print(prefix[k] + "  ");
+				System.out.print(itemsByDenseId[prefix[k]] + "  ");
 			}
 			System.out.println("\n");
 			System.out.println(tree);
 		}	//========== END DEBUG =======
 
-		// We first check if the FPtree contains a single path
-		// We will check if the FPtree contains a single path
-		boolean singlePath = true;
+		// We first check if the FPtree contains a single path.
+		// If yes, the nodes of the path are copied in a buffer.
+		int pathLength = tree.getSinglePath(fpNodeTempBuffer);
 		// This variable is used to count the number of items in the single path  (if there
 		// is one + the prefix length
 		int position = prefixLength;
-		if(tree.root.childs.size() > 1) {
-			// if the root has more than one child, than it is not a single path
-			singlePath = false;
-		}else {
-			// if the root has exactly one child, we need to recursively check childs
-			// of the child to see if they also have one child
-			FPNode currentNode = tree.root.childs.get(0);
-			while(true){
-				// if the current child has more than one child, it is not a single path!
-				if(currentNode.childs.size() > 1) {
-					singlePath = false;
-					break;
-				}
-				// otherwise, we copy the current item in the buffer and move to the child
-				itemsetBuffer[position] = currentNode.itemID;
-				countBuffer[position] = currentNode.counter;
+		if(pathLength != -1) {
+			// we copy the items of the path and their counters in the buffers
+			for(int i = 0; i < pathLength; i++) {
+				itemsetBuffer[position] = tree.nodeItem[fpNodeTempBuffer[i]];
+				countBuffer[position] = tree.nodeCounter[fpNodeTempBuffer[i]];
 				position++;
-				// if this node has no child, that means that this is the end of this path
-				// and it is a single path, so we break
-				if(currentNode.childs.size() == 0) {
-					break;
-				}
-				currentNode = currentNode.childs.get(0);
 			}
 		}
 		
 		// Case 1: the FPtree contains a single path
 		// If this path has enough support:
-		if(singlePath && countBuffer[position-1] >= minSupportRelative){
-//			System.out.println();
+		if(pathLength != -1 && countBuffer[position-1] >= minSupportRelative){
 			// generate all the CFIs from this path
 			// for each CFI X generated, we will check if X is closed
 			// by looking at the CFI-tree. If yes we will insert X in
@@ -279,12 +285,11 @@ public class AlgoFPClose {
 					
 					// if he current itemset passes the closure checking
 					// we save this as a closed itemset
-					int[] headWithP = new int[i];
-					System.arraycopy(itemsetBuffer, 0, headWithP, 0, i);
-					sortOriginalOrder(headWithP, i);
+					int[] headWithP = Arrays.copyOf(itemsetBuffer, i);
+					renameToOriginalOrder(headWithP);
 					
 					if(cfiTree.passSubsetChecking(headWithP, i, pathSupport)) {
-						saveItemset(headWithP, i, pathSupport);
+						saveItemset(headWithP, pathSupport);
 					}
 				}else {
 					// if the counter of item in the i+1 th position is different
@@ -294,15 +299,14 @@ public class AlgoFPClose {
 						
 						// if he current itemset passes the closure checking
 						// we save this as a closed itemset
-						int[] headWithP = new int[i];
-						System.arraycopy(itemsetBuffer, 0, headWithP, 0, i);
-						sortOriginalOrder(headWithP, i);
+						int[] headWithP = Arrays.copyOf(itemsetBuffer, i);
+						renameToOriginalOrder(headWithP);
 						
 						if(cfiTree.passSubsetChecking(headWithP, i, pathSupport)) {
 							// if the itemset ending in the i th position passes
 							// the closure checking,
 							// we save the itemset ending in the i th position as a closed itemset
-							saveItemset(headWithP, i, pathSupport);
+							saveItemset(headWithP, pathSupport);
 						}
 					}
 				}
@@ -312,12 +316,14 @@ public class AlgoFPClose {
 			// Case 2: There are multiple paths.
 			
 			// For each frequent item in the header table list of the tree in reverse order. (in decreasing order of support...)
-			for(int i = tree.headerList.size()-1; i>=0; i--){
-				// get the item
-				Integer item = tree.headerList.get(i);
+			for(int item = tree.getItemCount()-1; item >=0; item--){
+				// if the item does not appear in the tree, skip it
+				if(tree.headerFirstNode[item] == CompactFPTree.NO_NODE) {
+					continue;
+				}
 				
 				// get the item support
-				int support = mapSupport.get(item);
+				int support = tree.itemSupport[item];
 				
 				// calculate the support of the new prefix beta
 				int betaSupport = (prefixSupport < support) ? prefixSupport: support;
@@ -326,61 +332,14 @@ public class AlgoFPClose {
 				prefix[prefixLength] = item;
 				countBuffer[prefixLength] = betaSupport;
 				
-				// === (A) Construct beta's conditional pattern base ===
-				// It is a subdatabase which consists of the set of prefix paths
-				// in the FP-tree co-occuring with the prefix pattern.
-				List<List<FPNode>> prefixPaths = new ArrayList<List<FPNode>>();
-				FPNode path = tree.mapItemNodes.get(item);
-				
-				// Map to count the support of items in the conditional prefix tree
-				// Key: item   Value: support
-				Map<Integer, Integer> mapSupportBeta = new HashMap<Integer, Integer>();
-				
-				while(path != null){
-					// if the path is not just the root node
-					if(path.parent.itemID != -1){
-						// create the prefixpath
-						List<FPNode> prefixPath = new ArrayList<FPNode>();
-						// add this node.
-						prefixPath.add(path);   // NOTE: we add it just to keep its support,
-						// actually it should not be part of the prefixPath
-						
-						// ####
-						int pathCount = path.counter;
-						
-						//Recursively add all the parents of this node.
-						FPNode parent = path.parent;
-						while(parent.itemID != -1){
-							prefixPath.add(parent);
-							
-							// FOR EACH PATTERN WE ALSO UPDATE THE ITEM SUPPORT AT THE SAME TIME
-							// if the first time we see that node id
-							if(mapSupportBeta.get(parent.itemID) == null){
-								// just add the path count
-								mapSupportBeta.put(parent.itemID, pathCount);
-							}else{
-								// otherwise, make the sum with the value already stored
-								mapSupportBeta.put(parent.itemID, mapSupportBeta.get(parent.itemID) + pathCount);
-							}
-							parent = parent.parent;
-						}
-						// add the path to the list of prefixpaths
-						prefixPaths.add(prefixPath);
-					}
-					// We will look for the next prefixpath
-					path = path.nodeLink;
-				}
-
-				
 				// ===== FP-CLOSE ======
 				// concatenate Beta (Head) with the item "item" (i) to check 
 				// for closure
-				int[] headWithP = new int[prefixLength+1];
-				System.arraycopy(prefix, 0, headWithP, 0, prefixLength+1);
+				int[] headWithP = Arrays.copyOf(prefix, prefixLength+1);
 				
 				// Sort Head U {item} according to the original header list total order on items
-				// sort item in the transaction by descending order of support
-				sortOriginalOrder(headWithP, prefixLength+1);
+				// and use the original names of items
+				renameToOriginalOrder(headWithP);
 
 				//======= DEBUG ========
 				if(DEBUG) {
@@ -394,26 +353,18 @@ public class AlgoFPClose {
 					if(DEBUG) {
 						System.out.println("    passed!");
 					}
-					// (B) Construct beta's conditional FP-Tree using its prefix path
-					// Create the tree.
-					FPTree treeBeta = new FPTree();
-					// Add each prefixpath in the FP-tree.
-					for(List<FPNode> prefixPath : prefixPaths){
-						treeBeta.addPrefixPath(prefixPath, mapSupportBeta, minSupportRelative); 
-					}  
+					// Construct beta's conditional FP-Tree using its prefix paths
+					// (items that are not frequent in the prefix paths are not inserted)
+					CompactFPTree treeBeta = tree.createConditionalTree(item, minSupportRelative, prefixPathBuffer);
 					// Mine recursively the Beta tree if the root has child(s)
-					if(treeBeta.root.childs.size() > 0){
-
-						// Create the header list.
-						treeBeta.createHeaderList(originalMapSupport); 
-						
+					if(!treeBeta.isEmpty()){
 						// recursive call
-						fpclose(treeBeta, prefix, prefixLength+1, betaSupport, mapSupportBeta);
+						fpclose(treeBeta, prefix, prefixLength+1, betaSupport);
 					}
 					// if the tree is empty we still need to try to save the 
 					// itemset
 					if(cfiTree.passSubsetChecking(headWithP, prefixLength+1, betaSupport)) {
-						saveItemset(headWithP, prefixLength+1, betaSupport);
+						saveItemset(headWithP, betaSupport);
 					}
 				}
 				else {
@@ -428,30 +379,41 @@ public class AlgoFPClose {
 		}
 	}
 
+	/**
+	 * Sort an itemset according to the total order of support in the original database
+	 * and replace the new name of each item by its original name.
+	 * @param itemset an itemset where items are represented by their new names
+	 */
+	private void renameToOriginalOrder(int[] itemset) {
+		// the order of support is the order of new names
+		Arrays.sort(itemset);
+		for(int i = 0; i < itemset.length; i++) {
+			itemset[i] = itemsByDenseId[itemset[i]];
+		}
+	}
+
 	/**
 	 * Write a frequent itemset that is found to the output file or
 	 * keep into memory if the user prefer that the result be saved into memory.
+	 * @param itemset the itemset, sorted according to the order of decreasing support 
+	 *    in the original database
+	 * @param support the support of the itemset
 	 */
-	private void saveItemset(int [] itemset, int itemsetLength, int support) throws IOException {
-		
-		// copy the itemset in the output buffer and sort items according to the
-		// order of decreasing support in the original database
-		int[] itemsetCopy = new int[itemsetLength];
-		System.arraycopy(itemset, 0, itemsetCopy, 0, itemsetLength);
-		sortOriginalOrder(itemsetCopy, itemsetLength);
+	private void saveItemset(int [] itemset, int support) throws IOException {
+		int itemsetLength = itemset.length;
 		
 		if(DEBUG) {
 	//		//======= DEBUG ========
 			System.out.print(" ##### SAVING : ");
 			for(int i=0; i< itemsetLength; i++) {
-				System.out.print(itemsetCopy[i] + "  ");
+				System.out.print(itemset[i] + "  ");
 			}
 			System.out.println("\n");
 	//		//========== END DEBUG =======
 		}
 		
 		// add the itemset to the CFI-TREE
-		cfiTree.addCFI(itemsetCopy, itemsetCopy.length, support);
+		cfiTree.addCFI(itemset, itemsetLength, support);
 		
 		// increase the number of itemsets found for statistics purpose
 		itemsetCount++;
@@ -463,7 +425,7 @@ public class AlgoFPClose {
 			StringBuilder buffer = new StringBuilder();
 			// write the items of the itemset
 			for(int i=0; i< itemsetLength; i++){
-				buffer.append(itemsetCopy[i]);
+				buffer.append(itemset[i]);
 				if(i != itemsetLength-1){
 					buffer.append(' ');
 				}
@@ -478,6 +440,7 @@ public class AlgoFPClose {
 		else{
 			
 			// sort the itemset so that it is sorted according to lexical ordering before we show it to the user
+			int[] itemsetCopy = Arrays.copyOf(itemset, itemsetLength);
 			Arrays.sort(itemsetCopy);
 			
 			Itemset itemsetObj = new Itemset(itemsetCopy);
@@ -485,26 +448,6 @@ public class AlgoFPClose {
 			patterns.addItemset(itemsetObj, itemsetLength);
 		}
 	}
-	
-	/**
-	 * Sort an array of items according to the total order of support
-	 * This has an average performance of O(n^2)
-	 * @param a array of integers
-	 */
-    private void sortOriginalOrder(int[] a, int length){
-		// Perform a bubble sort
-		for(int i=0; i < length; i++){
-			for(int j= length -1; j>= i+1; j--){
-				boolean test = comparatorOriginalOrder.compare(a[j], a[j-1]) < 0;
-				if(test){
-					int temp = a[j];
-					a[j] = a[j-1];
-					a[j-1] = temp;
-				}
-			}
-		}
-
-	}
 
 
 	/**
@@ -562,6 +505,9 @@ public class AlgoFPClose {
 		System.out.print(" Max memory usage: " + MemoryLogger.getInstance().getMaxMemory() + " mb \n");
 		System.out.println(" Closed frequent itemset count : " + itemsetCount); 
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -572,4 +518,12 @@ public class AlgoFPClose {
 	public int getDatabaseSize() {
 		return transactionCount;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
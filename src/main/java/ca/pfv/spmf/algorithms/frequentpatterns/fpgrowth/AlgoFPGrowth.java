@@ -18,9 +18,14 @@
  */
 
 
+ import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+ import ca.pfv.spmf.patterns.MemoryPatternSink;
+ import ca.pfv.spmf.patterns.PatternSink;
+ import ca.pfv.spmf.patterns.TextPatternSink;
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
  import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
  import java.io.*;
  import java.util.*;
@@ -35,9 +40,10 @@
  * 
  * This is an optimized version that saves the result to a file
  * or keep it into memory if no output path is provided
- * by the user to the runAlgorithm method().
+ * by the user to the runAlgorithm method(). The patterns can also be given
+ * to any other PatternSink (see setPatternSink()).
  *
- * @see FPTree
+ * @see CompactFPTree
  * @see Itemset
  * @see Itemsets
  * @author Philippe Fournier-Viger
@@ -49,11 +55,13 @@ public class AlgoFPGrowth {
 	private long endTime; // end time of the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
+	private RunMetrics runMetrics = null; // resources used by the latest execution
 	
 	// parameter
     private int minSupportRelative;// the relative minimum support
 	
-	private BufferedWriter writer = null; // object to write the output file
+	private PatternSink sink = null; // object where the patterns are written
+	private PatternSink nextSink = null; // sink chosen by the user for the next execution
 	
 	// The  patterns that are found 
 	// (if the user want to keep them into memory)
@@ -67,11 +75,16 @@ public class AlgoFPGrowth {
 	// the idea is to always reuse the same buffer to reduce memory usage.
 	private int[] itemsetBuffer = null;
 	// another buffer for storing fpnodes in a single path of the tree
-	private FPNode[] fpNodeTempBuffer = null;
+	private int[] fpNodeTempBuffer = null;
+	// a buffer for storing a prefix path when building a conditional tree
+	private int[] prefixPathBuffer = null;
 	
-	// This buffer is used to store an itemset that will be written to file
-	// so that the algorithm can sort the itemset before it is output to file
-	// (when the user choose to output result to file).
+	// The items of the fp-tree are renamed 0, 1, 2... by decreasing order of support.
+	// This array indicates the original name of each item.
+	private int[] itemsByDenseId = null;
+	
+	// This buffer is used to store an itemset that will be written to the sink
+	// so that the algorithm can sort the itemset before it is output.
 	private int[] itemsetOutputBuffer = null;
 
 	/**
@@ -81,6 +94,16 @@ public class AlgoFPGrowth {
 		
 	}
 
+	/**
+	 * Set the PatternSink where the patterns found by the next execution will be written,
+	 * instead of the output file or memory. The sink is closed at the end of the execution.
+	 * For example, a CountingPatternSink can be used to count the patterns without writing them.
+	 * @param sink the sink
+	 */
+	public void setPatternSink(PatternSink sink) {
+		this.nextSink = sink;
+	}
+
 	/**
 	 * Method to run the FPGRowth algorithm.
 	 * @param input the path to an input file containing a transaction database.
@@ -93,22 +116,8 @@ public class AlgoFPGrowth {
 	public Itemsets runAlgorithm(String input, String output, double minsupp) throws IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
-		// number of itemsets found
-		itemsetCount = 0;
-		
-		//initialize tool to record memory usage
-		MemoryLogger.getInstance().reset();
-		MemoryLogger.getInstance().checkMemory();
-		
-		// if the user want to keep the result into memory
-		if(output == null){
-			writer = null;
-			patterns =  new Itemsets("FREQUENT ITEMSETS");
-	    }else{ // if the user want to save the result to a file
-			patterns = null;
-			writer = new BufferedWriter(new FileWriter(output)); 
-			itemsetOutputBuffer = new int[BUFFERS_SIZE];
-		}
+		// initialize the output and statistics
+		initialize(output);
 		
 		// (1) PREPROCESSING: Initial database scan to determine the frequency of each item
 		// The frequency is stored in a map:
@@ -119,11 +128,27 @@ public class AlgoFPGrowth {
 		// relative minimum support
 		this.minSupportRelative = (int) Math.ceil(minsupp * transactionCount);
 		
-		// (2) Scan the database again to build the initial FP-Tree
+		// (2) Rename frequent items 0, 1, 2... by decreasing order of support,
+		// so that the FP-tree can store items as array positions.
+		int maxItem = 0;
+		for(Integer item : mapSupport.keySet()){
+			if(item > maxItem){
+				maxItem = item;
+			}
+		}
+		int[] supports = new int[maxItem + 1];
+		for(Map.Entry<Integer, Integer> entry : mapSupport.entrySet()){
+			supports[entry.getKey()] = entry.getValue();
+		}
+		int[] denseIdOfItem = renameFrequentItems(supports);
+		
+		// (3) Scan the database again to build the initial FP-Tree
+		MemoryLogger.getInstance().startPhase("tree construction");
 		// Before inserting a transaction in the FPTree, we sort the items
 		// by descending order of support.  We ignore items that
 		// do not have the minimum support.
-		FPTree tree = new FPTree();
+		CompactFPTree tree = new CompactFPTree(itemsByDenseId.length, 1024);
+		int[] transaction = new int[Math.max(itemsByDenseId.length, 1)];
 		
 		// read the file
 		BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
@@ -138,137 +163,200 @@ public class AlgoFPGrowth {
 			}
 			
 			String[] lineSplited = line.split(" ");
-//			Set<Integer> alreadySeen = new HashSet<Integer>();
-			List<Integer> transaction = new ArrayList<Integer>();
+			int length = 0;
 			
 			// for each item in the transaction
 			for(String itemString : lineSplited){  
-				Integer item = Integer.parseInt(itemString);
+				int denseId = denseIdOfItem[Integer.parseInt(itemString)];
 				// only add items that have the minimum support
-				if(mapSupport.get(item) >= minSupportRelative){
-					transaction.add(item);	
+				if(denseId != -1){
+					transaction[length++] = denseId;
 				}
 			}
 			// sort item in the transaction by descending order of support
-			Collections.sort(transaction, new Comparator<Integer>(){
-				public int compare(Integer item1, Integer item2){
-					// compare the frequency
-					int compare = mapSupport.get(item2) - mapSupport.get(item1);
-					// if the same frequency, we check the lexical ordering!
-					if(compare == 0){ 
-						return (item1 - item2);
-					}
-					// otherwise, just use the frequency
-					return compare;
-				}
-			});
+			Arrays.sort(transaction, 0, length);
 			// add the sorted transaction to the fptree.
-			tree.addTransaction(transaction);
+			tree.addTransaction(transaction, length, 1);
 		}
 		// close the input file
 		reader.close();
 		
-		// We create the header table for the tree using the calculated support of single items
-		tree.createHeaderList(mapSupport);
+		// (4) mine the tree
+		mineTree(tree);
 		
-		// (5) We start to mine the FP-Tree by calling the recursive method.
+		// return the result (if saved to memory)
+		return patterns;
+	}
+
+	/**
+	 * Method to run the FPGRowth algorithm on a database in the SPMF binary format.
+	 * Because the support of each item is stored in the binary file, the database
+	 * is read only once.
+	 * @param database a transaction database in binary format.
+	 * @param output the output file path for saving the result (if null, the result 
+	 *        will be returned by the method instead of being saved).
+	 * @param minsupp the minimum support threshold.
+	 * @return the result if no output file path is provided.
+	 * @throws IOException exception if error reading or writing files
+	 */
+	public Itemsets runAlgorithm(BinaryTransactionDatabase database, String output, double minsupp) throws IOException {
+		// record start time
+		startTimestamp = System.currentTimeMillis();
+		// initialize the output and statistics
+		initialize(output);
+		
+		// (1) get the number of transactions and the support of each item
+		transactionCount = database.size();
+		this.minSupportRelative = (int) Math.ceil(minsupp * transactionCount);
+		int[] supports = new int[database.getMaxItem() + 1];
+		for(int item = 0; item < supports.length; item++){
+			supports[item] = database.getSupport(item);
+		}
+		
+		// (2) Rename frequent items 0, 1, 2... by decreasing order of support
+		int[] denseIdOfItem = renameFrequentItems(supports);
+		
+		// (3) Read the transactions to build the initial FP-Tree
+		MemoryLogger.getInstance().startPhase("tree construction");
+		CompactFPTree tree = new CompactFPTree(itemsByDenseId.length, 1024);
+		int[] transaction = new int[Math.max(itemsByDenseId.length, 1)];
+		int[] buffer = new int[16];
+		for(int tid = 0; tid < transactionCount; tid++){
+			int transactionLength = database.getTransactionLength(tid);
+			if(transactionLength > buffer.length){
+				buffer = new int[transactionLength];
+			}
+			database.getItems(tid, buffer);
+			int length = 0;
+			// only keep items that have the minimum support
+			for(int i = 0; i < transactionLength; i++){
+				int denseId = denseIdOfItem[buffer[i]];
+				if(denseId != -1){
+					transaction[length++] = denseId;
+				}
+			}
+			// sort item in the transaction by descending order of support
+			Arrays.sort(transaction, 0, length);
+			// add the sorted transaction to the fptree.
+			tree.addTransaction(transaction, length, 1);
+		}
+		
+		// (4) mine the tree
+		mineTree(tree);
+		
+		// return the result (if saved to memory)
+		return patterns;
+	}
+
+	/**
+	 * Initialize the statistics and the object for saving the result.
+	 * @param output the output file path or null if the result is kept in memory
+	 * @throws IOException if error creating the output file
+	 */
+	private void initialize(String output) throws IOException {
+		// number of itemsets found
+		itemsetCount = 0;
+		transactionCount = 0;
+		
+		//initialize tool to record memory usage
+		MemoryLogger.getInstance().reset();
+		MemoryLogger.getInstance().checkMemory();
+		MemoryLogger.getInstance().startPhase("database scan");
+		
+		// if the user has chosen a sink, the patterns are written to that sink
+		if(nextSink != null){
+			patterns = null;
+			sink = nextSink;
+			nextSink = null;
+		}else if(output == null){
+			// if the user want to keep the result into memory
+			MemoryPatternSink memorySink = new MemoryPatternSink("FREQUENT ITEMSETS");
+			patterns = memorySink.getItemsets();
+			sink = memorySink;
+	    }else{ // if the user want to save the result to a file
+			patterns = null;
+			sink = new TextPatternSink(output, TextPatternSink.SUPPORT_LABEL);
+		}
+		itemsetOutputBuffer = new int[BUFFERS_SIZE];
+	}
+
+	/**
+	 * Rename frequent items 0, 1, 2... by decreasing order of support (items having the same
+	 * support are sorted by lexical order). The original name of each item is stored
+	 * in the array itemsByDenseId.
+	 * @param supports the support of each item (the position is the item)
+	 * @return an array indicating the new name of each item, or -1 if the item is not frequent.
+	 */
+	private int[] renameFrequentItems(int[] supports) {
+		itemsByDenseId = CompactFPTree.sortFrequentItems(supports, minSupportRelative);
+		int[] denseIdOfItem = new int[supports.length];
+		Arrays.fill(denseIdOfItem, -1);
+		for(int i = 0; i < itemsByDenseId.length; i++){
+			denseIdOfItem[itemsByDenseId[i]] = i;
+		}
+		return denseIdOfItem;
+	}
+
+	/**
+	 * Mine the initial FP-Tree and close the output file.
+	 * @param tree the FP-tree
+	 * @throws IOException if error writing the output file
+	 */
+	private void mineTree(CompactFPTree tree) throws IOException {
+		MemoryLogger.getInstance().startPhase("mining");
+		// We start to mine the FP-Tree by calling the recursive method.
 		// Initially, the prefix alpha is empty.
 		// if at least an item is frequent
-		if(tree.headerList.size() > 0) {
+		if(!tree.isEmpty()) {
 			// initialize the buffer for storing the current itemset
 			itemsetBuffer = new int[BUFFERS_SIZE];
-			// and another buffer
-			fpNodeTempBuffer = new FPNode[BUFFERS_SIZE];
+			// and other buffers
+			fpNodeTempBuffer = new int[itemsByDenseId.length];
+			prefixPathBuffer = new int[itemsByDenseId.length];
 			// recursively generate frequent itemsets using the fp-tree
-			// Note: we assume that the initial FP-Tree has more than one path
-			// which should generally be the case.
-			fpgrowth(tree, itemsetBuffer, 0, transactionCount, mapSupport);
+			fpgrowth(tree, itemsetBuffer, 0, transactionCount);
 		}
 		
-		// close the output file if the result was saved to a file
-		if(writer != null){
-			writer.close();
-		}
+		// close the sink (and the output file if the result was saved to a file)
+		sink.close();
 		// record the execution end time
 		endTime= System.currentTimeMillis();
 		
-		// check the memory usage
+		// check the memory usage and stop recording the resources used
 		MemoryLogger.getInstance().checkMemory();
-		
-		// return the result (if saved to memory)
-		return patterns;
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
-
-	
 	/**
-	 * Mine an FP-Tree having more than one path.
+	 * Mine an FP-Tree.
 	 * @param tree  the FP-tree
 	 * @param prefix  the current prefix, named "alpha"
-	 * @param mapSupport the frequency of items in the FP-Tree
+	 * @param prefixLength the length of the prefix
+	 * @param prefixSupport the support of the prefix
 	 * @throws IOException  exception if error writing the output file
 	 */
-	private void fpgrowth(FPTree tree, int [] prefix, int prefixLength, int prefixSupport, Map<Integer, Integer> mapSupport) throws IOException {
-////		======= DEBUG ========
-//		System.out.print("###### Prefix: ");
-//		for(int k=0; k< prefixLength; k++) {
-//			System.out.print(prefix[k] + "  ");
-//		}
-//		System.out.println("\n");
-////				========== END DEBUG =======
-//		System.out.println(tree);
-		
-		// We will check if the FPtree contains a single path
-		boolean singlePath = true;
-		// We will use a variable to keep the support of the single path if there is one
-		int singlePathSupport = 0;
-		// This variable is used to count the number of items in the single path
-		// if there is one
-		int position = 0;
-		// if the root has more than one child, than it is not a single path
-		if(tree.root.childs.size() > 1) {
-			singlePath = false;
-		}else {
-			
-			// Otherwise,
-			// if the root has exactly one child, we need to recursively check childs
-			// of the child to see if they also have one child
-			FPNode currentNode = tree.root.childs.get(0);
-			while(true){
-				// if the current child has more than one child, it is not a single path!
-				if(currentNode.childs.size() > 1) {
-					singlePath = false;
-					break;
-				}
-				// otherwise, we copy the current item in the buffer and move to the child
-				// the buffer will be used to store all items in the path
-				fpNodeTempBuffer[position] = currentNode;
-				
-				position++;
-				// if this node has no child, that means that this is the end of this path
-				// and it is a single path, so we break
-				if(currentNode.childs.size() == 0) {
-					break;
-				}
-				currentNode = currentNode.childs.get(0);
-			}
-		}
+	private void fpgrowth(CompactFPTree tree, int [] prefix, int prefixLength, int prefixSupport) throws IOException {
+		// We will check if the FPtree contains a single path.
+		// If yes, the nodes of the path are copied in a buffer.
+		int position = tree.getSinglePath(fpNodeTempBuffer);
 		
 		// Case 1: the FPtree contains a single path
-		if(singlePath && singlePathSupport >= minSupportRelative){	
-			// We save the path, because it is a maximal itemset
-			saveAllCombinationsOfPrefixPath(fpNodeTempBuffer, position, prefix, prefixLength);
+		// (the number of combinations must be representable with a long)
+		if(position != -1 && position < 63){	
+			// We save all the combinations of items from the path
+			saveAllCombinationsOfPrefixPath(tree, fpNodeTempBuffer, position, prefix, prefixLength);
 		}else {
 			// For each frequent item in the header table list of the tree in reverse order.
-			for(int i = tree.headerList.size()-1; i>=0; i--){
-				// get the item
-				Integer item = tree.headerList.get(i);
-				
+			for(int item = tree.getItemCount()-1; item >=0; item--){
+				// if the item does not appear in the tree, skip it
+				if(tree.headerFirstNode[item] == CompactFPTree.NO_NODE) {
+					continue;
+				}
 				// get the item support
-				int support = mapSupport.get(item);
+				int support = tree.itemSupport[item];
 	
 				// Create Beta by concatening prefix Alpha by adding the current item to alpha
-				prefix[prefixLength] = item;
+				prefix[prefixLength] = itemsByDenseId[item];
 				
 				// calculate the support of the new prefix beta
 				int betaSupport = (prefixSupport < support) ? prefixSupport: support;
@@ -276,101 +364,51 @@ public class AlgoFPGrowth {
 				// save beta to the output file
 				saveItemset(prefix, prefixLength+1, betaSupport);
 				
-				// === (A) Construct beta's conditional pattern base ===
-				// It is a subdatabase which consists of the set of prefix paths
-				// in the FP-tree co-occuring with the prefix pattern.
-				List<List<FPNode>> prefixPaths = new ArrayList<List<FPNode>>();
-				FPNode path = tree.mapItemNodes.get(item);
-				
-				// Map to count the support of items in the conditional prefix tree
-				// Key: item   Value: support
-				Map<Integer, Integer> mapSupportBeta = new HashMap<Integer, Integer>();
-				
-				while(path != null){
-					// if the path is not just the root node
-					if(path.parent.itemID != -1){
-						// create the prefixpath
-						List<FPNode> prefixPath = new ArrayList<FPNode>();
-						// add this node.
-						prefixPath.add(path);   // NOTE: we add it just to keep its support,
-						// actually it should not be part of the prefixPath
-						
-						// ####
-						int pathCount = path.counter;
-						
-						//Recursively add all the parents of this node.
-						FPNode parent = path.parent;
-						while(parent.itemID != -1){
-							prefixPath.add(parent);
-							
-							// FOR EACH PATTERN WE ALSO UPDATE THE ITEM SUPPORT AT THE SAME TIME
-							// if the first time we see that node id
-							if(mapSupportBeta.get(parent.itemID) == null){
-								// just add the path count
-								mapSupportBeta.put(parent.itemID, pathCount);
-							}else{
-								// otherwise, make the sum with the value already stored
-								mapSupportBeta.put(parent.itemID, mapSupportBeta.get(parent.itemID) + pathCount);
-							}
-							parent = parent.parent;
-						}
-						// add the path to the list of prefixpaths
-						prefixPaths.add(prefixPath);
-					}
-					// We will look for the next prefixpath
-					path = path.nodeLink;
-				}
-
-				// (B) Construct beta's conditional FP-Tree
-				// Create the tree.
-				FPTree treeBeta = new FPTree();
-				// Add each prefixpath in the FP-tree.
-				for(List<FPNode> prefixPath : prefixPaths){
-					treeBeta.addPrefixPath(prefixPath, mapSupportBeta, minSupportRelative); 
-				}  
+				// Construct beta's conditional FP-Tree using its prefix paths
+				// (items that are not frequent in the prefix paths are not inserted)
+				CompactFPTree treeBeta = tree.createConditionalTree(item, minSupportRelative, prefixPathBuffer);
 				
 				// Mine recursively the Beta tree if the root has child(s)
-				if(treeBeta.root.childs.size() > 0){
-
-					// Create the header list.
-					treeBeta.createHeaderList(mapSupportBeta); 
-					// recursive call
-					fpgrowth(treeBeta, prefix, prefixLength+1, betaSupport, mapSupportBeta);
+				if(!treeBeta.isEmpty()){
+					fpgrowth(treeBeta, prefix, prefixLength+1, betaSupport);
 				}
 			}
 		}
 		
+		// check the memory usage
+		MemoryLogger.getInstance().checkMemory();
 	}
 
 
 	/**
 	 * This method saves all combinations of a prefix path if it has enough support
+	 * @param tree the tree containing the path
+	 * @param nodes the nodes of the path, from the root to the leaf
+	 * @param position the number of nodes in the path
 	 * @param prefix the current prefix
 	 * @param prefixLength the current prefix length
 	 * @throws IOException if exception while writting to output file
 	 */
-	private void saveAllCombinationsOfPrefixPath(FPNode[] fpNodeTempBuffer, int position, 
+	private void saveAllCombinationsOfPrefixPath(CompactFPTree tree, int[] nodes, int position, 
 			int[] prefix, int prefixLength) throws IOException {
 
-		int support = 0;
 		// Generate all subsets of the prefixPath except the empty set
 		// and output them
 		// We use bits to generate all subsets.
-		for (long i = 1, max = 1 << position; i < max; i++) {
+		for (long i = 1, max = 1L << position; i < max; i++) {
 			
 			// we create a new subset
 			int newPrefixLength = prefixLength;
+			// the support of a subset is the support of its deepest node in the path
+			int support = 0;
 			
 			// for each bit
 			for (int j = 0; j < position; j++) {
 				// check if the j bit is set to 1
-				int isSet = (int) i & (1 << j);
 				// if yes, add the bit position as an item to the new subset
-				if (isSet > 0) {
-					prefix[newPrefixLength++] = fpNodeTempBuffer[j].itemID;
-					if(support == 0) {
-						support = fpNodeTempBuffer[j].counter;
-					}
+				if ((i & (1L << j)) != 0) {
+					prefix[newPrefixLength++] = itemsByDenseId[tree.nodeItem[nodes[j]]];
+					support = tree.nodeCounter[nodes[j]];
 				}
 			}
 			// save the itemset
@@ -425,50 +463,19 @@ public class AlgoFPGrowth {
 
 
 	/**
-	 * Write a frequent itemset that is found to the output file or
-	 * keep into memory if the user prefer that the result be saved into memory.
+	 * Write a frequent itemset that is found to the sink (the output file, memory
+	 * or the sink chosen by the user).
 	 */
 	private void saveItemset(int [] itemset, int itemsetLength, int support) throws IOException {
 		
 		// increase the number of itemsets found for statistics purpose
 		itemsetCount++;
 		
-		// if the result should be saved to a file
-		if(writer != null){
-			// copy the itemset in the output buffer and sort items
-			System.arraycopy(itemset, 0, itemsetOutputBuffer, 0, itemsetLength);
-			Arrays.sort(itemsetOutputBuffer, 0, itemsetLength);
-			
-			// Create a string buffer
-			StringBuilder buffer = new StringBuilder();
-			// write the items of the itemset
-			for(int i=0; i< itemsetLength; i++){
-				buffer.append(itemsetOutputBuffer[i]);
-				if(i != itemsetLength-1){
-					buffer.append(' ');
-				}
-			}
-			// Then, write the support
-			buffer.append(" #SUP: ");
-			buffer.append(support);
-			// write to file and create a new line
-			writer.write(buffer.toString());
-			writer.newLine();
-			
-		}// otherwise the result is kept into memory
-		else{
-			// create an object Itemset and add it to the set of patterns 
-			// found.
-			int[] itemsetArray = new int[itemsetLength];
-			System.arraycopy(itemset, 0, itemsetArray, 0, itemsetLength);
-			
-			// sort the itemset so that it is sorted according to lexical ordering before we show it to the user
-			Arrays.sort(itemsetArray);
-			
-			Itemset itemsetObj = new Itemset(itemsetArray);
-			itemsetObj.setAbsoluteSupport(support);
-			patterns.addItemset(itemsetObj, itemsetLength);
-		}
+		// copy the itemset in the output buffer and sort items so that it is sorted
+		// according to lexical ordering before we show it to the user
+		System.arraycopy(itemset, 0, itemsetOutputBuffer, 0, itemsetLength);
+		Arrays.sort(itemsetOutputBuffer, 0, itemsetLength);
+		sink.write(itemsetOutputBuffer, itemsetLength, support);
 	}
 
 	/**
@@ -478,12 +485,23 @@ public class AlgoFPGrowth {
 		System.out.println("=============  FP-GROWTH 0.96r19 - STATS =============");
 		long temps = endTime - startTimestamp;
 		System.out.println(" Transactions count from database : " + transactionCount);
-		System.out.print(" Max memory usage: " + MemoryLogger.getInstance().getMaxMemory() + " mb \n");
+		System.out.print(" Max memory usage: " + (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()) + " mb \n");
 		System.out.println(" Frequent itemsets count : " + itemsetCount); 
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+
 	/**
 	 * Get the number of transactions in the last transaction database read.
 	 * @return the number of transactions.
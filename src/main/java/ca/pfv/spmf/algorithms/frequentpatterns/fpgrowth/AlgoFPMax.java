@@ -21,10 +21,10 @@
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
  import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
  import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
  import java.io.*;
  import java.util.*;
- import java.util.Map.Entry;
 
 /** 
  * This is an implementation of the FPMax algorithm (Grahne et al., 2004).
@@ -38,7 +38,8 @@
  * or keep it into memory if no output path is provided
  * by the user to the runAlgorithm method().
  *
- * @see FPTree
+ * @see CompactFPTree
+ * @see MFITree
  * @see Itemset
  * @see Itemsets
  * @author Philippe Fournier-Viger, 2015
@@ -48,6 +49,7 @@ public class AlgoFPMax {
 	// for statistics
 	private long startTimestamp; // start time of the latest execution
 	private long endTime; // end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
 	
@@ -67,29 +69,20 @@ public class AlgoFPMax {
 	// buffer for storing the current itemset that is mined when performing mining
 	// the idea is to always reuse the same buffer to reduce memory usage.
 	private int[] itemsetBuffer = null;
+	// another buffer for storing fpnodes in a single path of the tree
+	private int[] fpNodeTempBuffer = null;
+	// a buffer for storing a prefix path when building a conditional tree
+	private int[] prefixPathBuffer = null;
 	
-	// This is the MFI tree for storing maximal itemsets
-    private MFITree mfiTree = null;
+	// The items of the fp-tree are renamed 0, 1, 2... by decreasing order of support
+	// in the original database. This array indicates the original name of each item.
+	private int[] itemsByDenseId = null;
 	
-	// Map to store the support of single items in the original databse
-	private Map<Integer, Integer> originalMapSupport = null;
+	// This is the MFI tree for storing maximal itemsets (using the original names of items)
+    private MFITree mfiTree = null;
 	
 	// If set to true, the algorithm will show  information for debugging in the console
 	private final boolean DEBUG = false;
-	
-	// Comparator to compare the items based on the order of decreasing support in the original DB.
-    private Comparator<Integer> comparatorOriginalOrder = new Comparator<Integer>(){
-		public int compare(Integer item1, Integer item2){
-			// compare the frequency
-			int compare = originalMapSupport.get(item2) - originalMapSupport.get(item1);
-			// if the same frequency, we check the lexical ordering!
-			if(compare == 0){ 
-				compare = (item1 - item2);
-				return compare;
-			}
-			return compare;
-		}
-	};
 
 	/**
 	 * Constructor
@@ -129,21 +122,25 @@ public class AlgoFPMax {
 		// (1) PREPROCESSING: Initial database scan to determine the frequency of each item
 		// The frequency is stored in a map:
 		//    key: item   value: support
-		originalMapSupport = scanDatabaseToDetermineFrequencyOfSingleItems(input); 
+		Map<Integer, Integer> mapSupport = scanDatabaseToDetermineFrequencyOfSingleItems(input); 
 
 		// convert the minimum support as percentage to a
 		// relative minimum support
 		this.minSupportRelative = (int) Math.ceil(minsupp * transactionCount);
 		
+		// (2) Rename frequent items 0, 1, 2... by decreasing order of support,
+		// so that the FP-tree can store items as array positions.
+		int[] denseIdOfItem = renameFrequentItems(mapSupport);
 
 		// Create the MFI Tree
 		mfiTree = new MFITree();	
 		
-		// (2) Scan the database again to build the initial FP-Tree
+		// (3) Scan the database again to build the initial FP-Tree
 		// Before inserting a transaction in the FPTree, we sort the items
 		// by descending order of support.  We ignore items that
 		// do not have the minimum support.
-		FPTree tree = new FPTree();
+		CompactFPTree tree = new CompactFPTree(itemsByDenseId.length, 1024);
+		int[] transaction = new int[Math.max(itemsByDenseId.length, 1)];
 		
 		// read the file
 		BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
@@ -158,38 +155,37 @@ public class AlgoFPMax {
 			}
 			
 			String[] lineSplited = line.split(" ");
-			List<Integer> transaction = new ArrayList<Integer>();
+			int length = 0;
 			
 			// for each item in the transaction
 			for(String itemString : lineSplited){  
-				Integer item = Integer.parseInt(itemString);
+				int denseId = denseIdOfItem[Integer.parseInt(itemString)];
 				// only add items that have the minimum support
-				if(originalMapSupport.get(item) >= minSupportRelative){
-					transaction.add(item);	
+				if(denseId != -1){
+					transaction[length++] = denseId;
 				}
 			}
 			// sort item in the transaction by descending order of support
-			Collections.sort(transaction, comparatorOriginalOrder);
+			Arrays.sort(transaction, 0, length);
 			// add the sorted transaction to the fptree.
-			tree.addTransaction(transaction);
+			tree.addTransaction(transaction, length, 1);
 		}
 		// close the input file
 		reader.close();
-		
-		// We create the header table for the tree using the calculated support of single items
-		tree.createHeaderList(originalMapSupport);
-		
 
 //		System.out.println(tree);
 		
-		// (5) We start to mine the FP-Tree by calling the recursive method.
+		// (4) We start to mine the FP-Tree by calling the recursive method.
 		// Initially, the prefix alpha is empty.
 		// if at least an item is frequent
-		if(tree.headerList.size() > 0) {
+		if(!tree.isEmpty()) {
 			// initialize the buffer for storing the current itemset
 			itemsetBuffer = new int[BUFFERS_SIZE];
+			// and other buffers
+			fpNodeTempBuffer = new int[itemsByDenseId.length];
+			prefixPathBuffer = new int[itemsByDenseId.length];
 			// Next we will recursively generate frequent itemsets using the fp-tree
-			fpMax(tree, itemsetBuffer, 0, transactionCount, originalMapSupport);
+			fpMax(tree, itemsetBuffer, 0, transactionCount);
 		}
 		
 		// close the output file if the result was saved to a file
@@ -201,78 +197,86 @@ public class AlgoFPMax {
 		
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the result (if saved to memory)
 		return patterns;
 	}
 
+	/**
+	 * Rename frequent items 0, 1, 2... by decreasing order of support (items having the same
+	 * support are sorted by lexical order). The original name of each item is stored
+	 * in the array itemsByDenseId.
+	 * @param mapSupport the support of each item (key: item, value: support)
+	 * @return an array indicating the new name of each item, or -1 if the item is not frequent.
+	 */
+	private int[] renameFrequentItems(Map<Integer, Integer> mapSupport) {
+		int maxItem = 0;
+		for(Integer item : mapSupport.keySet()){
+			if(item > maxItem){
+				maxItem = item;
+			}
+		}
+		int[] supports = new int[maxItem + 1];
+		for(Map.Entry<Integer, Integer> entry : mapSupport.entrySet()){
+			supports[entry.getKey()] = entry.getValue();
+		}
+		itemsByDenseId = CompactFPTree.sortFrequentItems(supports, minSupportRelative);
+		int[] denseIdOfItem = new int[supports.length];
+		Arrays.fill(denseIdOfItem, -1);
+		for(int i = 0; i < itemsByDenseId.length; i++){
+			denseIdOfItem[itemsByDenseId[i]] = i;
+		}
+		return denseIdOfItem;
+	}
 	
 	/**
 	 * Mine an FP-Tree having more than one path.
 	 * @param tree  the FP-tree
-	 * @param prefix  the current prefix, named "alpha"
-	 * @param mapSupport the frequency of items in the FP-Tree
+	 * @param prefix  the current prefix, named "alpha" (using the new names of items)
+	 * @param prefixLength the length of the prefix
+	 * @param prefixSupport the support of the prefix
 	 * @throws IOException  exception if error writing the output file
 	 */
-	private void fpMax(FPTree tree, int [] prefix, int prefixLength, int prefixSupport, Map<Integer, Integer> mapSupport) throws IOException {
+	private void fpMax(CompactFPTree tree, int [] prefix, int prefixLength, int prefixSupport) throws IOException {
 //		======= DEBUG ========
 		if(DEBUG) {
 			System.out.print("###### Prefix: ");
 			for(int k=0; k< prefixLength; k++) {
-				System.out.print(prefix[k] + "  ");
+				System.out.print(itemsByDenseId[prefix[k]] + "  ");
 			}
 			System.out.println("\n");
 			System.out.println(tree);
 		}	//========== END DEBUG =======
 		
-		// We first check if the FPtree contains a single path
-		// We will check if the FPtree contains a single path
-		boolean singlePath = true;
-		// We will use a variable to keep the support of the single path if there is one
-		int singlePathSupport = 0;
-		// This variable is used to count the number of items in the single path  (if there
-		// is one + the prefix length
-		int position = prefixLength;
-		if(tree.root.childs.size() > 1) {
-			// if the root has more than one child, than it is not a single path
-			singlePath = false;
-		}else {
-			// if the root has exactly one child, we need to recursively check childs
-			// of the child to see if they also have one child
-			FPNode currentNode = tree.root.childs.get(0);
-			while(true){
-				// if the current child has more than one child, it is not a single path!
-				if(currentNode.childs.size() > 1) {
-					singlePath = false;
-					break;
-				}
-				// otherwise, we copy the current item in the buffer and move to the child
-				itemsetBuffer[position] = currentNode.itemID;
-				singlePathSupport = currentNode.counter;
-				position++;
-				// if this node has no child, that means that this is the end of this path
-				// and it is a single path, so we break
-				if(currentNode.childs.size() == 0) {
-					break;
-				}
-				currentNode = currentNode.childs.get(0);
-			}
-		}
+		// We first check if the FPtree contains a single path.
+		// If yes, the nodes of the path are copied in a buffer.
+		int pathLength = tree.getSinglePath(fpNodeTempBuffer);
 		
 		// Case 1: the FPtree contains a single path
-		if(singlePath && singlePathSupport >= minSupportRelative){	
+		// (the support of the path is the support of its last node)
+		if(pathLength != -1 
+				&& tree.nodeCounter[fpNodeTempBuffer[pathLength - 1]] >= minSupportRelative){
+			// we append the items of the path to the prefix
+			for(int i = 0; i < pathLength; i++) {
+				prefix[prefixLength + i] = tree.nodeItem[fpNodeTempBuffer[i]];
+			}
 			// We save the path, because it is a maximal itemset
-			saveItemset(itemsetBuffer, position, singlePathSupport);
+			int[] itemset = Arrays.copyOf(prefix, prefixLength + pathLength);
+			renameToOriginalOrder(itemset);
+			saveItemset(itemset, tree.nodeCounter[fpNodeTempBuffer[pathLength - 1]]);
 		}else {
 			// Case 2: There are multiple paths.
 			
 			// For each frequent item in the header table list of the tree in reverse order. (in decreasing order of support...)
-			for(int i = tree.headerList.size()-1; i>=0; i--){
-				// get the item
-				Integer item = tree.headerList.get(i);
+			for(int item = tree.getItemCount()-1; item >=0; item--){
+				// if the item does not appear in the tree, skip it
+				if(tree.headerFirstNode[item] == CompactFPTree.NO_NODE) {
+					continue;
+				}
 				
 				// get the item support
-				int support = mapSupport.get(item);
+				int support = tree.itemSupport[item];
 
 				// Create Beta by concatening item to the current prefix  alpha
 				prefix[prefixLength] = item;
@@ -280,112 +284,59 @@ public class AlgoFPMax {
 				// calculate the support of the new prefix beta
 				int betaSupport = (prefixSupport < support) ? prefixSupport: support;
 
-				
-				// === (A) Construct beta's conditional pattern base ===
+				// === (A) Calculate the support of items in beta's conditional pattern base ===
 				// It is a subdatabase which consists of the set of prefix paths
 				// in the FP-tree co-occuring with the prefix pattern.
-				List<List<FPNode>> prefixPaths = new ArrayList<List<FPNode>>();
-				FPNode path = tree.mapItemNodes.get(item);
-				
-				// Map to count the support of items in the conditional prefix tree
-				// Key: item   Value: support
-				Map<Integer, Integer> mapSupportBeta = new HashMap<Integer, Integer>();
-				
-				while(path != null){
-					// if the path is not just the root node
-					if(path.parent.itemID != -1){
-						// create the prefixpath
-						List<FPNode> prefixPath = new ArrayList<FPNode>();
-						// add this node.
-						prefixPath.add(path);   // NOTE: we add it just to keep its support,
-						// actually it should not be part of the prefixPath
-						
-						// ####
-						int pathCount = path.counter;
-						
-						//Recursively add all the parents of this node.
-						FPNode parent = path.parent;
-						while(parent.itemID != -1){
-							prefixPath.add(parent);
-							
-							// FOR EACH PATTERN WE ALSO UPDATE THE ITEM SUPPORT AT THE SAME TIME
-							// if the first time we see that node id
-							if(mapSupportBeta.get(parent.itemID) == null){
-								// just add the path count
-								mapSupportBeta.put(parent.itemID, pathCount);
-							}else{
-								// otherwise, make the sum with the value already stored
-								mapSupportBeta.put(parent.itemID, mapSupportBeta.get(parent.itemID) + pathCount);
-							}
-							parent = parent.parent;
-						}
-						// add the path to the list of prefixpaths
-						prefixPaths.add(prefixPath);
-					}
-					// We will look for the next prefixpath
-					path = path.nodeLink;
-				}
-
+				int[] supportBeta = tree.getPrefixPathSupports(item);
 				
 				// ===== FPMAX ======
 				// concatenate Beta with all the frequent itemsets in the pattern base
 				// to get head U P
-				List<Integer> headWithP = new ArrayList<Integer>(mapSupportBeta.size() + prefixLength+1);
-				// concatenate the prefix
-				for(int z=0; z < prefixLength+1; z++) {
-					headWithP.add(prefix[z]);
+				int headWithPLength = prefixLength + 1;
+				for(int otherItem = 0; otherItem < item; otherItem++) {
+					if(supportBeta[otherItem] >= minSupportRelative) {
+						headWithPLength++;
+					}
 				}
-				// concatenate the other FREQUENT items in the pattern base
-				// for each item
-				for(Entry<Integer,Integer> entry: mapSupportBeta.entrySet()) {
-					// if the item is frequent
-					if(entry.getValue() >= minSupportRelative) {
-						headWithP.add(entry.getKey());
+				int[] headWithP = Arrays.copyOf(prefix, headWithPLength);
+				int position = prefixLength + 1;
+				for(int otherItem = 0; otherItem < item; otherItem++) {
+					if(supportBeta[otherItem] >= minSupportRelative) {
+						headWithP[position++] = otherItem;
 					}
 				}
 				
 				// Sort Head U P according to the original header list total order on items
-				// sort item in the transaction by descending order of support
-				Collections.sort(headWithP, comparatorOriginalOrder);
+				// and use the original names of items
+				renameToOriginalOrder(headWithP);
 
 				//======= DEBUG ========
 				if(DEBUG) {
-					System.out.println(" CHECK2 : " + headWithP);
+					System.out.println(" CHECK2 : " + Arrays.toString(headWithP));
 				}
 				//========== END DEBUG =======
 				
 				// CHECK IF HEAD U P IS A SUBSET OF A MFI ACCORDING TO THE MFI-TREE
-				if(mfiTree.passSubsetChecking(headWithP)) {
+				if(mfiTree.passSubsetChecking(headWithP, headWithPLength)) {
 					
 					if(DEBUG) {
 						System.out.println("    passed!");
 					}
-					// (B) Construct beta's conditional FP-Tree using its prefix path
-					// Create the tree.
-					FPTree treeBeta = new FPTree();
-					// Add each prefixpath in the FP-tree.
-					for(List<FPNode> prefixPath : prefixPaths){
-						treeBeta.addPrefixPath(prefixPath, mapSupportBeta, minSupportRelative); 
-					}  
+					// (B) Construct beta's conditional FP-Tree using its prefix paths
+					// (items that are not frequent in the prefix paths are not inserted)
+					CompactFPTree treeBeta = tree.createConditionalTree(item, supportBeta, minSupportRelative, prefixPathBuffer);
 					// Mine recursively the Beta tree if the root has child(s)
-					if(treeBeta.root.childs.size() > 0){
-
-						// Create the header list.
-						treeBeta.createHeaderList(originalMapSupport); 
-						
+					if(!treeBeta.isEmpty()){
 						// recursive call
-						fpMax(treeBeta, prefix, prefixLength+1, betaSupport, mapSupportBeta);
+						fpMax(treeBeta, prefix, prefixLength+1, betaSupport);
 					}
 					
 					// ======= After that, we still need to check if beta is a maximal itemset ====
-					List<Integer> temp = new ArrayList<Integer>(mapSupportBeta.size() + prefixLength+1);
-					for(int z=0; z < prefixLength+1; z++) {
-						temp.add(prefix[z]);
-					}
-					Collections.sort(temp, comparatorOriginalOrder);
+					int[] beta = Arrays.copyOf(prefix, prefixLength+1);
+					renameToOriginalOrder(beta);
 					// if beta pass the test, we save it
-					if(mfiTree.passSubsetChecking(temp)) {
-						saveItemset(prefix, prefixLength+1, betaSupport);
+					if(mfiTree.passSubsetChecking(beta, beta.length)) {
+						saveItemset(beta, betaSupport);
 					}
 					//===========================================================
 				}
@@ -396,30 +347,41 @@ public class AlgoFPMax {
 		}
 	}
 
+	/**
+	 * Sort an itemset according to the total order of support in the original database
+	 * and replace the new name of each item by its original name.
+	 * @param itemset an itemset where items are represented by their new names
+	 */
+	private void renameToOriginalOrder(int[] itemset) {
+		// the order of support is the order of new names
+		Arrays.sort(itemset);
+		for(int i = 0; i < itemset.length; i++) {
+			itemset[i] = itemsByDenseId[itemset[i]];
+		}
+	}
+
 	/**
 	 * Write a frequent itemset that is found to the output file or
 	 * keep into memory if the user prefer that the result be saved into memory.
+	 * @param itemset the itemset, sorted according to the order of decreasing support 
+	 *    in the original database
+	 * @param support the support of the itemset
 	 */
-	private void saveItemset(int [] itemset, int itemsetLength, int support) throws IOException {
-		
-		// copy the itemset in the output buffer and sort items according to the
-		// order of decreasing support in the original database
-		int[] itemsetCopy = new int[itemsetLength];
-		System.arraycopy(itemset, 0, itemsetCopy, 0, itemsetLength);
-		sortOriginalOrder(itemsetCopy, itemsetLength);
+	private void saveItemset(int [] itemset, int support) throws IOException {
+		int itemsetLength = itemset.length;
 		
 		if(DEBUG) {
 	//		//======= DEBUG ========
 			System.out.print(" ##### SAVING : ");
 			for(int i=0; i< itemsetLength; i++) {
-				System.out.print(itemsetCopy[i] + "  ");
+				System.out.print(itemset[i] + "  ");
 			}
 			System.out.println("\n");
 	//		//========== END DEBUG =======
 		}
 		
 		// add the itemset to the MFI-TREE
-		mfiTree.addMFI(itemsetCopy, itemsetCopy.length, support);
+		mfiTree.addMFI(itemset, itemsetLength, support);
 		
 		// increase the number of itemsets found for statistics purpose
 		itemsetCount++;
@@ -431,7 +393,7 @@ public class AlgoFPMax {
 			StringBuilder buffer = new StringBuilder();
 			// write the items of the itemset
 			for(int i=0; i< itemsetLength; i++){
-				buffer.append(itemsetCopy[i]);
+				buffer.append(itemset[i]);
 				if(i != itemsetLength-1){
 					buffer.append(' ');
 				}
@@ -446,6 +408,7 @@ public class AlgoFPMax {
 		else{
 			
 			// sort the itemset so that it is sorted according to lexical ordering before we show it to the user
+			int[] itemsetCopy = Arrays.copyOf(itemset, itemsetLength);
 			Arrays.sort(itemsetCopy);
 			
 			Itemset itemsetObj = new Itemset(itemsetCopy);
@@ -453,26 +416,6 @@ public class AlgoFPMax {
 			patterns.addItemset(itemsetObj, itemsetLength);
 		}
 	}
-	
-	/**
-	 * Sort an array of items according to the total order of support
-	 * This has an average performance of O(n^2)
-	 * @param a array of integers
-	 */
-    private void sortOriginalOrder(int[] a, int length){
-		// Perform a bubble sort
-		for(int i=0; i < length; i++){
-			for(int j= length -1; j>= i+1; j--){
-				boolean test = comparatorOriginalOrder.compare(a[j], a[j-1]) < 0;
-				if(test){
-					int temp = a[j];
-					a[j] = a[j-1];
-					a[j-1] = temp;
-				}
-			}
-		}
-
-	}
 
 
 	/**
@@ -530,6 +473,9 @@ public class AlgoFPMax {
 		System.out.print(" Max memory usage: " + MemoryLogger.getInstance().getMaxMemory() + " mb \n");
 		System.out.println(" Maximal frequent itemset count : " + itemsetCount); 
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
@@ -540,4 +486,12 @@ public class AlgoFPMax {
 	public int getDatabaseSize() {
 		return transactionCount;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
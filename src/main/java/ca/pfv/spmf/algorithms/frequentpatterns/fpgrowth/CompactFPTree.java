@@ -0,0 +1,357 @@
+package ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth;
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This is a compact implementation of a FPTree where nodes are stored in parallel
+ * arrays of integers instead of FPNode objects. A node is identified by its position in these
+ * arrays (the root is the node 0). <br/><br/>
+ *
+ * Items must be renamed to dense identifiers 0, 1, 2... before being inserted in the tree, such that
+ * an item "a" appears before an item "b" in the total order used to build the tree if a &lt; b.
+ * Thanks to this, the header table is simply an array indexed by item, and the
+ * header list does not need to be sorted. <br/><br/>
+ *
+ * Compared to FPTree, this structure avoids boxing items in maps and lists and
+ * uses about 24 bytes per node, which reduces the memory usage and the time spent for
+ * garbage collection when building large trees.
+ *
+ * @see FPTree
+ * @see AlgoFPGrowth
+ * @see AlgoFPMax
+ * @see AlgoFPClose
+ * @author Philippe Fournier-Viger
+ */
+class CompactFPTree {
+
+	/** the identifier of the root node */
+	static final int ROOT = 0;
+
+	/** the value used to indicate that there is no node */
+	static final int NO_NODE = -1;
+
+	// the item of each node (-1 for the root)
+	int[] nodeItem;
+	// the support counter of each node
+	int[] nodeCounter;
+	// the parent of each node (-1 for the root)
+	int[] nodeParent;
+	// the next node having the same item (node link of the header table)
+	int[] nodeLink;
+	// the first child of each node
+	int[] nodeFirstChild;
+	// the next sibling of each node
+	private int[] nodeNextSibling;
+	// the number of nodes in the tree (including the root)
+	int nodeCount;
+
+	// the first node of each item in the header table  (-1 if the item is not in the tree)
+	int[] headerFirstNode;
+	// the last node of each item following the node links
+	private int[] headerLastNode;
+	// the support of each item in the tree
+	int[] itemSupport;
+
+	/**
+	 * Constructor
+	 * @param itemCount the number of items that can appear in the tree. Items are
+	 *    numbered from 0 to itemCount -1.
+	 * @param initialCapacity the initial number of nodes that can be stored before the arrays need to
+	 *     be resized.
+	 */
+	CompactFPTree(int itemCount, int initialCapacity){
+		int capacity = Math.max(initialCapacity, 16);
+		nodeItem = new int[capacity];
+		nodeCounter = new int[capacity];
+		nodeParent = new int[capacity];
+		nodeLink = new int[capacity];
+		nodeFirstChild = new int[capacity];
+		nodeNextSibling = new int[capacity];
+
+		headerFirstNode = new int[itemCount];
+		headerLastNode = new int[itemCount];
+		Arrays.fill(headerFirstNode, NO_NODE);
+		Arrays.fill(headerLastNode, NO_NODE);
+		itemSupport = new int[itemCount];
+
+		// create the root (a null node)
+		nodeItem[ROOT] = -1;
+		nodeParent[ROOT] = NO_NODE;
+		nodeLink[ROOT] = NO_NODE;
+		nodeFirstChild[ROOT] = NO_NODE;
+		nodeNextSibling[ROOT] = NO_NODE;
+		nodeCount = 1;
+	}
+
+	/**
+	 * Get the number of items that can appear in this tree.
+	 * @return the number of items.
+	 */
+	int getItemCount() {
+		return headerFirstNode.length;
+	}
+
+	/**
+	 * Method for adding a transaction (or a prefix path) to the fp-tree.
+	 * @param items the items of the transaction, sorted by increasing order of identifiers
+	 * @param length the number of items to be read from the array
+	 * @param count the number of times that this transaction appears
+	 */
+	void addTransaction(int[] items, int length, int count) {
+		int currentNode = ROOT;
+		// For each item in the transaction
+		for(int i = 0; i < length; i++){
+			int item = items[i];
+			// update the support of the item
+			itemSupport[item] += count;
+
+			// look if there is a node already in the FP-Tree
+			int child = getChildWithID(currentNode, item);
+			if(child == NO_NODE){
+				// there is no node, we create a new one
+				currentNode = createNode(currentNode, item, count);
+			}else{
+				// there is a node already, we update it
+				nodeCounter[child] += count;
+				currentNode = child;
+			}
+		}
+	}
+
+	/**
+	 * Return the immediate child of a node having a given item.
+	 * @param node a node
+	 * @param item an item
+	 * @return the child or NO_NODE if there is no such child.
+	 */
+	private int getChildWithID(int node, int item) {
+		for(int child = nodeFirstChild[node]; child != NO_NODE; child = nodeNextSibling[child]) {
+			if(nodeItem[child] == item) {
+				return child;
+			}
+		}
+		return NO_NODE;
+	}
+
+	/**
+	 * Create a new node and link it to its parent and to the header table.
+	 * @param parent the parent node
+	 * @param item the item of the new node
+	 * @param count the support counter of the new node
+	 * @return the new node
+	 */
+	private int createNode(int parent, int item, int count) {
+		// if there is not enough space, resize the arrays
+		if(nodeCount == nodeItem.length) {
+			int newCapacity = nodeItem.length + (nodeItem.length >> 1);
+			nodeItem = Arrays.copyOf(nodeItem, newCapacity);
+			nodeCounter = Arrays.copyOf(nodeCounter, newCapacity);
+			nodeParent = Arrays.copyOf(nodeParent, newCapacity);
+			nodeLink = Arrays.copyOf(nodeLink, newCapacity);
+			nodeFirstChild = Arrays.copyOf(nodeFirstChild, newCapacity);
+			nodeNextSibling = Arrays.copyOf(nodeNextSibling, newCapacity);
+		}
+		int newNode = nodeCount++;
+		nodeItem[newNode] = item;
+		nodeCounter[newNode] = count;
+		nodeParent[newNode] = parent;
+		nodeLink[newNode] = NO_NODE;
+		nodeFirstChild[newNode] = NO_NODE;
+		// we link the new node to its parent
+		nodeNextSibling[newNode] = nodeFirstChild[parent];
+		nodeFirstChild[parent] = newNode;
+
+		// We update the node links of the header table
+		int lastNode = headerLastNode[item];
+		if(lastNode == NO_NODE) {
+			headerFirstNode[item] = newNode;
+		}else {
+			nodeLink[lastNode] = newNode;
+		}
+		headerLastNode[item] = newNode;
+		return newNode;
+	}
+
+	/**
+	 * Check if this tree is made of a single path and if yes, copy the nodes
+	 * of this path in a buffer.
+	 * @param buffer a buffer to store the nodes of the path from the root (excluded) to the leaf
+	 * @return the number of nodes in the path, or -1 if the tree has more than one path.
+	 */
+	int getSinglePath(int[] buffer) {
+		int position = 0;
+		int node = nodeFirstChild[ROOT];
+		while(node != NO_NODE) {
+			// if the node has a sibling, it is not a single path
+			if(nodeNextSibling[node] != NO_NODE) {
+				return -1;
+			}
+			buffer[position++] = node;
+			node = nodeFirstChild[node];
+		}
+		return position;
+	}
+
+	/**
+	 * Create the conditional FP-Tree of an item, containing the prefix paths of that item
+	 * where items that are not frequent in these paths are removed.
+	 * @param item the item
+	 * @param minsupRelative the minimum support threshold
+	 * @param pathBuffer a buffer to temporarily store a prefix path
+	 * @return the conditional tree (it may be empty)
+	 */
+	CompactFPTree createConditionalTree(int item, int minsupRelative, int[] pathBuffer) {
+		// (1) count the support of items in the prefix paths
+		int[] supportBeta = getPrefixPathSupports(item);
+		// (2) insert the prefix paths in the conditional tree
+		return createConditionalTree(item, supportBeta, minsupRelative, pathBuffer);
+	}
+
+	/**
+	 * Calculate the support of each item in the prefix paths of an item
+	 * (the conditional pattern base of that item).
+	 * @param item the item
+	 * @return the support of each item in the prefix paths. Because items in the prefix paths
+	 *    of "item" are always smaller than "item", the array has "item" positions.
+	 */
+	int[] getPrefixPathSupports(int item) {
+		int[] supportBeta = new int[item];
+		for(int node = headerFirstNode[item]; node != NO_NODE; node = nodeLink[node]) {
+			int count = nodeCounter[node];
+			for(int parent = nodeParent[node]; parent != ROOT; parent = nodeParent[parent]) {
+				supportBeta[nodeItem[parent]] += count;
+			}
+		}
+		return supportBeta;
+	}
+
+	/**
+	 * Create the conditional FP-Tree of an item, when the support of items in its prefix paths
+	 * is already known.
+	 * @param item the item
+	 * @param supportBeta the support of items in the prefix paths (see getPrefixPathSupports())
+	 * @param minsupRelative the minimum support threshold
+	 * @param pathBuffer a buffer to temporarily store a prefix path
+	 * @return the conditional tree (it may be empty)
+	 */
+	CompactFPTree createConditionalTree(int item, int[] supportBeta, int minsupRelative, int[] pathBuffer) {
+		// count the prefix paths to estimate the size of the tree
+		int pathCount = 0;
+		for(int node = headerFirstNode[item]; node != NO_NODE; node = nodeLink[node]) {
+			pathCount++;
+		}
+
+		// insert the prefix paths in the conditional tree, ignoring items that
+		// are infrequent in these paths
+		CompactFPTree treeBeta = new CompactFPTree(item, pathCount * 2);
+		for(int node = headerFirstNode[item]; node != NO_NODE; node = nodeLink[node]) {
+			// copy the path in the buffer from the leaf to the root
+			int length = 0;
+			for(int parent = nodeParent[node]; parent != ROOT; parent = nodeParent[parent]) {
+				int parentItem = nodeItem[parent];
+				if(supportBeta[parentItem] >= minsupRelative) {
+					pathBuffer[length++] = parentItem;
+				}
+			}
+			if(length > 0) {
+				// reverse the buffer so that items are in increasing order
+				for(int i = 0, j = length -1; i < j; i++, j--) {
+					int temp = pathBuffer[i];
+					pathBuffer[i] = pathBuffer[j];
+					pathBuffer[j] = temp;
+				}
+				treeBeta.addTransaction(pathBuffer, length, nodeCounter[node]);
+			}
+		}
+		return treeBeta;
+	}
+
+	/**
+	 * Sort the frequent items by decreasing order of support (items having the same
+	 * support are sorted by lexical order). The position of an item in the result
+	 * is its dense identifier in a CompactFPTree.
+	 * @param supports the support of each item (the position is the item)
+	 * @param minsupRelative the minimum support threshold
+	 * @return the frequent items, sorted
+	 */
+	static int[] sortFrequentItems(final int[] supports, int minsupRelative) {
+		List<Integer> frequentItems = new ArrayList<Integer>();
+		for(int item = 0; item < supports.length; item++){
+			if(supports[item] > 0 && supports[item] >= minsupRelative){
+				frequentItems.add(item);
+			}
+		}
+		// sort items by descending order of support
+		Collections.sort(frequentItems, new Comparator<Integer>(){
+			public int compare(Integer item1, Integer item2){
+				// compare the frequency
+				int compare = supports[item2] - supports[item1];
+				// if the same frequency, we check the lexical ordering!
+				if(compare == 0){ 
+					return (item1 - item2);
+				}
+				// otherwise, just use the frequency
+				return compare;
+			}
+		});
+		int[] itemsByDenseId = new int[frequentItems.size()];
+		for(int i = 0; i < itemsByDenseId.length; i++){
+			itemsByDenseId[i] = frequentItems.get(i);
+		}
+		return itemsByDenseId;
+	}
+
+	/**
+	 * Check if the tree contains no items.
+	 * @return true if empty
+	 */
+	boolean isEmpty() {
+		return nodeFirstChild[ROOT] == NO_NODE;
+	}
+
+	@Override
+	/**
+	 * Method for getting a string representation of the tree
+	 * (to be used for debugging purposes).
+	 * @return a string
+	 */
+	public String toString() {
+		StringBuilder output = new StringBuilder("F\n");
+		toString(output, ROOT, "");
+		return output.toString();
+	}
+
+	/**
+	 * Append a string representation of a subtree to a StringBuilder.
+	 * @param output the StringBuilder
+	 * @param node the root of the subtree
+	 * @param indent the current indentation
+	 */
+	private void toString(StringBuilder output, int node, String indent) {
+		output.append(indent).append(nodeItem[node]);
+		output.append(" (count=").append(nodeCounter[node]).append(")\n");
+		for(int child = nodeFirstChild[node]; child != NO_NODE; child = nodeNextSibling[child]) {
+			toString(output, child, indent + "   ");
+		}
+	}
+}
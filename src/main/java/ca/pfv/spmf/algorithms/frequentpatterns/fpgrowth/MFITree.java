@@ -129,14 +129,29 @@ public class MFITree {
 	 * @return true if the itemset is not a subset of an already found MFI.
 	 */
 	public boolean passSubsetChecking(List<Integer> headWithP) {
+		int[] itemset = new int[headWithP.size()];
+		for(int i = 0; i < itemset.length; i++) {
+			itemset[i] = headWithP.get(i);
+		}
+		return passSubsetChecking(itemset, itemset.length);
+	}
+
+	/**
+	 * Perform the subset test to see if an itemset is a subset of an already
+	 * found MFI
+	 * @param headWithP the itemset to be tested
+	 * @param headWithPLength the number of items to be considered in headWithP
+	 * @return true if the itemset is not a subset of an already found MFI.
+	 */
+	public boolean passSubsetChecking(int[] headWithP, int headWithPLength) {
 
 		// Find the node list for the last item of the itemset
-		Integer lastItem = headWithP.get(headWithP.size()-1);
+		int lastItem = headWithP[headWithPLength-1];
 		
 		// OPTIMIZATION:
 		// We first check against the last added itemset
 		if(lastAddedItemsetNode != null) {
-			boolean isSubset = issASubsetOfPrefixPath(headWithP, lastAddedItemsetNode);
+			boolean isSubset = issASubsetOfPrefixPath(headWithP, headWithPLength, lastAddedItemsetNode);
 			// if the itemset is a subset of the last added itemset, we do not need to check further
 			if(isSubset) {
 				return false;
@@ -153,7 +168,7 @@ public class MFITree {
 		// we will loop over each node by following node links
 		do {
 			// for a node, we will check if "headwithP" is a subset of the path ending at node
-			boolean isSubset = issASubsetOfPrefixPath(headWithP, node);
+			boolean isSubset = issASubsetOfPrefixPath(headWithP, headWithPLength, node);
 			// if it is a subset, then "headWithP" is in the MFI-tree, we return false
 			if(isSubset) {   
 				return false;
@@ -169,19 +184,20 @@ public class MFITree {
 	/**
 	 * Check if the itemset headwithP is contained in the path ending at "node" in the MFI-tree
 	 * @param headWithP the itemset headwithP
+	 * @param headWithPLength the number of items to be considered in headWithP
 	 * @param node  the node
 	 * @return true if "headwithP" is contained in the path ending at "node" in the MFI-Tree. Otherwise, false.
 	 */
-	private boolean issASubsetOfPrefixPath(List<Integer> headWithP,	MFINode node) {
+	private boolean issASubsetOfPrefixPath(int[] headWithP, int headWithPLength, MFINode node) {
 		// optimization proposed in the fpmax* paper: if there is less than itemset node in that branch,
 		// we don't need to check it
-		if(node.level >= headWithP.size()) {
+		if(node.level >= headWithPLength) {
 			// check if "itemset" is contained in the prefix path ending at "node"
 			// We will start comparing from the parent of "node" in the prefix path since
 			// the last item of itemset is "node".
 			MFINode nodeToCheck = node;
-			int positionInItemset = headWithP.size()-1;
-			int itemToLookFor = headWithP.get(positionInItemset);
+			int positionInItemset = headWithPLength-1;
+			int itemToLookFor = headWithP[positionInItemset];
 			// for each item in itemset
 			do {
 				if(nodeToCheck.itemID == itemToLookFor) {
@@ -190,7 +206,7 @@ public class MFITree {
 					if(positionInItemset <0) {
 						return true;
 					}
-					itemToLookFor = headWithP.get(positionInItemset);
+					itemToLookFor = headWithP[positionInItemset];
 				}
 				nodeToCheck = nodeToCheck.parent;
 			}while(nodeToCheck != null);
@@ -20,6 +20,8 @@ package ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth_with_strings;
 
 import java.io.*;
 import java.util.*;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /** 
  * This is an implementation of the FPGROWTH algorithm (Han et al., 2004) that take
@@ -42,6 +44,7 @@ public class AlgoFPGrowth_Strings {
 	// for statistics
 	private long startTimestamp; // start time of the latest execution
 	private long endTime; // end time of the latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int transactionCount = 0; // transaction count in the database
 	private int itemsetCount; // number of freq. itemsets found
 	
@@ -69,6 +72,7 @@ public class AlgoFPGrowth_Strings {
 	public void runAlgorithm(String input, String output, double minsupp) throws IOException {
 		// record the start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// reinitialize the number of itemsets found to 0
 		itemsetCount =0;
 		// Prepare the output file
@@ -151,6 +155,7 @@ public class AlgoFPGrowth_Strings {
 		writer.close();
 		// record the end time
 		endTime= System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 //		print(tree.root, " ");
 	}
@@ -372,7 +377,18 @@ public class AlgoFPGrowth_Strings {
 		System.out.println(" Transactions count from database : " + transactionCount);
 		System.out.println(" Frequent itemsets count : " + itemsetCount); 
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -36,6 +36,7 @@ import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.ItemNameConverter;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * An implementation of the HMine algorithm for mining frequent itemsets from a
@@ -56,6 +57,7 @@ public class AlgoHMine {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/** the number of patterns generated */
     private int patternCount =0;
 	
@@ -324,6 +326,7 @@ public class AlgoHMine {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -450,6 +453,17 @@ public class AlgoHMine {
 		System.out.println(" Max Memory ~ " + 
 				MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" Frequent itemsets count : " + patternCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
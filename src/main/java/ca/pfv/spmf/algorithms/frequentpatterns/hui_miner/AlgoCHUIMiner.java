@@ -21,8 +21,6 @@ package ca.pfv.spmf.algorithms.frequentpatterns.hui_miner;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -36,6 +34,7 @@ import java.util.Map;
 import java.util.Set;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of CHUI-Miner, which was proposed in this paper:
@@ -52,8 +51,7 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * - this implementation adds the EUCP strategy from the FHM algorithm to improve the performance
  *   of CHUI-Miner.
  * 
- * @see UtilityList
- * @see Element
+ * @see PackedUtilityList
  * @author Philippe Fournier-Viger 2014
  */
 public class AlgoCHUIMiner {
@@ -62,6 +60,7 @@ public class AlgoCHUIMiner {
     private long startTimestamp = 0;
 	/**the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	/** the number of CHUI generated */
     private int chuidCount = 0;
@@ -78,6 +77,12 @@ public class AlgoCHUIMiner {
 	/** The minimum utility threshold */
     private int minUtility = 0;
 	
+	/** the pool of utility lists that can be reused */
+    private PackedUtilityListPool pool;
+	
+	/** the maximum number of utility lists that are kept in the pool */
+    private final int POOL_SIZE = 1000;
+	
 	/** OPTIMIZATION SPECIFIC TO CHUIMINER. 
      We integrate the structure used by the EUCP strategy proposed in FHM 
      (Fournier-Viger et al., 2014) for pruning candidates.
@@ -176,6 +181,9 @@ public class AlgoCHUIMiner {
 			mapFMAP =  new HashMap<Integer, Map<Integer, Integer>>();
 		}
 		
+		// initialize the pool of utility lists
+		pool = new PackedUtilityListPool(POOL_SIZE);
+		
 		// record the start time of the algorithm
 		startTimestamp = System.currentTimeMillis();
 
@@ -226,25 +234,25 @@ public class AlgoCHUIMiner {
 	    }
 		
 		// CREATE A LIST TO STORE THE UTILITY LIST OF ITEMS WITH TWU  >= MIN_UTILITY.
-		List<UtilityList> listOfUtilityLists = new ArrayList<UtilityList>();
+		List<PackedUtilityList> listOfUtilityLists = new ArrayList<PackedUtilityList>();
 		// CREATE A MAP TO STORE THE UTILITY LIST FOR EACH ITEM.
 		// Key : item    Value :  utility list associated to that item
-		Map<Integer, UtilityList> mapItemToUtilityList = new HashMap<Integer, UtilityList>();
+		Map<Integer, PackedUtilityList> mapItemToUtilityList = new HashMap<Integer, PackedUtilityList>();
 		
 		// For each item
 		for(Integer item: mapItemToTWU.keySet()){
 			// if the item is promising  (TWU >= minutility)
 			if(mapItemToTWU.get(item) >= minUtility){
 				// create an empty Utility List that we will fill later.
-				UtilityList uList = new UtilityList(item);
+				PackedUtilityList uList = new PackedUtilityList(item, 16);
 				mapItemToUtilityList.put(item, uList);
 				// add the item to the list of high TWU items
 				listOfUtilityLists.add(uList); 
 			}
 		}
 		// SORT THE LIST OF HIGH TWU ITEMS IN ASCENDING ORDER
-		Collections.sort(listOfUtilityLists, new Comparator<UtilityList>(){
-			public int compare(UtilityList o1, UtilityList o2) {
+		Collections.sort(listOfUtilityLists, new Comparator<PackedUtilityList>(){
+			public int compare(PackedUtilityList o1, PackedUtilityList o2) {
 				// compare the TWU of the items
 				return compareItems(o1.item, o2.item);
 			}
@@ -254,7 +262,7 @@ public class AlgoCHUIMiner {
 		// OF 1-ITEMSETS  HAVING TWU  >= minutil (promising items)
 		try {
 			// prepare object for reading the file
-			myInput = new BufferedReader(new InputStreamReader(new FileInputStream(new File(input))));
+			myInput = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
 			// variable to count the number of transaction
 			int tid =0;
 			// for each line (transaction) until the end of file
@@ -311,12 +319,11 @@ public class AlgoCHUIMiner {
 					remainingUtility = remainingUtility - pair.utility;
 					
 					// get the utility list of this item
-					UtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
+					PackedUtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
 					
 					// Add a new Element to the utility list of this item corresponding to this transaction
-					Element element = new Element(tid, pair.utility, remainingUtility);
 					
-					utilityListOfItem.addElement(element);
+					utilityListOfItem.addElement(tid, pair.utility, remainingUtility);
 										
 					// BEGIN CODE for updating the structure used
 					// BY THE EUCP STRATEGY INTRODUCED IN CHUIMiner
@@ -357,7 +364,7 @@ public class AlgoCHUIMiner {
 
 		// Mine the database recursively
 		// (3) CALL THE recursive procedure
-		chuimineClosed_eucp(true, new int[0], null, new ArrayList<UtilityList>(), listOfUtilityLists);
+		chuimineClosed_eucp(true, new int[0], null, new ArrayList<PackedUtilityList>(), listOfUtilityLists);
 		
 		// check the memory usage again and close the file.
 		MemoryLogger.getInstance().checkMemory();
@@ -369,6 +376,7 @@ public class AlgoCHUIMiner {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		return listItemsetsBySize;
 	}
 	
@@ -380,14 +388,14 @@ public class AlgoCHUIMiner {
 	 * @param closedSetUL This is the Utility List of the prefix. Initially, it is empty.
 	 * @throws IOException
 	 */
-	private void chuimineClosed_eucp(boolean firstTime, int [] closedSet, UtilityList closedSetUL, 
-			List<UtilityList> preset, List<UtilityList> postset)
+	private void chuimineClosed_eucp(boolean firstTime, int [] closedSet, PackedUtilityList closedSetUL, 
+			List<PackedUtilityList> preset, List<PackedUtilityList> postset)
 			throws IOException {
 		
 		//L2: for all i in postset
-		for(UtilityList iUL : postset){
+		for(PackedUtilityList iUL : postset){
 			// L4 Calculate the tidset of the new GENERATOR "closedset U {i}"
-			UtilityList newgen_TIDs;
+			PackedUtilityList newgen_TIDs;
 			// if the first time
 			if(firstTime){
 				// it is the tidset of it
@@ -409,14 +417,14 @@ public class AlgoCHUIMiner {
 					int[] closedSetNew = newGen;	
 
 					// calculate tidset
-					UtilityList closedsetNewTIDs = newgen_TIDs;
+					PackedUtilityList closedsetNewTIDs = newgen_TIDs;
 					
 //					// L7 : PostsetNew = emptyset
-					List<UtilityList> postsetNew = new ArrayList<UtilityList>();
+					List<PackedUtilityList> postsetNew = new ArrayList<PackedUtilityList>();
 					
 					// for each item J in the postset
 					boolean passedHUIPruning = true;
-					for(UtilityList jUL : postset){
+					for(PackedUtilityList jUL : postset){
 						// if J is smaller than I according to the total order on items, we skip it
 						if(jUL.item == iUL.item || compareItems(jUL.item, iUL.item) < 0){
 							continue;
@@ -434,7 +442,12 @@ public class AlgoCHUIMiner {
 						
 						if(containsAllTIDS(jUL, newgen_TIDs)) {
 							closedSetNew = appendItem(closedSetNew, jUL.item);	
+							PackedUtilityList previousTIDs = closedsetNewTIDs;
 							closedsetNewTIDs = construct(closedsetNewTIDs, jUL);
+							// the intermediate utility list is not needed anymore
+							if(previousTIDs != iUL && previousTIDs != newgen_TIDs) {
+								pool.release(previousTIDs);
+							}
 							
 							if(!isPassingHUIPruning(closedsetNewTIDs)) {
 								passedHUIPruning = false;
@@ -448,19 +461,29 @@ public class AlgoCHUIMiner {
 					if(passedHUIPruning) {
 						// L15 : write out Closed_setNew and its support
 						if(closedsetNewTIDs.sumIutils >= minUtility) {
-							saveCHUI(closedSetNew, closedsetNewTIDs.sumIutils, closedsetNewTIDs.elements.size());
+							saveCHUI(closedSetNew, closedsetNewTIDs.sumIutils, closedsetNewTIDs.getSupport());
 						}
 						
 						// L16: recursive call
 						// FIXED: we have to make a copy of preset before the recursive call
-						List<UtilityList> presetNew = new ArrayList<UtilityList>(preset);
+						List<PackedUtilityList> presetNew = new ArrayList<PackedUtilityList>(preset);
 						chuimineClosed_eucp(false, closedSetNew, closedsetNewTIDs, presetNew, postsetNew);
 					}
 					
+					// the utility list of closedSetNew is not needed anymore
+					if(closedsetNewTIDs != iUL && closedsetNewTIDs != newgen_TIDs) {
+						pool.release(closedsetNewTIDs);
+					}
+					
 					// L17 : Preset = Preset U {i}
 					preset.add(iUL);
 				}
-			}	
+			}
+			// the utility list of newgen is not needed anymore (except if it is
+			// the utility list of the single item i)
+			if(newgen_TIDs != iUL) {
+				pool.release(newgen_TIDs);
+			}
 		}
 	}
 
@@ -469,7 +492,7 @@ public class AlgoCHUIMiner {
 	 * @param utilitylist the utility list of an itemset
 	 * @return true if it passes the pruning condition. Otherwise false.
 	 */
-	private boolean isPassingHUIPruning(UtilityList utilitylist) {
+	private boolean isPassingHUIPruning(PackedUtilityList utilitylist) {
 		return utilitylist.sumIutils +  utilitylist.sumRutils >= minUtility;
 	}
 
@@ -479,16 +502,9 @@ public class AlgoCHUIMiner {
 	 * @param ul2 the second utility list
 	 * @return  true if it contains all tids, otherwise false.
  	 */
-	private boolean containsAllTIDS(UtilityList ul1, UtilityList ul2) {
-		// for each integer j in preset
-		for(Element elmX : ul2.elements){
-			// do a binary search to find element ey in py with tid = ex.tid
-			Element elmE = findElementWithTID(ul1, elmX.tid);
-			if(elmE == null){
-				return false;
-			}
-		}
-		return true;
+	private boolean containsAllTIDS(PackedUtilityList ul1, PackedUtilityList ul2) {
+		// the tids of ul2 are compared with the tids of ul1 by a merge
+		return ul2.isTidsetSubsetOf(ul1);
 	}
 
 	/**
@@ -526,21 +542,13 @@ public class AlgoCHUIMiner {
 	 * @param newgenTIDs  the tidset of newgen
 	 * @param preset      the itemset "preset"
 	 */
-	private boolean is_dup(UtilityList newgenTIDs, List<UtilityList> preset) {
+	private boolean is_dup(PackedUtilityList newgenTIDs, List<PackedUtilityList> preset) {
 		// L25
 		// for each integer j in preset
-		for(UtilityList j : preset){
+		for(PackedUtilityList j : preset){
 			
-			// for each element in the utility list of pX
-			boolean containsAll = true;
-			for(Element elmX : newgenTIDs.elements){
-				// do a binary search to find element ey in py with tid = ex.tid
-				Element elmE = findElementWithTID(j, elmX.tid);
-				if(elmE == null){
-					containsAll = false;
-					break;
-				}
-			}
+			// check if each tid of newgen appears in the utility list of j
+			boolean containsAll = newgenTIDs.isTidsetSubsetOf(j);
 			
 			// L26 :  
 			// If tidset of newgen is included in tids of j, return true
@@ -558,59 +566,33 @@ public class AlgoCHUIMiner {
 	 * @param uX : the utility list of X
 	 * @param uE : the utility list of e
 	 */
-	private UtilityList construct(UtilityList uX, UtilityList uE) {
+	private PackedUtilityList construct(PackedUtilityList uX, PackedUtilityList uE) {
 		
 		// create an empy utility list for pXY
-		UtilityList uXE = new UtilityList(uE.item);
+		PackedUtilityList uXE = pool.acquire(uE.item, Math.min(uX.size, uE.size));
 
+		// the current position in the utility list of e
+		int positionE = 0;
 		// for each element in the utility list of pX
-		for(Element elmX : uX.elements){
-			// do a binary search to find element ey in py with tid = ex.tid
-			Element elmE = findElementWithTID(uE, elmX.tid);
-			if(elmE == null){
+		for(int i = 0; i < uX.size; i++){
+			int tid = uX.tids[i];
+			// find the element ey in py with tid = ex.tid (the tids of both lists are read
+			// by increasing order)
+			positionE = uE.advanceTo(tid, positionE);
+			if(positionE == uE.size || uE.tids[positionE] != tid){
 				continue;
 			}
+			int iutilE = uE.iutils[positionE];
 			// Create the new element
 			//     IMPORTANT :  TRICKY PART :  WE NEED TO SUBTRACT  ELMX.RUTIL - ELME.iutil
 			// THIS IS BECAUSE DCI  DOES NOT ADD ITEMS TO AN ITEMSET ACCORDING TO THE TOTAL ORDER
-			Element elmXe = new Element(elmX.tid, elmX.iutils + elmE.iutils, elmX.rutils - elmE.iutils);
 			// add the new element to the utility list of pXY
-			uXE.addElement(elmXe);
+			uXE.addElement(tid, uX.iutils[i] + iutilE, uX.rutils[i] - iutilE);
 		}
 		// return the utility list of Xe.
 		return uXE;
 	}
-	/**
-	 * Do a binary search to find the element with a given tid in a utility list
-	 * @param ulist the utility list
-	 * @param tid  the tid
-	 * @return  the element or null if none has the tid.
-	 */
-	private Element findElementWithTID(UtilityList ulist, int tid){
-		List<Element> list = ulist.elements;
-		
-		// perform a binary search to check if  the subset appears in  level k-1.
-        int first = 0;
-        int last = list.size() - 1;
-       
-        // the binary search
-        while( first <= last )
-        {
-        	int middle = ( first + last ) >>> 1; // divide by 2
-
-            if(list.get(middle).tid < tid){
-            	first = middle + 1;  //  the itemset compared is larger than the subset according to the lexical order
-            }
-            else if(list.get(middle).tid > tid){
-            	last = middle - 1; //  the itemset compared is smaller than the subset  is smaller according to the lexical order
-            }
-            else{
-            	return list.get(middle);
-            }
-        }
-		return null;
-	}
-
+	
 	/**
 	 * Method to write a high utility itemset to the output file or memory.
 	 * @param sumIutils the utility of the prefix concatenated with the item
@@ -656,6 +638,9 @@ public class AlgoCHUIMiner {
 		System.out.println(" Memory ~ "                      + MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" Closed High-utility itemsets count : " + chuidCount); 
 		System.out.println(" Candidate count : "             + candidateCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================================");
 	}
 
@@ -671,4 +656,12 @@ public class AlgoCHUIMiner {
 		// if the same, use the lexical order otherwise use the TWU
 		return (compare == 0)? item1 - item2 :  compare;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the
@@ -50,6 +52,7 @@ public class AlgoEIHI {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/**  the number of HUI generated */
     private int huiCount =0;
 	
@@ -434,6 +437,7 @@ public class AlgoEIHI {
 			}
 		}
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// create a list to store the utility list of new items so that they can be
 		// sorted by TWU order
@@ -657,6 +661,7 @@ public class AlgoEIHI {
 //		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		totalTimeForAllRuns += (endTimestamp - startTimestamp);
 		totalCandidateCountForAllRuns += candidateCount;
@@ -916,9 +921,17 @@ public class AlgoEIHI {
 		System.out.println("TOTAL CANDIDATEs FOR ALL RUNS:" + totalCandidateCountForAllRuns + " candidates");
 //		System.out.println("TOTAL REAL HUIs: " + totalHUIForAllRuns);
 		System.out.println("TOTAL TIME FOR ALL RUNS: " + totalTimeForAllRuns + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
-
-
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
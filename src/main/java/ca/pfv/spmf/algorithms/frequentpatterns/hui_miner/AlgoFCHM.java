@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "FCHM" algorithm for High-Utility Itemsets Mining
@@ -64,6 +65,7 @@ public class AlgoFCHM  implements Serializable{
 	
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
@@ -366,6 +368,7 @@ public class AlgoFCHM  implements Serializable{
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -655,6 +658,9 @@ public class AlgoFCHM  implements Serializable{
 			System.out.println("CMAP size " + maxMemory + " MB");
 			System.out.println("PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -692,7 +698,12 @@ public class AlgoFCHM  implements Serializable{
 		int support = 0 ;
     	long twu = 0;
     }
-    
-
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -20,11 +20,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.hui_miner;
 
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.ObjectOutputStream;
@@ -36,7 +32,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import ca.pfv.spmf.patterns.PatternSink;
+import ca.pfv.spmf.patterns.TextPatternSink;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "FHM" algorithm for High-Utility Itemsets Mining
@@ -46,8 +45,8 @@ import ca.pfv.spmf.tools.MemoryLogger;
  *  Mining Algorithm using Estimated Utility Co-occurrence Pruning. 
  *  Proc. 21st International Symposium on Methodologies for Intelligent Systems (ISMIS 2014), Springer, LNAI, 12 pages (to appear).
  *
- * @see UtilityList
- * @see Element
+ * @see PackedUtilityList
+ * @see PackedUtilityListPool
  * @author Philippe Fournier-Viger
  */
 public class AlgoFHM {
@@ -58,6 +57,9 @@ public class AlgoFHM {
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
 	
+	/** the resources used by the latest execution */
+    private RunMetrics runMetrics = null;
+	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
 	
@@ -67,8 +69,11 @@ public class AlgoFHM {
 	/** Map to remember the TWU of each item */
     private Map<Integer, Long> mapItemToTWU;
 	
-	/** writer to write the output file  */
-    private BufferedWriter writer = null;
+	/** object where the high-utility itemsets are written (the output file by default) */
+    private PatternSink sink = null;
+	
+	/** the sink chosen by the user for the next execution */
+    private PatternSink nextSink = null;
 	
 	/** The eucs structure:  key: item   key: another item   value: twu */
     private Map<Integer, Map<Integer, Long>> mapFMAP;
@@ -79,6 +84,12 @@ public class AlgoFHM {
 	/** variable for debug mode */
     private boolean DEBUG = false;
 	
+	/** the pool of utility lists that can be reused */
+	private PackedUtilityListPool pool;
+	
+	/** the maximum number of utility lists that are kept in the pool */
+	private final int POOL_SIZE = 1000;
+	
 	/** buffer for storing the current itemset that is mined when performing mining
 	* the idea is to always reuse the same buffer to reduce memory usage. */
 	private final int BUFFERS_SIZE = 200;
@@ -97,6 +108,16 @@ public class AlgoFHM {
 		
 	}
 
+	/**
+	 * Set the PatternSink where the high-utility itemsets found by the next execution will be written,
+	 * instead of the output file. The sink is closed at the end of the execution.
+	 * For example, a CountingPatternSink can be used to count the itemsets without writing them.
+	 * @param sink the sink
+	 */
+	public void setPatternSink(PatternSink sink) {
+		this.nextSink = sink;
+	}
+
 	/**
 	 * Run the algorithm
 	 * @param input the input file path
@@ -113,14 +134,24 @@ public class AlgoFHM {
 		
 		mapFMAP =  new HashMap<Integer, Map<Integer, Long>>();
 		
+		// initialize the pool of utility lists
+		pool = new PackedUtilityListPool(POOL_SIZE);
+		
 		startTimestamp = System.currentTimeMillis();
 		
-		writer = new BufferedWriter(new FileWriter(output));
+		// if the user has chosen a sink, the itemsets are written to that sink
+		if(nextSink != null){
+			sink = nextSink;
+			nextSink = null;
+		}else{
+			sink = new TextPatternSink(output, TextPatternSink.UTILITY_LABEL);
+		}
 
 		//  We create a  map to store the TWU of each item
 		mapItemToTWU = new HashMap<Integer, Long>();
 
 		// We scan the database a first time to calculate the TWU of each item.
+		MemoryLogger.getInstance().startPhase("database scan");
 		BufferedReader myInput = null;
 		String thisLine;
 		try {
@@ -164,17 +195,17 @@ public class AlgoFHM {
 	    }
 		
 		// CREATE A LIST TO STORE THE UTILITY LIST OF ITEMS WITH TWU  >= MIN_UTILITY.
-		List<UtilityList> listOfUtilityLists = new ArrayList<UtilityList>();
+		List<PackedUtilityList> listOfUtilityLists = new ArrayList<PackedUtilityList>();
 		// CREATE A MAP TO STORE THE UTILITY LIST FOR EACH ITEM.
 		// Key : item    Value :  utility list associated to that item
-		Map<Integer, UtilityList> mapItemToUtilityList = new HashMap<Integer, UtilityList>();
+		Map<Integer, PackedUtilityList> mapItemToUtilityList = new HashMap<Integer, PackedUtilityList>();
 		
 		// For each item
 		for(Integer item: mapItemToTWU.keySet()){
 			// if the item is promising  (TWU >= minutility)
 			if(mapItemToTWU.get(item) >= minUtility){
 				// create an empty Utility List that we will fill later.
-				UtilityList uList = new UtilityList(item);
+				PackedUtilityList uList = new PackedUtilityList(item, 16);
 				mapItemToUtilityList.put(item, uList);
 				// add the item to the list of high TWU items
 				listOfUtilityLists.add(uList); 
@@ -182,18 +213,19 @@ public class AlgoFHM {
 			}
 		}
 		// SORT THE LIST OF HIGH TWU ITEMS IN ASCENDING ORDER
-		Collections.sort(listOfUtilityLists, new Comparator<UtilityList>(){
-			public int compare(UtilityList o1, UtilityList o2) {
+		Collections.sort(listOfUtilityLists, new Comparator<PackedUtilityList>(){
+			public int compare(PackedUtilityList o1, PackedUtilityList o2) {
 				// compare the TWU of the items
 				return compareItems(o1.item, o2.item);
 			}
 			} );
 		
 		// SECOND DATABASE PASS TO CONSTRUCT THE UTILITY LISTS 
+		MemoryLogger.getInstance().startPhase("utility list construction");
 		// OF 1-ITEMSETS  HAVING TWU  >= minutil (promising items)
 		try {
 			// prepare object for reading the file
-			myInput = new BufferedReader(new InputStreamReader(new FileInputStream(new File(input))));
+			myInput = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
 			// variable to count the number of transaction
 			int tid =0;
 			// for each line (transaction) until the end of file
@@ -256,12 +288,10 @@ public class AlgoFHM {
 					remainingUtility = remainingUtility - pair.utility;
 					
 					// get the utility list of this item
-					UtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
+					PackedUtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
 					
 					// Add a new Element to the utility list of this item corresponding to this transaction
-					Element element = new Element(tid, pair.utility, remainingUtility);
-					
-					utilityListOfItem.addElement(element);
+					utilityListOfItem.addElement(tid, pair.utility, remainingUtility);
 										
 					// BEGIN NEW OPTIMIZATION for FHM
 					Map<Integer, Long> mapFMAPItem = mapFMAP.get(pair.item);
@@ -297,14 +327,16 @@ public class AlgoFHM {
 		MemoryLogger.getInstance().checkMemory();
 
 		// Mine the database recursively
+		MemoryLogger.getInstance().startPhase("mining");
 		fhm(itemsetBuffer, 0, null, listOfUtilityLists, minUtility);
 		
 		// check the memory usage again and close the file.
 		MemoryLogger.getInstance().checkMemory();
 		// close output file
-		writer.close();
+		sink.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -330,12 +362,12 @@ public class AlgoFHM {
 	 * @throws IOException
 	 */
 	private void fhm(int [] prefix,
-			int prefixLength, UtilityList pUL, List<UtilityList> ULs, int minUtility)
+			int prefixLength, PackedUtilityList pUL, List<PackedUtilityList> ULs, int minUtility)
 			throws IOException {
 		
 		// For each extension X of prefix P
 		for(int i=0; i< ULs.size(); i++){
-			UtilityList X = ULs.get(i);
+			PackedUtilityList X = ULs.get(i);
 
 			// If pX is a high utility itemset.
 			// we save the itemset:  pX 
@@ -349,11 +381,11 @@ public class AlgoFHM {
 			// (this is the pruning condition)
 			if(X.sumIutils + X.sumRutils >= minUtility){
 				// This list will contain the utility lists of pX extensions.
-				List<UtilityList> exULs = new ArrayList<UtilityList>();
+				List<PackedUtilityList> exULs = new ArrayList<PackedUtilityList>();
 				// For each extension of p appearing
 				// after X according to the ascending order
 				for(int j=i+1; j < ULs.size(); j++){
-					UtilityList Y = ULs.get(j);
+					PackedUtilityList Y = ULs.get(j);
 					
 					// ======================== NEW OPTIMIZATION USED IN FHM
 					Map<Integer, Long> mapTWUF = mapFMAP.get(X.item);
@@ -368,7 +400,7 @@ public class AlgoFHM {
 					
 					// we construct the extension pXY 
 					// and add it to the list of extensions of pX
-					UtilityList temp = construct(pUL, X, Y, minUtility);
+					PackedUtilityList temp = PackedUtilityList.construct(pUL, X, Y, minUtility, ENABLE_LA_PRUNE, pool);
 					if(temp != null) {
 						exULs.add(temp);
 					}
@@ -377,122 +409,37 @@ public class AlgoFHM {
 				itemsetBuffer[prefixLength] = X.item;
 				// We make a recursive call to discover all itemsets with the prefix pXY
 				fhm(itemsetBuffer, prefixLength+1, X, exULs, minUtility); 
+				// the utility lists of extensions of pX are not needed anymore
+				pool.releaseAll(exULs);
 			}
 		}
 		MemoryLogger.getInstance().checkMemory();
 	}
 	
 	/**
-	 * This method constructs the utility list of pXY
-	 * @param P :  the utility list of prefix P.
-	 * @param px : the utility list of pX
-	 * @param py : the utility list of pY
-	 * @return the utility list of pXY
-	 */
-	private UtilityList construct(UtilityList P, UtilityList px, UtilityList py, int minUtility) {
-		// create an empy utility list for pXY
-		UtilityList pxyUL = new UtilityList(py.item);
-		
-		//== new optimization - LA-prune  == /
-		// Initialize the sum of total utility
-		long totalUtility = px.sumIutils + px.sumRutils;
-		// ================================================
-		
-		// for each element in the utility list of pX
-		for(Element ex : px.elements){
-			// do a binary search to find element ey in py with tid = ex.tid
-			Element ey = findElementWithTID(py, ex.tid);
-			if(ey == null){
-				//== new optimization - LA-prune == /
-				if(ENABLE_LA_PRUNE) {
-					totalUtility -= (ex.iutils+ex.rutils);
-					if(totalUtility < minUtility) {
-						return null;
-					}
-				}
-				// =============================================== /
-				continue;
-			}
-			// if the prefix p is null
-			if(P == null){
-				// Create the new element
-				Element eXY = new Element(ex.tid, ex.iutils + ey.iutils, ey.rutils);
-				// add the new element to the utility list of pXY
-				pxyUL.addElement(eXY);
-				
-			}else{
-				// find the element in the utility list of p wih the same tid
-				Element e = findElementWithTID(P, ex.tid);
-				if(e != null){
-					// Create new element
-					Element eXY = new Element(ex.tid, ex.iutils + ey.iutils - e.iutils,
-								ey.rutils);
-					// add the new element to the utility list of pXY
-					pxyUL.addElement(eXY);
-				}
-			}	
-		}
-		// return the utility list of pXY.
-		return pxyUL;
-	}
-	
-	/**
-	 * Do a binary search to find the element with a given tid in a utility list
-	 * @param ulist the utility list
-	 * @param tid  the tid
-	 * @return  the element or null if none has the tid.
-	 */
-	private Element findElementWithTID(UtilityList ulist, int tid){
-		List<Element> list = ulist.elements;
-		
-		// perform a binary search to check if  the subset appears in  level k-1.
-        int first = 0;
-        int last = list.size() - 1;
-       
-        // the binary search
-        while( first <= last )
-        {
-        	int middle = ( first + last ) >>> 1; // divide by 2
-
-            if(list.get(middle).tid < tid){
-            	first = middle + 1;  //  the itemset compared is larger than the subset according to the lexical order
-            }
-            else if(list.get(middle).tid > tid){
-            	last = middle - 1; //  the itemset compared is smaller than the subset  is smaller according to the lexical order
-            }
-            else{
-            	return list.get(middle);
-            }
-        }
-		return null;
-	}
-
-	/**
-	 * Method to write a high utility itemset to the output file.
+	 * Method to write a high utility itemset to the output file (or the sink chosen by the user).
+	 * @param prefix the buffer containing the prefix
 	 * @param utility the utility of the prefix concatenated with the item
 	 * @param prefixLength the prefix length
 	 */
 	private void writeOut(int[] prefix, int prefixLength, int item, long utility) throws IOException {
 		huiCount++; // increase the number of high utility itemsets found
 		
-		//Create a string buffer
-		StringBuilder buffer = new StringBuilder();
-		// append the prefix
-		for (int i = 0; i < prefixLength; i++) {
-			buffer.append(prefix[i]);
-			buffer.append(' ');
-		}
-		// append the last item
-		buffer.append(item);
-		// append the utility value
-		buffer.append(" #UTIL: ");
-		buffer.append(utility);
-		// write to file
-		writer.write(buffer.toString());
-		writer.newLine();
+		// append the last item to the prefix (this is the position where
+		// the item will also be stored if the itemset is extended)
+		prefix[prefixLength] = item;
+		sink.write(prefix, prefixLength + 1, utility);
 	}
 
 	
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+	
 	/**
 	 * Print statistics about the latest execution to System.out.
 	 * @throws IOException 
@@ -500,9 +447,12 @@ public class AlgoFHM {
 	public void printStats() throws IOException {
 		System.out.println("=============  FHM ALGORITHM - SPMF 0.97e - STATS =============");
 		System.out.println(" Total time ~ "                  + (endTimestamp - startTimestamp) + " ms");
-		System.out.println(" Memory ~ "                      + MemoryLogger.getInstance().getMaxMemory()  + " MB");
+		System.out.println(" Memory ~ "                      + (runMetrics == null ? 0 : runMetrics.getPeakHeapMemory())  + " MB");
 		System.out.println(" High-utility itemsets count : " + huiCount); 
 		System.out.println(" Candidate count : "             + candidateCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		
 		if(DEBUG) {
 			int pairCount = 0;
@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "FHM" algorithm for High-Utility Itemsets Mining
@@ -60,6 +61,7 @@ public class AlgoFHM_Freq {
 	
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
@@ -334,6 +336,7 @@ public class AlgoFHM_Freq {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -560,6 +563,9 @@ public class AlgoFHM_Freq {
 			System.out.println("CMAP size " + maxMemory + " MB");
 			System.out.println("PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -579,4 +585,12 @@ public class AlgoFHM_Freq {
         double maxMemory = baos.size() / 1024d / 1024d;
         return maxMemory;
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "FHN" algorithm for High-Utility Itemsets 
@@ -60,6 +61,7 @@ public class AlgoFHN {
 	
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
@@ -356,6 +358,7 @@ public class AlgoFHN {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -581,6 +584,9 @@ public class AlgoFHN {
 			System.out.println("CMAP size " + maxMemory + " MB");
 			System.out.println("PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -600,4 +606,12 @@ public class AlgoFHN {
         double maxMemory = baos.size() / 1024d / 1024d;
         return maxMemory;
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
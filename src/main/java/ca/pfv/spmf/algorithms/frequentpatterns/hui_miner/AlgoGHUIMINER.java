@@ -38,6 +38,7 @@ import java.util.Set;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "GHUI-MINER" algorithm for High-Utility Itemsets Mining
@@ -57,6 +58,7 @@ public class AlgoGHUIMINER {
     private long startTimestamp = 0;
 	/** end time of the algorithm */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/** number of GHUIs found */
     private long ghuiCount =0;
 	/** number of candidates considered by the algorithm */
@@ -528,6 +530,7 @@ public class AlgoGHUIMINER {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -910,6 +913,17 @@ public class AlgoGHUIMINER {
 		System.out.println(" Total time ~ "                  + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Memory ~ "                      + MemoryLogger.getInstance().getMaxMemory()+ " MB");
 		System.out.println(" GHUI count : " + ghuiCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
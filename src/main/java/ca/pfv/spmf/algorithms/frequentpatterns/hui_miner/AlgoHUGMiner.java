@@ -34,6 +34,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 /**
  * This is an implementation of the "HUG-Miner" algorithm for High-Utility Generator Mining
  * as described in the conference paper : <br/><br/>
@@ -53,6 +55,7 @@ public class AlgoHUGMiner {
     private long startTimestamp = 0;
 	/** end time of the algorithm */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/** number of HUGs found */
     private int hugsCount =0;
 	
@@ -122,6 +125,7 @@ public class AlgoHUGMiner {
 		
 		// record start timestamp
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// initialize object to write output file
 		writer = new BufferedWriter(new FileWriter(output));
@@ -350,6 +354,7 @@ public class AlgoHUGMiner {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 
@@ -762,8 +767,17 @@ public class AlgoHUGMiner {
 		System.out.println(" Total time ~ "                  + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max. Memory ~ "                      + maxMemory+ " MB");
 		System.out.println(" HUGs count : " + hugsCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("==============================================================");
 	}
 
-
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
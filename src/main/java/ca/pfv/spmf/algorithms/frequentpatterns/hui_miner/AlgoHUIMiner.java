@@ -20,10 +20,6 @@ package ca.pfv.spmf.algorithms.frequentpatterns.hui_miner;
 
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -33,7 +29,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ca.pfv.spmf.patterns.PatternSink;
+import ca.pfv.spmf.patterns.TextPatternSink;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "HUI-MINER Algorithm" for High-Utility Itemsets Mining
@@ -42,8 +41,8 @@ import ca.pfv.spmf.tools.MemoryLogger;
  *  Liu, M., Qu, J. (2012). Mining High Utility Itemsets without Candidate Generation. 
  *  Proc. of CIKM 2012. pp.55-64.
  *
- * @see UtilityList
- * @see Element
+ * @see PackedUtilityList
+ * @see PackedUtilityListPool
  * @author Philippe Fournier-Viger
  */
 public class AlgoHUIMiner {
@@ -53,6 +52,7 @@ public class AlgoHUIMiner {
 	
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
@@ -60,12 +60,21 @@ public class AlgoHUIMiner {
 	/** Map to remember the TWU of each item */
     private Map<Integer, Integer> mapItemToTWU;
 	
-	/** writer to write the output file  */
-    private BufferedWriter writer = null;
+	/** object where the high-utility itemsets are written (the output file by default) */
+    private PatternSink sink = null;
+	
+	/** the sink chosen by the user for the next execution */
+    private PatternSink nextSink = null;
 	
 	/** the number of utility-list that was constructed */
 	private int joinCount;
 	
+	/** the pool of utility lists that can be reused */
+	private PackedUtilityListPool pool;
+	
+	/** the maximum number of utility lists that are kept in the pool */
+	private final int POOL_SIZE = 1000;
+	
 	/** buffer for storing the current itemset that is mined when performing mining
 	* the idea is to always reuse the same buffer to reduce memory usage. */
 	private final int BUFFERS_SIZE = 200;
@@ -83,6 +92,16 @@ public class AlgoHUIMiner {
 	public AlgoHUIMiner() {
 	}
 
+	/**
+	 * Set the PatternSink where the high-utility itemsets found by the next execution will be written,
+	 * instead of the output file. The sink is closed at the end of the execution.
+	 * For example, a CountingPatternSink can be used to count the itemsets without writing them.
+	 * @param sink the sink
+	 */
+	public void setPatternSink(PatternSink sink) {
+		this.nextSink = sink;
+	}
+
 	/**
 	 * Run the algorithm
 	 * @param input the input file path
@@ -97,9 +116,18 @@ public class AlgoHUIMiner {
 		// initialize the buffer for storing the current itemset
 		itemsetBuffer = new int[BUFFERS_SIZE];
 		
+		// initialize the pool of utility lists
+		pool = new PackedUtilityListPool(POOL_SIZE);
+		
 		startTimestamp = System.currentTimeMillis();
 		
-		writer = new BufferedWriter(new FileWriter(output));
+		// if the user has chosen a sink, the itemsets are written to that sink
+		if(nextSink != null){
+			sink = nextSink;
+			nextSink = null;
+		}else{
+			sink = new TextPatternSink(output, TextPatternSink.UTILITY_LABEL);
+		}
 
 		//  We create a  map to store the TWU of each item
 		mapItemToTWU = new HashMap<Integer, Integer>();
@@ -148,17 +176,17 @@ public class AlgoHUIMiner {
 	    }
 		
 		// CREATE A LIST TO STORE THE UTILITY LIST OF ITEMS WITH TWU  >= MIN_UTILITY.
-		List<UtilityList> listOfUtilityLists = new ArrayList<UtilityList>();
+		List<PackedUtilityList> listOfUtilityLists = new ArrayList<PackedUtilityList>();
 		// CREATE A MAP TO STORE THE UTILITY LIST FOR EACH ITEM.
 		// Key : item    Value :  utility list associated to that item
-		Map<Integer, UtilityList> mapItemToUtilityList = new HashMap<Integer, UtilityList>();
+		Map<Integer, PackedUtilityList> mapItemToUtilityList = new HashMap<Integer, PackedUtilityList>();
 		
 		// For each item
 		for(Integer item: mapItemToTWU.keySet()){
 			// if the item is promising  (TWU >= minutility)
 			if(mapItemToTWU.get(item) >= minUtility){
 				// create an empty Utility List that we will fill later.
-				UtilityList uList = new UtilityList(item);
+				PackedUtilityList uList = new PackedUtilityList(item, 16);
 				mapItemToUtilityList.put(item, uList);
 				// add the item to the list of high TWU items
 				listOfUtilityLists.add(uList); 
@@ -166,8 +194,8 @@ public class AlgoHUIMiner {
 			}
 		}
 		// SORT THE LIST OF HIGH TWU ITEMS IN ASCENDING ORDER
-		Collections.sort(listOfUtilityLists, new Comparator<UtilityList>(){
-			public int compare(UtilityList o1, UtilityList o2) {
+		Collections.sort(listOfUtilityLists, new Comparator<PackedUtilityList>(){
+			public int compare(PackedUtilityList o1, PackedUtilityList o2) {
 				// compare the TWU of the items
 				return compareItems(o1.item, o2.item);
 			}
@@ -177,7 +205,7 @@ public class AlgoHUIMiner {
 		// OF 1-ITEMSETS  HAVING TWU  >= minutil (promising items)
 		try {
 			// prepare object for reading the file
-			myInput = new BufferedReader(new InputStreamReader(new FileInputStream(new File(input))));
+			myInput = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
 			// variable to count the number of transaction
 			int tid =0;
 			// for each line (transaction) until the end of file
@@ -231,12 +259,10 @@ public class AlgoHUIMiner {
 					remainingUtility = remainingUtility - pair.utility;
 					
 					// get the utility list of this item
-					UtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
+					PackedUtilityList utilityListOfItem = mapItemToUtilityList.get(pair.item);
 					
 					// Add a new Element to the utility list of this item corresponding to this transaction
-					Element element = new Element(tid, pair.utility, remainingUtility);
-					
-					utilityListOfItem.addElement(element);
+					utilityListOfItem.addElement(tid, pair.utility, remainingUtility);
 				}
 				tid++; // increase tid number for next transaction
 
@@ -259,9 +285,10 @@ public class AlgoHUIMiner {
 		// check the memory usage again and close the file.
 		MemoryLogger.getInstance().checkMemory();
 		// close output file
-		writer.close();
+		sink.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	private int compareItems(int item1, int item2) {
@@ -281,12 +308,12 @@ public class AlgoHUIMiner {
 	 * @throws IOException
 	 */
 	private void huiMiner(int [] prefix, 
-			int prefixLength, UtilityList pUL, List<UtilityList> ULs, int minUtility)
+			int prefixLength, PackedUtilityList pUL, List<PackedUtilityList> ULs, int minUtility)
 			throws IOException {
 		
 		// For each extension X of prefix P
 		for(int i=0; i< ULs.size(); i++){
-			UtilityList X = ULs.get(i);
+			PackedUtilityList X = ULs.get(i);
 
 			// If pX is a high utility itemset.
 			// we save the itemset:  pX 
@@ -300,14 +327,14 @@ public class AlgoHUIMiner {
 			// (this is the pruning condition)
 			if(X.sumIutils + X.sumRutils >= minUtility){
 				// This list will contain the utility lists of pX extensions.
-				List<UtilityList> exULs = new ArrayList<UtilityList>();
+				List<PackedUtilityList> exULs = new ArrayList<PackedUtilityList>();
 				// For each extension of p appearing
 				// after X according to the ascending order
 				for(int j=i+1; j < ULs.size(); j++){
-					UtilityList Y = ULs.get(j);
+					PackedUtilityList Y = ULs.get(j);
 					// we construct the extension pXY 
 					// and add it to the list of extensions of pX
-					exULs.add(construct(pUL, X, Y));
+					exULs.add(PackedUtilityList.construct(pUL, X, Y, minUtility, false, pool));
 					joinCount++;
 				}
 				// We create new prefix pX
@@ -315,104 +342,25 @@ public class AlgoHUIMiner {
 				
 				// We make a recursive call to discover all itemsets with the prefix pXY
 				huiMiner(itemsetBuffer, prefixLength+1, X, exULs, minUtility); 
+				// the utility lists of extensions of pX are not needed anymore
+				pool.releaseAll(exULs);
 			}
 		}
 	}
 	
 	/**
-	 * This method constructs the utility list of pXY
-	 * @param P :  the utility list of prefix P.
-	 * @param px : the utility list of pX
-	 * @param py : the utility list of pY
-	 * @return the utility list of pXY
-	 */
-	private UtilityList construct(UtilityList P, UtilityList px, UtilityList py) {
-		// create an empy utility list for pXY
-		UtilityList pxyUL = new UtilityList(py.item);
-		// for each element in the utility list of pX
-		for(Element ex : px.elements){
-			// do a binary search to find element ey in py with tid = ex.tid
-			Element ey = findElementWithTID(py, ex.tid);
-			if(ey == null){
-				continue;
-			}
-			// if the prefix p is null
-			if(P == null){
-				// Create the new element
-				Element eXY = new Element(ex.tid, ex.iutils + ey.iutils, ey.rutils);
-				// add the new element to the utility list of pXY
-				pxyUL.addElement(eXY);
-				
-			}else{
-				// find the element in the utility list of p wih the same tid
-				Element e = findElementWithTID(P, ex.tid);
-				if(e != null){
-					// Create new element
-					Element eXY = new Element(ex.tid, ex.iutils + ey.iutils - e.iutils,
-								ey.rutils);
-					// add the new element to the utility list of pXY
-					pxyUL.addElement(eXY);
-				}
-			}	
-		}
-		// return the utility list of pXY.
-		return pxyUL;
-	}
-	
-	/**
-	 * Do a binary search to find the element with a given tid in a utility list
-	 * @param ulist the utility list
-	 * @param tid  the tid
-	 * @return  the element or null if none has the tid.
-	 */
-	private Element findElementWithTID(UtilityList ulist, int tid){
-		List<Element> list = ulist.elements;
-		
-		// perform a binary search to check if  the subset appears in  level k-1.
-        int first = 0;
-        int last = list.size() - 1;
-       
-        // the binary search
-        while( first <= last )
-        {
-        	int middle = ( first + last ) >>> 1; // divide by 2
-
-            if(list.get(middle).tid < tid){
-            	first = middle + 1;  //  the itemset compared is larger than the subset according to the lexical order
-            }
-            else if(list.get(middle).tid > tid){
-            	last = middle - 1; //  the itemset compared is smaller than the subset  is smaller according to the lexical order
-            }
-            else{
-            	return list.get(middle);
-            }
-        }
-		return null;
-	}
-
-	/**
-	 * Method to write a high utility itemset to the output file.
+	 * Method to write a high utility itemset to the output file (or the sink chosen by the user).
+	 * @param prefix the buffer containing the prefix
 	 * @param utility the utility of the prefix concatenated with the item
 	 * @param prefixLength the prefix length
 	 */
 	private void writeOut(int[] prefix, int prefixLength, int item, long utility) throws IOException {
 		huiCount++; // increase the number of high utility itemsets found
 		
-		//Create a string buffer
-		StringBuilder buffer = new StringBuilder();
-		// append the prefix
-		for (int i = 0; i < prefixLength; i++) {
-			buffer.append(prefix[i]);
-			buffer.append(' ');
-		}
-		// append the last item
-		buffer.append(item);
-		// append the utility value
-		buffer.append(" #UTIL: ");
-		buffer.append(utility);
-		// write to file
-		writer.write(buffer.toString());
-		writer.newLine();
+		// append the last item to the prefix (this is the position where
+		// the item will also be stored if the itemset is extended)
+		prefix[prefixLength] = item;
+		sink.write(prefix, prefixLength + 1, utility);
 	}
 	
 	/**
@@ -424,6 +372,17 @@ public class AlgoHUIMiner {
 		System.out.println(" Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" High-utility itemsets count : " + huiCount); 
 		System.out.println(" Join count : " + joinCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
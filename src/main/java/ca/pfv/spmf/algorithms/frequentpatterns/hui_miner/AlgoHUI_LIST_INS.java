@@ -32,6 +32,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the
@@ -53,6 +55,7 @@ public class AlgoHUI_LIST_INS {
     private double maxMemory = 0;     // the maximum memory usage
 	private long startTimestamp = 0;  // the time the algorithm started
 	private long endTimestamp = 0;   // the time the algorithm terminated
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	public int huiCount =0;  // the number of HUI generated
 	
 	/** Store the total times for all runs of this algorithm */
@@ -140,6 +143,7 @@ public class AlgoHUI_LIST_INS {
 			mapItemToUtilityList = new HashMap<Integer, UtilityList>();
 		}
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// create a list to store the utility list of new items so that they can be
 		// sorted by TWU order
@@ -347,6 +351,7 @@ public class AlgoHUI_LIST_INS {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		totalTimeForAllRuns += (endTimestamp - startTimestamp);
 		totalCandidateCountForAllRuns += candidateCount;
@@ -570,7 +575,17 @@ public class AlgoHUI_LIST_INS {
 		System.out.println("===================================================");
 		System.out.println("TOTAL CANDIDATE COUNT FOR ALL RUNS:" + totalCandidateCountForAllRuns + " candidates");
 		System.out.println("TOTAL TIME FOR ALL RUNS:" + totalTimeForAllRuns + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "HUP-MINER Algorithm" for High-Utility Itemsets Mining
@@ -54,6 +55,7 @@ public class AlgoHUPMiner {
 	
 	/** the time at which the algorithm ended */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of high-utility itemsets generated */
     private int huiCount =0;
@@ -291,6 +293,7 @@ public class AlgoHUPMiner {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	private int compareItems(int item1, int item2) {
@@ -509,6 +512,17 @@ public class AlgoHUPMiner {
 		System.out.println(" Total time: " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max. Memory: " + MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" High-utility itemsets count: " + huiCount); 
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
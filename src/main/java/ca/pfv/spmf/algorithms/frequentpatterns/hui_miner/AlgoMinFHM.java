@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "MinFHM" algorithm for Minimal High-Utility Itemsets Mining
@@ -58,6 +59,7 @@ public class AlgoMinFHM {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated*/
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	/** the number of HUI generated */
     private int huiCount =0;
 	
@@ -443,6 +445,7 @@ public class AlgoMinFHM {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -682,6 +685,9 @@ public class AlgoMinFHM {
 			System.out.println("CMAP size " + maxMemory + " MB");
 			System.out.println("PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 	
@@ -696,4 +702,11 @@ public class AlgoMinFHM {
         return maxMemory;
     }
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
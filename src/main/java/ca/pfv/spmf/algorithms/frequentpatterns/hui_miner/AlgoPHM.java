@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "PHM" algorithm for Periodic High-Utility Itemsets Mining
@@ -112,6 +113,7 @@ public class AlgoPHM {
 	
 	/** the maximumMemoryUsage **/
     private double maximumMemoryUsage = 0;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	
 	/** this class represent an item and its utility in a transaction */
@@ -494,6 +496,7 @@ public class AlgoPHM {
 		totalExecutionTime  = System.currentTimeMillis() - startTimestamp;
 		// save the maximum memory usage
 		maximumMemoryUsage = MemoryLogger.getInstance().getMaxMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -866,6 +869,9 @@ public class AlgoPHM {
 			}
 			System.out.println("ESCS size " + maxMemory + " MB    PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 		
 
@@ -904,4 +910,11 @@ public class AlgoPHM {
 		ENABLE_ESCP = enable;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package ca.pfv.spmf.algorithms.frequentpatterns.hui_miner;
+
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.Arrays;
+
+/**
+ * This class represents a UtilityList where the elements (tid, iutils, rutils) are not stored
+ * as Element objects but in three growable arrays of integers. Elements are always added
+ * by increasing order of tids. Thus, two utility lists can be joined by a merge
+ * of their tids instead of performing a binary search for each element. <br/><br/>
+ *
+ * Utility lists that are not needed anymore can be given back to a PackedUtilityListPool so that
+ * their arrays are reused.
+ *
+ * @see UtilityList
+ * @see PackedUtilityListPool
+ * @see AlgoHUIMiner
+ * @see AlgoFHM
+ * @author Philippe Fournier-Viger
+ */
+class PackedUtilityList {
+	int item;  // the item
+	long sumIutils = 0;  // the sum of item utilities
+	long sumRutils = 0;  // the sum of remaining utilities
+	int[] tids;  // the transaction ids of the elements
+	int[] iutils;  // the item utilities of the elements
+	int[] rutils;  // the remaining utilities of the elements
+	int size = 0;  // the number of elements
+
+	/**
+	 * Constructor.
+	 * @param item the item that is used for this utility list
+	 * @param capacity the initial number of elements that can be stored
+	 */
+	PackedUtilityList(int item, int capacity){
+		this.item = item;
+		capacity = Math.max(capacity, 4);
+		tids = new int[capacity];
+		iutils = new int[capacity];
+		rutils = new int[capacity];
+	}
+
+	/**
+	 * Reinitialize this utility list so that it can be reused for another item.
+	 * @param item the item that is used for this utility list
+	 */
+	void reset(int item){
+		this.item = item;
+		sumIutils = 0;
+		sumRutils = 0;
+		size = 0;
+	}
+
+	/**
+	 * Method to add an element to this utility list and update the sums at the same time.
+	 * @param tid  the transaction id (it must be larger than the tids of the elements already added)
+	 * @param iutil  the itemset utility
+	 * @param rutil  the remaining utility
+	 */
+	void addElement(int tid, int iutil, int rutil){
+		if(size == tids.length){
+			int newCapacity = size + (size >> 1) + 1;
+			tids = Arrays.copyOf(tids, newCapacity);
+			iutils = Arrays.copyOf(iutils, newCapacity);
+			rutils = Arrays.copyOf(rutils, newCapacity);
+		}
+		tids[size] = tid;
+		iutils[size] = iutil;
+		rutils[size] = rutil;
+		size++;
+		sumIutils += iutil;
+		sumRutils += rutil;
+	}
+
+	/**
+	 * Get the support of the itemset represented by this utility-list
+	 * @return the support as a number of trnsactions
+	 */
+	int getSupport() {
+		return size;
+	}
+
+	/**
+	 * Get the position of the element having a given tid, starting the search from a given position.
+	 * Because this method is used to scan a utility list while the tids of another list are read
+	 * in increasing order, it uses a linear scan (merge-join) instead of a binary search.
+	 * @param tid the tid
+	 * @param from the position where the search starts
+	 * @return the position of the first element having a tid not smaller than the given tid
+	 *     (it may be equal to size if there is no such element)
+	 */
+	int advanceTo(int tid, int from) {
+		while(from < size && tids[from] < tid) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * Check if the tids of this utility list are a subset of the tids of another utility-list.
+	 * @param other the other utility list
+	 * @return true if each tid of this list appears in the other list
+	 */
+	boolean isTidsetSubsetOf(PackedUtilityList other) {
+		if(size > other.size) {
+			return false;
+		}
+		int j = 0;
+		for(int i = 0; i < size; i++) {
+			j = other.advanceTo(tids[i], j);
+			if(j == other.size || other.tids[j] != tids[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method constructs the utility list of pXY, as done by HUI-Miner and FHM.
+	 * The utility list of pX, pY and P are read in a single pass by increasing order of tids.
+	 * @param P :  the utility list of prefix P or null if P is empty.
+	 * @param px : the utility list of pX
+	 * @param py : the utility list of pY
+	 * @param minUtility the minimum utility threshold, used by the LA-prune strategy
+	 * @param laPrune if true, the construction is stopped as soon as it can be known that pXY and
+	 *     its extensions are not high-utility itemsets (LA-prune strategy of FHM)
+	 * @param pool the pool of utility lists used to obtain the new utility list
+	 * @return the utility list of pXY or null if pruned by the LA-prune strategy
+	 */
+	static PackedUtilityList construct(PackedUtilityList P, PackedUtilityList px,
+			PackedUtilityList py, long minUtility, boolean laPrune, PackedUtilityListPool pool) {
+		// create an empty utility list for pXY
+		PackedUtilityList pxyUL = pool.acquire(py.item, Math.min(px.size, py.size));
+
+		// Initialize the sum of total utility (for LA-prune)
+		long totalUtility = px.sumIutils + px.sumRutils;
+
+		// the current positions in the utility lists of pY and P
+		int positionY = 0;
+		int positionP = 0;
+		// for each element in the utility list of pX
+		for(int i = 0; i < px.size; i++){
+			int tid = px.tids[i];
+			// find the element ey in py with tid = ex.tid
+			positionY = py.advanceTo(tid, positionY);
+			if(positionY == py.size || py.tids[positionY] != tid){
+				if(laPrune) {
+					totalUtility -= (px.iutils[i] + px.rutils[i]);
+					if(totalUtility < minUtility) {
+						pool.release(pxyUL);
+						return null;
+					}
+				}
+				continue;
+			}
+			// if the prefix p is null
+			if(P == null){
+				// add the new element to the utility list of pXY
+				pxyUL.addElement(tid, px.iutils[i] + py.iutils[positionY], py.rutils[positionY]);
+			}else{
+				// find the element in the utility list of p wih the same tid
+				positionP = P.advanceTo(tid, positionP);
+				if(positionP < P.size && P.tids[positionP] == tid){
+					pxyUL.addElement(tid, px.iutils[i] + py.iutils[positionY] - P.iutils[positionP],
+								py.rutils[positionY]);
+				}
+			}
+		}
+		// return the utility list of pXY.
+		return pxyUL;
+	}
+}
@@ -0,0 +1,83 @@
+package ca.pfv.spmf.algorithms.frequentpatterns.hui_miner;
+
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a pool of utility lists that are not used anymore. During the depth-first search,
+ * the utility lists of the extensions of an itemset are given back to the pool when
+ * the algorithm backtracks, so that their arrays are reused for the next utility lists instead
+ * of being garbage collected. This class is not thread-safe.
+ *
+ * @see PackedUtilityList
+ * @author Philippe Fournier-Viger
+ */
+class PackedUtilityListPool {
+
+	/** the maximum number of utility lists kept in the pool */
+	private final int maximumSize;
+
+	/** the utility lists that can be reused */
+	private final List<PackedUtilityList> freeLists = new ArrayList<PackedUtilityList>();
+
+	/**
+	 * Constructor
+	 * @param maximumSize the maximum number of utility lists kept in the pool
+	 */
+	PackedUtilityListPool(int maximumSize){
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Get an empty utility list.
+	 * @param item the item of the utility list
+	 * @param capacity the expected number of elements (used only if a new list is created)
+	 * @return an empty utility list
+	 */
+	PackedUtilityList acquire(int item, int capacity) {
+		int size = freeLists.size();
+		if(size == 0) {
+			return new PackedUtilityList(item, capacity);
+		}
+		PackedUtilityList list = freeLists.remove(size - 1);
+		list.reset(item);
+		return list;
+	}
+
+	/**
+	 * Give back a utility list that will not be used anymore.
+	 * @param list the utility list
+	 */
+	void release(PackedUtilityList list) {
+		if(freeLists.size() < maximumSize) {
+			freeLists.add(list);
+		}
+	}
+
+	/**
+	 * Give back some utility lists that will not be used anymore.
+	 * @param lists the utility lists
+	 */
+	void releaseAll(List<PackedUtilityList> lists) {
+		for(PackedUtilityList list : lists) {
+			release(list);
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package ca.pfv.spmf.algorithms.frequentpatterns.itemsettree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 
@@ -40,6 +43,279 @@ abstract class AbstractItemsetTree {
 	long startTimestamp;  // start time of tree construction (buildTree())
 	long endTimestamp;   // end time  of tree contruction (buildTree())
 
+	// lock allowing several threads to query the tree while a single thread updates it
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// maximum number of transactions kept in the tree (0 = no limit)
+	int windowSize = 0;
+	// maximum age of the transactions kept in the tree (0 = no limit)
+	long windowDuration = 0;
+	// the transactions of the current window, from the oldest to the most recent
+	final ArrayDeque<WindowEntry> window = new ArrayDeque<WindowEntry>();
+
+	// version of the tree, increased each time that the tree is modified
+	volatile long epoch = 0;
+	// the last snapshot of the tree that was created
+	private volatile ItemsetTreeSnapshot snapshot = null;
+	// object used so that a single thread creates a new snapshot
+	private final Object snapshotLock = new Object();
+	// maximum number of supports cached by a snapshot
+	int snapshotCacheSize = 10000;
+	// minimum time between the creation of two snapshots, in milliseconds
+	long snapshotInterval = 0;
+	// the time when the last snapshot was created
+	private volatile long snapshotTime = 0;
+
+	/**
+	 * A transaction of the sliding window with the time when it was added.
+	 */
+	static class WindowEntry {
+		// the transaction
+		final int[] transaction;
+		// the time when it was added
+		final long timestamp;
+
+		WindowEntry(int[] transaction, long timestamp) {
+			this.transaction = transaction;
+			this.timestamp = timestamp;
+		}
+	}
+
+	/**
+	 * Set the maximum number of transactions kept in the tree. When a transaction is
+	 * added and the window is full, the oldest transaction is removed from the tree.
+	 * Only the transactions added after calling this method are part of the window.
+	 * @param windowSize the number of transactions (0 = no limit)
+	 */
+	public void setWindowSize(int windowSize) {
+		if(windowSize < 0){
+			throw new IllegalArgumentException("The window size must be positive");
+		}
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Set the maximum age of the transactions kept in the tree. A transaction is removed
+	 * from the tree once a transaction more recent by at least this duration is added,
+	 * or when removeExpiredTransactions() is called.
+	 * Only the transactions added after calling this method are part of the window.
+	 * @param windowDuration the duration, in the same unit as the timestamps (0 = no limit)
+	 */
+	public void setWindowDuration(long windowDuration) {
+		if(windowDuration < 0){
+			throw new IllegalArgumentException("The window duration must be positive");
+		}
+		this.windowDuration = windowDuration;
+	}
+
+	/**
+	 * Add a transaction to the itemset tree, using the current time as timestamp.
+	 * @param transaction the transaction to be added (array of ints)
+	 */
+	public void addTransaction(int[] transaction){
+		addTransaction(transaction, System.currentTimeMillis());
+	}
+
+	/**
+	 * Add a transaction to the itemset tree. If a sliding window is used, the transactions
+	 * that are not in the window anymore are then removed from the tree.
+	 * @param transaction the transaction to be added (array of ints, sorted)
+	 * @param timestamp the time of the transaction (used by the time-based window)
+	 */
+	public void addTransaction(int[] transaction, long timestamp){
+		lock.writeLock().lock();
+		try{
+			// create the root if the tree is empty
+			if(root == null){
+				root = new ItemsetTreeNode(null, 0);
+			}
+			insertTransaction(transaction);
+			epoch++;
+			// remember the transaction if a window is used
+			if(windowSize > 0 || windowDuration > 0){
+				window.addLast(new WindowEntry(transaction, timestamp));
+				removeExpiredTransactions(timestamp);
+			}
+		}finally{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove one occurrence of a transaction from the itemset tree. The nodes that
+	 * are not needed anymore are removed from the tree or merged with their child.
+	 * @param transaction the transaction to be removed (array of ints, sorted)
+	 * @return true if the transaction was in the tree, otherwise false
+	 */
+	public boolean removeTransaction(int[] transaction){
+		lock.writeLock().lock();
+		try{
+			if(root == null || !deleteTransaction(transaction)){
+				return false;
+			}
+			epoch++;
+			// if the transaction is in the window, it should not be removed again later
+			Iterator<WindowEntry> it = window.iterator();
+			while(it.hasNext()){
+				if(Arrays.equals(it.next().transaction, transaction)){
+					it.remove();
+					break;
+				}
+			}
+			return true;
+		}finally{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove the transactions that are not in the sliding window anymore at a given time.
+	 * This is done automatically when a transaction is added, but can be called to
+	 * expire old transactions when no transaction arrives.
+	 * @param currentTime the current time (in the same unit as the timestamps)
+	 * @return the number of transactions removed
+	 */
+	public int removeExpiredTransactions(long currentTime){
+		lock.writeLock().lock();
+		try{
+			int removed = 0;
+			// remove the oldest transactions while the window is too large
+			while(windowSize > 0 && window.size() > windowSize){
+				deleteTransaction(window.pollFirst().transaction);
+				removed++;
+			}
+			// remove the transactions that are too old
+			while(windowDuration > 0 && !window.isEmpty()
+					&& window.peekFirst().timestamp <= currentTime - windowDuration){
+				deleteTransaction(window.pollFirst().transaction);
+				removed++;
+			}
+			if(removed > 0){
+				epoch++;
+			}
+			return removed;
+		}finally{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of transactions currently stored in the tree.
+	 * @return the number of transactions
+	 */
+	public int getTransactionCount(){
+		lock.readLock().lock();
+		try{
+			return root == null ? 0 : root.support;
+		}finally{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Set the maximum number of itemset supports cached by each snapshot of the tree.
+	 * @param snapshotCacheSize the number of supports (0 = no cache)
+	 */
+	public void setSnapshotCacheSize(int snapshotCacheSize) {
+		if(snapshotCacheSize < 0){
+			throw new IllegalArgumentException("The cache size must be positive");
+		}
+		this.snapshotCacheSize = snapshotCacheSize;
+	}
+
+	/**
+	 * Set the minimum time between the creation of two snapshots. If the tree is
+	 * frequently updated, this avoids copying the tree for almost every query, but
+	 * the snapshots may then not contain the most recent transactions.
+	 * @param snapshotInterval the time in milliseconds (0 = a snapshot always contains all transactions)
+	 */
+	public void setSnapshotInterval(long snapshotInterval) {
+		if(snapshotInterval < 0){
+			throw new IllegalArgumentException("The snapshot interval must be positive");
+		}
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * Get an immutable snapshot of the tree, that can be queried by several threads
+	 * without locking while the tree is updated. If the tree has not changed since
+	 * the last snapshot (or if it is more recent than the snapshot interval), the same
+	 * snapshot (and its cache) is returned. Otherwise, a new snapshot is created by
+	 * copying the tree, so it is more efficient to use the same snapshot for several
+	 * queries when the tree is frequently updated.
+	 * @return the snapshot
+	 */
+	public ItemsetTreeSnapshot getSnapshot() {
+		ItemsetTreeSnapshot current = snapshot;
+		if(isUpToDate(current)){
+			return current;
+		}
+		// only one thread creates the new snapshot, the others wait for it
+		synchronized(snapshotLock){
+			current = snapshot;
+			if(isUpToDate(current)){
+				return current;
+			}
+			lock.readLock().lock();
+			try{
+				current = new ItemsetTreeSnapshot(root, hasRelativeItemsets(), epoch, snapshotCacheSize);
+			}finally{
+				lock.readLock().unlock();
+			}
+			snapshotTime = System.currentTimeMillis();
+			snapshot = current;
+			return current;
+		}
+	}
+
+	/**
+	 * Check if a snapshot can be returned by getSnapshot().
+	 * @param current the last snapshot (or null)
+	 * @return true if it can be returned, false if a new snapshot must be created
+	 */
+	private boolean isUpToDate(ItemsetTreeSnapshot current) {
+		if(current == null){
+			return false;
+		}
+		return current.getEpoch() == epoch
+				|| (snapshotInterval > 0 && System.currentTimeMillis() - snapshotTime < snapshotInterval);
+	}
+
+	/**
+	 * Check if the nodes only store the items that are not in their parent node.
+	 * @return true for the memory efficient itemset tree, otherwise false
+	 */
+	boolean hasRelativeItemsets() {
+		return false;
+	}
+
+	/**
+	 * Insert a transaction in the tree (the write lock is held by the caller).
+	 * @param transaction the transaction
+	 */
+	abstract void insertTransaction(int[] transaction);
+
+	/**
+	 * Remove one occurrence of a transaction from the tree (the write lock is held by the caller).
+	 * @param transaction the transaction
+	 * @return true if the transaction was in the tree, otherwise false
+	 */
+	abstract boolean deleteTransaction(int[] transaction);
+
+	/**
+	 * Calculate the sum of the support of the children of a node.
+	 * If it is lower than the support of the node, the node stores a transaction.
+	 * @param node the node
+	 * @return the sum of the support of its children
+	 */
+	int childrenSupport(ItemsetTreeNode node) {
+		int sum = 0;
+		for(ItemsetTreeNode child : node.childs){
+			sum += child.support;
+		}
+		return sum;
+	}
+
 	/**
 	 * Method to calculate the largest common ancestor of two given itemsets
 	 * (as defined in the paper).
@@ -202,6 +478,24 @@ abstract class AbstractItemsetTree {
 	 * @return a list of association rules
 	 */
 	public List<AssociationRuleIT> generateRules(int[] s, int minsup, double minconf) {
+		// the tree should not change while the rules are generated
+		lock.readLock().lock();
+		try{
+			return generateRulesUnlocked(s, minsup, minconf);
+		}finally{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Generate all association rules with a given itemset as antecedent
+	 * (the read lock is held by the caller).
+	 * @param s  the itemset to be used as antecedent
+	 * @param minsup  the minsup threshold to be used
+	 * @param minconf the minconf threshold to be used
+	 * @return a list of association rules
+	 */
+	private List<AssociationRuleIT> generateRulesUnlocked(int[] s, int minsup, double minconf) {
 		// create a list of association rules for storing the result
 		List<AssociationRuleIT> rules = new ArrayList<AssociationRuleIT>();
 		
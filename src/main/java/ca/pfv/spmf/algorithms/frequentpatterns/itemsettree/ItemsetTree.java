@@ -1,12 +1,15 @@
 package ca.pfv.spmf.algorithms.frequentpatterns.itemsettree;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * An implementation of the Itemset-tree
@@ -35,6 +38,7 @@ import java.util.HashSet;
  */
 
 public class ItemsetTree extends AbstractItemsetTree implements Serializable{
+	private transient RunMetrics runMetrics = null; // the resources used by the latest construction of the tree
 
 	/**
 	 * Default constructor
@@ -59,6 +63,9 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 		
 		// create an empty root for the tree
 		root = new ItemsetTreeNode(null, 0);
+		// the transactions of a previous window are not in the new tree
+		window.clear();
+		epoch++;
 
 		// Scan the database to read the transactions
 		BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
@@ -83,8 +90,8 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 				itemset[i] = Integer.parseInt(lineSplited[i]);
 			}
 //			printTree();
-			// call the method "construct" to add the transaction to the tree
-			construct(null, root, itemset);
+			// add the transaction to the tree
+			addTransaction(itemset);
 		}
 		// close the input file
 		reader.close();
@@ -93,17 +100,83 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 		MemoryLogger.getInstance().checkMemory();
 		// close the file
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
 	 * Add a transaction to the itemset tree.
 	 * @param transaction the transaction to be added (array of ints)
 	 */
-	public void addTransaction(int[] transaction){
+	void insertTransaction(int[] transaction){
 		// call the "construct" algorithm to add it
 		construct(null, root, transaction);
 	}
 
+	/**
+	 * Remove one occurrence of a transaction from the itemset tree. The support of
+	 * the nodes from the root to the node of the transaction is decreased, and then
+	 * the nodes of that path that are not needed anymore are removed.
+	 * @param s the transaction to be removed
+	 * @return true if the transaction was in the tree, otherwise false
+	 */
+	boolean deleteTransaction(int[] s){
+		// find the path of nodes from the root to the node of the transaction.
+		// The children of a node never start with the same item, so at most one
+		// child can be on that path.
+		List<ItemsetTreeNode> path = new ArrayList<ItemsetTreeNode>();
+		ItemsetTreeNode node = root;
+		path.add(node);
+		while(!same(s, node.itemset)){
+			ItemsetTreeNode next = null;
+			for(ItemsetTreeNode ci : node.childs){
+				if(same(s, ci.itemset) || ancestorOf(ci.itemset, s)){
+					next = ci;
+					break;
+				}
+			}
+			// if there is no such child, the transaction is not in the tree
+			if(next == null){
+				return false;
+			}
+			node = next;
+			path.add(node);
+		}
+
+		// the transaction is stored in that node only if the support of the node
+		// is greater than the support of its children
+		if(node.support == childrenSupport(node)){
+			return false;
+		}
+		for(ItemsetTreeNode pathNode : path){
+			pathNode.support--;
+		}
+		// compact the path, from the node of the transaction up to the root
+		for(int i = path.size() - 1; i > 0; i--){
+			compact(path.get(i - 1), path.get(i));
+		}
+		return true;
+	}
+
+	/**
+	 * Remove a node from the tree if it is not needed anymore after a transaction was removed.
+	 * @param parent the parent of the node
+	 * @param node the node
+	 */
+	private void compact(ItemsetTreeNode parent, ItemsetTreeNode node){
+		if(node.support == 0){
+			// no transaction contains the itemset of the node anymore
+			parent.childs.remove(node);
+		}else if(node.childs.size() == 1){
+			// if the node does not store a transaction and has a single child, it is not
+			// the common ancestor of two branches anymore, so it is replaced by its child
+			ItemsetTreeNode child = node.childs.iterator().next();
+			if(child.support == node.support){
+				parent.childs.remove(node);
+				parent.childs.add(child);
+			}
+		}
+	}
+
 
 	/**
 	 * Given the root of a sub-tree, add an itemset at the proper position in that tree
@@ -240,6 +313,9 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 		recursiveStats(root);
 		System.out.println(" Node count: " + nodeCount);
 		System.out.println(" Sum of items in all node: " + totalItemCountInNodes + " avg per node :" + totalItemCountInNodes / ((double)nodeCount));
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -272,7 +348,16 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 	 * @return the support as an integer.
 	 */
 	public int getSupportOfItemset(int[] s) {
-		return count(s, root);  // call the method count.
+		lock.readLock().lock();
+		try{
+			// if no transaction was added, the support is 0
+			if(root == null){
+				return 0;
+			}
+			return count(s, root);  // call the method count.
+		}finally{
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -359,7 +444,15 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 			seti.add(s[i]);
 		}
 		// call the method selective mining for finding the sets subsuming s
-		selectiveMining(s, seti, root, hash);
+		lock.readLock().lock();
+		try{
+			// if no transaction was added, there is no itemset
+			if(root != null){
+				selectiveMining(s, seti, root, hash);
+			}
+		}finally{
+			lock.readLock().unlock();
+		}
 		return hash;
 	}
 
@@ -520,4 +613,11 @@ public class ItemsetTree extends AbstractItemsetTree implements Serializable{
 		recursiveAdd(s, seti, ci, cisupport, hash, pos+1);
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
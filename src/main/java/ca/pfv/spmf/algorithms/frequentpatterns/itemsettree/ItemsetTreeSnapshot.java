@@ -0,0 +1,410 @@
+package ca.pfv.spmf.algorithms.frequentpatterns.itemsettree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
+
+/**
+ * An immutable copy of an itemset tree (ItemsetTree or MemoryEfficientItemsetTree)
+ * that can be queried by any number of threads without locking, while the tree
+ * itself is updated. It is obtained by calling getSnapshot() on the tree.
+ * <br/><br/>
+ * The nodes are stored in flat arrays in depth-first order. The children of the
+ * node at position i start at position i+1, and the subtree of the node ends at
+ * position subtreeEnds[i]. The (complete) itemset of each node is stored in
+ * the array "items", from position itemStarts[i] to itemStarts[i+1].
+ * The supports of the itemsets that are queried are cached in the snapshot.
+ *
+ * Copyright (c) 2008-2012 Philippe Fournier-Viger
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ *
+ * SPMF is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * SPMF. If not, see <http://www.gnu.org/licenses/>.
+ */
+public final class ItemsetTreeSnapshot {
+
+	// the version of the tree that this snapshot represents
+	private final long epoch;
+
+	// the support of each node
+	private final int[] supports;
+	// the position after the last node of the subtree of each node
+	private final int[] subtreeEnds;
+	// the position of the first item of each node in "items" (one more entry for the end)
+	private final int[] itemStarts;
+	// the itemsets of all nodes
+	private final int[] items;
+
+	// the supports of the itemsets that have been queried
+	private final ConcurrentHashMap<ItemsetKey, Integer> supportCache;
+	// the maximum number of supports kept in the cache
+	private final int maxCacheSize;
+
+	/**
+	 * Constructor (the tree must not be modified while the snapshot is created)
+	 * @param root the root of the tree
+	 * @param relativeItemsets true if the nodes only store the items that are not in their parent
+	 * @param epoch the version of the tree
+	 * @param maxCacheSize the maximum number of supports to be cached
+	 */
+	ItemsetTreeSnapshot(ItemsetTreeNode root, boolean relativeItemsets, long epoch, int maxCacheSize) {
+		this.epoch = epoch;
+		this.maxCacheSize = maxCacheSize;
+		this.supportCache = new ConcurrentHashMap<ItemsetKey, Integer>();
+
+		// count the nodes and items to create the arrays
+		int[] sizes = new int[2];
+		if(root != null){
+			measure(root, 0, relativeItemsets, sizes);
+		}
+		supports = new int[sizes[0]];
+		subtreeEnds = new int[sizes[0]];
+		itemStarts = new int[sizes[0] + 1];
+		items = new int[sizes[1]];
+		// copy the nodes in depth-first order
+		if(root != null){
+			int[] positions = new int[2];
+			flatten(root, null, relativeItemsets, positions);
+			itemStarts[sizes[0]] = positions[1];
+		}
+	}
+
+	/**
+	 * Count the number of nodes and the total length of their itemsets in a subtree.
+	 * @param node the root of the subtree
+	 * @param prefixLength the number of items of the parent of the node
+	 * @param relativeItemsets true if the nodes only store the items that are not in their parent
+	 * @param sizes the node count and item count, which are updated
+	 */
+	private static void measure(ItemsetTreeNode node, int prefixLength, boolean relativeItemsets, int[] sizes) {
+		int length = node.itemset == null ? 0 : node.itemset.length;
+		if(relativeItemsets){
+			length += prefixLength;
+		}
+		sizes[0]++;
+		sizes[1] += length;
+		for(ItemsetTreeNode child : node.childs){
+			measure(child, length, relativeItemsets, sizes);
+		}
+	}
+
+	/**
+	 * Copy a subtree in the arrays.
+	 * @param node the root of the subtree
+	 * @param parent the position of the parent of the node (null for the root)
+	 * @param relativeItemsets true if the nodes only store the items that are not in their parent
+	 * @param positions the next free position in the node arrays and in "items", which are updated
+	 */
+	private void flatten(ItemsetTreeNode node, Integer parent, boolean relativeItemsets, int[] positions) {
+		int position = positions[0]++;
+		supports[position] = node.support;
+		itemStarts[position] = positions[1];
+		// for a memory efficient tree, copy the items of the parent first
+		if(relativeItemsets && parent != null){
+			int start = itemStarts[parent];
+			int length = itemStarts[parent + 1] - start;
+			System.arraycopy(items, start, items, positions[1], length);
+			positions[1] += length;
+		}
+		if(node.itemset != null){
+			System.arraycopy(node.itemset, 0, items, positions[1], node.itemset.length);
+			positions[1] += node.itemset.length;
+		}
+		// the children are copied after the node, so the end of the itemset
+		// of the node is known when the children are copied
+		itemStarts[position + 1] = positions[1];
+		for(ItemsetTreeNode child : node.childs){
+			flatten(child, position, relativeItemsets, positions);
+		}
+		subtreeEnds[position] = positions[0];
+	}
+
+	/**
+	 * Get the version of the tree that this snapshot represents.
+	 * @return the version (it increases each time that the tree is modified)
+	 */
+	public long getEpoch() {
+		return epoch;
+	}
+
+	/**
+	 * Get the number of transactions in the tree.
+	 * @return the number of transactions
+	 */
+	public int getTransactionCount() {
+		return supports.length == 0 ? 0 : supports[0];
+	}
+
+	/**
+	 * Get the number of nodes in the tree (including the root).
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return supports.length;
+	}
+
+	/**
+	 * Get the support of a given itemset s.
+	 * @param s the itemset (sorted)
+	 * @return the support as an integer.
+	 */
+	public int getSupportOfItemset(int[] s) {
+		// check if the support is in the cache
+		ItemsetKey key = new ItemsetKey(s);
+		Integer cached = supportCache.get(key);
+		if(cached != null){
+			return cached;
+		}
+		int support = supports.length == 0 ? 0 : count(s, 0);
+		// the cache is not cleared when it is full, as it is replaced by
+		// the cache of the next snapshot when the tree changes
+		if(supportCache.size() < maxCacheSize){
+			// copy the itemset, since the caller may modify it
+			supportCache.put(new ItemsetKey(s.clone()), support);
+		}
+		return support;
+	}
+
+	/**
+	 * Calculate the support of an itemset by using a subtree (same as the "count"
+	 * method of the itemset tree).
+	 * @param s  the itemset
+	 * @param node the root of the subtree
+	 * @return  the support as an integer
+	 */
+	private int count(int[] s, int node) {
+		int count = 0;
+		// for each child of the node
+		for(int ci = node + 1; ci < subtreeEnds[node]; ci = subtreeEnds[ci]){
+			int start = itemStarts[ci];
+			int end = itemStarts[ci + 1];
+			if(items[start] <= s[0]){
+				// if s is included in ci, add the support of ci to the current count.
+				if(includedIn(s, start, end)){
+					count += supports[ci];
+				}else if(items[end - 1] < s[s.length - 1]){
+					// otherwise, if the last item of ci is smaller than
+					// the last item of s, explore the subtree of ci
+					count += count(s, ci);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Check if an itemset is included in the itemset of a node.
+	 * @param s the itemset (sorted)
+	 * @param start the position of the first item of the node
+	 * @param end the position after the last item of the node
+	 * @return true if included, otherwise false
+	 */
+	private boolean includedIn(int[] s, int start, int end) {
+		int j = start;
+		for(int i = 0; i < s.length; i++){
+			// skip the smaller items of the node
+			while(j < end && items[j] < s[i]){
+				j++;
+			}
+			if(j == end || items[j] != s[i]){
+				return false;
+			}
+			j++;
+		}
+		return true;
+	}
+
+	/**
+	 * Get the frequent itemsets subsuming a given itemset for a given minimum support value.
+	 * @param is  the itemset
+	 * @param minsup the minimum support threshold (integer)
+	 * @return an hashtable containing the frequent itemsets
+	 */
+	public HashTableIT getFrequentItemsetSubsuming(int[] is, int minsup) {
+		HashTableIT hashTable = getFrequentItemsetSubsuming(is);
+		// remove the infrequent itemsets
+		for(List<Itemset> list : hashTable.table){
+			if(list != null){
+				for(int i = list.size() - 1; i >= 0; i--){
+					if(list.get(i).support < minsup){
+						list.remove(i);
+					}
+				}
+			}
+		}
+		return hashTable;
+	}
+
+	/**
+	 * Get all itemsets that are subsuming a given itemset "s" and their support.
+	 * @param s the itemset
+	 * @return  an hashtable countaining itemsets and their support.
+	 */
+	public HashTableIT getFrequentItemsetSubsuming(int[] s) {
+		HashTableIT hash = new HashTableIT(1000);
+		if(supports.length > 0){
+			selectiveMining(s, 0, hash);
+		}
+		return hash;
+	}
+
+	/**
+	 * Find the itemsets subsuming a given itemset in a subtree (same as the
+	 * "selectiveMining" method of the itemset tree).
+	 * @param s  the itemset s
+	 * @param node  the root of the subtree
+	 * @param hash  the hashtable for storing the result
+	 * @return the cumulative support of the children of the node
+	 */
+	private int selectiveMining(int[] s, int node, HashTableIT hash) {
+		int childrenSup = 0;
+		// for each child of the node
+		for(int ci = node + 1; ci < subtreeEnds[node]; ci = subtreeEnds[ci]){
+			childrenSup += supports[ci];
+			int start = itemStarts[ci];
+			int end = itemStarts[ci + 1];
+			if(items[start] <= s[0]){
+				if(includedIn(s, start, end)){
+					if(subtreeEnds[ci] == ci + 1){
+						// if ci has no child, all its support is for its itemset
+						hash.put(s, supports[ci]);
+						recursiveAdd(s, s, start, end, supports[ci], hash, start);
+					}else{
+						// otherwise, the support of ci that is not due to its children
+						// is the number of times that ci's itemset appeared by itself
+						int remainingSup = supports[ci] - selectiveMining(s, ci, hash);
+						if(remainingSup > 0){
+							hash.put(s, remainingSup);
+							recursiveAdd(s, s, start, end, remainingSup, hash, start);
+						}
+					}
+				}else if(items[end - 1] < s[s.length - 1]){
+					// explore the subtree of ci
+					selectiveMining(s, ci, hash);
+				}
+			}
+		}
+		return childrenSup;
+	}
+
+	/**
+	 * Add to the hashtable the supersets of s that are made of s and items of a node
+	 * (same as the "recursiveAdd" method of the itemset tree).
+	 * @param s  an itemset s
+	 * @param query the itemset of the query
+	 * @param start the position of the first item of the node
+	 * @param end the position after the last item of the node
+	 * @param cisupport  the support of the node
+	 * @param hash   the hashtable used to store itemset and their support
+	 * @param pos   the current position in the itemset of the node
+	 */
+	private void recursiveAdd(int[] s, int[] query, int start, int end, int cisupport, HashTableIT hash, int pos) {
+		if(pos >= end){
+			return;
+		}
+		int item = items[pos];
+		// if the item is not in the query, add the itemset s + item
+		if(Arrays.binarySearch(query, item) < 0){
+			// insert the item in s, keeping the lexical order
+			int[] newS = new int[s.length + 1];
+			int j = 0;
+			boolean added = false;
+			for(int current : s){
+				if(added || current < item){
+					newS[j++] = current;
+				}else{
+					newS[j++] = item;
+					newS[j++] = current;
+					added = true;
+				}
+			}
+			if(j < s.length + 1){
+				newS[j++] = item;
+			}
+			hash.put(newS, cisupport);
+			recursiveAdd(newS, query, start, end, cisupport, hash, pos + 1);
+		}
+		recursiveAdd(s, query, start, end, cisupport, hash, pos + 1);
+	}
+
+	/**
+	 * Generate all association rules with a given itemset as antecedent.
+	 * @param s  the itemset to be used as antecedent
+	 * @param minsup  the minsup threshold to be used
+	 * @param minconf the minconf threshold to be used
+	 * @return a list of association rules
+	 */
+	public List<AssociationRuleIT> generateRules(int[] s, int minsup, double minconf) {
+		List<AssociationRuleIT> rules = new ArrayList<AssociationRuleIT>();
+		int suppS = getSupportOfItemset(s);
+		HashTableIT frequentItemsets = getFrequentItemsetSubsuming(s, minsup);
+		for(List<Itemset> list : frequentItemsets.table){
+			if(list != null){
+				for(Itemset c : list){
+					// C - S would be empty
+					if(c.size() == s.length){
+						continue;
+					}
+					// the consequent is C - S
+					int[] l = new int[c.itemset.length - s.length];
+					int pos = 0;
+					for(int item : c.itemset){
+						if(Arrays.binarySearch(s, item) < 0){
+							l[pos++] = item;
+						}
+					}
+					int suppC = getSupportOfItemset(c.itemset);
+					double conf = (double)suppC / suppS;
+					if(conf >= minconf){
+						AssociationRuleIT rule = new AssociationRuleIT();
+						rule.itemset1 = s;
+						rule.itemset2 = l;
+						rule.support = suppC;
+						rule.confidence = conf;
+						rules.add(rule);
+					}
+				}
+			}
+		}
+		return rules;
+	}
+
+	/**
+	 * An itemset used as a key of the cache.
+	 */
+	private static final class ItemsetKey {
+		// the items
+		private final int[] items;
+		// the hash code of the items
+		private final int hash;
+
+		ItemsetKey(int[] items) {
+			this.items = items;
+			this.hash = Arrays.hashCode(items);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ItemsetKey && Arrays.equals(items, ((ItemsetKey) o).items);
+		}
+	}
+}
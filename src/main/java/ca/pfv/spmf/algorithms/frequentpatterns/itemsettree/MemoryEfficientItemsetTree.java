@@ -3,6 +3,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.itemsettree;
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -46,6 +47,7 @@ public class MemoryEfficientItemsetTree extends AbstractItemsetTree implements S
 	
 	private long sumBranchesLength; // sum of branches length
 	private int totalNumberOfBranches; // total number of branches
+	private transient RunMetrics runMetrics = null; // the resources used by the latest construction of the tree
 
 	// This variable is commented and was only used
 	// for testing the performance of random queries
@@ -73,6 +75,9 @@ public class MemoryEfficientItemsetTree extends AbstractItemsetTree implements S
 		
 		// create an empty root for the tree
 		root = new ItemsetTreeNode(null, 0);
+		// the transactions of a previous window are not in the new tree
+		window.clear();
+		epoch++;
 
 		// Scan the database to read the transactions
 		BufferedReader reader = new BufferedReader(new InputStreamReader(this.getClass().getClassLoader().getResourceAsStream(input)));
@@ -101,8 +106,8 @@ public class MemoryEfficientItemsetTree extends AbstractItemsetTree implements S
 				//items.add(itemset[i]);
 			}
 //			printTree();
-			// call the method "construct" to add the transaction to the tree
-			construct(null, root, itemset, null);
+			// add the transaction to the tree
+			addTransaction(itemset);
 //			System.out.println(".");
 		}
 		// close the input file
@@ -112,17 +117,98 @@ public class MemoryEfficientItemsetTree extends AbstractItemsetTree implements S
 		MemoryLogger.getInstance().checkMemory();
 		// close the file
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
+	/**
+	 * Check if the nodes only store the items that are not in their parent node.
+	 * @return true, since each node stores only the items that are not in its parent
+	 */
+	@Override
+	boolean hasRelativeItemsets() {
+		return true;
+	}
+
 	/**
 	 * Add a transaction to the itemset tree.
 	 * @param transaction the transaction to be added (array of ints)
 	 */
-	public void addTransaction(int[] transaction){
+	void insertTransaction(int[] transaction){
 		// call the "construct" algorithm to add it
 		construct(null, root, transaction, null);
 	}
 
+	/**
+	 * Remove one occurrence of a transaction from the itemset tree. The support of
+	 * the nodes from the root to the node of the transaction is decreased, and then
+	 * the nodes of that path that are not needed anymore are removed.
+	 * @param s the transaction to be removed
+	 * @return true if the transaction was in the tree, otherwise false
+	 */
+	boolean deleteTransaction(int[] s){
+		// find the path of nodes from the root to the node of the transaction.
+		// The children of a node never start with the same item, so at most one
+		// child can be on that path.
+		List<ItemsetTreeNode> path = new ArrayList<ItemsetTreeNode>();
+		ItemsetTreeNode node = root;
+		path.add(node);
+		// the items of the current node (its itemset appended to those of its ancestors)
+		int[] prefix = null;
+		while(!same(s, prefix)){
+			ItemsetTreeNode next = null;
+			for(ItemsetTreeNode ci : node.childs){
+				int[] ciprefix = append(prefix, ci.itemset);
+				if(same(s, ciprefix) || ancestorOf(ciprefix, s)){
+					next = ci;
+					prefix = ciprefix;
+					break;
+				}
+			}
+			// if there is no such child, the transaction is not in the tree
+			if(next == null){
+				return false;
+			}
+			node = next;
+			path.add(node);
+		}
+
+		// the transaction is stored in that node only if the support of the node
+		// is greater than the support of its children
+		if(node.support == childrenSupport(node)){
+			return false;
+		}
+		for(ItemsetTreeNode pathNode : path){
+			pathNode.support--;
+		}
+		// compact the path, from the node of the transaction up to the root
+		for(int i = path.size() - 1; i > 0; i--){
+			compact(path.get(i - 1), path.get(i));
+		}
+		return true;
+	}
+
+	/**
+	 * Remove a node from the tree if it is not needed anymore after a transaction was removed.
+	 * @param parent the parent of the node
+	 * @param node the node
+	 */
+	private void compact(ItemsetTreeNode parent, ItemsetTreeNode node){
+		if(node.support == 0){
+			// no transaction contains the itemset of the node anymore
+			parent.childs.remove(node);
+		}else if(node.childs.size() == 1){
+			// if the node does not store a transaction and has a single child, it is not
+			// the common ancestor of two branches anymore, so it is replaced by its child
+			ItemsetTreeNode child = node.childs.iterator().next();
+			if(child.support == node.support){
+				// the items of the node are moved to its child
+				child.itemset = append(node.itemset, child.itemset);
+				parent.childs.remove(node);
+				parent.childs.add(child);
+			}
+		}
+	}
+
 
 	/**
 	 * Given the root of a sub-tree, add an itemset at the proper position in that tree
@@ -476,6 +562,9 @@ loop1:	for(int i1value : itemset1){
 		recursiveStats(root, 1);
 		System.out.println(" Node count: " + nodeCount);
 		System.out.println(" Sum of items in all node: " + totalItemCountInNodes + " avg per node :" + totalItemCountInNodes / ((double)nodeCount));
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -525,7 +614,16 @@ loop1:	for(int i1value : itemset1){
 	 * @return the support as an integer.
 	 */
 	public int getSupportOfItemset(int[] s) {
-		return count(s, root, new int[0]);  // call the method count.
+		lock.readLock().lock();
+		try{
+			// if no transaction was added, the support is 0
+			if(root == null){
+				return 0;
+			}
+			return count(s, root, new int[0]);  // call the method count.
+		}finally{
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -623,7 +721,15 @@ loop1:	for(int i1value : itemset1){
 			seti.add(s[i]);
 		}
 		// call the method selective mining for finding the sets subsuming s
-		selectiveMining(s, seti, root, hash, null);
+		lock.readLock().lock();
+		try{
+			// if no transaction was added, there is no itemset
+			if(root != null){
+				selectiveMining(s, seti, root, hash, null);
+			}
+		}finally{
+			lock.readLock().unlock();
+		}
 		return hash;
 	}
 
@@ -743,4 +849,11 @@ loop1:	for(int i1value : itemset1){
 		recursiveAdd(s, seti, ci, cisupport, hash, pos+1);
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -10,6 +10,7 @@ import java.util.List;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /* This file is copyright (c) 2012-2014 Alan Souza
 * 
@@ -60,6 +61,7 @@ public class AlgoLCM {
 	// the start time and end time of the last algorithm execution
     private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int minsupRelative;
 	
 	// Buckets for occurence delivery 
@@ -132,6 +134,7 @@ public class AlgoLCM {
         	
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		//close the output file
 		if(writer != null) {
 			writer.close();
@@ -450,6 +453,17 @@ public class AlgoLCM {
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -11,6 +11,7 @@ import java.util.List;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /* This file is copyright (c) 2012-2014 Alan Souza
 * 
@@ -61,6 +62,7 @@ public class AlgoLCMFreq {
 	// the start time and end time of the last algorithm execution
     private long startTimestamp;
 	private long endTimestamp;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int minsupRelative;
 	
 	/** buffer for storing the current itemset that is mined when performing mining
@@ -166,6 +168,7 @@ public class AlgoLCMFreq {
         
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		//close the output file
 		if(writer != null) {
 			writer.close();
@@ -423,6 +426,17 @@ public class AlgoLCMFreq {
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
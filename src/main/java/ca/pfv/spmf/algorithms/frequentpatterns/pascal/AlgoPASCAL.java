@@ -19,6 +19,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.pascal;
 
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -57,6 +58,7 @@ public class AlgoPASCAL {
 											// generated
                                             private long startTimestamp; // start time
 	private long endTimestamp; // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int itemsetCount; // number of itemsets found
 
 	// the relative minimum support used to find itemsets
@@ -195,6 +197,7 @@ public class AlgoPASCAL {
 
 		// if no frequent item, we stop there!
 		if (frequent1.size() == 0) {
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			return;
 		}
 
@@ -315,6 +318,7 @@ public class AlgoPASCAL {
 		endTimestamp = System.currentTimeMillis();
 		// check the memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the output file if the result was saved to a file.
 		if (writer != null) {
@@ -509,6 +513,9 @@ public class AlgoPASCAL {
 	 * Method to print statistics about the execution of the algorithm.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  PASCAL - STATS =============");
 		System.out.println(" Candidates count : " + totalCandidateCount);
 		System.out.println(" The algorithm stopped at size " + (k - 1)
@@ -521,4 +528,12 @@ public class AlgoPASCAL {
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
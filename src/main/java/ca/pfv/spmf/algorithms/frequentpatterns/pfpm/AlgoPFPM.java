@@ -35,6 +35,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "PFPM" algorithm for Periodic Itemsets 
@@ -105,6 +107,7 @@ public class AlgoPFPM {
 	
 	/** the maximumMemoryUsage **/
     private double maximumMemoryUsage = 0;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	/** this class represent a single item and its support and periodicity */
 	class ItemInfo{
@@ -426,6 +429,7 @@ public class AlgoPFPM {
 		totalExecutionTime  = System.currentTimeMillis() - startTimestamp;
 		// save the maximum memory usage
 		maximumMemoryUsage = MemoryLogger.getInstance().getMaxMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -754,6 +758,9 @@ public class AlgoPFPM {
 			}
 			System.out.println("ESCS size " + maxMemory + " MB    PAIR COUNT " + pairCount);
 		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 		
 
@@ -785,4 +792,11 @@ public class AlgoPFPM {
 		ENABLE_ESCP = enable;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
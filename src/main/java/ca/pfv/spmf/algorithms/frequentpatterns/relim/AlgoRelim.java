@@ -18,6 +18,7 @@ package ca.pfv.spmf.algorithms.frequentpatterns.relim;
 
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -45,6 +46,7 @@ public class AlgoRelim {
 	// for statistics
 	private long startTimestamp;  // the start time
 	private long endTimestamp;    // the end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int relativeMinsupp;  // the minimum support as a relative value (integer)
 	
 	// the array 
@@ -242,6 +244,7 @@ public class AlgoRelim {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -365,7 +368,17 @@ public class AlgoRelim {
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
-	
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.StringTokenizer;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the SKYMine algorithm, which was proposed in the following
@@ -57,6 +58,7 @@ public class AlgoSkyMine {
 	private long startTimestamp = 0; 
 	/** the time when the algorithm terminated **/
 	private long endTimestamp = 0; 
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** map to store the TWU of each item  Key: item  Value : TWU */
 	private Map<Integer, Long> mapItemToTWU;
@@ -525,6 +527,7 @@ public class AlgoSkyMine {
 
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// Release some memory
 		phuis.clear();
@@ -1121,6 +1124,9 @@ public class AlgoSkyMine {
 		buffer.append("Number of skyline patterns: " + this.numberOfSkylineItemsets+ "\n");
 		buffer.append("===================================================\n\n \n");
 		System.out.println(buffer.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 	
 	/**
@@ -1170,4 +1176,12 @@ public class AlgoSkyMine {
 		// write to file
 		writer.write(buffer.toString());
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import java.util.Set;
 
 import ca.pfv.spmf.algorithms.frequentpatterns.two_phase.ItemsetsTP;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "TSHOUN" algorithm for High on-shelf utility itemsets Mining
@@ -50,6 +51,7 @@ public class AlgoTSHoun {
 	// for statistics
     private long startTimestamp = 0;  // start time
 	private long endTimestamp = 0; // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int candidatesCount; // the number of candidates generated
 	
 	
@@ -152,6 +154,7 @@ public class AlgoTSHoun {
 		if(candidate1.size() == 0) {
 			MemoryLogger.getInstance().checkMemory();
 			endTimestamp = System.currentTimeMillis();		
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			writer.close();
 			return;
 		}
@@ -364,6 +367,7 @@ public class AlgoTSHoun {
 		if(candidates2.size() == 0) {
 			MemoryLogger.getInstance().checkMemory();
 			endTimestamp = System.currentTimeMillis();		
+			runMetrics = MemoryLogger.getInstance().stopRun();
 			writer.close();
 			return;
 		}
@@ -493,6 +497,7 @@ public class AlgoTSHoun {
 		// check memory usage
 		MemoryLogger.getInstance().checkMemory();
 		endTimestamp = System.currentTimeMillis();		
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		writer.close();
 	}
 
@@ -823,6 +828,17 @@ loop1:		for(int i =0; i < items.length; i++){
 		System.out.println(" Memory : " + MemoryLogger.getInstance().getMaxMemory() + " MB"); 
 		System.out.println(" HOU count : " + resultCount); 
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /**
@@ -59,6 +60,7 @@ public class AlgoHUINIVMine {
 	// for statistics
     private long startTimestamp = 0;  // start time
 	private long endTimestamp = 0; // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int candidatesCount; // the number of candidates generated
 	
 	//=========  DIFFERENCE FROM TWO-PHASE ======/
@@ -268,6 +270,7 @@ public class AlgoHUINIVMine {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return all frequent itemsets found!
 		return highUtilityItemsets; 
@@ -377,7 +380,18 @@ public class AlgoHUINIVMine {
 		System.out.println(" Candidates count : " + candidatesCount); 
 		System.out.println(" High-utility itemsets count : " + highUtilityItemsets.getItemsetsCount()); 
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /**
@@ -57,6 +58,7 @@ public class AlgoTwoPhase {
 	// for statistics
     private long startTimestamp = 0;  // start time
 	private long endTimestamp = 0; // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int candidatesCount; // the number of candidates generated
 	
 	/**
@@ -219,6 +221,7 @@ public class AlgoTwoPhase {
 		
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Return all frequent itemsets found!
 		return highUtilityItemsets; 
@@ -309,7 +312,18 @@ public class AlgoTwoPhase {
 		System.out.println(" Candidates count : " + candidatesCount); 
 		System.out.println(" High-utility itemsets count : " + highUtilityItemsets.getItemsetsCount()); 
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
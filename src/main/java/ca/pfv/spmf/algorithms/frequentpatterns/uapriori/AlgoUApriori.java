@@ -22,6 +22,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the U-Apriori algorithm as described by :<br/><br/>
@@ -47,6 +49,7 @@ public class AlgoUApriori {
 	private int databaseScanCount = 0;  // number of database scan
 	private long startTimestamp;  // start time of latest execution
 	private long endTimestamp; // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int itemsetCount; // the number of itemsets found
 	
 	// write to file
@@ -69,6 +72,7 @@ public class AlgoUApriori {
 	public void runAlgorithm(double minsupp, String output) throws IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// reset variables for statistics
 		totalCandidateCount = 0;
 		databaseScanCount = 0;
@@ -120,6 +124,7 @@ public class AlgoUApriori {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -326,7 +331,18 @@ public class AlgoUApriori {
 		System.out.println(" Uncertain itemsets count : " + itemsetCount);
 
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
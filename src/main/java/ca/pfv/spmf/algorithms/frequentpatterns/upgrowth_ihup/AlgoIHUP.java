@@ -14,6 +14,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the IHUP algorithm that is
@@ -50,6 +52,7 @@ public class AlgoIHUP {
 	private double maxMemory = 0; // the maximum memory usage
 	private long startTimestamp = 0; // the time the algorithm started
 	private long endTimestamp = 0; // the time the algorithm terminated
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int huiCount = 0; // the number of HUIs generated
 	private int phuisCount; // the number of PHUIs generated
 
@@ -76,6 +79,7 @@ public class AlgoIHUP {
 		maxMemory = 0;
 
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 
 		writer = new BufferedWriter(new FileWriter(output));
 
@@ -299,6 +303,7 @@ public class AlgoIHUP {
 
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// Release some memory
 		phuis.clear();
@@ -559,7 +564,17 @@ loop1:		for(int i =0; i < itemset.size(); i++){
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Memory ~ " + maxMemory + " MB");
 		System.out.println(" HUIs count : " + huiCount);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ package ca.pfv.spmf.algorithms.frequentpatterns.vme;
 */
 
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -58,6 +60,7 @@ public class AlgoVME {
 	// for statistics
     private long startTimestamp = 0; //start time of latest execution
 	private long endTimeStamp = 0; //end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// the maximum profit loss
     private double maxProfitLoss =0;
@@ -87,6 +90,7 @@ public class AlgoVME {
 	public void runAlgorithm(String input, String output, double threshold) throws NumberFormatException, IOException {
 		// record start time
 		startTimestamp = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// create writer
 		writer = new BufferedWriter(new FileWriter(output)); 
@@ -209,6 +213,7 @@ public class AlgoVME {
 		writer.close();
 		// record end time
 		endTimeStamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -306,7 +311,18 @@ loop2:		for(int j=i+1; j< levelK_1.size(); j++){
 		System.out.println("Maximum profit loss (over. profit x treshold): " + maxProfitLoss);
 		System.out.println(" Erasable itemset count : " + erasableItemsetCount);
 		System.out.println(" Total time ~ " + temps + " ms");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -28,6 +28,7 @@ import java.util.Map;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of Zart, an algorithm for mining frequent closed itemsets
@@ -53,6 +54,7 @@ public class AlgoZart {
     private long startTimestamp;
 	// end time of the latest execution
     private long endTimestamp;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	// relative minimum support threshold
 	private int minsupRelative =0;
@@ -297,6 +299,7 @@ public class AlgoZart {
 		MemoryLogger.getInstance().checkMemory();
 		// record the end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return a table containing the closed itemsets and their associatied generator(s)
 		return tableClosed;
@@ -529,6 +532,9 @@ public class AlgoZart {
 		System.out.println(" Total time ~: " + (endTimestamp - startTimestamp)
 				+ " ms");
 		System.out.println(" Max memory:" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -585,6 +591,13 @@ public class AlgoZart {
 		}
 		// Finally, the output file is closed
 		writer.close();
-	}	
-	
+	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
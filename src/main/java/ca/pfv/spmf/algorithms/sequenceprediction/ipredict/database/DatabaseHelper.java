@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Collections;
+import java.util.Random;
 
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.profile.Profile;
 /*
@@ -29,6 +30,9 @@ public class DatabaseHelper {
 
 	//Database
 	private SequenceDatabase database;
+	
+	//Random number generator used to shuffle the database
+	private Random random = new Random();
 
 	/**
 	 * Main constructor, instantiate an empty database
@@ -46,6 +50,14 @@ public class DatabaseHelper {
 		return database;
 	}
 	
+	/**
+	 * Sets the seed used to shuffle the datasets that are loaded after this call
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+	
 	
 	public void loadDataset(String fileName, int maxCount) {
 		
@@ -69,7 +81,7 @@ public class DatabaseHelper {
 
 		
 		//Shuffling the database
-		Collections.shuffle(database.getSequences());
+		Collections.shuffle(database.getSequences(), random);
 	}
 	
 	private void loadCustomDataset(String fileName, int maxCount) {
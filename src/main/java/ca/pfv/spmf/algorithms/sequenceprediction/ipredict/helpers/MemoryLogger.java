@@ -24,15 +24,26 @@ public class MemoryLogger {
 		// should not be instantiated 
 	}
 	
-	public static void reset() {
+	public static synchronized void reset() {
 		mMemoryUsage.clear();
 	}
 	
-	public static void addUpdate() {
+	public static synchronized void addUpdate() {
 		mMemoryUsage.add(getUsedMemory());
 	}
 	
-	private static int getUsedMemory() {
+	/**
+	 * Adds a memory usage that was measured earlier, for example by another thread
+	 * @param usage the used memory in mb
+	 */
+	public static synchronized void addUpdate(int usage) {
+		mMemoryUsage.add(usage);
+	}
+	
+	/**
+	 * @return the memory currently used by the whole JVM in mb
+	 */
+	public static int getUsedMemory() {
 	
 		int mb = 1024*1024; // 1mb  = 1024 * 1024 bytes
         Runtime runtime = Runtime.getRuntime();
@@ -51,7 +62,7 @@ public class MemoryLogger {
         return usage;
 	}
 
-	public static void displayUsage() {
+	public static synchronized void displayUsage() {
 		
 		int max = 0;
 		String output = "Memory history: ";
@@ -1,5 +1,6 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPT;
 
+import java.nio.LongBuffer;
 import java.util.BitSet;
 /*
  * This file is copyright (c) Ted Gueniche 
@@ -43,6 +44,15 @@ class Bitvector {
 		this.bitset = bitset;
 		this.cardinality = cardinality;
 	}
+	
+	/**
+	 * Constructor used to load a bit vector from the words returned by toLongArray().
+	 * @param words the remaining words of the buffer
+	 * @param cardinality the cardinality of the bitset
+	 */
+	Bitvector(LongBuffer words, int cardinality) {
+		this(BitSet.valueOf(words), cardinality);
+	}
 
 	/**
 	 * Performing the AND operation.
@@ -73,6 +83,14 @@ class Bitvector {
 	public int nextSetBit(int i) {
 		return bitset.nextSetBit(i);
 	}
+	
+	/**
+	 * Get the bits of this bit vector as an array of longs.
+	 * @return a new array
+	 */
+	public long[] toLongArray() {
+		return bitset.toLongArray();
+	}
 
 	public int cardinality() {
 		// if the cardinality is unknown because of the AND operation
@@ -1,9 +1,12 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPT;
 
 
+import java.io.IOException;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +18,8 @@ import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.helpers.MemoryLogger;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Paramable;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotReader;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotWriter;
 /*
  * This file is copyright (c) Ted Gueniche 
  * <ted.gueniche@gmail.com>
@@ -433,6 +438,134 @@ public class CPTPredictor extends Predictor {
 
     }
 	
+	/**
+	 * Write the Prediction Tree, the Lookup Table and the Inverted Index as arrays.
+	 * The nodes are numbered in breadth-first order, so that a node is always after its parent.
+	 */
+	@Override
+	protected void writeModel(SnapshotWriter writer) throws IOException {
+		writer.writeLong(nodeNumber);
+		
+		//Prediction Tree
+		List<PredictionTree> nodes = new ArrayList<PredictionTree>();
+		Map<PredictionTree, Integer> nodeIds = new IdentityHashMap<PredictionTree, Integer>();
+		nodes.add(Root);
+		nodeIds.put(Root, 0);
+		for(int i = 0; i < nodes.size(); i++) {
+			for(PredictionTree child : nodes.get(i).getChildren()) {
+				nodeIds.put(child, nodes.size());
+				nodes.add(child);
+			}
+		}
+		int[] items = new int[nodes.size()];
+		int[] parents = new int[nodes.size()];
+		parents[0] = -1;
+		for(int i = 0; i < nodes.size(); i++) {
+			items[i] = nodes.get(i).Item.val;
+			if(i > 0) {
+				parents[i] = nodeIds.get(nodes.get(i).Parent);
+			}
+		}
+		writer.writeIntArray(items);
+		writer.writeIntArray(parents);
+		
+		//Lookup Table
+		int[] sequenceIds = new int[LT.size()];
+		int[] leaves = new int[LT.size()];
+		int i = 0;
+		for(Entry<Integer, PredictionTree> entry : LT.entrySet()) {
+			sequenceIds[i] = entry.getKey();
+			leaves[i] = nodeIds.get(entry.getValue());
+			i++;
+		}
+		writer.writeIntArray(sequenceIds);
+		writer.writeIntArray(leaves);
+		
+		//Inverted Index: the words of all the bit vectors one after the other
+		int[] iiItems = new int[II.size()];
+		int[] cardinalities = new int[II.size()];
+		int[] wordCounts = new int[II.size()];
+		List<long[]> bitvectors = new ArrayList<long[]>(II.size());
+		int wordCount = 0;
+		i = 0;
+		for(Entry<Integer, Bitvector> entry : II.entrySet()) {
+			long[] words = entry.getValue().toLongArray();
+			iiItems[i] = entry.getKey();
+			cardinalities[i] = entry.getValue().cardinality();
+			wordCounts[i] = words.length;
+			bitvectors.add(words);
+			wordCount += words.length;
+			i++;
+		}
+		long[] allWords = new long[wordCount];
+		int position = 0;
+		for(long[] words : bitvectors) {
+			System.arraycopy(words, 0, allWords, position, words.length);
+			position += words.length;
+		}
+		writer.writeIntArray(iiItems);
+		writer.writeIntArray(cardinalities);
+		writer.writeIntArray(wordCounts);
+		writer.writeLongArray(allWords, wordCount);
+	}
+	
+	@Override
+	protected Runnable readModel(SnapshotReader reader) throws IOException {
+		long loadedNodeNumber = reader.readLong();
+		PredictionTree root = new PredictionTree();
+		Map<Integer, PredictionTree> lt = new HashMap<Integer, PredictionTree>();
+		Map<Integer, Bitvector> ii = new HashMap<Integer, Bitvector>();
+		
+		//Prediction Tree
+		int[] items = reader.readIntArray();
+		int[] parents = reader.readIntArray();
+		if(items.length == 0 || parents.length != items.length) {
+			throw new IOException("The snapshot is corrupted");
+		}
+		PredictionTree[] nodes = new PredictionTree[items.length];
+		nodes[0] = root;
+		for(int i = 1; i < items.length; i++) {
+			if(parents[i] < 0 || parents[i] >= i) {
+				throw new IOException("The snapshot is corrupted");
+			}
+			PredictionTree node = new PredictionTree();
+			node.Item = new Item(items[i]);
+			nodes[parents[i]].addChild(node);
+			nodes[i] = node;
+		}
+		
+		//Lookup Table
+		int[] sequenceIds = reader.readIntArray();
+		int[] leaves = reader.readIntArray();
+		for(int i = 0; i < sequenceIds.length; i++) {
+			lt.put(sequenceIds[i], nodes[leaves[i]]);
+		}
+		
+		//Inverted Index
+		int[] iiItems = reader.readIntArray();
+		int[] cardinalities = reader.readIntArray();
+		int[] wordCounts = reader.readIntArray();
+		long[] allWords = reader.readLongArray();
+		int position = 0;
+		for(int i = 0; i < iiItems.length; i++) {
+			LongBuffer words = LongBuffer.wrap(allWords, position, wordCounts[i]);
+			ii.put(iiItems[i], new Bitvector(words, cardinalities[i]));
+			position += wordCounts[i];
+		}
+		
+		return () -> {
+			nodeNumber = loadedNodeNumber;
+			Root = root;
+			LT = lt;
+			II = ii;
+		};
+	}
+	
+	@Override
+	protected String getParameters() {
+		return parameters.toString();
+	}
+	
 	/**
 	 * Return the number of node in the prediction tree
 	 */
@@ -1,5 +1,6 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus;
 
+import java.nio.LongBuffer;
 import java.util.BitSet;
 /*
  * This file is copyright (c) Ted Gueniche 
@@ -43,6 +44,15 @@ public class Bitvector {
 		this.bitset = bitset;
 		this.cardinality = cardinality;
 	}
+	
+	/**
+	 * Create a bit vector from the words returned by toLongArray().
+	 * @param words the remaining words of the buffer
+	 * @param cardinality the number of bits set to 1
+	 */
+	public Bitvector(LongBuffer words, int cardinality) {
+		this(BitSet.valueOf(words), cardinality);
+	}
 
 	/**
 	 * Performing the AND operation.
@@ -83,6 +93,14 @@ public class Bitvector {
 		return cardinality;
 	}
 
+	/**
+	 * Get the bits of this bit vector as an array of longs.
+	 * @return a new array
+	 */
+	public long[] toLongArray() {
+		return bitset.toLongArray();
+	}
+
 	public void setBit(int i) {
 		if(!bitset.get(i)) {
 			bitset.set(i);
@@ -90,6 +108,24 @@ public class Bitvector {
 		}
 	}
 	
+	public void clearBit(int i) {
+		if(bitset.get(i)) {
+			cardinality();
+			bitset.clear(i);
+			cardinality--;
+		}
+	}
+	
+	/**
+	 * Create a bit vector where the bits of this bit vector are moved to lower positions.
+	 * @param offset the number of positions (the bits at lower positions are lost)
+	 * @return a new Bitvector
+	 */
+	public Bitvector shiftDown(int offset) {
+		BitSet shifted = bitset.get(offset, Math.max(offset, bitset.length()));
+		return new Bitvector(shifted, shifted.cardinality());
+	}
+	
 	// FOR DEBUGGING
 	public String toString(){
 		return  bitset.toString() +  " cardinality : " + cardinality;
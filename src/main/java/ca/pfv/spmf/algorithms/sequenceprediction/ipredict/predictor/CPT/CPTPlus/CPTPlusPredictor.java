@@ -1,19 +1,26 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus;
 
+import java.io.IOException;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Paramable;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotReader;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotWriter;
 /*
  * This file is copyright (c) Ted Gueniche 
  * <ted.gueniche@gmail.com>
@@ -55,6 +62,12 @@ public class CPTPlusPredictor extends Predictor {
 	 */
 	private long nodeNumber;
 	
+	/**
+	 * id of the next sequence added to the model, and id of the oldest sequence in the model
+	 */
+	private int nextSequenceId;
+	private int oldestSequenceId;
+	
 	/**
 	 * Flag for the CCF Strategy (default value)
 	 */
@@ -107,16 +120,8 @@ public class CPTPlusPredictor extends Predictor {
 	@Override
 	public void Train(List<Sequence> trainingSequences) {
 		
-		Root = new PredictionTree();
-		LT = new HashMap<Integer, PredictionTree>();
-		II = new HashMap<Integer, Bitvector>();
-		encoder = new Encoder();
-		((CPTHelper) helper).setEncoded(encoder);
-		nodeNumber = 0;
-		
-		int seqId = 0;
-		PredictionTree curNode;
-
+		reset();
+		trainingSequences = resetWindow(trainingSequences);
 		
 		//CCF Strategy
 		//Identifying the frequent sequential itemsets
@@ -134,61 +139,180 @@ public class CPTPlusPredictor extends Predictor {
 
 		//for each training sequence
 		for(Sequence seq : trainingSequences) {
-			
-			//slicing the sequence if needed
-			if(parameters.paramInt("splitMethod") > 0) {
-				seq = helper.keepLastItems(seq, parameters.paramInt("splitLength"));
-			}
+			addSequence(seq);
+		}
+		
 
-			//Generating the compressed version of this sequence
-			Sequence seqCompressed = new Sequence(seq);
-			seqCompressed = encoder.encode(seqCompressed);
-			
-			//resetting node pointer to root node
-			curNode = Root;
+		//Patch collapsing for added compression
+		if(parameters.paramBoolOrDefault("CBS", CBS)) {
+			pathCollapse(LT.values());
+		}
 
-			//for each item in the compressed sequence
-			for(Item itemCompressed : seqCompressed.getItems()) {
-						
-				//decoding the current item the encoded sequence
-				List<Item> itemset = encoder.getEntry(itemCompressed.val);
-				
-				//II update
-				for(Item item : itemset) {
-				
-					//adding the item in the Inverted Index if needed
-					if(!II.containsKey(item.val)) {
-						Bitvector tmpBitset = new Bitvector();
-						II.put(item.val, tmpBitset);
-					}
+	}
 	
-					//updating Inverted Index with seqId for this Item
-					II.get(item.val).setBit(seqId);
-				}
-				
-				//if this itemCompressed is not a child of the current node, we add him
-				if(!curNode.hasChild(itemCompressed)) {
-					curNode.addChild(itemCompressed);
-					nodeNumber++;
-					curNode = curNode.getChild(itemCompressed);
+	/**
+	 * Empty the model
+	 */
+	private void reset() {
+		Root = new PredictionTree();
+		LT = new HashMap<Integer, PredictionTree>();
+		II = new HashMap<Integer, Bitvector>();
+		encoder = new Encoder();
+		((CPTHelper) helper).setEncoded(encoder);
+		nodeNumber = 0;
+		nextSequenceId = 0;
+		oldestSequenceId = 0;
+	}
+	
+	/**
+	 * Add new sequences to the Prediction Tree, the Inverted Index and the Lookup Table.
+	 * The frequent itemsets of the CCF strategy are not searched again, and the CBS strategy
+	 * is only applied to the branches of the new sequences.
+	 */
+	@Override
+	protected void addSequences(List<Sequence> newSequences) {
+		
+		if(encoder == null) {
+			reset();
+		}
+		
+		List<PredictionTree> newLeaves = new ArrayList<PredictionTree>();
+		for(Sequence seq : newSequences) {
+			newLeaves.add(addSequence(seq));
+		}
+		
+		//Patch collapsing for added compression
+		if(parameters.paramBoolOrDefault("CBS", CBS)) {
+			pathCollapse(newLeaves);
+		}
+	}
+	
+	/**
+	 * Remove the oldest sequences from the Inverted Index and the Lookup Table,
+	 * and the nodes that are not used by other sequences from the Prediction Tree.
+	 */
+	@Override
+	protected void removeSequences(List<Sequence> oldSequences) {
+		
+		for(int i = 0; i < oldSequences.size(); i++) {
+			int seqId = oldestSequenceId++;
+			
+			PredictionTree leaf = LT.get(seqId);
+			if(leaf == null) {
+				continue;
+			}
+			
+			//II update (an item can appear several times in the sequence, but it is only removed once)
+			if(leaf != Root) {
+				Set<Integer> items = new HashSet<Integer>();
+				for(Item item : helper.getSequenceFromId(seqId)) {
+					items.add(item.val);
 				}
-				//if this itemCompressed is already a child of the current node
-				else {
-					curNode = curNode.getChild(itemCompressed);
+				for(Integer item : items) {
+					Bitvector ids = II.get(item);
+					ids.clearBit(seqId);
+					if(ids.cardinality() == 0) {
+						II.remove(item);
+					}
 				}
 			}
-
-			//adding the sequence id in the Lookup Table
-			LT.put(seqId, curNode); //adding <sequence id, last node in sequence>
-			seqId++; //increment sequence id number
+			LT.remove(seqId);
+			
+			//removing the branch from the leaf, until a node that is used by another sequence
+			leaf.sequenceCount--;
+			PredictionTree node = leaf;
+			while(node != Root && node.sequenceCount == 0 && node.getChildren().size() == 0
+					&& node.Parent != null && node.Parent.removeChild(node)) {
+				nodeNumber--;
+				node = node.Parent;
+			}
+		}
+		
+		//renumbering the sequences when most ids are not used anymore
+		//so that the bit vectors do not keep growing
+		if(oldestSequenceId > LT.size()) {
+			renumberSequences();
+		}
+	}
+	
+	/**
+	 * Renumber the sequences of the model from 0, keeping their order
+	 */
+	private void renumberSequences() {
+		int offset = oldestSequenceId;
+		
+		Map<Integer, PredictionTree> newLT = new HashMap<Integer, PredictionTree>();
+		for(Entry<Integer, PredictionTree> entry : LT.entrySet()) {
+			newLT.put(entry.getKey() - offset, entry.getValue());
+		}
+		LT = newLT;
+		
+		for(Entry<Integer, Bitvector> entry : II.entrySet()) {
+			entry.setValue(entry.getValue().shiftDown(offset));
 		}
 		
+		oldestSequenceId = 0;
+		nextSequenceId -= offset;
+	}
+	
+	/**
+	 * Add a sequence to the Prediction Tree, the Inverted Index and the Lookup Table
+	 * @param seq the sequence
+	 * @return the last node of the sequence in the Prediction Tree
+	 */
+	private PredictionTree addSequence(Sequence seq) {
+		
+		int seqId = nextSequenceId++;
+		PredictionTree curNode;
+		
+		//slicing the sequence if needed
+		if(parameters.paramInt("splitMethod") > 0) {
+			seq = helper.keepLastItems(seq, parameters.paramInt("splitLength"));
+		}
 
-		//Patch collapsing for added compression
-		if(parameters.paramBoolOrDefault("CBS", CBS)) {
-			pathCollapse();
+		//Generating the compressed version of this sequence
+		Sequence seqCompressed = new Sequence(seq);
+		seqCompressed = encoder.encode(seqCompressed);
+		
+		//resetting node pointer to root node
+		curNode = Root;
+
+		//for each item in the compressed sequence
+		for(Item itemCompressed : seqCompressed.getItems()) {
+					
+			//decoding the current item the encoded sequence
+			List<Item> itemset = encoder.getEntry(itemCompressed.val);
+			
+			//II update
+			for(Item item : itemset) {
+			
+				//adding the item in the Inverted Index if needed
+				if(!II.containsKey(item.val)) {
+					Bitvector tmpBitset = new Bitvector();
+					II.put(item.val, tmpBitset);
+				}
+
+				//updating Inverted Index with seqId for this Item
+				II.get(item.val).setBit(seqId);
+			}
+			
+			//if this itemCompressed is not a child of the current node, we add him
+			if(!curNode.hasChild(itemCompressed)) {
+				curNode.addChild(itemCompressed);
+				nodeNumber++;
+				curNode = curNode.getChild(itemCompressed);
+			}
+			//if this itemCompressed is already a child of the current node
+			else {
+				curNode = curNode.getChild(itemCompressed);
+			}
 		}
 
+		//adding the sequence id in the Lookup Table
+		LT.put(seqId, curNode); //adding <sequence id, last node in sequence>
+		curNode.sequenceCount++;
+		
+		return curNode;
 	}
 	
 	
@@ -339,15 +463,16 @@ public class CPTPlusPredictor extends Predictor {
 	 * As an optimization, the leaf of the branch is the node used to replace the branch,
 	 * so the Lookup Table for CPT does not have to be updated since it is already pointing
 	 * to this node.
+	 * @param leaves the last nodes of the sequences whose branches should be collapsed
 	 */
-	private void pathCollapse() {
+	private void pathCollapse(Collection<PredictionTree> leaves) {
 		
 		int nodeSaved = 0;
 		
 		//for each sequences registered in the Lookup Table (LT)
-		for(Entry<Integer, PredictionTree> entry : LT.entrySet()) {
+		for(PredictionTree leafNode : leaves) {
 			
-			PredictionTree cur = entry.getValue();
+			PredictionTree cur = leafNode;
 			PredictionTree leaf = cur;
 			PredictionTree last = null;
 			List<Item> itemset = new ArrayList<Item>();
@@ -360,8 +485,8 @@ public class CPTPlusPredictor extends Predictor {
 				//while the path is singular (starting from the leaf)
 				while(singlePath) {
 					
-					//if the current node has multiple children
-					if(cur.getChildren().size() > 1 || cur == null) {
+					//if the current node has multiple children or is the root
+					if(cur == Root || cur.getChildren().size() > 1) {
 						
 						if(pathLength != 1) {
 							//updating the leaf to be a child of cur
@@ -401,6 +526,211 @@ public class CPTPlusPredictor extends Predictor {
 		nodeNumber -= nodeSaved;
 	}
 
+	/**
+	 * Write the Encoder, the Prediction Tree, the Lookup Table and the Inverted Index as arrays.
+	 * The nodes are numbered in breadth-first order, so that a node is always after its parent.
+	 */
+	@Override
+	protected void writeModel(SnapshotWriter writer) throws IOException {
+		if(encoder == null) {
+			throw new IllegalStateException("The model must be trained before being saved");
+		}
+		writer.writeLong(nodeNumber);
+		writer.writeInt(nextSequenceId);
+		writer.writeInt(oldestSequenceId);
+		
+		//Encoder: the itemsets one after the other, and the position of the first item of each itemset
+		int[] entryStarts = new int[encoder.size() + 1];
+		for(int id = 0; id < encoder.size(); id++) {
+			entryStarts[id + 1] = entryStarts[id] + encoder.getEntry(id).size();
+		}
+		int[] entryItems = new int[entryStarts[encoder.size()]];
+		for(int id = 0, i = 0; id < encoder.size(); id++) {
+			for(Item item : encoder.getEntry(id)) {
+				entryItems[i++] = item.val;
+			}
+		}
+		writer.writeIntArray(entryStarts);
+		writer.writeIntArray(entryItems);
+		
+		//Prediction Tree: the nodes of the tree, then the nodes that are only reachable from the Lookup Table
+		//(the CBS strategy keeps the old branch of a sequence ending inside a collapsed branch)
+		List<PredictionTree> nodes = new ArrayList<PredictionTree>();
+		Map<PredictionTree, Integer> nodeIds = new IdentityHashMap<PredictionTree, Integer>();
+		nodes.add(Root);
+		nodeIds.put(Root, 0);
+		for(int i = 0; i < nodes.size(); i++) {
+			for(PredictionTree child : nodes.get(i).getChildren()) {
+				nodeIds.put(child, nodes.size());
+				nodes.add(child);
+			}
+		}
+		int attachedCount = nodes.size();
+		for(PredictionTree leaf : LT.values()) {
+			List<PredictionTree> branch = new ArrayList<PredictionTree>();
+			for(PredictionTree node = leaf; !nodeIds.containsKey(node); node = node.Parent) {
+				branch.add(node);
+			}
+			for(int i = branch.size() - 1; i >= 0; i--) {
+				nodeIds.put(branch.get(i), nodes.size());
+				nodes.add(branch.get(i));
+			}
+		}
+		int[] items = new int[nodes.size()];
+		int[] parents = new int[nodes.size()];
+		int[] sequenceCounts = new int[nodes.size()];
+		parents[0] = -1;
+		for(int i = 0; i < nodes.size(); i++) {
+			PredictionTree node = nodes.get(i);
+			items[i] = node.Item.val;
+			if(i > 0) {
+				parents[i] = nodeIds.get(node.Parent);
+			}
+			sequenceCounts[i] = node.sequenceCount;
+		}
+		writer.writeInt(attachedCount);
+		writer.writeIntArray(items);
+		writer.writeIntArray(parents);
+		writer.writeIntArray(sequenceCounts);
+		
+		//Lookup Table
+		int[] sequenceIds = new int[LT.size()];
+		int[] leaves = new int[LT.size()];
+		int i = 0;
+		for(Entry<Integer, PredictionTree> entry : LT.entrySet()) {
+			sequenceIds[i] = entry.getKey();
+			leaves[i] = nodeIds.get(entry.getValue());
+			i++;
+		}
+		writer.writeIntArray(sequenceIds);
+		writer.writeIntArray(leaves);
+		
+		//Inverted Index: the words of all the bit vectors one after the other
+		int[] iiItems = new int[II.size()];
+		int[] cardinalities = new int[II.size()];
+		int[] wordCounts = new int[II.size()];
+		List<long[]> bitvectors = new ArrayList<long[]>(II.size());
+		int wordCount = 0;
+		i = 0;
+		for(Entry<Integer, Bitvector> entry : II.entrySet()) {
+			long[] words = entry.getValue().toLongArray();
+			iiItems[i] = entry.getKey();
+			cardinalities[i] = entry.getValue().cardinality();
+			wordCounts[i] = words.length;
+			bitvectors.add(words);
+			wordCount += words.length;
+			i++;
+		}
+		long[] allWords = new long[wordCount];
+		int position = 0;
+		for(long[] words : bitvectors) {
+			System.arraycopy(words, 0, allWords, position, words.length);
+			position += words.length;
+		}
+		writer.writeIntArray(iiItems);
+		writer.writeIntArray(cardinalities);
+		writer.writeIntArray(wordCounts);
+		writer.writeLongArray(allWords, wordCount);
+	}
+	
+	@Override
+	protected Runnable readModel(SnapshotReader reader) throws IOException {
+		long loadedNodeNumber = reader.readLong();
+		int loadedNextSequenceId = reader.readInt();
+		int loadedOldestSequenceId = reader.readInt();
+		PredictionTree root = new PredictionTree();
+		Map<Integer, PredictionTree> lt = new HashMap<Integer, PredictionTree>();
+		Map<Integer, Bitvector> ii = new HashMap<Integer, Bitvector>();
+		Encoder loadedEncoder = new Encoder();
+		
+		//Encoder
+		int[] entryStarts = reader.readIntArray();
+		int[] entryItems = reader.readIntArray();
+		for(int id = 0; id + 1 < entryStarts.length; id++) {
+			List<Item> itemset = new ArrayList<Item>(entryStarts[id + 1] - entryStarts[id]);
+			for(int j = entryStarts[id]; j < entryStarts[id + 1]; j++) {
+				itemset.add(new Item(entryItems[j]));
+			}
+			loadedEncoder.addEntry(itemset);
+		}
+		
+		//Prediction Tree
+		int attachedCount = reader.readInt();
+		int[] items = reader.readIntArray();
+		int[] parents = reader.readIntArray();
+		int[] sequenceCounts = reader.readIntArray();
+		if(items.length == 0 || parents.length != items.length || sequenceCounts.length != items.length) {
+			throw new IOException("The snapshot is corrupted");
+		}
+		PredictionTree[] nodes = new PredictionTree[items.length];
+		nodes[0] = root;
+		root.sequenceCount = sequenceCounts[0];
+		for(int i = 1; i < items.length; i++) {
+			if(parents[i] < 0 || parents[i] >= i) {
+				throw new IOException("The snapshot is corrupted");
+			}
+			PredictionTree node = new PredictionTree();
+			node.Item = new Item(items[i]);
+			node.sequenceCount = sequenceCounts[i];
+			if(i < attachedCount) {
+				nodes[parents[i]].addChild(node);
+			}
+			else {
+				node.Parent = nodes[parents[i]];
+			}
+			nodes[i] = node;
+		}
+		
+		//Lookup Table
+		int[] sequenceIds = reader.readIntArray();
+		int[] leaves = reader.readIntArray();
+		for(int i = 0; i < sequenceIds.length; i++) {
+			lt.put(sequenceIds[i], nodes[leaves[i]]);
+		}
+		
+		//Inverted Index
+		int[] iiItems = reader.readIntArray();
+		int[] cardinalities = reader.readIntArray();
+		int[] wordCounts = reader.readIntArray();
+		long[] allWords = reader.readLongArray();
+		int position = 0;
+		for(int i = 0; i < iiItems.length; i++) {
+			LongBuffer words = LongBuffer.wrap(allWords, position, wordCounts[i]);
+			ii.put(iiItems[i], new Bitvector(words, cardinalities[i]));
+			position += wordCounts[i];
+		}
+		
+		return () -> {
+			Root = root;
+			LT = lt;
+			II = ii;
+			encoder = loadedEncoder;
+			((CPTHelper) helper).setEncoded(encoder);
+			nodeNumber = loadedNodeNumber;
+			nextSequenceId = loadedNextSequenceId;
+			oldestSequenceId = loadedOldestSequenceId;
+		};
+	}
+	
+	@Override
+	protected String getParameters() {
+		return parameters.toString();
+	}
+
+	/**
+	 * Compile this trained model into an immutable model that makes the same predictions
+	 * and that can be used by several threads at the same time.
+	 * The parameters minPredictionRatio and noiseRatio are read once, when the model is frozen.
+	 * @return the frozen model
+	 */
+	public FrozenCPTPlusPredictor freeze() {
+		if(encoder == null) {
+			throw new IllegalStateException("The model must be trained before being frozen");
+		}
+		return new FrozenCPTPlusPredictor(TAG, Root, LT, II, encoder,
+				parameters.paramDouble("minPredictionRatio"), parameters.paramDouble("noiseRatio"));
+	}
+
 	@Override
 	public long size() {
 		return nodeNumber;
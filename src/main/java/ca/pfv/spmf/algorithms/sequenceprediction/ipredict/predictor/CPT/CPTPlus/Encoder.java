@@ -57,6 +57,13 @@ public class Encoder {
 		return Dict.get(id);
 	}
 	
+	/**
+	 * Return the number of itemsets in the dictionary
+	 */
+	public int size() {
+		return Dict.size();
+	}
+	
 	/**
 	 * Return the id of the given itemset
 	 * @return the id or null if the itemset is not found
@@ -0,0 +1,583 @@
+package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.TreeSet;
+
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+/*
+ * This file is copyright (c) Ted Gueniche
+ * <ted.gueniche@gmail.com>
+ *
+ * This file is part of the IPredict project
+ * (https://github.com/tedgueniche/IPredict).
+ *
+ * IPredict is distributed under The MIT License (MIT).
+ * You may obtain a copy of the License at
+ * https://opensource.org/licenses/MIT
+ */
+/**
+ * Frozen CPT+ - an immutable, compiled form of a trained CPT+ model that can be shared by several threads.
+ * It is obtained by calling CPTPlusPredictor.freeze() and makes the same predictions as the CPT+ model it was created from.
+ *
+ * The items are mapped to consecutive indexes so that the Inverted Index is an array of bitmaps,
+ * the Prediction Tree is flattened into arrays of parents and items, and the itemsets of the Encoder
+ * are stored in a single array. Predict() does not modify the model and uses buffers that are
+ * allocated once for each thread, rather than a new CountTable and new Bitvectors for each call.
+ */
+public class FrozenCPTPlusPredictor extends Predictor {
+
+	/**
+	 * Maximum number of items of a similar sequence used to update the count table (as in CountTable)
+	 */
+	private static final int MAX_ITEMS_PER_SEQUENCE = 99;
+
+	/**
+	 * Value of each item, in ascending order (the position of an item is its index)
+	 */
+	private final int[] itemValues;
+
+	/**
+	 * Inverted Index: a bitmap of the sequence ids containing each item
+	 */
+	private final long[][] II;
+
+	/**
+	 * Number of sequences containing each item
+	 */
+	private final int[] supports;
+
+	/**
+	 * Parent of each node of the Prediction Tree (the root is node 0 and has no parent)
+	 */
+	private final int[] nodeParents;
+
+	/**
+	 * Encoded item of each node of the Prediction Tree
+	 */
+	private final int[] nodeItems;
+
+	/**
+	 * Lookup Table: the last node of each sequence
+	 */
+	private final int[] LT;
+
+	/**
+	 * Position of the first item of each itemset of the Encoder in entryItems (the last value is the number of items)
+	 */
+	private final int[] entryStarts;
+
+	/**
+	 * Indexes of the items of the itemsets of the Encoder
+	 */
+	private final int[] entryItems;
+
+	/**
+	 * Length of the longest sequence, and depth of the deepest node of the Prediction Tree
+	 */
+	private final int maxSequenceLength;
+	private final int maxDepth;
+
+	/**
+	 * Parameters of the prediction
+	 */
+	private final double minPredictionRatio;
+	private final double noiseRatio;
+
+	/**
+	 * Buffers used by Predict() in each thread
+	 */
+	private final ThreadLocal<Scratch> scratches = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/**
+	 * Compile a trained CPT+ model
+	 * @param tag the TAG of the model
+	 * @param root the root of the Prediction Tree
+	 * @param lookupTable the Lookup Table
+	 * @param invertedIndex the Inverted Index
+	 * @param encoder the Encoder
+	 * @param minPredictionRatio the minPredictionRatio parameter
+	 * @param noiseRatio the noiseRatio parameter
+	 */
+	FrozenCPTPlusPredictor(String tag, PredictionTree root, Map<Integer, PredictionTree> lookupTable,
+			Map<Integer, Bitvector> invertedIndex, Encoder encoder, double minPredictionRatio, double noiseRatio) {
+		super(tag);
+		this.minPredictionRatio = minPredictionRatio;
+		this.noiseRatio = noiseRatio;
+
+		//collecting the items of the Inverted Index and of the Encoder
+		TreeSet<Integer> items = new TreeSet<Integer>(invertedIndex.keySet());
+		for(int id = 0; id < encoder.size(); id++) {
+			for(Item item : encoder.getEntry(id)) {
+				items.add(item.val);
+			}
+		}
+		itemValues = new int[items.size()];
+		int index = 0;
+		for(Integer item : items) {
+			itemValues[index++] = item;
+		}
+
+		//Inverted Index
+		II = new long[itemValues.length][];
+		supports = new int[itemValues.length];
+		for(int i = 0; i < itemValues.length; i++) {
+			Bitvector bitvector = invertedIndex.get(itemValues[i]);
+			II[i] = bitvector == null ? new long[0] : bitvector.toLongArray();
+			supports[i] = bitvector == null ? 0 : bitvector.cardinality();
+		}
+
+		//Encoder
+		entryStarts = new int[encoder.size() + 1];
+		int entryItemCount = 0;
+		for(int id = 0; id < encoder.size(); id++) {
+			entryStarts[id] = entryItemCount;
+			entryItemCount += encoder.getEntry(id).size();
+		}
+		entryStarts[encoder.size()] = entryItemCount;
+		entryItems = new int[entryItemCount];
+		for(int id = 0; id < encoder.size(); id++) {
+			int position = entryStarts[id];
+			for(Item item : encoder.getEntry(id)) {
+				entryItems[position++] = indexOf(item.val);
+			}
+		}
+
+		//Prediction Tree: the nodes that can be reached from the Lookup Table are numbered from the leaves,
+		//the root being node 0
+		IdentityHashMap<PredictionTree, Integer> nodeIds = new IdentityHashMap<PredictionTree, Integer>();
+		List<PredictionTree> nodes = new ArrayList<PredictionTree>();
+		nodeIds.put(root, 0);
+		nodes.add(root);
+		int sequenceCount = 0;
+		for(Integer id : lookupTable.keySet()) {
+			sequenceCount = Math.max(sequenceCount, id + 1);
+		}
+		LT = new int[sequenceCount];
+		Arrays.fill(LT, -1);
+		for(Entry<Integer, PredictionTree> entry : lookupTable.entrySet()) {
+			PredictionTree node = entry.getValue();
+			while(node != null && !nodeIds.containsKey(node)) {
+				nodeIds.put(node, nodes.size());
+				nodes.add(node);
+				node = node.Parent;
+			}
+			LT[entry.getKey()] = nodeIds.get(entry.getValue());
+		}
+		nodeParents = new int[nodes.size()];
+		nodeItems = new int[nodes.size()];
+		for(int i = 0; i < nodes.size(); i++) {
+			PredictionTree node = nodes.get(i);
+			Integer parent = node.Parent == null ? null : nodeIds.get(node.Parent);
+			nodeParents[i] = parent == null ? -1 : parent;
+			nodeItems[i] = node.Item.val;
+		}
+
+		//length of the longest sequence
+		int longest = 0;
+		int deepest = 0;
+		for(int id = 0; id < LT.length; id++) {
+			int length = 0;
+			int depth = 0;
+			for(int node = LT[id]; node > 0; node = nodeParents[node]) {
+				int item = nodeItems[node];
+				length += entryStarts[item + 1] - entryStarts[item];
+				depth++;
+			}
+			longest = Math.max(longest, length);
+			deepest = Math.max(deepest, depth);
+		}
+		maxSequenceLength = longest;
+		maxDepth = deepest;
+	}
+
+	/**
+	 * A frozen model cannot be trained
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void Train(List<Sequence> trainingSequences) {
+		throw new UnsupportedOperationException("A frozen CPT+ model cannot be trained, train a CPTPlusPredictor and freeze it");
+	}
+
+	@Override
+	public Sequence Predict(Sequence target) {
+
+		Scratch scratch = scratches.get();
+
+		//remove items that were never seen before from the Target sequence
+		int[] sequence = new int[target.size()];
+		int size = 0;
+		for(Item item : target.getItems()) {
+			int index = indexOf(item.val);
+			if(index >= 0 && II[index].length > 0) {
+				sequence[size++] = index;
+			}
+		}
+		if(size < sequence.length) {
+			sequence = Arrays.copyOf(sequence, size);
+		}
+
+		try {
+			int best = predictionByActiveNoiseReduction(sequence, scratch);
+			Sequence predicted = new Sequence(-1);
+			if(best >= 0) {
+				predicted.addItem(new Item(itemValues[best]));
+			}
+			return predicted;
+		} finally {
+			scratch.clear();
+		}
+	}
+
+	/**
+	 * Fill the count table with the target sequence and its subsequences, as in CPTPlusPredictor
+	 * @param target the indexes of the items of the target sequence
+	 * @param scratch the buffers of the current thread
+	 * @return the index of the predicted item or -1 if there is no prediction
+	 */
+	private int predictionByActiveNoiseReduction(int[] target, Scratch scratch) {
+
+		//Queues setup
+		HashSet<IntSequence> seen = new HashSet<IntSequence>(); //contains the sequence already seen to avoid work duplication
+		Queue<int[]> queue = new LinkedList<int[]>(); //contains the sequence to process
+		queue.add(target);
+
+		//Setting parameters
+		int maxPredictionCount = 1 + (int) (target.length * minPredictionRatio);
+		int predictionCount = 0;
+		int initialTargetSize = target.length;
+
+		//Initializing the count table
+		update(target, scratch);
+
+		//Initial prediction
+		if(getBest(scratch) >= 0) {
+			predictionCount++;
+		}
+
+		//while the min prediction count is not reached and the target sequence is big enough
+		int[] seq;
+		while((seq = queue.poll()) != null && predictionCount < maxPredictionCount) {
+
+			//if this sequence has not been seen yet
+			if(seen.add(new IntSequence(seq))) {
+
+				//generating the candidates from the list of noisy items
+				for(int noise : getNoise(seq)) {
+
+					//remove the first noise item appearance from the sequence
+					int[] candidate = seq;
+					for(int i = 0; i < seq.length; i++) {
+						if(seq[i] == noise) {
+							candidate = new int[seq.length - 1];
+							System.arraycopy(seq, 0, candidate, 0, i);
+							System.arraycopy(seq, i + 1, candidate, i, seq.length - i - 1);
+							break;
+						}
+					}
+
+					//add this sequence to the queue
+					if(candidate.length > 1) {
+						queue.add(candidate);
+					}
+
+					//do a prediction if this CountTable update did something
+					if(update(candidate, scratch) > 0 && getBest(scratch) >= 0) {
+						predictionCount++;
+					}
+				}
+			}
+		}
+
+		return getBest(scratch);
+	}
+
+	/**
+	 * Return the items with the lowest support, as in CPTPlusPredictor
+	 * @param target the indexes of the items of a sequence
+	 * @return the indexes of the noisy items (or -1 if the sequence is empty)
+	 */
+	private int[] getNoise(int[] target) {
+
+		int noiseCount = (int) Math.floor(target.length * noiseRatio);
+
+		//When the noise is <= 0, noiseCount is set to one
+		if(noiseCount <= 0) {
+			//Find the lowest supporting item
+			int minSup = Integer.MAX_VALUE;
+			int item = -1;
+			for(int i = 0; i < target.length; i++) {
+				if(supports[target[i]] < minSup) {
+					minSup = supports[target[i]];
+					item = target[i];
+				}
+			}
+			return new int[] {item};
+		}
+
+		//stable sort of the items by decreasing support
+		//then return the last [noiseCount] items
+		int[] sorted = target.clone();
+		for(int i = 1; i < sorted.length; i++) {
+			int item = sorted[i];
+			int j = i - 1;
+			while(j >= 0 && supports[sorted[j]] < supports[item]) {
+				sorted[j + 1] = sorted[j];
+				j--;
+			}
+			sorted[j + 1] = item;
+		}
+		return Arrays.copyOfRange(sorted, target.length - noiseCount, target.length);
+	}
+
+	/**
+	 * Update the count table with the sequences that contain all the items of a sequence, as in CountTable
+	 * @param sequence the indexes of the items of the sequence
+	 * @param scratch the buffers of the current thread
+	 * @return the number of sequences that were used to update the count table
+	 */
+	private int update(int[] sequence, Scratch scratch) {
+		if(sequence.length == 0) {
+			return 0;
+		}
+
+		//intersection of the bitmaps of the items of the sequence
+		long[] intersection = scratch.intersection;
+		int wordCount = II[sequence[0]].length;
+		System.arraycopy(II[sequence[0]], 0, intersection, 0, wordCount);
+		for(int i = 1; i < sequence.length; i++) {
+			long[] other = II[sequence[i]];
+			wordCount = Math.min(wordCount, other.length);
+			for(int w = 0; w < wordCount; w++) {
+				intersection[w] &= other[w];
+			}
+		}
+		int similarCount = 0;
+		for(int w = 0; w < wordCount; w++) {
+			similarCount += Long.bitCount(intersection[w]);
+		}
+
+		//the items to avoid are marked with the current stamp
+		int[] seq = scratch.sequence;
+		int branchesUsed = 0;
+		for(int w = 0; w < wordCount; w++) {
+			long word = intersection[w] & ~scratch.visited[w];
+			scratch.visited[w] |= word;
+			while(word != 0) {
+				int id = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+
+				int toAvoid = scratch.mark(sequence);
+				int length = getSequenceFromId(id, seq, scratch.path);
+
+				int count = 1; //current number of items already pushed
+				for(int i = 0; i < length; i++) {
+					int item = seq[i];
+					if(toAvoid == 0 && count < MAX_ITEMS_PER_SEQUENCE) {
+						scratch.push(item, similarCount, count);
+						count++;
+					}
+					else if(scratch.stamps[item] == scratch.stamp) {
+						scratch.stamps[item] = 0;
+						toAvoid--;
+					}
+				}
+				//meaning that the count table has been really updated
+				if(count > 1) {
+					branchesUsed++;
+				}
+			}
+		}
+		return branchesUsed;
+	}
+
+	/**
+	 * Return the item with the highest score in the count table, as in CountTable.getBestSequence()
+	 * @param scratch the buffers of the current thread
+	 * @return the index of the item or -1 if there is no item or the best score is too close to the second best score
+	 */
+	private int getBest(Scratch scratch) {
+		double bestValue = Double.NEGATIVE_INFINITY;
+		double secondValue = Double.NEGATIVE_INFINITY;
+		int best = -1;
+		for(int i = 0; i < scratch.itemCount; i++) {
+			int item = scratch.items[i];
+			double value = scratch.scores[item];
+			if(value > bestValue) {
+				secondValue = bestValue;
+				bestValue = value;
+				best = item;
+			}
+			else if(value == bestValue) {
+				//the items with the same score are ordered by value
+				best = Math.min(best, item);
+			}
+			else if(value > secondValue) {
+				secondValue = value;
+			}
+		}
+		if(best >= 0 && secondValue != Double.NEGATIVE_INFINITY && (bestValue / secondValue) < 1.002) {
+			return -1;
+		}
+		return best;
+	}
+
+	/**
+	 * Write the decoded items of a sequence of the Prediction Tree in a buffer
+	 * @param id Id of the sequence to extract
+	 * @param buffer the buffer for the indexes of the items
+	 * @param path a buffer for the nodes of the branch
+	 * @return the number of items
+	 */
+	private int getSequenceFromId(int id, int[] buffer, int[] path) {
+		//Reading the whole branch from bottom to top
+		int depth = 0;
+		for(int node = LT[id]; node > 0; node = nodeParents[node]) {
+			path[depth++] = node;
+		}
+		//Decoding the branch from top to bottom
+		int length = 0;
+		for(int i = depth - 1; i >= 0; i--) {
+			int item = nodeItems[path[i]];
+			for(int j = entryStarts[item]; j < entryStarts[item + 1]; j++) {
+				buffer[length++] = entryItems[j];
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Return the index of an item
+	 * @param item the value of the item
+	 * @return the index or a negative value if the item is unknown
+	 */
+	private int indexOf(int item) {
+		return Arrays.binarySearch(itemValues, item);
+	}
+
+	@Override
+	public long size() {
+		return nodeParents.length - 1;
+	}
+
+	@Override
+	public float memoryUsage() {
+		long words = 0;
+		for(long[] bitmap : II) {
+			words += bitmap.length;
+		}
+		return 8f * words + 4f * (itemValues.length * 2 + nodeParents.length * 2 + LT.length
+				+ entryStarts.length + entryItems.length);
+	}
+
+	/**
+	 * The buffers used by Predict() in a thread: the count table, the sequences that were already used
+	 * to update it, and the buffers for the bitmap intersections and the decoded sequences.
+	 */
+	private class Scratch {
+		/** score of each item (0 if it is not in the count table) */
+		final float[] scores = new float[itemValues.length];
+		/** the items in the count table */
+		final int[] items = new int[itemValues.length];
+		int itemCount = 0;
+		/** the sequences already used to update the count table */
+		final long[] visited = new long[(LT.length + 63) >>> 6];
+		/** the intersection of bitmaps */
+		final long[] intersection = new long[(LT.length + 63) >>> 6];
+		/** the items to avoid in a sequence are marked with the current stamp */
+		final int[] stamps = new int[itemValues.length];
+		int stamp = 0;
+		/** buffers for a decoded sequence and for a branch of the Prediction Tree */
+		final int[] sequence = new int[maxSequenceLength];
+		final int[] path = new int[maxDepth];
+
+		/**
+		 * Mark the distinct items of a sequence with a new stamp
+		 * @param sequence the indexes of the items
+		 * @return the number of distinct items
+		 */
+		int mark(int[] sequence) {
+			if(++stamp == Integer.MAX_VALUE) {
+				Arrays.fill(stamps, 0);
+				stamp = 1;
+			}
+			int distinct = 0;
+			for(int item : sequence) {
+				if(stamps[item] != stamp) {
+					stamps[item] = stamp;
+					distinct++;
+				}
+			}
+			return distinct;
+		}
+
+		/**
+		 * Calculate the score for an item and push the score to the count table, as in CountTable
+		 * @param item the index of the item
+		 * @param numberOfSeqSameLength Number of similar sequence
+		 * @param dist the position of the item after the items of the target sequence
+		 */
+		void push(int item, int numberOfSeqSameLength, int dist) {
+			float weightLevel = 1f /numberOfSeqSameLength;
+			float weightDistance = 1f / dist;
+			float curValue = (weightLevel * 1f) + (1f) + (weightDistance * 0.0001f);
+
+			if(scores[item] == 0) {
+				scores[item] = curValue;
+				items[itemCount++] = item;
+			}
+			else {
+				scores[item] *= curValue;
+			}
+		}
+
+		/**
+		 * Empty the count table and the set of visited sequences
+		 */
+		void clear() {
+			for(int i = 0; i < itemCount; i++) {
+				scores[items[i]] = 0;
+			}
+			itemCount = 0;
+			Arrays.fill(visited, 0);
+		}
+	}
+
+	/**
+	 * A sequence of item indexes that can be stored in a HashSet
+	 */
+	private static final class IntSequence {
+		private final int[] items;
+		private final int hash;
+
+		IntSequence(int[] items) {
+			this.items = items;
+			this.hash = Arrays.hashCode(items);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IntSequence && Arrays.equals(items, ((IntSequence) obj).items);
+		}
+	}
+}
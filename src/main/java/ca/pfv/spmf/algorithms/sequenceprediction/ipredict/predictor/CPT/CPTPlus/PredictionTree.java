@@ -40,6 +40,11 @@ public class PredictionTree {
 	 */
 	private List<PredictionTree> Children; //children list
 	
+	/**
+	 * Number of sequences of the Lookup Table that end with this node
+	 */
+	int sequenceCount;
+	
 	
 	private PredictionTree(Item itemValue) {
 		Item = itemValue;
@@ -77,6 +82,14 @@ public class PredictionTree {
 		Children = Children.stream().filter(c -> !c.Item.equals(child)).collect(Collectors.toList());
 	}
 	
+	/**
+	 * Removes a node from the children of the current node
+	 * @return true if the node was a child of the current node
+	 */
+	public boolean removeChild(PredictionTree child) {
+		return Children.remove(child);
+	}
+	
 	/**
 	 * Return true if the given item is a child of this node
 	 */
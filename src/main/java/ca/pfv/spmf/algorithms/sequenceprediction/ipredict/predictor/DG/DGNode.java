@@ -57,4 +57,23 @@ class DGNode {
 			arcs.add(new DGArc(target));
 		}
 	}
+	
+	/**
+	 * Decrement the support of an arc from this node to another one (target),
+	 * and remove the arc if its support becomes 0
+	 * @param target linked node
+	 */
+	public void removeArc(int target) {
+		
+		for(int i = 0; i < arcs.size(); i++) {
+			DGArc arc = arcs.get(i);
+			if(arc.dest == target) {
+				arc.support--;
+				if(arc.support == 0) {
+					arcs.remove(i);
+				}
+				return;
+			}
+		}
+	}
 }
@@ -1,13 +1,17 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.DG;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Paramable;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotReader;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotWriter;
 /*
  * This file is copyright (c) Ted Gueniche 
  * <ted.gueniche@gmail.com>
@@ -54,12 +58,22 @@ public class DGPredictor extends Predictor {
 	public void Train(List<Sequence> trainingSequences) {
 		//TODO:  Resolve ABB...AC...AD...ABB problem, described in Mogul&Padmanabhan (3. some Issues)
 		
+		mDictionary = new HashMap<Integer, DGNode>();
+		
+		addSequences(resetWindow(trainingSequences));
+	}
+	
+	@Override
+	protected void addSequences(List<Sequence> newSequences) {
+		
 		int w = parameters.paramIntOrDefault("lookahead", lookahead); //Window size parameter
 		
-		mDictionary = new HashMap<Integer, DGNode>();
+		if(mDictionary == null) {
+			mDictionary = new HashMap<Integer, DGNode>();
+		}
 		
-		//For each sequence of the training set
-		for(Sequence seq : trainingSequences) {
+		//For each new sequence
+		for(Sequence seq : newSequences) {
 			
 			//for each items in this sequence, but the last one
 			List<Item> items = seq.getItems();
@@ -83,9 +97,33 @@ public class DGPredictor extends Predictor {
 			}
 			
 		}
-
-
-    }
+	}
+	
+	@Override
+	protected void removeSequences(List<Sequence> oldSequences) {
+		
+		int w = parameters.paramIntOrDefault("lookahead", lookahead); //Window size parameter
+		
+		//For each sequence to remove, the supports are decremented as they were incremented in addSequences()
+		for(Sequence seq : oldSequences) {
+			
+			List<Item> items = seq.getItems();
+			for(int i = 0 ; i < (items.size() - 1); i++) {
+				
+				DGNode node = mDictionary.get(items.get(i).val);
+				node.totalSupport--;
+				
+				for(int k = (i+1) ; k < ((i+1)+w) && k < items.size() ; k++) {
+					node.removeArc(items.get(k).val);
+				}
+				
+				//removing the node if no sequence contains this item anymore
+				if(node.totalSupport == 0) {
+					mDictionary.remove(items.get(i).val);
+				}
+			}
+		}
+	}
 
 	@Override
 	public Sequence Predict(Sequence target) {
@@ -108,7 +146,8 @@ public class DGPredictor extends Predictor {
 		}
 		
 		
-		//Getting the best item (the one with the highest score)
+		//Getting the best item (the one with the highest score, or the smallest item if several arcs have this score,
+		//so that the prediction does not depend on the order of the arcs, which changes when arcs are removed)
 		double max = 0;
 		int best = 0;
 		for(DGArc arc : node.arcs) {
@@ -117,7 +156,7 @@ public class DGPredictor extends Predictor {
 			double score = ((double)arc.support) / node.totalSupport;
 			
 			//Testing against threshold and the max score
-			if(score >= threshold && score > max) {
+			if(score >= threshold && (score > max || (score == max && arc.dest < best))) {
 				max = score;
 				best = arc.dest;
 			}
@@ -134,6 +173,71 @@ public class DGPredictor extends Predictor {
 		return predicted;
 	}
 
+	/**
+	 * Write the nodes of the graph and their arcs as arrays
+	 */
+	@Override
+	protected void writeModel(SnapshotWriter writer) throws IOException {
+		
+		int[] values = new int[mDictionary.size()];
+		int[] totalSupports = new int[mDictionary.size()];
+		int[] arcCounts = new int[mDictionary.size()];
+		int arcCount = 0;
+		int i = 0;
+		for(Entry<Integer, DGNode> entry : mDictionary.entrySet()) {
+			values[i] = entry.getKey();
+			totalSupports[i] = entry.getValue().totalSupport;
+			arcCounts[i] = entry.getValue().arcs.size();
+			arcCount += arcCounts[i];
+			i++;
+		}
+		
+		int[] destinations = new int[arcCount];
+		int[] supports = new int[arcCount];
+		int j = 0;
+		for(DGNode node : mDictionary.values()) {
+			for(DGArc arc : node.arcs) {
+				destinations[j] = arc.dest;
+				supports[j] = arc.support;
+				j++;
+			}
+		}
+		writer.writeIntArray(values);
+		writer.writeIntArray(totalSupports);
+		writer.writeIntArray(arcCounts);
+		writer.writeIntArray(destinations);
+		writer.writeIntArray(supports);
+	}
+	
+	@Override
+	protected Runnable readModel(SnapshotReader reader) throws IOException {
+		
+		int[] values = reader.readIntArray();
+		int[] totalSupports = reader.readIntArray();
+		int[] arcCounts = reader.readIntArray();
+		int[] destinations = reader.readIntArray();
+		int[] supports = reader.readIntArray();
+		
+		HashMap<Integer, DGNode> dictionary = new HashMap<Integer, DGNode>();
+		int j = 0;
+		for(int i = 0; i < values.length; i++) {
+			DGNode node = new DGNode(values[i]);
+			node.totalSupport = totalSupports[i];
+			for(int end = j + arcCounts[i]; j < end; j++) {
+				DGArc arc = new DGArc(destinations[j]);
+				arc.support = supports[j];
+				node.arcs.add(arc);
+			}
+			dictionary.put(values[i], node);
+		}
+		return () -> mDictionary = dictionary;
+	}
+	
+	@Override
+	protected String getParameters() {
+		return parameters.toString();
+	}
+
 	public long size() {
 		
 		long nodeCount = 0;
@@ -13,6 +13,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
 /*
  * This file is copyright (c) Ted Gueniche 
  * <ted.gueniche@gmail.com>
@@ -30,6 +33,7 @@ import java.util.List;
 public class Evaluator {
 
 	private List<Predictor> predictors; //list of predictors
+	private List<Supplier<? extends Predictor>> predictorFactories; //factory of each predictor (or null)
 	
 	//Sampling type
 	private final static int HOLDOUT = 0;
@@ -50,9 +54,13 @@ public class Evaluator {
 	private List<String> datasets;
 	private List<Integer> datasetsMaxCount;
 	
+	//number of threads used to train and test the predictors
+	private int threadCount = 1;
+	
 	
 	public Evaluator(String pathToDatasets) {
 		predictors = new ArrayList<Predictor>();
+		predictorFactories = new ArrayList<Supplier<? extends Predictor>>();
 		datasets = new ArrayList<String>();
 		datasetsMaxCount = new ArrayList<Integer>();
 		database = new DatabaseHelper(pathToDatasets);
@@ -64,6 +72,43 @@ public class Evaluator {
 	 */
 	public void addPredictor(Predictor predictor) {
 		predictors.add(predictor);
+		predictorFactories.add(null);
+	}
+	
+	/**
+	 * Adds a Predictor to the list of predictors, using a factory that creates new instances of this predictor.
+	 * When several threads are used, a new instance is trained for each fold so that
+	 * the folds of this predictor are evaluated at the same time.
+	 * A predictor added as an instance is trained on its folds one after the other.
+	 * @param factory a factory returning a new instance of the predictor each time it is called
+	 */
+	public void addPredictor(Supplier<? extends Predictor> factory) {
+		predictors.add(factory.get());
+		predictorFactories.add(factory);
+	}
+	
+	/**
+	 * Sets the number of threads used to train and test the predictors on the folds of a dataset.
+	 * The datasets are evaluated one after the other since their parameter profile is global.
+	 * The results are the same as with a single thread, except for the execution times
+	 * and the memory usage. The memory usage of a fold is measured when the fold ends and
+	 * logged in the order of the folds, but the heap is shared by the whole JVM: with several threads,
+	 * it also includes the memory used by the folds evaluated at the same time.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Sets the seed used to shuffle the datasets, so that an experiment can be repeated with the same folds
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		database.setSeed(seed);
 	}
 	
 	/**
@@ -125,25 +170,24 @@ public class Evaluator {
 			//Saving current time for across time analysis
 			startTime = System.currentTimeMillis();
 			
-			//For each predictor, do the sampling and do the training/testing
-			for(int id = 0 ; id < predictors.size(); id++) {
-				
-				//Picking the sampling strategy
-				switch(samplingType) {
-					case HOLDOUT:
-						Holdout(param, id);
-						break;
-				
-					case KFOLD:
-						KFold((int)param, id);
-						break;
+			//Picking the sampling strategy
+			Folds folds = new Folds(samplingType, param);
+			boolean logMemory = samplingType != HOLDOUT;
+			
+			//For each predictor, do the training/testing on each fold
+			if(threadCount > 1) {
+				evaluateInParallel(folds.toList(), logMemory);
+			}
+			else {
+				for(int id = 0 ; id < predictors.size(); id++) {
+					for(int f = 0; f < folds.size(); f++) {
+						record(id, evaluate(predictors.get(id), folds.get(f)));
 						
-					case RANDOMSAMPLING:
-						RandomSubSampling(param, id);
-						break;
-					
-					default: 
-						System.out.println("Unknown sampling type."); 
+						//Logging memory usage
+						if(logMemory) {
+							MemoryLogger.addUpdate();
+						}
+					}
 				}
 			}
 			//Saving end time
@@ -164,8 +208,9 @@ public class Evaluator {
 	 * Data are randomly partitioned into two sets (a training set and a test set) using a ratio.
 	 * The classifier is trained using the training set and evaluated using the test set.
 	 * @param ratio to divide the training and test sets
+	 * @return the fold
 	 */
-    private void Holdout(double ratio, int classifierId) {
+    private Fold Holdout(double ratio) {
 		
 		List<Sequence> trainingSequences = getDatabaseCopy();
 		List<Sequence> testSequences = splitList(trainingSequences, ratio);
@@ -174,85 +219,234 @@ public class Evaluator {
 		//System.out.println("Dataset size: "+ (trainingSequences.size() + testSequences.size()));
 		//System.out.println("Training: " + trainingSequences.size() + " and Test set: "+ testSequences.size());
 		
-		PrepareClassifier(trainingSequences, classifierId); //training (preparing) classifier
-		
-		StartClassifier(testSequences, classifierId); //classification of the test sequence
+		return new Fold(trainingSequences, testSequences);
 	}
 	
 	/**
-	 * Random subsampling
-	 * Holdout method repeated 10 times
-	 * @param ratio to use for the holdout method
+	 * k-fold cross-validation
+	 * Data are partitioned in k exclusive subsets (folds) of same size.
+	 * Training and testing is done k times. For each time; a fold is used for testing 
+	 * and the k-1 other folds for training
+	 * @param dataSet a copy of the database
+	 * @param k the number of folds
+	 * @param i the position of the fold (0 to k-1)
+	 * @return the i-th fold
 	 */
-    private void RandomSubSampling(double ratio, int classifierId) {
+    private Fold KFold(List<Sequence> dataSet, int k, int i) {
 		
-		int k = 10;
-		for(int i = 0 ; i < k; i++) {
-			Holdout(ratio, classifierId);
+		//calculating absolute ratio
+		double relativeRatio = 1/(double)k;
+		int absoluteRatio = (int) (dataSet.size() * relativeRatio);
+		
+		//Partitioning database 
+		//
+		int posStart = i * absoluteRatio; //start position of testing set
+		int posEnd = posStart + absoluteRatio; //end position of testing set
+		if(i == (k-1)) { //if last fold we adjust the size to include all the left-over sequences
+			posEnd = dataSet.size(); //special case
+		}
+		
+		//declaring the sets
+		List<Sequence> trainingSequences = new LinkedList<Sequence>();
+		List<Sequence> testSequences = new LinkedList<Sequence>();
+		
+		//actual partitioning
+		for(int j = 0 ; j < dataSet.size(); j++) {
 			
-			//Logging memory usage
-			MemoryLogger.addUpdate();
+			Sequence toAdd = dataSet.get(j);
+			
+			//is in testing set
+			if(j >= posStart && j < posEnd) {
+				testSequences.add(toAdd);
+			}
+			else {
+				trainingSequences.add(toAdd);
+			}
 		}
+		//
+		//End of Partitioning
 		
+		return new Fold(trainingSequences, testSequences);
 	}
 	
 	/**
-	 * k-fold cross-validation
-	 * Data are partitioned in k exclusive subsets (folds) of same size.
-	 * Training and testing is done k times. For each time; a fold is used for testing 
-	 * and the k-1 other folds for training
+	 * The folds of the current dataset for a sampling strategy. A fold is only created when it is used,
+	 * so that a single thread keeps one fold at a time.
+	 * Random subsampling repeats the holdout method 10 times. Since the split of the holdout method
+	 * is the same each time, its fold is created once and reused.
 	 */
-    private void KFold(int k, int classifierId) {
+	private class Folds {
 		
-		//k has to be at least 2
-		if(k < 2) {
-			throw new RuntimeException("K needs to be 2 or more");
-		}
-
-		List<Sequence> dataSet = getDatabaseCopy();
+		private final int samplingType;
+		private final double param;
+		private final int count; //number of folds
 		
-		//calculating absolute ratio
-		double relativeRatio = 1/(double)k;
-		int absoluteRatio = (int) (dataSet.size() * relativeRatio);
+		private List<Sequence> dataSet; //copy of the database for k-fold cross-validation
+		private Fold holdout; //the fold of the holdout method
 		
-		//For each fold, it does training and testing
-		for(int i = 0 ; i < k ; i++) {
-
-			//Partitioning database 
-			//
-			int posStart = i * absoluteRatio; //start position of testing set
-			int posEnd = posStart + absoluteRatio; //end position of testing set
-			if(i == (k-1)) { //if last fold we adjust the size to include all the left-over sequences
-				posEnd = dataSet.size(); //special case
-			}
-			
-			//declaring the sets
-			List<Sequence> trainingSequences = new LinkedList<Sequence>();
-			List<Sequence> testSequences = new LinkedList<Sequence>();
+		/**
+		 * Constructor
+		 * @param samplingType one of: HOLDOUT, RANDOMSAMPLING, KFOLD
+		 * @param param The parameter associated with the sampling type
+		 */
+		Folds(int samplingType, double param) {
+			this.samplingType = samplingType;
+			this.param = param;
+			switch(samplingType) {
+				case HOLDOUT:
+					count = 1;
+					break;
 			
-			//actual partitioning
-			for(int j = 0 ; j < dataSet.size(); j++) {
+				case KFOLD:
+					//k has to be at least 2
+					if((int)param < 2) {
+						throw new RuntimeException("K needs to be 2 or more");
+					}
+					count = (int)param;
+					break;
+					
+				case RANDOMSAMPLING:
+					count = 10;
+					break;
 				
-				Sequence toAdd = dataSet.get(j);
+				default: 
+					System.out.println("Unknown sampling type."); 
+					count = 0;
+			}
+		}
+		
+		/**
+		 * @return the number of folds
+		 */
+		int size() {
+			return count;
+		}
+		
+		/**
+		 * Get a fold, creating it if necessary
+		 * @param i the position of the fold
+		 * @return the fold
+		 */
+		Fold get(int i) {
+			if(samplingType == KFOLD) {
+				if(dataSet == null) {
+					dataSet = getDatabaseCopy();
+				}
+				return KFold(dataSet, count, i);
+			}
+			if(holdout == null) {
+				holdout = Holdout(param);
+			}
+			return holdout;
+		}
+		
+		/**
+		 * Create all the folds, for evaluating them at the same time
+		 * @return the list of folds
+		 */
+		List<Fold> toList() {
+			List<Fold> folds = new ArrayList<Fold>(count);
+			for(int i = 0; i < count; i++) {
+				folds.add(get(i));
+			}
+			return folds;
+		}
+	}
+	
+	/**
+	 * Trains and tests the predictors on the folds with several threads.
+	 * A predictor added with a factory is trained on each fold by a different task, while a predictor
+	 * added as an instance is trained on all the folds by a single task. The results and the memory usage
+	 * of each fold are then recorded in the same order as with a single thread.
+	 * @param folds the folds
+	 * @param logMemory if the memory usage should be logged after each fold
+	 */
+	private void evaluateInParallel(List<Fold> folds, boolean logMemory) {
+		
+		FoldResult[][] results = new FoldResult[predictors.size()][folds.size()];
+		List<EvaluationTask> tasks = new ArrayList<EvaluationTask>();
+		for(int id = 0 ; id < predictors.size(); id++) {
+			if(predictorFactories.get(id) == null) {
+				tasks.add(new EvaluationTask(id, predictors.get(id), folds, 0, folds.size(), results, logMemory));
+			}
+			else {
+				for(int i = 0; i < folds.size(); i++) {
+					tasks.add(new EvaluationTask(id, null, folds, i, i + 1, results, logMemory));
+				}
+			}
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			for(EvaluationTask task : tasks) {
+				pool.execute(task);
+			}
+			for(EvaluationTask task : tasks) {
+				task.join();
 				
-				//is in testing set
-				if(j >= posStart && j < posEnd) {
-					testSequences.add(toAdd);
+				//keeping the instance trained on the last fold, as with a single thread
+				if(task.endFold == folds.size() && task.predictor != null) {
+					predictors.set(task.predictorId, task.predictor);
 				}
-				else {
-					trainingSequences.add(toAdd);
+			}
+		}finally {
+			pool.shutdown();
+		}
+		
+		for(int id = 0 ; id < predictors.size(); id++) {
+			for(FoldResult result : results[id]) {
+				record(id, result);
+				
+				//Logging memory usage
+				if(logMemory) {
+					MemoryLogger.addUpdate(result.memoryUsage);
 				}
 			}
-			//
-			//End of Partitioning
+		}
+	}
+	
+	/**
+	 * A task training and testing a predictor on some consecutive folds
+	 */
+	private class EvaluationTask extends RecursiveAction {
 		
-			PrepareClassifier(trainingSequences, classifierId); //training (preparing) classifier	
-			StartClassifier(testSequences, classifierId); //classification of the test sequence
-			
-			//Logging memory usage
-			MemoryLogger.addUpdate();
+		private static final long serialVersionUID = 1L;
+		
+		private final int predictorId;
+		private final List<Fold> folds;
+		private final int firstFold;
+		private final int endFold;
+		private final FoldResult[][] results;
+		private final boolean logMemory;
+		
+		//the predictor, or null if a new instance should be created
+		private Predictor predictor;
+		
+		EvaluationTask(int predictorId, Predictor predictor, List<Fold> folds, int firstFold, int endFold, FoldResult[][] results, boolean logMemory) {
+			this.predictorId = predictorId;
+			this.predictor = predictor;
+			this.folds = folds;
+			this.firstFold = firstFold;
+			this.endFold = endFold;
+			this.results = results;
+			this.logMemory = logMemory;
 		}
 		
+		@Override
+		protected void compute() {
+			if(predictor == null) {
+				predictor = predictorFactories.get(predictorId).get();
+			}
+			for(int i = firstFold; i < endFold; i++) {
+				FoldResult result = evaluate(predictor, folds.get(i));
+				
+				//Measuring memory usage, logged with the results of this fold
+				if(logMemory) {
+					result.memoryUsage = MemoryLogger.getUsedMemory();
+				}
+				results[predictorId][i] = result;
+			}
+		}
 	}
 	
 	/**
@@ -327,17 +521,40 @@ public class Evaluator {
 	
 
 	
-	private void PrepareClassifier(List<Sequence> trainingSequences, int classifierId) {
+	/**
+	 * Trains a predictor on the training set of a fold and tests it on the test set
+	 * @return the result for this fold
+	 */
+	private static FoldResult evaluate(Predictor predictor, Fold fold) {
+		FoldResult result = new FoldResult();
+		PrepareClassifier(fold.trainingSequences, predictor, result); //training (preparing) classifier
+		StartClassifier(fold.testSequences, predictor, result); //classification of the test sequence
+		return result;
+	}
+	
+	/**
+	 * Adds the result of a predictor on a fold to the stats
+	 */
+	private void record(int classifierId, FoldResult result) {
+		String tag = predictors.get(classifierId).getTAG();
+		stats.set("Success", tag, stats.get("Success", tag) + result.success);
+		stats.set("Failure", tag, stats.get("Failure", tag) + result.failure);
+		stats.set("No Match", tag, stats.get("No Match", tag) + result.noMatch);
+		stats.set("Too Small", tag, stats.get("Too Small", tag) + result.tooSmall);
+		stats.set("Train Time", tag, result.trainTime);
+		stats.set("Test Time", tag, result.testTime);
+	}
+	
+	private static void PrepareClassifier(List<Sequence> trainingSequences, Predictor predictor, FoldResult result) {
 		long start = System.currentTimeMillis(); //Training starting time
 		
-		predictors.get(classifierId).Train(trainingSequences); //actual training
+		predictor.Train(trainingSequences); //actual training
 		
 		long end = System.currentTimeMillis(); //Training ending time
-		double duration = (double)(end - start) / 1000;
-		stats.set("Train Time", predictors.get(classifierId).getTAG(), duration);
+		result.trainTime = (double)(end - start) / 1000;
 	}
 	
-	private void StartClassifier(List<Sequence> testSequences, int classifierId) {	
+	private static void StartClassifier(List<Sequence> testSequences, Predictor predictor, FoldResult result) {	
 		
 		long start = System.currentTimeMillis(); //Testing starting time
 		
@@ -350,30 +567,29 @@ public class Evaluator {
 				Sequence consequent = target.getLastItems(Profile.paramInt("consequentSize"),0); //the lasts actual items in target
 				Sequence finalTarget = target.getLastItems(Profile.paramInt("windowSize"),Profile.paramInt("consequentSize"));
 				
-				Sequence predicted = predictors.get(classifierId).Predict(finalTarget);
+				Sequence predicted = predictor.Predict(finalTarget);
 				
 				//if no sequence is returned, it means that they is no match for this sequence
 				if(predicted.size() == 0) {
-					stats.inc("No Match", predictors.get(classifierId).getTAG());
+					result.noMatch++;
 				}
 				//evaluates the prediction
 				else if(isGoodPrediction(consequent, predicted)) {
-					stats.inc("Success", predictors.get(classifierId).getTAG());
+					result.success++;
 				}
 				else {
-					stats.inc("Failure", predictors.get(classifierId).getTAG());
+					result.failure++;
 				}
 				
 			}
 			//sequence is too small
 			else {
-				stats.inc("Too Small", predictors.get(classifierId).getTAG());
+				result.tooSmall++;
 			}
 		}
 		
 		long end = System.currentTimeMillis(); //Training ending time
-		double duration = (double)(end - start) / 1000;
-		stats.set("Test Time", predictors.get(classifierId).getTAG(), duration);
+		result.testTime = (double)(end - start) / 1000;
 	}
 
 	private List<Sequence> splitList(List<Sequence> toSplit, double absoluteRatio){
@@ -391,4 +607,30 @@ public class Evaluator {
 		return new ArrayList<Sequence>(database.getDatabase().getSequences().subList(0, database.getDatabase().size()));
 	}
 	
+	/**
+	 * A training set and the corresponding test set
+	 */
+	private static class Fold {
+		final List<Sequence> trainingSequences;
+		final List<Sequence> testSequences;
+		
+		Fold(List<Sequence> trainingSequences, List<Sequence> testSequences) {
+			this.trainingSequences = trainingSequences;
+			this.testSequences = testSequences;
+		}
+	}
+	
+	/**
+	 * The result of a predictor on a fold
+	 */
+	private static class FoldResult {
+		int success;
+		int failure;
+		int noMatch;
+		int tooSmall;
+		double trainTime;
+		double testTime;
+		int memoryUsage; //memory used by the JVM when the fold ended (mb), if logged
+	}
+	
 }
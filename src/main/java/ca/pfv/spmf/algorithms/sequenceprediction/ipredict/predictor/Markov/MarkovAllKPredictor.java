@@ -1,13 +1,17 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Markov;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
 
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Paramable;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotReader;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.SnapshotWriter;
 /*
  * This file is copyright (c) Ted Gueniche 
  * <ted.gueniche@gmail.com>
@@ -58,8 +62,18 @@ public class MarkovAllKPredictor extends Predictor {
 		
 		mDictionary = new HashMap<String, MarkovState>();
 		
-		//for each sequence in the training set
-		for(Sequence seq : trainingSequences) {
+		addSequences(resetWindow(trainingSequences));
+	}
+	
+	@Override
+	protected void addSequences(List<Sequence> newSequences) {
+		
+		if(mDictionary == null) {
+			mDictionary = new HashMap<String, MarkovState>();
+		}
+		
+		//for each new sequence
+		for(Sequence seq : newSequences) {
 			
 			//for each items in this sequence, but the last one
 			List<Item> items = seq.getItems();
@@ -71,13 +85,7 @@ public class MarkovAllKPredictor extends Predictor {
 				//For each order (from 1 to K)
 				for(int c = 1 ; c <= k ; c++) {
 					
-					String key = "";
-					//For each items for this order
-					for(int j = 0 ; j < c; j++) {
-						key += items.get(i + j).val.toString() + "_";
-					}
-					key = key.substring(0, key.length()-1);
-					
+					String key = getKey(items, i, c);
 					
 					//Getting or creating the state associated with this item
 					MarkovState state = mDictionary.get(key);
@@ -96,6 +104,52 @@ public class MarkovAllKPredictor extends Predictor {
 		}
 
 	}
+	
+	@Override
+	protected void removeSequences(List<Sequence> oldSequences) {
+		
+		//for each sequence to remove, the transitions are removed as they were added in addSequences()
+		for(Sequence seq : oldSequences) {
+			
+			List<Item> items = seq.getItems();
+			for(int i = 0 ; i < (items.size() - 1); i++) {
+
+				int k = parameters.paramIntOrDefault("order", K);
+				k = ( (items.size() - i) > k) ? k : (items.size() - i - 1);
+				
+				for(int c = 1 ; c <= k ; c++) {
+					
+					String key = getKey(items, i, c);
+					MarkovState state = mDictionary.get(key);
+					state.removeTransition(items.get(i + c).val);
+					
+					//removing the state if it has no transition anymore
+					if(state.getTransitionCount() == 0) {
+						mDictionary.remove(key);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Build the key of the state of some items of a sequence
+	 * @param items the items of the sequence
+	 * @param start the position of the first item
+	 * @param order the number of items
+	 * @return the key
+	 */
+	private String getKey(List<Item> items, int start, int order) {
+		StringBuilder key = new StringBuilder();
+		//For each items for this order
+		for(int j = 0 ; j < order; j++) {
+			if(j > 0) {
+				key.append('_');
+			}
+			key.append(items.get(start + j).val);
+		}
+		return key.toString();
+	}
 
 	@Override
 	public Sequence Predict(Sequence target) {
@@ -136,6 +190,68 @@ public class MarkovAllKPredictor extends Predictor {
 		return new Sequence(-1);
 	}
 	
+	/**
+	 * Write the key of each state, followed by the transitions of all states as arrays
+	 */
+	@Override
+	protected void writeModel(SnapshotWriter writer) throws IOException {
+		
+		int[] transitionCounts = new int[mDictionary.size()];
+		int transitionCount = 0;
+		writer.writeInt(mDictionary.size());
+		int i = 0;
+		for(Entry<String, MarkovState> entry : mDictionary.entrySet()) {
+			writer.writeString(entry.getKey());
+			transitionCounts[i] = entry.getValue().getTransitions().size();
+			transitionCount += transitionCounts[i];
+			i++;
+		}
+		
+		int[] values = new int[transitionCount];
+		int[] supports = new int[transitionCount];
+		int j = 0;
+		for(MarkovState state : mDictionary.values()) {
+			for(Entry<Integer, Integer> transition : state.getTransitions().entrySet()) {
+				values[j] = transition.getKey();
+				supports[j] = transition.getValue();
+				j++;
+			}
+		}
+		writer.writeIntArray(transitionCounts);
+		writer.writeIntArray(values);
+		writer.writeIntArray(supports);
+	}
+	
+	@Override
+	protected Runnable readModel(SnapshotReader reader) throws IOException {
+		
+		int stateCount = reader.readInt();
+		String[] keys = new String[stateCount];
+		for(int i = 0; i < stateCount; i++) {
+			keys[i] = reader.readString();
+		}
+		int[] transitionCounts = reader.readIntArray();
+		int[] values = reader.readIntArray();
+		int[] supports = reader.readIntArray();
+		
+		//the states and transitions are inserted in the same order as they were saved
+		HashMap<String, MarkovState> dictionary = new HashMap<String, MarkovState>();
+		int j = 0;
+		for(int i = 0; i < stateCount; i++) {
+			MarkovState state = new MarkovState();
+			for(int end = j + transitionCounts[i]; j < end; j++) {
+				state.setTransition(values[j], supports[j]);
+			}
+			dictionary.put(keys[i], state);
+		}
+		return () -> mDictionary = dictionary;
+	}
+	
+	@Override
+	protected String getParameters() {
+		return parameters.toString();
+	}
+	
 	public long size() {
 		
 		long nodeCount = 0;
@@ -61,6 +61,45 @@ class MarkovState {
 	}
 	
 	
+	/**
+	 * Removes one occurrence of a transition from this state
+	 * @param val Value of the next state
+	 */
+	public void removeTransition(Integer val) {
+		
+		Integer support = transitions.get(val);
+		if(support == null) {
+			return;
+		}
+		
+		//removing the transition if this was its last occurrence
+		if(support == 1) {
+			transitions.remove(val);
+			count -= 1;
+		}
+		else {
+			transitions.put(val, support - 1);
+		}
+	}
+	
+	/**
+	 * Returns the transitions of this state and their support
+	 */
+	public HashMap<Integer, Integer> getTransitions() {
+		return transitions;
+	}
+	
+	/**
+	 * Sets the support of a transition from this state (used when a model is loaded)
+	 * @param val Value of the next state
+	 * @param support Support of the transition
+	 */
+	public void setTransition(Integer val, Integer support) {
+		if(transitions.put(val, support) == null) {
+			count += 1;
+		}
+	}
+	
 	public Integer getBestNextState() {
 		Integer highestCount = 0;
 		Integer highestValue = null;
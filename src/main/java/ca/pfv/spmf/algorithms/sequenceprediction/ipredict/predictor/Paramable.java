@@ -1,6 +1,8 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor;
 
 import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.profile.Profile;
 /*
@@ -34,6 +36,22 @@ public class Paramable {
 		}
 	}
 	
+	/**
+	 * Get the parameters that were set, in the format accepted by setParameter(),
+	 * sorted by name so that two Paramable having the same parameters give the same string
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buffer = new StringBuilder();
+		for(Entry<String, String> entry : new TreeMap<String, String>(parameters).entrySet()) {
+			if(buffer.length() > 0) {
+				buffer.append(' ');
+			}
+			buffer.append(entry.getKey()).append(':').append(entry.getValue());
+		}
+		return buffer.toString();
+	}
+	
 	public Double paramDouble(String name) {
 		Object value = parameters.get(name);
 		
@@ -1,6 +1,10 @@
 package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
 import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
 /*
  * This file is copyright (c) Ted Gueniche 
@@ -24,6 +28,27 @@ public abstract class Predictor {
 	 */
 	protected String TAG;
 	
+	/**
+	 * Value at the beginning of a snapshot file ("SPMS"). It differs from the values
+	 * at the beginning of binary pattern files ("SPMP") and binary transaction databases ("SPMB").
+	 */
+	private static final int SNAPSHOT_MAGIC = 0x53504D53;
+	
+	/**
+	 * Version of the snapshot format
+	 */
+	private static final int SNAPSHOT_VERSION = 2;
+	
+	/**
+	 * Maximum number of sequences the predictor is trained on when it is updated (0 = no limit)
+	 */
+	private int windowSize = 0;
+	
+	/**
+	 * Sequences the predictor is trained on, from the oldest to the newest (only kept if there is a window)
+	 */
+	private final ArrayDeque<Sequence> window = new ArrayDeque<Sequence>();
+	
 	protected Predictor(){
 	}
 	
@@ -33,11 +58,213 @@ public abstract class Predictor {
 	}
 	
 	/**
-	 * Trains this predictor with the provided training data
+	 * Trains this predictor with the provided training data.
+	 * If a window size has been set, it is only trained on the last windowSize sequences.
 	 * @return true on success
 	 */
 	public abstract void Train(List<Sequence> trainingSequences);
 	
+	/**
+	 * Updates this predictor with new training sequences, without training it again on the previous ones.
+	 * If a window size has been set, the oldest sequences are then removed from the predictor so that
+	 * it is trained on the last windowSize sequences only.
+	 * @param newSequences the new training sequences
+	 * @throws UnsupportedOperationException if this predictor cannot be updated
+	 */
+	public void Update(List<Sequence> newSequences) {
+		addSequences(newSequences);
+		
+		if(windowSize > 0) {
+			window.addAll(newSequences);
+			if(window.size() > windowSize) {
+				List<Sequence> oldSequences = new ArrayList<Sequence>(window.size() - windowSize);
+				while(window.size() > windowSize) {
+					oldSequences.add(window.poll());
+				}
+				removeSequences(oldSequences);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the maximum number of sequences this predictor is trained on when it is trained or updated.
+	 * It should be set before calling Train(), as the sequences passed to Train() and Update()
+	 * are kept until they are removed from the predictor.
+	 * @param windowSize the number of sequences, or 0 to keep all the sequences (default)
+	 */
+	public void setWindowSize(int windowSize) {
+		if(windowSize < 0) {
+			throw new IllegalArgumentException("The window size cannot be negative");
+		}
+		this.windowSize = windowSize;
+		if(windowSize == 0) {
+			window.clear();
+		}
+	}
+	
+	/**
+	 * Resets the window of sequences, should be called by Train()
+	 * @param trainingSequences the sequences passed to Train()
+	 * @return the sequences the predictor must be trained on, which are the last windowSize sequences if there is a window
+	 */
+	protected List<Sequence> resetWindow(List<Sequence> trainingSequences) {
+		window.clear();
+		if(windowSize > 0 && trainingSequences.size() > windowSize) {
+			trainingSequences = trainingSequences.subList(trainingSequences.size() - windowSize, trainingSequences.size());
+		}
+		if(windowSize > 0) {
+			window.addAll(trainingSequences);
+		}
+		return trainingSequences;
+	}
+	
+	/**
+	 * Adds training sequences to this predictor (used by Update())
+	 * @param newSequences the new sequences
+	 */
+	protected void addSequences(List<Sequence> newSequences) {
+		throw new UnsupportedOperationException(getTAG() + " cannot be updated, it must be trained again");
+	}
+	
+	/**
+	 * Removes the oldest training sequences from this predictor (used by Update() when there is a window)
+	 * @param oldSequences the sequences to remove, which are the oldest sequences in the order in which they were added
+	 */
+	protected void removeSequences(List<Sequence> oldSequences) {
+		throw new UnsupportedOperationException(getTAG() + " cannot forget sequences, it must be trained again");
+	}
+	
+	/**
+	 * Saves the trained model of this predictor in a binary snapshot file,
+	 * so that it can be loaded later instead of training the predictor again.
+	 * The parameters of the predictor are saved with the model, so that the model is only loaded
+	 * by a predictor having the same parameters.
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be written
+	 * @throws UnsupportedOperationException if this predictor cannot be saved
+	 */
+	public void save(String path) throws IOException {
+		SnapshotWriter writer = new SnapshotWriter(path);
+		try {
+			writer.writeInt(SNAPSHOT_MAGIC);
+			writer.writeInt(SNAPSHOT_VERSION);
+			writer.writeString(getClass().getName());
+			writer.writeString(getParameters());
+			writeModel(writer);
+			
+			//the window of sequences, so that the model can still forget them when it is updated
+			int[] ids = new int[window.size()];
+			int[] lengths = new int[window.size()];
+			int itemCount = 0;
+			int i = 0;
+			for(Sequence seq : window) {
+				ids[i] = seq.getId();
+				lengths[i] = seq.size();
+				itemCount += seq.size();
+				i++;
+			}
+			int[] items = new int[itemCount];
+			int j = 0;
+			for(Sequence seq : window) {
+				for(Item item : seq.getItems()) {
+					items[j++] = item.val;
+				}
+			}
+			writer.writeIntArray(ids);
+			writer.writeIntArray(lengths);
+			writer.writeIntArray(items);
+		}finally {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * Loads a model saved by save(), replacing the current model of this predictor.
+	 * The file is memory-mapped. The predictor must have been created with the same parameters
+	 * as the predictor that was saved. The current model is only replaced once the whole file has been read,
+	 * so it is kept if the file cannot be loaded.
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be read, is not a snapshot of this type of predictor
+	 * or was saved by a predictor having other parameters
+	 * @throws UnsupportedOperationException if this predictor cannot be loaded
+	 */
+	public void load(String path) throws IOException {
+		SnapshotReader reader = new SnapshotReader(path);
+		try {
+			if(reader.readInt() != SNAPSHOT_MAGIC) {
+				throw new IOException("The file " + path + " is not a predictor snapshot");
+			}
+			int version = reader.readInt();
+			if(version != SNAPSHOT_VERSION) {
+				throw new IOException("Unsupported version of the snapshot format: " + version);
+			}
+			String className = reader.readString();
+			if(!className.equals(getClass().getName())) {
+				throw new IOException("The file " + path + " is a snapshot of " + className);
+			}
+			String parameters = reader.readString();
+			if(!parameters.equals(getParameters())) {
+				throw new IOException("The snapshot " + path + " was saved by a predictor having the parameters \""
+						+ parameters + "\" instead of \"" + getParameters() + "\"");
+			}
+			Runnable loadedModel = readModel(reader);
+			
+			int[] ids = reader.readIntArray();
+			int[] lengths = reader.readIntArray();
+			int[] items = reader.readIntArray();
+			if(lengths.length != ids.length) {
+				throw new IOException("The snapshot is corrupted");
+			}
+			List<Sequence> loadedWindow = new ArrayList<Sequence>(ids.length);
+			if(windowSize > 0) {
+				int j = 0;
+				for(int i = 0; i < ids.length; i++) {
+					if(lengths[i] < 0 || lengths[i] > items.length - j) {
+						throw new IOException("The snapshot is corrupted");
+					}
+					Sequence seq = new Sequence(ids[i]);
+					for(int end = j + lengths[i]; j < end; j++) {
+						seq.addItem(new Item(items[j]));
+					}
+					loadedWindow.add(seq);
+				}
+			}
+			
+			//the whole file has been read, the current model can be replaced
+			loadedModel.run();
+			window.clear();
+			window.addAll(loadedWindow);
+		}finally {
+			reader.close();
+		}
+	}
+	
+	/**
+	 * Writes the trained model in a snapshot (used by save())
+	 * @param writer the snapshot
+	 */
+	protected void writeModel(SnapshotWriter writer) throws IOException {
+		throw new UnsupportedOperationException(getTAG() + " cannot be saved");
+	}
+	
+	/**
+	 * Reads a model written by writeModel() without changing the current model (used by load())
+	 * @param reader the snapshot
+	 * @return the action that replaces the current model with the model that was read,
+	 * which is run by load() once the whole snapshot has been read
+	 */
+	protected Runnable readModel(SnapshotReader reader) throws IOException {
+		throw new UnsupportedOperationException(getTAG() + " cannot be loaded");
+	}
+	
+	/**
+	 * Get the parameters this predictor was created with, which are saved in a snapshot (used by save() and load())
+	 * @return the parameters in the format of Paramable.toString()
+	 */
+	protected String getParameters() {
+		return "";
+	}
+	
 	/**
 	 * Predict the next element in the given sequence
      */
@@ -0,0 +1,163 @@
+package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+/*
+ * This file is copyright (c) Ted Gueniche 
+ * <ted.gueniche@gmail.com>
+ *
+ * This file is part of the IPredict project
+ * (https://github.com/tedgueniche/IPredict).
+ *
+ * IPredict is distributed under The MIT License (MIT).
+ * You may obtain a copy of the License at
+ * https://opensource.org/licenses/MIT 
+ */
+/**
+ * Reads the snapshot of a trained predictor written by a SnapshotWriter.
+ * The file is memory-mapped and the arrays of values are copied in bulk from the mapped file,
+ * so that a model can be loaded without parsing it value by value.
+ * A file larger than 2 GB is mapped one region at a time, as a mapped buffer is indexed by an int.
+ * @see Predictor#load(String)
+ * @see SnapshotWriter
+ */
+public class SnapshotReader implements Closeable {
+
+	/**
+	 * Maximum size of a mapped region of the file
+	 */
+	private static final long REGION_SIZE = 1L << 30;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long size;
+	
+	/**
+	 * The mapped region of the file, and the position of this region in the file
+	 */
+	private MappedByteBuffer buffer;
+	private long regionStart;
+	
+	/**
+	 * Opens a snapshot file
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	SnapshotReader(String path) throws IOException {
+		file = new RandomAccessFile(path, "r");
+		try {
+			channel = file.getChannel();
+			size = channel.size();
+			map(0);
+		}catch(IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+	
+	public int readInt() throws IOException {
+		checkRemaining(4);
+		ensureMapped(4);
+		return buffer.getInt();
+	}
+	
+	public long readLong() throws IOException {
+		checkRemaining(8);
+		ensureMapped(8);
+		return buffer.getLong();
+	}
+	
+	/**
+	 * Reads an array written by SnapshotWriter.writeIntArray()
+	 */
+	public int[] readIntArray() throws IOException {
+		int length = readLength(4);
+		int[] values = new int[length];
+		for(int offset = 0; offset < length; ) {
+			ensureMapped(4);
+			int count = Math.min(length - offset, buffer.remaining() / 4);
+			buffer.asIntBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + 4 * count);
+			offset += count;
+		}
+		return values;
+	}
+	
+	/**
+	 * Reads an array written by SnapshotWriter.writeLongArray()
+	 */
+	public long[] readLongArray() throws IOException {
+		int length = readLength(8);
+		long[] values = new long[length];
+		for(int offset = 0; offset < length; ) {
+			ensureMapped(8);
+			int count = Math.min(length - offset, buffer.remaining() / 8);
+			buffer.asLongBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + 8 * count);
+			offset += count;
+		}
+		return values;
+	}
+	
+	/**
+	 * Reads a string written by SnapshotWriter.writeString()
+	 */
+	public String readString() throws IOException {
+		int length = readLength(1);
+		byte[] bytes = new byte[length];
+		for(int offset = 0; offset < length; ) {
+			ensureMapped(1);
+			int count = Math.min(length - offset, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			offset += count;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Reads the number of values of an array and checks that the file contains them
+	 * @param valueSize the size of a value in bytes
+	 */
+	private int readLength(int valueSize) throws IOException {
+		int length = readInt();
+		if(length < 0) {
+			throw new IOException("The snapshot is corrupted");
+		}
+		checkRemaining((long) length * valueSize);
+		return length;
+	}
+	
+	private void checkRemaining(long valuesSize) throws IOException {
+		if(size - regionStart - buffer.position() < valuesSize) {
+			throw new IOException("The snapshot is truncated", new BufferUnderflowException());
+		}
+	}
+	
+	/**
+	 * Maps the next region of the file if the current region ends before the next value
+	 * @param valueSize the size of the next value in bytes (the file is known to contain it)
+	 */
+	private void ensureMapped(int valueSize) throws IOException {
+		if(buffer.remaining() < valueSize) {
+			map(regionStart + buffer.position());
+		}
+	}
+	
+	/**
+	 * Maps the region of the file that starts at a position
+	 * @param position the position in the file
+	 */
+	private void map(long position) throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+		regionStart = position;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
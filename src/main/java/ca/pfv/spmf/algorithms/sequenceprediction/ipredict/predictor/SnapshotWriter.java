@@ -0,0 +1,91 @@
+package ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+/*
+ * This file is copyright (c) Ted Gueniche 
+ * <ted.gueniche@gmail.com>
+ *
+ * This file is part of the IPredict project
+ * (https://github.com/tedgueniche/IPredict).
+ *
+ * IPredict is distributed under The MIT License (MIT).
+ * You may obtain a copy of the License at
+ * https://opensource.org/licenses/MIT 
+ */
+/**
+ * Writes the snapshot of a trained predictor in a binary file (big-endian),
+ * which can then be opened with a SnapshotReader.
+ * The structures of a model are written as arrays of primitive values rather than as objects.
+ * @see Predictor#save(String)
+ * @see SnapshotReader
+ */
+public class SnapshotWriter implements Closeable {
+
+	private final DataOutputStream output;
+	
+	/**
+	 * Creates a snapshot file
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be created
+	 */
+	SnapshotWriter(String path) throws IOException {
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+	}
+	
+	public void writeInt(int value) throws IOException {
+		output.writeInt(value);
+	}
+	
+	public void writeLong(long value) throws IOException {
+		output.writeLong(value);
+	}
+	
+	/**
+	 * Writes the first values of an array, preceded by their number
+	 * @param values the array
+	 * @param length the number of values to write
+	 */
+	public void writeIntArray(int[] values, int length) throws IOException {
+		output.writeInt(length);
+		for(int i = 0; i < length; i++) {
+			output.writeInt(values[i]);
+		}
+	}
+	
+	/**
+	 * Writes an array, preceded by its length
+	 */
+	public void writeIntArray(int[] values) throws IOException {
+		writeIntArray(values, values.length);
+	}
+	
+	/**
+	 * Writes the first values of an array, preceded by their number
+	 * @param values the array
+	 * @param length the number of values to write
+	 */
+	public void writeLongArray(long[] values, int length) throws IOException {
+		output.writeInt(length);
+		for(int i = 0; i < length; i++) {
+			output.writeLong(values[i]);
+		}
+	}
+	
+	/**
+	 * Writes a string in UTF-8, preceded by its length in bytes
+	 */
+	public void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -84,6 +84,26 @@ public class TDAGNode {
 		return child;
 	}
 	
+	/**
+	 * Decrement the counts of this node and of one of its children,
+	 * and remove the child if its inCount becomes 0.
+	 * @return Returns the child.
+	 */
+	public TDAGNode removeChild(Integer symbol) {
+		
+		TDAGNode child = children.get(symbol);
+		
+		//decrements this node's outCount and the child inCount
+		outCount--;
+		child.inCount--;
+		
+		if(child.inCount == 0) {
+			children.remove(symbol);
+		}
+		
+		return child;
+	}
+	
 	@Override
 	public String toString() {
 		return symbol + "("+ inCount + "," + outCount +")";
@@ -76,9 +76,21 @@ public class TDAGPredictor extends Predictor {
 		state = new ArrayList<TDAGNode>();
 		mDictionary = new HashMap<List<Integer>, TDAGNode>();
 		
+		addSequences(resetWindow(trainingSequences));
+	}
+	
+	@Override
+	protected void addSequences(List<Sequence> newSequences) {
+		
+		if(root == null) {
+			root = new TDAGNode(0, new ArrayList<Integer>());
+			size = 1;
+			state = new ArrayList<TDAGNode>();
+			mDictionary = new HashMap<List<Integer>, TDAGNode>();
+		}
 		
-		//for each training sequence
-		for(Sequence seq : trainingSequences) {
+		//for each new sequence
+		for(Sequence seq : newSequences) {
 			
 			//resetting the states
 			state.clear();
@@ -116,6 +128,42 @@ public class TDAGPredictor extends Predictor {
 		state.clear();
 
     }
+	
+	@Override
+	protected void removeSequences(List<Sequence> oldSequences) {
+		
+		//for each sequence to remove, the nodes are visited as they were in addSequences()
+		for(Sequence seq : oldSequences) {
+			
+			state.clear();
+			state.add(root);
+			
+			for(Item item : seq.getItems()) {
+				
+				List<TDAGNode> newState = new ArrayList<TDAGNode>();
+				newState.add(root);
+				
+				for(TDAGNode node : state) {
+					
+					if(node.pathFromRoot.size() <= maxTreeHeight) {
+						
+						//Decrement the counts and remove the node if no sequence contains its path anymore
+						TDAGNode child = node.removeChild(item.val);
+						size--;
+						if(child.inCount == 0) {
+							mDictionary.remove(child.pathFromRoot);
+						}
+						
+						newState.add(child);
+					}
+				}
+				
+				state = newState;
+			}
+		}
+		
+		state.clear();
+	}
 
 	@Override
 	public Sequence Predict(Sequence target) {
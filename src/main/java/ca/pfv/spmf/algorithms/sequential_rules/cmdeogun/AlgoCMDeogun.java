@@ -30,6 +30,7 @@ import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the original implementation of the CMDeo algorithm 
@@ -65,6 +66,7 @@ public class AlgoCMDeogun {
 	// statistics
     private long timeStart = 0;  // start time of latest execution
 	private long timeEnd = 0;  // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	private long timeStart11 = 0; // start time for generating rules of size 1*1
 	private long timeEnd11 = 0;  // start time for generating rules of size 1*1
@@ -190,6 +192,7 @@ public class AlgoCMDeogun {
 		
 		// record the end time
 		timeEnd = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the output file
 		writer.close();
@@ -792,6 +795,9 @@ public class AlgoCMDeogun {
 		System.out.println("Sequential rules count: " + ruleCount);
 		System.out.println("Total time : " + (timeEnd - timeStart) + " ms");		
 		System.out.println("Max memory: " + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
@@ -828,4 +834,12 @@ public class AlgoCMDeogun {
 	public void setMaxRightSize(int maxRightSize) {
 		this.maxRightSize = maxRightSize;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
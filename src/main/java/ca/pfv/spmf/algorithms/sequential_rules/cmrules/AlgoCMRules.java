@@ -23,6 +23,7 @@ import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemset;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids.Itemsets;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -65,6 +66,7 @@ public class AlgoCMRules {
 	private int ruleCount;  // the number of sequential rules generated
 	private long timeStart = 0; // start time
 	private long timeEnd = 0; // end time
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private long timeEndConvert = 0;  // end time for conversion to transaction database
 	private long timeEndApriori = 0; // end time for calculating frequent itemsets
 	long timeEndSequentialMeasures = 0; // end time for calculating measures for sequential rules
@@ -233,6 +235,7 @@ public class AlgoCMRules {
 
 		// record end time for rule generation
 		timeEnd = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		/// we don't need the sequence database anymore
 		sequences = null;
@@ -405,6 +408,9 @@ public class AlgoCMRules {
 	 * Print statistics about the latest algorithm execution.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  CMRULES - STATS =============");
 		System.out.println("Association rules count: " + associationRulesCount);
 		System.out.println("Sequential rules count: " + ruleCount);
@@ -726,4 +732,12 @@ public class AlgoCMRules {
 	public void setMaxRightSize(int maxRightSize) {
 		this.maxRightSize = maxRightSize;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
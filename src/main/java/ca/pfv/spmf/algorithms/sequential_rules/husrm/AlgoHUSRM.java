@@ -19,6 +19,8 @@ package ca.pfv.spmf.algorithms.sequential_rules.husrm;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -28,8 +30,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the implementation of the HUSRM algorithm that we have submited at MLDM 2015.
@@ -49,6 +54,8 @@ public class AlgoHUSRM {
     private long timeStart = 0;
 	/** end time of latest execution */
     private long timeEnd = 0;
+	/** the resources used by the latest execution */
+    private RunMetrics runMetrics = null;
 	/**  number of rules generated */
     private int ruleCount;
 
@@ -69,6 +76,16 @@ public class AlgoHUSRM {
 	/* containing the item. */
 	private Map<Integer, ListSequenceIDs> mapItemSequences;
 	
+	/** the number of sequences in the database (used to choose the representation
+	/* of lists of sequence ids) */
+	private int sequenceCount;
+	
+	/** the number of threads used to expand the rules (1 = sequential search) */
+	private int threadCount = 1;
+	
+	/** the maximum number of tasks per thread whose rules are buffered at the same time in parallel mode */
+	private static final int TASKS_IN_FLIGHT_PER_THREAD = 4;
+	
 	/** this variable is used to activate the debug mode.  When this mode is activated
 	/* some additional information about the algorithm will be shown in the console for
 	/* debugging **/
@@ -92,8 +109,8 @@ public class AlgoHUSRM {
 	/** Strategy 2: remove rules contains two items a--> b with a sequence estimated utility < minutil */
 	private boolean deactivateStrategy2 = false; 
 	
-	/** Strategy 3 use bitvectors instead of array list for quickly calculating the support of
-	/*  rule antecedent */
+	/** Strategy 3 use bitvectors or sorted arrays (depending on the density of the lists) instead 
+	/*  of array list for quickly calculating the support of rule antecedent */
 	private boolean deactivateStrategy3 = false;  
 	
 	/** Strategy 4 :  utilize the sum of the utility of lutil, lrutil and rutil
@@ -368,6 +385,7 @@ public class AlgoHUSRM {
 		// We create a map to store for each item, the list of sequences containing the item
 		// Key: an item   Value:  the list of sequences containing the item
 		mapItemSequences = new HashMap<Integer, ListSequenceIDs>();
+		sequenceCount = database.getSequences().size();
 		
 		// For each sequence
 		for (int i=0; i < database.getSequences().size(); i++){
@@ -387,8 +405,9 @@ public class AlgoHUSRM {
 						if(deactivateStrategy3){
 							numerosSequenceItem = new ListSequenceIDsArrayList();
 						}else{
-							// otherwise we use a bitvector implementation, which is more efficient
-							numerosSequenceItem = new ListSequenceIDsBitVector();
+							// otherwise we use a sorted array, which is replaced by a bitvector below
+							// if the item appears in many sequences
+							numerosSequenceItem = new ListSequenceIDsIntArray();
 						}
 						// we add the list in the map for that item
 						mapItemSequences.put(item, numerosSequenceItem);
@@ -399,6 +418,17 @@ public class AlgoHUSRM {
 				}
 			}
 		}
+		
+		// If strategy 3 is used, the lists of items that appear in many sequences are replaced by
+		// bitvectors, which are smaller and faster to intersect in that case
+		if(!deactivateStrategy3){
+			for(Entry<Integer, ListSequenceIDs> entry : mapItemSequences.entrySet()){
+				ListSequenceIDsIntArray list = (ListSequenceIDsIntArray) entry.getValue();
+				if(isDense(list.getSize())){
+					entry.setValue(list.toBitVector());
+				}
+			}
+		}
 
 		// if we are in debug mode
 		if(DEBUG){
@@ -583,281 +613,412 @@ public class AlgoHUSRM {
 			.println("==============================================================================");
 		}
 
-	// For each rule X --> Y
-	for(Entry<Integer, Map<Integer, EstimatedUtilityAndSequences>> entryX : mapItemItemEstimatedUtility.entrySet()){
-		// Get the item X
-		Integer itemX = entryX.getKey();
+		// For each rule X --> Y, we calculate its utility table, save it if it is a high utility
+		// rule and try to expand it
+		if(threadCount > 1){
+			expandRulesInParallel(mapItemItemEstimatedUtility);
+		}else{
+			RuleOutput ruleOutput = new RuleOutput(writer);
+			// For each item X
+			for(Entry<Integer, Map<Integer, EstimatedUtilityAndSequences>> entryX : mapItemItemEstimatedUtility.entrySet()){
+				// For each Y
+				for(Entry<Integer, EstimatedUtilityAndSequences> entryYUtility : entryX.getValue().entrySet()){
+					expandRuleOfSize2(ruleOutput, entryX.getKey(), entryYUtility.getKey(), entryYUtility.getValue());
+				}
+			}
+			ruleCount += ruleOutput.ruleCount;
+		}
+
+		//We will check the current memory usage
+		MemoryLogger.getInstance().checkMemory();
+
+		// save end time
+		timeEnd = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
+
+		// close the file
+		writer.close();
+
+		// after the algorithm ends, we don't need a reference to the database
+		// anymore.
+		database = null;
+	}
+	
+	/**
+	 * Calculate the utility tables of the rules of size 1*1, save them and expand them in parallel.
+	 * Each rule is processed by a separate task of a fork-join pool, which buffers the rules that
+	 * it finds. The buffers are then written in the order of the rules, so that the output is the
+	 * same as for a sequential run. At most TASKS_IN_FLIGHT_PER_THREAD tasks per thread are submitted
+	 * ahead of the rule whose buffer is written, so that only these tasks hold a buffer.
+	 * @param mapItemItemEstimatedUtility the estimated utility and list of sequences ids of each rule a -> b
+	 * @throws IOException if an error occurs while writing to file
+	 */
+	private void expandRulesInParallel(
+			Map<Integer,Map<Integer, EstimatedUtilityAndSequences>> mapItemItemEstimatedUtility) throws IOException {
+		// create a task for each rule X --> Y
+		List<RuleTask> tasks = new ArrayList<RuleTask>();
+		for(Entry<Integer, Map<Integer, EstimatedUtilityAndSequences>> entryX : mapItemItemEstimatedUtility.entrySet()){
+			for(Entry<Integer, EstimatedUtilityAndSequences> entryYUtility : entryX.getValue().entrySet()){
+				tasks.add(new RuleTask(entryX.getKey(), entryYUtility.getKey(), entryYUtility.getValue()));
+			}
+		}
+		
+		int maxTasksInFlight = TASKS_IN_FLIGHT_PER_THREAD * threadCount;
+		// the position of the next task to be submitted
+		int nextTask = 0;
+		
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// save the rules found by each task, in the order of the tasks, as the tasks are finished
+			for(int i = 0; i < tasks.size(); i++) {
+				// submit the next tasks
+				while(nextTask < tasks.size() && nextTask - i < maxTasksInFlight) {
+					pool.execute(tasks.get(nextTask++));
+				}
+				RuleTask task = tasks.get(i);
+				task.join();
+				writer.write(task.buffer.toString());
+				ruleCount += task.ruleCount;
+				// release the memory used by the buffer of the task
+				tasks.set(i, null);
+			}
+		} catch (UncheckedIOException e) {
+			// an error occurred while writing the buffer of one of the tasks
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * A task calculating the utility table of a rule of size 1*1 and expanding it in parallel mode.
+	 */
+	private class RuleTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/** the item in the left side of the rule */
+		private final Integer itemX;
+		/** the item in the right side of the rule */
+		private final Integer itemY;
+		/** the estimated utility and list of sequences ids of the rule */
+		private final EstimatedUtilityAndSequences structure;
+		/** the buffer where the rules are written (created when the task is run) */
+		private StringWriter buffer;
+		/** the number of rules found by the task */
+		private int ruleCount;
+		/** the run of the algorithm, where the memory usage is recorded */
+		private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+		
+		/**
+		 * Constructor
+		 * @param itemX the item in the left side of the rule
+		 * @param itemY the item in the right side of the rule
+		 * @param structure the estimated utility and list of sequences ids of the rule
+		 */
+		RuleTask(Integer itemX, Integer itemY, EstimatedUtilityAndSequences structure) {
+			this.itemX = itemX;
+			this.itemY = itemY;
+			this.structure = structure;
+		}
+		
+		@Override
+		protected void compute() {
+			buffer = new StringWriter();
+			RuleOutput output = new RuleOutput(new BufferedWriter(buffer));
+			// record the memory usage of this thread in the run of the algorithm
+			RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+			try {
+				expandRuleOfSize2(output, itemX, itemY, structure);
+				output.writer.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				MemoryLogger.getInstance().setCurrentRun(previousRun);
+			}
+			ruleCount = output.ruleCount;
+		}
+	}
+	
+	/**
+	 * The writer for the rules found by expanding rules of size 1*1 and the number of rules that
+	 * were written. In parallel mode, each task has its own RuleOutput, and the utility tables
+	 * are created by each task, so that they are not shared by several threads.
+	 */
+	private class RuleOutput {
+		/** the writer to write the rules */
+		final BufferedWriter writer;
+		/** the number of rules found */
+		int ruleCount = 0;
 		
+		/**
+		 * Constructor
+		 * @param writer the writer to write the rules
+		 */
+		RuleOutput(BufferedWriter writer) {
+			this.writer = writer;
+		}
+	}
+
+	/**
+	 * This method calculates the utility table of a rule of size 1*1 (e.g. a -> b), saves the rule
+	 * if it is a high utility rule with enough confidence, and tries to expand it.
+	 * @param output the writer for the rules found by expanding the rule
+	 * @param itemX the item in the left side of the rule
+	 * @param itemY the item in the right side of the rule
+	 * @param structure the estimated utility and the list of sequence ids of the rule
+	 * @throws IOException if an error occurs while writing to file
+	 */
+	private void expandRuleOfSize2(RuleOutput output, Integer itemX, Integer itemY,
+			EstimatedUtilityAndSequences structure) throws IOException {
 		// Get the list of sequence ids containing the item X
 		ListSequenceIDs sequenceIDsX =  mapItemSequences.get(itemX);
 		// Get the support of item X
 		double supportX = sequenceIDsX.getSize();
 		
-		// For each Y
-		for(Entry<Integer, EstimatedUtilityAndSequences> entryYUtility : entryX.getValue().entrySet()){
-			Integer itemY = entryYUtility.getKey();
-			
-			// Get the estimated utility and list of sequences ids for the rule X -> Y
-			EstimatedUtilityAndSequences structure = entryYUtility.getValue();
-			List<Integer> sequencesIDsXY = structure.sequenceIds;
-			
-			// Get the support of the rule X ->Y
-			double supportXY = sequencesIDsXY.size();
-			
-			// We create the utility table of rule X -�> Y
-			UtilityTable table = new UtilityTable();
-			
-			// We will scan each sequence to fill the utility table 
-			// and update the other variable to calculate the confidence of the rule.
-			
-			// for each sequence containing X -> Y
-			for(Integer numeroSequence : sequencesIDsXY){
-				// Get the sequence
-				SequenceWithUtility sequence = database.getSequences().get(numeroSequence);
+		List<Integer> sequencesIDsXY = structure.sequenceIds;
+		
+		// Get the support of the rule X ->Y
+		double supportXY = sequencesIDsXY.size();
+		
+		// We create the utility table of rule X -�> Y
+		UtilityTable table = new UtilityTable();
+		
+		// We will scan each sequence to fill the utility table 
+		// and update the other variable to calculate the confidence of the rule.
+		
+		// for each sequence containing X -> Y
+		for(Integer numeroSequence : sequencesIDsXY){
+			// Get the sequence
+			SequenceWithUtility sequence = database.getSequences().get(numeroSequence);
 
-				// Create a new element in the table
-				ElementOfTable element = new ElementOfTable(numeroSequence);
-				
-				// we reset position alpha and beta
-				int positionAlphaItem =-1;
-				int positionBetaItem =-1;
+			// Create a new element in the table
+			ElementOfTable element = new ElementOfTable(numeroSequence);
+			
+			// we reset position alpha and beta
+			int positionAlphaItem =-1;
+			int positionBetaItem =-1;
 
-				// (1) We will scan the sequence from left to right to find X
-				// and stop at the first position ALPHA where X has been seen completely.
-				// At the same time, we will add the utility of items in X.
-				
-				// For each itemset I 
+			// (1) We will scan the sequence from left to right to find X
+			// and stop at the first position ALPHA where X has been seen completely.
+			// At the same time, we will add the utility of items in X.
+			
+			// For each itemset I 
 	loop1:		for (int i=0; i< sequence.getItemsets().size(); i++) {
-					// get the itemset I
-					List<Integer> itemset = sequence.getItemsets().get(i);
+				// get the itemset I
+				List<Integer> itemset = sequence.getItemsets().get(i);
+				
+				// For each item J
+				for (int j=0; j < itemset.size(); j++) {
+					Integer itemIJ = itemset.get(j);
 					
-					// For each item J
-					for (int j=0; j < itemset.size(); j++) {
-						Integer itemIJ = itemset.get(j);
+					// if we found the item X
+					if(itemX.equals(itemIJ)){
+						// we get its utility
+						double utilityXPositionIJ = sequence.getUtilities().get(i).get(j);
+						// we add it to the exact utility in the current utility table element
+						element.utility += utilityXPositionIJ;
 						
-						// if we found the item X
-						if(itemX.equals(itemIJ)){
-							// we get its utility
-							double utilityXPositionIJ = sequence.getUtilities().get(i).get(j);
-							// we add it to the exact utility in the current utility table element
-							element.utility += utilityXPositionIJ;
-							
-							// Stop and remember that position
-							element.positionAlphaItemset = i;
-							// remember the position ALPHA (which in this case means where the item in 
-							// the right side
-							// of a rule was found)
-							positionAlphaItem = j;
-							
-							// since we found j, we don't need to continue this loop since we assume
-							// that an item do not occur more than once per sequence
-							break loop1;
-						}else if(itemIJ > itemX){
-							// If the item is greater than the item X,
-							// we add the profit of this item to the "lutil" value of its element.
-							double profitXPositionIJ = sequence.getUtilities().get(i).get(j);
-							element.utilityLeft += profitXPositionIJ;
-						}
+						// Stop and remember that position
+						element.positionAlphaItemset = i;
+						// remember the position ALPHA (which in this case means where the item in 
+						// the right side
+						// of a rule was found)
+						positionAlphaItem = j;
+						
+						// since we found j, we don't need to continue this loop since we assume
+						// that an item do not occur more than once per sequence
+						break loop1;
+					}else if(itemIJ > itemX){
+						// If the item is greater than the item X,
+						// we add the profit of this item to the "lutil" value of its element.
+						double profitXPositionIJ = sequence.getUtilities().get(i).get(j);
+						element.utilityLeft += profitXPositionIJ;
 					}
 				}
+			}
 	 			
-				// If X does not appear, we don't do the following steps
-				if(element.positionAlphaItemset == -1){
-					continue;
-				}
+			// If X does not appear, we don't do the following steps
+			if(element.positionAlphaItemset == -1){
+				continue;
+			}
 
-				// (2) Now we will scan the sequence from right to left to find
-				//  Y and stop if we find it. That position where we find it will be called beta.
-				// At the same time as we scan the sequence, we will add the utility of items in Y
-				
-				// for each itemset starting from the last one until itemset alpha+1
+			// (2) Now we will scan the sequence from right to left to find
+			//  Y and stop if we find it. That position where we find it will be called beta.
+			// At the same time as we scan the sequence, we will add the utility of items in Y
+			
+			// for each itemset starting from the last one until itemset alpha+1
 	loop2:	for (int i = sequence.getItemsets().size()-1; 
-					i >  element.positionAlphaItemset ; i--) {
-					// get the current itemset
-					List<Integer> itemset = sequence.getItemsets().get(i);
-
-					// for each item J in that itemset
-					for (int j = itemset.size() -1; j >= 0; j--) {
-						// get the item J
-						Integer itemIJ = itemset.get(j);
-
-						// if that item is Y
-						if(itemY.equals(itemIJ))
-						 {		 
-							// we add Y's profit to the exact utility of the current element
-							double profitYPositionIJ = sequence.getUtilities().get(i).get(j);
-							element.utility += profitYPositionIJ;
-							
-							// we stop and remember that we stopped at the i-th itemset
-							// we will call this position "beta".
-							element.positionBetaItemset = i;
-							positionBetaItem= j;
-
-							break loop2;
-						 }else if(itemIJ > itemY){
-							// If the item is greater than the item Y,
-								// we add the profit of this item to the "rutil" value of its element.
-							double profitXPositionIJ = sequence.getUtilities().get(i).get(j);
-							element.utilityRight += profitXPositionIJ;
-						}
-					}
-				}
-				/// If Y does not appear, we don't do the following steps
-				 if(element.positionBetaItemset == -1){
-					 continue;
-				 } 
-
-				 // (3) THIRD STEP:  WE WILL SCAN THE SEQUENCE BETWEEN THE ALPHA
-				 // AND BETA POSITIONS WHERE WE HAVE STOPPED TO CALCUlATE THE "LRUTIL" VALUE
-				 // FOR X ->Y in that SEQUENCE
-		
-				 // (A) WE SCAN THE ALPHA ITEMSET
-					List<Integer> itemsetAlpha = sequence.getItemsets().get(element.positionAlphaItemset);
-					// FOR EACH ITEM J IN THE ALPHA ITEMSET
-					for (int j = positionAlphaItem+1; j < itemsetAlpha.size(); j++) {
-
-						// we add the utility of the item to the "LUTIL" value of the current element.
-						double profitPositionIJ = sequence.getUtilities().get(element.positionAlphaItemset).get(j);
-						element.utilityLeft += profitPositionIJ;
-					}
+				i >  element.positionAlphaItemset ; i--) {
+				// get the current itemset
+				List<Integer> itemset = sequence.getItemsets().get(i);
 
-				 
-				// (B) Scan the other itemsets after the alpha itemset but before the beta itemset
-				for (int i = element.positionAlphaItemset+1; i < element.positionBetaItemset; i++) {
-						// get the itemset
-						List<Integer> itemset = sequence.getItemsets().get(i);
-
-						// For each item J
-						for (int j=0; j < itemset.size(); j++) {
-							Integer itemIJ = itemset.get(j);
-
-							// if the item is greater than X and Y
-							if( itemIJ > itemX && itemIJ > itemY ){
-								// it means that this item could be used to extend the left or right side
-								// of the rule
-								// We add its utility to "LRUTIL"
-								double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
-								element.utilityLeftRight += utilityPositionIJ;
-							}else if( itemIJ > itemX){
-								// if the item is only greater than X
-								// We add its utility to "RUTIL"
-								double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
-								element.utilityLeft += utilityPositionIJ;
-							}else if( itemIJ > itemY){
-								// if the item is only greater than Y
-								// We add its utility to "RUTIL"
-								double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
-								element.utilityRight += utilityPositionIJ;
-							}
-						}
-				 }
-				
-				// (c) Scan item in the itemset BETA after the item beta (i.e. the item Y)
-				List<Integer> itemset = sequence.getItemsets().get(element.positionBetaItemset);
-				
-				// For each item J after the beta item (i.e. the item Y)
-				for (int j=0; j < positionBetaItem - 1; j++) {
+				// for each item J in that itemset
+				for (int j = itemset.size() -1; j >= 0; j--) {
+					// get the item J
 					Integer itemIJ = itemset.get(j);
 
-					// if the item is greater than Y
-					if( itemIJ > itemY){
-						// We add its utility to "RUTIL"
-						double profitPositionIJ = sequence.getUtilities().get(element.positionBetaItemset).get(j);
-						element.utilityRight += profitPositionIJ;
+					// if that item is Y
+					if(itemY.equals(itemIJ))
+					 {		 
+						// we add Y's profit to the exact utility of the current element
+						double profitYPositionIJ = sequence.getUtilities().get(i).get(j);
+						element.utility += profitYPositionIJ;
+						
+						// we stop and remember that we stopped at the i-th itemset
+						// we will call this position "beta".
+						element.positionBetaItemset = i;
+						positionBetaItem= j;
+
+						break loop2;
+					 }else if(itemIJ > itemY){
+						// If the item is greater than the item Y,
+							// we add the profit of this item to the "rutil" value of its element.
+						double profitXPositionIJ = sequence.getUtilities().get(i).get(j);
+						element.utilityRight += profitXPositionIJ;
 					}
 				}
+			}
+			/// If Y does not appear, we don't do the following steps
+			 if(element.positionBetaItemset == -1){
+				 continue;
+			 } 
+
+			 // (3) THIRD STEP:  WE WILL SCAN THE SEQUENCE BETWEEN THE ALPHA
+			 // AND BETA POSITIONS WHERE WE HAVE STOPPED TO CALCUlATE THE "LRUTIL" VALUE
+			 // FOR X ->Y in that SEQUENCE
+	
+			 // (A) WE SCAN THE ALPHA ITEMSET
+				List<Integer> itemsetAlpha = sequence.getItemsets().get(element.positionAlphaItemset);
+				// FOR EACH ITEM J IN THE ALPHA ITEMSET
+				for (int j = positionAlphaItem+1; j < itemsetAlpha.size(); j++) {
+
+					// we add the utility of the item to the "LUTIL" value of the current element.
+					double profitPositionIJ = sequence.getUtilities().get(element.positionAlphaItemset).get(j);
+					element.utilityLeft += profitPositionIJ;
+				}
 
-				// Finally, we add the element of this sequence to the utility table of X->Y
-				table.addElement(element);
+			 
+			// (B) Scan the other itemsets after the alpha itemset but before the beta itemset
+			for (int i = element.positionAlphaItemset+1; i < element.positionBetaItemset; i++) {
+					// get the itemset
+					List<Integer> itemset = sequence.getItemsets().get(i);
 
-		}
-			
-			// We calculate the confidence of X -> Y
-			double confidence = (supportXY / supportX);
-			
-			double conditionExpandLeft;
-			double conditionExpandRight;
+					// For each item J
+					for (int j=0; j < itemset.size(); j++) {
+						Integer itemIJ = itemset.get(j);
 
-			// if strategy 4 is deactivated
-			// we use a worse upper bound
-			if(deactivateStrategy4){
-				conditionExpandLeft = table.totalUtility + table.totalUtilityLeft + table.totalUtilityLeftRight
-						+ table.totalUtilityRight;
-				 conditionExpandRight = conditionExpandLeft;
-			}else{
-				// otherwise we use a better upper bound
-				conditionExpandLeft = table.totalUtility + table.totalUtilityLeft + table.totalUtilityLeftRight;
-				 conditionExpandRight = table.totalUtility + table.totalUtilityRight + table.totalUtilityLeftRight
-						 + table.totalUtilityLeft;
-			}
+						// if the item is greater than X and Y
+						if( itemIJ > itemX && itemIJ > itemY ){
+							// it means that this item could be used to extend the left or right side
+							// of the rule
+							// We add its utility to "LRUTIL"
+							double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
+							element.utilityLeftRight += utilityPositionIJ;
+						}else if( itemIJ > itemX){
+							// if the item is only greater than X
+							// We add its utility to "RUTIL"
+							double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
+							element.utilityLeft += utilityPositionIJ;
+						}else if( itemIJ > itemY){
+							// if the item is only greater than Y
+							// We add its utility to "RUTIL"
+							double utilityPositionIJ = sequence.getUtilities().get(i).get(j);
+							element.utilityRight += utilityPositionIJ;
+						}
+					}
+			 }
 			
+			// (c) Scan item in the itemset BETA after the item beta (i.e. the item Y)
+			List<Integer> itemset = sequence.getItemsets().get(element.positionBetaItemset);
 			
-			// if in debug mode
-			if(DEBUG){
-				//We will print the rule and its profit and whether it is a high utility rule or not
-				String isInteresting = (table.totalUtility >= minutil) ? " *** HIGH UTILITY RULE! ***" : " ";
-				System.out.println("\n  RULE: " + itemX + " --> " + itemY + "   utility " + table.totalUtility
-						+ " frequence : " + supportXY 
-						+ " confiance : " + confidence + isInteresting);
-				
-				// we will print the utility table of the rule
-				for(ElementOfTable element : table.elements){
-					System.out.println("      SEQ:" + element.numeroSequence + " \t utility: " + element.utility
-							+ " \t lutil: " + element.utilityLeft
-							+ " \t lrutil: " + element.utilityLeftRight + " \t rutil: " + element.utilityRight
-							+ " alpha : " + element.positionAlphaItemset 
-							+ " beta : " + element.positionBetaItemset);
+			// For each item J after the beta item (i.e. the item Y)
+			for (int j=0; j < positionBetaItem - 1; j++) {
+				Integer itemIJ = itemset.get(j);
+
+				// if the item is greater than Y
+				if( itemIJ > itemY){
+					// We add its utility to "RUTIL"
+					double profitPositionIJ = sequence.getUtilities().get(element.positionBetaItemset).get(j);
+					element.utilityRight += profitPositionIJ;
 				}
-	
-				System.out.println("      TOTAL: " + " \t utility: " + table.totalUtility + " \t lutil: " + table.totalUtilityLeft
-						+ " \t lrutil: " + table.totalUtilityLeftRight + " \t rutil: " + table.totalUtilityRight);
-							System.out.println("      Should we explore larger rules by left expansions ? " + (conditionExpandLeft >= minutil)
-						+ " (" + conditionExpandLeft + " )");
-				System.out.println("       Should we explore larger rules by right expansions ? " + (conditionExpandRight >= minutil)
-						+ " (" + conditionExpandRight + " )");
 			}
 
-			// create the rule antecedent and consequence
-			int [] antecedent =  new int[]{itemX};
-			int []  consequent =  new int[]{itemY};
-			
-			// if high utility with ENOUGH  confidence
-			if((table.totalUtility >= minutil) && confidence >= minConfidence){
-				// we output the rule
-				saveRule(antecedent, consequent, table.totalUtility, supportXY, confidence);
-			}
-			
-			// if the right side size is less than the maximum size, we will try to expand the rule
-			if(conditionExpandRight >= minutil && maxConsequentSize > 1)
-			{
-				expandRight(table, antecedent, consequent, sequenceIDsX);
-			}
-			
-			// if the left side size is less than the maximum size, we will try to expand the rule
-			if(conditionExpandLeft >= minutil  && maxAntecedentSize > 1)
-			{
-				expandFirstLeft(table, antecedent, consequent, sequenceIDsX);
-			}
-		}
+			// Finally, we add the element of this sequence to the utility table of X->Y
+			table.addElement(element);
+
 	}
 		
+		// We calculate the confidence of X -> Y
+		double confidence = (supportXY / supportX);
+		
+		double conditionExpandLeft;
+		double conditionExpandRight;
+
+		// if strategy 4 is deactivated
+		// we use a worse upper bound
+		if(deactivateStrategy4){
+			conditionExpandLeft = table.totalUtility + table.totalUtilityLeft + table.totalUtilityLeftRight
+					+ table.totalUtilityRight;
+			 conditionExpandRight = conditionExpandLeft;
+		}else{
+			// otherwise we use a better upper bound
+			conditionExpandLeft = table.totalUtility + table.totalUtilityLeft + table.totalUtilityLeftRight;
+			 conditionExpandRight = table.totalUtility + table.totalUtilityRight + table.totalUtilityLeftRight
+					 + table.totalUtilityLeft;
+		}
+		
+		
+		// if in debug mode
+		if(DEBUG){
+			//We will print the rule and its profit and whether it is a high utility rule or not
+			String isInteresting = (table.totalUtility >= minutil) ? " *** HIGH UTILITY RULE! ***" : " ";
+			System.out.println("\n  RULE: " + itemX + " --> " + itemY + "   utility " + table.totalUtility
+					+ " frequence : " + supportXY 
+					+ " confiance : " + confidence + isInteresting);
+			
+			// we will print the utility table of the rule
+			for(ElementOfTable element : table.elements){
+				System.out.println("      SEQ:" + element.numeroSequence + " \t utility: " + element.utility
+						+ " \t lutil: " + element.utilityLeft
+						+ " \t lrutil: " + element.utilityLeftRight + " \t rutil: " + element.utilityRight
+						+ " alpha : " + element.positionAlphaItemset 
+						+ " beta : " + element.positionBetaItemset);
+			}
+	
+			System.out.println("      TOTAL: " + " \t utility: " + table.totalUtility + " \t lutil: " + table.totalUtilityLeft
+					+ " \t lrutil: " + table.totalUtilityLeftRight + " \t rutil: " + table.totalUtilityRight);
+						System.out.println("      Should we explore larger rules by left expansions ? " + (conditionExpandLeft >= minutil)
+					+ " (" + conditionExpandLeft + " )");
+			System.out.println("       Should we explore larger rules by right expansions ? " + (conditionExpandRight >= minutil)
+					+ " (" + conditionExpandRight + " )");
+		}
 
-		//We will check the current memory usage
-		MemoryLogger.getInstance().checkMemory();
-
-		// save end time
-		timeEnd = System.currentTimeMillis();
-
-		// close the file
-		writer.close();
-
-		// after the algorithm ends, we don't need a reference to the database
-		// anymore.
-		database = null;
+		// create the rule antecedent and consequence
+		int [] antecedent =  new int[]{itemX};
+		int []  consequent =  new int[]{itemY};
+		
+		// if high utility with ENOUGH  confidence
+		if((table.totalUtility >= minutil) && confidence >= minConfidence){
+			// we output the rule
+			saveRule(output, antecedent, consequent, table.totalUtility, supportXY, confidence);
+		}
+		
+		// if the right side size is less than the maximum size, we will try to expand the rule
+		if(conditionExpandRight >= minutil && maxSizeConsequent > 1)
+		{
+			expandRight(output, table, antecedent, consequent, sequenceIDsX);
+		}
+		
+		// if the left side size is less than the maximum size, we will try to expand the rule
+		if(conditionExpandLeft >= minutil  && maxSizeAntecedent > 1)
+		{
+			expandFirstLeft(output, table, antecedent, consequent, sequenceIDsX);
+		}
 	}
 
 	/**
 	 * This method save a rule to the output file
+	 * @param output the writer for the rule
 	 * @param antecedent the left side of the rule
 	 * @param consequent the right side of the rule
 	 * @param utility the rule utility
@@ -865,11 +1026,11 @@ public class AlgoHUSRM {
 	 * @param confidence the rule confidence
 	 * @throws IOException if an error occurs when writing to file
 	 */
-	private void saveRule(int[] antecedent, int[] consequent,
+	private void saveRule(RuleOutput output, int[] antecedent, int[] consequent,
 			double utility, double support, double confidence) throws IOException {
 
 		// increase the number of rule found
-		ruleCount++;
+		output.ruleCount++;
 
 		// create a string buffer
 		StringBuilder buffer = new StringBuilder();
@@ -900,8 +1061,8 @@ public class AlgoHUSRM {
 		buffer.append(confidence);
 		buffer.append("\t#UTIL: ");
 		buffer.append(utility);
-		writer.write(buffer.toString());
-		writer.newLine();
+		output.writer.write(buffer.toString());
+		output.writer.newLine();
 		
 		//if we are in debug mode, we will automatically check that the utility, confidence and support
 		// are correct to ensure that there is no bug.
@@ -1038,13 +1199,14 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 
 	/**
 	 * This method is used to create new rule(s) by adding items to the right side of a rule
+	 * @param output the writer for the rules found
 	 * @param table the utility-table of the rule
 	 * @param antecedent the rule antecedent
 	 * @param consequent the rule consequent
 	 * @param sequenceIdsAntecedent the list of ids of sequences containing the left side of the rule
 	 * @throws IOException if an error occurs while writing to file
 	 */
-	private void expandRight(UtilityTable table, int[] antecedent,
+	private void expandRight(RuleOutput output, UtilityTable table, int[] antecedent,
 			int[] consequent, ListSequenceIDs sequenceIdsAntecedent) throws IOException {
 		
 		// We first find the largest item in the left side and right side of the rule
@@ -1405,7 +1567,7 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 			// If the rule is high utility and high confidence
 			if(isHighUtility && confidence >= minConfidence){
 				// We save the rule to file
-				saveRule(antecedent, newConsequent, utilityTable.totalUtility, utilityTable.elements.size() , confidence);
+				saveRule(output, antecedent, newConsequent, utilityTable.totalUtility, utilityTable.elements.size() , confidence);
 				
 				// If we are in debugging mode, we will show the rule in the console
 				if(DEBUG){
@@ -1444,12 +1606,12 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 
 			// If we should try to expand the left side of this rule
 			if(shouldExpandLeftSide){
-				expandFirstLeft(utilityTable, antecedent, newConsequent, sequenceIdsAntecedent);
+				expandFirstLeft(output, utilityTable, antecedent, newConsequent, sequenceIdsAntecedent);
 			}
 			
 			// If we should try to expand the right side of this rule
 			if(shouldExpandRightSide){
-				expandRight(utilityTable, antecedent, newConsequent, sequenceIdsAntecedent);
+				expandRight(output, utilityTable, antecedent, newConsequent, sequenceIdsAntecedent);
 			}
 		}
 		
@@ -1461,13 +1623,14 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 	 * This method will recursively try to append items to the left side of a rule to generate
 	 * rules containing one more item on the left side.  This method is only called for rules
 	 * of size 1*1, thus containing two items (e.g. a -> b)
+	 * @param output the writer for the rules found
 	 * @param utilityTable the rule utility table
 	 * @param antecedent the rule antecedent
 	 * @param consequent the rule consequent
 	 * @param sequenceIDsConsequent the list of sequences ids of sequences containing the rule antecedent
 	 * @throws IOException if error while writting to file
 	 */
-	private void expandFirstLeft(UtilityTable utilityTable, int[] antecedent,
+	private void expandFirstLeft(RuleOutput output, UtilityTable utilityTable, int[] antecedent,
 		int[] consequent, ListSequenceIDs sequenceIDsConsequent) throws IOException {
 
 		// We first find the largest item in the left side aof the rule
@@ -1627,7 +1790,7 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 				nouvelAntecedent[antecedent.length] = item;
 
 				// We save the rule to file
-				saveRule(nouvelAntecedent, consequent, tableItem.utility, tableItem.elements.size(), confidence);
+				saveRule(output, nouvelAntecedent, consequent, tableItem.utility, tableItem.elements.size(), confidence);
 
 				// If we are in debugging mode, we will show the rule in the console
 				if(DEBUG){
@@ -1677,7 +1840,7 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 				}
 				
 				// we recursively try to expand this rule
-				expandSecondLeft(tableItem, newAntecedent, consequent, sequenceIdentifiersNewAntecedent, tableBeta);
+				expandSecondLeft(output, tableItem, newAntecedent, consequent, sequenceIdentifiersNewAntecedent, tableBeta);
 	
 			}
 		}
@@ -1691,13 +1854,14 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 	 * containing at least 2 items on their left side already. For rules having 1 item on their left side
 	 * another method is used instead.
 	 * 
+	 * @param output the writer for the rules found
 	 * @param utilityTable the rule utility table
 	 * @param antecedent the rule antecedent
 	 * @param consequent the rule consequent
 	 * @param sequenceIDsConsequent the list of sequences ids of sequences containing the rule antecedent
 	 * @throws IOException if error while writting to file
 	 */
-	private void expandSecondLeft(
+	private void expandSecondLeft(RuleOutput output,
 			UtilityTableLeft utilityTable,
 			int[] antecedent, int[] consequent,
 			ListSequenceIDs sequenceIDsConsequent,
@@ -1841,7 +2005,7 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 				newAntecedent[antecedent.length] = item;
 
 				// We save the rule to file
-				saveRule(newAntecedent, consequent, tableItem.utility, tableItem.elements.size() , confidence);
+				saveRule(output, newAntecedent, consequent, tableItem.utility, tableItem.elements.size() , confidence);
 
 				// If we are in debugging mode, we will show the rule in the console
 				if(DEBUG){
@@ -1880,7 +2044,7 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 				nouvelAntecedent[antecedent.length] = item;
 	
 				// we recursively call this method
-				expandSecondLeft(tableItem, nouvelAntecedent, consequent, sequenceIdentifiersNewAntecedent, tableBeta);
+				expandSecondLeft(output, tableItem, nouvelAntecedent, consequent, sequenceIdentifiersNewAntecedent, tableBeta);
 			}
 		}
 		// We check the memory usage
@@ -1888,6 +2052,30 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 	}
 
 
+	/**
+	 * Set the number of threads to be used for expanding the rules.
+	 * If it is greater than 1, the rules of size 1*1 are expanded in parallel.
+	 * The rules found and their order are the same as for a sequential run.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	/**
+	 * Check if a list of sequence ids is dense enough to be stored in a bitvector rather than
+	 * in a sorted array (a bitvector uses 1 bit per sequence of the database while an array
+	 * uses 32 bits per sequence id).
+	 * @param size the number of sequence ids
+	 * @return true if a bitvector should be used
+	 */
+	private boolean isDense(int size) {
+		return size * 32L >= sequenceCount;
+	}
+
 	/**
 	 * Print statistics about the last algorithm execution to System.out.
 	 */
@@ -1898,10 +2086,24 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 		System.out.println("\tminutil: " + minutil);
 		System.out.println("\tSequential rules count: " + ruleCount);
 		System.out.println("\tTotal time : " + (timeEnd - timeStart) + " ms");
+		if(threadCount > 1) {
+			System.out.println("\tThread count : " + threadCount);
+		}
 		System.out.println("\tMax memory (mb) : "
 				+ MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("==============================================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 	
 	//============================================================================================================================
 	// =========================================== CLASSES FOR STORING LISTS OF SEQUENCE IDs===================
@@ -1975,6 +2177,10 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 		 * @return the intersection of this list and the other list.
 		 */
 		public ListSequenceIDs intersection(ListSequenceIDs vector2){
+			// if the other list is a sorted array, it is faster to check the ids of that list
+			if(vector2 instanceof ListSequenceIDsIntArray){
+				return vector2.intersection(this);
+			}
 			//  we get the first vector
 			ListSequenceIDsBitVector bitVector2 = (ListSequenceIDsBitVector) vector2;
 			
@@ -1984,6 +2190,15 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 			result.bitset = (BitSet) bitset.clone();
 			// we intersect both bit vector
 			result.bitset.and(bitVector2.bitset);
+			// if the result contains few sequence ids, we convert it to a sorted array,
+			// which is smaller and will be faster to intersect with other lists
+			if(!isDense(result.getSize())){
+				ListSequenceIDsIntArray array = new ListSequenceIDsIntArray(result.getSize());
+				for(int id = result.bitset.nextSetBit(0); id >= 0; id = result.bitset.nextSetBit(id + 1)){
+					array.addSequenceID(id);
+				}
+				return array;
+			}
 			// Return the result
 			return result;
 		}
@@ -1997,6 +2212,148 @@ loop1:	for(; i < sequence.getItemsets().size(); i++){
 		}
 	}
 	
+	//==================================
+	/**
+	 * This class represents a list of sequences ids implemented by a sorted array of int.
+	 * It is used for the lists containing few sequence ids, and intersected using a
+	 * galloping search (an exponential search followed by a binary search) in the larger list.
+	 * @author Souleymane Zida, Philippe Fournier-Viger
+	 */
+	public class ListSequenceIDsIntArray implements ListSequenceIDs{
+		// the sequence ids, in increasing order
+		private int[] array;
+		// the number of sequence ids
+		private int size = 0;
+		
+		/**
+		 * Constructor
+		 */
+		public ListSequenceIDsIntArray(){
+			this(4);
+		}
+		
+		/**
+		 * Constructor
+		 * @param capacity the initial capacity of the array
+		 */
+		public ListSequenceIDsIntArray(int capacity){
+			array = new int[Math.max(capacity, 1)];
+		}
+		
+		/**
+		 * This method adds a sequence id to this list. The sequence ids must be added in
+		 * increasing order. If the sequence id is the last one of the list, it is not added again.
+		 * @param noSequence the sequence id
+		 */
+		public void addSequenceID(int noSequence){
+			// if the sequence id was just added
+			if(size > 0 && array[size - 1] == noSequence){
+				return;
+			}
+			// if the array is full, we make it larger
+			if(size == array.length){
+				array = Arrays.copyOf(array, size + (size >> 1) + 1);
+			}
+			array[size++] = noSequence;
+		}
+
+		/**
+		 * Get the number of sequence ids
+		 * @return the number of sequence ids
+		 */
+		public int getSize(){
+			return size;
+		}
+		
+		/**
+		 *  Method to intersect two lists of sequences ids
+		 * @return the intersection of this list and the other list.
+		 */
+		public ListSequenceIDs intersection(ListSequenceIDs list2){
+			// if the other list is a bitvector, we check the bit of each sequence id of this list
+			if(list2 instanceof ListSequenceIDsBitVector){
+				BitSet bitset = ((ListSequenceIDsBitVector) list2).bitset;
+				ListSequenceIDsIntArray result = new ListSequenceIDsIntArray(size);
+				for(int i = 0; i < size; i++){
+					if(bitset.get(array[i])){
+						result.array[result.size++] = array[i];
+					}
+				}
+				return result;
+			}
+			
+			// otherwise, we search each sequence id of the smallest list in the largest list
+			ListSequenceIDsIntArray small = this;
+			ListSequenceIDsIntArray large = (ListSequenceIDsIntArray) list2;
+			if(small.size > large.size){
+				small = large;
+				large = this;
+			}
+			ListSequenceIDsIntArray result = new ListSequenceIDsIntArray(small.size);
+			// the position in the largest list where the search starts
+			int position = 0;
+			for(int i = 0; i < small.size && position < large.size; i++){
+				int noSequence = small.array[i];
+				position = gallop(large.array, position, large.size, noSequence);
+				if(position < large.size && large.array[position] == noSequence){
+					result.array[result.size++] = noSequence;
+					position++;
+				}
+			}
+			return result;
+		}
+		
+		/**
+		 * Find the first position of an array where the value is not smaller than a given value,
+		 * by searching from a position with steps of increasing size and then with a binary search.
+		 * @param array a sorted array
+		 * @param from the position where the search starts
+		 * @param to the position after the last position of the array to search
+		 * @param value the value
+		 * @return the position, or "to" if all the values are smaller
+		 */
+		private int gallop(int[] array, int from, int to, int value){
+			// find a range [low, high) of positions containing the position
+			int low = from;
+			int step = 1;
+			while(from + step < to && array[from + step] < value){
+				low = from + step + 1;
+				step <<= 1;
+			}
+			int high = Math.min(from + step, to);
+			// binary search in that range
+			while(low < high){
+				int middle = (low + high) >>> 1;
+				if(array[middle] < value){
+					low = middle + 1;
+				}else{
+					high = middle;
+				}
+			}
+			return low;
+		}
+		
+		/**
+		 * Convert this list to a list implemented by a bitvector
+		 * @return the bitvector
+		 */
+		public ListSequenceIDsBitVector toBitVector(){
+			ListSequenceIDsBitVector result = new ListSequenceIDsBitVector();
+			for(int i = 0; i < size; i++){
+				result.addSequenceID(array[i]);
+			}
+			return result;
+		}
+		
+		/**
+		 * Get a string representation of this list
+		 * @return a string
+		 */
+		public String toString() {
+			return Arrays.toString(Arrays.copyOf(array, size));
+		}
+	}
+	
 	//==================================
 	/**
 	 * This class represents a list of sequences ids implemented by an array list
@@ -20,6 +20,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.AlgoPrefixSpan;
 import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.SequentialPattern;
 import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.SequentialPatterns;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -49,6 +50,7 @@ public class AlgoRuleGen {
 	
 	// end time of the latest execution
 	private long endTime;   
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	private int patternCount; // the numer of rules found
 	
@@ -74,6 +76,7 @@ public class AlgoRuleGen {
 		writer = new BufferedWriter(new FileWriter(output)); 
 		// record the start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 				
 		// STEP 1: Apply the PrefixSpan algorithm to generate frequent sequential patterns
@@ -107,6 +110,7 @@ public class AlgoRuleGen {
 		MemoryLogger.getInstance().checkMemory();
 		// record the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file
 		writer.close();	
 	}
@@ -215,7 +219,18 @@ public class AlgoRuleGen {
 		System.out.println("Sequential rules count: " + patternCount);
 		System.out.println("Total time : " + (endTime - startTime) + " ms");		
 		System.out.println("Max memory: " + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out
 				.println("===================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
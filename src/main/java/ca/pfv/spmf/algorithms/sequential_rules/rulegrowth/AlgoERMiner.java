@@ -18,6 +18,7 @@ package ca.pfv.spmf.algorithms.sequential_rules.rulegrowth;
 import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -40,6 +41,7 @@ public class AlgoERMiner {
 	//*** for statistics ***/
     private long timeStart = 0;  // start time of latest execution
 	private long timeEnd = 0;  // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int ruleCount; // number of rules generated
 	
 	//*** parameters ***/
@@ -274,6 +276,7 @@ public class AlgoERMiner {
 		
 		// save end time
 		timeEnd = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the file
 		writer.close();
@@ -761,7 +764,17 @@ public class AlgoERMiner {
 		System.out.println("Total time: " + (timeEnd - timeStart) + " ms");
 		System.out.println("Candidates pruned (%)" + candidatePrunedCount + " of " + totalCandidateCount);
 		System.out.println("Max memory: " + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("==========================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -31,6 +31,7 @@ import ca.pfv.spmf.datastructures.redblacktree.RedBlackTree;
 import ca.pfv.spmf.input.sequence_database_array_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_array_integers.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the original implementation of the TNS algorithm for mining Top-K non redundant sequential rules.
@@ -51,6 +52,7 @@ public class AlgoTNS {
 	// last execution start time and end time for stats
 	private long timeStart = 0; // start time of latest execution
 	private long timeEnd = 0; // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// parameters
 	private double minConfidence;   // minimum confidence
@@ -130,6 +132,7 @@ public class AlgoTNS {
 		// start the algorithm
 		start();
 		timeEnd = System.currentTimeMillis(); // save end time
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// if too many rules, we remove the extra rules.
 		cleanResult();
@@ -789,6 +792,9 @@ itemLoop:	for(int k=0; k < end; k++){
 	 * Print statistics about the last algorithm execution to System.out.
 	 */
 	public void printStats() {
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=============  TNS - STATS ========");
 		System.out.println("Minsup : " + minsuppRelative);
 		System.out.println("Rules count: " + kRules.size());
@@ -808,4 +814,12 @@ itemLoop:	for(int k=0; k < end; k++){
 	public double getTotalTime(){
 		return timeEnd - timeStart;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -31,6 +31,7 @@ import ca.pfv.spmf.datastructures.redblacktree.RedBlackTree;
 import ca.pfv.spmf.input.sequence_database_array_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_array_integers.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /** 
  * This is the original implementation of the TopSeqRule algorithm for mining Top-K sequential rules.
@@ -52,6 +53,7 @@ public class AlgoTopSeqRules {
 
 	private long timeStart = 0; // start time of latest execution
 	private long timeEnd = 0; // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// parameters
 	private double minConfidence;  // minimum confidence
@@ -119,6 +121,7 @@ public class AlgoTopSeqRules {
 		
 		// record end time
 		timeEnd = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the top-rules
 		return kRules;
@@ -659,6 +662,9 @@ itemLoop:	for(int k=0; k < end; k++){
 		System.out.println("Total time: " + (((double)(timeEnd - timeStart))/1000d) + " s");
 		System.out.println("Max memory: " + MemoryLogger.getInstance().getMaxMemory());
 		System.out.println("Minsup relative: " + minsuppRelative);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("==========================================");
 	}
 
@@ -697,4 +703,11 @@ itemLoop:	for(int k=0; k < end; k++){
 		writer.close();
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
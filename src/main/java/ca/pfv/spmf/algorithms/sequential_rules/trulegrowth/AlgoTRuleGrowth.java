@@ -4,6 +4,7 @@ import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -32,6 +33,7 @@ public class AlgoTRuleGrowth {
 	// *** for statistics ***
     private long timeStart = 0; // start time of latest execution
 	private long timeEnd = 0;  // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	
 	//*** internal variables ***/
@@ -286,6 +288,7 @@ public class AlgoTRuleGrowth {
 		}
 		// save the end time for the execution of the algorithm
 		timeEnd = System.currentTimeMillis(); // for stats
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the file
 		writer.close();
@@ -949,6 +952,9 @@ public class AlgoTRuleGrowth {
 		System.out.println("Sequential rules count: " + ruleCount);
 		System.out.println("Total time : " + (timeEnd - timeStart) + " ms");
 		System.out.println("Max memory (mb)" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -959,4 +965,12 @@ public class AlgoTRuleGrowth {
 	public double getTotalTime(){
 		return timeEnd - timeStart;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
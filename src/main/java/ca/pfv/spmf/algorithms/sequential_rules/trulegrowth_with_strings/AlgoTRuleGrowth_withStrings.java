@@ -21,6 +21,7 @@ import ca.pfv.spmf.algorithms.sequential_rules.trulegrowth.Occurence;
 import ca.pfv.spmf.input.sequence_database_list_strings.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_strings.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -53,6 +54,7 @@ public class AlgoTRuleGrowth_withStrings {
 	// statistics
     private long timeStart = 0;  // start time of latest execution
 	private long timeEnd = 0;    // end time of latest execution
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// A map to record the occurences of each item in each sequence
 	// KEY: an item
@@ -281,6 +283,7 @@ public class AlgoTRuleGrowth_withStrings {
 		}
 		// save the end time for the execution of the algorithm
 		timeEnd = System.currentTimeMillis(); // for stats
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the file
 		writer.close();
@@ -919,6 +922,9 @@ public class AlgoTRuleGrowth_withStrings {
 		System.out.println("Sequential rules count: " + ruleCount);
 		System.out.println("Total time : " + (timeEnd - timeStart) + " ms");
 		System.out.println("Max memory (mb)" + MemoryLogger.getInstance().getMaxMemory());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================");
 	}
 
@@ -929,4 +935,12 @@ public class AlgoTRuleGrowth_withStrings {
 	public double getTotalTime(){
 		return timeEnd - timeStart;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -4,6 +4,7 @@ import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -40,6 +41,7 @@ public class AlgoFEAT{
 	// for statistics
     private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	// relative minimum support
     private int minsuppRelative;
@@ -92,6 +94,8 @@ private boolean performPruning = true;
     		System.out.println("minsup = " + minsuppRelative);
     	}
     	
+		// reset the utility for recording memory usage
+		MemoryLogger.getInstance().reset();
 		// record start time
 		startTime = System.currentTimeMillis();
 		
@@ -100,6 +104,7 @@ private boolean performPruning = true;
 
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// ################################## FOR DEBUGGGING #############################
         // ########  THIS CODE CHECK IF A PATTERN FOUND IS NOT A GENERATOR ##############
@@ -158,6 +163,7 @@ private boolean performPruning = true;
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		return generators;
 	}
@@ -909,6 +915,9 @@ loop:	for(int j = 1; j < prefixTotalSize; j++) {
 		r.append(" Prefix pruned count: " + prefixPrunedCount);
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		// print the result
 //		if(DEBUG_MODE) {
@@ -997,4 +1006,11 @@ loop:	for(int j = 1; j < prefixTotalSize; j++) {
 		writer.close();
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -4,6 +4,7 @@ import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -40,6 +41,7 @@ public class AlgoFSGP{
 	// for statistics
     private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 
 	
 	// relative minimum support
@@ -90,6 +92,8 @@ public class AlgoFSGP{
 		if(this.minsuppRelative == 0){ // protection
 			this.minsuppRelative = 1;
 		}
+		// reset the utility for recording memory usage
+		MemoryLogger.getInstance().reset();
 		// record start time
 		startTime = System.currentTimeMillis();
 		
@@ -101,6 +105,7 @@ public class AlgoFSGP{
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// ################################## FOR DEBUGGGING #############################
         // ########  THIS CODE CHECK IF A PATTERN FOUND IS NOT A GENERATOR ##############
@@ -164,6 +169,7 @@ public class AlgoFSGP{
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		return generators;
 	}
@@ -743,6 +749,9 @@ loop: for(SequentialPattern pattern2 : patterns.levels.get(i-1)) {
 		r.append(" Prefix pruned count: " + prefixPrunedCount);
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		// print the result
 //		int patternCount = 0;
@@ -830,4 +839,11 @@ loop: for(SequentialPattern pattern2 : patterns.levels.get(i-1)) {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
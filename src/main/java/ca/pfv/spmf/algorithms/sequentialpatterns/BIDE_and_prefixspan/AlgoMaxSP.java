@@ -15,6 +15,7 @@ import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /**
@@ -50,6 +51,7 @@ public class AlgoMaxSP {
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// the number of patterns found
 	private int patternCount = 0;
@@ -105,6 +107,7 @@ public class AlgoMaxSP {
 		maxSP(database, outputPath);
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// close the output file if the result was saved to a file
 		if(writer != null){
@@ -803,6 +806,9 @@ public class AlgoMaxSP {
 		r.append(" Max memory (mb):");
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 //		System.out.println("Frequent pairs time : " + debugFrequentPairsTime);
@@ -820,5 +826,11 @@ public class AlgoMaxSP {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
 
-
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
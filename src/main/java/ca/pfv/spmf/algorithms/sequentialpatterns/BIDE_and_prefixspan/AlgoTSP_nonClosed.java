@@ -5,6 +5,7 @@ import ca.pfv.spmf.input.sequence_database_list_integers.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_integers.SequenceDatabase;
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -47,6 +48,7 @@ public class AlgoTSP_nonClosed{
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// absolute minimum support
 	private int minsupAbsolute;
@@ -97,6 +99,7 @@ public class AlgoTSP_nonClosed{
 		
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		// return the top k patterns
 		return kPatterns;
@@ -532,6 +535,9 @@ public class AlgoTSP_nonClosed{
 		r.append('\n');
 		r.append("Final minsup value: " + minsupAbsolute);
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
@@ -585,4 +591,12 @@ public class AlgoTSP_nonClosed{
 	public void setShowSequenceIdentifiers(boolean showSequenceIdentifiers) {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -30,6 +30,7 @@ import java.util.Set;
 import ca.pfv.spmf.input.sequence_database_list_strings.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_strings.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /*** 
  * This is an implementation of the BIDE+ algorithm that is optimized to take
@@ -59,6 +60,7 @@ public class AlgoBIDEPlus_withStrings {
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// the number of patterns found
 	private int patternCount = 0;
@@ -100,6 +102,7 @@ public class AlgoBIDEPlus_withStrings {
 		bide(database);
 		// save end time for stats
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file
 		writer.close();
 	}
@@ -597,7 +600,18 @@ public class AlgoBIDEPlus_withStrings {
 		r.append(" Max memory (mb):");
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
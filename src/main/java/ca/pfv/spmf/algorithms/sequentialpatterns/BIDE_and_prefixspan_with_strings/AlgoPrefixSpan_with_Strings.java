@@ -19,6 +19,7 @@ package ca.pfv.spmf.algorithms.sequentialpatterns.BIDE_and_prefixspan_with_strin
 import ca.pfv.spmf.input.sequence_database_list_strings.Sequence;
 import ca.pfv.spmf.input.sequence_database_list_strings.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -54,6 +55,7 @@ public class AlgoPrefixSpan_with_Strings{
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// the number of pattern found
 	private int patternCount;
@@ -97,6 +99,7 @@ public class AlgoPrefixSpan_with_Strings{
 		prefixSpan(database, outputFilePath);
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the output file if the result was saved to a file
 		if(writer != null){
@@ -406,8 +409,18 @@ public class AlgoPrefixSpan_with_Strings{
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append(patternCount);
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
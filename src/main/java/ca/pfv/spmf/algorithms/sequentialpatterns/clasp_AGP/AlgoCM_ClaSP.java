@@ -20,6 +20,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.tries.Trie;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the ClaSP algorithm. ClaSP was proposed by A.
@@ -65,6 +66,7 @@ public class AlgoCM_ClaSP {
      */
     private long overallStart;
     private long overallEnd;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * Start and End points in order to calculate the time taken by the main
      * part of CloSpan algorithm
@@ -149,6 +151,7 @@ public class AlgoCM_ClaSP {
         claSP(database, (long) minSupAbsolute, keepPatterns, verbose, findClosedPatterns, executePruningMethods);
         //keeping the ending time
         overallEnd = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -368,6 +371,9 @@ numberOfFrequentClosedPatterns = frequentPatternEnumeration.getFrequentClosedPat
         r.append(MemoryLogger.getInstance().getMaxMemory());
         r.append('\n');
         r.append(saver.print());
+        if (runMetrics != null) {
+            r.append(runMetrics);
+        }
         r.append("\n===================================================\n");
         return r.toString();
     }
@@ -406,4 +412,11 @@ numberOfFrequentClosedPatterns = frequentPatternEnumeration.getFrequentClosedPat
 		return FrequentAtomsTrie;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
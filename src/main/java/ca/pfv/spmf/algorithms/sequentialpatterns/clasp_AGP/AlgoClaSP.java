@@ -12,6 +12,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clasp_AGP.tries.Trie;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the ClaSP algorithm. ClaSP was proposed by A.
@@ -57,6 +58,7 @@ public class AlgoClaSP {
      */
     private long overallStart;
     private long overallEnd;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * Start and End points in order to calculate the time taken by the main
      * part of CloSpan algorithm
@@ -144,6 +146,7 @@ public class AlgoClaSP {
         claSP(database, (long) minSupAbsolute, keepPatterns, verbose, findClosedPatterns, executePruningMethods);
         //keeping the ending time
         overallEnd = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
 //        
@@ -232,6 +235,9 @@ public class AlgoClaSP {
 	r.append(MemoryLogger.getInstance().getMaxMemory());
         r.append('\n');
 //        r.append(saver.print());
+        if (runMetrics != null) {
+            r.append(runMetrics);
+        }
         r.append("===================================================");
         return r.toString();
     }
@@ -269,4 +275,11 @@ public int getNumberOfFrequentClosedPatterns() {
 		return frequentAtomsTrie;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
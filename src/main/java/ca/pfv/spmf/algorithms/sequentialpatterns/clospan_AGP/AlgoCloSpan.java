@@ -33,6 +33,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.clospan_AGP.savers.Saver;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clospan_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.clospan_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the CloSpan algorithm. CloSpan was proposed by
@@ -67,6 +68,7 @@ public class AlgoCloSpan {
      */
     private long overallStart;
     private long overallEnd;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * Start and End points in order to calculate the time taken by the main 
      * part of CloSpan algorithm
@@ -142,6 +144,7 @@ public class AlgoCloSpan {
         cloSpan(database, keepPatterns, verbose, findClosedPatterns, executePruningMethods, outputFilePath, outputSequenceIdentifiers);
         //keeping the ending time
         overallEnd = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -252,6 +255,9 @@ public class AlgoCloSpan {
         sb.append('\n');
         sb.append(saver.print());
         sb.append('\n');
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append("\n===================================================\n");
         return sb.toString();
     }
@@ -320,4 +326,12 @@ public class AlgoCloSpan {
         }
         abstractionCreator = null;
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
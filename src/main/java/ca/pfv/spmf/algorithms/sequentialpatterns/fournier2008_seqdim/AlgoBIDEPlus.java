@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the BIDE+ algorithm by Wang et al. 2007 to be used
@@ -45,6 +47,7 @@ public class AlgoBIDEPlus extends AbstractAlgoPrefixSpan {
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	private final double minsup;
 	
@@ -87,10 +90,12 @@ public class AlgoBIDEPlus extends AbstractAlgoPrefixSpan {
 		}
 		// save the start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// start the algorithm
 		bide(database);
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// return patterns found
 		return patterns;
 	}
@@ -590,8 +595,18 @@ public class AlgoBIDEPlus extends AbstractAlgoPrefixSpan {
 		r.append(patterns.sequenceCount);
 		r.append('\n');
 		r.append(patterns.toString(databaseSize));
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
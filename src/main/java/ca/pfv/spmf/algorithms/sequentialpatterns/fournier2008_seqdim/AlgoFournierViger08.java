@@ -29,6 +29,8 @@ import java.util.Set;
 
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.kmeans_for_fournier08.AlgoKMeansWithSupport;
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.kmeans_for_fournier08.Cluster;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the original implementation of the Fournier-Viger algorithm (2008) for sequential
@@ -66,6 +68,7 @@ public class AlgoFournierViger08 extends AbstractAlgoPrefixSpan{
 	private long startTime;
 	// end time of latest execution
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// parameters of runAlgorithm
 	private final double minInterval;  // min time interval between two itemsets  (c1)
@@ -164,10 +167,12 @@ public class AlgoFournierViger08 extends AbstractAlgoPrefixSpan{
 		}
 		// record start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// call to the main method
 		isdb(database);
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the set of patterns found
 		return patterns;
@@ -1142,6 +1147,9 @@ public class AlgoFournierViger08 extends AbstractAlgoPrefixSpan{
 //		r.append(patterns.toString(databaseSize));
 		r.append("===================================================\n");
 		System.out.println(r.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 	
 	/**
@@ -1177,6 +1185,11 @@ public class AlgoFournierViger08 extends AbstractAlgoPrefixSpan{
 		return minsuppRelative;
 	}
 
-
-	
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -24,6 +24,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.multidimensionalsequentialpatterns.AlgoSeqDim;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /**
@@ -47,6 +49,7 @@ public class AlgoPrefixSpanMDSPM extends AbstractAlgoPrefixSpan {
 	// for statistics
 	private long startTime;  // start time of the latest algorithm execution
 	private long endTime; // end time of the latest algorithm exeuction
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	// minimum support set by the user as a percentage
 	private final double minsup;
@@ -88,10 +91,12 @@ public class AlgoPrefixSpanMDSPM extends AbstractAlgoPrefixSpan {
 		}
 		// record start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		// start the prefixspan algorithm
 		prefixSpan(database);
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// return sequential patterns found
 		return patterns;
 	}
@@ -404,8 +409,18 @@ public class AlgoPrefixSpanMDSPM extends AbstractAlgoPrefixSpan {
 		r.append(patterns.sequenceCount);
 		r.append('\n');
 		r.append(patterns.toString(databaseSize));
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -22,6 +22,8 @@ import java.util.Set;
 
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.AlgoFournierViger08;
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.ItemValued;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This algorithm is a modified K-Means algorithm to be used with the Fournier-Viger-2008 algorithm, which.
@@ -60,6 +62,8 @@ public class AlgoKMeansWithSupport{
 	private final int numberOfTriesForEachK;
 	// an implementation of the regular k-means.
 	private final AlgoKMeans_forFournier08 algoKMeans;
+	// the resources used by the latest execution
+	private RunMetrics runMetrics = null;
 
 	/**
 	 * Constructor
@@ -112,6 +116,8 @@ public class AlgoKMeansWithSupport{
 	 * @return a list of clusters found.
 	 */
 	public List<Cluster> runAlgorithm(List<ItemValued> items){
+		// start recording the resources used
+		MemoryLogger.getInstance().reset();
 		// if the maximum number of clusters is larger than
 		// the number of items, then set it to the number of items.
 		if(maxK > items.size()){ 
@@ -175,6 +181,7 @@ public class AlgoKMeansWithSupport{
 			}
 		}
 	
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// We return the list of clusters found.
 		return clustersFound;
 	}
@@ -198,4 +205,12 @@ public class AlgoKMeansWithSupport{
 		// if the set of sequence IDs is >= minsup
 		return sequenceIds.size() >= minsuppRelative;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -22,6 +22,8 @@ import java.util.Random;
 
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.AlgoFournierViger08;
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.ItemValued;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is the implementation of the K-means algorithm used by the Fournier-Viger-2008 algorithm 
@@ -45,6 +47,8 @@ public class AlgoKMeans_forFournier08 {
 	private int k;
 	// a random number generator because k-means is a randomized algorithm
 	private final static Random random = new Random(System.currentTimeMillis());
+	// the resources used by the latest execution
+	private RunMetrics runMetrics = null;
 
 	/**
 	 * Contructor
@@ -62,6 +66,19 @@ public class AlgoKMeans_forFournier08 {
 	 * @return a list of clusters
 	 */
 	public List<Cluster> runAlgorithm(List<ItemValued> input) {
+		// start recording the resources used
+		MemoryLogger.getInstance().reset();
+		List<Cluster> clusters = applyAlgorithm(input);
+		runMetrics = MemoryLogger.getInstance().stopRun();
+		return clusters;
+	}
+
+	/**
+	 * Apply the K-Means algorithm
+	 * @param input   a list of items to be clustered
+	 * @return a list of clusters
+	 */
+	private List<Cluster> applyAlgorithm(List<ItemValued> input) {
 		// Create a list of clusters
 		List<Cluster> clusters = new ArrayList<Cluster>(k);
 
@@ -210,4 +227,11 @@ public class AlgoKMeans_forFournier08 {
 		this.k = k;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -29,6 +29,8 @@ import ca.pfv.spmf.algorithms.frequentpatterns.aprioriTIDClose.AlgoAprioriTIDClo
 import ca.pfv.spmf.algorithms.frequentpatterns.charm.AlgoCharm_Bitset;
 import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
 import ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemsets;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /**
@@ -91,6 +93,9 @@ public class AlgoDim{
 	// to an itemset
     private int lastUniqueItemIdGiven=0;
 
+	// the resources used by the latest execution
+	private RunMetrics runMetrics = null;
+
 	/**
 	 * @param findClosedPatterns Indicates if this class has to find respectively frequent itemsets
 	 *  or frequent closed itemsets.
@@ -111,6 +116,8 @@ public class AlgoDim{
 	 * @throws IOException  exception if error reading/writing file
 	 */
 	public MDPatterns runAlgorithm(MDPatternsDatabase mdPatDatabase, double minsupp) throws IOException {
+		// start recording the resources used
+		MemoryLogger.getInstance().reset();
 		// initialize the set of MDpatterns for storing the result
 		patterns = new MDPatterns("FREQUENT MD Patterns");
 		
@@ -215,6 +222,7 @@ public class AlgoDim{
 			// add the empty set
 			patterns.addPattern(convertItemsetCharmToPattern(new ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset.Itemset()), 0);
 		}
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// return the set of patterns found
 		return patterns;
 	}
@@ -381,7 +389,17 @@ public class AlgoDim{
 		System.out.println("=============  DIM - STATS =============");
 		System.out.println(" Frequent patterns count : " + patterns.size()); 
 		patterns.printPatterns(databaseSize);
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
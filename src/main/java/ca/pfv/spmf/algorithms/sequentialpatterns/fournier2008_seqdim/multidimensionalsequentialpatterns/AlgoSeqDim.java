@@ -22,6 +22,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.multidimens
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.multidimensionalpatterns.MDPatterns;
 import ca.pfv.spmf.algorithms.sequentialpatterns.fournier2008_seqdim.multidimensionalpatterns.MDPatternsDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -53,6 +54,7 @@ public class AlgoSeqDim {
     private MDSequences sequences = new MDSequences("FREQUENT MD-SEQUENCES");
 	private long startTime;  // the start time of the algorithm
 	private long endTime;    // the end time of the algorithm
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private boolean mineClosedPatterns = false; // if true, only closed patterns are found
 	
 	// object to write the output to a file
@@ -123,6 +125,7 @@ public class AlgoSeqDim {
 		endTime = System.currentTimeMillis();
 		// check memory usage
 		MemoryLogger.getInstance().checkMemory();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close output file
 		writer.close();
 		// return the set of MD sequential patterns
@@ -267,7 +270,11 @@ public class AlgoSeqDim {
 		r.append(MemoryLogger.getInstance().getMaxMemory());
 		r.append("\n Frequent sequences count : ");
 		r.append(patternCount);
-		System.out.println(r.toString());
+		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
+		System.out.print(r.toString());
 //		sequences.printFrequentSequences(objectsCount);
 		System.out
 				.println("===================================================");
@@ -319,5 +326,12 @@ public class AlgoSeqDim {
 			}
 		}
 	}
-	
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
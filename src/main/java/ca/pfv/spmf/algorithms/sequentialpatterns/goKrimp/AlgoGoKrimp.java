@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * * This is an implementation of the GoKrimp and SedKrimp algorithms. GoKrimp:
@@ -73,6 +75,8 @@ public class AlgoGoKrimp {
 							// printed to console. Otherwise, the result is
 							// written to a file.
 
+	private RunMetrics runMetrics = null; // the resources used by the latest execution of gokrimp() or seqkrimp()
+
 	/**
 	 * find compressing patterns by greedily extending initial candidate events
 	 * 
@@ -80,6 +84,7 @@ public class AlgoGoKrimp {
 	 */
 	public void gokrimp() throws IOException {
 		long startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 
 		initialization();
 		ArrayList<MyPattern> ie = get_Initial_Patterns(); // get a set of
@@ -115,6 +120,7 @@ public class AlgoGoKrimp {
 				+ ", compression ratio: " + uncomp_size / (0.0 + comp_size));
 
 		long endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		long totalTime = endTime - startTime;
 		System.out.println("Running time: " + totalTime / 1000 + " seconds");
 	}
@@ -126,6 +132,7 @@ public class AlgoGoKrimp {
 	 * @throws IOException
 	 */
 	public void seqkrimp() throws IOException {
+		MemoryLogger.getInstance().reset();
 
 		MyPattern maxp = new MyPattern();
 		double max;
@@ -162,6 +169,7 @@ public class AlgoGoKrimp {
 		System.out.println("Compressed size: " + comp_size
 				+ ", uncompressed size: " + uncomp_size
 				+ ", compression ratio: " + uncomp_size / (0.0 + comp_size));
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	/**
@@ -783,4 +791,11 @@ public class AlgoGoKrimp {
 		writer = new BufferedWriter(new FileWriter(outputFilePath));
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -23,6 +23,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.gsp_AGP.items.Sequences;
 import ca.pfv.spmf.algorithms.sequentialpatterns.gsp_AGP.items.creators.AbstractionCreator;
 import ca.pfv.spmf.algorithms.sequentialpatterns.gsp_AGP.items.patterns.Pattern;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
@@ -62,6 +63,7 @@ public class AlgoGSP {
     //Two variables to measure how long the algorithm takes
     private long start;
     private long end;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     //List with the frequent 1-sequences, i.e. the frequent items.
     private List<Pattern> frequentItems;
     private AbstractionCreator abstractionCreator;
@@ -127,6 +129,7 @@ public class AlgoGSP {
         start = System.currentTimeMillis();
         runGsp(database, candidateGenerator, supportCounter, keepPatterns, verbose);
         end = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
 
         // close the output file if the result was saved to a file
         if (writer != null) {
@@ -276,6 +279,9 @@ public class AlgoGSP {
         if (writer == null) {
             sb.append(patterns.toString());
         }
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append("===================================================\n");
         return sb.toString();
     }
@@ -343,4 +349,12 @@ public class AlgoGSP {
         frequentItems.clear();
         abstractionCreator = null;
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -22,6 +22,7 @@ import ca.pfv.spmf.datastructures.triangularmatrix.AbstractTriangularMatrix;
 import ca.pfv.spmf.datastructures.triangularmatrix.SparseTriangularMatrix;
 import ca.pfv.spmf.input.sequence_database_array_integers.SequenceDatabase;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /*** 
  * This is an implementation of the LAPIN algorithm (a.k.a LAPIN-SPAM or LAPIN-LCI). 
@@ -62,6 +63,7 @@ public class AlgoLAPIN_LCI{
 	// for statistics
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	private int patternCount;
 	
 	// minsup
@@ -114,6 +116,7 @@ public class AlgoLAPIN_LCI{
 		lapin(input, minsupRel);
 		
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		writer.close();
 	}
 	
@@ -998,6 +1001,9 @@ loop:			for(short pos : listPositions) {
 		r.append('\n');
 		r.append("===================================================");
 		System.out.println(r.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 
 	/**
@@ -1022,4 +1028,11 @@ loop:			for(short pos : listPositions) {
 
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
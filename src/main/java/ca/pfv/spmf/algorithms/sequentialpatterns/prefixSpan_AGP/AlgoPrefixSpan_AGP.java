@@ -31,6 +31,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.prefixSpan_AGP.savers.Saver;
 import ca.pfv.spmf.algorithms.sequentialpatterns.prefixSpan_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.prefixSpan_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the PrefixSpan algorithm by Antonio Gomariz Peñalver(AGP).
@@ -68,6 +69,7 @@ public class AlgoPrefixSpan_AGP {
      */
     private long start;
     private long end;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * The abstraction creator
      */
@@ -114,6 +116,7 @@ public class AlgoPrefixSpan_AGP {
         prefixSpan(database, keepPatterns, verbose, outputFilePath, outputSequenceIdentifiers);
         //keeping the ending time
         end = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -176,6 +179,9 @@ public class AlgoPrefixSpan_AGP {
         sb.append('\n');
         sb.append(saver.print());
         sb.append('\n');
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append("===================================================\n");
         return sb.toString();
     }
@@ -248,4 +254,12 @@ public class AlgoPrefixSpan_AGP {
         }
         abstractionCreator = null;
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -13,6 +13,7 @@ import java.util.Set;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /*** 
@@ -55,6 +56,7 @@ public class AlgoBIDEPlus{
 	/** for statistics **/
     private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of pattern found */
 	public int patternCount;
@@ -136,6 +138,8 @@ public class AlgoBIDEPlus{
 	 * @throws IOException  exception if error while writing the file
 	 */
 	public SequentialPatterns runAlgorithm(String inputFile, double minsupRelative, String outputFilePath) throws IOException {
+		// reset the utility for recording memory usage
+		MemoryLogger.getInstance().reset();
 		// record start time
 		startTime = System.currentTimeMillis();
 		
@@ -158,6 +162,7 @@ public class AlgoBIDEPlus{
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file if the result was saved to a file
 		if(writer != null){
 			writer.close();
@@ -198,6 +203,7 @@ public class AlgoBIDEPlus{
 		
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the output file if the result was saved to a file
 		if(writer != null){
@@ -2350,6 +2356,9 @@ loopi:	for(int i=0; i <= lastBufferPosition; i++){
 		r.append("==========================================================\n");
 		// if the result was save into memory, print it
 		System.out.println(r.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 	
 	/**
@@ -2376,4 +2385,12 @@ loopi:	for(int i=0; i <= lastBufferPosition; i++){
 	public void setShowSequenceIdentifiers(boolean showSequenceIdentifiers) {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
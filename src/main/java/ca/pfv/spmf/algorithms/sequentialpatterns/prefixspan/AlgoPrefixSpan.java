@@ -3,14 +3,21 @@ package ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /*** 
@@ -26,6 +33,13 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * it more efficient. This new implementation can be 10 times faster than the 2008 implementation, since
  * I have added more optimizations
  *
+ * Projected databases are stored as two arrays of integers (the sequence ids and the positions where
+ * the projected sequences start) rather than as lists of PseudoSequence objects. If setThreadCount() is called
+ * with a value greater than 1, the projected database of each frequent item is mined by a separate task
+ * of a fork-join pool. The patterns of each task are buffered, so that they are output in the same order
+ * as for a sequential run. To bound the memory used by the buffers, only a few tasks per thread are
+ * submitted ahead of the task whose patterns are being output.
+ *
  * Copyright (c) 2008-2012 Philippe Fournier-Viger
  * 
  * This file is part of the SPMF DATA MINING SOFTWARE
@@ -51,6 +65,9 @@ public class AlgoPrefixSpan{
 	private long startTime;
 	private long endTime;
 	
+	/** the resources used by the latest execution */
+	private RunMetrics runMetrics = null;
+	
 	/** the number of pattern found */
 	private int patternCount;
 	
@@ -72,7 +89,6 @@ public class AlgoPrefixSpan{
 	/** buffer for storing the current pattern that is mined when performing mining
 	* the idea is to always reuse the same buffer to reduce memory usage. **/
 	private final int BUFFERS_SIZE = 2000;
-	private int[] patternBuffer = new int[BUFFERS_SIZE];
 	
 	/** original sequence count **/
 	private int sequenceCount = 0;
@@ -83,6 +99,12 @@ public class AlgoPrefixSpan{
 	/** boolean indicating whether this database contains itemsets with multiple items or not */
 	private boolean containsItemsetsWithMultipleItems = false;
 	
+	/** the number of threads used to mine the projected databases (1 = sequential search) */
+	private int threadCount = 1;
+	
+	/** the maximum number of tasks per thread whose patterns are buffered at the same time in parallel mode */
+	private static final int TASKS_IN_FLIGHT_PER_THREAD = 4;
+	
 	/**
 	 * Default constructor
 	 */
@@ -101,8 +123,10 @@ public class AlgoPrefixSpan{
 	public SequentialPatterns runAlgorithm(String inputFile, double minsupRelative, String outputFilePath) throws IOException {
 		// record start time
 		startTime = System.currentTimeMillis();
+		MemoryLogger.getInstance().reset();
 		
 		// Load the sequence database
+		MemoryLogger.getInstance().startPhase("database loading");
 		sequenceDatabase = new SequenceDatabase(); 
 		sequenceDatabase.loadFile(inputFile);
 		sequenceCount = sequenceDatabase.size();
@@ -114,6 +138,7 @@ public class AlgoPrefixSpan{
 		}
 		
 		// run the algorithm
+		MemoryLogger.getInstance().startPhase("mining");
 		prefixSpan(sequenceDatabase, outputFilePath);
 		
 		sequenceDatabase = null;
@@ -124,6 +149,7 @@ public class AlgoPrefixSpan{
 		if(writer != null){
 			writer.close();
 		}
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		return patterns;
 	}
 	
@@ -144,10 +170,12 @@ public class AlgoPrefixSpan{
 		startTime = System.currentTimeMillis();
 		
 		// Load the sequence database
+		MemoryLogger.getInstance().startPhase("database loading");
 		sequenceDatabase = new SequenceDatabase(); 
 		sequenceDatabase.loadFile(inputFile);
 		
 		// run the algorithm
+		MemoryLogger.getInstance().startPhase("mining");
 		prefixSpan(sequenceDatabase, outputFilePath);
 		
 		sequenceDatabase = null;
@@ -158,6 +186,7 @@ public class AlgoPrefixSpan{
 		if(writer != null){
 			writer.close();
 		}
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		return patterns;
 	}
 	
@@ -249,32 +278,7 @@ public class AlgoPrefixSpan{
 		}
 		
 		//============= WE EXPLORE EACH PROJECTED DATABASE  ================================
-		// For each frequent item
-		for(Entry<Integer, List<Integer>> entry : mapSequenceID.entrySet()){
-			int support = entry.getValue().size();
-			// if the item is frequent  (has a support >= minsup)
-			if(support >= minsuppAbsolute){ 
-				int item = entry.getKey();
-
-				// The prefix is a frequent sequential pattern.
-				// We save it in the result.
-				savePattern(item, support, entry.getValue());  
-
-				// We make a recursive call to try to find larger sequential
-				// patterns starting with this prefix
-				if(maximumPatternLength >1){
-					
-					// Create the prefix for this projected database by copying the item in the buffer
-					patternBuffer[0] = item;
-
-					// build the projected database for that item
-					List<PseudoSequence> projectedDatabase  = buildProjectedDatabaseSingleItems(item, entry.getValue());
-					
-					// recursive call
-					recursionSingleItems(projectedDatabase, 2, 0); 
-				}
-			}
-		}
+		exploreProjectedDatabases(mapSequenceID);
 	}
 
 
@@ -344,6 +348,22 @@ public class AlgoPrefixSpan{
 		}
 		
 		//============= WE EXPLORE EACH PROJECTED DATABASE  ================================
+		exploreProjectedDatabases(mapSequenceID);
+	}
+	
+	/**
+	 * Explore the projected database of each frequent item, sequentially or in parallel.
+	 * @param mapSequenceID the set of items with their frequencies
+	 * @throws IOException if error writing to file
+	 */
+	private void exploreProjectedDatabases(Map<Integer, List<Integer>> mapSequenceID) throws IOException {
+		if(threadCount > 1){
+			exploreProjectedDatabasesInParallel(mapSequenceID);
+			return;
+		}
+		// the buffer for the patterns that are grown
+		Branch branch = new Branch(writer, patterns);
+		
 		// For each frequent item
 		for(Entry<Integer, List<Integer>> entry : mapSequenceID.entrySet()){
 			int support = entry.getValue().size();
@@ -358,20 +378,184 @@ public class AlgoPrefixSpan{
 				// We make a recursive call to try to find larger sequential
 				// patterns starting with this prefix
 				if(maximumPatternLength >1){
-					
-					// Create the prefix for this projected database by copying the item in the buffer
-					patternBuffer[0] = item;
-
-					// build the projected database for that item
-					List<PseudoSequence> projectedDatabase  = buildProjectedDatabaseFirstTimeMultipleItems(item, entry.getValue());
-					
-					// recursive call
-					recursion(patternBuffer, projectedDatabase, 2, 0); 
+					exploreProjectedDatabase(branch, item, entry.getValue());
+				}
+			}
+		}
+		patternCount += branch.patternCount;
+	}
+	
+	/**
+	 * Explore the projected database of each frequent item in parallel. The projected database of
+	 * each item is mined by a separate task of a fork-join pool, which buffers the patterns that it finds.
+	 * The buffers are then written in the order of the items, so that the output is the same
+	 * as for a sequential run. At most TASKS_IN_FLIGHT_PER_THREAD tasks per thread are submitted
+	 * ahead of the item whose patterns are written, so that only these tasks hold a buffer.
+	 * @param mapSequenceID the set of items with their frequencies
+	 * @throws IOException if error writing to file
+	 */
+	private void exploreProjectedDatabasesInParallel(Map<Integer, List<Integer>> mapSequenceID) throws IOException {
+		// the frequent items
+		List<Entry<Integer, List<Integer>>> frequentItems = new ArrayList<Entry<Integer, List<Integer>>>();
+		for(Entry<Integer, List<Integer>> entry : mapSequenceID.entrySet()){
+			if(entry.getValue().size() >= minsuppAbsolute){ 
+				frequentItems.add(entry);
+			}
+		}
+		// the tasks that are submitted and whose patterns are not saved yet, in the order of the items
+		Deque<BranchTask> tasksInFlight = new ArrayDeque<BranchTask>();
+		int maxTasksInFlight = TASKS_IN_FLIGHT_PER_THREAD * threadCount;
+		// the position of the next item whose task will be submitted
+		int nextItem = 0;
+		
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// save the patterns of each item, in the order of the items, as the tasks are finished
+			for(int i = 0; i < frequentItems.size(); i++){
+				Entry<Integer, List<Integer>> entry = frequentItems.get(i);
+				savePattern(entry.getKey(), entry.getValue().size(), entry.getValue());
+				if(maximumPatternLength >1){
+					// submit the tasks of the next items
+					while(nextItem < frequentItems.size() && nextItem - i < maxTasksInFlight){
+						Entry<Integer, List<Integer>> next = frequentItems.get(nextItem++);
+						BranchTask task = new BranchTask(next.getKey(), next.getValue());
+						pool.execute(task);
+						tasksInFlight.add(task);
+					}
+					// the task of this item (its buffer is released after it is saved)
+					BranchTask task = tasksInFlight.poll();
+					task.join();
+					task.saveTo(writer, patterns);
+					patternCount += task.branch.patternCount;
+				}
+			}
+		} catch (UncheckedIOException e) {
+			// an error occurred while writing the buffer of one of the tasks
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * A task mining the projected database of a frequent item in parallel mode.
+	 */
+	private class BranchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/** the item */
+		private final int item;
+		/** the sequences containing the item */
+		private final List<Integer> sequenceIDs;
+		/** the buffer where the patterns are written, if they are saved to a file */
+		private final StringWriter output;
+		/** the patterns that are found and the current prefix */
+		private final Branch branch;
+		/** the run of the algorithm, where the memory usage is recorded */
+		private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+		
+		/**
+		 * Constructor
+		 * @param item the item
+		 * @param sequenceIDs the sequences containing the item
+		 */
+		BranchTask(int item, List<Integer> sequenceIDs) {
+			this.item = item;
+			this.sequenceIDs = sequenceIDs;
+			if(writer != null){
+				output = new StringWriter();
+				branch = new Branch(new BufferedWriter(output), null);
+			}else{
+				output = null;
+				branch = new Branch(null, new SequentialPatterns("FREQUENT SEQUENTIAL PATTERNS"));
+			}
+		}
+		
+		@Override
+		protected void compute() {
+			// record the memory usage of this thread in the run of the algorithm
+			RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+			try {
+				exploreProjectedDatabase(branch, item, sequenceIDs);
+				if(branch.writer != null){
+					branch.writer.flush();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				MemoryLogger.getInstance().setCurrentRun(previousRun);
+			}
+		}
+		
+		/**
+		 * Save the patterns found by this task to the output file or in memory.
+		 * @param writer the output file or null if the patterns are kept into memory
+		 * @param patterns the patterns kept into memory
+		 * @throws IOException if error writing to file
+		 */
+		void saveTo(BufferedWriter writer, SequentialPatterns patterns) throws IOException {
+			if(writer != null){
+				writer.write(output.toString());
+			}else{
+				for(int k = 0; k < branch.patterns.getLevelCount(); k++){
+					for(SequentialPattern pattern : branch.patterns.getLevel(k)){
+						patterns.addSequence(pattern, k);
+					}
 				}
 			}
 		}
 	}
 	
+	/**
+	 * The state used to grow the patterns starting with a frequent item: the buffer
+	 * storing the current pattern and where the patterns are saved.
+	 * In parallel mode, each task has its own state.
+	 */
+	private class Branch {
+		/** buffer for storing the current pattern that is mined */
+		final int[] patternBuffer = new int[BUFFERS_SIZE];
+		/** writer to write the patterns or null if they are kept into memory */
+		final BufferedWriter writer;
+		/** the patterns that are kept into memory */
+		final SequentialPatterns patterns;
+		/** the number of patterns found */
+		int patternCount = 0;
+		
+		/**
+		 * Constructor
+		 * @param writer the writer to write the patterns or null if they are kept into memory
+		 * @param patterns the patterns kept into memory
+		 */
+		Branch(BufferedWriter writer, SequentialPatterns patterns) {
+			this.writer = writer;
+			this.patterns = patterns;
+		}
+	}
+	
+	/**
+	 * Build the projected database of a frequent item and mine it recursively.
+	 * @param branch the buffer for the current pattern and where the patterns are saved
+	 * @param item the item
+	 * @param sequenceIDs the sequences containing the item
+	 * @throws IOException if error writing to file
+	 */
+	private void exploreProjectedDatabase(Branch branch, int item, List<Integer> sequenceIDs) throws IOException {
+		// Create the prefix for this projected database by copying the item in the buffer
+		branch.patternBuffer[0] = item;
+		
+		if(containsItemsetsWithMultipleItems){
+			// build the projected database for that item
+			ProjectedDatabase projectedDatabase  = buildProjectedDatabaseFirstTimeMultipleItems(item, sequenceIDs);
+			// recursive call
+			recursion(branch, projectedDatabase, 2, 0);
+		}else{
+			// build the projected database for that item
+			ProjectedDatabase projectedDatabase  = buildProjectedDatabaseSingleItems(item, sequenceIDs);
+			// recursive call
+			recursionSingleItems(branch, projectedDatabase, 2, 0);
+		}
+	}
+	
 	/**
 	 * This method saves a sequential pattern containing a single item to the output file or
 	 * in memory, depending on if the user provided an output file path or not
@@ -415,16 +599,18 @@ public class AlgoPrefixSpan{
 	
 	/**
 	 * Save a pattern containing two or more items to the output file (or in memory, depending on what the user prefer)
+	 * @param branch the buffer containing the pattern and where it is saved
 	 * @param lastBufferPosition the last position in the buffer for this pattern
-	 * @param pseudoSequences the list of pseudosequences where this pattern appears.
+	 * @param pseudoSequences the projected database of this pattern.
 	 * @throws IOException if error when writing to file
 	 */
-	private void savePattern(int lastBufferPosition, List<PseudoSequence> pseudoSequences) throws IOException {
+	private void savePattern(Branch branch, int lastBufferPosition, ProjectedDatabase pseudoSequences) throws IOException {
+		int[] patternBuffer = branch.patternBuffer;
 		// increase the number of pattern found for statistics purposes
-		patternCount++;  
+		branch.patternCount++;  
 	
 		// if the result should be saved to a file
-		if(writer != null){
+		if(branch.writer != null){
 			// create a StringBuilder
 			StringBuilder r = new StringBuilder();
 			for(int i=0; i <= lastBufferPosition; i++){
@@ -438,15 +624,15 @@ public class AlgoPrefixSpan{
 			r.append(pseudoSequences.size());
 			if(showSequenceIdentifiers) {
 	        	r.append(" #SID: ");
-	        	for (PseudoSequence sequence: pseudoSequences) {
-	        		r.append(sequence.sequenceID);
+	        	for (int i = 0; i < pseudoSequences.size(); i++) {
+	        		r.append(pseudoSequences.getSequenceID(i));
 	        		r.append(" ");
 	        	}
 			}
 			// write the string to the file
-			writer.write(r.toString());
+			branch.writer.write(r.toString());
 			// start a new line
-			writer.newLine();
+			branch.writer.newLine();
 		}
 		// otherwise the result is kept into memory
 		else{
@@ -468,11 +654,11 @@ public class AlgoPrefixSpan{
 			
 			List<Integer> sequencesIDs = new ArrayList<Integer>(pseudoSequences.size());
 			for (int i = 0; i< pseudoSequences.size(); i++) {
-				sequencesIDs.add(pseudoSequences.get(i).sequenceID);
+				sequencesIDs.add(pseudoSequences.getSequenceID(i));
         	}
 			pattern.setSequenceIDs(sequencesIDs);
 //			System.out.println(pattern);
-			patterns.addSequence(pattern, itemsetCount);
+			branch.patterns.addSequence(pattern, itemsetCount);
 		}
 	}
 	
@@ -530,9 +716,9 @@ public class AlgoPrefixSpan{
 	 * @param item The item to use to make the pseudo-projection
 	 * @return the projected database.
 	 */
-	private List<PseudoSequence> buildProjectedDatabaseSingleItems(int item, List<Integer> sequenceIDs) {
+	private ProjectedDatabase buildProjectedDatabaseSingleItems(int item, List<Integer> sequenceIDs) {
 		// We create a new projected database
-		List<PseudoSequence> projectedDatabase = new ArrayList<PseudoSequence>();
+		ProjectedDatabase projectedDatabase = new ProjectedDatabase(sequenceIDs.size());
 
 		// for each sequence that contains the current item
 loopSeq:for(int sequenceID : sequenceIDs){ 
@@ -546,8 +732,7 @@ loopSeq:for(int sequenceID : sequenceIDs){
 				if(token == item){
 					// if it is not the end of the sequence
 					if(sequence[j+1] != -2){
-						PseudoSequence pseudoSequence = new PseudoSequence(sequenceID, j+1);
-						projectedDatabase.add(pseudoSequence);
+						projectedDatabase.add(sequenceID, j+1);
 					}
 					
 					// break because we have found what we have created the pseudosequence for the current sequence
@@ -563,9 +748,9 @@ loopSeq:for(int sequenceID : sequenceIDs){
 	 * @param item The item to use to make the pseudo-projection
 	 * @return the projected database.
 	 */
-	private List<PseudoSequence> buildProjectedDatabaseFirstTimeMultipleItems(int item, List<Integer> sequenceIDs) {
+	private ProjectedDatabase buildProjectedDatabaseFirstTimeMultipleItems(int item, List<Integer> sequenceIDs) {
 		// We create a new projected database
-		List<PseudoSequence> projectedDatabase = new ArrayList<PseudoSequence>();
+		ProjectedDatabase projectedDatabase = new ProjectedDatabase(sequenceIDs.size());
 
 		// for each sequence that contains the current item
 loopSeq:for(int sequenceID : sequenceIDs){ 
@@ -580,8 +765,7 @@ loopSeq:for(int sequenceID : sequenceIDs){
 					// if it is not the end of the sequence
 					boolean isEndOfSequence = sequence[j+1] == -1 && sequence[j+2] == -2;
 					if(!isEndOfSequence){
-						PseudoSequence pseudoSequence = new PseudoSequence(sequenceID, j+1);
-						projectedDatabase.add(pseudoSequence);
+						projectedDatabase.add(sequenceID, j+1);
 					}
 					
 					// break because we have found what we have created the pseudosequence for the current sequence
@@ -596,12 +780,13 @@ loopSeq:for(int sequenceID : sequenceIDs){
 
 	/**
 	 * Method to recursively grow a given sequential pattern.
+	 * @param branch the buffer containing the current prefix and where the patterns are saved
 	 * @param database the current projected sequence database
 	 * @param k  the prefix length in terms of items
 	 * @param lastBufferPosition the last position used in the buffer for storing the current prefix
 	 * @throws IOException exception if there is an error writing to the output file
 	 */
-	private void recursionSingleItems(List<PseudoSequence> database, int k, int lastBufferPosition) throws IOException {	
+	private void recursionSingleItems(Branch branch, ProjectedDatabase database, int k, int lastBufferPosition) throws IOException {	
 //		for(int i=0; i<= lastBufferPosition; i++){
 //			System.out.print(patternBuffer[i] + " ");
 //		}
@@ -611,7 +796,7 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		
 		// find frequent items of size 1 in the current projected database, and at the same
 		// time create their respective projected databases
-		Map<Integer,List<PseudoSequence>> itemsPseudoSequences = findAllFrequentPairsSingleItems(database, lastBufferPosition);
+		Map<Integer,ProjectedDatabase> itemsPseudoSequences = findAllFrequentPairsSingleItems(database, lastBufferPosition);
 		
 		// release the memory used by the database
 		database = null;
@@ -628,20 +813,20 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		// For each pair found (a pair is an item with a boolean indicating if it
 		// appears in an itemset that is cut (a postfix) or not, and the sequence IDs
 		// where it appears in the projected database).
-		for(Entry<Integer, List<PseudoSequence>> entry : itemsPseudoSequences.entrySet()){
+		for(Entry<Integer, ProjectedDatabase> entry : itemsPseudoSequences.entrySet()){
 			// if the item is frequent in the current projected database
 			if(entry.getValue().size() >= minsuppAbsolute){
 
 				//Create the new pattern by appending the item as a new itemset to the sequence
-				patternBuffer[lastBufferPosition+1] = -1;
-				patternBuffer[lastBufferPosition+2] = entry.getKey();
+				branch.patternBuffer[lastBufferPosition+1] = -1;
+				branch.patternBuffer[lastBufferPosition+2] = entry.getKey();
 				
 				// save the pattern
-				savePattern(lastBufferPosition+2, entry.getValue());
+				savePattern(branch, lastBufferPosition+2, entry.getValue());
 				
 				// make a recursive call
 				if( k < maximumPatternLength){
-					recursionSingleItems(entry.getValue(), k+1, lastBufferPosition+2);
+					recursionSingleItems(branch, entry.getValue(), k+1, lastBufferPosition+2);
 				}
 			}
 		}
@@ -653,11 +838,11 @@ loopSeq:for(int sequenceID : sequenceIDs){
 	 * Method to recursively grow a given sequential pattern.
 	 * @param database the current projected sequence database
 	 * @param k  the prefix length in terms of items
-	 * @param patternBuffer  the current sequential pattern that we want to try to grow
+	 * @param branch  the buffer containing the current sequential pattern that we want to try to grow
 	 * @param lastBufferPosition the last position used in the buffer for storing the current prefix
 	 * @throws IOException exception if there is an error writing to the output file
 	 */
-	private void recursion(int[] patternBuffer, List<PseudoSequence> database, int k, int lastBufferPosition) throws IOException {	
+	private void recursion(Branch branch, ProjectedDatabase database, int k, int lastBufferPosition) throws IOException {	
 //		for(int i=0; i<= lastBufferPosition; i++){
 //			System.out.print(patternBuffer[i] + " ");
 //		}
@@ -671,7 +856,7 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		// We create some maps of pairs for storing the frequent items. The following object
 		// contains two maps. The first one is for item extending the current pattern as an i-extension,
 		// while the second is for item extending the current pattern as an s-extension.
-		MapFrequentPairs mapsPairs = findAllFrequentPairs(database, lastBufferPosition);
+		MapFrequentPairs mapsPairs = findAllFrequentPairs(database, branch.patternBuffer, lastBufferPosition);
 		
 		// release the memory used by the database
 		database = null;
@@ -688,46 +873,46 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		// For each pair found that is in a postfix itemset(a pair is an item with a boolean indicating if it
 		// appears in an itemset that is cut (a postfix) or not, and the sequence IDs
 		// where it appears in the projected database).
-		for(Entry<Pair,Pair> entry : mapsPairs.mapPairsInPostfix.entrySet()){
-			Pair pair = entry.getKey();
+		for(Entry<Integer,ProjectedDatabase> entry : mapsPairs.mapPairsInPostfix.entrySet()){
+			ProjectedDatabase projectedDatabase = entry.getValue();
 			
 			// if the item is frequent in the current projected database
-			if(pair.getCount() >= minsuppAbsolute){
+			if(projectedDatabase.size() >= minsuppAbsolute){
 
 				int newBuferPosition = lastBufferPosition;
 				// we append it to the last itemset of the prefix
 				newBuferPosition++;
-				patternBuffer[newBuferPosition] = pair.item;
+				branch.patternBuffer[newBuferPosition] = entry.getKey();
 				
 				// save the pattern
-				savePattern(newBuferPosition, pair.getPseudoSequences());
+				savePattern(branch, newBuferPosition, projectedDatabase);
 				
 				// make a recursive call
 				if( k < maximumPatternLength){
-					recursion(patternBuffer, pair.getPseudoSequences(), k+1, newBuferPosition);
+					recursion(branch, projectedDatabase, k+1, newBuferPosition);
 				}
 			}
 		}
 		
 		// For each pair found representing an item that is not in a postfix
-		for(Entry<Pair,Pair> entry : mapsPairs.mapPairs.entrySet()){
-			Pair pair = entry.getKey();
+		for(Entry<Integer,ProjectedDatabase> entry : mapsPairs.mapPairs.entrySet()){
+			ProjectedDatabase projectedDatabase = entry.getValue();
 			// if the item is frequent in the current projected database
-			if(pair.getCount() >= minsuppAbsolute){
+			if(projectedDatabase.size() >= minsuppAbsolute){
 
 				int newBuferPosition = lastBufferPosition;
 				// we append it to the last itemset of the prefix
 				newBuferPosition++;
-				patternBuffer[newBuferPosition] = -1;
+				branch.patternBuffer[newBuferPosition] = -1;
 				newBuferPosition++;
-				patternBuffer[newBuferPosition] = pair.item;
+				branch.patternBuffer[newBuferPosition] = entry.getKey();
 				
 				// save the pattern
-				savePattern(newBuferPosition, pair.getPseudoSequences());
+				savePattern(branch, newBuferPosition, projectedDatabase);
 				
 				// make a recursive call
 				if( k < maximumPatternLength){
-					recursion(patternBuffer, pair.getPseudoSequences(), k+1, newBuferPosition);
+					recursion(branch, projectedDatabase, k+1, newBuferPosition);
 				}
 			}
 		}
@@ -743,40 +928,36 @@ loopSeq:for(int sequenceID : sequenceIDs){
 	 * @return A list of pairs, where a pair is an item with (1) a boolean indicating if it
 	 *         is in an itemset that is "cut" and (2) the sequence IDs where it occurs.
 	 */
-	private Map<Integer,List<PseudoSequence>>  findAllFrequentPairsSingleItems(List<PseudoSequence> sequences, int lastBufferPosition){
+	private Map<Integer,ProjectedDatabase>  findAllFrequentPairsSingleItems(ProjectedDatabase sequences, int lastBufferPosition){
 		// We use a Map the store the pairs.
-		Map<Integer,List<PseudoSequence>>  mapItemsPseudoSequences = new HashMap<Integer,List<PseudoSequence>>();
+		Map<Integer,ProjectedDatabase>  mapItemsPseudoSequences = new HashMap<Integer,ProjectedDatabase>();
 
 		// for each sequence
-		for(PseudoSequence pseudoSequence : sequences){
+		for(int s = 0; s < sequences.size(); s++){
 			
 			// for each sequence
-			int sequenceID = pseudoSequence.getOriginalSequenceID();
+			int sequenceID = sequences.getSequenceID(s);
 			int[] sequence = sequenceDatabase.getSequences().get(sequenceID);
 			
 			// for each token in this sequence 
-			for(int i = pseudoSequence.indexFirstItem;  sequence[i] != -2 ; i++){
+			for(int i = sequences.getIndexFirstItem(s);  sequence[i] != -2 ; i++){
 				int token = sequence[i];
 				
 				// if it is an item
 				if(token > 0){
-					// get the pair object stored in the map if there is one already
-					List<PseudoSequence> listSequences = mapItemsPseudoSequences.get(token);
-					// if there is no pair object yet
+					// get the projected database stored in the map if there is one already
+					ProjectedDatabase listSequences = mapItemsPseudoSequences.get(token);
+					// if there is no projected database yet
 					if(listSequences == null){
-						listSequences = new ArrayList<PseudoSequence>();
-						// store the pair object that we created
+						listSequences = new ProjectedDatabase();
+						// store the projected database that we created
 						mapItemsPseudoSequences.put(token, listSequences);
 					}
 					
 					// Check if that sequence as already been added to the projected database of this item
-					boolean ok = true;
-					if(listSequences.size() > 0){
-						ok = listSequences.get(listSequences.size() - 1).sequenceID != sequenceID;
-					}
 					// if not we add it
-					if(ok){
-						listSequences.add(new PseudoSequence(sequenceID, i+1));
+					if(!listSequences.endsWith(sequenceID)){
+						listSequences.add(sequenceID, i+1);
 					}
 				}
 			}
@@ -792,18 +973,19 @@ loopSeq:for(int sequenceID : sequenceIDs){
 	 * frequencies of items, whether in a postfix itemset or a normal itemset.
 	 */
 	public class MapFrequentPairs{
-	    public final Map<Pair, Pair>  mapPairs = new HashMap<Pair, Pair>();
-	    public final Map<Pair, Pair>  mapPairsInPostfix = new HashMap<Pair, Pair>();
+	    public final Map<Integer, ProjectedDatabase>  mapPairs = new HashMap<Integer, ProjectedDatabase>();
+	    public final Map<Integer, ProjectedDatabase>  mapPairsInPostfix = new HashMap<Integer, ProjectedDatabase>();
 	}
 
     /**
 	 * Method to find all frequent items in a projected sequence database
 	 * @param sequences  the set of sequences
+	 * @param patternBuffer the buffer storing the current prefix
 	 * @param lastBufferPosition the last position used in the buffer for storing the current prefix
 	 * @return A list of pairs, where a pair is an item with (1) a boolean indicating if it
 	 *         is in an itemset that is "cut" and (2) the sequence IDs where it occurs.
 	 */
-	private MapFrequentPairs findAllFrequentPairs(List<PseudoSequence> sequences, int lastBufferPosition){
+	private MapFrequentPairs findAllFrequentPairs(ProjectedDatabase sequences, int[] patternBuffer, int lastBufferPosition){
 		// We use an object containing two maps the store the pairs.
 		MapFrequentPairs mapsPairs = new MapFrequentPairs();
 		
@@ -821,83 +1003,60 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		int positionToBeMatched = firstPositionOfLastItemsetInBuffer;
 		
 		// for each sequence
-		for(PseudoSequence pseudoSequence : sequences){
+		for(int s = 0; s < sequences.size(); s++){
 			
 			// for each sequence
-			int sequenceID = pseudoSequence.getOriginalSequenceID();
+			int sequenceID = sequences.getSequenceID(s);
+			int indexFirstItem = sequences.getIndexFirstItem(s);
 			int[] sequence = sequenceDatabase.getSequences().get(sequenceID);
 			
 			// check if the first itemset of that sequence is a postfix
 			// It is a postfix (the itemset is cut) if the previous item is a -1 indicating
 			// the end of an itemset
-			int previousItem = sequence[pseudoSequence.indexFirstItem - 1];
+			int previousItem = sequence[indexFirstItem - 1];
 			boolean currentItemsetIsPostfix = (previousItem != - 1);
 			boolean isFirstItemset = true;
 			
 			// for each token in this sequence (item, separator between itemsets (-1) or end of sequence (-2)
-			for(int i = pseudoSequence.indexFirstItem;  sequence[i] != -2 ; i++){
+			for(int i = indexFirstItem;  sequence[i] != -2 ; i++){
 				int token = sequence[i];
 				
 				// if it is an item
 				if(token > 0){
 					
-					// create the pair corresponding to this item
-					Pair pair = new Pair(token);   
-					// get the pair object store in the map if there is one already
-					Pair oldPair;
-					if(currentItemsetIsPostfix){
-						oldPair = mapsPairs.mapPairsInPostfix.get(pair);
-					}else{
-						oldPair = mapsPairs.mapPairs.get(pair);
-					}
-					// if there is no pair object yet
-					if(oldPair == null){
-						// store the pair object that we created
-						if(currentItemsetIsPostfix){
-							mapsPairs.mapPairsInPostfix.put(pair, pair);
-						}else{
-							mapsPairs.mapPairs.put(pair, pair);
-						}
-					}else{
-						// otherwise use the old one
-						pair = oldPair;
+					// get the projected database of this item stored in the map if there is one already
+					Map<Integer, ProjectedDatabase> map = currentItemsetIsPostfix ? mapsPairs.mapPairsInPostfix : mapsPairs.mapPairs;
+					ProjectedDatabase projectedDatabase = map.get(token);
+					// if there is no projected database yet
+					if(projectedDatabase == null){
+						// store the projected database that we created
+						projectedDatabase = new ProjectedDatabase();
+						map.put(token, projectedDatabase);
 					}
 					
 					// Check if that sequence as already been added to the projected database of this item
-					boolean ok = true;
-					if(pair.getPseudoSequences().size() > 0){
-						ok = pair.getPseudoSequences().get(pair.getPseudoSequences().size() - 1).sequenceID != sequenceID;
-					}
 					// if not we add it
-					if(ok){
-						pair.getPseudoSequences().add(new PseudoSequence(sequenceID, i+1));
+					if(!projectedDatabase.endsWith(sequenceID)){
+						projectedDatabase.add(sequenceID, i+1);
 					}
 					
 					///////// ====== IMPORTANT =========
 					// if the current itemset is a postfix and it is not the first itemset
 					// we must also consider that it may not be a postfix for extending the current prefix
 					if(currentItemsetIsPostfix && !isFirstItemset){
-						// create the pair corresponding to this item
-						 pair = new Pair(token);     // FALSE !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!
-						// get the pair object store in the map if there is one already
-						 oldPair = mapsPairs.mapPairs.get(pair);
-						// if there is no pair object yet
-						if(oldPair == null){
-							// store the pair object that we created
-							mapsPairs.mapPairs.put(pair, pair);
-						}else{
-							// otherwise use the old one
-							pair = oldPair;
+						// get the projected database of this item store in the map if there is one already
+						projectedDatabase = mapsPairs.mapPairs.get(token);
+						// if there is no projected database yet
+						if(projectedDatabase == null){
+							// store the projected database that we created
+							projectedDatabase = new ProjectedDatabase();
+							mapsPairs.mapPairs.put(token, projectedDatabase);
 						}
 						
 						// Check if that sequence as already been added to the projected database of this item
-						ok = true;
-						if(pair.getPseudoSequences().size() > 0){
-							ok = pair.getPseudoSequences().get(pair.getPseudoSequences().size() - 1).sequenceID != sequenceID;
-						}
 						// if not we add it
-						if(ok){
-							pair.getPseudoSequences().add(new PseudoSequence(sequenceID, i+1));
+						if(!projectedDatabase.endsWith(sequenceID)){
+							projectedDatabase.add(sequenceID, i+1);
 						}
 						
 					}
@@ -924,6 +1083,14 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		return mapsPairs;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+
 	/**
 	 * Print statistics about the algorithm execution to System.out.
      */
@@ -935,13 +1102,21 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		r.append(" Frequent sequences count : " + patternCount);
 		r.append('\n');
 		r.append(" Max memory (mb) : ");
-		r.append(MemoryLogger.getInstance().getMaxMemory());
+		r.append((runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()));
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append(" minsup = " + minsuppAbsolute + " sequences.");
 		r.append('\n');
 		r.append(" Pattern count : ");
 		r.append(patternCount);
 		r.append('\n');
+		if(threadCount > 1){
+			r.append(" Thread count : ");
+			r.append(threadCount);
+			r.append('\n');
+		}
 		r.append("===================================================\n");
 		// if the result was save into memory, print it
 		if(patterns !=null){
@@ -974,5 +1149,18 @@ loopSeq:for(int sequenceID : sequenceIDs){
 	public void setShowSequenceIdentifiers(boolean showSequenceIdentifiers) {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
+	
+	/**
+	 * Set the number of threads to be used for mining the projected databases.
+	 * If it is greater than 1, the projected database of each frequent item is mined in parallel.
+	 * The patterns found and their order are the same as for a sequential run.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
 
 }
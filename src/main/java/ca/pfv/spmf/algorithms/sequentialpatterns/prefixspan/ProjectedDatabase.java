@@ -0,0 +1,111 @@
+package ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan;
+
+/**
+ * This represents a projected database (as based in PrefixSpan) used by the PrefixSpan algorithm.
+ * Rather than storing a PseudoSequence object for each projected sequence, the sequence ids
+ * and the positions where the projected sequences start in the original sequences are stored in two
+ * parallel arrays of integers. This avoids creating an object for each sequence of each projection.
+ *
+ * Copyright (c) 2008-2012 Philippe Fournier-Viger
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ *
+ * SPMF is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SPMF is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SPMF.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @see PseudoSequence
+ * @see AlgoPrefixSpan
+ */
+class ProjectedDatabase {
+
+	// the corresponding sequences in the original database
+	private int[] sequenceIDs;
+
+	// the first item of each projected sequence in the original sequence
+	private int[] indexFirstItems;
+
+	// the number of projected sequences
+	private int size = 0;
+
+	/**
+	 * Create an empty projected database.
+	 */
+	ProjectedDatabase(){
+		this(4);
+	}
+
+	/**
+	 * Create an empty projected database.
+	 * @param capacity the number of projected sequences that can be added before the arrays are resized
+	 */
+	ProjectedDatabase(int capacity){
+		sequenceIDs = new int[capacity];
+		indexFirstItems = new int[capacity];
+	}
+
+	/**
+	 * Add a projected sequence to this database.
+	 * @param sequenceID the original sequence
+	 * @param indexFirstItem the item where the projected sequence should start in terms of the original sequence.
+	 */
+	void add(int sequenceID, int indexFirstItem){
+		if(size == sequenceIDs.length){
+			int newCapacity = Math.max(4, size + (size >> 1));
+			int[] newSequenceIDs = new int[newCapacity];
+			int[] newIndexFirstItems = new int[newCapacity];
+			System.arraycopy(sequenceIDs, 0, newSequenceIDs, 0, size);
+			System.arraycopy(indexFirstItems, 0, newIndexFirstItems, 0, size);
+			sequenceIDs = newSequenceIDs;
+			indexFirstItems = newIndexFirstItems;
+		}
+		sequenceIDs[size] = sequenceID;
+		indexFirstItems[size] = indexFirstItem;
+		size++;
+	}
+
+	/**
+	 * Get the number of projected sequences (the support of the prefix of this projected database).
+	 * @return the number of sequences
+	 */
+	int size(){
+		return size;
+	}
+
+	/**
+	 * Get the original sequence of a projected sequence.
+	 * @param i the position of the projected sequence
+	 * @return the id of the original sequence
+	 */
+	int getSequenceID(int i){
+		return sequenceIDs[i];
+	}
+
+	/**
+	 * Get the position where a projected sequence starts in the original sequence.
+	 * @param i the position of the projected sequence
+	 * @return the position of the first item
+	 */
+	int getIndexFirstItem(int i){
+		return indexFirstItems[i];
+	}
+
+	/**
+	 * Check if the last projected sequence that was added comes from a given original sequence.
+	 * @param sequenceID the id of the original sequence
+	 * @return true if it is the case
+	 */
+	boolean endsWith(int sequenceID){
+		return size > 0 && sequenceIDs[size - 1] == sequenceID;
+	}
+}
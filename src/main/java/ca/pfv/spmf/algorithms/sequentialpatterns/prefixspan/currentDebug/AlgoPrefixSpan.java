@@ -11,6 +11,7 @@ import java.util.Map.Entry;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /*** 
@@ -50,6 +51,7 @@ public class AlgoPrefixSpan{
 	/** for statistics **/
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of pattern found */
 	private int patternCount;
@@ -99,6 +101,8 @@ public class AlgoPrefixSpan{
 	 * @throws IOException  exception if error while writing the file
 	 */
 	public SequentialPatterns runAlgorithm(String inputFile, double minsupRelative, String outputFilePath) throws IOException {
+		// reset the utility for recording memory usage
+		MemoryLogger.getInstance().reset();
 		// record start time
 		startTime = System.currentTimeMillis();
 		
@@ -120,6 +124,7 @@ public class AlgoPrefixSpan{
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file if the result was saved to a file
 		if(writer != null){
 			writer.close();
@@ -154,6 +159,7 @@ public class AlgoPrefixSpan{
 		
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file if the result was saved to a file
 		if(writer != null){
 			writer.close();
@@ -948,6 +954,9 @@ loopSeq:for(int sequenceID : sequenceIDs){
 			patterns.printFrequentPatterns(sequenceCount, showSequenceIdentifiers);
 		}
 		System.out.println(r.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 	
 	/**
@@ -975,4 +984,11 @@ loopSeq:for(int sequenceID : sequenceIDs){
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
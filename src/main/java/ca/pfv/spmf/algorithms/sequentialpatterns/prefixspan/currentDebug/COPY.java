@@ -13,6 +13,7 @@ import java.util.Set;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 
 /*** 
@@ -55,6 +56,7 @@ public class COPY{
 	/** for statistics **/
 	private long startTime;
 	private long endTime;
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** the number of pattern found */
 	private int patternCount;
@@ -136,6 +138,8 @@ public class COPY{
 	 * @throws IOException  exception if error while writing the file
 	 */
 	public SequentialPatterns runAlgorithm(String inputFile, double minsupRelative, String outputFilePath) throws IOException {
+		// reset the utility for recording memory usage
+		MemoryLogger.getInstance().reset();
 		// record start time
 		startTime = System.currentTimeMillis();
 		
@@ -158,6 +162,7 @@ public class COPY{
 		
 		// record end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		// close the output file if the result was saved to a file
 		if(writer != null){
 			writer.close();
@@ -198,6 +203,7 @@ public class COPY{
 		
 		// save the end time
 		endTime = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// close the output file if the result was saved to a file
 		if(writer != null){
@@ -2632,6 +2638,9 @@ loopi:	for(int i=0; i <= lastBufferPosition; i++){
 		r.append(" Pattern count : ");
 		r.append(patternCount);
 		r.append('\n');
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("==========================================================\n");
 		// if the result was save into memory, print it
 		System.out.println(r.toString());
@@ -2661,4 +2670,12 @@ loopi:	for(int i=0; i <= lastBufferPosition; i++){
 	public void setShowSequenceIdentifiers(boolean showSequenceIdentifiers) {
 		this.showSequenceIdentifiers = showSequenceIdentifiers;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -25,6 +25,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.Saver;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the CM-SPADE algorithm. SPADE was proposed by
@@ -81,6 +82,10 @@ public class AlgoCMSPADE {
      */
     private long start;
     private long end;
+    /**
+     * The resources used by the latest execution
+     */
+    private RunMetrics runMetrics = null;
     /**
      * Equivalence class whose class identifier is a frequent item
      */
@@ -146,6 +151,7 @@ public class AlgoCMSPADE {
         }
         // reset the stats about memory usage
         MemoryLogger.getInstance().reset();
+        MemoryLogger.getInstance().startPhase("mining");
         //keeping the starting time
         start = System.currentTimeMillis();
         //We run SPADE algorithm
@@ -156,6 +162,7 @@ public class AlgoCMSPADE {
         end = System.currentTimeMillis();
         //Search for frequent patterns: Finished
         saver.finish();
+        runMetrics = MemoryLogger.getInstance().stopRun();
     }
 
     /**
@@ -192,6 +199,7 @@ public class AlgoCMSPADE {
         }
         // reset the stats about memory usage
         MemoryLogger.getInstance().reset();
+        MemoryLogger.getInstance().startPhase("mining");
         //keeping the starting time
 
         System.out.println("=====" + minSupAbsolute);
@@ -204,6 +212,7 @@ public class AlgoCMSPADE {
         end = System.currentTimeMillis();
         //Search for frequent patterns: Finished
         saver.finish();
+        runMetrics = MemoryLogger.getInstance().stopRun();
     }
 
     /**
@@ -376,13 +385,24 @@ public class AlgoCMSPADE {
         sb.append(intersectionCounter);
         sb.append('\n');
         sb.append(" Max memory (mb):");
-        sb.append(MemoryLogger.getInstance().getMaxMemory());
+        sb.append((runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()));
         sb.append('\n');
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append(saver.print());
         sb.append("\n===================================================\n");
         return sb.toString();
     }
 
+    /**
+     * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+     * @return the statistics of the latest execution
+     */
+    public RunMetrics getRunMetrics() {
+        return runMetrics;
+    }
+
     public int getIntersectionCounter() {
         return intersectionCounter;
     }
@@ -20,6 +20,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.Saver;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the SPADE. SPADE was proposed by ZAKI in 2001.
@@ -75,6 +76,7 @@ public class AlgoSPADE {
      */
     private long start;
     private long end;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * Equivalence class whose class identifier is a frequent item
      */
@@ -144,6 +146,7 @@ public class AlgoSPADE {
 
         //keeping the ending time
         end = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -190,6 +193,7 @@ public class AlgoSPADE {
 
         //keeping the ending time
         end = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -338,6 +342,9 @@ public class AlgoSPADE {
 	sb.append(MemoryLogger.getInstance().getMaxMemory());
         sb.append('\n');
         sb.append(saver.print());
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append("\n===================================================\n");
         return sb.toString();
     }
@@ -519,4 +526,12 @@ public class AlgoSPADE {
         // check the memory usage for statistics
         MemoryLogger.getInstance().checkMemory();
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
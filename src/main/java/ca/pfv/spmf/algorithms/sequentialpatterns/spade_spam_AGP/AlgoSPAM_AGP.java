@@ -28,6 +28,7 @@ import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.Saver;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoFile;
 import ca.pfv.spmf.algorithms.sequentialpatterns.spade_spam_AGP.savers.SaverIntoMemory;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the SPAM algorithm. SPAM was proposed by Ayres
@@ -62,6 +63,7 @@ public class AlgoSPAM_AGP {
      */
     private long start;
     private long end;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     /**
      * Equivalence class whose class' identifier is a frequent item
      */
@@ -118,6 +120,7 @@ public class AlgoSPAM_AGP {
         runSPAM(database, (long) minSupAbsolute, keepPatterns, verbose);
         //keeping the ending time
         end = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         //Search for frequent patterns: Finished
         saver.finish();
     }
@@ -192,6 +195,9 @@ public class AlgoSPAM_AGP {
 	sb.append(MemoryLogger.getInstance().getMaxMemory());
         sb.append('\n');
         sb.append(saver.print());
+        if (runMetrics != null) {
+            sb.append(runMetrics);
+        }
         sb.append("\n===================================================\n");
         return sb.toString();
     }
@@ -227,4 +233,12 @@ public class AlgoSPAM_AGP {
             saver = null;
         }
     }
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
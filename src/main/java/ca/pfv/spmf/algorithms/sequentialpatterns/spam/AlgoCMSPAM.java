@@ -7,6 +7,7 @@ import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -16,9 +17,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * *
@@ -26,6 +31,11 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * in the paper by Fournier-Viger et al. at PAKDD 2014.
  *<br/><br/>
  *
+ * Bitmaps are stored as arrays of longs (WordBitmap), so that the S-steps and I-steps
+ * are performed 64 bits at a time. If setThreadCount() is called with a value greater than 1,
+ * the branches of the search space starting with each frequent item are explored in parallel.
+ *<br/><br/>
+ *
  * Copyright (c) 2013 Philippe Fournier-Viger, Antonio Gomariz
  *<br/><br/>
  *
@@ -47,7 +57,7 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * You should have received a copy of the GNU General Public License along with
  * SPMF. If not, see <http://www.gnu.org/licenses/>.
  * 
- * @see Bitmap
+ * @see WordBitmap
 *  @see Prefix 
 *  @author Philippe Fournier-Viger  & Antonio Gomariz
  */
@@ -58,6 +68,8 @@ public class AlgoCMSPAM {
 	private long startTime;  
 	/** end time of last algorithm execution */
 	private long endTime;   
+	/** the resources used by the latest execution */
+	private RunMetrics runMetrics = null;
 	
 	/** number of patterns */
     private int patternCount;
@@ -69,7 +81,7 @@ public class AlgoCMSPAM {
     private BufferedWriter writer = null;
     
     /** Vertical database */
-    private Map<Integer, Bitmap> verticalDB = new HashMap<Integer, Bitmap>();
+    private Map<Integer, WordBitmap> verticalDB = new HashMap<Integer, WordBitmap>();
     
     /** List indicating the number of bits per sequence */
     private List<Integer> sequencesSize = null;
@@ -77,6 +89,15 @@ public class AlgoCMSPAM {
     /** the last bit position that is used in bitmaps */
     private int lastBitIndex = 0;
     
+    /** the positions of the sequences in the bitmaps */
+    private SequenceLayout layout = null;
+    
+    /** the number of S-steps and I-steps performed */
+    private final LongAdder intersectionCount = new LongAdder();
+    
+	/** the number of threads used to explore the search space (1 = sequential search) */
+	private int threadCount = 1;
+    
 	/** maximum pattern length in terms of item count */
 	private int minimumPatternLength = 0;
     /** maximum pattern length in terms of item count */
@@ -121,7 +142,7 @@ public class AlgoCMSPAM {
     public void runAlgorithm(String input, String outputFilePath, double minsupRel, boolean outputSequenceIdentifiers) throws IOException {
         this.outputSequenceIdentifiers = outputSequenceIdentifiers;
     	
-    	Bitmap.INTERSECTION_COUNT = 0;
+    	intersectionCount.reset();
         // create an object to write the file
         writer = new BufferedWriter(new FileWriter(outputFilePath));
         // initialize the number of patterns found
@@ -135,6 +156,7 @@ public class AlgoCMSPAM {
         spam(input, minsupRel);
         // record end time
         endTime = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         // close the file
         writer.close();
     }
@@ -148,7 +170,7 @@ public class AlgoCMSPAM {
     private void spam(String input, double minsupRel) throws IOException {
         // the structure to store the vertical database
         // key: an item    value : bitmap
-        verticalDB = new HashMap<Integer, Bitmap>();
+        verticalDB = new HashMap<Integer, WordBitmap>();
 
         // structure to store the horizontal database
         List<int[]> inMemoryDB = new ArrayList<int[]>();
@@ -248,13 +270,13 @@ public class AlgoCMSPAM {
                     } else {  // indicate an item
                         // Get the bitmap for this item. If none, create one.
                         Integer item = Integer.parseInt(token);
-                        Bitmap bitmapItem = verticalDB.get(item);
+                        WordBitmap bitmapItem = verticalDB.get(item);
                         if (bitmapItem == null) {
-                            bitmapItem = new Bitmap(lastBitIndex);
+                            bitmapItem = new WordBitmap();
                             verticalDB.put(item, bitmapItem);
                         }
                         // Register the bit in the bitmap for this item
-                        bitmapItem.registerBit(sid, tid, sequencesSize);
+                        bitmapItem.registerBit(sid, sequencesSize.get(sid) + tid);
                     }
                 }
             }
@@ -262,14 +284,15 @@ public class AlgoCMSPAM {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        layout = new SequenceLayout(sequencesSize, lastBitIndex + 1);
 
         // STEP2: REMOVE INFREQUENT ITEMS FROM THE DATABASE BECAUSE THEY WILL NOT APPEAR IN ANY FREQUENT SEQUENTIAL PATTERNS
         List<Integer> frequentItems = new ArrayList<Integer>();
-        Iterator<Entry<Integer, Bitmap>> iter = verticalDB.entrySet().iterator();
+        Iterator<Entry<Integer, WordBitmap>> iter = verticalDB.entrySet().iterator();
         // we iterate over items from the vertical database that we have in memory
         while (iter.hasNext()) {
             //  we get the bitmap for this item
-            Map.Entry<Integer, Bitmap> entry = (Map.Entry<Integer, Bitmap>) iter.next();
+            Map.Entry<Integer, WordBitmap> entry = (Map.Entry<Integer, WordBitmap>) iter.next();
             // if the cardinality of this bitmap is lower than minsup
             if (entry.getValue().getSupport() < minsup) {
                 // we remove this item from the database.
@@ -277,6 +300,7 @@ public class AlgoCMSPAM {
             } else {
                 // otherwise, we save this item as a frequent
                 // sequential pattern of size 1
+                entry.getValue().trim();
             	if(minimumPatternLength <= 1 && maximumPatternLength >=1) {
             		savePattern(entry.getKey(), entry.getValue());
             	}
@@ -326,7 +350,7 @@ public class AlgoCMSPAM {
                     }
                 }
 
-                Bitmap bitmapOfItem = verticalDB.get(itemI);
+                WordBitmap bitmapOfItem = verticalDB.get(itemI);
                 if (bitmapOfItem == null || bitmapOfItem.getSupport() < minsup) {
                     continue;
                 }
@@ -342,7 +366,7 @@ public class AlgoCMSPAM {
                         continue;
                     }
 
-                    Bitmap bitmapOfitemJ = verticalDB.get(itemJ);
+                    WordBitmap bitmapOfitemJ = verticalDB.get(itemJ);
                     if (bitmapOfitemJ == null || bitmapOfitemJ.getSupport() < minsup) {
                         continue;
                     }
@@ -387,9 +411,15 @@ public class AlgoCMSPAM {
 
         // STEP3: WE PERFORM THE RECURSIVE DEPTH FIRST SEARCH
         // to find longer sequential patterns recursively
+        if (threadCount > 1) {
+            dfsParallel(frequentItems);
+            return;
+        }
+        // the scratch array used by the S-steps and I-steps
+        long[] scratch = new long[layout.getWordCount()];
 
         // for each frequent item
-        for (Entry<Integer, Bitmap> entry : verticalDB.entrySet()) {
+        for (Entry<Integer, WordBitmap> entry : verticalDB.entrySet()) {
             // We create a prefix with that item
             Prefix prefix = new Prefix();
             prefix.addItemset(new Itemset(entry.getKey()));
@@ -397,7 +427,92 @@ public class AlgoCMSPAM {
             // and the list of frequent items to try to find
             // larger sequential patterns by appending some of these
             // items.
-            dfsPruning(prefix, entry.getValue(), frequentItems, frequentItems, entry.getKey(), 2, entry.getKey());
+            dfsPruning(prefix, entry.getValue(), frequentItems, frequentItems, entry.getKey(), 2, entry.getKey(), scratch);
+        }
+    }
+
+    /**
+     * Perform the depth first search in parallel. The branch of each frequent item is
+     * explored by a separate task of a fork-join pool, and each thread has its own scratch array.
+     * @param frequentItems the list of frequent items
+     * @throws IOException if there is an error writing a pattern to the output file
+     */
+    private void dfsParallel(List<Integer> frequentItems) throws IOException {
+        // a scratch array for each thread of the pool
+        final ThreadLocal<long[]> scratchArrays = new ThreadLocal<long[]>() {
+            @Override
+            protected long[] initialValue() {
+                return new long[layout.getWordCount()];
+            }
+        };
+
+        // create a task for each frequent item
+        List<BranchTask> tasks = new ArrayList<BranchTask>();
+        for (Entry<Integer, WordBitmap> entry : verticalDB.entrySet()) {
+            tasks.add(new BranchTask(entry.getKey(), entry.getValue(), frequentItems, scratchArrays));
+        }
+
+        // run the tasks and wait until they are all finished
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            for (BranchTask task : tasks) {
+                pool.execute(task);
+            }
+            for (BranchTask task : tasks) {
+                task.join();
+            }
+        } catch (UncheckedIOException e) {
+            // an error occurred while writing the output file in one of the tasks
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A task exploring the branch of the search space starting with a frequent item in parallel mode.
+     */
+    private class BranchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** the item */
+        private final int item;
+        /** the bitmap of the item */
+        private final WordBitmap bitmap;
+        /** the list of frequent items */
+        private final List<Integer> frequentItems;
+        /** the scratch array of each thread */
+        private final ThreadLocal<long[]> scratchArrays;
+        /** the run of the algorithm, where the memory usage is recorded */
+        private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+
+        /**
+         * Constructor
+         * @param item the item
+         * @param bitmap the bitmap of the item
+         * @param frequentItems the list of frequent items
+         * @param scratchArrays the scratch array of each thread
+         */
+        BranchTask(int item, WordBitmap bitmap, List<Integer> frequentItems, ThreadLocal<long[]> scratchArrays) {
+            this.item = item;
+            this.bitmap = bitmap;
+            this.frequentItems = frequentItems;
+            this.scratchArrays = scratchArrays;
+        }
+
+        @Override
+        protected void compute() {
+            Prefix prefix = new Prefix();
+            prefix.addItemset(new Itemset(item));
+            // record the memory usage of this thread in the run of the algorithm
+            RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+            try {
+                dfsPruning(prefix, bitmap, frequentItems, frequentItems, item, 2, item, scratchArrays.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                MemoryLogger.getInstance().setCurrentRun(previousRun);
+            }
         }
     }
 
@@ -411,10 +526,11 @@ public class AlgoCMSPAM {
      * @param hasToBeGreaterThanForIStep
      * @param m size of the current prefix in terms of items
      * @param lastAppendedItem the last appended item to the prefix
+     * @param scratch the scratch array used by the S-steps and I-steps (of the current thread)
      * @throws IOException if there is an error writing a pattern to the output
      * file
      */
-    private void dfsPruning(Prefix prefix, Bitmap prefixBitmap, List<Integer> sn, List<Integer> in, int hasToBeGreaterThanForIStep, int m, Integer lastAppendedItem) throws IOException {
+    private void dfsPruning(Prefix prefix, WordBitmap prefixBitmap, List<Integer> sn, List<Integer> in, int hasToBeGreaterThanForIStep, int m, Integer lastAppendedItem, long[] scratch) throws IOException {
 //		System.out.println(prefix.toString());
 
 
@@ -422,7 +538,7 @@ public class AlgoCMSPAM {
         //  ======  S-STEPS ======
         // Temporary variables (as described in the paper)
         List<Integer> sTemp = new ArrayList<Integer>();
-        List<Bitmap> sTempBitmaps = new ArrayList<Bitmap>();
+        List<WordBitmap> sTempBitmaps = new ArrayList<WordBitmap>();
 
         // for CMAP pruning, we will only check against the last appended item
         Map<Integer, Integer> mapSupportItemsAfter = coocMapAfter.get(lastAppendedItem);
@@ -450,7 +566,7 @@ public class AlgoCMSPAM {
             }
 
             // perform the S-STEP with that item to get a new bitmap
-            Bitmap.INTERSECTION_COUNT++;
+            intersectionCount.increment();
 
 //            System.out.println(prefix +  " bitmap : " + prefixBitmap.bitmap);
 //            if(prefix.size() == 1 && prefix.get(0).get(0) == 5) {
@@ -458,9 +574,9 @@ public class AlgoCMSPAM {
 //            }
 
 
-            Bitmap newBitmap = prefixBitmap.createNewBitmapSStep(verticalDB.get(i), sequencesSize, lastBitIndex, maxGap);
+            WordBitmap newBitmap = prefixBitmap.createNewBitmapSStep(verticalDB.get(i), layout, maxGap, minsup, scratch);
             // if the support is higher than minsup
-            if (newBitmap.getSupportWithoutGapTotal() >= minsup) {
+            if (newBitmap != null) {
                 // record that item and pattern in temporary variables
                 sTemp.add(i);
                 sTempBitmaps.add(newBitmap);
@@ -473,7 +589,7 @@ public class AlgoCMSPAM {
             Prefix prefixSStep = prefix.cloneSequence();
             prefixSStep.addItemset(new Itemset(item));
             // create the new bitmap
-            Bitmap newBitmap = sTempBitmaps.get(k);
+            WordBitmap newBitmap = sTempBitmaps.get(k);
 
             // save the pattern to the file
             if(newBitmap.getSupport() >= minsup) {
@@ -482,7 +598,7 @@ public class AlgoCMSPAM {
 	            }
 	            // recursively try to extend that pattern
 	            if (maximumPatternLength > m) {
-	                dfsPruning(prefixSStep, newBitmap, sTemp, sTemp, item, m + 1, item);
+	                dfsPruning(prefixSStep, newBitmap, sTemp, sTemp, item, m + 1, item, scratch);
 	            }
             }
         }
@@ -491,7 +607,7 @@ public class AlgoCMSPAM {
         // ========  I STEPS =======
         // Temporary variables
         List<Integer> iTemp = new ArrayList<Integer>();
-        List<Bitmap> iTempBitmaps = new ArrayList<Bitmap>();
+        List<WordBitmap> iTempBitmaps = new ArrayList<WordBitmap>();
 
         // for each item in in
         for (Integer i : in) {
@@ -519,10 +635,10 @@ public class AlgoCMSPAM {
 
                 // Perform an i-step with this item and the current prefix.
                 // This creates a new bitmap
-                Bitmap.INTERSECTION_COUNT++;
-                Bitmap newBitmap = prefixBitmap.createNewBitmapIStep(verticalDB.get(i), sequencesSize, lastBitIndex);
+                intersectionCount.increment();
+                WordBitmap newBitmap = prefixBitmap.createNewBitmapIStep(verticalDB.get(i), layout, minsup, scratch);
                 // If the support is no less than minsup
-                if (newBitmap.getSupport() >= minsup) {
+                if (newBitmap != null) {
                     // record that item and pattern in temporary variables
                     iTemp.add(i);
                     iTempBitmaps.add(newBitmap);
@@ -536,7 +652,7 @@ public class AlgoCMSPAM {
             Prefix prefixIStep = prefix.cloneSequence();
             prefixIStep.getItemsets().get(prefixIStep.size() - 1).addItem(item);
             // create the new bitmap
-            Bitmap newBitmap = iTempBitmaps.get(k);
+            WordBitmap newBitmap = iTempBitmaps.get(k);
 
             // save the pattern
             if(m >= minimumPatternLength) {
@@ -544,7 +660,7 @@ public class AlgoCMSPAM {
             }
             // recursively try to extend that pattern
             if (maximumPatternLength > m) {
-                dfsPruning(prefixIStep, newBitmap, sTemp, iTemp, item, m + 1, item);
+                dfsPruning(prefixIStep, newBitmap, sTemp, iTemp, item, m + 1, item, scratch);
             }
         }
         // check the memory usage
@@ -558,7 +674,7 @@ public class AlgoCMSPAM {
      * @param bitmap its bitmap
      * @throws IOException exception if error while writing to the file
      */
-    private void savePattern(Integer item, Bitmap bitmap) throws IOException {
+    private void savePattern(Integer item, WordBitmap bitmap) throws IOException {
     	// First, we check if the pattern contains the desired items (optional)
 		// We only do that if the user has specified some items that must appear in
 		// patterns.
@@ -582,7 +698,7 @@ public class AlgoCMSPAM {
         // if the user wants the sequence IDs, we will show them
         if(outputSequenceIdentifiers) {
         	r.append(" #SID: ");
-        	r.append(bitmap.getSIDs(sequencesSize));
+        	r.append(bitmap.getSIDs(layout));
         }
         writer.write(r.toString());
         writer.newLine();
@@ -590,12 +706,13 @@ public class AlgoCMSPAM {
 
     /**
      * Save a pattern of size > 1 to the output file.
+     * This method can be called by several tasks in parallel mode.
      *
      * @param prefix the prefix
      * @param bitmap its bitmap
      * @throws IOException exception if error while writing to the file
      */
-    private void savePattern(Prefix prefix, Bitmap bitmap) throws IOException {
+    private void savePattern(Prefix prefix, WordBitmap bitmap) throws IOException {
 		// First, we check if the pattern contains the desired items (optional)
 		// We only do that if the user has specified some items that must appear in
 		// patterns.
@@ -619,8 +736,6 @@ loop:		for(Itemset itemset : prefix.getItemsets()){
 				return;
 			}
 		}
-        patternCount++;
-
         StringBuilder r = new StringBuilder("");
         for (Itemset itemset : prefix.getItemsets()) {
 //			r.append('(');
@@ -637,11 +752,15 @@ loop:		for(Itemset itemset : prefix.getItemsets()){
         // if the user wants the sequence IDs, we will show them
         if(outputSequenceIdentifiers) {
         	r.append(" #SID: ");
-        	r.append(bitmap.getSIDs(sequencesSize));
+        	r.append(bitmap.getSIDs(layout));
+        }
+        // the writer is shared by the tasks in parallel mode
+        synchronized (this) {
+            patternCount++;
+            writer.write(r.toString());
+//		    System.out.println(r.toString());
+            writer.newLine();
         }
-        writer.write(r.toString());
-//		System.out.println(r.toString());
-        writer.newLine();
     }
 
     /**
@@ -660,7 +779,13 @@ loop:		for(Itemset itemset : prefix.getItemsets()){
         r.append('\n');
         r.append("minsup " + minsup);
         r.append('\n');
-        r.append("Intersection count " + Bitmap.INTERSECTION_COUNT + " \n");
+        r.append("Intersection count " + intersectionCount.sum() + " \n");
+        if (threadCount > 1) {
+            r.append("Thread count " + threadCount + " \n");
+        }
+        if (runMetrics != null) {
+            r.append(runMetrics);
+        }
         r.append("===================================================\n");
         System.out.println(r.toString());
     }
@@ -725,4 +850,26 @@ loop:		for(Itemset itemset : prefix.getItemsets()){
 	public void setMaxGap(int maxGap) {
 		this.maxGap = maxGap;
 	}
+
+	/**
+	 * Set the number of threads to be used for exploring the search space.
+	 * If it is greater than 1, the branches of the search space starting with each frequent item
+	 * are explored in parallel. The patterns found are the same as for a sequential run, but they may
+	 * be output in a different order.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -23,15 +23,19 @@ import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /*** 
  * This is an implementation of the SPAM algorithm. 
@@ -51,8 +55,13 @@ import ca.pfv.spmf.tools.MemoryLogger;
  * 
  * My implementation allows some additional constraints such as setting the maximum pattern length and maximum gap between
  * itemsets.
+ * <br/><br/>
+ * 
+ * Bitmaps are stored as arrays of longs (WordBitmap), so that the S-steps and I-steps
+ * are performed 64 bits at a time. If setThreadCount() is called with a value greater than 1,
+ * the branches of the search space starting with each frequent item are explored in parallel.
  *
-*  @see Bitmap
+*  @see WordBitmap
 *  @see Prefix
 * @author Philippe Fournier-Viger
  */
@@ -62,6 +71,9 @@ public class AlgoSPAM{
 	/** for statistics */
 	private long startTime;
 	private long endTime;
+	
+	/** the resources used by the latest execution */
+	private RunMetrics runMetrics = null;
 	private int patternCount;
 	
 	 /**  minsup */
@@ -71,7 +83,7 @@ public class AlgoSPAM{
     private BufferedWriter writer = null;
     
     /** Vertical database */
-    private Map<Integer, Bitmap> verticalDB = new HashMap<Integer, Bitmap>();
+    private Map<Integer, WordBitmap> verticalDB = new HashMap<Integer, WordBitmap>();
     
     /** List indicating the number of bits per sequence */
     private List<Integer> sequencesSize = null;
@@ -79,6 +91,12 @@ public class AlgoSPAM{
     /** the last bit position that is used in bitmaps */
     private int lastBitIndex = 0;
     
+    /** the positions of the sequences in the bitmaps */
+    private SequenceLayout layout = null;
+    
+	/** the number of threads used to explore the search space (1 = sequential search) */
+	private int threadCount = 1;
+    
 	/** maximum pattern length in terms of item count */
 	private int minimumPatternLength = 0;
     /** maximum pattern length in terms of item count */
@@ -119,6 +137,7 @@ public class AlgoSPAM{
 		endTime = System.currentTimeMillis(); 
 		// close the file
 		writer.close(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 	
 	/**
@@ -129,9 +148,10 @@ public class AlgoSPAM{
 	private void spam(String input, double minsupRel) throws IOException{
 		// the structure to store the vertical database
 		// key: an item    value : bitmap
-		verticalDB = new HashMap<Integer, Bitmap>();
+		verticalDB = new HashMap<Integer, WordBitmap>();
 		
 		// STEP 0: SCAN THE DATABASE TO STORE THE FIRST BIT POSITION OF EACH SEQUENCE 
+		MemoryLogger.getInstance().startPhase("database scan");
 		// AND CALCULATE THE TOTAL NUMBER OF BIT FOR EACH BITMAP
 		sequencesSize = new ArrayList<Integer>();
 		lastBitIndex =0; // variable to record the last bit position that we will use in bitmaps
@@ -178,6 +198,7 @@ public class AlgoSPAM{
 		}
 		
 		// STEP1: SCAN THE DATABASE TO CREATE THE BITMAP VERTICAL DATABASE REPRESENTATION
+		MemoryLogger.getInstance().startPhase("bitmap construction");
 		try {
 			FileInputStream fin = new FileInputStream(new File(input));
 			BufferedReader reader = new BufferedReader(new InputStreamReader(fin));
@@ -206,13 +227,13 @@ public class AlgoSPAM{
 					}else{  // indicate an item
 						// Get the bitmap for this item. If none, create one.
 						Integer item = Integer.parseInt(token);
-						Bitmap bitmapItem = verticalDB.get(item);
+						WordBitmap bitmapItem = verticalDB.get(item);
 						if(bitmapItem == null){
-							bitmapItem = new Bitmap(lastBitIndex);
+							bitmapItem = new WordBitmap();
 							verticalDB.put(item, bitmapItem);
 						}
 						// Register the bit in the bitmap for this item
-						bitmapItem.registerBit(sid, tid, sequencesSize);
+						bitmapItem.registerBit(sid, sequencesSize.get(sid) + tid);
 					}
 				}
 			}
@@ -220,14 +241,15 @@ public class AlgoSPAM{
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		layout = new SequenceLayout(sequencesSize, lastBitIndex + 1);
 		
 		// STEP2: REMOVE INFREQUENT ITEMS FROM THE DATABASE BECAUSE THEY WILL NOT APPEAR IN ANY FREQUENT SEQUENTIAL PATTERNS
 		List<Integer> frequentItems = new ArrayList<Integer>();
-		Iterator<Entry<Integer, Bitmap>> iter = verticalDB.entrySet().iterator();
+		Iterator<Entry<Integer, WordBitmap>> iter = verticalDB.entrySet().iterator();
 		// we iterate over items from the vertical database that we have in memory
 		while (iter.hasNext()) {
 			//  we get the bitmap for this item
-			Map.Entry<Integer, Bitmap> entry = (Map.Entry<Integer, Bitmap>) iter.next();
+			Map.Entry<Integer, WordBitmap> entry = (Map.Entry<Integer, WordBitmap>) iter.next();
 			// if the cardinality of this bitmap is lower than minsup
 			if(entry.getValue().getSupport() < minsup){
 				// we remove this item from the database.
@@ -235,6 +257,7 @@ public class AlgoSPAM{
 			}else{
 				// otherwise, we save this item as a frequent
 				// sequential pattern of size 1
+				entry.getValue().trim();
 				if(minimumPatternLength <= 1 && maximumPatternLength >=1) {
             		savePattern(entry.getKey(), entry.getValue());
             	}
@@ -245,13 +268,21 @@ public class AlgoSPAM{
 		}
 		
 		// STEP3: WE PERFORM THE RECURSIVE DEPTH FIRST SEARCH
+		MemoryLogger.getInstance().startPhase("mining");
 		// to find longer sequential patterns recursively
 		
 		if(maximumPatternLength == 1){
 			return;
 		}
+		if(threadCount > 1){
+			dfsParallel(frequentItems);
+			return;
+		}
+		// the scratch array used by the S-steps and I-steps
+		long[] scratch = new long[layout.getWordCount()];
+		
 		// for each frequent item
-		for(Entry<Integer, Bitmap> entry: verticalDB.entrySet()){
+		for(Entry<Integer, WordBitmap> entry: verticalDB.entrySet()){
 			// We create a prefix with that item
 			Prefix prefix = new Prefix();
 			prefix.addItemset(new Itemset(entry.getKey()));
@@ -259,7 +290,92 @@ public class AlgoSPAM{
 			// and the list of frequent items to try to find
 			// larger sequential patterns by appending some of these
 			// items.
-			dfsPruning(prefix, entry.getValue(), frequentItems, frequentItems, entry.getKey(), 2);
+			dfsPruning(prefix, entry.getValue(), frequentItems, frequentItems, entry.getKey(), 2, scratch);
+		}
+	}
+	
+	/**
+	 * Perform the depth first search in parallel. The branch of each frequent item is
+	 * explored by a separate task of a fork-join pool, and each thread has its own scratch array.
+	 * @param frequentItems the list of frequent items
+	 * @throws IOException if there is an error writing a pattern to the output file
+	 */
+	private void dfsParallel(List<Integer> frequentItems) throws IOException {
+		// a scratch array for each thread of the pool
+		final ThreadLocal<long[]> scratchArrays = new ThreadLocal<long[]>() {
+			@Override
+			protected long[] initialValue() {
+				return new long[layout.getWordCount()];
+			}
+		};
+		
+		// create a task for each frequent item
+		List<BranchTask> tasks = new ArrayList<BranchTask>();
+		for(Entry<Integer, WordBitmap> entry: verticalDB.entrySet()){
+			tasks.add(new BranchTask(entry.getKey(), entry.getValue(), frequentItems, scratchArrays));
+		}
+		
+		// run the tasks and wait until they are all finished
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			for(BranchTask task : tasks){
+				pool.execute(task);
+			}
+			for(BranchTask task : tasks){
+				task.join();
+			}
+		}catch(UncheckedIOException e){
+			// an error occurred while writing the output file in one of the tasks
+			throw e.getCause();
+		}finally{
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * A task exploring the branch of the search space starting with a frequent item in parallel mode.
+	 */
+	private class BranchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/** the item */
+		private final int item;
+		/** the bitmap of the item */
+		private final WordBitmap bitmap;
+		/** the list of frequent items */
+		private final List<Integer> frequentItems;
+		/** the scratch array of each thread */
+		private final ThreadLocal<long[]> scratchArrays;
+		/** the run of the algorithm, where the memory usage is recorded */
+		private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+		
+		/**
+		 * Constructor
+		 * @param item the item
+		 * @param bitmap the bitmap of the item
+		 * @param frequentItems the list of frequent items
+		 * @param scratchArrays the scratch array of each thread
+		 */
+		BranchTask(int item, WordBitmap bitmap, List<Integer> frequentItems, ThreadLocal<long[]> scratchArrays) {
+			this.item = item;
+			this.bitmap = bitmap;
+			this.frequentItems = frequentItems;
+			this.scratchArrays = scratchArrays;
+		}
+		
+		@Override
+		protected void compute() {
+			Prefix prefix = new Prefix();
+			prefix.addItemset(new Itemset(item));
+			// record the memory usage of this thread in the run of the algorithm
+			RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+			try {
+				dfsPruning(prefix, bitmap, frequentItems, frequentItems, item, 2, scratchArrays.get());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				MemoryLogger.getInstance().setCurrentRun(previousRun);
+			}
 		}
 	}
 	
@@ -271,22 +387,23 @@ public class AlgoSPAM{
 	 * @param in  a list of items to be considered for s-steps
 	 * @param hasToBeGreaterThanForIStep
 	 * @param m size of the current prefix in terms of items
+	 * @param scratch the scratch array used by the S-steps and I-steps (of the current thread)
 	 * @throws IOException  if there is an error writing a pattern to the output file
 	 */
-	private void dfsPruning(Prefix prefix, Bitmap prefixBitmap, List<Integer> sn, List<Integer> in, int hasToBeGreaterThanForIStep, int m) throws IOException {
+	private void dfsPruning(Prefix prefix, WordBitmap prefixBitmap, List<Integer> sn, List<Integer> in, int hasToBeGreaterThanForIStep, int m, long[] scratch) throws IOException {
 //		System.out.println(prefix.toString());
 		
 		//  ======  S-STEPS ======
 		// Temporary variables (as described in the paper)
 		List<Integer> sTemp = new ArrayList<Integer>();
-		List<Bitmap> sTempBitmaps = new ArrayList<Bitmap>();
+		List<WordBitmap> sTempBitmaps = new ArrayList<WordBitmap>();
 		
 		// for each item in sn
 		for(Integer i : sn){
 			// perform the S-STEP with that item to get a new bitmap
-			Bitmap newBitmap = prefixBitmap.createNewBitmapSStep(verticalDB.get(i), sequencesSize,  lastBitIndex, maxGap);
+			WordBitmap newBitmap = prefixBitmap.createNewBitmapSStep(verticalDB.get(i), layout, maxGap, minsup, scratch);
 			// if the support is higher than minsup
-			if(newBitmap.getSupportWithoutGapTotal() >= minsup){
+			if(newBitmap != null){
 				// record that item and pattern in temporary variables
 				sTemp.add(i); 
 				sTempBitmaps.add(newBitmap);
@@ -299,7 +416,7 @@ public class AlgoSPAM{
 			Prefix prefixSStep = prefix.cloneSequence();
 			prefixSStep.addItemset(new Itemset(item));
 			// create the new bitmap
-			Bitmap newBitmap = sTempBitmaps.get(k);
+			WordBitmap newBitmap = sTempBitmaps.get(k);
 
 			 if(newBitmap.getSupport() >= minsup) {
 				// save the pattern to the file
@@ -308,7 +425,7 @@ public class AlgoSPAM{
 		        }
 				// recursively try to extend that pattern
 				if(maximumPatternLength > m ){
-					dfsPruning(prefixSStep, newBitmap, sTemp, sTemp, item, m+1);
+					dfsPruning(prefixSStep, newBitmap, sTemp, sTemp, item, m+1, scratch);
 				}
 			}
 			
@@ -317,7 +434,7 @@ public class AlgoSPAM{
 		// ========  I STEPS =======
 		// Temporary variables
 		List<Integer> iTemp = new ArrayList<Integer>();
-		List<Bitmap> iTempBitmaps = new ArrayList<Bitmap>();
+		List<WordBitmap> iTempBitmaps = new ArrayList<WordBitmap>();
 		
 		// for each item in in
 		for(Integer i : in){
@@ -327,9 +444,9 @@ public class AlgoSPAM{
 				
 				// Perform an i-step with this item and the current prefix.
 				// This creates a new bitmap
-				Bitmap newBitmap = prefixBitmap.createNewBitmapIStep(verticalDB.get(i), sequencesSize,  lastBitIndex);
+				WordBitmap newBitmap = prefixBitmap.createNewBitmapIStep(verticalDB.get(i), layout, minsup, scratch);
 				// If the support is no less than minsup
-				if(newBitmap.getSupport() >= minsup){
+				if(newBitmap != null){
 					// record that item and pattern in temporary variables
 					iTemp.add(i);
 					iTempBitmaps.add(newBitmap);
@@ -343,7 +460,7 @@ public class AlgoSPAM{
 			Prefix prefixIStep = prefix.cloneSequence();
 			prefixIStep.getItemsets().get(prefixIStep.size()-1).addItem(item);
 			// create the new bitmap
-			Bitmap newBitmap = iTempBitmaps.get(k);
+			WordBitmap newBitmap = iTempBitmaps.get(k);
 			
 			// save the pattern
 			 if(m >= minimumPatternLength) {
@@ -351,7 +468,7 @@ public class AlgoSPAM{
 	        }
 			// recursively try to extend that pattern
 			if(maximumPatternLength > m){
-				dfsPruning(prefixIStep, newBitmap, sTemp, iTemp, item, m+1);
+				dfsPruning(prefixIStep, newBitmap, sTemp, iTemp, item, m+1, scratch);
 			}
 		}	
 		// check the memory usage
@@ -364,7 +481,7 @@ public class AlgoSPAM{
 	 * @param bitmap its bitmap
 	 * @throws IOException exception if error while writing to the file
 	 */
-	private void savePattern(Integer item, Bitmap bitmap) throws IOException {
+	private void savePattern(Integer item, WordBitmap bitmap) throws IOException {
 		patternCount++; // increase the pattern count
 		StringBuilder r = new StringBuilder("");
 		r.append(item);
@@ -374,7 +491,7 @@ public class AlgoSPAM{
         // if the user wants the sequence IDs, we will show them
         if(outputSequenceIdentifiers) {
         	r.append(" #SID: ");
-        	r.append(bitmap.getSIDs(sequencesSize));
+        	r.append(bitmap.getSIDs(layout));
         }
 		writer.write(r.toString());
 		writer.newLine();
@@ -382,13 +499,12 @@ public class AlgoSPAM{
 	
 	/**
 	 * Save a pattern of size > 1 to the output file.
+	 * This method can be called by several tasks in parallel mode.
 	 * @param prefix the prefix
 	 * @param bitmap its bitmap
 	 * @throws IOException exception if error while writing to the file
 	 */
-	private void savePattern(Prefix prefix, Bitmap bitmap) throws IOException {
-		patternCount++;
-		
+	private void savePattern(Prefix prefix, WordBitmap bitmap) throws IOException {
 		StringBuilder r = new StringBuilder("");
 		for(Itemset itemset : prefix.getItemsets()){
 //			r.append('(');
@@ -405,12 +521,24 @@ public class AlgoSPAM{
         // if the user wants the sequence IDs, we will show them
         if(outputSequenceIdentifiers) {
         	r.append(" #SID: ");
-        	r.append(bitmap.getSIDs(sequencesSize));
+        	r.append(bitmap.getSIDs(layout));
         }
 		
-		writer.write(r.toString());
-//		System.out.println(r.toString());
-		writer.newLine();
+		// the writer is shared by the tasks in parallel mode
+		synchronized (this) {
+			patternCount++;
+			writer.write(r.toString());
+//			System.out.println(r.toString());
+			writer.newLine();
+		}
+	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
 	}
 
 	/**
@@ -424,11 +552,18 @@ public class AlgoSPAM{
 		r.append(" Frequent sequences count : " + patternCount);
 		r.append('\n');
 		r.append(" Max memory (mb) : " );
-		r.append(MemoryLogger.getInstance().getMaxMemory());
+		r.append((runMetrics == null ? 0 : runMetrics.getPeakHeapMemory()));
 		r.append(patternCount);
 		r.append('\n');		
 		r.append("minsup " + minsup);
 		r.append('\n');
+		if(threadCount > 1){
+			r.append("Thread count " + threadCount);
+			r.append('\n');
+		}
+		if(runMetrics != null) {
+			r.append(runMetrics);
+		}
 		r.append("===================================================\n");
 		System.out.println(r.toString());
 	}
@@ -467,6 +602,20 @@ public class AlgoSPAM{
 	public void setMaxGap(int maxGap) {
 		this.maxGap = maxGap;
 	}
+	
+	/**
+	 * Set the number of threads to be used for exploring the search space.
+	 * If it is greater than 1, the branches of the search space starting with each frequent item
+	 * are explored in parallel. The patterns found are the same as for a sequential run, but they may
+	 * be output in a different order.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
 
 	/**
 	 * This method allows to specify if sequence identifiers should be shown in the output
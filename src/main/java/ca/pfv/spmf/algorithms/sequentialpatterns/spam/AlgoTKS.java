@@ -2,6 +2,7 @@ package ca.pfv.spmf.algorithms.sequentialpatterns.spam;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.*;
 import java.util.*;
@@ -50,6 +51,7 @@ public class AlgoTKS{
 	private long startMiningTime; 
 	/** end time of last algorithm execution */
 	private long endTime;   
+	private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/**  minsup, which is dynamically raised during execution */
 	private int minsup = 0; 
@@ -148,6 +150,7 @@ public class AlgoTKS{
 		tks(input, k); 
 		// record end time
 		endTime = System.currentTimeMillis(); 
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the top-patterns
 		return kPatterns;
@@ -730,6 +733,9 @@ loop2:	for(Integer i : in){
 		r.append("Intersection count " + Bitmap.INTERSECTION_COUNT + " \n");
 		r.append("===================================================\n");
 		System.out.println(r.toString());
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 	}
 
 	/**
@@ -815,4 +821,11 @@ loop2:	for(Integer i : in){
 		this.outputSequenceIdentifiers = showSequenceIdentifiers;
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -21,6 +21,7 @@ import java.util.Set;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * *
@@ -58,6 +59,7 @@ public class AlgoVGEN {
 	/** for statistics */
     private long startTime;
     private long endTime;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     private int patternCount;
     
     /**  minsup */
@@ -146,6 +148,7 @@ public class AlgoVGEN {
         vgen(input, minsupRel);
         // record end time
         endTime = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         
         writeResultTofile(outputFilePath);
         
@@ -863,6 +866,9 @@ public class AlgoVGEN {
         r.append("Intersection count " + Bitmap.INTERSECTION_COUNT + " \n");
         r.append("===================================================\n");
         System.out.println(r.toString());
+        if(runMetrics != null) {
+        	System.out.print(runMetrics);
+        }
     }
 
     /**
@@ -941,4 +947,12 @@ public class AlgoVGEN {
 	public void showSequenceIdentifiersInOutput(boolean showSequenceIdentifiers) {
 		this.outputSequenceIdentifiers = showSequenceIdentifiers;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -22,6 +22,7 @@ import java.util.TreeSet;
 
 import ca.pfv.spmf.patterns.itemset_list_integers_without_support.Itemset;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * *
@@ -59,6 +60,7 @@ public class AlgoVMSP {
     /** for statistics */
     private long startTime;
     private long endTime;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
     private int patternCount;
     
     /**  minsup */
@@ -134,6 +136,7 @@ public class AlgoVMSP {
         vmsp(input, minsupRel);
         // record end time
         endTime = System.currentTimeMillis();
+        runMetrics = MemoryLogger.getInstance().stopRun();
         // save result to the file
         writeResultTofile(outputFilePath);
         // close the file
@@ -927,6 +930,9 @@ public class AlgoVMSP {
 //        	}
 //        }
         System.out.println(r.toString());
+        if(runMetrics != null) {
+        	System.out.print(runMetrics);
+        }
     }
 
     /**
@@ -1007,4 +1013,12 @@ public class AlgoVMSP {
 	public void showSequenceIdentifiersInOutput(boolean showSequenceIdentifiers) {
 		this.outputSequenceIdentifiers = showSequenceIdentifiers;
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
@@ -0,0 +1,110 @@
+package ca.pfv.spmf.algorithms.sequentialpatterns.spam;
+
+import java.util.List;
+
+/**
+ * This class describes how the itemsets of the sequences of a database are mapped to the
+ * bits of the bitmaps used by SPAM and CM-SPAM. The itemsets of the sequence sid use the bits from
+ * firstBit[sid] to firstBit[sid + 1] - 1. <br/><br/>
+ *
+ * The sequence containing the first bit of each word of 64 bits is precomputed, so that
+ * the sequence of a bit is found by starting from the sequence of its word rather than by a binary search
+ * in the list of sequence lengths.
+ * <br/><br/>
+ *
+ * Copyright (c) 2008-2017 Philippe Fournier-Viger
+ *  <br/><br/>
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ * <br/><br/>
+ *
+ * SPMF is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <br/><br/>
+ *
+ * SPMF is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <br/><br/>
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SPMF.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @see WordBitmap
+ * @author Philippe Fournier-Viger
+ */
+class SequenceLayout {
+
+	/** the first bit of each sequence (the last element is the number of bits) */
+	private final int[] firstBit;
+
+	/** the sequence containing the first bit of each word */
+	private final int[] sidOfWord;
+
+	/**
+	 * Constructor
+	 * @param sequencesSize the position of the first bit of each sequence
+	 * @param bitCount the number of bits used by all sequences
+	 */
+	SequenceLayout(List<Integer> sequencesSize, int bitCount) {
+		int sequenceCount = sequencesSize.size();
+		firstBit = new int[sequenceCount + 1];
+		for(int sid = 0; sid < sequenceCount; sid++) {
+			firstBit[sid] = sequencesSize.get(sid);
+		}
+		firstBit[sequenceCount] = bitCount;
+
+		sidOfWord = new int[getWordCount()];
+		int sid = 0;
+		for(int word = 0; word < sidOfWord.length; word++) {
+			// skip the sequences ending before the first bit of the word
+			while(sid < sequenceCount && firstBit[sid + 1] <= word << 6) {
+				sid++;
+			}
+			sidOfWord[word] = sid;
+		}
+	}
+
+	/**
+	 * Get the number of words of 64 bits that are needed for the bits of all sequences.
+	 * @return the number of words
+	 */
+	int getWordCount() {
+		return (firstBit[firstBit.length - 1] + 63) >>> 6;
+	}
+
+	/**
+	 * Get the sequence containing a bit.
+	 * @param bit the position of the bit
+	 * @return the sequence id
+	 */
+	int sidOfBit(int bit) {
+		int sid = sidOfWord[bit >>> 6];
+		while(firstBit[sid + 1] <= bit) {
+			sid++;
+		}
+		return sid;
+	}
+
+	/**
+	 * Get the position of the first bit of a sequence.
+	 * @param sid the sequence id
+	 * @return the position
+	 */
+	int firstBitOf(int sid) {
+		return firstBit[sid];
+	}
+
+	/**
+	 * Get the position following the last bit of a sequence.
+	 * @param sid the sequence id
+	 * @return the position
+	 */
+	int endOf(int sid) {
+		return firstBit[sid + 1];
+	}
+}
@@ -0,0 +1,372 @@
+package ca.pfv.spmf.algorithms.sequentialpatterns.spam;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a bitmap for SPAM and CM-SPAM, where the bits are stored in an array of
+ * longs. Contrarily to Bitmap, which is based on the BitSet class, the S-step and I-step are
+ * performed word by word (64 bits at a time) rather than bit by bit. Only the words between the first and
+ * the last word containing a bit set to 1 are stored.
+ * <br/><br/>
+ *
+ * The S-step and I-step write their result in a scratch array that has one word for each word
+ * of the database and that contains only zeros between two calls. Thus, a new bitmap is allocated only
+ * for the candidates that are frequent. A scratch array must not be used by two threads at the same time,
+ * but a bitmap is never modified after its creation and can be read by several threads.
+ * <br/><br/>
+ *
+ * Copyright (c) 2008-2017 Philippe Fournier-Viger
+ *  <br/><br/>
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ * <br/><br/>
+ *
+ * SPMF is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * <br/><br/>
+ *
+ * SPMF is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * <br/><br/>
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SPMF.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @see SequenceLayout
+ * @see AlgoCMSPAM
+ * @see AlgoSPAM
+ * @author Philippe Fournier-Viger
+ */
+class WordBitmap {
+
+	/** the words of the bitmap, starting from the word firstWord */
+	private long[] words;
+
+	/** the position of the first stored word in the bitmap */
+	private int firstWord;
+
+	/** the number of sequences containing a bit set to 1 */
+	private int support = 0;
+
+	/** the number of sequences where the S-step matched if the max gap constraint is ignored */
+	private int supportWithoutGapTotal = 0;
+
+	/** the sid of the last sequence inserted in that bitmap (used during the construction) */
+	private int lastSID = -1;
+
+	/**
+	 * Constructor of an empty bitmap
+	 */
+	WordBitmap() {
+		words = new long[0];
+	}
+
+	/**
+	 * Constructor
+	 * @param words the words
+	 * @param firstWord the position of the first word in the bitmap
+	 * @param support the number of sequences containing a bit set to 1
+	 * @param supportWithoutGapTotal the support if the max gap constraint is ignored
+	 */
+	private WordBitmap(long[] words, int firstWord, int support, int supportWithoutGapTotal) {
+		this.words = words;
+		this.firstWord = firstWord;
+		this.support = support;
+		this.supportWithoutGapTotal = supportWithoutGapTotal;
+	}
+
+	/**
+	 * Set a bit to 1 in this bitmap. Bits must be set by increasing order of sequences.
+	 * @param sid the sid corresponding to that bit
+	 * @param bit the position of the bit
+	 */
+	void registerBit(int sid, int bit) {
+		int word = bit >>> 6;
+		if(words.length == 0) {
+			firstWord = word;
+			words = new long[4];
+		}
+		int index = word - firstWord;
+		// if needed, make the array larger
+		if(index >= words.length) {
+			words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+		}
+		words[index] |= 1L << bit;
+
+		// Update the count of sequences
+		if(sid != lastSID) {
+			support++;
+			lastSID = sid;
+		}
+	}
+
+	/**
+	 * Remove the unused words at the end of the array, once all bits have been registered.
+	 */
+	void trim() {
+		int length = words.length;
+		while(length > 0 && words[length - 1] == 0) {
+			length--;
+		}
+		if(length < words.length) {
+			words = Arrays.copyOf(words, length);
+		}
+	}
+
+	/**
+	 * Get the support of this bitmap (the number of sequences containing a bit set to 1)
+	 * @return the support.
+	 */
+	int getSupport() {
+		return support;
+	}
+
+	/**
+	 * Get the number of sequences where the S-step that created this bitmap matched
+	 * if the max gap constraint is ignored.
+	 * @return the support without the max gap constraint
+	 */
+	int getSupportWithoutGapTotal() {
+		return supportWithoutGapTotal;
+	}
+
+	/**
+	 * Perform the S-step with this bitmap and the bitmap of an item: for each sequence,
+	 * the bits of the item that are after the first bit of this bitmap are kept (or only those
+	 * that are at most maxGap bits after a bit of this bitmap, if there is a max gap constraint).
+	 * @param bitmapItem the bitmap of the item
+	 * @param layout the positions of the sequences in the bitmaps
+	 * @param maxGap the maximum gap (Integer.MAX_VALUE if there is no constraint)
+	 * @param minsup the minimum support
+	 * @param scratch a scratch array containing only zeros
+	 * @return the new bitmap or null if its support without the max gap constraint is less than minsup
+	 */
+	WordBitmap createNewBitmapSStep(WordBitmap bitmapItem, SequenceLayout layout, int maxGap, int minsup, long[] scratch) {
+		int newSupport = 0;
+		int newSupportWithoutGap = 0;
+		// the range of words of the scratch array that may contain bits set to 1
+		int low = Integer.MAX_VALUE;
+		int high = -1;
+
+		for(int bit = nextSetBit(0); bit >= 0; ) {
+			// find the sequence of this bit and the end of that sequence
+			int sid = layout.sidOfBit(bit);
+			int end = layout.endOf(sid);
+
+			if(maxGap == Integer.MAX_VALUE) {
+				// copy the bits of the item that are after the first bit of the prefix in that sequence
+				if(bitmapItem.copyRange(bit + 1, end, scratch)) {
+					newSupport++;
+					newSupportWithoutGap++;
+					low = Math.min(low, (bit + 1) >>> 6);
+					high = (end - 1) >>> 6;
+				}
+			}else {
+				if(bitmapItem.intersectsRange(bit + 1, end)) {
+					newSupportWithoutGap++;
+					// copy the bits of the item that are at most maxGap bits after
+					// a bit of the prefix in that sequence
+					boolean match = false;
+					for(int bitK = bit; bitK >= 0 && bitK < end; bitK = nextSetBit(bitK + 1)) {
+						int last = (int) Math.min((long) bitK + maxGap + 1, end);
+						match |= bitmapItem.copyRange(bitK + 1, last, scratch);
+					}
+					if(match) {
+						newSupport++;
+						low = Math.min(low, (bit + 1) >>> 6);
+						high = (end - 1) >>> 6;
+					}
+				}
+			}
+			// SPAM OPTIMIZATION: skip the other bits of the same sequence
+			bit = nextSetBit(end);
+		}
+		return createBitmapFromScratch(scratch, low, high, newSupport, newSupportWithoutGap, minsup);
+	}
+
+	/**
+	 * Perform the I-step with this bitmap and the bitmap of an item (a logical AND).
+	 * @param bitmapItem the bitmap of the item
+	 * @param layout the positions of the sequences in the bitmaps
+	 * @param minsup the minimum support
+	 * @param scratch a scratch array containing only zeros
+	 * @return the new bitmap or null if its support is less than minsup
+	 */
+	WordBitmap createNewBitmapIStep(WordBitmap bitmapItem, SequenceLayout layout, int minsup, long[] scratch) {
+		int first = Math.max(firstWord, bitmapItem.firstWord);
+		int last = Math.min(firstWord + words.length, bitmapItem.firstWord + bitmapItem.words.length) - 1;
+		// the range of words of the scratch array that contain bits set to 1
+		int low = Integer.MAX_VALUE;
+		int high = -1;
+		for(int word = first; word <= last; word++) {
+			long and = words[word - firstWord] & bitmapItem.words[word - bitmapItem.firstWord];
+			if(and != 0) {
+				scratch[word] = and;
+				low = Math.min(low, word);
+				high = word;
+			}
+		}
+		// count the sequences containing a bit set to 1
+		int newSupport = 0;
+		if(high >= 0) {
+			for(int bit = nextSetBit(scratch, low << 6, high); bit >= 0; ) {
+				newSupport++;
+				bit = nextSetBit(scratch, layout.endOf(layout.sidOfBit(bit)), high);
+			}
+		}
+		return createBitmapFromScratch(scratch, low, high, newSupport, newSupport, minsup);
+	}
+
+	/**
+	 * Create a bitmap from the words of a scratch array and reset these words to zero.
+	 * @param scratch the scratch array
+	 * @param low the first word that may contain bits set to 1
+	 * @param high the last word that may contain bits set to 1 (-1 if none)
+	 * @param support the support of the bitmap
+	 * @param supportWithoutGapTotal the support without the max gap constraint
+	 * @param minsup the minimum support
+	 * @return the bitmap or null if the support without the max gap constraint is less than minsup
+	 */
+	private static WordBitmap createBitmapFromScratch(long[] scratch, int low, int high, int support,
+			int supportWithoutGapTotal, int minsup) {
+		if(high < 0) {
+			return supportWithoutGapTotal >= minsup ? new WordBitmap(new long[0], 0, 0, supportWithoutGapTotal) : null;
+		}
+		WordBitmap bitmap = null;
+		if(supportWithoutGapTotal >= minsup) {
+			// keep only the words between the first and last words that are not zero
+			int first = low;
+			while(scratch[first] == 0) {
+				first++;
+			}
+			int last = high;
+			while(scratch[last] == 0) {
+				last--;
+			}
+			bitmap = new WordBitmap(Arrays.copyOfRange(scratch, first, last + 1), first, support, supportWithoutGapTotal);
+		}
+		Arrays.fill(scratch, low, high + 1, 0L);
+		return bitmap;
+	}
+
+	/**
+	 * Copy the bits of this bitmap that are in a range to an array of words (by a logical OR).
+	 * @param from the first bit of the range
+	 * @param to the bit following the last bit of the range
+	 * @param target the array of words
+	 * @return true if at least one bit was set to 1 in the range
+	 */
+	private boolean copyRange(int from, int to, long[] target) {
+		if(from >= to) {
+			return false;
+		}
+		int fromWord = from >>> 6;
+		int toWord = (to - 1) >>> 6;
+		int first = Math.max(fromWord, firstWord);
+		int last = Math.min(toWord, firstWord + words.length - 1);
+		boolean found = false;
+		for(int word = first; word <= last; word++) {
+			long value = words[word - firstWord];
+			if(word == fromWord) {
+				value &= -1L << from;
+			}
+			if(word == toWord) {
+				value &= -1L >>> (63 - ((to - 1) & 63));
+			}
+			if(value != 0) {
+				target[word] |= value;
+				found = true;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Check if at least one bit of this bitmap is set to 1 in a range.
+	 * @param from the first bit of the range
+	 * @param to the bit following the last bit of the range
+	 * @return true if there is such a bit
+	 */
+	private boolean intersectsRange(int from, int to) {
+		int bit = nextSetBit(from);
+		return bit >= 0 && bit < to;
+	}
+
+	/**
+	 * Get the position of the first bit set to 1 that is not before a given position.
+	 * @param from the given position
+	 * @return the position of the bit or -1 if there is none
+	 */
+	private int nextSetBit(int from) {
+		int word = from >>> 6;
+		int index = word - firstWord;
+		if(index >= words.length) {
+			return -1;
+		}
+		long value;
+		if(index < 0) {
+			index = 0;
+			value = words[0];
+		}else {
+			value = words[index] & (-1L << from);
+		}
+		while(true) {
+			if(value != 0) {
+				return ((index + firstWord) << 6) + Long.numberOfTrailingZeros(value);
+			}
+			if(++index == words.length) {
+				return -1;
+			}
+			value = words[index];
+		}
+	}
+
+	/**
+	 * Get the position of the first bit set to 1 that is not before a given position in an
+	 * array of words.
+	 * @param words the array of words
+	 * @param from the given position
+	 * @param lastWord the last word to be checked
+	 * @return the position of the bit or -1 if there is none
+	 */
+	private static int nextSetBit(long[] words, int from, int lastWord) {
+		int index = from >>> 6;
+		if(index > lastWord) {
+			return -1;
+		}
+		long value = words[index] & (-1L << from);
+		while(true) {
+			if(value != 0) {
+				return (index << 6) + Long.numberOfTrailingZeros(value);
+			}
+			if(++index > lastWord) {
+				return -1;
+			}
+			value = words[index];
+		}
+	}
+
+	/**
+	 * Get the list of sids corresponding to this bitmap as a string
+	 * @param layout the positions of the sequences in the bitmaps
+	 * @return a string
+	 */
+	String getSIDs(SequenceLayout layout) {
+		StringBuilder builder = new StringBuilder();
+		for(int bit = nextSetBit(0); bit >= 0; ) {
+			int sid = layout.sidOfBit(bit);
+			if(builder.length() > 0) {
+				builder.append(" ");
+			}
+			builder.append(sid);
+			// skip the other bits of the same sequence
+			bit = nextSetBit(layout.endOf(sid));
+		}
+		return builder.toString();
+	}
+}
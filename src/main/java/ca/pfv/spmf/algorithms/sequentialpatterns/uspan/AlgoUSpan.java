@@ -22,14 +22,21 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * This is an implementation of the "USPAN" algorithm for High-Utility Sequential Pattern Mining
@@ -42,8 +49,7 @@ import ca.pfv.spmf.tools.MemoryLogger;
  *  This implementation tries to be as faithful as possible to the article.
  *
  * @see QMatrix
- * @see QMatrixProjection
- * @see MatrixProjection
+ * @see ProjectedDatabase
  * 
  * @author Philippe Fournier-Viger, 2015
  */
@@ -53,16 +59,18 @@ public class AlgoUSpan {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+	/** the resources used by the latest execution */
+    private RunMetrics runMetrics = null;
 	/** the number of HUI generated */
     private int patternCount = 0;
 	
 	/** writer to write the output file **/
     private BufferedWriter writer = null;
 	
-	/** buffer for storing the current pattern that is mined when performing mining
+	/** size of the buffers for storing the current pattern that is mined when performing mining
+	* and the current sequence while reading the database
 	* the idea is to always reuse the same buffer to reduce memory usage. **/
 	private final int BUFFERS_SIZE = 2000;
-	private int[] patternBuffer = null;
 	
 	/** if true, debugging information will be shown in the console */
 	private final boolean DEBUG = false;
@@ -78,6 +86,18 @@ public class AlgoUSpan {
 	
 	/** the input file path **/
     private String input;
+	
+	/** the promising items. In the QMatrix, an item is replaced by its position in this array **/
+	private int[] items;
+	
+	/** the sequence database (as a set of QMatrix) **/
+	private QMatrix[] database;
+	
+	/** the number of threads used to find the patterns (1 = sequential search) */
+	private int threadCount = 1;
+	
+	/** the maximum number of tasks per thread whose patterns are buffered at the same time in parallel mode */
+	private static final int TASKS_IN_FLIGHT_PER_THREAD = 4;
 
 	/**
 	 * Default constructor
@@ -100,8 +120,8 @@ public class AlgoUSpan {
 		// input path
 		this.input = input;
 		
-		// initialize the buffer for storing the current itemset
-		patternBuffer = new int[BUFFERS_SIZE];
+		// reset the number of patterns found
+		patternCount = 0;
 		
 		// record the start time of the algorithm
 		startTimestamp = System.currentTimeMillis();
@@ -183,6 +203,23 @@ public class AlgoUSpan {
 			}
 		}
 		
+		// The promising items are sorted and replaced by their position in that order,
+		// so that the SWU of items can be calculated with arrays during the search
+		int promisingItemCount = 0;
+		for(Integer swu : mapItemToSWU.values()) {
+			if(swu >= minUtility) {
+				promisingItemCount++;
+			}
+		}
+		items = new int[promisingItemCount];
+		promisingItemCount = 0;
+		for(Entry<Integer,Integer> entry : mapItemToSWU.entrySet()) {
+			if(entry.getValue() >= minUtility) {
+				items[promisingItemCount++] = entry.getKey();
+			}
+		}
+		Arrays.sort(items);
+		
 		//================  SECOND DATABASE SCAN ===================
 		// Read the database again to create the QMatrix for each sequence
 		List<QMatrix> database  = new ArrayList<QMatrix>(sequenceCount);
@@ -281,6 +318,9 @@ public class AlgoUSpan {
 							// We remember that this itemset contains a promising item
 							currentItemsetHasAPromisingItem = true;
 							
+							// The item is replaced by its position in the array of promising items
+							item = Arrays.binarySearch(items, item);
+							
 							// We store the item and its utility in the buffers
 							// for temporarily storing the sequence
 							itemBuffer[itemBufferLength] = item;
@@ -312,7 +352,7 @@ public class AlgoUSpan {
 					// We will show the sequence after removing unpromising items
 					System.out.print("SEQUENCE AFTER REMOVING UNPROMISING ITEMS:\n ");
 					for(int i=0; i< itemBufferLength; i++) {
-						System.out.print(itemBuffer[i] + "[" + utilityBuffer[i] + "] ");
+						System.out.print((itemBuffer[i] == -1 ? -1 : items[itemBuffer[i]]) + "[" + utilityBuffer[i] + "] ");
 					}
 					// And we will thow the sequence utility after removing the unpromising items.
 					System.out.println("NEW SEQUENCE UTILITY " + sequenceUtility);
@@ -346,7 +386,7 @@ public class AlgoUSpan {
 					// sorted in alphabetical order:
 					System.out.print("LIST OF PROMISING ITEMS IN THAT SEQUENCE:\n ");
 					for(int i=0; i< newItemsPos; i++) {
-						System.out.print(itemsSequenceBuffer[i] + " ");
+						System.out.print(items[itemsSequenceBuffer[i]] + " ");
 					}
 					System.out.println();
 				}
@@ -423,7 +463,9 @@ public class AlgoUSpan {
 
 		// Mine the database recursively using the USpan procedure
 		// This procedure is the USPan procedure optimized for the first recursion
-		uspanFirstTime(patternBuffer, 0, database);
+		this.database = database.toArray(new QMatrix[database.size()]);
+		uspanFirstTime();
+		this.database = null;
 		
 		// check the memory usage again and close the file.
 		MemoryLogger.getInstance().checkMemory();
@@ -431,6 +473,7 @@ public class AlgoUSpan {
 		writer.close();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 	}
 
 	
@@ -438,195 +481,364 @@ public class AlgoUSpan {
 	 * This is the initial call to the USpan procedure to find all High utility sequential patterns
 	 * of length 1. It is optimized for finding patterns of length 1. 
 	 * To find larger patterns the "uspan" method is then used recursively.
-	 * @param prefix  This is the buffer for storing the current prefix. Initially, it is empty.
-	 * @param prefixLength The current prefix length. Initially, it is zero.
-	 * @param database This is the original sequence database (as a set of QMatrix)
+	 * The items are processed in increasing order, sequentially or in parallel.
 	 * @throws IOException If an error occurs while reading/writting to file.
 	 */
-	private void uspanFirstTime(int[] prefix, int prefixLength, List<QMatrix> database) throws IOException {
+	private void uspanFirstTime() throws IOException {
 		
 		// For the first call to USpan, we only need to check I-CONCATENATIONS
 		// =======================  I-CONCATENATIONS  ===========================/
-		// scan the projected database to
+		// scan the database to
 		// calculate the SWU of each item
-		Map<Integer,Integer> mapItemSWU = new HashMap<Integer,Integer>();
+		int[] itemSWU = new int[items.length];
 		for(QMatrix  qmatrix : database) {
 			// for each row (item) we will update the swu of the corresponding item
 			for(int item : qmatrix.itemNames) {
-				// get its swu
-				Integer currentSWU = mapItemSWU.get(item);
-				// update its swu
-				if(currentSWU == null) {
-					mapItemSWU.put(item, qmatrix.swu);
-				}else {
-					mapItemSWU.put(item, currentSWU + qmatrix.swu);
-				}
+				itemSWU[item] += qmatrix.swu;
 			}
 		}
+		
+		if(threadCount > 1) {
+			uspanFirstTimeInParallel(itemSWU);
+			return;
+		}
 
+		// the buffer for the patterns that are grown
+		Branch branch = new Branch(writer);
 		// For each item 
-		for(Entry<Integer,Integer> entry: mapItemSWU.entrySet()) {
-			Integer itemSWU = entry.getValue();
+		for(int item = 0; item < items.length; item++) {
 			// if the item is promising
-			if(itemSWU >= minUtility) {
-				// We get the item
-				int item = entry.getKey();
-				// We initialize two variables for calculating the total utility and remaining utility
-				// of that item
-				int totalUtility = 0;
-				int totalRemainingUtility = 0;
+			if(itemSWU[item] >= minUtility) {
+				uspanItem(branch, item);
+			}
+		}
+		patternCount += branch.patternCount;
+		// we check the memory usage.
+		MemoryLogger.getInstance().checkMemory();
+	}
+	
+	/**
+	 * Find the high utility sequential patterns starting with each promising item in parallel.
+	 * The patterns starting with each item are found by a separate task of a fork-join pool,
+	 * which buffers the patterns that it finds. The buffers are then written in the order
+	 * of the items, so that the output is the same as for a sequential run.
+	 * Each thread reuses the same buffers (Branch) for all its tasks, and at most
+	 * TASKS_IN_FLIGHT_PER_THREAD tasks per thread are submitted ahead of the item whose
+	 * patterns are written, so that only these tasks hold an output buffer.
+	 * @param itemSWU the SWU of each item
+	 * @throws IOException If an error occurs while writting to file.
+	 */
+	private void uspanFirstTimeInParallel(int[] itemSWU) throws IOException {
+		// the promising items
+		List<Integer> promisingItems = new ArrayList<Integer>();
+		for(int item = 0; item < items.length; item++) {
+			if(itemSWU[item] >= minUtility) {
+				promisingItems.add(item);
+			}
+		}
+		// the buffers of each thread
+		ThreadLocal<Branch> branches = new ThreadLocal<Branch>() {
+			@Override
+			protected Branch initialValue() {
+				return new Branch(null);
+			}
+		};
+		// the tasks that are submitted and whose patterns are not written yet, in the order of the items
+		Deque<ItemTask> tasksInFlight = new ArrayDeque<ItemTask>();
+		int maxTasksInFlight = TASKS_IN_FLIGHT_PER_THREAD * threadCount;
+		// the position of the next item whose task will be submitted
+		int nextItem = 0;
+		
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			// save the patterns of each item, in the order of the items, as the tasks are finished
+			for(int i = 0; i < promisingItems.size(); i++) {
+				// submit the tasks of the next items
+				while(nextItem < promisingItems.size() && nextItem - i < maxTasksInFlight) {
+					ItemTask task = new ItemTask(promisingItems.get(nextItem++), branches);
+					pool.execute(task);
+					tasksInFlight.add(task);
+				}
+				// the task of this item (its buffer is released after it is written)
+				ItemTask task = tasksInFlight.poll();
+				task.join();
+				writer.write(task.output.toString());
+				patternCount += task.patternCount;
+			}
+		} catch (UncheckedIOException e) {
+			// an error occurred while writing the buffer of one of the tasks
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+			// the current thread may have executed some tasks while waiting
+			branches.remove();
+		}
+		// we check the memory usage.
+		MemoryLogger.getInstance().checkMemory();
+	}
+	
+	/**
+	 * A task finding the patterns starting with a promising item in parallel mode.
+	 */
+	private class ItemTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/** the item */
+		private final int item;
+		/** the buffers of each thread */
+		private final ThreadLocal<Branch> branches;
+		/** the buffer where the patterns are written */
+		private final StringWriter output = new StringWriter();
+		/** the number of patterns found */
+		private int patternCount;
+		/** the run of the algorithm, where the memory usage is recorded */
+		private final RunMetrics run = MemoryLogger.getInstance().getRunMetrics();
+		
+		/**
+		 * Constructor
+		 * @param item the item
+		 * @param branches the buffers of each thread used to grow the patterns
+		 */
+		ItemTask(int item, ThreadLocal<Branch> branches) {
+			this.item = item;
+			this.branches = branches;
+		}
+		
+		@Override
+		protected void compute() {
+			// use the buffers of this thread, with the output of this task
+			Branch branch = branches.get();
+			branch.writer = new BufferedWriter(output);
+			branch.patternCount = 0;
+			// record the memory usage of this thread in the run of the algorithm
+			RunMetrics previousRun = MemoryLogger.getInstance().setCurrentRun(run);
+			try {
+				uspanItem(branch, item);
+				branch.writer.flush();
+				patternCount = branch.patternCount;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				branch.writer = null;
+				MemoryLogger.getInstance().setCurrentRun(previousRun);
+			}
+		}
+	}
+	
+	/**
+	 * The buffers used to grow the patterns starting with a promising item: the current
+	 * pattern, the projected databases of each length and the arrays for calculating the SWU
+	 * of items. They are reused for all the patterns. In parallel mode, each thread has its own buffers,
+	 * and the writer is changed for each item.
+	 */
+	private class Branch {
+		/** buffer for storing the current pattern that is mined */
+		final int[] prefix = new int[BUFFERS_SIZE];
+		/** writer to write the patterns */
+		BufferedWriter writer;
+		/** the number of patterns found */
+		int patternCount = 0;
+		
+		/** the projected database of the patterns of each length (the position is the number of items) */
+		private final List<ProjectedDatabase> projections = new ArrayList<ProjectedDatabase>();
+		
+		/** the SWU of each item */
+		private final int[] itemSWU = new int[items.length];
+		/** the last projected sequence where each item was seen (-1 if it was not seen) */
+		private final int[] lastSequence = new int[items.length];
+		/** the items having a SWU */
+		private final int[] seenItems = new int[items.length];
+		/** the number of items having a SWU */
+		private int seenItemCount = 0;
+		
+		/**
+		 * Constructor
+		 * @param writer the writer to write the patterns
+		 */
+		Branch(BufferedWriter writer) {
+			this.writer = writer;
+			Arrays.fill(lastSequence, -1);
+		}
+		
+		/**
+		 * Get the empty projected database for the patterns having a given number of items.
+		 * @param itemCount the number of items
+		 * @return the projected database
+		 */
+		ProjectedDatabase getProjection(int itemCount) {
+			while(projections.size() <= itemCount) {
+				projections.add(new ProjectedDatabase());
+			}
+			ProjectedDatabase projection = projections.get(itemCount);
+			projection.clear();
+			return projection;
+		}
+		
+		/**
+		 * Add the local sequence utility of a projected sequence to the SWU of an item, if the
+		 * item was not seen in that sequence before.
+		 * @param item the item
+		 * @param sequence the projected sequence
+		 * @param localSequenceUtility the local sequence utility
+		 */
+		void addSWU(int item, int sequence, int localSequenceUtility) {
+			if(lastSequence[item] == -1) {
+				// if it is the first time that we see this item
+				seenItems[seenItemCount++] = item;
+				lastSequence[item] = sequence;
+				itemSWU[item] = localSequenceUtility;
+			}else if(lastSequence[item] != sequence) {
+				// otherwise if it is not the first time that we see this item
+				// but it is the first time that we see it in this sequence:
+				// We remember this sequence as the last sequence where we have seen this item
+				lastSequence[item] = sequence;
+				// We add the local sequence utility to the SWU of the item
+				itemSWU[item] += localSequenceUtility;
+			}
+		}
+		
+		/**
+		 * Get the items having a SWU not lower than the minimum utility, and reset the SWU of all items.
+		 * @return the promising items, in increasing order
+		 */
+		int[] getPromisingItems() {
+			int count = 0;
+			for(int i = 0; i < seenItemCount; i++) {
+				if(itemSWU[seenItems[i]] >= minUtility) {
+					count++;
+				}
+			}
+			int[] promisingItems = new int[count];
+			count = 0;
+			for(int i = 0; i < seenItemCount; i++) {
+				int item = seenItems[i];
+				if(itemSWU[item] >= minUtility) {
+					promisingItems[count++] = item;
+				}
+				itemSWU[item] = 0;
+				lastSequence[item] = -1;
+			}
+			seenItemCount = 0;
+			Arrays.sort(promisingItems);
+			return promisingItems;
+		}
+	}
+	
+	/**
+	 * Find the high utility sequential patterns starting with a promising item.
+	 * @param branch the buffers used to grow the patterns
+	 * @param item the item
+	 * @throws IOException If an error occurs while writting to file.
+	 */
+	private void uspanItem(Branch branch, int item) throws IOException {
+		// We initialize two variables for calculating the total utility and remaining utility
+		// of that item
+		int totalUtility = 0;
+		int totalRemainingUtility = 0;
+		
+		// We also initialize a variable to remember the projected qmatrixes of sequences
+		// where this item appears. This will be used for call to the recursive
+		// "uspan" method later.
+		ProjectedDatabase projection = branch.getProjection(1);
+		// For each sequence
+		for(int sequence = 0; sequence < database.length; sequence++) {
+			QMatrix qmatrix = database[sequence];
+			
+			// if the item appear in that sequence (in that qmatrix)
+			int row = Arrays.binarySearch(qmatrix.itemNames, item);
+			if(row >=0) {
+				// find the max utility of this item in that sequence
+				// and the max remaining utility
+				int maxUtility = 0;
+				int maxRemainingUtility = 0;
 				
-				// We also initialize a variable to remember the projected qmatrixes of sequences
-				// where this item appears. This will be used for call to the recursive
-				// "uspan" method later.
-				List<QMatrixProjection> matrixProjections = new ArrayList<QMatrixProjection>();
-				// For each sequence
-				for(QMatrix qmatrix : database){
-					
-					// if the item appear in that sequence (in that qmatrix)
-					int row = Arrays.binarySearch(qmatrix.itemNames, item);
-					if(row >=0) {
-
-						// create a list to store the positions (itemsets) where this item 
-						// appear in that sequence
-						List<MatrixPosition> positions = new ArrayList<MatrixPosition>();
-						
-						// find the max utility of this item in that sequence
-						// and the max remaining utility
-						int maxUtility = 0;
-						int maxRemainingUtility = 0;
+				// for each itemset in that sequence
+				for(int itemset=0; itemset < qmatrix.matrixItemRemainingUtility[row].length; itemset++) {
+					// get the utility of the item in that itemset
+					int utility = qmatrix.matrixItemUtility[row][itemset];
+					// if the utility is higher than 0
+					if(utility >0) {
+						// record this position
+						projection.addPosition(sequence, row, itemset, utility);
 						
-						// for each itemset in that sequence
-						for(int itemset=0; itemset < qmatrix.matrixItemRemainingUtility[row].length; itemset++) {
-							// get the utility of the item in that itemset
-							int utility = qmatrix.matrixItemUtility[row][itemset];
-							// if the utility is higher than 0
-							if(utility >0) {
-								// record this position
-								positions.add(new MatrixPosition(row,itemset, utility));
-								
-								// if it is the maximum utility until now
-								if(utility > maxUtility) {
-									// record it as the maximum utility until now
-									maxUtility = utility;
-									
-									// get the remaining utility at that position
-									int remaining = qmatrix.matrixItemRemainingUtility[row][itemset];
-									// If it is the first occurrence of this item
-									// we remember the remaining utility as the max remaining utility
-									if(remaining > 0 && maxRemainingUtility == 0) {
-										maxRemainingUtility = remaining;
-									}
-								}
+						// if it is the maximum utility until now
+						if(utility > maxUtility) {
+							// record it as the maximum utility until now
+							maxUtility = utility;
+							
+							// get the remaining utility at that position
+							int remaining = qmatrix.matrixItemRemainingUtility[row][itemset];
+							// If it is the first occurrence of this item
+							// we remember the remaining utility as the max remaining utility
+							if(remaining > 0 && maxRemainingUtility == 0) {
+								maxRemainingUtility = remaining;
 							}
 						}
-						
-						// update the total utility and total remaining utility for all sequences 
-						// until now by adding the utility and remaining utility of the current
-						// sequence
-						totalUtility += maxUtility;
-						totalRemainingUtility += maxRemainingUtility;
-						
-						// create the projected matrix for the current sequence
-						QMatrixProjection projection = new QMatrixProjection(qmatrix, positions);
-						// add the projected matrix to the current database projection with this item
-						matrixProjections.add(projection);
-					}
-				}
-
-				// if this item passes the depth pruning (remaining utility + totality >= minutil)
-				if(totalUtility + totalRemainingUtility >= minUtility) {
-					// create the pattern consisting of this item
-					// by appending the item to the prefix in the buffer, which is empty
-					prefix[0] = item;
-					// if the pattern is high utility, then output it
-					if(totalUtility >= minUtility) {
-						writeOut(prefix,1, totalUtility);
-					}
-
-					//Then, we recursively call the procedure uspan for growing this pattern and
-					// try to find larger high utility sequential patterns
-					if(1 < maxPatternLength) {
-						uspan(prefix, 1, matrixProjections, 1);
 					}
 				}
+				
+				// update the total utility and total remaining utility for all sequences 
+				// until now by adding the utility and remaining utility of the current
+				// sequence
+				totalUtility += maxUtility;
+				totalRemainingUtility += maxRemainingUtility;
 			}
 		}
-		// we check the memory usage.
-		MemoryLogger.getInstance().checkMemory();
-	}
 
+		// if this item passes the depth pruning (remaining utility + totality >= minutil)
+		if(totalUtility + totalRemainingUtility >= minUtility) {
+			// create the pattern consisting of this item
+			// by appending the item to the prefix in the buffer, which is empty
+			branch.prefix[0] = items[item];
+			// if the pattern is high utility, then output it
+			if(totalUtility >= minUtility) {
+				writeOut(branch, 1, totalUtility);
+			}
 
-	/**
-	 * This inner class is used to store the SWU of an item and the last sequence where it was seen.
-	 * It is used in the uspan() method.
-	 * 
-	 * @author Philippe Fournier-Viger, 2015
-	 *
-	 */
-	private class Pair{
-		/** the total SWU of an item */
-		int swu;
-		/** the last sequence where the item was seen  (represented by a projected QMatrix)*/
-		QMatrixProjection lastSID;
+			//Then, we recursively call the procedure uspan for growing this pattern and
+			// try to find larger high utility sequential patterns
+			if(1 < maxPatternLength) {
+				uspan(branch, 1, projection, 1);
+			}
+		}
 	}
 	
 	/**
 	 * This is the general USpan procedure to find all High utility sequential patterns of length
 	 * greater than 1. 
-	 * @param prefix  This is the buffer for storing the current prefix.
+	 * @param branch the buffers used to grow the patterns (containing the current prefix)
 	 * @param prefixLength The current prefix length. 
+	 * @param projectedDatabase the database projected with the prefix
 	 * @param itemCount the number of items in the prefix
 	 * @throws IOException If an error occurs while reading/writting to file.
 	 */
-	private void uspan(int[] prefix, int prefixLength, List<QMatrixProjection> projectedDatabase, int itemCount) throws IOException {
+	private void uspan(Branch branch, int prefixLength, ProjectedDatabase projectedDatabase, int itemCount) throws IOException {
 		// =======================  I-CONCATENATIONS  ===========================/
 		// We first try to perform I-Concatenations to grow the pattern larger.
 		// We scan the projected database to calculated the SWU of each item that could
 		// be concatenated to the prefix.
-		// The following map will store for each item, their SWU (key: item  value: swu)
-		Map<Integer,Pair> mapItemSWU = new HashMap<Integer,Pair>();
 		// For each sequence in the projected database
-		for(QMatrixProjection  qmatrix : projectedDatabase) {
+		for(int i = 0; i < projectedDatabase.size(); i++) {
+			QMatrix qmatrix = database[projectedDatabase.getSequence(i)];
+			int prefixRow = projectedDatabase.getRow(i);
 			
 			// For each position in that Q-matrix
-			for(MatrixPosition position : qmatrix.positions) {
+			for(int position = projectedDatabase.getFirstPosition(i); position < projectedDatabase.getEndPosition(i); position++) {
 				// Because we are looking for i-concatenation, we will search for items
 				// occurring in the same column (itemset) as the current position 
 				// but from the next row
-				int row = position.row+1;
-				int column = position.column;
+				int column = projectedDatabase.getColumn(position);
 				
 				// The sequence utility for updating the SWU
 				// will be the remaining utility at the current position
-				int localSequenceUtility = qmatrix.getLocalSequenceUtility(position);
+				int localSequenceUtility = qmatrix.matrixItemRemainingUtility[prefixRow][column];
+				int prefixUtility = projectedDatabase.getUtility(position);
 				
 				// for each row we will update the local SWU of the corresponding item
-				for(; row < qmatrix.getItemNames().length; row++) {
-					// get the item for this row
-					int item = qmatrix.getItemNames()[row];
-					
+				for(int row = prefixRow + 1; row < qmatrix.itemNames.length; row++) {
 					// if the item appears in that column
-					if(qmatrix.getItemUtility(row, column) > 0) {
-						// get its swu until now
-						Pair currentSWU = mapItemSWU.get(item);
-						// if it is the first time that we see this item
-						if(currentSWU == null) {
-							// We use a Pair object to store the SWU of the item and the
-							// last sequence where the item appears
-							Pair pair = new Pair();
-							pair.lastSID = qmatrix;
-							pair.swu = position.utility + localSequenceUtility;
-							// we put this Pair object in the map for storing the SWU of all items
-							mapItemSWU.put(item, pair);
-						}else if (currentSWU.lastSID != qmatrix){
-							// otherwise if it is not the first time that we see this item
-							// but it is the first time that we see it in this sequence:
-							// We remember this sequence as the last sequence where we have seen this item
-							currentSWU.lastSID = qmatrix;
-							// We add the local sequence utility to the SWU of the item
-							currentSWU.swu += position.utility + localSequenceUtility;
-						}
+					if(qmatrix.matrixItemUtility[row][column] > 0) {
+						branch.addSWU(qmatrix.itemNames[row], i, prefixUtility + localSequenceUtility);
 					}
 				}
 			}
@@ -635,159 +847,122 @@ public class AlgoUSpan {
 		// We perform a loop on each item and for each promising item we will create
 		// the i-concatenation and calculate the utility of the resulting pattern.
 		
-		// For each item
-		for(Entry<Integer,Pair> entry: mapItemSWU.entrySet()) {
-			// Get the Pair object that store the calculated SWU for that item
-			Pair itemSWU = entry.getValue();
-			// if the item is promising (SWU >= minutil)
-			if(itemSWU.swu >= minUtility) {
-				// get the item
-				int item = entry.getKey();
-				
-				// This variable will be used to calculate this item's utility for the whole database
-				int totalUtility = 0; 
-				// This variable will be used to calculate this item's remaining utility for the whole database
-				int totalRemainingUtility = 0;
-				
-				// Initialize a variable to store the projected QMatrixes for the i-concatenation
-				// of this item to the prefix
-				List<QMatrixProjection> matrixProjections = new ArrayList<QMatrixProjection>();
+		// For each promising item (SWU >= minutil)
+		for(int item : branch.getPromisingItems()) {
+			// This variable will be used to calculate this item's utility for the whole database
+			int totalUtility = 0; 
+			// This variable will be used to calculate this item's remaining utility for the whole database
+			int totalRemainingUtility = 0;
+			
+			// Initialize a variable to store the projected QMatrixes for the i-concatenation
+			// of this item to the prefix
+			ProjectedDatabase projection = branch.getProjection(itemCount + 1);
+			
+			// for each sequence in the projected database
+			for(int i = 0; i < projectedDatabase.size(); i++) {
+				int sequence = projectedDatabase.getSequence(i);
+				QMatrix qmatrix = database[sequence];
 				
-				// for each sequence in the projected database
-				for(QMatrixProjection qmatrix : projectedDatabase){
+				// if the item appear in that sequence
+				int rowItem = Arrays.binarySearch(qmatrix.itemNames, item);
+				if(rowItem >=0) {
 					
-					// if the item appear in that sequence
-					int rowItem = Arrays.binarySearch(qmatrix.getItemNames(), item);
-					if(rowItem >=0) {
-						
-						// We initialize two variables that will be used to calculate the maximum
-						// utility and remaining utility for the i-concatenation with this item 
-						// in that sequence
-						int maxUtility = 0;
-						int maxRemainingUtility = 0;
-						
-						// create a list to store the matrix positions of i-concatenations with
-						// this item in that sequence
-						List<MatrixPosition> positions = new ArrayList<MatrixPosition>();
+					// We initialize two variables that will be used to calculate the maximum
+					// utility and remaining utility for the i-concatenation with this item 
+					// in that sequence
+					int maxUtility = 0;
+					int maxRemainingUtility = 0;
+					
+					// for each position of the prefix
+					for(int position = projectedDatabase.getFirstPosition(i); position < projectedDatabase.getEndPosition(i); position++) {
+						// We will look for this item in the same column (in the same itemset)
+						// because we look for a i-concatenation
+						int column = projectedDatabase.getColumn(position);
 						
-						// for each position of the prefix
-						for(MatrixPosition position : qmatrix.positions) {
-							// We will look for this item in the same column (in the same itemset)
-							// because we look for a i-concatenation
-							int column = position.column;
+						// we will check if the new item appears in the same itemset
+						int newItemUtility = qmatrix.matrixItemUtility[rowItem][column];
+						// if the item appears in that itemset
+						if(newItemUtility >0) {
+							// calculate the utility of the i-concatenation at this position
+							// in that sequence
+							int newPrefixUtility = projectedDatabase.getUtility(position) + newItemUtility;
+							// Add this new position and its utility in the projection
+							// for this pattern
+							projection.addPosition(sequence, rowItem, column, newPrefixUtility);
 							
-							// we will check if the new item appears in the same itemset
-							int newItemUtility = qmatrix.getItemUtility(rowItem, column);
-							// if the item appears in that itemset
-							if(newItemUtility >0) {
-								// calculate the utility of the i-concatenation at this position
-								// in that sequence
-								int newPrefixUtility = position.utility + newItemUtility;
-								// Add this new position and its utility in the list of position
-								// for this pattern
-								positions.add(new MatrixPosition(rowItem, column, newPrefixUtility));
+							// If the utility of this new i-concatenation is higher than
+							// previous occurrences of that same pattern
+							if(newPrefixUtility > maxUtility) {
+								// record this utility as the maximum utility until now for that pattern
+								maxUtility = newPrefixUtility;
 								
-								// If the utility of this new i-concatenation is higher than
-								// previous occurrences of that same pattern
-								if(newPrefixUtility > maxUtility) {
-									// record this utility as the maximum utility until now for that pattern
-									maxUtility = newPrefixUtility;
-									
-									// Get the remaining utility at that position
-									int remaining = qmatrix.getRemainingUtility(rowItem, column);
-									
-									// If it is the first position where this i-concatenation occurs
-									// we record its remaining utility as the largest remaining utility
-									// for this i-concatenation
-									if(remaining > 0 && maxRemainingUtility == 0) {
-										maxRemainingUtility = remaining;
-									}
+								// Get the remaining utility at that position
+								int remaining = qmatrix.matrixItemRemainingUtility[rowItem][column];
+								
+								// If it is the first position where this i-concatenation occurs
+								// we record its remaining utility as the largest remaining utility
+								// for this i-concatenation
+								if(remaining > 0 && maxRemainingUtility == 0) {
+									maxRemainingUtility = remaining;
 								}
 							}
-						
 						}
-						
-						// update the total utility and total remaining utility for that i-concatenation
-						// for all sequences by adding the utility and remaining utility for the
-						// current sequence
-						totalUtility += maxUtility;
-						totalRemainingUtility += maxRemainingUtility;
-						
-						// create the projected matrix for the current sequence
-						QMatrixProjection projection = new QMatrixProjection(qmatrix, positions);
-						// Add it to the projected database for that i-concatenation.
-						matrixProjections.add(projection);
+					
 					}
+					
+					// update the total utility and total remaining utility for that i-concatenation
+					// for all sequences by adding the utility and remaining utility for the
+					// current sequence
+					totalUtility += maxUtility;
+					totalRemainingUtility += maxRemainingUtility;
 				}
+			}
 
-				// if his i-concatenation passes the depth pruning (remaining utility + totality)
-				if(totalUtility + totalRemainingUtility >= minUtility) {
-					// create the i-concatenation by appending the item to the prefix in the buffer
-					prefix[prefixLength] = item;
-					// if the i-concatenation is high utility, then output it
-					if(totalUtility >= minUtility) {
-						writeOut(prefix,prefixLength+1, totalUtility);
-					}
+			// if his i-concatenation passes the depth pruning (remaining utility + totality)
+			if(totalUtility + totalRemainingUtility >= minUtility) {
+				// create the i-concatenation by appending the item to the prefix in the buffer
+				branch.prefix[prefixLength] = items[item];
+				// if the i-concatenation is high utility, then output it
+				if(totalUtility >= minUtility) {
+					writeOut(branch, prefixLength+1, totalUtility);
+				}
 
-					// Finally, we recursively call the procedure uspan for growing this pattern
-					// to try to find larger patterns
-					if(itemCount+1 < maxPatternLength) {
-						uspan(prefix, prefixLength+1, matrixProjections, itemCount+1);
-					}
-					
+				// Finally, we recursively call the procedure uspan for growing this pattern
+				// to try to find larger patterns
+				if(itemCount+1 < maxPatternLength) {
+					uspan(branch, prefixLength+1, projection, itemCount+1);
 				}
+				
 			}
 		}
 		
 		// =======================  S-CONCATENATIONS  ===========================/
 		// We will next look for for S-CONCATENATIONS.
-		// We first clear the map for calculating the SWU of items to reuse it instead
-		// of creating a new one
-		mapItemSWU.clear();
 		// Now, we will loop over sequences of the projected database to calculate the local SWU
 		// of each item.
 		//For each sequence in the projected database
-		for(QMatrixProjection  qmatrix : projectedDatabase) {
+		for(int i = 0; i < projectedDatabase.size(); i++) {
+			QMatrix qmatrix = database[projectedDatabase.getSequence(i)];
+			int prefixRow = projectedDatabase.getRow(i);
 			
 			// For each position where the current prefix appear in the current sequence
-			for(MatrixPosition position : qmatrix.positions) {
+			for(int position = projectedDatabase.getFirstPosition(i); position < projectedDatabase.getEndPosition(i); position++) {
+				int prefixColumn = projectedDatabase.getColumn(position);
 
 				// The local sequence utility is the remaining utility at the current position
-				int localSequenceUtility = qmatrix.getLocalSequenceUtility(position);
+				int localSequenceUtility = qmatrix.matrixItemRemainingUtility[prefixRow][prefixColumn];
+				int prefixUtility = projectedDatabase.getUtility(position);
 				
 				// For each item
-				for(int row = 0; row < qmatrix.getItemNames().length; row++) {
-					// get the item
-					int item = qmatrix.getItemNames()[row];
-					
+				for(int row = 0; row < qmatrix.itemNames.length; row++) {
 					// We will look for s-concatenations starting from the next itemset (column)
 					// For each column
-					for(int column = position.column+1; 
-							column < qmatrix.originalMatrix.matrixItemUtility[row].length; column++) {
+					for(int column = prefixColumn+1; 
+							column < qmatrix.matrixItemUtility[row].length; column++) {
 						// if the item appears in that column
-						if(qmatrix.getItemUtility(row, column) > 0) {
-							// get its swu until now
-							Pair currentSWU = mapItemSWU.get(item);
-							// if it is 0
-							if(currentSWU == null) {
-								// We create a Pair object to store the SWU until now of that item
-								Pair pair = new Pair();
-								// We remember that this sequence is the last seen sequence containing
-								// that item
-								pair.lastSID = qmatrix;
-								// We update the SWU of that item by adding this local sequence utility
-								pair.swu = position.utility + localSequenceUtility;
-								// We put the pair in the map
-								mapItemSWU.put(item, pair);
-							}else if (currentSWU.lastSID != qmatrix){
-								// Otherwise, if it is not the first time that we see this item
-								// but it is the first time that we see it in this sequence:
-								// We remember this sequence as the last one that was seen containing
-								// this item
-								currentSWU.lastSID = qmatrix;
-								// We update the SWU of that item by adding this local sequence utility
-								currentSWU.swu += position.utility + localSequenceUtility;
-							}
+						if(qmatrix.matrixItemUtility[row][column] > 0) {
+							// We update the SWU of that item by adding this local sequence utility
+							branch.addSWU(qmatrix.itemNames[row], i, prefixUtility + localSequenceUtility);
 							// we don't need to check the other column if we found one column where this item
 							// appears after the previous item.
 							break;
@@ -799,112 +974,97 @@ public class AlgoUSpan {
 		
 		// Next we will calculate the utility of each s-concatenation for promising 
 		// items that can be appended by s-concatenation
-		for(Entry<Integer,Pair> entry: mapItemSWU.entrySet()) {
-//			System.out.println(entry.getKey() + "  swu: " + entry.getValue().swu);
-			// Get the item and its SWU
-			Pair itemSWU = entry.getValue();
-			// if the item is promising (SWU >= minutil
-			if(itemSWU.swu >= minUtility) {
-
-				// get the item
-				int item = entry.getKey();
-
-				// This variable is used to store the utility of this s-concatenation in the whole database
-				int totalUtility = 0; 
+		for(int item : branch.getPromisingItems()) {
+			// This variable is used to store the utility of this s-concatenation in the whole database
+			int totalUtility = 0; 
 
-				// This variable is used to store the remaining utility of this 
-				// s-concatenation in the whole database
-				int totalRemainingUtility = 0;
-				
-				// Initialize a variable to store position of the last item of this s-concatenation
-				List<QMatrixProjection> matrixProjections = new ArrayList<QMatrixProjection>();
+			// This variable is used to store the remaining utility of this 
+			// s-concatenation in the whole database
+			int totalRemainingUtility = 0;
+			
+			// Initialize a variable to store position of the last item of this s-concatenation
+			ProjectedDatabase projection = branch.getProjection(itemCount + 1);
+			
+			// For each sequence of the projected database,
+			// we check if the item appears and calculate the maximum utility
+			for(int i = 0; i < projectedDatabase.size(); i++) {
+				int sequence = projectedDatabase.getSequence(i);
+				QMatrix qmatrix = database[sequence];
 				
-				// For each sequence of the projected database,
-				// we check if the item appears and calculate the maximum utility
-				for(QMatrixProjection qmatrix : projectedDatabase){
+				// if the item appear in that qMatrix
+				int rowItem = Arrays.binarySearch(qmatrix.itemNames, item);
+				if(rowItem >=0) {
 					
-					// if the item appear in that qMatrix
-					int rowItem = Arrays.binarySearch(qmatrix.getItemNames(), item);
-					if(rowItem >=0) {
-						
-						// We will calculate the max utility and maximum remaining utility of that
-						// s-concatenation with the item
-						// This variable will store the maximum utility
-						int maxUtility = 0;
-						// This variable will store the maximum remaining utility
-						int maxRemainingUtility = 0;
-						
-						// create a list to store the matrix positions of this item in that sequence
-						List<MatrixPosition> positions = new ArrayList<MatrixPosition>();
+					// We will calculate the max utility and maximum remaining utility of that
+					// s-concatenation with the item
+					// This variable will store the maximum utility
+					int maxUtility = 0;
+					// This variable will store the maximum remaining utility
+					int maxRemainingUtility = 0;
+					
+					// for each position of the last item of the prefix
+					for(int position = projectedDatabase.getFirstPosition(i); position < projectedDatabase.getEndPosition(i); position++) {
+						int prefixUtility = projectedDatabase.getUtility(position);
 						
-						// for each position of the last item of the prefix
-						for(MatrixPosition position : qmatrix.positions) {
+						// We will start searching for the item starting at the next itemset (column)
+						// because we are looking for s-concatenations					
+						// For each column (itemset) after the last item of the prefix
+						for(int column = projectedDatabase.getColumn(position)+1; 
+								column < qmatrix.matrixItemUtility[rowItem].length; column++) {
 							
-							// We will start searching for the item starting at the next itemset (column)
-							// because we are looking for s-concatenations					
-							// For each column (itemset) after the last item of the prefix
-							for(int column = position.column+1; 
-									column < qmatrix.originalMatrix.matrixItemUtility[rowItem].length; column++) {
+							// we will check if the new item appears in the same itemset
+							int newItemUtility = qmatrix.matrixItemUtility[rowItem][column];
+							// if the item appears
+							if(newItemUtility >0) {
+								// We calculate the utility of the s-concatenation with this item
+								int newPrefixUtility = prefixUtility + newItemUtility;
+								// We record the current position as the end of this
+								// s-concatenation
+								projection.addPosition(sequence, rowItem, column, newPrefixUtility);
 								
-								// we will check if the new item appears in the same itemset
-								int newItemUtility = qmatrix.getItemUtility(rowItem, column);
-								// if the item appears
-								if(newItemUtility >0) {
-									// We calculate the utility of the s-concatenation with this item
-									int newPrefixUtility = position.utility + newItemUtility;
-									// We record the current position as the end of this
-									// s-concatenation
-									positions.add(new MatrixPosition(rowItem, column, newPrefixUtility));
+								// if this s-concatenation utility is higher than 
+								// what we seen until now for that sequence
+								if(newPrefixUtility > maxUtility) {
+									// We record the utiltiy of this s concatenation
+									maxUtility = newPrefixUtility;
 									
-									// if this s-concatenation utility is higher than 
-									// what we seen until now for that sequence
-									if(newPrefixUtility > maxUtility) {
-										// We record the utiltiy of this s concatenation
-										maxUtility = newPrefixUtility;
-										
-										// we get the remaining utility of this s-concatenation
-										int remaining = qmatrix.getRemainingUtility(rowItem, column);
-										// if it is the first s-concatenation that we have seen
-										// we remember the remaining utility
-										if(remaining > 0 && maxRemainingUtility == 0) {
-											maxRemainingUtility = remaining;
-										}
+									// we get the remaining utility of this s-concatenation
+									int remaining = qmatrix.matrixItemRemainingUtility[rowItem][column];
+									// if it is the first s-concatenation that we have seen
+									// we remember the remaining utility
+									if(remaining > 0 && maxRemainingUtility == 0) {
+										maxRemainingUtility = remaining;
 									}
-								}	
-							}
+								}
+							}	
 						}
-						
-						// Add the  utility and  remaining utility of this s-concatenation in 
-						// that sequence to the utility and remaining utility of this s-concatenation
-						// for the whole database.
-						totalUtility += maxUtility;
-						totalRemainingUtility += maxRemainingUtility;
-						
-						// create the projected matrix for this s-concatenation
-						QMatrixProjection projection = new QMatrixProjection(qmatrix, positions);
-						// add it to the projected database
-						matrixProjections.add(projection);
 					}
+					
+					// Add the  utility and  remaining utility of this s-concatenation in 
+					// that sequence to the utility and remaining utility of this s-concatenation
+					// for the whole database.
+					totalUtility += maxUtility;
+					totalRemainingUtility += maxRemainingUtility;
 				}
+			}
 
-				// if this s-concatenation passes the depth pruning 
-				// (remaining utility + totality >= minutil)
-				if(totalUtility + totalRemainingUtility >= minUtility) {
-					// create ths s-concatenation by appending an itemset separator to 
-					// start a new itemset
-					prefix[prefixLength] = -1;
-					// then we append the new item
-					prefix[prefixLength+1] = item;
-					// if this s-concatenation is high utility, then we output it
-					if(totalUtility >= minUtility) {
-						writeOut(prefix,prefixLength+2, totalUtility);
-					}
+			// if this s-concatenation passes the depth pruning 
+			// (remaining utility + totality >= minutil)
+			if(totalUtility + totalRemainingUtility >= minUtility) {
+				// create ths s-concatenation by appending an itemset separator to 
+				// start a new itemset
+				branch.prefix[prefixLength] = -1;
+				// then we append the new item
+				branch.prefix[prefixLength+1] = items[item];
+				// if this s-concatenation is high utility, then we output it
+				if(totalUtility >= minUtility) {
+					writeOut(branch, prefixLength+2, totalUtility);
+				}
 
-					// Finally, we recursively call the procedure uspan() for growing this pattern
-					// to try to find larger high utilit sequential patterns
-					if(itemCount+1 < maxPatternLength) {
-						uspan(prefix, prefixLength+2, matrixProjections, itemCount+1);
-					}
+				// Finally, we recursively call the procedure uspan() for growing this pattern
+				// to try to find larger high utilit sequential patterns
+				if(itemCount+1 < maxPatternLength) {
+					uspan(branch, prefixLength+2, projection, itemCount+1);
 				}
 			}
 		}
@@ -920,14 +1080,29 @@ public class AlgoUSpan {
 		this.maxPatternLength = maxPatternLength;
 	}
 	
+	/**
+	 * Set the number of threads to be used for finding the patterns.
+	 * If it is greater than 1, the patterns starting with each promising item are found in parallel.
+	 * The patterns found and their order are the same as for a sequential run.
+	 * @param threadCount the number of threads (1 by default)
+	 */
+	public void setThreadCount(int threadCount) {
+		if(threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		this.threadCount = threadCount;
+	}
+	
 	/**
 	 * Method to write a high utility itemset to the output file.
+	 * @param branch the buffers containing the prefix and the writer
 	 * @param utility the utility of the prefix concatenated with the item
 	 * @param prefixLength the prefix length
 	 */
-	private void writeOut(int[] prefix, int prefixLength,  int utility) throws IOException {
+	private void writeOut(Branch branch, int prefixLength,  int utility) throws IOException {
 		// increase the number of high utility itemsets found
-		patternCount++; 
+		branch.patternCount++; 
+		int[] prefix = branch.prefix;
 		
 		StringBuilder buffer = new StringBuilder();
 		
@@ -962,8 +1137,8 @@ public class AlgoUSpan {
 		}
 		
 		// write the pattern to the output file
-		writer.write(buffer.toString());
-		writer.newLine();
+		branch.writer.write(buffer.toString());
+		branch.writer.newLine();
 		
 		// if in debugging mode, then also print the pattern to the console
 		if(DEBUG) {
@@ -1166,6 +1341,20 @@ public class AlgoUSpan {
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
 		System.out.println(" High-utility sequential pattern count : " + patternCount); 
+		if(threadCount > 1) {
+			System.out.println(" Thread count : " + threadCount);
+		}
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("========================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package ca.pfv.spmf.algorithms.sequentialpatterns.uspan;
+
+/* Copyright (c) 2008-2015 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+/**
+ * This class represents the projection of a sequence database (a list of QMatrix)
+ * with a prefix, as used by USpan. For each sequence containing the prefix, it stores
+ * the sequence, the row of the last item of the prefix in the QMatrix of that sequence,
+ * and the positions where the prefix ends (a column of the QMatrix and the utility of
+ * the prefix at that position). <br/><br/>
+ *
+ * All the values are stored in int arrays rather than as objects, and
+ * the arrays are kept when the database is cleared, so that the same object can
+ * be reused for projecting the database with many prefixes.
+ *
+ * @author Philippe Fournier-Viger, 2015
+ * @see AlgoUSpan
+ * @see QMatrix
+ */
+class ProjectedDatabase {
+
+	/** the sequence (position in the database) of each projected sequence */
+	private int[] sequences = new int[16];
+	/** the row of the last item of the prefix in the QMatrix of each projected sequence */
+	private int[] rows = new int[16];
+	/** the first position of each projected sequence in the arrays of positions */
+	private int[] firstPositions = new int[16];
+	/** the number of projected sequences */
+	private int size = 0;
+
+	/** the column of each position */
+	private int[] columns = new int[64];
+	/** the utility of the prefix at each position */
+	private int[] utilities = new int[64];
+	/** the number of positions */
+	private int positionCount = 0;
+
+	/**
+	 * Remove all the projected sequences, but keep the arrays for reusing them.
+	 */
+	void clear() {
+		size = 0;
+		positionCount = 0;
+	}
+
+	/**
+	 * Add a position where the prefix ends. The positions of a sequence must be
+	 * added one after the other.
+	 * @param sequence the sequence (position in the database)
+	 * @param row the row of the last item of the prefix in the QMatrix of that sequence
+	 * @param column the column of the position
+	 * @param utility the utility of the prefix at that position
+	 */
+	void addPosition(int sequence, int row, int column, int utility) {
+		// if it is the first position in that sequence, add the sequence
+		if (size == 0 || sequences[size - 1] != sequence) {
+			if (size == sequences.length) {
+				int newCapacity = size + (size >> 1);
+				sequences = resize(sequences, newCapacity);
+				rows = resize(rows, newCapacity);
+				firstPositions = resize(firstPositions, newCapacity);
+			}
+			sequences[size] = sequence;
+			rows[size] = row;
+			firstPositions[size] = positionCount;
+			size++;
+		}
+		if (positionCount == columns.length) {
+			int newCapacity = positionCount + (positionCount >> 1);
+			columns = resize(columns, newCapacity);
+			utilities = resize(utilities, newCapacity);
+		}
+		columns[positionCount] = column;
+		utilities[positionCount] = utility;
+		positionCount++;
+	}
+
+	/**
+	 * Copy an array to a larger array
+	 * @param array the array
+	 * @param newCapacity the size of the new array
+	 * @return the new array
+	 */
+	private static int[] resize(int[] array, int newCapacity) {
+		int[] newArray = new int[newCapacity];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
+	/**
+	 * Get the number of projected sequences
+	 * @return the number of sequences
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get the sequence of a projected sequence
+	 * @param i the projected sequence
+	 * @return the position of the sequence in the database
+	 */
+	int getSequence(int i) {
+		return sequences[i];
+	}
+
+	/**
+	 * Get the row of the last item of the prefix in the QMatrix of a projected sequence
+	 * @param i the projected sequence
+	 * @return the row
+	 */
+	int getRow(int i) {
+		return rows[i];
+	}
+
+	/**
+	 * Get the first position of a projected sequence
+	 * @param i the projected sequence
+	 * @return the first position (for getColumn() and getUtility())
+	 */
+	int getFirstPosition(int i) {
+		return firstPositions[i];
+	}
+
+	/**
+	 * Get the position after the last position of a projected sequence
+	 * @param i the projected sequence
+	 * @return the position after the last position
+	 */
+	int getEndPosition(int i) {
+		return i + 1 < size ? firstPositions[i + 1] : positionCount;
+	}
+
+	/**
+	 * Get the column of a position
+	 * @param position the position
+	 * @return the column
+	 */
+	int getColumn(int position) {
+		return columns[position];
+	}
+
+	/**
+	 * Get the utility of the prefix at a position
+	 * @param position the position
+	 * @return the utility
+	 */
+	int getUtility(int position) {
+		return utilities[position];
+	}
+}
@@ -29,7 +29,7 @@ class QMatrix {
 	int matrixItemUtility[][];
 	/** the qmatrix for remaining utility [item][itemset] -> remaining utility*/
 	int matrixItemRemainingUtility[][];
-	/** the item names */
+	/** the items of the rows, in increasing order (represented by their position in the array of promising items of AlgoUSpan) */
 	int[] itemNames;
 	/** the swu of this sequence **/
 	int swu;
@@ -23,6 +23,7 @@ import java.util.Arrays;
 
 import ca.pfv.spmf.algorithms.timeseries.TimeSeries;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * An algorithm to calculate the moving average of a time series. 
@@ -36,6 +37,7 @@ public class AlgoMovingAverage {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -80,6 +82,7 @@ public class AlgoMovingAverage {
 		MemoryLogger.getInstance().checkMemory();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		return movingAverage;
 	}
@@ -135,7 +138,17 @@ public class AlgoMovingAverage {
 		System.out.println("=============  Transform to Moving Average v2.05- STATS =============");
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import ca.pfv.spmf.algorithms.timeseries.TimeSeries;
 import ca.pfv.spmf.algorithms.timeseries.sax.AlgoSAX;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 /**
  * An implementation of the algorithm to generate the Piecewise Aggregate Approximation of a time series
@@ -44,6 +45,7 @@ public class AlgoPiecewiseAggregateApproximation {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -96,6 +98,7 @@ public class AlgoPiecewiseAggregateApproximation {
 		MemoryLogger.getInstance().checkMemory();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		return paaSeries;
 	}
@@ -201,7 +204,17 @@ public class AlgoPiecewiseAggregateApproximation {
 		System.out.println("=============  Transform To PAA  ALGORITHM v2.05- STATS =============");
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
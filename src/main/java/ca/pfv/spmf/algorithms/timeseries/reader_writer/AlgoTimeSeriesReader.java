@@ -20,6 +20,7 @@ package ca.pfv.spmf.algorithms.timeseries.reader_writer;
 import ca.pfv.spmf.algorithms.ArraysAlgos;
 import ca.pfv.spmf.algorithms.timeseries.TimeSeries;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -41,6 +42,7 @@ public class AlgoTimeSeriesReader {
 	
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -134,6 +136,7 @@ public class AlgoTimeSeriesReader {
 		MemoryLogger.getInstance().checkMemory();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 		
 		// return the time series
 		return multipleTimeSeries;
@@ -147,6 +150,17 @@ public class AlgoTimeSeriesReader {
 		System.out.println(" Number of time series processed: " + timeSeriesCount);
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("=====================================================================");
 	}
+
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
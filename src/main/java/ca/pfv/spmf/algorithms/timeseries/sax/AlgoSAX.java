@@ -21,6 +21,7 @@ package ca.pfv.spmf.algorithms.timeseries.sax;
 import ca.pfv.spmf.algorithms.timeseries.TimeSeries;
 import ca.pfv.spmf.algorithms.timeseries.paa.AlgoPiecewiseAggregateApproximation;
 import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -44,6 +45,7 @@ public class AlgoSAX {
     private long startTimestamp = 0;
 	/** the time the algorithm terminated */
     private long endTimestamp = 0;
+    private RunMetrics runMetrics = null; // the resources used by the latest execution
 	
 	/** This program will execute in DEBUG MODE if this variable is true */
     private boolean DEBUG_MODE = false;
@@ -169,6 +171,7 @@ public class AlgoSAX {
 		MemoryLogger.getInstance().checkMemory();
 		// record end time
 		endTimestamp = System.currentTimeMillis();
+		runMetrics = MemoryLogger.getInstance().stopRun();
 
 		return saxSequence;
 	}
@@ -291,6 +294,7 @@ public class AlgoSAX {
 			MemoryLogger.getInstance().checkMemory();
 			// record end time
 			endTimestamp = System.currentTimeMillis();
+			runMetrics = MemoryLogger.getInstance().stopRun();
 
 			return saxSequences;
 	}
@@ -473,7 +477,17 @@ Double.POSITIVE_INFINITY};
 		System.out.println(" Number of time series processed: " + timeSeriesCount);
 		System.out.println(" Total time ~ " + (endTimestamp - startTimestamp) + " ms");
 		System.out.println(" Max Memory ~ " + MemoryLogger.getInstance().getMaxMemory() + " MB");
+		if(runMetrics != null) {
+			System.out.print(runMetrics);
+		}
 		System.out.println("===================================================");
 	}
 
+	/**
+	 * Get the resources (memory, garbage collection, time of each phase) used by the latest execution.
+	 * @return the statistics of the latest execution
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
 }
\ No newline at end of file
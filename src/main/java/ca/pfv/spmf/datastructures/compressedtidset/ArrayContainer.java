@@ -0,0 +1,264 @@
+package ca.pfv.spmf.datastructures.compressedtidset;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.Arrays;
+
+/**
+ * This class is a container of a CompressedTidset where the values are stored in a sorted
+ * array of 16-bit values. It is used for chunks containing at most 4096 values.
+ *
+ * @see Container
+ * @see CompressedTidset
+ * @author Philippe Fournier-Viger
+ */
+class ArrayContainer extends Container {
+
+	/** the values, sorted by increasing order */
+	char[] values;
+
+	/** the number of values */
+	int size;
+
+	/**
+	 * Constructor of an empty container
+	 * @param capacity the initial capacity
+	 */
+	ArrayContainer(int capacity) {
+		values = new char[capacity];
+	}
+
+	/**
+	 * Constructor
+	 * @param values the values, sorted by increasing order
+	 * @param size the number of values
+	 */
+	ArrayContainer(char[] values, int size) {
+		this.values = values;
+		this.size = size;
+	}
+
+	/**
+	 * Get an array container containing the values of another container
+	 * (which must have at most MAX_ARRAY_SIZE values).
+	 * @param container the other container
+	 * @return a new array container
+	 */
+	static ArrayContainer from(Container container) {
+		int[] buffer = new int[container.cardinality()];
+		int count = container.fill(buffer);
+		char[] values = new char[count];
+		for(int i = 0; i < count; i++) {
+			values[i] = (char) buffer[i];
+		}
+		return new ArrayContainer(values, count);
+	}
+
+	int cardinality() {
+		return size;
+	}
+
+	boolean contains(int value) {
+		return Arrays.binarySearch(values, 0, size, (char) value) >= 0;
+	}
+
+	Container add(int value) {
+		// tids are generally added by increasing order, so we first check if the value
+		// can be appended
+		int position;
+		if(size == 0 || values[size - 1] < value) {
+			position = size;
+		}else {
+			position = Arrays.binarySearch(values, 0, size, (char) value);
+			if(position >= 0) {
+				return this;
+			}
+			position = -position - 1;
+		}
+		// if the container is full, it is converted to a bitmap
+		if(size == MAX_ARRAY_SIZE) {
+			return toBitmapContainer().add(value);
+		}
+		if(size == values.length) {
+			values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, size + (size >> 1) + 4));
+		}
+		System.arraycopy(values, position, values, position + 1, size - position);
+		values[position] = (char) value;
+		size++;
+		return this;
+	}
+
+	Container and(Container other) {
+		char[] result = new char[other instanceof ArrayContainer ? Math.min(size, ((ArrayContainer) other).size) : size];
+		int count = 0;
+		if(other instanceof ArrayContainer) {
+			ArrayContainer array = (ArrayContainer) other;
+			// if the other array is much larger, a binary search is faster than a merge
+			if(size * 32 < array.size) {
+				for(int i = 0; i < size; i++) {
+					if(array.contains(values[i])) {
+						result[count++] = values[i];
+					}
+				}
+			}else if(array.size * 32 < size) {
+				for(int j = 0; j < array.size; j++) {
+					if(contains(array.values[j])) {
+						result[count++] = array.values[j];
+					}
+				}
+			}else {
+				int i = 0;
+				int j = 0;
+				while(i < size && j < array.size) {
+					char a = values[i];
+					char b = array.values[j];
+					if(a < b) {
+						i++;
+					}else if(a > b) {
+						j++;
+					}else {
+						result[count++] = a;
+						i++;
+						j++;
+					}
+				}
+			}
+		}else {
+			for(int i = 0; i < size; i++) {
+				if(other.contains(values[i])) {
+					result[count++] = values[i];
+				}
+			}
+		}
+		return trimmed(result, count);
+	}
+
+	int andCardinality(Container other) {
+		int count = 0;
+		if(other instanceof ArrayContainer) {
+			ArrayContainer array = (ArrayContainer) other;
+			int i = 0;
+			int j = 0;
+			while(i < size && j < array.size) {
+				char a = values[i];
+				char b = array.values[j];
+				if(a < b) {
+					i++;
+				}else if(a > b) {
+					j++;
+				}else {
+					count++;
+					i++;
+					j++;
+				}
+			}
+		}else {
+			for(int i = 0; i < size; i++) {
+				if(other.contains(values[i])) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	Container andNot(Container other) {
+		char[] result = new char[size];
+		int count = 0;
+		if(other instanceof ArrayContainer) {
+			ArrayContainer array = (ArrayContainer) other;
+			int j = 0;
+			for(int i = 0; i < size; i++) {
+				char a = values[i];
+				while(j < array.size && array.values[j] < a) {
+					j++;
+				}
+				if(j == array.size || array.values[j] != a) {
+					result[count++] = a;
+				}
+			}
+		}else {
+			for(int i = 0; i < size; i++) {
+				if(!other.contains(values[i])) {
+					result[count++] = values[i];
+				}
+			}
+		}
+		return trimmed(result, count);
+	}
+
+	/**
+	 * Create an array container from an array that may be larger than necessary.
+	 * @param values the values
+	 * @param count the number of values
+	 * @return a new container
+	 */
+	private static ArrayContainer trimmed(char[] values, int count) {
+		return new ArrayContainer(count == values.length ? values : Arrays.copyOf(values, count), count);
+	}
+
+	int fill(int[] buffer) {
+		for(int i = 0; i < size; i++) {
+			buffer[i] = values[i];
+		}
+		return size;
+	}
+
+	long sum() {
+		long sum = 0;
+		for(int i = 0; i < size; i++) {
+			sum += values[i];
+		}
+		return sum;
+	}
+
+	int nextValue(int from) {
+		int position = Arrays.binarySearch(values, 0, size, (char) from);
+		if(position < 0) {
+			position = -position - 1;
+		}
+		return position < size ? values[position] : -1;
+	}
+
+	void orInto(long[] words) {
+		for(int i = 0; i < size; i++) {
+			words[values[i] >>> 6] |= 1L << values[i];
+		}
+	}
+
+	int numberOfRuns() {
+		int runs = size == 0 ? 0 : 1;
+		for(int i = 1; i < size; i++) {
+			if(values[i] != values[i - 1] + 1) {
+				runs++;
+			}
+		}
+		return runs;
+	}
+
+	Container runOptimize() {
+		return smallest(this);
+	}
+
+	Container copy() {
+		return new ArrayContainer(Arrays.copyOf(values, size), size);
+	}
+
+	long getSizeInBytes() {
+		return 2L * values.length + 16;
+	}
+}
@@ -0,0 +1,267 @@
+package ca.pfv.spmf.datastructures.compressedtidset;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+/**
+ * This class is a container of a CompressedTidset where the values are stored in a bitmap
+ * of 65536 bits. It is used for chunks containing more than 4096 values.
+ *
+ * @see Container
+ * @see CompressedTidset
+ * @author Philippe Fournier-Viger
+ */
+class BitmapContainer extends Container {
+
+	/** the number of longs of the bitmap */
+	static final int WORD_COUNT = CHUNK_SIZE / 64;
+
+	/** the bitmap */
+	final long[] words;
+
+	/** the number of bits set to 1 (it is stored because counting them is expensive) */
+	int cardinality;
+
+	/**
+	 * Constructor
+	 * @param words the bitmap
+	 * @param cardinality the number of bits set to 1 in the bitmap
+	 */
+	BitmapContainer(long[] words, int cardinality) {
+		this.words = words;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * Get a container for a bitmap, which is an array container if there are few values.
+	 * @param words the bitmap
+	 * @param cardinality the number of bits set to 1 in the bitmap
+	 * @return a new container
+	 */
+	static Container of(long[] words, int cardinality) {
+		BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+		return cardinality <= MAX_ARRAY_SIZE ? ArrayContainer.from(bitmap) : bitmap;
+	}
+
+	int cardinality() {
+		return cardinality;
+	}
+
+	boolean contains(int value) {
+		return (words[value >>> 6] & (1L << value)) != 0;
+	}
+
+	Container add(int value) {
+		long before = words[value >>> 6];
+		long after = before | (1L << value);
+		if(before != after) {
+			words[value >>> 6] = after;
+			cardinality++;
+		}
+		return this;
+	}
+
+	Container and(Container other) {
+		if(other instanceof ArrayContainer) {
+			return other.and(this);
+		}
+		long[] otherWords = other instanceof BitmapContainer ? ((BitmapContainer) other).words
+				: other.toBitmapContainer().words;
+		int count = 0;
+		for(int i = 0; i < WORD_COUNT; i++) {
+			count += Long.bitCount(words[i] & otherWords[i]);
+		}
+		if(count <= MAX_ARRAY_SIZE) {
+			// the result is sparse, so its values are directly written in an array
+			char[] values = new char[count];
+			int size = 0;
+			for(int i = 0; size < count; i++) {
+				size = extract(words[i] & otherWords[i], i, values, size);
+			}
+			return new ArrayContainer(values, count);
+		}
+		long[] result = new long[WORD_COUNT];
+		for(int i = 0; i < WORD_COUNT; i++) {
+			result[i] = words[i] & otherWords[i];
+		}
+		return new BitmapContainer(result, count);
+	}
+
+	int andCardinality(Container other) {
+		if(other instanceof ArrayContainer) {
+			return other.andCardinality(this);
+		}
+		long[] otherWords = other instanceof BitmapContainer ? ((BitmapContainer) other).words
+				: other.toBitmapContainer().words;
+		int count = 0;
+		for(int i = 0; i < WORD_COUNT; i++) {
+			count += Long.bitCount(words[i] & otherWords[i]);
+		}
+		return count;
+	}
+
+	Container andNot(Container other) {
+		long[] result;
+		int count = cardinality;
+		if(other instanceof ArrayContainer) {
+			result = words.clone();
+			ArrayContainer array = (ArrayContainer) other;
+			for(int i = 0; i < array.size; i++) {
+				int value = array.values[i];
+				long word = result[value >>> 6];
+				long cleared = word & ~(1L << value);
+				if(word != cleared) {
+					result[value >>> 6] = cleared;
+					count--;
+				}
+			}
+		}else {
+			long[] otherWords = other instanceof BitmapContainer ? ((BitmapContainer) other).words
+					: other.toBitmapContainer().words;
+			count = 0;
+			for(int i = 0; i < WORD_COUNT; i++) {
+				count += Long.bitCount(words[i] & ~otherWords[i]);
+			}
+			if(count <= MAX_ARRAY_SIZE) {
+				// the result is sparse, so its values are directly written in an array
+				char[] values = new char[count];
+				int size = 0;
+				for(int i = 0; size < count; i++) {
+					size = extract(words[i] & ~otherWords[i], i, values, size);
+				}
+				return new ArrayContainer(values, count);
+			}
+			result = words.clone();
+			for(int i = 0; i < WORD_COUNT; i++) {
+				result[i] &= ~otherWords[i];
+			}
+			return new BitmapContainer(result, count);
+		}
+		return of(result, count);
+	}
+
+	/**
+	 * Write the values of the bits set to 1 in a word of a bitmap to an array.
+	 * @param word the word
+	 * @param index the position of the word in the bitmap
+	 * @param values the array
+	 * @param size the number of values already in the array
+	 * @return the new number of values in the array
+	 */
+	private static int extract(long word, int index, char[] values, int size) {
+		while(word != 0) {
+			values[size++] = (char) ((index << 6) + Long.numberOfTrailingZeros(word));
+			word &= word - 1;
+		}
+		return size;
+	}
+
+	int fill(int[] buffer) {
+		int count = 0;
+		for(int i = 0; i < WORD_COUNT; i++) {
+			long word = words[i];
+			while(word != 0) {
+				buffer[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return count;
+	}
+
+	long sum() {
+		long sum = 0;
+		for(int i = 0; i < WORD_COUNT; i++) {
+			long word = words[i];
+			while(word != 0) {
+				sum += (i << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return sum;
+	}
+
+	int nextValue(int from) {
+		if(from >= CHUNK_SIZE) {
+			return -1;
+		}
+		int i = from >>> 6;
+		long word = words[i] & (-1L << from);
+		while(true) {
+			if(word != 0) {
+				return (i << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if(++i == WORD_COUNT) {
+				return -1;
+			}
+			word = words[i];
+		}
+	}
+
+	void orInto(long[] target) {
+		for(int i = 0; i < WORD_COUNT; i++) {
+			target[i] |= words[i];
+		}
+	}
+
+	int numberOfRuns() {
+		int runs = 0;
+		long previous = 0;
+		for(int i = 0; i < WORD_COUNT; i++) {
+			long word = words[i];
+			// a run starts at each bit set to 1 whose preceding bit is 0
+			runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+			previous = word;
+		}
+		return runs;
+	}
+
+	Container runOptimize() {
+		return smallest(this);
+	}
+
+	Container copy() {
+		return new BitmapContainer(words.clone(), cardinality);
+	}
+
+	long getSizeInBytes() {
+		return 8L * WORD_COUNT + 16;
+	}
+
+	/**
+	 * Set the bits of a range of values to 1 in a bitmap.
+	 * @param words the bitmap
+	 * @param start the first value
+	 * @param end the last value + 1
+	 */
+	static void setRange(long[] words, int start, int end) {
+		if(start >= end) {
+			return;
+		}
+		int firstWord = start >>> 6;
+		int lastWord = (end - 1) >>> 6;
+		long firstMask = -1L << start;
+		long lastMask = -1L >>> -end;
+		if(firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+			return;
+		}
+		words[firstWord] |= firstMask;
+		for(int i = firstWord + 1; i < lastWord; i++) {
+			words[i] = -1L;
+		}
+		words[lastWord] |= lastMask;
+	}
+}
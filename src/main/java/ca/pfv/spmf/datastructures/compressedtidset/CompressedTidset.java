@@ -0,0 +1,468 @@
+package ca.pfv.spmf.datastructures.compressedtidset;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a set of transaction identifiers (a tidset) in a compressed form,
+ * inspired by Roaring bitmaps. The tids are divided in chunks of 65536 consecutive tids
+ * (the chunk of a tid is given by its 16 highest bits). Only the chunks that are not empty are
+ * stored, and each chunk is represented by: <br/>
+ * - a sorted array of 16-bit values, if it contains at most 4096 tids (sparse chunk), <br/>
+ * - a bitmap of 65536 bits, if it contains more tids (dense chunk), <br/>
+ * - a list of runs of consecutive tids, if this is smaller (see runOptimize()). <br/><br/>
+ *
+ * Thus, a tidset uses about 2 bytes per tid in sparse databases, while a HashSet of Integer uses more than
+ * 40 bytes per tid and a java.util.BitSet uses one bit per transaction of the database
+ * whether the tid is in the tidset or not. The intersection (and()), difference (andNot()) and
+ * cardinality of tidsets are calculated chunk by chunk, with an algorithm specific to the types
+ * of the two chunks. <br/><br/>
+ *
+ * This class implements the Set interface, so that it can be used by algorithms representing tidsets
+ * as sets of integers, but the methods taking an int should be preferred to avoid boxing.
+ * Tids must be positive or zero. This class is not thread-safe.
+ *
+ * @see AlgoEclat
+ * @see AlgoCharm_Bitset
+ * @author Philippe Fournier-Viger
+ */
+public class CompressedTidset extends AbstractSet<Integer> {
+
+	/** the keys (16 highest bits of the tids) of the chunks that are not empty, by increasing order */
+	private char[] keys;
+
+	/** the container of each chunk */
+	private Container[] containers;
+
+	/** the number of chunks */
+	private int chunkCount = 0;
+
+	/** the number of tids */
+	private int cardinality = 0;
+
+	/**
+	 * Constructor of an empty tidset
+	 */
+	public CompressedTidset() {
+		this(4);
+	}
+
+	/**
+	 * Constructor of an empty tidset
+	 * @param chunkCapacity the number of chunks that can be stored before the internal arrays are resized
+	 */
+	private CompressedTidset(int chunkCapacity) {
+		keys = new char[chunkCapacity];
+		containers = new Container[chunkCapacity];
+	}
+
+	/**
+	 * Add a tid to this tidset. This is faster if the tids are added by increasing order.
+	 * @param tid the tid (positive or zero)
+	 * @return true if the tid was not already in the tidset
+	 */
+	public boolean add(int tid) {
+		if(tid < 0) {
+			throw new IllegalArgumentException("A tid cannot be negative: " + tid);
+		}
+		int key = tid >>> 16;
+		int position = findChunk(key);
+		if(position < 0) {
+			position = -position - 1;
+			insertChunk(position, key, new ArrayContainer(4));
+		}
+		Container container = containers[position];
+		int before = container.cardinality();
+		container = container.add(tid & 0xFFFF);
+		containers[position] = container;
+		if(container.cardinality() == before) {
+			return false;
+		}
+		cardinality++;
+		return true;
+	}
+
+	@Override
+	public boolean add(Integer tid) {
+		return add(tid.intValue());
+	}
+
+	/**
+	 * Add all the tids of a range to this tidset.
+	 * @param start the first tid
+	 * @param end the last tid + 1
+	 */
+	public void addRange(int start, int end) {
+		if(start < 0) {
+			throw new IllegalArgumentException("A tid cannot be negative: " + start);
+		}
+		while(start < end) {
+			int key = start >>> 16;
+			int chunkEnd = (int) Math.min(end, ((long) key + 1) << 16);
+			Container range = RunContainer.range(start & 0xFFFF, ((chunkEnd - 1) & 0xFFFF) + 1);
+			int position = findChunk(key);
+			if(position < 0) {
+				insertChunk(-position - 1, key, range);
+				cardinality += range.cardinality();
+			}else {
+				// merge the range with the existing container
+				Container container = containers[position];
+				long[] words = new long[BitmapContainer.WORD_COUNT];
+				container.orInto(words);
+				range.orInto(words);
+				int count = 0;
+				for(long word : words) {
+					count += Long.bitCount(word);
+				}
+				cardinality += count - container.cardinality();
+				containers[position] = new BitmapContainer(words, count).runOptimize();
+			}
+			start = chunkEnd;
+		}
+	}
+
+	/**
+	 * Check if this tidset contains a tid.
+	 * @param tid the tid
+	 * @return true if it contains the tid
+	 */
+	public boolean contains(int tid) {
+		if(tid < 0) {
+			return false;
+		}
+		int position = findChunk(tid >>> 16);
+		return position >= 0 && containers[position].contains(tid & 0xFFFF);
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		return object instanceof Integer && contains(((Integer) object).intValue());
+	}
+
+	/**
+	 * Get the number of tids in this tidset.
+	 * @return the number of tids
+	 */
+	public int cardinality() {
+		return cardinality;
+	}
+
+	@Override
+	public int size() {
+		return cardinality;
+	}
+
+	/**
+	 * Calculate the sum of the tids of this tidset, without creating an array of tids.
+	 * @return the sum
+	 */
+	public long sum() {
+		long sum = 0;
+		for(int i = 0; i < chunkCount; i++) {
+			Container container = containers[i];
+			// each tid of the chunk is (key << 16) + a value of the container
+			sum += ((long) keys[i] << 16) * container.cardinality() + container.sum();
+		}
+		return sum;
+	}
+
+	/**
+	 * Calculate the intersection of this tidset with another tidset.
+	 * @param other the other tidset
+	 * @return a new tidset
+	 */
+	public CompressedTidset and(CompressedTidset other) {
+		CompressedTidset result = new CompressedTidset(Math.max(1, Math.min(chunkCount, other.chunkCount)));
+		int i = 0;
+		int j = 0;
+		while(i < chunkCount && j < other.chunkCount) {
+			if(keys[i] < other.keys[j]) {
+				i++;
+			}else if(keys[i] > other.keys[j]) {
+				j++;
+			}else {
+				Container container = containers[i].and(other.containers[j]);
+				if(container.cardinality() > 0) {
+					result.appendChunk(keys[i], container);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Calculate the cardinality of the intersection of this tidset with another tidset,
+	 * without creating the intersection.
+	 * @param other the other tidset
+	 * @return the cardinality of the intersection
+	 */
+	public int andCardinality(CompressedTidset other) {
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while(i < chunkCount && j < other.chunkCount) {
+			if(keys[i] < other.keys[j]) {
+				i++;
+			}else if(keys[i] > other.keys[j]) {
+				j++;
+			}else {
+				count += containers[i].andCardinality(other.containers[j]);
+				i++;
+				j++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Calculate the tids of this tidset that are not in another tidset (this is used for
+	 * calculating diffsets).
+	 * @param other the other tidset
+	 * @return a new tidset
+	 */
+	public CompressedTidset andNot(CompressedTidset other) {
+		CompressedTidset result = new CompressedTidset(Math.max(1, chunkCount));
+		int j = 0;
+		for(int i = 0; i < chunkCount; i++) {
+			while(j < other.chunkCount && other.keys[j] < keys[i]) {
+				j++;
+			}
+			Container container;
+			if(j < other.chunkCount && other.keys[j] == keys[i]) {
+				container = containers[i].andNot(other.containers[j]);
+			}else {
+				container = containers[i].copy();
+			}
+			if(container.cardinality() > 0) {
+				result.appendChunk(keys[i], container);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get a tidset containing the tids from 0 to universeSize - 1 that are not in this tidset.
+	 * For example, the diffset of an item is the complement of its tidset if the universe is
+	 * the set of all transactions. The chunks of the complement of a sparse tidset are
+	 * dense, and they are represented by bitmaps rather than by long lists of runs, because
+	 * the operations on bitmaps are faster.
+	 * @param universeSize the number of tids in the universe
+	 * @return a new tidset
+	 */
+	public CompressedTidset complement(int universeSize) {
+		int lastKey = (universeSize - 1) >>> 16;
+		CompressedTidset result = new CompressedTidset(Math.max(1, lastKey + 1));
+		int position = 0;
+		for(int key = 0; universeSize > 0 && key <= lastKey; key++) {
+			int chunkEnd = key == lastKey ? ((universeSize - 1) & 0xFFFF) + 1 : Container.CHUNK_SIZE;
+			while(position < chunkCount && keys[position] < key) {
+				position++;
+			}
+			Container container;
+			if(position < chunkCount && keys[position] == key) {
+				// remove the tids of this chunk from the range of tids of the universe
+				long[] tids = new long[BitmapContainer.WORD_COUNT];
+				containers[position].orInto(tids);
+				long[] words = new long[BitmapContainer.WORD_COUNT];
+				BitmapContainer.setRange(words, 0, chunkEnd);
+				int count = 0;
+				for(int i = 0; i < BitmapContainer.WORD_COUNT; i++) {
+					words[i] &= ~tids[i];
+					count += Long.bitCount(words[i]);
+				}
+				container = BitmapContainer.of(words, count);
+			}else {
+				container = RunContainer.range(0, chunkEnd);
+			}
+			if(container.cardinality() > 0) {
+				result.appendChunk((char) key, container);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Convert each chunk to the representation that uses the least memory, which can be a
+	 * list of runs of consecutive tids. This should be called when a tidset will not be modified anymore.
+	 */
+	public void runOptimize() {
+		for(int i = 0; i < chunkCount; i++) {
+			containers[i] = containers[i].runOptimize();
+		}
+	}
+
+	/**
+	 * Get the smallest tid that is not smaller than a given tid.
+	 * @param from the given tid
+	 * @return the tid, or -1 if there is none
+	 */
+	public int nextTid(int from) {
+		if(from < 0) {
+			from = 0;
+		}
+		int position = findChunk(from >>> 16);
+		if(position >= 0) {
+			int value = containers[position].nextValue(from & 0xFFFF);
+			if(value >= 0) {
+				return (keys[position] << 16) | value;
+			}
+			position++;
+		}else {
+			position = -position - 1;
+		}
+		// the next tid is the first tid of the next chunk (chunks are never empty)
+		return position < chunkCount ? (keys[position] << 16) | containers[position].nextValue(0) : -1;
+	}
+
+	/**
+	 * Get the tids of this tidset as an array sorted by increasing order.
+	 * @return a new array
+	 */
+	public int[] toTidArray() {
+		int[] tids = new int[cardinality];
+		int[] buffer = null;
+		int count = 0;
+		for(int i = 0; i < chunkCount; i++) {
+			Container container = containers[i];
+			if(buffer == null || buffer.length < container.cardinality()) {
+				buffer = new int[container.cardinality()];
+			}
+			int chunkSize = container.fill(buffer);
+			int high = keys[i] << 16;
+			for(int j = 0; j < chunkSize; j++) {
+				tids[count++] = high | buffer[j];
+			}
+		}
+		return tids;
+	}
+
+	/**
+	 * Get the tids of this tidset as a java.util.BitSet.
+	 * @return a new bitset
+	 */
+	public BitSet toBitSet() {
+		BitSet bitset = new BitSet();
+		for(int tid : toTidArray()) {
+			bitset.set(tid);
+		}
+		return bitset;
+	}
+
+	/**
+	 * Get the approximate memory used by this tidset.
+	 * @return the size in bytes
+	 */
+	public long getSizeInBytes() {
+		long size = 40 + 2L * keys.length + 4L * containers.length;
+		for(int i = 0; i < chunkCount; i++) {
+			size += containers[i].getSizeInBytes();
+		}
+		return size;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+			/** the values of the current chunk */
+			private int[] buffer = new int[0];
+			/** the number of values of the current chunk */
+			private int count = 0;
+			/** the position of the next value in the buffer */
+			private int position = 0;
+			/** the next chunk */
+			private int chunk = 0;
+
+			public boolean hasNext() {
+				return position < count || chunk < chunkCount;
+			}
+
+			public Integer next() {
+				if(position == count) {
+					if(chunk == chunkCount) {
+						throw new NoSuchElementException();
+					}
+					// read the values of the next chunk
+					Container container = containers[chunk];
+					if(buffer.length < container.cardinality()) {
+						buffer = new int[container.cardinality()];
+					}
+					count = container.fill(buffer);
+					int high = keys[chunk] << 16;
+					for(int i = 0; i < count; i++) {
+						buffer[i] |= high;
+					}
+					position = 0;
+					chunk++;
+				}
+				return buffer[position++];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Find the position of a chunk.
+	 * @param key the key of the chunk
+	 * @return the position, or (-(insertion point) - 1) if there is no chunk with that key
+	 */
+	private int findChunk(int key) {
+		// tids are often added by increasing order, so we first check the last chunk
+		if(chunkCount > 0 && keys[chunkCount - 1] == key) {
+			return chunkCount - 1;
+		}
+		return Arrays.binarySearch(keys, 0, chunkCount, (char) key);
+	}
+
+	/**
+	 * Insert a chunk at a given position.
+	 * @param position the position
+	 * @param key the key of the chunk
+	 * @param container the container of the chunk
+	 */
+	private void insertChunk(int position, int key, Container container) {
+		if(chunkCount == keys.length) {
+			int newLength = chunkCount + (chunkCount >> 1) + 1;
+			keys = Arrays.copyOf(keys, newLength);
+			containers = Arrays.copyOf(containers, newLength);
+		}
+		System.arraycopy(keys, position, keys, position + 1, chunkCount - position);
+		System.arraycopy(containers, position, containers, position + 1, chunkCount - position);
+		keys[position] = (char) key;
+		containers[position] = container;
+		chunkCount++;
+	}
+
+	/**
+	 * Append a chunk having a key larger than the keys of the other chunks.
+	 * @param key the key of the chunk
+	 * @param container the container of the chunk (not empty)
+	 */
+	private void appendChunk(char key, Container container) {
+		insertChunk(chunkCount, key, container);
+		cardinality += container.cardinality();
+	}
+}
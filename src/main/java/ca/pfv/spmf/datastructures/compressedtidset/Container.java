@@ -0,0 +1,170 @@
+package ca.pfv.spmf.datastructures.compressedtidset;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+/**
+ * This abstract class represents a set of values between 0 and 65535, which are the 16 lowest
+ * bits of the tids of a chunk of a CompressedTidset (the 16 highest bits are the key of the chunk).
+ * Depending on its content, a chunk is represented by a sorted array (ArrayContainer), a bitmap
+ * of 65536 bits (BitmapContainer) or a list of runs of consecutive values (RunContainer). <br/><br/>
+ *
+ * Operations never modify their operands. They return a new container of the most appropriate
+ * type (except run containers, which are only created by runOptimize()).
+ *
+ * @see CompressedTidset
+ * @author Philippe Fournier-Viger
+ */
+abstract class Container {
+
+	/** the maximum number of values of an array container (an array container
+	 * larger than that would use more memory than a bitmap container) */
+	static final int MAX_ARRAY_SIZE = 4096;
+
+	/** the number of values in a chunk */
+	static final int CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Get the number of values in this container.
+	 * @return the number of values
+	 */
+	abstract int cardinality();
+
+	/**
+	 * Check if this container contains a value.
+	 * @param value the value (0 to 65535)
+	 * @return true if it contains the value
+	 */
+	abstract boolean contains(int value);
+
+	/**
+	 * Add a value to this container.
+	 * @param value the value (0 to 65535)
+	 * @return the container containing the value (this container, or a new container
+	 *    if the type of container has changed)
+	 */
+	abstract Container add(int value);
+
+	/**
+	 * Calculate the intersection of this container with another container.
+	 * @param other the other container
+	 * @return a new container
+	 */
+	abstract Container and(Container other);
+
+	/**
+	 * Calculate the cardinality of the intersection of this container with another container,
+	 * without creating the intersection.
+	 * @param other the other container
+	 * @return the cardinality
+	 */
+	abstract int andCardinality(Container other);
+
+	/**
+	 * Calculate the values of this container that are not in another container.
+	 * @param other the other container
+	 * @return a new container
+	 */
+	abstract Container andNot(Container other);
+
+	/**
+	 * Copy the values of this container in an array, by increasing order.
+	 * @param buffer the array (of size at least cardinality())
+	 * @return the number of values
+	 */
+	abstract int fill(int[] buffer);
+
+	/**
+	 * Calculate the sum of the values of this container.
+	 * @return the sum
+	 */
+	abstract long sum();
+
+	/**
+	 * Get the smallest value of this container that is not smaller than a given value.
+	 * @param from the given value
+	 * @return the value or -1 if there is none
+	 */
+	abstract int nextValue(int from);
+
+	/**
+	 * Set the bits corresponding to the values of this container in a bitmap of 65536 bits.
+	 * @param words the bitmap
+	 */
+	abstract void orInto(long[] words);
+
+	/**
+	 * Get the number of runs of consecutive values in this container.
+	 * @return the number of runs
+	 */
+	abstract int numberOfRuns();
+
+	/**
+	 * Get the type of container that uses the least memory for the values of this container.
+	 * @return this container or a new container
+	 */
+	abstract Container runOptimize();
+
+	/**
+	 * Get a copy of this container.
+	 * @return the copy
+	 */
+	abstract Container copy();
+
+	/**
+	 * Get the approximate memory used by this container.
+	 * @return the size in bytes
+	 */
+	abstract long getSizeInBytes();
+
+	/**
+	 * Get a bitmap container containing the same values as this container.
+	 * @return a new container
+	 */
+	BitmapContainer toBitmapContainer() {
+		long[] words = new long[BitmapContainer.WORD_COUNT];
+		orInto(words);
+		return new BitmapContainer(words, cardinality());
+	}
+
+	/**
+	 * Get the memory used by a run container having a given number of runs
+	 * @param runCount the number of runs
+	 * @return the size in bytes
+	 */
+	static long runContainerSize(int runCount) {
+		return 4L * runCount + 2;
+	}
+
+	/**
+	 * Get the smallest container for a set of values, based on its cardinality and number of runs.
+	 * @param container the container
+	 * @return the given container or a new container
+	 */
+	static Container smallest(Container container) {
+		int cardinality = container.cardinality();
+		long runSize = runContainerSize(container.numberOfRuns());
+		long arraySize = cardinality <= MAX_ARRAY_SIZE ? 2L * cardinality + 2 : Long.MAX_VALUE;
+		long bitmapSize = 8L * BitmapContainer.WORD_COUNT;
+		if(runSize < arraySize && runSize < bitmapSize) {
+			return container instanceof RunContainer ? container : RunContainer.from(container);
+		}
+		if(arraySize <= bitmapSize) {
+			return container instanceof ArrayContainer ? container : ArrayContainer.from(container);
+		}
+		return container instanceof BitmapContainer ? container : container.toBitmapContainer();
+	}
+}
@@ -0,0 +1,322 @@
+package ca.pfv.spmf.datastructures.compressedtidset;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.Arrays;
+
+/**
+ * This class is a container of a CompressedTidset where the values are stored as runs of
+ * consecutive values. Each run is stored as its first value and its length minus one. This
+ * representation is very compact for dense tidsets, such as the diffsets of
+ * frequent items, and for tidsets of items that appear in consecutive transactions. Run
+ * containers are created by CompressedTidset.runOptimize() and CompressedTidset.addRange(). Operations on
+ * run containers return array or bitmap containers.
+ *
+ * @see Container
+ * @see CompressedTidset
+ * @author Philippe Fournier-Viger
+ */
+class RunContainer extends Container {
+
+	/** the runs: runs[2i] is the first value of run i and runs[2i+1] is its length minus one */
+	char[] runs;
+
+	/** the number of runs */
+	int runCount;
+
+	/** the number of values */
+	int cardinality;
+
+	/**
+	 * Constructor
+	 * @param runs the runs
+	 * @param runCount the number of runs
+	 * @param cardinality the number of values
+	 */
+	RunContainer(char[] runs, int runCount, int cardinality) {
+		this.runs = runs;
+		this.runCount = runCount;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * Get a run container containing a range of values.
+	 * @param start the first value
+	 * @param end the last value + 1
+	 * @return a new container
+	 */
+	static RunContainer range(int start, int end) {
+		return new RunContainer(new char[] {(char) start, (char) (end - start - 1)}, 1, end - start);
+	}
+
+	/**
+	 * Get a run container containing the values of another container.
+	 * @param container the other container
+	 * @return a new container
+	 */
+	static RunContainer from(Container container) {
+		char[] runs = new char[2 * container.numberOfRuns()];
+		int[] buffer = new int[container.cardinality()];
+		int count = container.fill(buffer);
+		int runCount = 0;
+		for(int i = 0; i < count; ) {
+			int start = buffer[i];
+			int j = i + 1;
+			while(j < count && buffer[j] == buffer[j - 1] + 1) {
+				j++;
+			}
+			runs[2 * runCount] = (char) start;
+			runs[2 * runCount + 1] = (char) (j - i - 1);
+			runCount++;
+			i = j;
+		}
+		return new RunContainer(runs, runCount, count);
+	}
+
+	int cardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Get the position of the last run starting at or before a value.
+	 * @param value the value
+	 * @return the position of the run or -1 if the value is before the first run
+	 */
+	private int findRun(int value) {
+		int low = 0;
+		int high = runCount - 1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			if(runs[2 * middle] <= value) {
+				low = middle + 1;
+			}else {
+				high = middle - 1;
+			}
+		}
+		return high;
+	}
+
+	boolean contains(int value) {
+		int run = findRun(value);
+		return run >= 0 && value <= runs[2 * run] + runs[2 * run + 1];
+	}
+
+	Container add(int value) {
+		if(contains(value)) {
+			return this;
+		}
+		// if the value is just after the last run, the last run is extended
+		if(runCount > 0) {
+			int last = 2 * (runCount - 1);
+			if(value == runs[last] + runs[last + 1] + 1) {
+				runs[last + 1]++;
+				cardinality++;
+				return this;
+			}
+		}
+		// if the value is after the last run, a new run is created
+		if(runCount == 0 || value > runs[2 * (runCount - 1)]) {
+			if(2 * runCount == runs.length) {
+				runs = Arrays.copyOf(runs, 2 * runCount + 2 * (runCount >> 1) + 2);
+			}
+			runs[2 * runCount] = (char) value;
+			runs[2 * runCount + 1] = 0;
+			runCount++;
+			cardinality++;
+			return this;
+		}
+		// otherwise, the container is converted
+		return toBitmapContainer().add(value).runOptimize();
+	}
+
+	Container and(Container other) {
+		if(other instanceof ArrayContainer) {
+			return other.and(this);
+		}
+		if(other instanceof RunContainer) {
+			// the intersection of two lists of runs is calculated by a merge
+			RunContainer otherRuns = (RunContainer) other;
+			RunBuilder result = new RunBuilder(runCount + otherRuns.runCount);
+			int i = 0;
+			int j = 0;
+			while(i < runCount && j < otherRuns.runCount) {
+				int end = runs[2 * i] + runs[2 * i + 1];
+				int otherEnd = otherRuns.runs[2 * j] + otherRuns.runs[2 * j + 1];
+				result.add(Math.max(runs[2 * i], otherRuns.runs[2 * j]), Math.min(end, otherEnd));
+				if(end < otherEnd) {
+					i++;
+				}else {
+					j++;
+				}
+			}
+			return result.build();
+		}
+		return toBitmapContainer().and(other);
+	}
+
+	int andCardinality(Container other) {
+		if(other instanceof ArrayContainer) {
+			return other.andCardinality(this);
+		}
+		return toBitmapContainer().andCardinality(other);
+	}
+
+	Container andNot(Container other) {
+		if(other instanceof BitmapContainer) {
+			return toBitmapContainer().andNot(other);
+		}
+		// the other container is viewed as a list of runs (a value of an array is a run of length 1)
+		char[] otherRuns;
+		int otherRunCount;
+		if(other instanceof RunContainer) {
+			otherRuns = ((RunContainer) other).runs;
+			otherRunCount = ((RunContainer) other).runCount;
+		}else {
+			ArrayContainer array = (ArrayContainer) other;
+			otherRuns = new char[2 * array.size];
+			for(int i = 0; i < array.size; i++) {
+				otherRuns[2 * i] = array.values[i];
+			}
+			otherRunCount = array.size;
+		}
+		// each run of this container is cut by the runs of the other container that overlap it
+		RunBuilder result = new RunBuilder(runCount + otherRunCount);
+		int j = 0;
+		for(int i = 0; i < runCount; i++) {
+			int current = runs[2 * i];
+			int end = current + runs[2 * i + 1];
+			// skip the runs of the other container that end before this run
+			while(j < otherRunCount && otherRuns[2 * j] + otherRuns[2 * j + 1] < current) {
+				j++;
+			}
+			while(j < otherRunCount && otherRuns[2 * j] <= end) {
+				int otherStart = otherRuns[2 * j];
+				int otherEnd = otherStart + otherRuns[2 * j + 1];
+				result.add(current, otherStart - 1);
+				current = Math.max(current, otherEnd + 1);
+				// if the run of the other container continues after this run,
+				// it may also overlap the next run
+				if(otherEnd > end) {
+					break;
+				}
+				j++;
+			}
+			result.add(current, end);
+		}
+		return result.build();
+	}
+
+	/**
+	 * This class is used to create the list of runs resulting from an operation on runs.
+	 */
+	private static class RunBuilder {
+		/** the runs */
+		private char[] runs;
+		/** the number of runs */
+		private int runCount = 0;
+		/** the number of values */
+		private int cardinality = 0;
+
+		/**
+		 * Constructor
+		 * @param capacity the maximum number of runs that is expected
+		 */
+		RunBuilder(int capacity) {
+			runs = new char[2 * Math.max(capacity, 1)];
+		}
+
+		/**
+		 * Add a run after the previous runs (nothing is done if the run is empty).
+		 * @param start the first value of the run
+		 * @param end the last value of the run
+		 */
+		void add(int start, int end) {
+			if(start > end) {
+				return;
+			}
+			if(2 * runCount == runs.length) {
+				runs = Arrays.copyOf(runs, 4 * runCount);
+			}
+			runs[2 * runCount] = (char) start;
+			runs[2 * runCount + 1] = (char) (end - start);
+			runCount++;
+			cardinality += end - start + 1;
+		}
+
+		/**
+		 * Get the container with the least memory for the runs.
+		 * @return the container
+		 */
+		Container build() {
+			return smallest(new RunContainer(runs, runCount, cardinality));
+		}
+	}
+
+	int fill(int[] buffer) {
+		int count = 0;
+		for(int i = 0; i < runCount; i++) {
+			int start = runs[2 * i];
+			int end = start + runs[2 * i + 1];
+			for(int value = start; value <= end; value++) {
+				buffer[count++] = value;
+			}
+		}
+		return count;
+	}
+
+	long sum() {
+		long sum = 0;
+		for(int i = 0; i < runCount; i++) {
+			// the sum of the values start, start + 1, ..., start + length - 1
+			long start = runs[2 * i];
+			long length = runs[2 * i + 1] + 1;
+			sum += length * start + length * (length - 1) / 2;
+		}
+		return sum;
+	}
+
+	int nextValue(int from) {
+		int run = findRun(from);
+		if(run >= 0 && from <= runs[2 * run] + runs[2 * run + 1]) {
+			return from;
+		}
+		return run + 1 < runCount ? runs[2 * (run + 1)] : -1;
+	}
+
+	void orInto(long[] words) {
+		for(int i = 0; i < runCount; i++) {
+			int start = runs[2 * i];
+			BitmapContainer.setRange(words, start, start + runs[2 * i + 1] + 1);
+		}
+	}
+
+	int numberOfRuns() {
+		return runCount;
+	}
+
+	Container runOptimize() {
+		return smallest(this);
+	}
+
+	Container copy() {
+		return new RunContainer(Arrays.copyOf(runs, 2 * runCount), runCount, cardinality);
+	}
+
+	long getSizeInBytes() {
+		return 2L * runs.length + 24;
+	}
+}
@@ -0,0 +1,424 @@
+package ca.pfv.spmf.datastructures.grid;
+/* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.Arrays;
+import java.util.List;
+
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.VectorBlock;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+
+/**
+ * This is an implementation of a uniform grid to index points (vectors of double values)
+ * for finding the points within a radius of a given point, using the Euclidian distance.
+ * The space is divided in cubic cells of a given size, and only the points in the cells
+ * close to the given point are compared with it. It is an alternative to the KD-Tree
+ * for points having few dimensions (for example, geographical coordinates), when the
+ * radius is known in advance (such as the epsilon parameter of DBSCAN and OPTICS). The
+ * number of cells examined by a query grows exponentially with the number of dimensions.
+ * <br/><br/>
+ *
+ * The points are identified by their position in the list used to build the grid, and
+ * are given one by one to a NeighborVisitor, so that no object is created by the queries.
+ * After it is built, the grid is not modified, and it can be queried by several threads.
+ *
+ * @see ca.pfv.spmf.datastructures.kdtree.KDTree
+ * @author Philippe Fournier-Viger
+ */
+public class UniformGrid {
+
+	/**
+	 * An object that receives the points found by a query.
+	 */
+	public interface NeighborVisitor {
+		/**
+		 * Receive a point found by a query
+		 * @param point the position of the point in the list used to build the grid
+		 * @param distance the distance of the point to the target point
+		 * @return true to continue the query, or false to stop it
+		 */
+		boolean visit(int point, double distance);
+	}
+
+	/** the distance function used to calculate the distances to the points of a cell */
+	private static final DistanceEuclidian EUCLIDIAN_DISTANCE = new DistanceEuclidian();
+	/** the number of points of a cell whose distances are calculated at once */
+	private static final int DISTANCE_GROUP_SIZE = 64;
+
+	/** the size of the cells */
+	private final double cellSize;
+	/** the number of dimensions */
+	private final int dimensionCount;
+
+	/** the number of non empty cells */
+	private int cellCount;
+	/** the coordinates of each cell, cell by cell */
+	private int[] cellCoordinates;
+	/** the cell of each point */
+	private int[] cellOfPoint;
+	/** the position in "sortedPoints" of the first point of each cell (and the number of points at the end) */
+	private int[] cellStarts;
+	/** the points, sorted by cell */
+	private int[] sortedPoints;
+	/** the values of the points, in the same order as "sortedPoints" */
+	private double[] sortedValues;
+	/** the same values as a block, for calculating the distances to the points of a cell at once */
+	private VectorBlock sortedBlock;
+	/** an open addressing hash table to find a cell from its coordinates (cell + 1, or 0 if empty) */
+	private int[] table;
+	/** the offsets of the cells checked by a query whose radius is at most the size of the cells */
+	private final int[] unitOffsets;
+
+	/**
+	 * Build a grid
+	 * @param points the points, which must all have the same number of dimensions
+	 * @param cellSize the size of the cells (for example, the largest radius of the queries)
+	 */
+	public UniformGrid(List<? extends DoubleArray> points, double cellSize) {
+		if (!(cellSize > 0)) {
+			throw new IllegalArgumentException("The size of the cells must be greater than 0");
+		}
+		this.cellSize = cellSize;
+		this.dimensionCount = points.isEmpty() ? 0 : points.get(0).data.length;
+		this.unitOffsets = createOffsets(1);
+		int n = points.size();
+
+		// find the cell of each point, and create the non empty cells
+		cellCoordinates = new int[16 * dimensionCount];
+		table = new int[16];
+		cellOfPoint = new int[n];
+		int[] coordinates = new int[dimensionCount];
+		int[] counts = new int[16];
+		for (int i = 0; i < n; i++) {
+			double[] values = points.get(i).data;
+			for (int j = 0; j < dimensionCount; j++) {
+				coordinates[j] = coordinate(values[j]);
+			}
+			int cell = findCell(coordinates);
+			if (cell < 0) {
+				cell = addCell(coordinates);
+				if (cell == counts.length) {
+					counts = Arrays.copyOf(counts, counts.length * 2);
+				}
+			}
+			cellOfPoint[i] = cell;
+			counts[cell]++;
+		}
+
+		// sort the points by cell (counting sort)
+		cellStarts = new int[cellCount + 1];
+		for (int cell = 0; cell < cellCount; cell++) {
+			cellStarts[cell + 1] = cellStarts[cell] + counts[cell];
+		}
+		int[] positions = counts;
+		System.arraycopy(cellStarts, 0, positions, 0, cellCount);
+		sortedPoints = new int[n];
+		sortedValues = new double[n * dimensionCount];
+		for (int i = 0; i < n; i++) {
+			int position = positions[cellOfPoint[i]]++;
+			sortedPoints[position] = i;
+			System.arraycopy(points.get(i).data, 0, sortedValues, position * dimensionCount, dimensionCount);
+		}
+		sortedBlock = new VectorBlock(sortedValues, n, dimensionCount);
+	}
+
+	/**
+	 * Get the number of non empty cells
+	 * @return the number of cells
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Get the points sorted by cell. Processing the points in this order is faster,
+	 * because the points of a cell and of its neighbor cells are then close in memory.
+	 * @return the positions of the points in the list used to build the grid
+	 */
+	public int[] getPointsSortedByCell() {
+		return sortedPoints.clone();
+	}
+
+	/**
+	 * Give to a visitor all the points within the radius of a point of the grid,
+	 * EXCEPT that point.
+	 * @param point the position of the point in the list used to build the grid
+	 * @param target the values of the point
+	 * @param radius the radius
+	 * @param visitor the visitor receiving the points
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	public boolean visitPointsWithinRadiusOf(int point, double[] target, double radius, NeighborVisitor visitor) {
+		return visit(target, point, cellOfPoint[point], radius, visitor);
+	}
+
+	/**
+	 * Give to a visitor all the points within the radius of a target point.
+	 * @param target the values of the target point
+	 * @param radius the radius
+	 * @param visitor the visitor receiving the points
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	public boolean visitPointsWithinRadiusOf(double[] target, double radius, NeighborVisitor visitor) {
+		return visit(target, -1, -1, radius, visitor);
+	}
+
+	/**
+	 * Give to a visitor the points within the radius of a target point.
+	 * @param target the values of the target point
+	 * @param excluded the point that should not be given to the visitor (-1 if none)
+	 * @param targetCell the cell containing the target point (-1 if unknown)
+	 * @param radius the radius
+	 * @param visitor the visitor
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	private boolean visit(double[] target, int excluded, int targetCell, double radius, NeighborVisitor visitor) {
+		if (cellCount == 0) {
+			return true;
+		}
+		// the number of cells to check on each side of the cell of the target point
+		int reach = (int) Math.ceil(radius / cellSize);
+		int[] offsets = reach == 1 ? unitOffsets : createOffsets(reach);
+		double squaredRadius = radius * radius;
+		// the squared distances to the points of a cell, calculated by groups
+		double[] squaredDistances = new double[DISTANCE_GROUP_SIZE];
+		for (int offset = 0; offset < offsets.length; offset += dimensionCount) {
+			// calculate the hash code of the cell, and the distance to the cell
+			int hash = 0;
+			double squaredGap = 0;
+			for (int j = 0; j < dimensionCount; j++) {
+				int c = baseCoordinate(target, targetCell, j) + offsets[offset + j];
+				hash = hash * 0x9E3779B1 + c;
+				double gap = Math.max(c * cellSize - target[j], target[j] - (c + 1) * cellSize);
+				if (gap > 0) {
+					squaredGap += gap * gap;
+				}
+			}
+			// skip the cell if it is too far
+			if (squaredGap > squaredRadius) {
+				continue;
+			}
+			// find the cell, and compare its coordinates
+			int mask = table.length - 1;
+			for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+				int cell = table[slot] - 1;
+				if (hasCoordinates(cell, target, targetCell, offsets, offset)) {
+					if (!visitCell(cell, target, excluded, squaredRadius, squaredDistances, visitor)) {
+						return false;
+					}
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create the offsets of the cells to be checked around the cell of the target point of a query
+	 * @param reach the number of cells to check on each side of the cell of the target point
+	 * @return the offsets, cell by cell
+	 */
+	private int[] createOffsets(int reach) {
+		int width = 2 * reach + 1;
+		long combinations = 1;
+		for (int j = 0; j < dimensionCount; j++) {
+			combinations *= width;
+		}
+		if (combinations * dimensionCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many cells to check, the KD-Tree should be used for such data");
+		}
+		int[] offsets = new int[(int) combinations * dimensionCount];
+		// each cell is a number whose digits are the offsets in each dimension
+		for (int counter = 0; counter < combinations; counter++) {
+			int digits = counter;
+			for (int j = 0; j < dimensionCount; j++) {
+				offsets[counter * dimensionCount + j] = digits % width - reach;
+				digits /= width;
+			}
+		}
+		return offsets;
+	}
+
+	/**
+	 * Give to a visitor the points of a cell within the radius of a target point.
+	 * @param cell the cell
+	 * @param target the values of the target point
+	 * @param excluded the point that should not be given to the visitor (-1 if none)
+	 * @param squaredRadius the square of the radius
+	 * @param squaredDistances an array for the squared distances to a group of points
+	 * @param visitor the visitor
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	private boolean visitCell(int cell, double[] target, int excluded, double squaredRadius,
+			double[] squaredDistances, NeighborVisitor visitor) {
+		int end = cellStarts[cell + 1];
+		for (int start = cellStarts[cell]; start < end; start += squaredDistances.length) {
+			int groupEnd = Math.min(end, start + squaredDistances.length);
+			EUCLIDIAN_DISTANCE.calculateSquaredDistances(target, sortedBlock, start, groupEnd, squaredDistances, 0);
+			for (int position = start; position < groupEnd; position++) {
+				int point = sortedPoints[position];
+				double sum = squaredDistances[position - start];
+				if (sum <= squaredRadius && point != excluded && !visitor.visit(point, Math.sqrt(sum))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a cell has the coordinates of a cell checked by the method visit().
+	 * @param cell the cell
+	 * @param target the values of the target point
+	 * @param targetCell the cell containing the target point (-1 if unknown)
+	 * @param offsets the offsets of the cells checked by the query
+	 * @param offset the position of the offsets of the checked cell
+	 * @return true if the cell has these coordinates
+	 */
+	private boolean hasCoordinates(int cell, double[] target, int targetCell, int[] offsets, int offset) {
+		int position = cell * dimensionCount;
+		for (int j = 0; j < dimensionCount; j++) {
+			if (cellCoordinates[position + j] != baseCoordinate(target, targetCell, j) + offsets[offset + j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get a coordinate of the cell containing the target point of a query
+	 * @param target the values of the target point
+	 * @param targetCell the cell containing the target point (-1 if unknown)
+	 * @param j the dimension
+	 * @return the coordinate
+	 */
+	private int baseCoordinate(double[] target, int targetCell, int j) {
+		if (targetCell >= 0) {
+			return cellCoordinates[targetCell * dimensionCount + j];
+		}
+		return coordinate(target[j]);
+	}
+
+	/**
+	 * Get the coordinate of the cell containing a value
+	 * @param value the value
+	 * @return the coordinate
+	 */
+	private int coordinate(double value) {
+		double coordinate = Math.floor(value / cellSize);
+		if (coordinate < Integer.MIN_VALUE || coordinate > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The size of the cells is too small for the value " + value);
+		}
+		return (int) coordinate;
+	}
+
+	/**
+	 * Find the cell having some coordinates
+	 * @param coordinates the coordinates
+	 * @return the cell, or -1 if there is no such cell
+	 */
+	private int findCell(int[] coordinates) {
+		int mask = table.length - 1;
+		for (int slot = mix(hash(coordinates)) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int cell = table[slot] - 1;
+			if (equalCoordinates(cell, coordinates)) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Add a cell, and resize the hash table if it is more than half full
+	 * @param coordinates the coordinates of the cell
+	 * @return the new cell
+	 */
+	private int addCell(int[] coordinates) {
+		int cell = cellCount++;
+		if (cellCount * dimensionCount > cellCoordinates.length) {
+			cellCoordinates = Arrays.copyOf(cellCoordinates, cellCoordinates.length * 2);
+		}
+		System.arraycopy(coordinates, 0, cellCoordinates, cell * dimensionCount, dimensionCount);
+		if (cellCount * 2 > table.length) {
+			table = new int[table.length * 2];
+			for (int other = 0; other < cell; other++) {
+				insert(other);
+			}
+		}
+		insert(cell);
+		return cell;
+	}
+
+	/**
+	 * Insert a cell in the hash table
+	 * @param cell the cell
+	 */
+	private void insert(int cell) {
+		int hash = 0;
+		for (int j = 0; j < dimensionCount; j++) {
+			hash = hash * 0x9E3779B1 + cellCoordinates[cell * dimensionCount + j];
+		}
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = cell + 1;
+	}
+
+	/**
+	 * Check if a cell has some coordinates
+	 * @param cell the cell
+	 * @param coordinates the coordinates
+	 * @return true if yes
+	 */
+	private boolean equalCoordinates(int cell, int[] coordinates) {
+		int offset = cell * dimensionCount;
+		for (int j = 0; j < dimensionCount; j++) {
+			if (cellCoordinates[offset + j] != coordinates[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculate the hash code of the coordinates of a cell
+	 * @param coordinates the coordinates
+	 * @return the hash code
+	 */
+	private static int hash(int[] coordinates) {
+		int hash = 0;
+		for (int c : coordinates) {
+			hash = hash * 0x9E3779B1 + c;
+		}
+		return hash;
+	}
+
+	/**
+	 * Mix the bits of a hash code, so that close cells are spread in the hash table
+	 * @param hash the hash code
+	 * @return the mixed hash code
+	 */
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+}
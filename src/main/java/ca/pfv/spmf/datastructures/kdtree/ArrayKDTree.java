@@ -0,0 +1,786 @@
+package ca.pfv.spmf.datastructures.kdtree;
+/* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.VectorBlock;
+import ca.pfv.spmf.datastructures.grid.UniformGrid.NeighborVisitor;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+
+/**
+ * This is an implementation of a KD-Tree stored in arrays, for finding the k nearest
+ * neighbors of a point and the points within a radius of a point, using the Euclidian distance.
+ * <br/><br/>
+ *
+ * Unlike the KDTree class, no object is created for the nodes or the results: <br/>
+ * - the values of the points are copied to a single array, in the order of the leaves of the tree,
+ *   so that the points of a leaf are close in memory,<br/>
+ * - the tree is a complete binary tree whose nodes are stored by level (the children of node i are
+ *   the nodes 2i+1 and 2i+2). Each node splits its points in two halves on the dimension where they are
+ *   the most spread, and keeps the bounding box of its points to skip the nodes that are too far,<br/>
+ * - each leaf contains a few points (a bucket), which are compared with the target point one after the other,<br/>
+ * - the results are written to arrays given by the caller, or given one by one to a NeighborVisitor.
+ * <br/><br/>
+ *
+ * The points are identified by their position in the list used to build the tree, and the list is not
+ * modified. After it is built, the tree is not modified, and it can be queried by several threads.
+ * The batch methods answer the queries for all the points of the tree (or a set of target points)
+ * with several threads, processing the points of the tree in the order of the leaves.
+ *
+ * @see KDTree
+ * @see ca.pfv.spmf.datastructures.grid.UniformGrid
+ * @author Philippe Fournier-Viger
+ */
+public class ArrayKDTree {
+
+	/** the default maximum number of points in a leaf */
+	public static final int DEFAULT_BUCKET_SIZE = 16;
+
+	/** the number of points */
+	private final int pointCount;
+	/** the number of dimensions */
+	private final int dimensionCount;
+	/** the depth of the leaves (the root has a depth of 0) */
+	private final int leafDepth;
+	/** the distance function used to calculate the distances to the points of a leaf */
+	private static final DistanceEuclidian EUCLIDIAN_DISTANCE = new DistanceEuclidian();
+
+	/** the values of the points, in the order of the leaves */
+	private final double[] values;
+	/** the same values as a block, for calculating the distances to the points of a leaf at once */
+	private final VectorBlock block;
+	/** the maximum number of points in a leaf */
+	private final int leafSize;
+	/** the position of each point of "values" in the list used to build the tree */
+	private final int[] pointIds;
+	/** the bounding box of each node: the minimum values followed by the maximum values */
+	private final double[] boxes;
+
+	/**
+	 * Build a tree where each leaf contains at most DEFAULT_BUCKET_SIZE points
+	 * @param points the points, which must all have the same number of dimensions
+	 */
+	public ArrayKDTree(List<? extends DoubleArray> points) {
+		this(points, DEFAULT_BUCKET_SIZE);
+	}
+
+	/**
+	 * Build a tree
+	 * @param points the points, which must all have the same number of dimensions
+	 * @param bucketSize the maximum number of points in a leaf
+	 */
+	public ArrayKDTree(List<? extends DoubleArray> points, int bucketSize) {
+		if (bucketSize < 1) {
+			throw new IllegalArgumentException("The size of the buckets must be at least 1");
+		}
+		this.pointCount = points.size();
+		this.dimensionCount = pointCount == 0 ? 0 : points.get(0).data.length;
+
+		// the leaves are at the smallest depth such that they contain at most bucketSize points
+		int depth = 0;
+		while (((pointCount - 1) >> depth) + 1 > bucketSize) {
+			depth++;
+		}
+		this.leafDepth = depth;
+		this.leafSize = pointCount == 0 ? 0 : ((pointCount - 1) >> depth) + 1;
+
+		// copy the values of the points to a single array
+		double[] original = new double[pointCount * dimensionCount];
+		pointIds = new int[pointCount];
+		for (int i = 0; i < pointCount; i++) {
+			System.arraycopy(points.get(i).data, 0, original, i * dimensionCount, dimensionCount);
+			pointIds[i] = i;
+		}
+
+		// create the nodes, then store the values in the order of the leaves
+		boxes = new double[pointCount == 0 ? 0 : ((2 << leafDepth) - 1) * 2 * dimensionCount];
+		if (pointCount > 0) {
+			buildNode(original, 0, 0, pointCount, 0);
+		}
+		values = new double[pointCount * dimensionCount];
+		for (int i = 0; i < pointCount; i++) {
+			System.arraycopy(original, pointIds[i] * dimensionCount, values, i * dimensionCount, dimensionCount);
+		}
+		block = new VectorBlock(values, pointCount, dimensionCount);
+	}
+
+	/**
+	 * Get the number of points in the tree
+	 * @return the number of points
+	 */
+	public int size() {
+		return pointCount;
+	}
+
+	/**
+	 * Get the points in the order of the leaves of the tree. Processing the points in this order
+	 * is faster, because the points that are close in space are then close in memory.
+	 * @return the positions of the points in the list used to build the tree
+	 */
+	public int[] getPointsInTreeOrder() {
+		return pointIds.clone();
+	}
+
+	/**
+	 * Create a node, and its children
+	 * @param original the values of the points, in the order of the list used to build the tree
+	 * @param node the node
+	 * @param start the first point of the node in "pointIds"
+	 * @param end the point after the last point of the node in "pointIds"
+	 * @param depth the depth of the node
+	 */
+	private void buildNode(double[] original, int node, int start, int end, int depth) {
+		// calculate the bounding box of the points of this node
+		int box = node * 2 * dimensionCount;
+		Arrays.fill(boxes, box, box + dimensionCount, Double.POSITIVE_INFINITY);
+		Arrays.fill(boxes, box + dimensionCount, box + 2 * dimensionCount, Double.NEGATIVE_INFINITY);
+		for (int i = start; i < end; i++) {
+			int offset = pointIds[i] * dimensionCount;
+			for (int j = 0; j < dimensionCount; j++) {
+				double value = original[offset + j];
+				if (value < boxes[box + j]) {
+					boxes[box + j] = value;
+				}
+				if (value > boxes[box + dimensionCount + j]) {
+					boxes[box + dimensionCount + j] = value;
+				}
+			}
+		}
+		if (depth == leafDepth) {
+			return;
+		}
+
+		// split the points on the dimension where they are the most spread
+		int splitDimension = 0;
+		double largestSpread = -1;
+		for (int j = 0; j < dimensionCount; j++) {
+			double spread = boxes[box + dimensionCount + j] - boxes[box + j];
+			if (spread > largestSpread) {
+				largestSpread = spread;
+				splitDimension = j;
+			}
+		}
+		int middle = (start + end) >>> 1;
+		select(original, start, end - 1, middle, splitDimension);
+
+		buildNode(original, 2 * node + 1, start, middle, depth + 1);
+		buildNode(original, 2 * node + 2, middle, end, depth + 1);
+	}
+
+	/**
+	 * Reorder the points of a range so that the point at a given position is the one that would be
+	 * at that position if the range was sorted on a dimension, with the smaller values before it and
+	 * the larger values after it. Equal values are grouped (three-way partitioning), so that many
+	 * equal values do not slow down the selection.
+	 * @param original the values of the points
+	 * @param left the first position of the range
+	 * @param right the last position of the range
+	 * @param position the position
+	 * @param dimension the dimension
+	 */
+	private void select(double[] original, int left, int right, int position, int dimension) {
+		while (left < right) {
+			// the pivot is the median of the first, middle and last values
+			double a = original[pointIds[left] * dimensionCount + dimension];
+			double b = original[pointIds[(left + right) >>> 1] * dimensionCount + dimension];
+			double c = original[pointIds[right] * dimensionCount + dimension];
+			double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+			// partition the range in: smaller values, equal values, larger values
+			int lower = left;
+			int i = left;
+			int upper = right;
+			while (i <= upper) {
+				double value = original[pointIds[i] * dimensionCount + dimension];
+				if (value < pivot) {
+					swap(lower++, i++);
+				} else if (value > pivot) {
+					swap(i, upper--);
+				} else {
+					i++;
+				}
+			}
+			if (position < lower) {
+				right = lower - 1;
+			} else if (position > upper) {
+				left = upper + 1;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Swap two points of "pointIds"
+	 * @param i the first point
+	 * @param j the second point
+	 */
+	private void swap(int i, int j) {
+		int temp = pointIds[i];
+		pointIds[i] = pointIds[j];
+		pointIds[j] = temp;
+	}
+
+	/**
+	 * Calculate the squared distance between a target point and the bounding box of a node,
+	 * or stop as soon as it is greater than a bound.
+	 * @param target the target point
+	 * @param node the node
+	 * @param bound the bound
+	 * @return the squared distance (or a value greater than the bound)
+	 */
+	private double squaredDistanceToBox(double[] target, int node, double bound) {
+		int box = node * 2 * dimensionCount;
+		double sum = 0;
+		for (int j = 0; j < dimensionCount; j++) {
+			double value = target[j];
+			double gap = boxes[box + j] - value;
+			if (gap <= 0) {
+				gap = value - boxes[box + dimensionCount + j];
+				if (gap <= 0) {
+					continue;
+				}
+			}
+			sum += gap * gap;
+			if (sum > bound) {
+				return sum;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Calculate the squared distance between a target point and a point of the tree,
+	 * or stop as soon as it is greater than a bound.
+	 * @param target the target point
+	 * @param i the position of the point in "values"
+	 * @param bound the bound
+	 * @return the squared distance (or a value greater than the bound)
+	 */
+	private double squaredDistance(double[] target, int i, double bound) {
+		int offset = i * dimensionCount;
+		double sum = 0;
+		for (int j = 0; j < dimensionCount; j++) {
+			double difference = values[offset + j] - target[j];
+			sum += difference * difference;
+			if (sum > bound) {
+				return sum;
+			}
+		}
+		return sum;
+	}
+
+	// =========================== METHODS TO FIND POINTS WITHIN A RADIUS =============================
+
+	/**
+	 * Give to a visitor all the points within the radius of a point of the tree,
+	 * EXCEPT that point.
+	 * @param point the position of the point in the list used to build the tree
+	 * @param target the values of the point
+	 * @param radius the radius
+	 * @param visitor the visitor receiving the points
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	public boolean visitPointsWithinRadiusOf(int point, double[] target, double radius, NeighborVisitor visitor) {
+		if (pointCount == 0) {
+			return true;
+		}
+		return visitNode(0, 0, pointCount, 0, target, point, radius * radius, new double[leafSize], visitor);
+	}
+
+	/**
+	 * Give to a visitor all the points within the radius of a target point.
+	 * @param target the values of the target point
+	 * @param radius the radius
+	 * @param visitor the visitor receiving the points
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	public boolean visitPointsWithinRadiusOf(double[] target, double radius, NeighborVisitor visitor) {
+		return visitPointsWithinRadiusOf(-1, target, radius, visitor);
+	}
+
+	/**
+	 * Give to a visitor the points of a node that are within a radius of a target point.
+	 * @param node the node
+	 * @param start the first point of the node
+	 * @param end the point after the last point of the node
+	 * @param depth the depth of the node
+	 * @param target the target point
+	 * @param excluded the point that should not be given to the visitor (-1 if none)
+	 * @param squaredRadius the squared radius
+	 * @param squaredDistances an array for the squared distances to the points of a leaf
+	 * @param visitor the visitor
+	 * @return false if the visitor has stopped the query, otherwise true
+	 */
+	private boolean visitNode(int node, int start, int end, int depth, double[] target, int excluded,
+			double squaredRadius, double[] squaredDistances, NeighborVisitor visitor) {
+		if (squaredDistanceToBox(target, node, squaredRadius) > squaredRadius) {
+			return true;
+		}
+		if (depth == leafDepth) {
+			EUCLIDIAN_DISTANCE.calculateSquaredDistances(target, block, start, end, squaredDistances, 0);
+			for (int i = start; i < end; i++) {
+				double squaredDistance = squaredDistances[i - start];
+				if (squaredDistance <= squaredRadius && pointIds[i] != excluded
+						&& !visitor.visit(pointIds[i], Math.sqrt(squaredDistance))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		int middle = (start + end) >>> 1;
+		return visitNode(2 * node + 1, start, middle, depth + 1, target, excluded, squaredRadius, squaredDistances, visitor)
+				&& visitNode(2 * node + 2, middle, end, depth + 1, target, excluded, squaredRadius, squaredDistances, visitor);
+	}
+
+	/**
+	 * Count the points within a radius of a target point.
+	 * @param node the node
+	 * @param start the first point of the node
+	 * @param end the point after the last point of the node
+	 * @param depth the depth of the node
+	 * @param target the target point
+	 * @param excluded the point that should not be counted (-1 if none)
+	 * @param squaredRadius the squared radius
+	 * @param squaredDistances an array for the squared distances to the points of a leaf
+	 * @return the number of points
+	 */
+	private int countNode(int node, int start, int end, int depth, double[] target, int excluded, double squaredRadius,
+			double[] squaredDistances) {
+		if (squaredDistanceToBox(target, node, squaredRadius) > squaredRadius) {
+			return 0;
+		}
+		if (depth == leafDepth) {
+			EUCLIDIAN_DISTANCE.calculateSquaredDistances(target, block, start, end, squaredDistances, 0);
+			int count = 0;
+			for (int i = start; i < end; i++) {
+				if (squaredDistances[i - start] <= squaredRadius && pointIds[i] != excluded) {
+					count++;
+				}
+			}
+			return count;
+		}
+		int middle = (start + end) >>> 1;
+		return countNode(2 * node + 1, start, middle, depth + 1, target, excluded, squaredRadius, squaredDistances)
+				+ countNode(2 * node + 2, middle, end, depth + 1, target, excluded, squaredRadius, squaredDistances);
+	}
+
+	/**
+	 * Count the points within the radius of each point of the tree (except the point itself),
+	 * with several threads.
+	 * @param radius the radius
+	 * @param counts an array of size size(), where the number of points within the radius of each point
+	 *        is written (in the order of the list used to build the tree)
+	 * @param threadCount the number of threads
+	 */
+	public void countPointsWithinRadiusOfAllPoints(double radius, int[] counts, int threadCount) {
+		checkBuffer(counts.length, pointCount);
+		runBatch(new BatchTask(BatchTask.COUNT, null, radius, 0, counts, null, null, 0, 0), pointCount, threadCount);
+	}
+
+	/**
+	 * Find the points within the radius of each point of the tree (except the point itself),
+	 * with several threads. The neighbors of point i are written to the positions offsets[i] to
+	 * offsets[i+1]-1 of the result arrays. The offsets are usually obtained from the counts returned
+	 * by countPointsWithinRadiusOfAllPoints() (offsets[0] = 0 and offsets[i+1] = offsets[i] + counts[i]).
+	 * @param radius the radius
+	 * @param offsets an array of size size()+1 indicating where the neighbors of each point are written
+	 * @param resultPoints an array where the neighbors are written (as positions in the list used to build the tree)
+	 * @param resultDistances an array where the distances to the neighbors are written
+	 * @param threadCount the number of threads
+	 */
+	public void pointsWithinRadiusOfAllPoints(double radius, int[] offsets, int[] resultPoints, double[] resultDistances,
+			int threadCount) {
+		checkBuffer(offsets.length, pointCount + 1);
+		checkBuffer(resultPoints.length, offsets[pointCount]);
+		checkBuffer(resultDistances.length, offsets[pointCount]);
+		runBatch(new BatchTask(BatchTask.RADIUS, null, radius, 0, offsets, resultPoints, resultDistances, 0, 0),
+				pointCount, threadCount);
+	}
+
+	// =========================== METHODS TO FIND THE K NEAREST NEIGHBORS =============================
+
+	/**
+	 * Find the k nearest neighbors of a target point. The neighbors are written to the result
+	 * arrays, from a given offset, by increasing distance.
+	 * @param target the target point
+	 * @param k the number of neighbors
+	 * @param excluded a point of the tree that should not be returned, such as the target point (-1 if none)
+	 * @param resultPoints an array where the neighbors are written (as positions in the list used to build the tree)
+	 * @param resultDistances an array where the distances to the neighbors are written
+	 * @param offset the position where the first neighbor is written
+	 * @return the number of neighbors found (less than k if the tree does not contain enough points)
+	 */
+	public int nearestNeighbors(double[] target, int k, int excluded, int[] resultPoints, double[] resultDistances,
+			int offset) {
+		if (k < 1) {
+			throw new IllegalArgumentException("The number of neighbors must be at least 1");
+		}
+		checkBuffer(resultPoints.length, offset + k);
+		checkBuffer(resultDistances.length, offset + k);
+		if (pointCount == 0) {
+			return 0;
+		}
+		// the k nearest points found until now are kept in a max-heap (by squared distance)
+		// stored in the result arrays
+		Heap heap = new Heap(resultPoints, resultDistances, offset, k);
+		searchNode(0, 0, pointCount, 0, target, excluded, heap);
+
+		// sort the heap by increasing distance
+		int count = heap.size;
+		for (int last = count - 1; last > 0; last--) {
+			heap.swap(offset, offset + last);
+			heap.size = last;
+			heap.siftDown(0);
+		}
+		for (int i = offset; i < offset + count; i++) {
+			resultDistances[i] = Math.sqrt(resultDistances[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Search the k nearest neighbors of a target point in a node.
+	 * @param node the node
+	 * @param start the first point of the node
+	 * @param end the point after the last point of the node
+	 * @param depth the depth of the node
+	 * @param target the target point
+	 * @param excluded the point that should not be returned (-1 if none)
+	 * @param heap the closest points found until now
+	 */
+	private void searchNode(int node, int start, int end, int depth, double[] target, int excluded, Heap heap) {
+		if (depth == leafDepth) {
+			for (int i = start; i < end; i++) {
+				double bound = heap.bound();
+				double squaredDistance = squaredDistance(target, i, bound);
+				if (squaredDistance < bound && pointIds[i] != excluded) {
+					heap.add(pointIds[i], squaredDistance);
+				}
+			}
+			return;
+		}
+		// search the closest child first, then the other one if it can contain a closer point
+		int middle = (start + end) >>> 1;
+		int below = 2 * node + 1;
+		int above = below + 1;
+		double bound = heap.bound();
+		double distanceBelow = squaredDistanceToBox(target, below, bound);
+		double distanceAbove = squaredDistanceToBox(target, above, bound);
+		if (distanceBelow <= distanceAbove) {
+			if (distanceBelow < bound) {
+				searchNode(below, start, middle, depth + 1, target, excluded, heap);
+			}
+			if (distanceAbove < heap.bound()) {
+				searchNode(above, middle, end, depth + 1, target, excluded, heap);
+			}
+		} else {
+			if (distanceAbove < bound) {
+				searchNode(above, middle, end, depth + 1, target, excluded, heap);
+			}
+			if (distanceBelow < heap.bound()) {
+				searchNode(below, start, middle, depth + 1, target, excluded, heap);
+			}
+		}
+	}
+
+	/**
+	 * Find the k nearest neighbors of each point of the tree (except the point itself), with several threads.
+	 * The neighbors of point i are written to the positions i*k to i*k+k-1 of the result arrays,
+	 * by increasing distance. If there are less than k neighbors, the remaining positions are filled
+	 * with -1 and an infinite distance.
+	 * @param k the number of neighbors
+	 * @param resultPoints an array of size size()*k where the neighbors are written
+	 *        (as positions in the list used to build the tree)
+	 * @param resultDistances an array of size size()*k where the distances to the neighbors are written
+	 * @param threadCount the number of threads
+	 */
+	public void nearestNeighborsOfAllPoints(int k, int[] resultPoints, double[] resultDistances, int threadCount) {
+		if (k < 1) {
+			throw new IllegalArgumentException("The number of neighbors must be at least 1");
+		}
+		checkBuffer(resultPoints.length, (long) pointCount * k);
+		checkBuffer(resultDistances.length, (long) pointCount * k);
+		runBatch(new BatchTask(BatchTask.KNN, null, 0, k, null, resultPoints, resultDistances, 0, 0),
+				pointCount, threadCount);
+	}
+
+	/**
+	 * Find the k nearest neighbors of several target points, with several threads.
+	 * The neighbors of target i are written to the positions i*k to i*k+k-1 of the result arrays,
+	 * by increasing distance. If there are less than k points in the tree, the remaining positions
+	 * are filled with -1 and an infinite distance.
+	 * @param targets the target points
+	 * @param k the number of neighbors
+	 * @param resultPoints an array of size targets.length*k where the neighbors are written
+	 *        (as positions in the list used to build the tree)
+	 * @param resultDistances an array of size targets.length*k where the distances to the neighbors are written
+	 * @param threadCount the number of threads
+	 */
+	public void nearestNeighbors(double[][] targets, int k, int[] resultPoints, double[] resultDistances,
+			int threadCount) {
+		if (k < 1) {
+			throw new IllegalArgumentException("The number of neighbors must be at least 1");
+		}
+		checkBuffer(resultPoints.length, (long) targets.length * k);
+		checkBuffer(resultDistances.length, (long) targets.length * k);
+		runBatch(new BatchTask(BatchTask.KNN, targets, 0, k, null, resultPoints, resultDistances, 0, 0),
+				targets.length, threadCount);
+	}
+
+	/**
+	 * Check that a buffer is large enough
+	 * @param length the length of the buffer
+	 * @param required the required length
+	 */
+	private static void checkBuffer(int length, long required) {
+		if (length < required) {
+			throw new IllegalArgumentException("The result array is too small: " + length + " < " + required);
+		}
+	}
+
+	/**
+	 * Run a batch of queries, split in a few ranges per thread so that the threads stay busy.
+	 * @param batch a task describing the queries (for all the queries)
+	 * @param queryCount the number of queries
+	 * @param threadCount the number of threads
+	 */
+	private void runBatch(BatchTask batch, int queryCount, int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		}
+		if (threadCount == 1 || queryCount < 2) {
+			batch.start = 0;
+			batch.end = queryCount;
+			batch.compute();
+			return;
+		}
+		int taskCount = Math.min(queryCount, threadCount * 4);
+		BatchTask[] tasks = new BatchTask[taskCount];
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			for (int t = 0; t < taskCount; t++) {
+				tasks[t] = new BatchTask(batch.type, batch.targets, batch.radius, batch.k, batch.counts,
+						batch.resultPoints, batch.resultDistances, (int) ((long) queryCount * t / taskCount),
+						(int) ((long) queryCount * (t + 1) / taskCount));
+				pool.execute(tasks[t]);
+			}
+			for (BatchTask task : tasks) {
+				task.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A task that answers a range of the queries of a batch. When the targets are the points of the tree,
+	 * they are processed in the order of the leaves.
+	 */
+	private class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		// the types of queries
+		static final int COUNT = 0;
+		static final int RADIUS = 1;
+		static final int KNN = 2;
+
+		private final int type;
+		// the target points (null for the points of the tree)
+		private final double[][] targets;
+		private final double radius;
+		private final int k;
+		// the counts (COUNT) or the offsets (RADIUS)
+		private final int[] counts;
+		private final int[] resultPoints;
+		private final double[] resultDistances;
+		// the range of queries
+		int start;
+		int end;
+
+		BatchTask(int type, double[][] targets, double radius, int k, int[] counts, int[] resultPoints,
+				double[] resultDistances, int start, int end) {
+			this.type = type;
+			this.targets = targets;
+			this.radius = radius;
+			this.k = k;
+			this.counts = counts;
+			this.resultPoints = resultPoints;
+			this.resultDistances = resultDistances;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			double[] target = new double[dimensionCount];
+			double squaredRadius = radius * radius;
+			double[] squaredDistances = new double[leafSize];
+			RadiusWriter writer = type == RADIUS ? new RadiusWriter(resultPoints, resultDistances) : null;
+			for (int query = start; query < end; query++) {
+				// the target point, and the point to exclude
+				int point;
+				int resultIndex;
+				if (targets == null) {
+					System.arraycopy(values, query * dimensionCount, target, 0, dimensionCount);
+					point = pointIds[query];
+					resultIndex = point;
+				} else {
+					target = targets[query];
+					point = -1;
+					resultIndex = query;
+				}
+				if (type == COUNT) {
+					counts[resultIndex] = pointCount == 0 ? 0 : countNode(0, 0, pointCount, 0, target, point, squaredRadius, squaredDistances);
+				} else if (type == RADIUS) {
+					writer.position = counts[resultIndex];
+					writer.end = counts[resultIndex + 1];
+					visitPointsWithinRadiusOf(point, target, radius, writer);
+				} else {
+					int offset = resultIndex * k;
+					int count = nearestNeighbors(target, k, point, resultPoints, resultDistances, offset);
+					Arrays.fill(resultPoints, offset + count, offset + k, -1);
+					Arrays.fill(resultDistances, offset + count, offset + k, Double.POSITIVE_INFINITY);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An object writing the points found by a radius query to the result arrays of a batch.
+	 */
+	private static class RadiusWriter implements NeighborVisitor {
+		private final int[] resultPoints;
+		private final double[] resultDistances;
+		// the next position to write, and the end of the positions of the current query
+		int position;
+		int end;
+
+		RadiusWriter(int[] resultPoints, double[] resultDistances) {
+			this.resultPoints = resultPoints;
+			this.resultDistances = resultDistances;
+		}
+
+		@Override
+		public boolean visit(int point, double distance) {
+			if (position == end) {
+				throw new IllegalArgumentException("The offsets do not leave enough space for the neighbors");
+			}
+			resultPoints[position] = point;
+			resultDistances[position++] = distance;
+			return true;
+		}
+	}
+
+	/**
+	 * A max-heap of points ordered by squared distance, stored in the result arrays of a k-NN query.
+	 */
+	private static class Heap {
+		private final int[] points;
+		private final double[] distances;
+		private final int offset;
+		private final int capacity;
+		int size;
+
+		Heap(int[] points, double[] distances, int offset, int capacity) {
+			this.points = points;
+			this.distances = distances;
+			this.offset = offset;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Get the squared distance that a point must not reach to be added
+		 * @return the largest squared distance if the heap is full, otherwise the infinity
+		 */
+		double bound() {
+			return size < capacity ? Double.POSITIVE_INFINITY : distances[offset];
+		}
+
+		/**
+		 * Add a point, replacing the farthest point if the heap is full
+		 * @param point the point
+		 * @param squaredDistance its squared distance
+		 */
+		void add(int point, double squaredDistance) {
+			if (size < capacity) {
+				// add at the end, and move up
+				int i = size++;
+				while (i > 0) {
+					int parent = (i - 1) >>> 1;
+					if (distances[offset + parent] >= squaredDistance) {
+						break;
+					}
+					points[offset + i] = points[offset + parent];
+					distances[offset + i] = distances[offset + parent];
+					i = parent;
+				}
+				points[offset + i] = point;
+				distances[offset + i] = squaredDistance;
+			} else {
+				points[offset] = point;
+				distances[offset] = squaredDistance;
+				siftDown(0);
+			}
+		}
+
+		/**
+		 * Move a point down the heap until it is not closer than its children
+		 * @param i the position of the point in the heap
+		 */
+		void siftDown(int i) {
+			int point = points[offset + i];
+			double distance = distances[offset + i];
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && distances[offset + child + 1] > distances[offset + child]) {
+					child++;
+				}
+				if (distances[offset + child] <= distance) {
+					break;
+				}
+				points[offset + i] = points[offset + child];
+				distances[offset + i] = distances[offset + child];
+				i = child;
+			}
+			points[offset + i] = point;
+			distances[offset + i] = distance;
+		}
+
+		/**
+		 * Swap two positions of the result arrays
+		 * @param i the first position
+		 * @param j the second position
+		 */
+		void swap(int i, int j) {
+			int point = points[i];
+			points[i] = points[j];
+			points[j] = point;
+			double distance = distances[i];
+			distances[i] = distances[j];
+			distances[j] = distance;
+		}
+	}
+}
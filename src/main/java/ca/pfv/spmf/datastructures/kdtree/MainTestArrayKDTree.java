@@ -0,0 +1,103 @@
+package ca.pfv.spmf.datastructures.kdtree;
+/* This file is copyright (c) 2008-2015 Philippe Fournier-Viger
+* 
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+* 
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* 
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.pfv.spmf.datastructures.grid.UniformGrid.NeighborVisitor;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+
+/**
+ * This test show how to use the ArrayKDTree structure to find the k nearest neighbors
+ * and the points within a radius of some points, one query at a time or by batches of
+ * queries answered by several threads, and is intended for testing the ArrayKDTree
+ * structure by developers.
+* 
+* @see ArrayKDTree
+ * @author Philippe Fournier-Viger
+ */
+class MainTestArrayKDTree {
+
+	public static void main(String[] args) {
+		// Use a list of point to create the kd-tree
+		final List<DoubleArray> points = new ArrayList<DoubleArray>();
+		points.add(new DoubleArray(new double[]{2d,3d}));
+		points.add(new DoubleArray(new double[]{5d,4d}));
+		points.add(new DoubleArray(new double[]{9d,6d}));
+		points.add(new DoubleArray(new double[]{4d,7d}));
+		points.add(new DoubleArray(new double[]{8d,1d}));
+		points.add(new DoubleArray(new double[]{7d,2d}));
+		
+		// Create a KD Tree with the points, with at most 2 points per leaf
+		ArrayKDTree tree = new ArrayKDTree(points, 2);
+		System.out.println("Number of elements in tree: " + tree.size());
+	
+		// Find the 3 nearest neighboors to the point 4,4
+		int k = 3;
+		int[] neighbors = new int[k];
+		double[] distances = new double[k];
+		int count = tree.nearestNeighbors(new double[]{4d,4d}, k, -1, neighbors, distances, 0);
+		System.out.println("THE K NEAREST NEIGHBOORS OF (4,4) ARE : ");
+		for(int i = 0; i < count; i++) {
+			System.out.println(" " + points.get(neighbors[i]) + " distance: " + distances[i]);
+		}
+		
+		// Find the points within a radius of 3 of the point 4,4
+		System.out.println("THE POINTS WITHIN THE RADIUS OF (4,4) ARE : ");
+		tree.visitPointsWithinRadiusOf(new double[]{4d,4d}, 3, new NeighborVisitor() {
+			@Override
+			public boolean visit(int point, double distance) {
+				System.out.println(" " + points.get(point) + " distance: " + distance);
+				return true;
+			}
+		});
+		
+		// Find the 2 nearest neighbors of each point of the tree with 2 threads
+		k = 2;
+		int[] allNeighbors = new int[points.size() * k];
+		double[] allDistances = new double[points.size() * k];
+		tree.nearestNeighborsOfAllPoints(k, allNeighbors, allDistances, 2);
+		
+		// Find the points within a radius of 4 of each point of the tree with 2 threads:
+		// first count them, then find them
+		double radius = 4;
+		int[] counts = new int[points.size()];
+		tree.countPointsWithinRadiusOfAllPoints(radius, counts, 2);
+		int[] offsets = new int[points.size() + 1];
+		for(int i = 0; i < points.size(); i++) {
+			offsets[i + 1] = offsets[i] + counts[i];
+		}
+		int[] radiusNeighbors = new int[offsets[points.size()]];
+		double[] radiusDistances = new double[offsets[points.size()]];
+		tree.pointsWithinRadiusOfAllPoints(radius, offsets, radiusNeighbors, radiusDistances, 2);
+		
+		for(int i = 0; i < points.size(); i++) {
+			System.out.println("POINT " + points.get(i));
+			System.out.print("   " + k + " nearest neighbors:");
+			for(int j = i * k; j < i * k + k; j++) {
+				System.out.print(" " + points.get(allNeighbors[j]));
+			}
+			System.out.println();
+			System.out.print("   points within radius " + radius + ":");
+			for(int j = offsets[i]; j < offsets[i + 1]; j++) {
+				System.out.print(" " + points.get(radiusNeighbors[j]));
+			}
+			System.out.println();
+		}
+	}
+}
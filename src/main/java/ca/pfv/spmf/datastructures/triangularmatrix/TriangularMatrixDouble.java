@@ -0,0 +1,128 @@
+package ca.pfv.spmf.datastructures.triangularmatrix;
+
+/* This file is copyright (c) 2008-2013 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+/**
+ * This class is for creating a symmetric triangular matrix of doubles represented by using arrays,
+ * such as a matrix of distances between elements. Only the values below the diagonal
+ * are stored: line i contains the values for the pairs (i, 0), (i, 1) ... (i, i-1).
+ * For example: <br/><br/>
+ *
+ * 0: []<br/>
+ * 1: [0.0]<br/>
+ * 2: [0.0, 0.0]<br/>
+ * 3: [0.0, 0.0, 0.0]
+ * <br/><br/>
+ *
+ * The value of the pair (i, j) is the same as the value of the pair (j, i).
+ * Different lines can be modified by different threads at the same time.
+ * <br/><br/>
+ *
+ * This structure is used by the hierarchical clustering algorithm.
+ *
+ * @see TriangularMatrix
+ * @author Philippe Fournier-Viger
+ */
+public class TriangularMatrixDouble {
+
+	// the triangular matrix is a two dimension array of doubles
+	private final double[][] matrix;
+	// the number of lines in the matrix
+	private final int elementCount;
+
+	/**
+	 * Constructor of a new triangular matrix where all values are zero.
+	 * @param elementCount the desired number of elements in the matrix.
+	 */
+	public TriangularMatrixDouble(int elementCount){
+		// save the number of elements
+		this.elementCount = elementCount;
+		// initialize the matrix
+		matrix = new double[elementCount][];
+		for(int i=0; i< elementCount; i++){
+			// allocate an array for each line
+			matrix[i] = new double[i];
+		}
+	}
+
+	/**
+	 * Get the number of elements of this matrix.
+	 * @return the number of elements
+	 */
+	public int getElementCount() {
+		return elementCount;
+	}
+
+	/**
+	 * Get the value for a pair of distinct elements.
+	 * @param i the first element
+	 * @param j the second element
+	 * @return the value
+	 */
+	public double get(int i, int j){
+		if(j < i){
+			return matrix[i][j];  // so that j is always smaller than i
+		}else{
+			return matrix[j][i];
+		}
+	}
+
+	/**
+	 * Set the value for a pair of distinct elements.
+	 * @param i the first element
+	 * @param j the second element
+	 * @param value the new value
+	 */
+	public void set(int i, int j, double value){
+		if(j < i){
+			matrix[i][j] = value;  // so that j is always smaller than i
+		}else{
+			matrix[j][i] = value;
+		}
+	}
+
+	/**
+	 * Get a line of the matrix, which contains the values of the pairs (i, 0), (i, 1) ... (i, i-1).
+	 * Modifying this array modifies the matrix.
+	 * @param i the line number
+	 * @return the line as an array of doubles
+	 */
+	public double[] getLine(int i){
+		return matrix[i];
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		// create a string buffer
+		StringBuilder temp = new StringBuilder();
+		// for each line
+		for (int i = 0; i < matrix.length; i++) {
+			temp.append(i);
+			temp.append(": ");
+			// for each column
+			for (int j = 0; j < matrix[i].length; j++) {
+				temp.append(matrix[i][j]); // add the value at position i,j
+				temp.append(" ");
+			}
+			temp.append("\n");
+		}
+		return temp.toString();
+	}
+}
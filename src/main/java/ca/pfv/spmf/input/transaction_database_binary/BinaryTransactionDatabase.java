@@ -0,0 +1,311 @@
+package ca.pfv.spmf.input.transaction_database_binary;
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+*
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class represents a transaction database stored in the SPMF binary format.
+ * The file is memory-mapped, so that opening a database does not require to parse it, and
+ * the operating system keeps its content in cache between several executions. <br/><br/>
+ *
+ * A file in this format is created from a file in the SPMF text format
+ * (with or without utilities) by the class TransactionDatabaseBinaryConverter.
+ * It is stored by columns as follows (all values are big-endian):
+ * <pre>
+ * header:        magic (int), version (int), flags (int), transaction count (int),
+ *                total number of items (long), largest item (int), reserved (int)
+ * supports:      the support of each item 0..largest item (int[])
+ * TWU:           the transaction-weighted utility of each item (long[], only if flag HAS_UTILITIES)
+ * offsets:       the position of the first item of each transaction in the item column,
+ *                followed by the total number of items (long[transaction count + 1])
+ * items:         the items of all transactions (int[])
+ * TU:            the utility of each transaction (int[], only if flag HAS_UTILITIES)
+ * utilities:     the utility of each item of each transaction (int[], only if flag HAS_UTILITIES)
+ * </pre>
+ * The supports and TWU of single items are stored in the file so that algorithms do not need to
+ * scan the database to calculate them.
+ *
+ * @see ca.pfv.spmf.tools.dataset_converter.TransactionDatabaseBinaryConverter
+ * @author Philippe Fournier-Viger
+ */
+public class BinaryTransactionDatabase implements Closeable {
+
+	/** the value at the beginning of a file in this format ("SPMB") */
+	public static final int MAGIC = 0x53504D42;
+	/** the version of the format */
+	public static final int VERSION = 1;
+	/** a flag indicating that the file contains utility values */
+	public static final int HAS_UTILITIES = 1;
+	/** the size of the header in bytes */
+	public static final int HEADER_SIZE = 32;
+
+	/** the size of a mapped segment of the file (a file larger than 2 GB cannot be
+	 * mapped by a single buffer) */
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+	/** segments overlap by this number of bytes so that a value never crosses two segments */
+	private static final int SEGMENT_OVERLAP = 8;
+
+	/** the mapped segments of the file */
+	private final MappedByteBuffer[] segments;
+	/** the file */
+	private final RandomAccessFile file;
+
+	/** the number of transactions */
+	private final int transactionCount;
+	/** the total number of items in all transactions */
+	private final long itemOccurrenceCount;
+	/** the largest item */
+	private final int maxItem;
+	/** true if the file contains utilities */
+	private final boolean hasUtilities;
+
+	/** the position of each section in the file */
+	private final long supportsPosition;
+	private final long twuPosition;
+	private final long offsetsPosition;
+	private final long itemsPosition;
+	private final long transactionUtilitiesPosition;
+	private final long utilitiesPosition;
+
+	/**
+	 * Open a database in the binary format.
+	 * @param path the path of the file. If there is no such file, the path is
+	 *   searched in the classpath like the other SPMF input files.
+	 * @throws IOException if the file cannot be read or is not in the binary format
+	 */
+	public BinaryTransactionDatabase(String path) throws IOException {
+		file = new RandomAccessFile(findFile(path), "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if(size < HEADER_SIZE) {
+				throw new IOException("The file " + path + " is not a binary transaction database");
+			}
+			// map the file by segments
+			int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+			segments = new MappedByteBuffer[segmentCount];
+			for(int i = 0; i < segmentCount; i++) {
+				long start = ((long) i) << SEGMENT_SHIFT;
+				long length = Math.min(size - start, (1L << SEGMENT_SHIFT) + SEGMENT_OVERLAP);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			}
+
+			// read the header
+			if(getInt(0) != MAGIC) {
+				throw new IOException("The file " + path + " is not a binary transaction database");
+			}
+			if(getInt(4) != VERSION) {
+				throw new IOException("Unsupported version of the binary format: " + getInt(4));
+			}
+			hasUtilities = (getInt(8) & HAS_UTILITIES) != 0;
+			transactionCount = getInt(12);
+			itemOccurrenceCount = getLong(16);
+			maxItem = getInt(24);
+
+			// calculate the position of each section
+			supportsPosition = HEADER_SIZE;
+			twuPosition = supportsPosition + 4L * (maxItem + 1);
+			offsetsPosition = twuPosition + (hasUtilities ? 8L * (maxItem + 1) : 0);
+			itemsPosition = offsetsPosition + 8L * (transactionCount + 1);
+			transactionUtilitiesPosition = itemsPosition + 4L * itemOccurrenceCount;
+			utilitiesPosition = transactionUtilitiesPosition + 4L * transactionCount;
+			long expectedSize = hasUtilities ? utilitiesPosition + 4L * itemOccurrenceCount : transactionUtilitiesPosition;
+			if(size != expectedSize) {
+				throw new IOException("The file " + path + " is truncated or corrupted");
+			}
+		}catch(IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Find a file on disk or in the classpath.
+	 * @param path the path
+	 * @return the file
+	 * @throws IOException if the file is not found
+	 */
+	private File findFile(String path) throws IOException {
+		File candidate = new File(path);
+		if(candidate.exists()) {
+			return candidate;
+		}
+		URL url = getClass().getClassLoader().getResource(path);
+		if(url != null && "file".equals(url.getProtocol())) {
+			try {
+				return new File(url.toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+		throw new IOException("File not found: " + path);
+	}
+
+	/**
+	 * Read an int at a given position of the file.
+	 * @param position the position in bytes
+	 * @return the value
+	 */
+	private int getInt(long position) {
+		return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Read a long at a given position of the file.
+	 * @param position the position in bytes
+	 * @return the value
+	 */
+	private long getLong(long position) {
+		return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Get the number of transactions in this database.
+	 * @return the number of transactions.
+	 */
+	public int size() {
+		return transactionCount;
+	}
+
+	/**
+	 * Get the largest item in this database.
+	 * @return the largest item
+	 */
+	public int getMaxItem() {
+		return maxItem;
+	}
+
+	/**
+	 * Check if this database contains utility values.
+	 * @return true if yes
+	 */
+	public boolean hasUtilities() {
+		return hasUtilities;
+	}
+
+	/**
+	 * Get the support of an item (the number of transactions containing the item),
+	 * as stored in the file.
+	 * @param item the item
+	 * @return the support
+	 */
+	public int getSupport(int item) {
+		if(item < 0 || item > maxItem) {
+			return 0;
+		}
+		return getInt(supportsPosition + 4L * item);
+	}
+
+	/**
+	 * Get the transaction-weighted utility of an item, as stored in the file.
+	 * @param item the item
+	 * @return the TWU
+	 */
+	public long getTWU(int item) {
+		checkUtilities();
+		if(item < 0 || item > maxItem) {
+			return 0;
+		}
+		return getLong(twuPosition + 8L * item);
+	}
+
+	/**
+	 * Get the position of the first item of a transaction in the item column.
+	 * @param transaction the transaction number
+	 * @return the position
+	 */
+	private long getOffset(int transaction) {
+		return getLong(offsetsPosition + 8L * transaction);
+	}
+
+	/**
+	 * Get the number of items in a transaction.
+	 * @param transaction the transaction number (from 0 to size() -1)
+	 * @return the number of items
+	 */
+	public int getTransactionLength(int transaction) {
+		return (int) (getOffset(transaction + 1) - getOffset(transaction));
+	}
+
+	/**
+	 * Copy the items of a transaction in a buffer.
+	 * @param transaction the transaction number (from 0 to size() -1)
+	 * @param buffer the buffer (it must be large enough to store the transaction)
+	 * @return the number of items of the transaction
+	 */
+	public int getItems(int transaction, int[] buffer) {
+		long start = getOffset(transaction);
+		int length = (int) (getOffset(transaction + 1) - start);
+		long position = itemsPosition + 4L * start;
+		for(int i = 0; i < length; i++, position += 4) {
+			buffer[i] = getInt(position);
+		}
+		return length;
+	}
+
+	/**
+	 * Copy the utilities of the items of a transaction in a buffer.
+	 * @param transaction the transaction number (from 0 to size() -1)
+	 * @param buffer the buffer (it must be large enough to store the transaction)
+	 * @return the number of items of the transaction
+	 */
+	public int getUtilities(int transaction, int[] buffer) {
+		checkUtilities();
+		long start = getOffset(transaction);
+		int length = (int) (getOffset(transaction + 1) - start);
+		long position = utilitiesPosition + 4L * start;
+		for(int i = 0; i < length; i++, position += 4) {
+			buffer[i] = getInt(position);
+		}
+		return length;
+	}
+
+	/**
+	 * Get the utility of a transaction.
+	 * @param transaction the transaction number (from 0 to size() -1)
+	 * @return the transaction utility
+	 */
+	public int getTransactionUtility(int transaction) {
+		checkUtilities();
+		return getInt(transactionUtilitiesPosition + 4L * transaction);
+	}
+
+	/**
+	 * Throw an exception if this database does not contain utilities.
+	 */
+	private void checkUtilities() {
+		if(!hasUtilities) {
+			throw new IllegalStateException("This binary transaction database does not contain utilities");
+		}
+	}
+
+	/**
+	 * Close the file. The database should not be used after calling this method.
+	 * @throws IOException if error while closing the file
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+}
@@ -24,6 +24,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+
 /**
  * This class represents a transaction database (a.k.a. binary context), implemented
  * as a list of integers. It can read a transaction database directly from a file. 
@@ -78,6 +80,30 @@ public class TransactionDatabase {
 		}
 	}
 
+	/**
+	 * Method to load a transaction database in the SPMF binary format into memory.
+	 * This avoids parsing a text file.
+	 * @param database the database in binary format
+	 */
+	public void loadFile(BinaryTransactionDatabase database) {
+		int[] buffer = new int[16];
+		// for each transaction
+		for (int tid = 0; tid < database.size(); tid++) {
+			int length = database.getTransactionLength(tid);
+			if (length > buffer.length) {
+				buffer = new int[length];
+			}
+			database.getItems(tid, buffer);
+			// create the transaction
+			List<Integer> itemset = new ArrayList<Integer>(length);
+			for (int i = 0; i < length; i++) {
+				itemset.add(buffer[i]);
+			}
+			// add the transaction to this database
+			addTransaction(itemset);
+		}
+	}
+
 	/**
 	 * This method process a line from a file that is read.
      */
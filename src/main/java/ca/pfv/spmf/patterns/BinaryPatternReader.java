@@ -0,0 +1,189 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * This class reads a file of patterns written by BinaryPatternSink. The patterns are read one
+ * at a time by calling next(). This class can also convert such a file to the SPMF text format.
+ *
+ * @see BinaryPatternSink
+ * @author Philippe Fournier-Viger
+ */
+public class BinaryPatternReader implements Closeable {
+
+	/** the input */
+	private final DataInputStream stream;
+
+	/** the items of the current pattern */
+	private int[] items = new int[16];
+
+	/** the number of items of the current pattern */
+	private int length = 0;
+
+	/** the value of the current pattern */
+	private long value = 0;
+
+	/**
+	 * Constructor
+	 * @param path the path of a file written by BinaryPatternSink
+	 * @throws IOException if the file cannot be read or is not in the right format
+	 */
+	public BinaryPatternReader(String path) throws IOException {
+		this(new FileInputStream(path));
+	}
+
+	/**
+	 * Constructor
+	 * @param input the input
+	 * @throws IOException if the input cannot be read or is not in the right format
+	 */
+	public BinaryPatternReader(InputStream input) throws IOException {
+		stream = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+		if(stream.readInt() != BinaryPatternSink.MAGIC) {
+			stream.close();
+			throw new IOException("This is not a file of patterns in binary format");
+		}
+		int version = stream.readInt();
+		if(version != BinaryPatternSink.VERSION) {
+			stream.close();
+			throw new IOException("Unsupported version of the binary format: " + version);
+		}
+	}
+
+	/**
+	 * Read the next pattern.
+	 * @return true if a pattern was read, or false if the end of the file was reached
+	 * @throws IOException if error while reading the file
+	 */
+	public boolean next() throws IOException {
+		int first = stream.read();
+		if(first < 0) {
+			return false;
+		}
+		length = (int) readVarLong(first);
+		if(length > items.length) {
+			items = Arrays.copyOf(items, Math.max(length, items.length * 2));
+		}
+		int previous = 0;
+		for(int i = 0; i < length; i++) {
+			previous += (int) unzigzag(readVarLong(readByte()));
+			items[i] = previous;
+		}
+		value = unzigzag(readVarLong(readByte()));
+		return true;
+	}
+
+	/**
+	 * Get the items of the current pattern. The array is reused for the next patterns.
+	 * @return an array where the items are at positions 0 to getLength()-1
+	 */
+	public int[] getItems() {
+		return items;
+	}
+
+	/**
+	 * Get the number of items of the current pattern.
+	 * @return the number of items
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get the value (support or utility) of the current pattern.
+	 * @return the value
+	 */
+	public long getValue() {
+		return value;
+	}
+
+	/**
+	 * Read a byte that must exist.
+	 * @return the byte
+	 * @throws IOException if the end of the file is reached
+	 */
+	private int readByte() throws IOException {
+		int b = stream.read();
+		if(b < 0) {
+			throw new EOFException("Truncated pattern at the end of the file");
+		}
+		return b;
+	}
+
+	/**
+	 * Read a variable-length number.
+	 * @param first the first byte of the number
+	 * @return the number
+	 * @throws IOException if error while reading
+	 */
+	private long readVarLong(int first) throws IOException {
+		long result = first & 0x7F;
+		int shift = 7;
+		int b = first;
+		while((b & 0x80) != 0) {
+			b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		return result;
+	}
+
+	/**
+	 * Decode a number encoded by BinaryPatternSink.zigzag().
+	 * @param value the encoded number
+	 * @return the number
+	 */
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public void close() throws IOException {
+		stream.close();
+	}
+
+	/**
+	 * Convert a file written by BinaryPatternSink to the SPMF text format.
+	 * @param input the path of the binary file
+	 * @param output the path of the text file
+	 * @param label the label written before the value of each pattern (e.g. TextPatternSink.SUPPORT_LABEL)
+	 * @throws IOException if error while reading or writing a file
+	 */
+	public static void convertToText(String input, String output, String label) throws IOException {
+		BinaryPatternReader reader = new BinaryPatternReader(input);
+		try {
+			TextPatternSink sink = new TextPatternSink(output, label);
+			try {
+				while(reader.next()) {
+					sink.write(reader.getItems(), reader.getLength(), reader.getValue());
+				}
+			}finally {
+				sink.close();
+			}
+		}finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class is a PatternSink that writes patterns in a compact binary format, which is much
+ * smaller than the text format and faster to write. The file can be read with BinaryPatternReader,
+ * which can also convert it to the text format. <br/><br/>
+ *
+ * The file starts with a header of 8 bytes (the int MAGIC and the int VERSION). Then, each pattern
+ * is written as: its number of items, the difference between each item and the previous item
+ * (the first item is compared to 0), and its value. All these numbers are written as variable-length
+ * integers (7 bits per byte). Differences and values are zigzag-encoded so that negative numbers
+ * are also small. Since most algorithms output items in a fixed order, the differences are
+ * often small and fit in a single byte.
+ *
+ * @see PatternSink
+ * @see BinaryPatternReader
+ * @author Philippe Fournier-Viger
+ */
+public class BinaryPatternSink implements PatternSink {
+
+	/** the first int of the file ("SPMP") */
+	public static final int MAGIC = 0x53504D50;
+
+	/** the version of the format */
+	public static final int VERSION = 1;
+
+	/** the size of the buffer */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** the maximum number of bytes of a variable-length long */
+	private static final int MAX_VARLONG_LENGTH = 10;
+
+	/** the output */
+	private final OutputStream stream;
+
+	/** the buffer */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/** the number of bytes in the buffer */
+	private int position = 0;
+
+	/** the number of patterns */
+	private long patternCount = 0;
+
+	/**
+	 * Constructor
+	 * @param path the path of the output file
+	 * @throws IOException if the file cannot be created
+	 */
+	public BinaryPatternSink(String path) throws IOException {
+		this(new FileOutputStream(path));
+	}
+
+	/**
+	 * Constructor
+	 * @param stream the output
+	 * @throws IOException if error while writing the header
+	 */
+	public BinaryPatternSink(OutputStream stream) throws IOException {
+		this.stream = stream;
+		writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	public void write(int[] items, int length, long value) throws IOException {
+		patternCount++;
+		reserve(MAX_VARLONG_LENGTH);
+		writeVarLong(length);
+		int previous = 0;
+		for(int i = 0; i < length; i++) {
+			reserve(MAX_VARLONG_LENGTH);
+			writeVarLong(zigzag((long) items[i] - previous));
+			previous = items[i];
+		}
+		reserve(MAX_VARLONG_LENGTH);
+		writeVarLong(zigzag(value));
+	}
+
+	/**
+	 * Encode a signed number so that numbers having a small absolute value are small positive numbers
+	 * (0 -> 0, -1 -> 1, 1 -> 2, -2 -> 3, ...).
+	 * @param value the number
+	 * @return the encoded number
+	 */
+	static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Make sure that the buffer has space for some bytes, by writing
+	 * the content of the buffer to the output if necessary.
+	 * @param length the number of bytes
+	 * @throws IOException if error while writing
+	 */
+	private void reserve(int length) throws IOException {
+		if(position + length > BUFFER_SIZE) {
+			stream.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Append a positive number to the buffer, using 7 bits per byte. The highest bit
+	 * of a byte indicates if there are more bytes.
+	 * @param value the number
+	 */
+	private void writeVarLong(long value) {
+		while((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	/**
+	 * Append an int (4 bytes, big-endian) to the buffer.
+	 * @param value the int
+	 * @throws IOException if error while writing
+	 */
+	private void writeInt(int value) throws IOException {
+		reserve(4);
+		buffer[position++] = (byte) (value >>> 24);
+		buffer[position++] = (byte) (value >>> 16);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	public long getPatternCount() {
+		return patternCount;
+	}
+
+	public void close() throws IOException {
+		stream.write(buffer, 0, position);
+		position = 0;
+		stream.close();
+	}
+}
@@ -0,0 +1,58 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+/**
+ * This class is a PatternSink that only counts the patterns and does not keep them.
+ * It is useful to quickly find how many patterns are obtained for some parameter values
+ * (for example, to tune the minimum support threshold), since nothing is written to disk
+ * and no object is created for the patterns.
+ *
+ * @see PatternSink
+ * @author Philippe Fournier-Viger
+ */
+public class CountingPatternSink implements PatternSink {
+
+	/** the number of patterns */
+	private long patternCount = 0;
+
+	/** the size of the largest pattern */
+	private int maximumLength = 0;
+
+	public void write(int[] items, int length, long value) {
+		patternCount++;
+		if(length > maximumLength) {
+			maximumLength = length;
+		}
+	}
+
+	public long getPatternCount() {
+		return patternCount;
+	}
+
+	/**
+	 * Get the number of items of the largest pattern written to this sink.
+	 * @return the size of the largest pattern
+	 */
+	public int getMaximumLength() {
+		return maximumLength;
+	}
+
+	public void close() {
+		// nothing to close
+	}
+}
@@ -0,0 +1,70 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
+import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemsets;
+
+/**
+ * This class is a PatternSink that keeps the patterns in memory, as an Itemsets object.
+ * The value of each pattern (support or utility) is stored as the support of the itemset.
+ *
+ * @see PatternSink
+ * @see Itemsets
+ * @author Philippe Fournier-Viger
+ */
+public class MemoryPatternSink implements PatternSink {
+
+	/** the patterns */
+	private final Itemsets itemsets;
+
+	/** the number of patterns */
+	private long patternCount = 0;
+
+	/**
+	 * Constructor
+	 * @param name the name given to the itemsets (e.g. "FREQUENT ITEMSETS")
+	 */
+	public MemoryPatternSink(String name) {
+		itemsets = new Itemsets(name);
+	}
+
+	public void write(int[] items, int length, long value) {
+		patternCount++;
+		int[] itemsetArray = new int[length];
+		System.arraycopy(items, 0, itemsetArray, 0, length);
+		Itemset itemset = new Itemset(itemsetArray);
+		itemset.setAbsoluteSupport((int) value);
+		itemsets.addItemset(itemset, length);
+	}
+
+	public long getPatternCount() {
+		return patternCount;
+	}
+
+	/**
+	 * Get the patterns written to this sink.
+	 * @return the patterns
+	 */
+	public Itemsets getItemsets() {
+		return itemsets;
+	}
+
+	public void close() {
+		// nothing to close
+	}
+}
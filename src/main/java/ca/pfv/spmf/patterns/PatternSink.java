@@ -0,0 +1,54 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * This interface represents the destination of the patterns found by an algorithm. An algorithm
+ * calls write() each time that it finds a pattern and close() at the end of its execution.
+ * The implementations write the patterns in the SPMF text format (TextPatternSink), in
+ * a compact binary format (BinaryPatternSink), keep them in memory (MemoryPatternSink), or
+ * only count them (CountingPatternSink). <br/><br/>
+ *
+ * The array of items given to write() is a buffer that the algorithm reuses for the next patterns.
+ * Thus, an implementation must not keep a reference to it. The implementations are not thread-safe.
+ *
+ * @see TextPatternSink
+ * @see BinaryPatternSink
+ * @see MemoryPatternSink
+ * @see CountingPatternSink
+ * @author Philippe Fournier-Viger
+ */
+public interface PatternSink extends Closeable {
+
+	/**
+	 * Write a pattern.
+	 * @param items a buffer containing the items of the pattern
+	 * @param length the number of items of the pattern (the items are at positions 0 to length-1)
+	 * @param value the support or the utility of the pattern
+	 * @throws IOException if error while writing the pattern
+	 */
+	void write(int[] items, int length, long value) throws IOException;
+
+	/**
+	 * Get the number of patterns written to this sink.
+	 * @return the number of patterns
+	 */
+	long getPatternCount();
+}
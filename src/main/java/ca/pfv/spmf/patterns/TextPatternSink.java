@@ -0,0 +1,185 @@
+package ca.pfv.spmf.patterns;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.FileWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * This class is a PatternSink that writes patterns in the SPMF text format, one pattern
+ * per line, for example: "1 2 3 #SUP: 5". <br/><br/>
+ *
+ * The characters of each line are directly written in a large buffer of characters, instead
+ * of creating a StringBuilder and a String for each pattern. This makes a large difference
+ * when an algorithm finds millions of patterns. <br/><br/>
+ *
+ * The buffer is only written to the output at the end of a line. Thus, several sinks
+ * can share the same Writer (e.g. one sink per thread), since each call to Writer.write()
+ * appends complete lines and is synchronized by the Writer.
+ *
+ * @see PatternSink
+ * @author Philippe Fournier-Viger
+ */
+public class TextPatternSink implements PatternSink, Flushable {
+
+	/** the label written before the support of a pattern */
+	public static final String SUPPORT_LABEL = "#SUP:";
+
+	/** the label written before the utility of a pattern */
+	public static final String UTILITY_LABEL = "#UTIL:";
+
+	/** the default size of the buffer */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** the maximum number of characters of a number of type long */
+	private static final int MAX_LONG_LENGTH = 20;
+
+	/** the output */
+	private final Writer writer;
+
+	/** the buffer */
+	private char[] buffer;
+
+	/** the number of characters in the buffer */
+	private int position = 0;
+
+	/** the characters written between the items and the value of a pattern (e.g. " #SUP: ") */
+	private final char[] label;
+
+	/** the characters written at the end of each line */
+	private final char[] lineSeparator = System.getProperty("line.separator").toCharArray();
+
+	/** the number of patterns */
+	private long patternCount = 0;
+
+	/**
+	 * Constructor
+	 * @param path the path of the output file
+	 * @param label the label written before the value of each pattern (e.g. SUPPORT_LABEL)
+	 * @throws IOException if the file cannot be created
+	 */
+	public TextPatternSink(String path, String label) throws IOException {
+		this(new FileWriter(path), label);
+	}
+
+	/**
+	 * Constructor
+	 * @param writer the output
+	 * @param label the label written before the value of each pattern (e.g. SUPPORT_LABEL)
+	 */
+	public TextPatternSink(Writer writer, String label) {
+		this(writer, label, BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param writer the output
+	 * @param label the label written before the value of each pattern (e.g. SUPPORT_LABEL)
+	 * @param bufferSize the size of the buffer of characters
+	 */
+	public TextPatternSink(Writer writer, String label, int bufferSize) {
+		this.writer = writer;
+		this.label = (" " + label + " ").toCharArray();
+		this.buffer = new char[bufferSize];
+	}
+
+	public void write(int[] items, int length, long value) throws IOException {
+		patternCount++;
+		// make sure that the whole line fits in the buffer
+		reserve(length * (MAX_LONG_LENGTH + 1) + label.length + MAX_LONG_LENGTH + lineSeparator.length);
+		// write the items separated by spaces
+		for(int i = 0; i < length; i++) {
+			if(i != 0) {
+				buffer[position++] = ' ';
+			}
+			appendNumber(items[i]);
+		}
+		// write the value and end the line
+		System.arraycopy(label, 0, buffer, position, label.length);
+		position += label.length;
+		appendNumber(value);
+		System.arraycopy(lineSeparator, 0, buffer, position, lineSeparator.length);
+		position += lineSeparator.length;
+	}
+
+	/**
+	 * Make sure that the buffer has space for some characters, by writing
+	 * the content of the buffer to the output if necessary, or by enlarging
+	 * the buffer if a line is longer than the buffer.
+	 * @param length the number of characters
+	 * @throws IOException if error while writing
+	 */
+	private void reserve(int length) throws IOException {
+		if(position + length > buffer.length) {
+			flush();
+			if(length > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+			}
+		}
+	}
+
+	/**
+	 * Append the decimal representation of a number to the buffer.
+	 * @param value the number
+	 */
+	private void appendNumber(long value) {
+		if(value == Long.MIN_VALUE) {
+			String string = Long.toString(value);
+			string.getChars(0, string.length(), buffer, position);
+			position += string.length();
+			return;
+		}
+		if(value < 0) {
+			buffer[position++] = '-';
+			value = -value;
+		}
+		// write the digits from right to left and then reverse them
+		int start = position;
+		do {
+			buffer[position++] = (char) ('0' + (value % 10));
+			value /= 10;
+		}while(value != 0);
+		for(int i = start, j = position - 1; i < j; i++, j--) {
+			char digit = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = digit;
+		}
+	}
+
+	public long getPatternCount() {
+		return patternCount;
+	}
+
+	/**
+	 * Write the content of the buffer to the output, without closing the output.
+	 * @throws IOException if error while writing
+	 */
+	public void flush() throws IOException {
+		if(position != 0) {
+			writer.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	public void close() throws IOException {
+		flush();
+		writer.close();
+	}
+}
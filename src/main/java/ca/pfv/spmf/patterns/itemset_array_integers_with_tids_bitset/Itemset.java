@@ -18,6 +18,7 @@ package ca.pfv.spmf.patterns.itemset_array_integers_with_tids_bitset;
 
 import java.util.BitSet;
 
+import ca.pfv.spmf.datastructures.compressedtidset.CompressedTidset;
 import ca.pfv.spmf.patterns.AbstractOrderedItemset;
 
 /**
@@ -38,6 +39,9 @@ public class Itemset extends AbstractOrderedItemset{
 	
 	/** The list of transactions/sequences containing this itemset **/
 	private BitSet transactionsIds;
+	/** The list of transactions/sequences containing this itemset, if it is
+	 * represented as a compressed tidset instead of a bitset **/
+	private CompressedTidset compressedTransactionsIds;
 	public int cardinality =0;  // the cardinality of the above bitset
 	
 	/**
@@ -57,6 +61,18 @@ public class Itemset extends AbstractOrderedItemset{
 		this.itemset = itemset;
 		this.cardinality = support;
 	}
+
+	/**
+	 * Constructor of an itemset whose transactions/sequences ids are stored as a compressed tidset
+	 * @param itemset the itemset
+	 * @param tidset the ids of the transactions/sequences containing this itemset
+	 * @param support the support of this itemset
+     */
+	public Itemset(int[] itemset, CompressedTidset tidset, int support){
+		this.compressedTransactionsIds = tidset;
+		this.itemset = itemset;
+		this.cardinality = support;
+	}
 	
 	/**
 	 * Constructor 
@@ -118,11 +134,24 @@ public class Itemset extends AbstractOrderedItemset{
 
 	/**
 	 * Get the list of transactions/sequences containing this itemset.
+	 * If it is stored as a compressed tidset, a new bitset is created at each call.
 	 * @return the list as a bitset.
 	 */
 	public BitSet getTransactionsIds() {
+		if(transactionsIds == null && compressedTransactionsIds != null) {
+			return compressedTransactionsIds.toBitSet();
+		}
 		return transactionsIds;
 	}
 
+	/**
+	 * Get the list of transactions/sequences containing this itemset, if it is
+	 * stored as a compressed tidset.
+	 * @return the compressed tidset or null if the list is stored as a bitset.
+	 */
+	public CompressedTidset getCompressedTransactionsIds() {
+		return compressedTransactionsIds;
+	}
+
 
 }
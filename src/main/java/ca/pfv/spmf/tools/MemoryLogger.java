@@ -22,16 +22,33 @@ package ca.pfv.spmf.tools;
 /**
  * This class is used to record the maximum memory usaged of an algorithm during
  * a given execution.
- * It is implemented by using the "singleton" design pattern.
+ * It is implemented by using the "singleton" design pattern. <br/><br/>
  *
+ * Each call to reset() starts a new RunMetrics for the current thread, which records the peak
+ * heap usage, allocated bytes, garbage collections and phase timings of the execution. Thus, algorithms
+ * executed at the same time in different threads do not reset each other's runs. The RunMetrics of the
+ * latest execution in the current thread is returned by getRunMetrics(). A run is not shared with the
+ * threads created by the algorithm: a worker thread records its memory checks in the run of the
+ * algorithm only after that run is given to it with setCurrentRun(). <br/><br/>
+ *
+ * An algorithm ends its run by calling stopRun(). If reset() is called while the current run is not
+ * stopped (for example, when an algorithm runs another algorithm to read its input), the new run is
+ * nested in the current run: when the nested run is stopped, its peak heap usage is included in the
+ * enclosing run, which becomes the current run again. <br/><br/>
+ *
+ * Note that the heap and the garbage collector are shared by the whole JVM. Thus, the peak heap usage
+ * and the garbage collection statistics of a run also include the memory used by other executions
+ * that run at the same time. Only the allocated bytes are measured for the thread of the run.
+ *
+ * @see RunMetrics
  */
 public class MemoryLogger {
 	
 	// the only instance  of this class (this is the "singleton" design pattern)
 	private static MemoryLogger instance = new MemoryLogger();
 
-	// variable to store the maximum memory usage
-	private double maxMemory = 0;
+	// the current run of each thread
+	private final ThreadLocal<RunMetrics> currentRun = new ThreadLocal<RunMetrics>();
 	
 	/**
 	 * Method to obtain the only instance of this class
@@ -46,14 +63,21 @@ public class MemoryLogger {
 	 * @return a double value indicating memory as megabytes
 	 */
 	public double getMaxMemory() {
-		return maxMemory;
+		RunMetrics run = currentRun.get();
+		return run == null ? 0 : run.getPeakHeapMemory();
 	}
 
 	/**
-	 * Reset the maximum amount of memory recorded.
+	 * Reset the maximum amount of memory recorded. This starts a new run
+	 * for the current thread. If the current run is not stopped, the new run is nested in it.
 	 */
 	public void reset(){
-		maxMemory = 0;
+		RunMetrics previous = currentRun.get();
+		RunMetrics run = RunMetrics.start();
+		if(previous != null && !previous.isStopped()) {
+			run.enclosingRun = previous;
+		}
+		currentRun.set(run);
 	}
 	
 	/**
@@ -61,10 +85,67 @@ public class MemoryLogger {
 	 * than the amount of memory previously recorded.
 	 */
 	public void checkMemory() {
-		double currentMemory = (Runtime.getRuntime().totalMemory() -  Runtime.getRuntime().freeMemory())
-				/ 1024d / 1024d;
-		if (currentMemory > maxMemory) {
-			maxMemory = currentMemory;
+		RunMetrics run = currentRun.get();
+		if(run == null) {
+			run = RunMetrics.start();
+			currentRun.set(run);
+		}
+		run.checkMemory();
+	}
+	
+	/**
+	 * Start a new phase of the current run (the previous phase is ended).
+	 * @param name the name of the phase
+	 */
+	public void startPhase(String name) {
+		RunMetrics run = currentRun.get();
+		if(run != null) {
+			run.startPhase(name);
 		}
 	}
+	
+	/**
+	 * Stop recording the current run of this thread. If the run is nested in another run,
+	 * the enclosing run becomes the current run again.
+	 * @return the statistics of the run or null if reset() was never called by this thread
+	 */
+	public RunMetrics stopRun() {
+		RunMetrics run = currentRun.get();
+		if(run != null) {
+			run.stop();
+			RunMetrics enclosing = run.enclosingRun;
+			if(enclosing != null) {
+				run.enclosingRun = null;
+				enclosing.includeNestedRun(run);
+				currentRun.set(enclosing);
+			}
+		}
+		return run;
+	}
+	
+	/**
+	 * Set the current run of this thread. This is used by the worker threads of an algorithm, so that
+	 * their calls to checkMemory() are recorded in the run of the algorithm. For example, a task can
+	 * keep the run returned by getRunMetrics() when it is created, set it as current run when it is executed,
+	 * and restore the previous run of the worker thread when it is done.
+	 * @param run the run (or null to remove the current run of this thread)
+	 * @return the previous run of this thread (or null)
+	 */
+	public RunMetrics setCurrentRun(RunMetrics run) {
+		RunMetrics previous = currentRun.get();
+		if(run == null) {
+			currentRun.remove();
+		}else {
+			currentRun.set(run);
+		}
+		return previous;
+	}
+	
+	/**
+	 * Get the statistics of the current (or latest) run of this thread.
+	 * @return the statistics or null if reset() was never called by this thread
+	 */
+	public RunMetrics getRunMetrics() {
+		return currentRun.get();
+	}
 }
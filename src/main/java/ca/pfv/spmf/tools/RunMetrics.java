@@ -0,0 +1,408 @@
+package ca.pfv.spmf.tools;
+/*
+ *  Copyright (c) 2008-2017 Philippe Fournier-Viger
+ *
+ * This file is part of the SPMF DATA MINING SOFTWARE
+ * (http://www.philippe-fournier-viger.com/spmf).
+ *
+ * SPMF is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SPMF is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with SPMF.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * This class records the resources used by a single execution (run) of an algorithm:
+ * <ul>
+ * <li>the peak heap usage. Besides the samples taken when the algorithm calls checkMemory(),
+ *  the usage thresholds of the heap memory pools are used so that the JVM notifies
+ *  each increase of the heap usage, which catches peaks between two calls to checkMemory().</li>
+ * <li>the number of bytes allocated by the thread that started the run (if supported by the JVM),</li>
+ * <li>the number of garbage collections and the time spent for garbage collection,</li>
+ * <li>the time spent in each phase of the algorithm.</li>
+ * </ul>
+ * Note that the heap and the garbage collector are shared by all threads of the JVM. Thus, the peak
+ * heap usage and garbage collection statistics are JVM-wide figures: if several algorithms are
+ * run at the same time, they are not isolated and the statistics of a run include the other runs.
+ * The allocated bytes are counted for the thread that started the run and are not affected
+ * by other runs (but they do not include the allocations of worker threads). <br/><br/>
+ *
+ * A run is usually obtained from MemoryLogger, which starts a new run each time that
+ * an algorithm calls MemoryLogger.getInstance().reset().
+ *
+ * @see MemoryLogger
+ * @author Philippe Fournier-Viger
+ */
+public class RunMetrics {
+
+	/** the increase of the usage of a memory pool (in bytes) that triggers a notification */
+	private static final long THRESHOLD_STEP = 2 * 1024 * 1024;
+
+	/** the runs that are not stopped (weak references, so that a run that is never stopped
+	 * can be garbage collected) */
+	private static final Set<RunMetrics> activeRuns =
+			Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<RunMetrics, Boolean>()));
+
+	/** true if the listener of memory notifications has been registered */
+	private static boolean listenerRegistered = false;
+
+	/** the id of the thread that started this run */
+	private final long threadId;
+
+	/** the time when the run started and stopped (nanoseconds) */
+	private final long startTime;
+	private long endTime;
+
+	/** the number of bytes allocated by the thread when the run started and stopped (or -1) */
+	private final long startAllocatedBytes;
+	private long endAllocatedBytes;
+
+	/** the number of garbage collections and their duration (ms) when the run started and stopped */
+	private final long startGcCount;
+	private final long startGcTime;
+	private long endGcCount;
+	private long endGcTime;
+
+	/** the peak heap usage (in bytes). It is read without locking by checkMemory() */
+	private volatile long peakHeapBytes = 0;
+
+	/** the duration of each phase (nanoseconds) */
+	private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+	/** the current phase (or null) and the time when it started */
+	private String currentPhase = null;
+	private long currentPhaseStart;
+
+	/** true if the run is stopped */
+	private boolean stopped = false;
+
+	/** the run in which this run is nested (set and cleared by MemoryLogger) */
+	RunMetrics enclosingRun = null;
+
+	/**
+	 * Constructor
+	 */
+	private RunMetrics() {
+		threadId = Thread.currentThread().getId();
+		startTime = System.nanoTime();
+		startAllocatedBytes = getThreadAllocatedBytes(threadId);
+		long[] gc = getGarbageCollectionStatistics();
+		startGcCount = gc[0];
+		startGcTime = gc[1];
+	}
+
+	/**
+	 * Start recording a new run in the current thread.
+	 * @return the run
+	 */
+	public static RunMetrics start() {
+		registerListener();
+		RunMetrics run = new RunMetrics();
+		activeRuns.add(run);
+		run.checkMemory();
+		return run;
+	}
+
+	/**
+	 * Check the current heap usage and record it if it is higher than the peak usage
+	 * previously recorded. This method can be called by any thread. Because algorithms call it
+	 * very often, the usage is obtained from the Runtime and a lock is only taken when
+	 * it is a new peak.
+	 */
+	public void checkMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		if(used > peakHeapBytes) {
+			recordHeapUsage(used);
+		}
+	}
+
+	/**
+	 * Record an heap usage.
+	 * @param used the heap usage in bytes
+	 */
+	private synchronized void recordHeapUsage(long used) {
+		if(!stopped && used > peakHeapBytes) {
+			peakHeapBytes = used;
+		}
+	}
+
+	/**
+	 * Start a new phase of the run. The current phase (if any) is ended.
+	 * If a phase with the same name was already recorded, the time is added to that phase.
+	 * @param name the name of the phase
+	 */
+	public synchronized void startPhase(String name) {
+		long now = System.nanoTime();
+		endPhase(now);
+		currentPhase = name;
+		currentPhaseStart = now;
+	}
+
+	/**
+	 * End the current phase (if any).
+	 * @param now the current time
+	 */
+	private void endPhase(long now) {
+		if(currentPhase != null) {
+			Long previous = phaseTimes.get(currentPhase);
+			phaseTimes.put(currentPhase, (previous == null ? 0 : previous) + now - currentPhaseStart);
+			currentPhase = null;
+		}
+	}
+
+	/**
+	 * Stop recording this run. After this method is called, the statistics of the run
+	 * do not change anymore. Calling this method several times has no effect.
+	 */
+	public synchronized void stop() {
+		if(stopped) {
+			return;
+		}
+		checkMemory();
+		endTime = System.nanoTime();
+		endPhase(endTime);
+		endAllocatedBytes = getThreadAllocatedBytes(threadId);
+		long[] gc = getGarbageCollectionStatistics();
+		endGcCount = gc[0];
+		endGcTime = gc[1];
+		stopped = true;
+		activeRuns.remove(this);
+	}
+
+	/**
+	 * Include the peak heap usage of a run that was nested in this run.
+	 * @param nested the nested run
+	 */
+	void includeNestedRun(RunMetrics nested) {
+		recordHeapUsage(nested.peakHeapBytes);
+	}
+
+	/**
+	 * Check if this run is stopped.
+	 * @return true if stopped
+	 */
+	public synchronized boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Get the time elapsed since the start of the run until it was stopped (or until now if it is
+	 * not stopped).
+	 * @return the time in milliseconds
+	 */
+	public synchronized long getElapsedTime() {
+		return ((stopped ? endTime : System.nanoTime()) - startTime) / 1000000;
+	}
+
+	/**
+	 * Get the peak heap usage recorded during this run. This is the usage of the whole heap,
+	 * which includes the memory used by other executions running at the same time.
+	 * @return the peak heap usage in megabytes
+	 */
+	public synchronized double getPeakHeapMemory() {
+		return peakHeapBytes / 1024d / 1024d;
+	}
+
+	/**
+	 * Get the number of bytes allocated by the thread that started this run.
+	 * @return the number of bytes, or -1 if the JVM does not support this measurement
+	 */
+	public synchronized long getAllocatedBytes() {
+		long end = stopped ? endAllocatedBytes : getThreadAllocatedBytes(threadId);
+		if(startAllocatedBytes < 0 || end < 0) {
+			return -1;
+		}
+		return end - startAllocatedBytes;
+	}
+
+	/**
+	 * Get the number of garbage collections performed during this run (by the whole JVM).
+	 * @return the number of garbage collections
+	 */
+	public synchronized long getGarbageCollectionCount() {
+		return (stopped ? endGcCount : getGarbageCollectionStatistics()[0]) - startGcCount;
+	}
+
+	/**
+	 * Get the time spent for garbage collection during this run (by the whole JVM).
+	 * @return the time in milliseconds
+	 */
+	public synchronized long getGarbageCollectionTime() {
+		return (stopped ? endGcTime : getGarbageCollectionStatistics()[1]) - startGcTime;
+	}
+
+	/**
+	 * Get the time spent in each phase of this run. The phase that is not ended yet is not included.
+	 * @return a map where keys are phase names (in the order where they were started) and
+	 *  values are times in milliseconds
+	 */
+	public synchronized Map<String, Long> getPhaseTimes() {
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for(Map.Entry<String, Long> entry : phaseTimes.entrySet()) {
+			result.put(entry.getKey(), entry.getValue() / 1000000);
+		}
+		return result;
+	}
+
+	/**
+	 * Get a string representation of the statistics of this run, which can be printed
+	 * with the other statistics of an algorithm (the peak heap memory is not included
+	 * because algorithms already print it as their maximum memory usage).
+	 * @return a string
+	 */
+	public String toString() {
+		StringBuilder buffer = new StringBuilder();
+		long allocated = getAllocatedBytes();
+		if(allocated >= 0) {
+			buffer.append(" Allocated memory ~ ").append(allocated / 1024d / 1024d).append(" MB\n");
+		}
+		buffer.append(" Garbage collections: ").append(getGarbageCollectionCount());
+		buffer.append(" (").append(getGarbageCollectionTime()).append(" ms)\n");
+		for(Map.Entry<String, Long> entry : getPhaseTimes().entrySet()) {
+			buffer.append(" Phase ").append(entry.getKey()).append(" ~ ").append(entry.getValue()).append(" ms\n");
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Get the number of bytes allocated by a thread.
+	 * @param threadId the id of the thread
+	 * @return the number of bytes or -1 if not supported
+	 */
+	private static long getThreadAllocatedBytes(long threadId) {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+			if(sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+				return sunThreadBean.getThreadAllocatedBytes(threadId);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the total number of garbage collections and time spent for garbage collection
+	 * since the start of the JVM.
+	 * @return an array containing the number of garbage collections and the time in milliseconds
+	 */
+	private static long[] getGarbageCollectionStatistics() {
+		long count = 0;
+		long time = 0;
+		for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+			time += Math.max(0, collector.getCollectionTime());
+		}
+		return new long[] {count, time};
+	}
+
+	/**
+	 * Register the listener that is notified when the usage of a heap memory pool exceeds
+	 * its threshold (only once), and set the thresholds just above the current usage.
+	 */
+	private static synchronized void registerListener() {
+		MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		if(!listenerRegistered && memoryBean instanceof NotificationEmitter) {
+			((NotificationEmitter) memoryBean).addNotificationListener(new NotificationListener() {
+				public void handleNotification(Notification notification, Object handback) {
+					if(MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+						MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+						raiseThreshold(info.getPoolName());
+						recordHeapUsageOfActiveRuns();
+					}
+				}
+			}, null, null);
+			listenerRegistered = true;
+		}
+		for(MemoryPoolMXBean pool : getHeapPoolsWithThreshold()) {
+			setThreshold(pool, pool.getUsage());
+		}
+	}
+
+	/**
+	 * Get the heap memory pools that support usage thresholds.
+	 * @return the pools
+	 */
+	private static List<MemoryPoolMXBean> getHeapPoolsWithThreshold() {
+		List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isValid() && pool.isUsageThresholdSupported()) {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+
+	/**
+	 * Raise the usage threshold of a memory pool above its current usage.
+	 * @param poolName the name of the pool
+	 */
+	private static void raiseThreshold(String poolName) {
+		for(MemoryPoolMXBean pool : getHeapPoolsWithThreshold()) {
+			if(pool.getName().equals(poolName)) {
+				setThreshold(pool, pool.getUsage());
+			}
+		}
+	}
+
+	/**
+	 * Set the usage threshold of a memory pool to its current usage plus THRESHOLD_STEP.
+	 * @param pool the pool
+	 * @param usage the current usage of the pool
+	 */
+	private static void setThreshold(MemoryPoolMXBean pool, MemoryUsage usage) {
+		long threshold = usage.getUsed() + THRESHOLD_STEP;
+		if(usage.getMax() >= 0) {
+			threshold = Math.min(threshold, usage.getMax());
+		}
+		try {
+			pool.setUsageThreshold(threshold);
+		}catch(IllegalArgumentException e) {
+			// the pool does not accept this threshold, it is ignored
+		}catch(SecurityException e) {
+			// the thresholds cannot be changed, only the samples of checkMemory() are used
+		}
+	}
+
+	/**
+	 * Record the current heap usage in all the runs that are not stopped.
+	 */
+	private static void recordHeapUsageOfActiveRuns() {
+		long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		List<RunMetrics> runs;
+		synchronized (activeRuns) {
+			runs = new ArrayList<RunMetrics>(activeRuns);
+		}
+		for(RunMetrics run : runs) {
+			run.recordHeapUsage(used);
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package ca.pfv.spmf.tools.dataset_converter;
+
+/* This file is copyright (c) 2008-2017 Philippe Fournier-Viger
+*
+* This file is part of the SPMF DATA MINING SOFTWARE
+* (http://www.philippe-fournier-viger.com/spmf).
+*
+* SPMF is free software: you can redistribute it and/or modify it under the
+* terms of the GNU General Public License as published by the Free Software
+* Foundation, either version 3 of the License, or (at your option) any later
+* version.
+* SPMF is distributed in the hope that it will be useful, but WITHOUT ANY
+* WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+* A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+* You should have received a copy of the GNU General Public License along with
+* SPMF. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+
+/**
+* This class converts a transaction database in SPMF format (with or without
+* utility values) to the SPMF binary format, which can then be opened
+* without parsing by BinaryTransactionDatabase. The conversion has to be performed only once
+* for a database, and the binary file can then be used for any number of executions. <br/><br/>
+*
+* The input file is read twice: a first time to calculate the size of each
+* column and the support (and TWU) of each item, and a second time to write the columns.
+* Thus, the database is never loaded in memory.
+
+@see BinaryTransactionDatabase
+* @author Philippe Fournier-Viger
+*/
+public class TransactionDatabaseBinaryConverter {
+
+	/** the size of the buffer used for writing each column */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** the number of transactions */
+	private int transactionCount;
+	/** the total number of items in all transactions */
+	private long itemOccurrenceCount;
+	/** the largest item */
+	private int maxItem;
+	/** the support of each item */
+	private int[] supports;
+	/** the TWU of each item (if the database contains utilities) */
+	private long[] twus;
+
+	/**
+	 * Convert a transaction database from the SPMF text format to the binary format.
+	 * @param input  the path of the input file in SPMF format
+	 * @param output the path of the binary file to be written
+	 * @param hasUtilities if true, the input file is a transaction database with utility
+	 *   information (lines of the form "items:transaction utility:utilities").
+	 * @throws IOException  an exception is thrown if there is an error reading/writing files
+	 */
+	public void convert(String input, String output, boolean hasUtilities) throws IOException {
+		// (1) first scan to calculate the size of the columns and the support of items
+		scanDatabase(input, hasUtilities);
+
+		// (2) calculate the position of each column in the output file
+		long supportsPosition = BinaryTransactionDatabase.HEADER_SIZE;
+		long twuPosition = supportsPosition + 4L * (maxItem + 1);
+		long offsetsPosition = twuPosition + (hasUtilities ? 8L * (maxItem + 1) : 0);
+		long itemsPosition = offsetsPosition + 8L * (transactionCount + 1);
+		long transactionUtilitiesPosition = itemsPosition + 4L * itemOccurrenceCount;
+		long utilitiesPosition = transactionUtilitiesPosition + 4L * transactionCount;
+
+		RandomAccessFile file = new RandomAccessFile(output, "rw");
+		try {
+			FileChannel channel = file.getChannel();
+			channel.truncate(0);
+
+			// (3) write the header and the support (and TWU) of items
+			ColumnWriter header = new ColumnWriter(channel, 0);
+			header.putInt(BinaryTransactionDatabase.MAGIC);
+			header.putInt(BinaryTransactionDatabase.VERSION);
+			header.putInt(hasUtilities ? BinaryTransactionDatabase.HAS_UTILITIES : 0);
+			header.putInt(transactionCount);
+			header.putLong(itemOccurrenceCount);
+			header.putInt(maxItem);
+			header.putInt(0);
+			for(int item = 0; item <= maxItem; item++) {
+				header.putInt(supports[item]);
+			}
+			if(hasUtilities) {
+				for(int item = 0; item <= maxItem; item++) {
+					header.putLong(twus[item]);
+				}
+			}
+			header.flush();
+
+			// (4) second scan to write the transactions column by column
+			ColumnWriter offsets = new ColumnWriter(channel, offsetsPosition);
+			ColumnWriter items = new ColumnWriter(channel, itemsPosition);
+			ColumnWriter transactionUtilities = hasUtilities ? new ColumnWriter(channel, transactionUtilitiesPosition) : null;
+			ColumnWriter utilities = hasUtilities ? new ColumnWriter(channel, utilitiesPosition) : null;
+
+			long offset = 0;
+			BufferedReader reader = openFile(input);
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					// if the line is a comment, is empty or is metadata, skip it
+					if (isNotATransaction(line)) {
+						continue;
+					}
+					offsets.putLong(offset);
+					if(hasUtilities) {
+						String[] split = line.split(":");
+						String[] itemsString = split[0].split(" ");
+						String[] utilitiesString = split[2].split(" ");
+						for(int i = 0; i < itemsString.length; i++) {
+							items.putInt(Integer.parseInt(itemsString[i]));
+							utilities.putInt(Integer.parseInt(utilitiesString[i]));
+						}
+						transactionUtilities.putInt(Integer.parseInt(split[1]));
+						offset += itemsString.length;
+					}else {
+						String[] itemsString = line.split(" ");
+						for(String itemString : itemsString) {
+							items.putInt(Integer.parseInt(itemString));
+						}
+						offset += itemsString.length;
+					}
+				}
+			}finally {
+				reader.close();
+			}
+			// the last offset indicates the end of the last transaction
+			offsets.putLong(offset);
+
+			offsets.flush();
+			items.flush();
+			if(hasUtilities) {
+				transactionUtilities.flush();
+				utilities.flush();
+			}
+		}finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Scan the database to count the transactions and items and calculate the support
+	 * and TWU of each item.
+	 * @param input the input file
+	 * @param hasUtilities if true, the file contains utilities
+	 * @throws IOException if error reading the file
+	 */
+	private void scanDatabase(String input, boolean hasUtilities) throws IOException {
+		transactionCount = 0;
+		itemOccurrenceCount = 0;
+		maxItem = 0;
+		supports = new int[16];
+		twus = new long[16];
+
+		BufferedReader reader = openFile(input);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// if the line is a comment, is empty or is metadata, skip it
+				if (isNotATransaction(line)) {
+					continue;
+				}
+				String[] split = hasUtilities ? line.split(":") : null;
+				String[] itemsString = hasUtilities ? split[0].split(" ") : line.split(" ");
+				int transactionUtility = hasUtilities ? Integer.parseInt(split[1]) : 0;
+				for(String itemString : itemsString) {
+					int item = Integer.parseInt(itemString);
+					if(item < 0) {
+						throw new IOException("Items must be positive integers: " + item);
+					}
+					// if needed, make the arrays larger
+					if(item >= supports.length) {
+						int newLength = Math.max(item + 1, supports.length * 2);
+						supports = Arrays.copyOf(supports, newLength);
+						twus = Arrays.copyOf(twus, newLength);
+					}
+					supports[item]++;
+					twus[item] += transactionUtility;
+					if(item > maxItem) {
+						maxItem = item;
+					}
+				}
+				itemOccurrenceCount += itemsString.length;
+				transactionCount++;
+			}
+		}finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Check if a line of a file is a comment, is empty or is metadata.
+	 * @param line the line
+	 * @return true if the line does not contain a transaction
+	 */
+	private static boolean isNotATransaction(String line) {
+		return line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '%'
+				|| line.charAt(0) == '@';
+	}
+
+	/**
+	 * Open a file on disk or in the classpath.
+	 * @param path the path
+	 * @return a reader
+	 * @throws IOException if the file is not found
+	 */
+	private BufferedReader openFile(String path) throws IOException {
+		File file = new File(path);
+		if(file.exists()) {
+			return new BufferedReader(new FileReader(file));
+		}
+		InputStream stream = this.getClass().getClassLoader().getResourceAsStream(path);
+		if(stream == null) {
+			throw new FileNotFoundException(path);
+		}
+		return new BufferedReader(new InputStreamReader(stream));
+	}
+
+	/**
+	 * A buffered writer for a column of the binary file, which is written at a given position
+	 * of the file.
+	 */
+	private static class ColumnWriter {
+		/** the file */
+		private final FileChannel channel;
+		/** the position in the file where the buffer will be written */
+		private long position;
+		/** the buffer */
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		/**
+		 * Constructor
+		 * @param channel the file
+		 * @param position the position of the column in the file
+		 */
+		ColumnWriter(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		/** Write an int */
+		void putInt(int value) throws IOException {
+			if(buffer.remaining() < 4) {
+				flush();
+			}
+			buffer.putInt(value);
+		}
+
+		/** Write a long */
+		void putLong(long value) throws IOException {
+			if(buffer.remaining() < 8) {
+				flush();
+			}
+			buffer.putLong(value);
+		}
+
+		/** Write the content of the buffer to the file */
+		void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			buffer.clear();
+		}
+	}
+}
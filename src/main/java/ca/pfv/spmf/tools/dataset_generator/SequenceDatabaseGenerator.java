@@ -35,7 +35,16 @@ import java.util.Random;
 public class SequenceDatabaseGenerator {
 
 	// a random number generator
-	private static Random random = new Random(System.currentTimeMillis());
+	private final Random random = new Random(System.currentTimeMillis());
+
+	/**
+	 * Set the seed of the random number generator, so that the same database
+	 * is generated each time that the same parameters are used.
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
 
 	/**
 	 * This method randomly generates a sequence database according to parameters provided.
@@ -35,6 +35,18 @@ import java.util.Set;
  */
 public class TransactionDatasetUtilityGenerator {
 	
+	/** the seed of the random number generator (if null, the current time is used) */
+	private Long seed = null;
+	
+	/**
+	 * Set the seed of the random number generator, so that the same utility values
+	 * are generated each time that the same database is converted.
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
 	/**
 	 * Convert a transaction database to a transaction database with utility values
 	 * from the source code.
@@ -52,7 +64,7 @@ public class TransactionDatasetUtilityGenerator {
 		long avglength =0;
 		long tidcount = 0;
 		
-		Random randomGenerator = new Random(System.currentTimeMillis());
+		Random randomGenerator = new Random(seed == null ? System.currentTimeMillis() : seed);
 		
 		Map<Integer, Integer> externalUtilities = new HashMap<Integer, Integer>();
 
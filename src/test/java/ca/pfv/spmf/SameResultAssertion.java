@@ -0,0 +1,27 @@
+package ca.pfv.spmf;
+
+import org.junit.Assert;
+
+import java.util.List;
+
+/**
+ * Creates an assertion that an algorithm finds the same result with several threads as with a single thread.
+ */
+public enum SameResultAssertion {
+    ;
+
+    /**
+     * Run an algorithm with 1 to 4 threads and check that the results are not empty and are the same.
+     * @param message the description of the run, used in the failure messages
+     * @param run the run of the algorithm
+     * @return the result with a single thread
+     */
+    public static List<String> assertSameResultWithThreads(String message, ThreadedRun run) throws Exception {
+        List<String> expected = run.run(1);
+        Assert.assertFalse(message + " has no result", expected.isEmpty());
+        for (int threadCount = 2; threadCount <= 4; threadCount++) {
+            Assert.assertEquals(message + " with " + threadCount + " threads", expected, run.run(threadCount));
+        }
+        return expected;
+    }
+}
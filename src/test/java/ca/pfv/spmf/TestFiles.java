@@ -0,0 +1,114 @@
+package ca.pfv.spmf;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Input and output files for the tests that compare the results of two executions.
+ */
+public enum TestFiles {
+    ;
+
+    /**
+     * Get the file system path of a test resource, for the algorithms that read their input with a FileInputStream.
+     * @param name the name of the resource
+     * @return the path of the resource
+     */
+    public static String resourcePath(String name) throws URISyntaxException {
+        return new File(TestFiles.class.getClassLoader().getResource(name).toURI()).getPath();
+    }
+
+    /**
+     * Create an empty temporary file that is deleted when the JVM exits.
+     * @return the path of the file
+     */
+    public static String createTempFile() throws IOException {
+        File file = File.createTempFile("spmf", ".txt");
+        file.deleteOnExit();
+        return file.getPath();
+    }
+
+    /**
+     * Read the lines of an output file, sorted so that two outputs written in different orders can be compared.
+     * @param path the path of the file
+     * @return the sorted lines
+     */
+    public static List<String> readSortedLines(String path) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(path));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+
+    /**
+     * Write a random sequence database in the SPMF format to a temporary file. An item appears at most once
+     * in a sequence and the items of an itemset are sorted.
+     * @param seed the seed of the random number generator
+     * @param sequenceCount the number of sequences
+     * @param itemCount the number of distinct items (1 to itemCount)
+     * @param withUtilities if true, write a utility for each item and the utility of each sequence (SUtility)
+     * @return the path of the file
+     */
+    public static String writeRandomSequenceDatabase(long seed, int sequenceCount, int itemCount,
+                                                     boolean withUtilities) throws IOException {
+        Random random = new Random(seed);
+        String path = createTempFile();
+        BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+        try {
+            for (int i = 0; i < sequenceCount; i++) {
+                List<Integer> items = new ArrayList<Integer>();
+                for (int item = 1; item <= itemCount; item++) {
+                    items.add(item);
+                }
+                Collections.shuffle(items, random);
+                int remaining = 2 + random.nextInt(Math.min(8, itemCount - 1));
+                int position = 0;
+                int sequenceUtility = 0;
+                StringBuilder buffer = new StringBuilder();
+                while (remaining > 0) {
+                    int size = Math.min(remaining, 1 + random.nextInt(3));
+                    List<Integer> itemset = new ArrayList<Integer>(items.subList(position, position + size));
+                    Collections.sort(itemset);
+                    for (int item : itemset) {
+                        buffer.append(item);
+                        if (withUtilities) {
+                            int utility = 1 + random.nextInt(10);
+                            sequenceUtility += utility;
+                            buffer.append('[').append(utility).append(']');
+                        }
+                        buffer.append(' ');
+                    }
+                    buffer.append("-1 ");
+                    position += size;
+                    remaining -= size;
+                }
+                buffer.append("-2");
+                if (withUtilities) {
+                    buffer.append(" SUtility:").append(sequenceUtility);
+                }
+                writer.write(buffer.toString());
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+        return path;
+    }
+}
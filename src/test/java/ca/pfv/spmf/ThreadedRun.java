@@ -0,0 +1,11 @@
+package ca.pfv.spmf;
+
+import java.util.List;
+
+/**
+ * A run of an algorithm with a number of threads, returning the sorted lines of its result.
+ */
+@FunctionalInterface
+public interface ThreadedRun {
+    List<String> run(int threadCount) throws Exception;
+}
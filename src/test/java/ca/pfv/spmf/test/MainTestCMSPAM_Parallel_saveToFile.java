@@ -0,0 +1,34 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spam.AlgoCMSPAM;
+import org.junit.Test;
+
+
+/**
+ * Example of how to run the CM-SPAM algorithm with several threads in source code,
+ * and save the result to an output file.
+ *
+ * @author Philippe Fournier-Viger
+ */
+public class MainTestCMSPAM_Parallel_saveToFile {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // Load a sequence database
+            String input = "contextPrefixSpan.txt";
+            String output = ".//output.txt";
+
+            // Create an instance of the algorithm
+            AlgoCMSPAM algo = new AlgoCMSPAM();
+
+            // Explore the search space using 4 threads
+            algo.setThreadCount(4);
+
+            // execute the algorithm with minsup = 2 sequences  (50 %)
+            algo.runAlgorithm(input, output, 0.5, true);
+            algo.printStatistics();
+        });
+    }
+}
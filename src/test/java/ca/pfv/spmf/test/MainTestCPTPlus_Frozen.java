@@ -0,0 +1,54 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.SequenceDatabase;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.CPTPlusPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.FrozenCPTPlusPredictor;
+import org.junit.Test;
+
+/**
+ * Example of how to freeze a trained CPT+ sequence prediction model, so that
+ * it can be used to make predictions from several threads, in the source code.
+ * Copyright 2015.
+ */
+public class MainTestCPTPlus_Frozen {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // Load the set of training sequences
+            String inputPath = "contextCPT.txt";
+            SequenceDatabase trainingSet = new SequenceDatabase();
+            trainingSet.loadFileSPMFFormat(inputPath, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+            // Train the prediction model
+            String optionalParameters = "CCF:true CBS:true CCFmin:1 CCFmax:6 CCFsup:2 splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0";
+            CPTPlusPredictor predictionModel = new CPTPlusPredictor("CPT+", optionalParameters);
+            predictionModel.Train(trainingSet.getSequences());
+
+            // Compile the trained model into an immutable model
+            FrozenCPTPlusPredictor frozenModel = predictionModel.freeze();
+
+            // We want to predict what would occur after the sequence <1, 2>.
+            Sequence sequence = new Sequence(0);
+            sequence.addItem(new Item(1));
+            sequence.addItem(new Item(2));
+
+            // The frozen model can be used by several threads at the same time
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    Sequence thePrediction = frozenModel.Predict(sequence);
+                    System.out.println("For the sequence <(1),(2)>, the prediction for the next symbol is: +" + thePrediction);
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        });
+    }
+}
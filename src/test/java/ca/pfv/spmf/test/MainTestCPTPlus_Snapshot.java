@@ -0,0 +1,86 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.SequenceDatabase;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.CPTPlusPredictor;
+import ca.pfv.spmf.patterns.BinaryPatternSink;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Test;
+
+/**
+ * Example of how to save a trained CPT+ sequence prediction model in a binary snapshot file,
+ * and to load it later instead of training the model again, in the source code.
+ * Copyright 2015.
+ */
+public class MainTestCPTPlus_Snapshot {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // Load the set of training sequences
+            String inputPath = TestFiles.resourcePath("contextCPT.txt");
+            SequenceDatabase trainingSet = new SequenceDatabase();
+            trainingSet.loadFileSPMFFormat(inputPath, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+            // Train the prediction model and save it
+            String optionalParameters = "CCF:true CBS:true CCFmin:1 CCFmax:6 CCFsup:2 splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0";
+            CPTPlusPredictor predictionModel = new CPTPlusPredictor("CPT+", optionalParameters);
+            predictionModel.Train(trainingSet.getSequences());
+            String snapshotPath = ".//model.bin";
+            predictionModel.save(snapshotPath);
+
+            // Load the model in a new predictor having the same parameters
+            CPTPlusPredictor loadedModel = new CPTPlusPredictor("CPT+", optionalParameters);
+            loadedModel.load(snapshotPath);
+
+            // We want to predict what would occur after the sequence <1, 2>.
+            Sequence sequence = new Sequence(0);
+            sequence.addItem(new Item(1));
+            sequence.addItem(new Item(2));
+            Sequence thePrediction = loadedModel.Predict(sequence);
+            System.out.println("For the sequence <(1),(2)>, the prediction for the next symbol is: +" + thePrediction);
+
+            // A file that is not a predictor snapshot, such as a binary pattern file, is rejected
+            String patternsPath = ".//patterns.bin";
+            BinaryPatternSink sink = new BinaryPatternSink(patternsPath);
+            sink.write(new int[]{1, 2}, 2, 3);
+            sink.close();
+            try {
+                loadedModel.load(patternsPath);
+                throw new AssertionError("a binary pattern file was loaded as a predictor snapshot");
+            } catch (IOException e) {
+                System.out.println("The binary pattern file is rejected: " + e.getMessage());
+            }
+
+            // A predictor having other parameters does not load the model
+            CPTPlusPredictor otherModel = new CPTPlusPredictor("CPT+", "CCF:false CBS:true splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0");
+            try {
+                otherModel.load(snapshotPath);
+                throw new AssertionError("a snapshot was loaded by a predictor having other parameters");
+            } catch (IOException e) {
+                System.out.println("The snapshot is rejected: " + e.getMessage());
+            }
+
+            // A truncated snapshot is rejected, and the current model is kept
+            String truncatedPath = ".//truncated.bin";
+            predictionModel.save(truncatedPath);
+            RandomAccessFile truncatedFile = new RandomAccessFile(truncatedPath, "rw");
+            truncatedFile.setLength(truncatedFile.length() - 4);
+            truncatedFile.close();
+            try {
+                loadedModel.load(truncatedPath);
+                throw new AssertionError("a truncated snapshot was loaded");
+            } catch (IOException e) {
+                System.out.println("The truncated snapshot is rejected: " + e.getMessage());
+            }
+            if (!loadedModel.Predict(sequence).toString().equals(thePrediction.toString())) {
+                throw new AssertionError("the model was changed by a snapshot that could not be loaded");
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.SequenceDatabase;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.CPTPlusPredictor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Example of how to update a CPT+ sequence prediction model with new sequences,
+ * while keeping only the last sequences in the model, in the source code.
+ * Copyright 2015.
+ */
+public class MainTestCPTPlus_Update {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // Load the set of training sequences
+            String inputPath = "contextCPT.txt";
+            SequenceDatabase trainingSet = new SequenceDatabase();
+            trainingSet.loadFileSPMFFormat(inputPath, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+            // Train the prediction model, which will keep only the last 4 sequences when it is updated
+            String optionalParameters = "CCF:false CBS:true splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0";
+            CPTPlusPredictor predictionModel = new CPTPlusPredictor("CPT+", optionalParameters);
+            predictionModel.setWindowSize(4);
+            predictionModel.Train(trainingSet.getSequences());
+
+            // We want to predict what would occur after the sequence <1, 2>.
+            Sequence sequence = new Sequence(0);
+            sequence.addItem(new Item(1));
+            sequence.addItem(new Item(2));
+            System.out.println("For the sequence <(1),(2)>, the prediction for the next symbol is: +" + predictionModel.Predict(sequence));
+
+            // New sequences are observed: <1, 2, 5> and <1, 2, 5, 6>
+            List<Sequence> newSequences = new ArrayList<Sequence>();
+            for (int length = 3; length <= 4; length++) {
+                Sequence newSequence = new Sequence(newSequences.size());
+                newSequence.addItem(new Item(1));
+                newSequence.addItem(new Item(2));
+                newSequence.addItem(new Item(5));
+                if (length == 4) {
+                    newSequence.addItem(new Item(6));
+                }
+                newSequences.add(newSequence);
+            }
+
+            // Update the model without training it again on the previous sequences
+            predictionModel.Update(newSequences);
+            System.out.println("After the update, the prediction for the next symbol is: +" + predictionModel.Predict(sequence));
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.clostream.AlgoCloSteam;
+import ca.pfv.spmf.patterns.itemset_array_integers_with_count.Itemset;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Example of how to use the CloStream algorithm with a sliding window,
+ * so that only the closed itemsets of the last transactions are kept.
+ *
+ * @author Philippe Fournier-Viger
+ */
+public class MainTestCloStream_Window {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // Creating an instance of the CloStream algorithm
+            AlgoCloSteam cloStream = new AlgoCloSteam();
+            // Only the last 3 transactions are kept
+            cloStream.setWindowSize(3);
+
+            // Now we add 5 transactions
+            cloStream.processNewTransaction(new Itemset(new int[]{1, 3, 4}));
+            cloStream.processNewTransaction(new Itemset(new int[]{2, 3, 5}));
+            cloStream.processNewTransaction(new Itemset(new int[]{1, 2, 3, 5}));
+            cloStream.processNewTransaction(new Itemset(new int[]{2, 5}));
+            cloStream.processNewTransaction(new Itemset(new int[]{1, 2, 3, 5}));
+
+            // We print the closed itemsets of the last 3 transactions
+            List<Itemset> list = cloStream.getClosedItemsets();
+            System.out.println("Closed itemsets count : " + list.size());
+            for (Itemset itemset : list) {
+                System.out.println("  " + itemset.toString() + " absolute support : " + itemset.getAbsoluteSupport());
+            }
+        });
+    }
+}
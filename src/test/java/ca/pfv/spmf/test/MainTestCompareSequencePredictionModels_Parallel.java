@@ -0,0 +1,76 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.helpers.StatsLogger;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPT.CPTPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.CPTPlusPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.DG.DGPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Evaluator;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.LZ78.LZ78Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Markov.MarkovAllKPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Markov.MarkovFirstOrderPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.TDAG.TDAGPredictor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * Main controller to compare all the predictors, where the predictors
+ * are trained and tested on the folds with several threads.
+ * The results are compared with the results obtained with a single thread on the same folds.
+ */
+public class MainTestCompareSequencePredictionModels_Parallel {
+
+    private static final String[] TAGS = {"DG", "TDAG", "CPT+", "CPT", "Mark1", "AKOM", "LZ78"};
+
+    // the statistics that do not depend on the execution times
+    private static final String[] STATS = {"Success", "Failure", "No Match", "Too Small", "Overall", "Size (MB)"};
+
+    @Test
+    public void main() throws Exception {
+        // a dataset in the custom format (one sequence of items per line)
+        String datasets = new File(TestFiles.resourcePath("contextPrediction.txt")).getParent();
+
+        StatsLogger expected = evaluate(datasets, 1);
+        for (int threadCount = 2; threadCount <= 4; threadCount++) {
+            StatsLogger results = evaluate(datasets, threadCount);
+
+            // same predictors, in the same order
+            Assert.assertEquals(expected.toString().split("\n")[0], results.toString().split("\n")[0]);
+            for (String tag : TAGS) {
+                // the folds were evaluated
+                Assert.assertTrue(tag, expected.get("Success", tag) + expected.get("Failure", tag) > 0);
+                for (String stat : STATS) {
+                    Assert.assertEquals(tag + " " + stat + " with " + threadCount + " threads",
+                            expected.get(stat, tag), results.get(stat, tag), 1e-12);
+                }
+            }
+        }
+    }
+
+    private StatsLogger evaluate(String datasets, int threadCount) {
+        //instantiate the evaluator, shuffling the dataset in the same way for each experiment
+        Evaluator evaluator = new Evaluator(datasets);
+        evaluator.setSeed(42);
+
+        //Loading data set
+        evaluator.addDataset("contextPrediction.txt", 5000);
+
+        //Loading predictors, using factories so that a new instance is trained on each fold
+        evaluator.addPredictor(() -> new DGPredictor("DG", "lookahead:4"));
+        evaluator.addPredictor(() -> new TDAGPredictor());
+        evaluator.addPredictor(() -> new CPTPlusPredictor("CPT+", "CCF:true CBS:true"));
+        evaluator.addPredictor(() -> new CPTPredictor());
+        evaluator.addPredictor(() -> new MarkovFirstOrderPredictor());
+        evaluator.addPredictor(() -> new MarkovAllKPredictor());
+        evaluator.addPredictor(new LZ78Predictor());
+
+        //Using several threads
+        evaluator.setThreadCount(threadCount);
+
+        //Start the experiment
+        return evaluator.Start(Evaluator.KFOLD, 14, true, false, false);
+    }
+
+}
@@ -0,0 +1,45 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.efim.AlgoEFIM;
+import ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth.AlgoFPGrowth;
+import ca.pfv.spmf.input.transaction_database_binary.BinaryTransactionDatabase;
+import ca.pfv.spmf.tools.dataset_converter.TransactionDatabaseBinaryConverter;
+import org.junit.Test;
+
+/**
+ * Example of how to convert a transaction database from the SPMF format
+ * to the SPMF binary format, and then to run algorithms on the binary database
+ * several times without parsing the database again.
+ */
+public class MainTestConvertTransactionDatabaseSPMFtoBinary {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // convert a transaction database (this needs to be done only once)
+            TransactionDatabaseBinaryConverter converter = new TransactionDatabaseBinaryConverter();
+            converter.convert("contextPasquier99.txt", ".//contextPasquier99.bin", false);
+
+            // open the binary database and run FPGrowth for two minsup values
+            BinaryTransactionDatabase database = new BinaryTransactionDatabase(".//contextPasquier99.bin");
+            AlgoFPGrowth fpgrowth = new AlgoFPGrowth();
+            fpgrowth.runAlgorithm(database, ".//output.txt", 0.4);
+            fpgrowth.printStats();
+            fpgrowth.runAlgorithm(database, ".//output2.txt", 0.6);
+            fpgrowth.printStats();
+            database.close();
+
+            // convert a transaction database with utility information
+            converter.convert("DB_Utility.txt", ".//DB_Utility.bin", true);
+
+            // open the binary database and run EFIM
+            BinaryTransactionDatabase utilityDatabase = new BinaryTransactionDatabase(".//DB_Utility.bin");
+            AlgoEFIM efim = new AlgoEFIM();
+            efim.runAlgorithm(30, utilityDatabase, ".//output3.txt", true, Integer.MAX_VALUE, true);
+            efim.printStats();
+            utilityDatabase.close();
+        });
+    }
+}
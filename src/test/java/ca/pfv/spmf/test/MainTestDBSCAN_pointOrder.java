@@ -0,0 +1,39 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.algorithms.clustering.dbscan.AlgoDBSCAN;
+import ca.pfv.spmf.patterns.cluster.Cluster;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Class to test that the DBSCAN algorithm with the KD-Tree gives the clusters, and the points
+ * of each cluster, in the same order from run to run: the points are processed in the order
+ * of the input file.
+ */
+public class MainTestDBSCAN_pointOrder {
+
+    private static final String[] EXPECTED_CLUSTERS = {
+            "[Instance1 1.0 1.0, Instance2 0.0 1.0, Instance3 1.0 0.0]",
+            "[Instance4 11.0 12.0, Instance27 10.0 10.5, Instance26 10.5 11.0, Instance5 11.0 13.0, "
+                    + "Instance21 12.0 13.0, Instance6 13.0 13.0, Instance21 14.0 12.5, Instance22 14.5 11.5, "
+                    + "Instance23 15.0 10.5, Instance24 15.0 9.5]",
+            "[Instance7 12.0 8.5, Instance11 11.0 7.0, Instance18 11.5 8.0, Instance25 12.0 9.5, "
+                    + "Instance20 13.0 10.0, Instance10 13.0 7.0, Instance9 13.0 9.0, Instance8 13.0 8.0]",
+            "[Instance12 8.0 2.0, Instance13 9.0 2.0, Instance28 9.0 3.0, Instance29 9.0 4.0, "
+                    + "Instance14 10.0 1.0, Instance30 9.0 5.0]"};
+
+    @Test
+    public void main() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            List<Cluster> clusters = new AlgoDBSCAN().runAlgorithm("inputDBScan2.txt", 2, 2d, " ");
+
+            Assert.assertEquals(EXPECTED_CLUSTERS.length, clusters.size());
+            for (int i = 0; i < clusters.size(); i++) {
+                Assert.assertEquals(EXPECTED_CLUSTERS[i], clusters.get(i).getVectors().toString());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.charm.AlgoDCharm_Bitset;
+import ca.pfv.spmf.input.transaction_database_list_integers.TransactionDatabase;
+import org.junit.Test;
+
+import java.io.IOException;
+
+
+/**
+ * Example of how to use DCHARM algorithm from the source code, with
+ * diffsets stored as compressed tidsets instead of bitsets.
+ *
+ * @author Philippe Fournier-Viger - 2014
+ */
+public class MainTestDCharm_compressedTidsets {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // the file paths
+            String input = "contextPasquier99.txt"; // the database
+            String output = ".//output.txt";  // the path for saving the frequent itemsets found
+
+            // minimum support
+            double minsup = 0.4; // means a minsup of 2 transaction (we used a relative support)
+
+            // Loading the transaction database
+            TransactionDatabase database = new TransactionDatabase();
+            try {
+                database.loadFile(input);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+//		context.printContext();
+
+            // Applying the DCHARM algorithm
+            AlgoDCharm_Bitset algo = new AlgoDCharm_Bitset();
+            // Store diffsets as compressed tidsets instead of bitsets
+            algo.setUseCompressedTidsets(true);
+            algo.runAlgorithm(output, database, minsup, true, 10000);
+            // if you change use "true" in the line above, ECLAT will use
+            // a triangular matrix  for counting support of itemsets of size 2.
+            // For some datasets it should make the algorithm faster.
+
+            // NOTE:  10000 is the size of the internal hash table that will
+            // be used by dCharm.
+            algo.printStats();
+
+        });
+    }
+}
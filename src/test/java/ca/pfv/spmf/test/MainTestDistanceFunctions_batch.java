@@ -0,0 +1,58 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceCorrelation;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceCosine;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceManathan;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.VectorBlock;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Example of how to calculate many distances at once with the distance functions, in source code.
+ */
+public class MainTestDistanceFunctions_batch {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // a block of 4 vectors having 3 values, stored row by row
+            VectorBlock vectors = new VectorBlock(new double[]{
+                    1, 2, 3,
+                    4, 5, 6,
+                    7, 8, 10,
+                    0, 1, 0}, 4, 3);
+            // a block of 2 vectors having 3 values
+            VectorBlock centers = new VectorBlock(new double[]{
+                    1, 1, 2,
+                    6, 4, 6}, 2, 3);
+
+            DistanceFunction[] distanceFunctions = {new DistanceEuclidian(), new DistanceManathan(),
+                    new DistanceCosine(), new DistanceCorrelation()};
+            for (DistanceFunction distanceFunction : distanceFunctions) {
+                System.out.println(distanceFunction.getName());
+
+                // the distances between a vector and all the vectors of the block
+                double[] distances = new double[vectors.size()];
+                distanceFunction.calculateDistances(new double[]{1, 2, 2}, vectors, distances);
+                System.out.println("  from [1, 2, 2]: " + Arrays.toString(distances));
+
+                // the distances between all the vectors and all the centers
+                // (the distance between vector i and center j is at position i * centers.size() + j)
+                double[] matrix = new double[vectors.size() * centers.size()];
+                distanceFunction.calculateDistances(vectors, centers, matrix);
+                System.out.println("  to the centers: " + Arrays.toString(matrix));
+            }
+
+            // the squared euclidian distances, without calculating the square roots
+            double[] squaredDistances = new double[vectors.size()];
+            new DistanceEuclidian().calculateSquaredDistances(new double[]{1, 2, 2}, vectors, 0, vectors.size(), squaredDistances, 0);
+            System.out.println("squared euclidian distances from [1, 2, 2]: " + Arrays.toString(squaredDistances));
+        });
+    }
+
+}
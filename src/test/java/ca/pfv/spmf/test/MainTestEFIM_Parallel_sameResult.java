@@ -0,0 +1,46 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.SameResultAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.frequentpatterns.efim.AlgoEFIM;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to test that the EFIM algorithm finds the same high-utility itemsets with several threads
+ * as with a single thread, and the same itemsets as the original sequential implementation.
+ */
+public class MainTestEFIM_Parallel_sameResult {
+
+    @Test
+    public void main() throws Exception {
+        // the itemsets found by the original sequential implementation
+        Assert.assertEquals(Arrays.asList(
+                "1 5 3 #UTIL: 31",
+                "2 5 #UTIL: 31",
+                "2 5 3 #UTIL: 37",
+                "4 2 #UTIL: 30",
+                "4 2 3 #UTIL: 34",
+                "4 2 5 #UTIL: 36",
+                "4 2 5 3 #UTIL: 40",
+                "6 4 2 1 5 3 #UTIL: 30"),
+                checkSameResult("DB_Utility.txt", 30));
+        checkSameResult("DB_Utility.txt", 1);
+        checkSameResult("contextHUIM.txt", 1);
+        checkSameResult("contextHUIM.txt", 20);
+        checkSameResult("DB_UtilityPerHUIs.txt", 1);
+    }
+
+    private List<String> checkSameResult(String input, int minutil) throws Exception {
+        return SameResultAssertion.assertSameResultWithThreads(input + " minutil " + minutil, threadCount -> {
+            String output = TestFiles.createTempFile();
+            AlgoEFIM algo = new AlgoEFIM();
+            algo.setThreadCount(threadCount);
+            algo.runAlgorithm(minutil, input, output, true, Integer.MAX_VALUE, true);
+            return TestFiles.readSortedLines(output);
+        });
+    }
+}
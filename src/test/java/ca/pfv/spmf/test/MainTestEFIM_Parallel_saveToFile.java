@@ -0,0 +1,35 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.efim.AlgoEFIM;
+import org.junit.Test;
+
+
+/**
+ * Example of how to run the EFIM algorithm with several threads from the source code,
+ * and save the result to an output file.
+ *
+ * @author Philippe Fournier-Viger, 2015
+ */
+public class MainTestEFIM_Parallel_saveToFile {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // the input and output file paths
+            String input = "DB_Utility.txt";
+            String output = ".//output.txt";
+
+            // the minutil threshold
+            int minutil = 30;
+
+            // Run the EFIM algorithm using 4 threads
+            AlgoEFIM algo = new AlgoEFIM();
+            algo.setThreadCount(4);
+            algo.runAlgorithm(minutil, input, output, true, Integer.MAX_VALUE, true);
+            // Print statistics
+            algo.printStats();
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth.AlgoFPGrowth;
+import ca.pfv.spmf.patterns.CountingPatternSink;
+import org.junit.Test;
+
+/**
+ * Example of how to use FPGrowth from the source code to only count
+ * the frequent itemsets, without writing them (e.g. to choose the minsup threshold).
+ *
+ * @author Philippe Fournier-Viger (Copyright 2017)
+ */
+public class MainTestFPGrowth_countPatterns {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // the database
+            String input = "contextPasquier99.txt";
+
+            // try several minsup thresholds
+            for (double minsup : new double[] {0.2, 0.4, 0.6, 0.8}) {
+                // Applying the FPGROWTH algorithm, with a sink that only counts the patterns
+                AlgoFPGrowth algo = new AlgoFPGrowth();
+                CountingPatternSink sink = new CountingPatternSink();
+                algo.setPatternSink(sink);
+                algo.runAlgorithm(input, null, minsup);
+                System.out.println("minsup = " + minsup + " : " + sink.getPatternCount()
+                        + " frequent itemsets (largest size: " + sink.getMaximumLength() + ")");
+            }
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.fpgrowth.AlgoFPGrowth;
+import ca.pfv.spmf.patterns.BinaryPatternReader;
+import ca.pfv.spmf.patterns.BinaryPatternSink;
+import ca.pfv.spmf.patterns.TextPatternSink;
+import org.junit.Test;
+
+/**
+ * Example of how to use FPGrowth from the source code and save
+ * the results to a file in binary format, which is then converted to the text format.
+ *
+ * @author Philippe Fournier-Viger (Copyright 2017)
+ */
+public class MainTestFPGrowth_saveToBinaryFile {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // the file paths
+            String input = "contextPasquier99.txt"; // the database
+            String binaryOutput = ".//output.bin";  // the path for saving the frequent itemsets found
+            String output = ".//output.txt";  // the path for saving the frequent itemsets in text format
+
+            double minsup = 0.4; // means a minsup of 2 transaction (we used a relative support)
+
+            // Applying the FPGROWTH algorithm
+            AlgoFPGrowth algo = new AlgoFPGrowth();
+            algo.setPatternSink(new BinaryPatternSink(binaryOutput));
+            algo.runAlgorithm(input, null, minsup);
+            algo.printStats();
+
+            // convert the binary file to the text format
+            BinaryPatternReader.convertToText(binaryOutput, output, TextPatternSink.SUPPORT_LABEL);
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequential_rules.husrm.AlgoHUSRM;
+import org.junit.Test;
+
+/**
+ * Example of how to run the HUSRM algorithm with several threads in source code,
+ * and save the result to an output file.
+ *
+ * @author Souleymane Zida and Philippe Fournier-Viger, 2015.
+ */
+public class MainTestHUSRM_Parallel {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // the input database
+            String input = "DataBase_HUSRM.txt";
+            // the path for saving the high utility sequential rules
+            String output = "./output.txt";
+
+            // the minimum confidence and minimum utility thresholds
+            double minconf = 0.70;
+            double minutil = 40;
+
+            // the maximum number of items in the left side and right side of rules
+            int maxAntecedentSize = 4;
+            int maxConsequentSize = 4;
+
+            // the number of sequences from the input file that should be used
+            int maximumSequenceCount = Integer.MAX_VALUE;
+
+            AlgoHUSRM algo = new AlgoHUSRM();
+
+            // expand the rules using 4 threads
+            algo.setThreadCount(4);
+
+            // run the algorithm
+            algo.runAlgorithm(input, output, minconf, minutil, maxAntecedentSize, maxConsequentSize, maximumSequenceCount);
+
+            // print statistics
+            algo.printStats();
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.SameResultAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequential_rules.husrm.AlgoHUSRM;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to test that the HUSRM algorithm finds the same high-utility sequential rules with several threads
+ * as with a single thread, and the same rules as the original sequential implementation.
+ */
+public class MainTestHUSRM_Parallel_sameResult {
+
+    @Test
+    public void main() throws Exception {
+        // the rules found by the original sequential implementation
+        Assert.assertEquals(Arrays.asList(
+                "1,2,3\t==> 7\t#SUP: 3.0\t#CONF: 1.0\t#UTIL: 57.0",
+                "1,2,3,4\t==> 5,7\t#SUP: 1.0\t#CONF: 1.0\t#UTIL: 40.0",
+                "1,3\t==> 7\t#SUP: 3.0\t#CONF: 1.0\t#UTIL: 45.0",
+                "1,3,4\t==> 2,5,7\t#SUP: 1.0\t#CONF: 1.0\t#UTIL: 40.0",
+                "1,4\t==> 2,3,5,7\t#SUP: 1.0\t#CONF: 1.0\t#UTIL: 40.0",
+                "2,3\t==> 7\t#SUP: 3.0\t#CONF: 1.0\t#UTIL: 52.0",
+                "3\t==> 7\t#SUP: 3.0\t#CONF: 1.0\t#UTIL: 40.0"),
+                checkSameResult(TestFiles.resourcePath("DataBase_HUSRM.txt"), 0.70, 40));
+        String randomDatabase = TestFiles.writeRandomSequenceDatabase(11, 200, 10, true);
+        checkSameResult(randomDatabase, 0.1, 300);
+        checkSameResult(randomDatabase, 0.1, 200);
+    }
+
+    private List<String> checkSameResult(String input, double minconf, double minutil) throws Exception {
+        return SameResultAssertion.assertSameResultWithThreads("minconf " + minconf + " minutil " + minutil, threadCount -> {
+            String output = TestFiles.createTempFile();
+            AlgoHUSRM algo = new AlgoHUSRM();
+            algo.setThreadCount(threadCount);
+            algo.runAlgorithm(input, output, minconf, minutil, 4, 4, Integer.MAX_VALUE);
+            return TestFiles.readSortedLines(output);
+        });
+    }
+}
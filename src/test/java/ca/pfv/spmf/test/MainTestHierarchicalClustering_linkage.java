@@ -0,0 +1,60 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
+import ca.pfv.spmf.algorithms.clustering.hierarchical_clustering.AlgoHierarchicalClustering;
+import ca.pfv.spmf.algorithms.clustering.hierarchical_clustering.AlgoHierarchicalClustering.Linkage;
+import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Example of how to use the hierarchical clustering algorithm
+ * with a given linkage and several threads, from the source code.
+ */
+public class MainTestHierarchicalClustering_linkage {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            String input = "inputDBScan2.txt";
+            int maxdistance = 4;
+
+            String separator = " ";
+
+            // Here we specify that we want to use the euclidian distance
+            DistanceFunction distanceFunction = new DistanceEuclidian();
+
+            // Apply the algorithm with each linkage
+            for (Linkage linkage : Linkage.values()) {
+                AlgoHierarchicalClustering algo = new AlgoHierarchicalClustering();
+                // the distance between two clusters is the distance between their closest vectors (SINGLE),
+                // their farthest vectors (COMPLETE), the average distance between their vectors (AVERAGE)
+                // or the distance between their means (CENTROID, the default)
+                algo.setLinkage(linkage);
+                // calculate the distances between vectors with 2 threads
+                algo.setThreadCount(2);
+                List<ClusterWithMean> clusters = algo.runAlgorithm(input, maxdistance, distanceFunction, separator);
+                algo.printStatistics();
+
+                // Print the clusters found by the algorithm
+                // For each cluster:
+                int i = 0;
+                for (ClusterWithMean cluster : clusters) {
+                    System.out.println("Cluster " + i++ + " (containing " + cluster.getVectors().size() + " vector(s))");
+                    // For each data point:
+                    for (DoubleArray dataPoint : cluster.getVectors()) {
+                        System.out.println("   " + dataPoint);
+                    }
+                }
+            }
+
+        });
+    }
+
+
+}
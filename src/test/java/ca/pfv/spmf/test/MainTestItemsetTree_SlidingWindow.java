@@ -0,0 +1,56 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.itemsettree.MemoryEfficientItemsetTree;
+import org.junit.Test;
+
+/**
+ * Example of how to use the itemset tree data structure with a sliding window,
+ * so that only the most recent transactions are used to answer queries.
+ *
+ * @author Philippe Fournier-Viger
+ */
+public class MainTestItemsetTree_SlidingWindow {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            // Create an empty tree that keeps only the last 3 transactions
+            MemoryEfficientItemsetTree itemsetTree = new MemoryEfficientItemsetTree();
+            itemsetTree.setWindowSize(3);
+
+            // Add transactions one by one (the items of a transaction must be sorted)
+            itemsetTree.addTransaction(new int[]{1, 4});
+            itemsetTree.addTransaction(new int[]{2, 5});
+            itemsetTree.addTransaction(new int[]{1, 2, 3, 4, 5});
+            itemsetTree.addTransaction(new int[]{1, 2, 4});
+            // the transaction {1 4} is not in the window anymore
+            System.out.println("THIS IS THE TREE FOR THE LAST 3 TRANSACTIONS:");
+            itemsetTree.printTree();
+            System.out.println("the support of 1 4 is : " +
+                    itemsetTree.getSupportOfItemset(new int[]{1, 4}));
+
+            // A transaction can also be removed manually
+            itemsetTree.removeTransaction(new int[]{1, 2, 3, 4, 5});
+            System.out.println("THIS IS THE TREE AFTER REMOVING THE TRANSACTION {1 2 3 4 5}:");
+            itemsetTree.printTree();
+            System.out.println("the support of 1 4 is : " +
+                    itemsetTree.getSupportOfItemset(new int[]{1, 4}));
+
+            // The window can also be based on time. Here, a transaction is kept
+            // for 10 time units, using the timestamps given with the transactions.
+            MemoryEfficientItemsetTree timedTree = new MemoryEfficientItemsetTree();
+            timedTree.setWindowDuration(10);
+            timedTree.addTransaction(new int[]{1, 4}, 1);
+            timedTree.addTransaction(new int[]{2, 5}, 5);
+            timedTree.addTransaction(new int[]{1, 2, 4}, 12);
+            System.out.println("the support of 4 at time 12 is : " +
+                    timedTree.getSupportOfItemset(new int[]{4}));
+            // remove the transactions that are too old at time 20
+            timedTree.removeExpiredTransactions(20);
+            System.out.println("the support of 4 at time 20 is : " +
+                    timedTree.getSupportOfItemset(new int[]{4}));
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.itemsettree.AssociationRuleIT;
+import ca.pfv.spmf.algorithms.frequentpatterns.itemsettree.ItemsetTree;
+import ca.pfv.spmf.algorithms.frequentpatterns.itemsettree.ItemsetTreeSnapshot;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Example of how to query an itemset tree from several threads, using
+ * snapshots of the tree, while another thread adds transactions to the tree.
+ *
+ * @author Philippe Fournier-Viger
+ */
+public class MainTestItemsetTree_Snapshot {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            String input = "contextItemsetTree.txt"; // the database
+
+            // Build the itemset tree
+            ItemsetTree itemsetTree = new ItemsetTree();
+            itemsetTree.buildTree(input);
+
+            // Several threads query snapshots of the tree, without locking
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    ItemsetTreeSnapshot snapshot = itemsetTree.getSnapshot();
+                    System.out.println("the support of 1 2 is : " +
+                            snapshot.getSupportOfItemset(new int[]{1, 2}));
+                });
+                threads[i].start();
+            }
+            // while the tree is updated
+            itemsetTree.addTransaction(new int[]{1, 2, 4});
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // A snapshot contains all the transactions added before it was obtained
+            ItemsetTreeSnapshot snapshot = itemsetTree.getSnapshot();
+            System.out.println("the support of 1 2 after the update is : " +
+                    snapshot.getSupportOfItemset(new int[]{1, 2}));
+
+            // Generate the rules with {1} as antecedent, minsup >= 2 and minconf >= 0.1
+            List<AssociationRuleIT> rules = snapshot.generateRules(new int[]{1}, 2, 0.1);
+            for (AssociationRuleIT rule : rules) {
+                System.out.println(rule);
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceFunction;
+import ca.pfv.spmf.algorithms.clustering.kmeans.AlgoBisectingKMeans;
+import ca.pfv.spmf.algorithms.clustering.kmeans.AlgoKMeans;
+import ca.pfv.spmf.patterns.cluster.ClusterWithMean;
+import ca.pfv.spmf.patterns.cluster.DoubleArray;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Example of how to use the accelerated mode of the KMeans and
+ * Bisecting KMeans algorithms, in source code.
+ */
+public class MainTestKMeans_accelerated {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+
+            String input = "inputDBScan2.txt";
+            // we request 3 clusters
+            int k = 3;
+
+            // We specify that in the input file, double values on each line are separated by spaces
+            String separator = " ";
+
+            // The accelerated mode requires the euclidian distance
+            DistanceFunction distanceFunction = new DistanceEuclidian();
+
+            // Apply the algorithm with the k-means++ seeding and Hamerly's bounds,
+            // using 4 threads and at most 100 iterations
+            AlgoKMeans algoKMeans = new AlgoKMeans();
+            algoKMeans.setAccelerated(true);
+            algoKMeans.setThreadCount(4);
+            algoKMeans.setMaxIterations(100);
+            List<ClusterWithMean> clusters = algoKMeans.runAlgorithm(input, k, distanceFunction, separator);
+            algoKMeans.printStatistics();
+
+            // Print the clusters found by the algorithm
+            // For each cluster:
+            int i = 0;
+            for (ClusterWithMean cluster : clusters) {
+                System.out.println("Cluster " + i++);
+                // For each data point:
+                for (DoubleArray dataPoint : cluster.getVectors()) {
+                    System.out.println("   " + dataPoint);
+                }
+            }
+
+            // The accelerated mode can also be used by Bisecting KMeans
+            AlgoBisectingKMeans algoBisectingKMeans = new AlgoBisectingKMeans();
+            algoBisectingKMeans.setAccelerated(true);
+            algoBisectingKMeans.runAlgorithm(input, k, distanceFunction, 10, separator);
+            algoBisectingKMeans.printStatistics();
+        });
+    }
+
+
+}
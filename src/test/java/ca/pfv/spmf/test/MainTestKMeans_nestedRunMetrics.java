@@ -0,0 +1,31 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.algorithms.clustering.distanceFunctions.DistanceEuclidian;
+import ca.pfv.spmf.algorithms.clustering.kmeans.AlgoKMeans;
+import ca.pfv.spmf.tools.MemoryLogger;
+import ca.pfv.spmf.tools.RunMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Class to test that the resources used by the KMeans algorithm are recorded in a single run,
+ * although the algorithm runs another algorithm (the instance file reader) to read its input.
+ */
+public class MainTestKMeans_nestedRunMetrics {
+
+    @Test
+    public void main() throws Exception {
+        AlgoKMeans algoKMeans = new AlgoKMeans();
+        algoKMeans.runAlgorithm("inputDBScan2.txt", 3, new DistanceEuclidian(), " ");
+
+        RunMetrics runMetrics = algoKMeans.getRunMetrics();
+        Assert.assertNotNull(runMetrics);
+        Assert.assertTrue(runMetrics.isStopped());
+        // the run of the reader ended before the clustering phase of the run of KMeans
+        Assert.assertTrue(runMetrics.getPhaseTimes().containsKey("clustering"));
+        // the run of KMeans is still the current run of this thread after it is stopped
+        Assert.assertSame(runMetrics, MemoryLogger.getInstance().getRunMetrics());
+        Assert.assertTrue(runMetrics.getPeakHeapMemory() > 0);
+    }
+
+}
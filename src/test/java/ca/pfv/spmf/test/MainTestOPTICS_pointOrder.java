@@ -0,0 +1,53 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.algorithms.clustering.optics.AlgoOPTICS;
+import ca.pfv.spmf.algorithms.clustering.optics.DoubleArrayOPTICS;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Class to test that the OPTICS algorithm with the KD-Tree gives the same cluster ordering
+ * and reachability distances from run to run: the points are processed in the order
+ * of the input file.
+ */
+public class MainTestOPTICS_pointOrder {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+    private static final double SQRT_5_2 = Math.sqrt(5) / 2;
+    private static final double SQRT_1_2 = Math.sqrt(0.5);
+
+    private static final String[] EXPECTED_NAMES = {
+            "Instance1", "Instance2", "Instance3",
+            "Instance4", "Instance5", "Instance21", "Instance6", "Instance26", "Instance27",
+            "Instance21", "Instance22", "Instance23", "Instance24",
+            "Instance7", "Instance18", "Instance25", "Instance11", "Instance20", "Instance9",
+            "Instance8", "Instance10",
+            "Instance12", "Instance13", "Instance28", "Instance29", "Instance30", "Instance14",
+            "Instance15", "Instance16", "Instance17"};
+
+    private static final double[] EXPECTED_REACHABILITY = {
+            INF, 1, 1,
+            INF, 1, 1, 1, SQRT_5_2, SQRT_1_2,
+            SQRT_5_2, SQRT_5_2, SQRT_5_2, 1,
+            INF, SQRT_1_2, 1, SQRT_5_2, SQRT_5_2, 1,
+            1, 1,
+            INF, 1, 1, 1, 1, Math.sqrt(2),
+            INF, INF, INF};
+
+    @Test
+    public void main() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            List<DoubleArrayOPTICS> ordering =
+                    new AlgoOPTICS().computerClusterOrdering("inputDBScan2.txt", 2, 2d, " ");
+
+            Assert.assertEquals(EXPECTED_NAMES.length, ordering.size());
+            for (int i = 0; i < ordering.size(); i++) {
+                Assert.assertEquals(EXPECTED_NAMES[i], ordering.get(i).getName());
+                Assert.assertEquals(EXPECTED_REACHABILITY[i], ordering.get(i).reachabilityDistance, 1e-12);
+            }
+        }
+    }
+
+}
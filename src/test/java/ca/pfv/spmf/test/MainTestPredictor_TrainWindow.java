@@ -0,0 +1,132 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Item;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.Sequence;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.database.SequenceDatabase;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.CPT.CPTPlus.CPTPlusPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.DG.DGPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Markov.MarkovAllKPredictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.Predictor;
+import ca.pfv.spmf.algorithms.sequenceprediction.ipredict.predictor.TDAG.TDAGPredictor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Class to test that a predictor having a window size is only trained on the last sequences
+ * passed to Train() and Update(), like a predictor without window trained on these sequences only.
+ */
+public class MainTestPredictor_TrainWindow {
+
+    private static final int WINDOW_SIZE = 3;
+
+    @Test
+    public void main() throws Exception {
+        SequenceDatabase trainingSet = new SequenceDatabase();
+        trainingSet.loadFileSPMFFormat(TestFiles.resourcePath("contextCPT.txt"), Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+        List<Sequence> sequences = trainingSet.getSequences();
+        Assert.assertTrue(sequences.size() > WINDOW_SIZE);
+
+        checkWindow(() -> new CPTPlusPredictor("CPT+", "CCF:false CBS:true splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0"), sequences);
+        checkWindow(() -> new DGPredictor("DG", "lookahead:4"), sequences);
+        checkWindow(() -> new MarkovAllKPredictor("AKOM", "order:4"), sequences);
+        checkWindow(() -> new TDAGPredictor("TDAG"), sequences);
+
+        // the sequences that leave the window contain repeated items, like clickstreams
+        List<Sequence> repeated = Arrays.asList(createSequence(0, 1, 2, 1));
+        List<Sequence> next = Arrays.asList(createSequence(1, 3, 4));
+        checkUpdates(() -> new CPTPlusPredictor("CPT+", "CCF:false CBS:true splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0"), 1, repeated, Arrays.asList(next));
+
+        // a random stream of sequences, evicted while the predictor is updated
+        List<Sequence> stream = createRandomSequences(new Random(42), 300, 8);
+        List<List<Sequence>> batches = new ArrayList<List<Sequence>>();
+        for (int start = 40; start < stream.size(); start += 13) {
+            batches.add(stream.subList(start, Math.min(start + 13, stream.size())));
+        }
+        for (int windowSize : new int[]{1, 5, 30}) {
+            checkUpdates(() -> new CPTPlusPredictor("CPT+", "CCF:false CBS:true splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0"), windowSize, stream.subList(0, 40), batches);
+            checkUpdates(() -> new CPTPlusPredictor("CPT+", "CCF:false CBS:false splitMethod:0 minPredictionRatio:1.0 noiseRatio:1.0"), windowSize, stream.subList(0, 40), batches);
+            checkUpdates(() -> new DGPredictor("DG", "lookahead:4"), windowSize, stream.subList(0, 40), batches);
+            checkUpdates(() -> new MarkovAllKPredictor("AKOM", "order:4"), windowSize, stream.subList(0, 40), batches);
+            checkUpdates(() -> new TDAGPredictor("TDAG"), windowSize, stream.subList(0, 40), batches);
+        }
+    }
+
+    private void checkWindow(Supplier<Predictor> factory, List<Sequence> sequences) {
+        Predictor windowed = factory.get();
+        windowed.setWindowSize(WINDOW_SIZE);
+        windowed.Train(sequences);
+
+        Predictor expected = factory.get();
+        expected.Train(sequences.subList(sequences.size() - WINDOW_SIZE, sequences.size()));
+
+        String tag = expected.getTAG();
+        Assert.assertEquals(tag + " size", expected.size(), windowed.size());
+        for (Sequence sequence : sequences) {
+            for (int length = 1; length < sequence.size(); length++) {
+                Sequence prefix = new Sequence(-1, sequence.getItems().subList(0, length));
+                Assert.assertEquals(tag + " prediction for " + prefix,
+                        expected.Predict(prefix).toString(), windowed.Predict(prefix).toString());
+            }
+        }
+    }
+
+    /**
+     * Check that a predictor having a window, trained and then updated with batches of sequences,
+     * makes the same predictions after each update as a predictor trained on the sequences of the window
+     */
+    private void checkUpdates(Supplier<Predictor> factory, int windowSize,
+                              List<Sequence> trainingSequences, List<List<Sequence>> batches) {
+        Predictor windowed = factory.get();
+        windowed.setWindowSize(windowSize);
+        windowed.Train(trainingSequences);
+
+        List<Sequence> seen = new ArrayList<Sequence>(trainingSequences);
+        for (List<Sequence> batch : batches) {
+            windowed.Update(batch);
+            seen.addAll(batch);
+
+            List<Sequence> window = seen.subList(Math.max(0, seen.size() - windowSize), seen.size());
+            Predictor expected = factory.get();
+            expected.Train(window);
+
+            String tag = expected.getTAG() + " window " + windowSize + " after " + seen.size() + " sequences";
+            for (Sequence sequence : seen.subList(Math.max(0, seen.size() - 2 * windowSize - 10), seen.size())) {
+                for (int length = 1; length < sequence.size(); length++) {
+                    Sequence prefix = new Sequence(-1, sequence.getItems().subList(0, length));
+                    Assert.assertEquals(tag + " prediction for " + prefix,
+                            expected.Predict(prefix).toString(), windowed.Predict(prefix).toString());
+                }
+            }
+        }
+    }
+
+    private static Sequence createSequence(int id, int... items) {
+        Sequence sequence = new Sequence(id);
+        for (int item : items) {
+            sequence.addItem(new Item(item));
+        }
+        return sequence;
+    }
+
+    /**
+     * Create random sequences of 2 to 8 items where items are often repeated
+     */
+    private static List<Sequence> createRandomSequences(Random random, int sequenceCount, int itemCount) {
+        List<Sequence> sequences = new ArrayList<Sequence>();
+        for (int id = 0; id < sequenceCount; id++) {
+            int[] items = new int[2 + random.nextInt(7)];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = 1 + random.nextInt(itemCount);
+            }
+            sequences.add(createSequence(id, items));
+        }
+        return sequences;
+    }
+}
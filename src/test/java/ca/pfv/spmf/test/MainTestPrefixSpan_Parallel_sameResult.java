@@ -0,0 +1,80 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.SameResultAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.AlgoPrefixSpan;
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.SequentialPattern;
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.SequentialPatterns;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class to test that the PrefixSpan algorithm finds the same sequential patterns with several threads
+ * as with a single thread, when the result is saved to a file and when it is kept in memory,
+ * and the same patterns as the original sequential implementation.
+ */
+public class MainTestPrefixSpan_Parallel_sameResult {
+
+    @Test
+    public void main() throws Exception {
+        // the patterns found by the original sequential implementation
+        Assert.assertEquals(Arrays.asList(
+                "1 -1 #SUP: 3 #SID: 0 1 3 ",
+                "1 -1 1 -1 #SUP: 2 #SID: 1 3 ",
+                "1 -1 5 -1 #SUP: 2 #SID: 1 3 ",
+                "1 -1 5 -1 1 -1 #SUP: 2 #SID: 1 3 ",
+                "2 -1 #SUP: 3 #SID: 0 1 2 ",
+                "2 -1 1 -1 #SUP: 2 #SID: 0 1 ",
+                "2 -1 5 -1 #SUP: 2 #SID: 0 1 ",
+                "2 -1 5 -1 1 -1 #SUP: 2 #SID: 0 1 ",
+                "5 -1 #SUP: 3 #SID: 0 1 3 ",
+                "5 -1 1 -1 #SUP: 3 #SID: 0 1 3 ",
+                "5 -1 1 -1 1 -1 #SUP: 2 #SID: 1 3 ",
+                "5 -1 1 -1 5 -1 #SUP: 2 #SID: 1 3 ",
+                "5 -1 1 -1 5 -1 1 -1 #SUP: 2 #SID: 1 3 ",
+                "5 -1 5 -1 #SUP: 2 #SID: 1 3 ",
+                "5 -1 5 -1 1 -1 #SUP: 2 #SID: 1 3 "),
+                checkSameResult(TestFiles.resourcePath("contextPrefixSpan.txt"), 0.5));
+        String randomDatabase = TestFiles.writeRandomSequenceDatabase(7, 300, 12, false);
+        checkSameResult(randomDatabase, 0.05);
+        checkSameResult(randomDatabase, 0.02);
+    }
+
+    private List<String> checkSameResult(String input, double minsup) throws Exception {
+        List<String> expected = SameResultAssertion.assertSameResultWithThreads("minsup " + minsup,
+                threadCount -> run(input, minsup, threadCount));
+        List<String> expectedInMemory = SameResultAssertion.assertSameResultWithThreads("minsup " + minsup + " in memory",
+                threadCount -> runInMemory(input, minsup, threadCount));
+        Assert.assertEquals(expected.size(), expectedInMemory.size());
+        return expected;
+    }
+
+    private List<String> run(String input, double minsup, int threadCount) throws Exception {
+        String output = TestFiles.createTempFile();
+        AlgoPrefixSpan algo = new AlgoPrefixSpan();
+        algo.setShowSequenceIdentifiers(true);
+        algo.setThreadCount(threadCount);
+        algo.runAlgorithm(input, minsup, output);
+        return TestFiles.readSortedLines(output);
+    }
+
+    private List<String> runInMemory(String input, double minsup, int threadCount) throws Exception {
+        AlgoPrefixSpan algo = new AlgoPrefixSpan();
+        algo.setThreadCount(threadCount);
+        SequentialPatterns patterns = algo.runAlgorithm(input, minsup, null);
+        List<String> result = new ArrayList<String>();
+        for (List<SequentialPattern> level : patterns.getLevels()) {
+            for (SequentialPattern pattern : level) {
+                result.add(pattern.itemsetsToString() + " #SUP: " + pattern.getAbsoluteSupport()
+                        + " #SID: " + pattern.getSequenceIDs());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
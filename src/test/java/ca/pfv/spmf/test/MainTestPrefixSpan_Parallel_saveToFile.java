@@ -0,0 +1,38 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequentialpatterns.prefixspan.AlgoPrefixSpan;
+import org.junit.Test;
+
+
+/**
+ * Example of how to run the PrefixSpan algorithm with several threads in source code,
+ * and save the result to an output file.
+ *
+ * @author Philippe Fournier-Viger
+ */
+public class MainTestPrefixSpan_Parallel_saveToFile {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // input file
+            String inputFile = "contextPrefixSpan.txt";
+            // output file path
+            String outputPath = ".//output.txt";
+
+            // Create an instance of the algorithm
+            AlgoPrefixSpan algo = new AlgoPrefixSpan();
+
+            // Mine the projected databases using 4 threads
+            algo.setThreadCount(4);
+
+            // show the sequence ids of the sequences where each pattern appears
+            algo.setShowSequenceIdentifiers(true);
+
+            // execute the algorithm with a minimum support of 2 sequences
+            algo.runAlgorithm(inputFile, outputPath, 2);
+            algo.printStatistics();
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.SameResultAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequentialpatterns.spam.AlgoSPAM;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to test that the SPAM algorithm finds the same sequential patterns with several threads
+ * as with a single thread, and the same patterns as the original sequential implementation.
+ */
+public class MainTestSPAM_Parallel_sameResult {
+
+    @Test
+    public void main() throws Exception {
+        // the patterns found by the original sequential implementation
+        Assert.assertEquals(Arrays.asList(
+                "1 -1 #SUP: 3",
+                "1 -1 1 -1 #SUP: 2",
+                "1 -1 5 -1 #SUP: 2",
+                "1 -1 5 -1 1 -1 #SUP: 2",
+                "2 -1 #SUP: 3",
+                "2 -1 1 -1 #SUP: 2",
+                "2 -1 5 -1 #SUP: 2",
+                "2 -1 5 -1 1 -1 #SUP: 2",
+                "5 -1 #SUP: 3",
+                "5 -1 1 -1 #SUP: 3",
+                "5 -1 1 -1 1 -1 #SUP: 2",
+                "5 -1 1 -1 5 -1 #SUP: 2",
+                "5 -1 1 -1 5 -1 1 -1 #SUP: 2",
+                "5 -1 5 -1 #SUP: 2",
+                "5 -1 5 -1 1 -1 #SUP: 2"),
+                checkSameResult(TestFiles.resourcePath("contextPrefixSpan.txt"), 0.5));
+        String randomDatabase = TestFiles.writeRandomSequenceDatabase(7, 300, 12, false);
+        checkSameResult(randomDatabase, 0.05);
+        checkSameResult(randomDatabase, 0.02);
+    }
+
+    private List<String> checkSameResult(String input, double minsup) throws Exception {
+        return SameResultAssertion.assertSameResultWithThreads("minsup " + minsup, threadCount -> {
+            String output = TestFiles.createTempFile();
+            AlgoSPAM algo = new AlgoSPAM();
+            algo.setThreadCount(threadCount);
+            algo.runAlgorithm(input, output, minsup);
+            return TestFiles.readSortedLines(output);
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.sequentialpatterns.uspan.AlgoUSpan;
+import org.junit.Test;
+
+/**
+ * Example of how to run the USpan algorithm with several threads in source code,
+ * and save the result to an output file.
+ *
+ * @author Philippe Fournier-Viger, 2015
+ */
+public class MainTestUSpan_Parallel {
+
+    @Test
+    public void main() {
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            // the input database
+            String input = "DataBase_HUSRM.txt";
+            // the path for saving the patterns found
+            String output = ".//output.txt";
+
+            // the minimum utility threshold
+            int minutil = 35;
+
+            AlgoUSpan algo = new AlgoUSpan();
+
+            // set the maximum pattern length (optional)
+            algo.setMaxPatternLength(4);
+
+            // find the patterns starting with each item using 4 threads
+            algo.setThreadCount(4);
+
+            // run the algorithm
+            algo.runAlgorithm(input, output, minutil);
+
+            // print statistics
+            algo.printStatistics();
+        });
+    }
+}
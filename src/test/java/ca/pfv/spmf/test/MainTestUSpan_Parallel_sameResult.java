@@ -0,0 +1,47 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.SameResultAssertion;
+import ca.pfv.spmf.TestFiles;
+import ca.pfv.spmf.algorithms.sequentialpatterns.uspan.AlgoUSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to test that the USpan algorithm finds the same high-utility sequential patterns with several threads
+ * as with a single thread, and the same patterns as the original sequential implementation.
+ */
+public class MainTestUSpan_Parallel_sameResult {
+
+    @Test
+    public void main() throws Exception {
+        checkSameResult("DataBase_USpan.txt", 10, Integer.MAX_VALUE);
+        checkSameResult("DataBase_USpan.txt", 30, Integer.MAX_VALUE);
+        checkSameResult("DataBase_HUSRM.txt", 10, Integer.MAX_VALUE);
+        // the patterns found by the original sequential implementation
+        Assert.assertEquals(Arrays.asList(
+                "1 -1 3 -1 7 -1 #UTIL: 36",
+                "1 4 -1 3 -1 2 -1 #UTIL: 37",
+                "1 4 -1 3 -1 7 -1 #UTIL: 35",
+                "3 -1 #UTIL: 35",
+                "3 -1 7 -1 #UTIL: 40",
+                "4 -1 3 -1 2 -1 #UTIL: 36",
+                "4 -1 3 -1 2 -1 5 -1 #UTIL: 37",
+                "4 -1 3 -1 2 -1 7 -1 #UTIL: 38",
+                "4 -1 3 -1 5 7 -1 #UTIL: 35"),
+                checkSameResult("DataBase_HUSRM.txt", 35, 4));
+    }
+
+    private List<String> checkSameResult(String input, int minutil, int maxPatternLength) throws Exception {
+        return SameResultAssertion.assertSameResultWithThreads(input + " minutil " + minutil, threadCount -> {
+            String output = TestFiles.createTempFile();
+            AlgoUSpan algo = new AlgoUSpan();
+            algo.setMaxPatternLength(maxPatternLength);
+            algo.setThreadCount(threadCount);
+            algo.runAlgorithm(input, output, minutil);
+            return TestFiles.readSortedLines(output);
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.NoExceptionAssertion;
+import ca.pfv.spmf.algorithms.frequentpatterns.estDec.Algo_estDec;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.Map.Entry;
+
+/**
+ * Class to test the estDec algorithm when transactions are processed in batches,
+ * and save the result to memory.
+ */
+public class MainTest_estDec_batches {
+
+    @Test
+    public void main() {
+
+        NoExceptionAssertion.assertDoesNotThrow(() -> {
+            String database = "contextIGB.txt";
+
+            double minsup = 0.1;
+            double minsig = 0.4 * minsup;
+
+            Algo_estDec algo = new Algo_estDec(minsup, minsig);
+
+            // read the transactions from a file in batches of 1000 transactions
+            // (the file is parsed by another thread)
+            algo.processTransactionBatchesFromFile(database, 1000);
+
+            // batches of transactions can also be processed from memory
+            algo.processTransactions(Arrays.asList(
+                    new int[]{1, 2, 4, 5},
+                    new int[]{2, 3, 5}));
+
+            // perform mining and save the result to memory
+            Hashtable<int[], Double> result = algo.performMining_saveResultToMemory();
+
+            // print statistics
+            algo.printStats();
+
+            // Show patterns found in console
+            for (Entry<int[], Double> entry : result.entrySet()) {
+                for (int item : entry.getKey()) {
+                    System.out.print(item + " ");
+                }
+                System.out.println("#SUP: " + entry.getValue());
+            }
+        });
+    }
+
+}
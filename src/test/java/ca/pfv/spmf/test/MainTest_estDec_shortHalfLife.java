@@ -0,0 +1,100 @@
+package ca.pfv.spmf.test;
+
+import ca.pfv.spmf.algorithms.frequentpatterns.estDec.Algo_estDec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Class to test the estDec algorithm with a short decay-base life, where the counts
+ * decay by many orders of magnitude between two updates of a node. The supports of the
+ * items are compared with the supports obtained by decaying the counts after each transaction.
+ */
+public class MainTest_estDec_shortHalfLife {
+
+    private static final int ITEM_COUNT = 20;
+
+    @Test
+    public void main() throws Exception {
+        double minsup = 0.1;
+        double minsig = 0.4 * minsup;
+        double b = 2;
+        double h = 2;
+
+        // generate a random stream of transactions
+        Random random = new Random(42);
+        List<int[]> transactions = new ArrayList<int[]>();
+        for (int i = 0; i < 5000; i++) {
+            List<Integer> items = new ArrayList<Integer>();
+            for (int item = 1; item <= ITEM_COUNT; item++) {
+                if (random.nextDouble() < 0.3) {
+                    items.add(item);
+                }
+            }
+            int[] transaction = new int[items.size()];
+            for (int j = 0; j < transaction.length; j++) {
+                transaction[j] = items.get(j);
+            }
+            transactions.add(transaction);
+        }
+
+        // compute the supports of the items by decaying the counts after each transaction
+        double d = Math.pow(b, -1.0 / h);
+        double n = 0;
+        double[] counts = new double[ITEM_COUNT + 1];
+        boolean[] seen = new boolean[ITEM_COUNT + 1];
+        for (int[] transaction : transactions) {
+            n = n * d + 1;
+            for (int item = 1; item <= ITEM_COUNT; item++) {
+                counts[item] *= d;
+            }
+            // the node of an item is created (with a count of 0) at its first occurrence
+            for (int item : transaction) {
+                if (seen[item]) {
+                    counts[item] += 1;
+                }
+                seen[item] = true;
+            }
+        }
+
+        // process the transactions one by one and in a single batch
+        Algo_estDec sequential = new Algo_estDec(minsup, minsig);
+        sequential.setDecayRate(b, h);
+        for (int[] transaction : transactions) {
+            sequential.processTransaction(transaction);
+        }
+        Algo_estDec batched = new Algo_estDec(minsup, minsig);
+        batched.setDecayRate(b, h);
+        batched.processTransactions(transactions);
+
+        checkItemSupports(sequential.performMining_saveResultToMemory(), counts, n, minsup);
+        checkItemSupports(batched.performMining_saveResultToMemory(), counts, n, minsup);
+    }
+
+    private void checkItemSupports(Hashtable<int[], Double> result, double[] counts, double n, double minsup) {
+        double[] supports = new double[ITEM_COUNT + 1];
+        for (Entry<int[], Double> entry : result.entrySet()) {
+            Assert.assertFalse(Double.isNaN(entry.getValue()) || Double.isInfinite(entry.getValue()));
+            if (entry.getKey().length == 1) {
+                supports[entry.getKey()[0]] = entry.getValue();
+            }
+        }
+        int frequentItemCount = 0;
+        for (int item = 1; item <= ITEM_COUNT; item++) {
+            double expected = counts[item] / n;
+            if (expected > minsup * (1 + 1e-9)) {
+                frequentItemCount++;
+                Assert.assertEquals("support of item " + item, expected, supports[item], 1e-9 * expected);
+            } else if (expected < minsup * (1 - 1e-9)) {
+                Assert.assertEquals("support of item " + item, 0, supports[item], 0);
+            }
+        }
+        Assert.assertTrue(frequentItemCount > 0);
+    }
+
+}